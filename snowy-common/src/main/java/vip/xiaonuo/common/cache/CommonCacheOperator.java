@@ -14,70 +14,236 @@ package vip.xiaonuo.common.cache;
 
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.consts.CacheConstant;
+import vip.xiaonuo.common.util.CommonRedisScanUtil;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * 通用Redis缓存操作器
+ * 在Redis前增加有容量和存活时间上限的本地一级缓存，只缓存Redis中未设置过期时间的键（如系统配置、权限码列表），
+ * 设置了过期时间的验证码、登录失败次数、防重复提交等键始终读取Redis，用于判断其他缓存是否过期的版本号键同样
+ * 始终读取Redis，不受失效消息丢失的影响；写入、自增和删除时失效本节点并通过Redis发布订阅失效其他节点，
+ * 带过期时间的键不会被缓存，但写入前该键可能未设置过期时间并已被其他节点缓存，因此同样通知其他节点，
+ * 消息丢失时由本地缓存存活时间兜底。
+ * 本地缓存返回的是共享实例，调用方不可修改
  *
  * @author xuyuxiang
  * @date 2022/6/21 16:00
  **/
+@Slf4j
 @Component
-public class CommonCacheOperator {
+public class CommonCacheOperator implements MessageListener {
 
     /** 所有缓存Key的前缀 */
     private static final String CACHE_KEY_PREFIX = "Cache:";
 
+    /** 失效全部本地缓存的标记 */
+    private static final String ALL_KEY = "*";
+
+    /** 本地缓存最大数量 */
+    private static final long LOCAL_CACHE_MAXIMUM_SIZE = 10000;
+
+    /** 本地缓存存活时间，失效消息丢失时的最长不一致时间 */
+    private static final long LOCAL_CACHE_EXPIRE_SECONDS = 300;
+
+    /** Redis中键未设置过期时间时返回的剩余时间 */
+    private static final long NO_EXPIRE = -1;
+
+    /** 不经过本地缓存的键，版本号等键过期会导致依赖它的缓存一直使用旧数据 */
+    private static final Set<String> LOCAL_CACHE_BYPASS_KEY_SET = Set.of(CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY);
+
+    /** 不经过本地缓存的键前缀，权限码列表由登录用户权限码本地缓存自行按登录失效，重新加载时必须读到Redis中的最新值 */
+    private static final List<String> LOCAL_CACHE_BYPASS_KEY_PREFIX_LIST = List.of(CacheConstant.AUTH_B_PERMISSION_LIST_CACHE_KEY,
+            CacheConstant.AUTH_C_PERMISSION_LIST_CACHE_KEY);
+
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    private final Cache<String, Object> localCache = Caffeine.newBuilder()
+            .maximumSize(LOCAL_CACHE_MAXIMUM_SIZE)
+            .expireAfterWrite(LOCAL_CACHE_EXPIRE_SECONDS, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CacheConstant.CACHE_INVALIDATE_CHANNEL));
+    }
+
     public void put(String key, Object value) {
         redisTemplate.boundValueOps(CACHE_KEY_PREFIX + key).set(value);
+        this.invalidate(key);
     }
 
     public void put(String key, Object value, long timeoutSeconds) {
         redisTemplate.boundValueOps(CACHE_KEY_PREFIX + key).set(value, timeoutSeconds, TimeUnit.SECONDS);
+        // 带过期时间的键不会进入本地缓存，但覆盖前未设置过期时间的旧值可能仍缓存在各节点
+        this.invalidate(key);
     }
 
     public Object get(String key) {
-        return redisTemplate.boundValueOps(CACHE_KEY_PREFIX + key).get();
+        if (LOCAL_CACHE_BYPASS_KEY_SET.contains(key) || LOCAL_CACHE_BYPASS_KEY_PREFIX_LIST.stream().anyMatch(key::startsWith)) {
+            return redisTemplate.boundValueOps(CACHE_KEY_PREFIX + key).get();
+        }
+        Object value = localCache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        // 加载期间到达的失效会等待加载完成后再移除，不会留下旧值
+        AtomicReference<Object> loadedValue = new AtomicReference<>();
+        value = localCache.get(key, cacheKey -> {
+            List<Object> resultList = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings({"unchecked", "rawtypes"})
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    operations.opsForValue().get(CACHE_KEY_PREFIX + cacheKey);
+                    operations.getExpire(CACHE_KEY_PREFIX + cacheKey);
+                    return null;
+                }
+            });
+            loadedValue.set(resultList.get(0));
+            return Objects.equals(resultList.get(1), NO_EXPIRE) ? resultList.get(0) : null;
+        });
+        return value != null ? value : loadedValue.get();
+    }
+
+    public Long increment(String key) {
+        Long value = redisTemplate.boundValueOps(CACHE_KEY_PREFIX + key).increment();
+        this.invalidate(key);
+        return value;
     }
 
     public void remove(String... key) {
         ArrayList<String> keys = CollectionUtil.toList(key);
         List<String> withPrefixKeys = keys.stream().map(i -> CACHE_KEY_PREFIX + i).collect(Collectors.toList());
         redisTemplate.delete(withPrefixKeys);
+        this.invalidate(key);
     }
 
     public Collection<String> getAllKeys() {
-        Set<String> keys = redisTemplate.keys(CACHE_KEY_PREFIX + "*");
-        // 去掉缓存key的common prefix前缀
-        return keys.stream().map(key -> StrUtil.removePrefix(key, CACHE_KEY_PREFIX)).collect(Collectors.toSet());
+        Set<String> results = new HashSet<>();
+        // 去掉缓存key的common prefix前缀，SCAN可能返回重复的键，由Set去重
+        CommonRedisScanUtil.scan(redisTemplate, CACHE_KEY_PREFIX + "*", CommonRedisScanUtil.DEFAULT_BATCH_SIZE,
+                keyList -> keyList.forEach(key -> results.add(StrUtil.removePrefix(key, CACHE_KEY_PREFIX))));
+        return results;
     }
 
     public Collection<Object> getAllValues() {
-        Set<String> keys = redisTemplate.keys(CACHE_KEY_PREFIX + "*");
-        return redisTemplate.opsForValue().multiGet(keys);
+        return this.getAllKeyValues().values();
     }
 
     public Map<String, Object> getAllKeyValues() {
-        Collection<String> allKeys = this.getAllKeys();
         HashMap<String, Object> results = MapUtil.newHashMap();
-        for (String key : allKeys) {
-            results.put(key, this.get(key));
-        }
+        this.scanKeyValues("*", CommonRedisScanUtil.DEFAULT_BATCH_SIZE, results::putAll);
         return results;
     }
 
+    /**
+     * 按批遍历匹配的缓存键值，键已去掉前缀，每批一次MGET且不经过本地缓存，
+     * 供缓存管理等需要查看大量键的场景逐批处理，避免一次性加载全部键值
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public void scanKeyValues(String pattern, int batchSize, Consumer<Map<String, Object>> batchConsumer) {
+        CommonRedisScanUtil.scanValues(redisTemplate, CACHE_KEY_PREFIX + pattern, batchSize, (keyList, valueList) -> {
+            Map<String, Object> batchMap = MapUtil.newHashMap(keyList.size());
+            for (int i = 0; i < keyList.size() && i < valueList.size(); i++) {
+                // 遍历期间被删除的键跳过
+                if (valueList.get(i) != null) {
+                    batchMap.put(StrUtil.removePrefix(keyList.get(i), CACHE_KEY_PREFIX), valueList.get(i));
+                }
+            }
+            batchConsumer.accept(batchMap);
+        });
+    }
+
     public void removeBatch(String pattern) {
-        Set<String> keys = redisTemplate.keys(CACHE_KEY_PREFIX + pattern);
-        redisTemplate.delete(keys);
+        CommonRedisScanUtil.delete(redisTemplate, CACHE_KEY_PREFIX + pattern);
+        this.invalidate(ALL_KEY);
+    }
+
+    /**
+     * 获取本地缓存命中、未命中、淘汰等统计
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public CacheStats getLocalCacheStats() {
+        return localCache.stats();
+    }
+
+    /**
+     * 获取本地缓存当前数量（估算值）
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public long getLocalCacheSize() {
+        return localCache.estimatedSize();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        List<String> partList = StrUtil.split(new String(message.getBody(), StandardCharsets.UTF_8), StrUtil.C_LF);
+        if (partList.size() < 2 || nodeId.equals(partList.get(0))) {
+            return;
+        }
+        this.invalidateLocal(partList.subList(1, partList.size()));
+    }
+
+    /**
+     * 失效本节点并通知其他节点
+     */
+    private void invalidate(String... key) {
+        List<String> keyList = Arrays.asList(key);
+        this.invalidateLocal(keyList);
+        try {
+            stringRedisTemplate.convertAndSend(CacheConstant.CACHE_INVALIDATE_CHANNEL,
+                    nodeId + StrUtil.LF + String.join(StrUtil.LF, keyList));
+        } catch (Exception e) {
+            // 发布失败时其他节点依赖本地缓存存活时间兜底
+            log.error(">>> 缓存失效消息发布失败，key：{}", keyList, e);
+        }
+    }
+
+    private void invalidateLocal(List<String> keyList) {
+        if (keyList.contains(ALL_KEY)) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidateAll(keyList);
+        }
     }
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 关系图，一个关系分类下的正向（对象到目标）与反向（目标到对象）邻接索引
+ * 每个键对应的列表不可变，写入时按键复制替换，读取无需加锁
+ *
+ * @author jetox
+ * @date 2026/10/18 22:00
+ **/
+public final class CommonRelationGraph {
+
+    private final Map<String, CommonRelationRecord> idIndex = new ConcurrentHashMap<>();
+
+    private final Map<String, List<CommonRelationRecord>> objectIndex = new ConcurrentHashMap<>();
+
+    private final Map<String, List<CommonRelationRecord>> targetIndex = new ConcurrentHashMap<>();
+
+    private final long loadMillis;
+
+    private CommonRelationGraph(long loadMillis) {
+        this.loadMillis = loadMillis;
+    }
+
+    /**
+     * 根据关系记录构建关系图
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public static CommonRelationGraph build(Collection<CommonRelationRecord> recordList, long loadMillis) {
+        CommonRelationGraph graph = new CommonRelationGraph(loadMillis);
+        Map<String, List<CommonRelationRecord>> objectMap = new HashMap<>();
+        Map<String, List<CommonRelationRecord>> targetMap = new HashMap<>();
+        for (CommonRelationRecord record : recordList) {
+            graph.idIndex.put(record.getId(), record);
+            objectMap.computeIfAbsent(keyOf(record.getObjectId()), key -> new ArrayList<>()).add(record);
+            targetMap.computeIfAbsent(keyOf(record.getTargetId()), key -> new ArrayList<>()).add(record);
+        }
+        objectMap.forEach((key, value) -> graph.objectIndex.put(key, List.copyOf(value)));
+        targetMap.forEach((key, value) -> graph.targetIndex.put(key, List.copyOf(value)));
+        return graph;
+    }
+
+    /**
+     * 获取加载时间
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    /**
+     * 根据对象id获取关系
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public List<CommonRelationRecord> getByObjectId(String objectId) {
+        return objectId == null ? Collections.emptyList() : objectIndex.getOrDefault(objectId, Collections.emptyList());
+    }
+
+    /**
+     * 根据目标id获取关系
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public List<CommonRelationRecord> getByTargetId(String targetId) {
+        return targetId == null ? Collections.emptyList() : targetIndex.getOrDefault(targetId, Collections.emptyList());
+    }
+
+    /**
+     * 写入关系：clearObjectId不为空时先移除该对象的全部关系，再按id新增或覆盖
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public synchronized void write(String clearObjectId, Collection<CommonRelationRecord> upsertList) {
+        if (clearObjectId != null) {
+            for (CommonRelationRecord record : objectIndex.getOrDefault(clearObjectId, Collections.emptyList())) {
+                this.remove(record);
+            }
+        }
+        for (CommonRelationRecord record : upsertList) {
+            CommonRelationRecord previous = idIndex.get(record.getId());
+            if (previous != null) {
+                this.remove(previous);
+            }
+            idIndex.put(record.getId(), record);
+            objectIndex.put(keyOf(record.getObjectId()), append(objectIndex.get(keyOf(record.getObjectId())), record));
+            targetIndex.put(keyOf(record.getTargetId()), append(targetIndex.get(keyOf(record.getTargetId())), record));
+        }
+    }
+
+    private void remove(CommonRelationRecord record) {
+        idIndex.remove(record.getId());
+        removeFrom(objectIndex, keyOf(record.getObjectId()), record);
+        removeFrom(targetIndex, keyOf(record.getTargetId()), record);
+    }
+
+    private static void removeFrom(Map<String, List<CommonRelationRecord>> index, String key, CommonRelationRecord record) {
+        List<CommonRelationRecord> current = index.get(key);
+        if (current == null) {
+            return;
+        }
+        List<CommonRelationRecord> resultList = new ArrayList<>(current.size());
+        for (CommonRelationRecord item : current) {
+            if (!item.getId().equals(record.getId())) {
+                resultList.add(item);
+            }
+        }
+        if (resultList.isEmpty()) {
+            index.remove(key);
+        } else {
+            index.put(key, List.copyOf(resultList));
+        }
+    }
+
+    private static List<CommonRelationRecord> append(List<CommonRelationRecord> current, CommonRelationRecord record) {
+        if (current == null) {
+            return List.of(record);
+        }
+        List<CommonRelationRecord> resultList = new ArrayList<>(current.size() + 1);
+        resultList.addAll(current);
+        resultList.add(record);
+        return List.copyOf(resultList);
+    }
+
+    /**
+     * 目标id可能为空（如工作台数据），以空串作为索引键，按空id查询时不返回
+     */
+    private static String keyOf(String id) {
+        return id == null ? "" : id;
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 关系图缓存，按关系分类懒加载整类关系并建立正反向索引
+ * 本节点的写入在事务提交后直接写入关系图，同时通过Redis发布订阅通知其他节点失效该分类
+ *
+ * @author jetox
+ * @date 2026/10/18 22:00
+ **/
+public class CommonRelationGraphCache {
+
+    /** 关系图最长存活时间，作为发布订阅消息丢失时的兜底 */
+    private static final long MAX_AGE_MILLIS = 10 * 60 * 1000L;
+
+    /** 失效全部分类的标记，仅处理旧版本节点发布的消息 */
+    static final String ALL_CATEGORY = "*";
+
+    private final String name;
+
+    private final Set<String> categorySet;
+
+    private final Function<String, List<CommonRelationRecord>> loader;
+
+    private final CommonRelationGraphCenter commonRelationGraphCenter;
+
+    private final Map<String, CommonRelationGraph> graphMap = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> generationMap = new ConcurrentHashMap<>();
+
+    CommonRelationGraphCache(String name, Set<String> categorySet, Function<String, List<CommonRelationRecord>> loader,
+                             CommonRelationGraphCenter commonRelationGraphCenter) {
+        this.name = name;
+        this.categorySet = Set.copyOf(categorySet);
+        this.loader = loader;
+        this.commonRelationGraphCenter = commonRelationGraphCenter;
+        this.categorySet.forEach(category -> generationMap.put(category, new AtomicLong()));
+    }
+
+    /**
+     * 获取缓存名称，通常为关系表名
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 该分类是否由缓存提供，分类为空时需查询数据库
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public boolean isCached(String category) {
+        return category != null && categorySet.contains(category);
+    }
+
+    /**
+     * 根据对象id与分类获取关系
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public List<CommonRelationRecord> getByObjectId(String objectId, String category) {
+        return this.getGraph(category).getByObjectId(objectId);
+    }
+
+    /**
+     * 根据对象id集合与分类获取关系
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public List<CommonRelationRecord> getByObjectIdList(Collection<String> objectIdList, String category) {
+        CommonRelationGraph graph = this.getGraph(category);
+        List<CommonRelationRecord> resultList = new ArrayList<>();
+        for (String objectId : distinct(objectIdList)) {
+            resultList.addAll(graph.getByObjectId(objectId));
+        }
+        return resultList;
+    }
+
+    /**
+     * 根据目标id与分类获取关系
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public List<CommonRelationRecord> getByTargetId(String targetId, String category) {
+        return this.getGraph(category).getByTargetId(targetId);
+    }
+
+    /**
+     * 根据目标id集合与分类获取关系
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public List<CommonRelationRecord> getByTargetIdList(Collection<String> targetIdList, String category) {
+        CommonRelationGraph graph = this.getGraph(category);
+        List<CommonRelationRecord> resultList = new ArrayList<>();
+        for (String targetId : distinct(targetIdList)) {
+            resultList.addAll(graph.getByTargetId(targetId));
+        }
+        return resultList;
+    }
+
+    /**
+     * 新增关系，提交后写入本地关系图并通知其他节点
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public void append(Collection<CommonRelationRecord> recordList) {
+        Map<String, List<CommonRelationRecord>> categoryMap = new LinkedHashMap<>();
+        recordList.stream().filter(record -> this.isCached(record.getCategory()))
+                .forEach(record -> categoryMap.computeIfAbsent(record.getCategory(), key -> new ArrayList<>()).add(record));
+        categoryMap.forEach((category, categoryRecordList) -> this.afterCommit(() -> this.write(category, null, categoryRecordList)));
+    }
+
+    /**
+     * 以新关系替换对象在该分类下的全部关系，提交后写入本地关系图并通知其他节点
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public void replace(String objectId, String category, Collection<CommonRelationRecord> recordList) {
+        if (this.isCached(category)) {
+            List<CommonRelationRecord> categoryRecordList = List.copyOf(recordList);
+            this.afterCommit(() -> this.write(category, objectId, categoryRecordList));
+        }
+    }
+
+    /**
+     * 按条件删除或更新关系后，提交后失效受影响的分类并通知其他节点，未缓存的分类忽略
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public void invalidate(Collection<String> categoryList) {
+        Set<String> invalidCategorySet = new LinkedHashSet<>();
+        categoryList.stream().filter(this::isCached).forEach(invalidCategorySet::add);
+        if (invalidCategorySet.isEmpty()) {
+            return;
+        }
+        this.afterCommit(() -> invalidCategorySet.forEach(category -> {
+            this.evictLocal(category);
+            commonRelationGraphCenter.publish(name, category);
+        }));
+    }
+
+    /**
+     * 失效本地缓存，不通知其他节点
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    void evictLocal(String category) {
+        if (ALL_CATEGORY.equals(category)) {
+            generationMap.values().forEach(AtomicLong::incrementAndGet);
+            graphMap.clear();
+        } else if (this.isCached(category)) {
+            generationMap.get(category).incrementAndGet();
+            graphMap.remove(category);
+        }
+    }
+
+    private void write(String category, String clearObjectId, List<CommonRelationRecord> recordList) {
+        // 递增代数，使提交前开始的加载结果作废
+        generationMap.get(category).incrementAndGet();
+        CommonRelationGraph graph = graphMap.get(category);
+        if (graph != null) {
+            graph.write(clearObjectId, recordList);
+        }
+        commonRelationGraphCenter.publish(name, category);
+    }
+
+    private CommonRelationGraph getGraph(String category) {
+        CommonRelationGraph graph = graphMap.get(category);
+        long now = System.currentTimeMillis();
+        if (graph != null && now - graph.getLoadMillis() < MAX_AGE_MILLIS) {
+            return graph;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // 事务内加载的结果可能包含本事务未提交的关系，回滚时不会递增代数，因此不放入缓存
+            return CommonRelationGraph.build(loader.apply(category), now);
+        }
+        AtomicLong generation = generationMap.get(category);
+        synchronized (generation) {
+            graph = graphMap.get(category);
+            if (graph != null && now - graph.getLoadMillis() < MAX_AGE_MILLIS) {
+                return graph;
+            }
+            long expectedGeneration = generation.get();
+            graph = CommonRelationGraph.build(loader.apply(category), now);
+            if (generation.get() == expectedGeneration) {
+                graphMap.put(category, graph);
+            }
+            return graph;
+        }
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+        } else {
+            runnable.run();
+        }
+    }
+
+    private static Collection<String> distinct(Collection<String> idList) {
+        if (idList == null) {
+            return Collections.emptyList();
+        }
+        return idList.size() > 1 ? new LinkedHashSet<>(idList) : idList;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.cache;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.consts.CacheConstant;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 关系图缓存中心，统一注册各关系表的关系图缓存，并通过Redis发布订阅在集群内传递失效消息
+ * 消息格式为：节点id,缓存名称,分类，分类为*时失效全部分类
+ *
+ * @author jetox
+ * @date 2026/10/18 22:00
+ **/
+@Slf4j
+@Component
+public class CommonRelationGraphCenter implements MessageListener {
+
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    private final Map<String, CommonRelationGraphCache> cacheMap = new ConcurrentHashMap<>();
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CacheConstant.RELATION_GRAPH_INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 注册关系图缓存
+     *
+     * @param name 缓存名称，通常为关系表名
+     * @param categorySet 由缓存提供的关系分类
+     * @param loader 根据分类加载该分类全部关系
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public CommonRelationGraphCache register(String name, Set<String> categorySet, Function<String, List<CommonRelationRecord>> loader) {
+        CommonRelationGraphCache commonRelationGraphCache = new CommonRelationGraphCache(name, categorySet, loader, this);
+        cacheMap.put(name, commonRelationGraphCache);
+        return commonRelationGraphCache;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        List<String> partList = StrUtil.split(new String(message.getBody(), StandardCharsets.UTF_8), StrUtil.C_COMMA, 3);
+        if (partList.size() != 3 || nodeId.equals(partList.get(0))) {
+            return;
+        }
+        CommonRelationGraphCache commonRelationGraphCache = cacheMap.get(partList.get(1));
+        if (commonRelationGraphCache != null) {
+            commonRelationGraphCache.evictLocal(partList.get(2));
+        }
+    }
+
+    void publish(String name, String category) {
+        try {
+            stringRedisTemplate.convertAndSend(CacheConstant.RELATION_GRAPH_INVALIDATE_CHANNEL,
+                    StrUtil.join(StrUtil.COMMA, nodeId, name, category));
+        } catch (Exception e) {
+            // 发布失败时其他节点依赖关系图最长存活时间兜底
+            log.error(">>> 关系图失效消息发布失败，缓存：{}，分类：{}", name, category, e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.cache;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 关系记录，关系图缓存中的不可变节点，扩展信息在加载时已解析
+ *
+ * @author jetox
+ * @date 2026/10/18 22:00
+ **/
+@Getter
+public final class CommonRelationRecord {
+
+    /** id */
+    private final String id;
+
+    /** 对象id */
+    private final String objectId;
+
+    /** 目标id */
+    private final String targetId;
+
+    /** 分类 */
+    private final String category;
+
+    /** 扩展信息 */
+    private final String extJson;
+
+    /** 已解析的扩展信息，非JSON对象时为null，仅在内部用于转换 */
+    @Getter(AccessLevel.NONE)
+    private final JSONObject ext;
+
+    /** 扩展信息的只读视图，首次获取时创建 */
+    @Getter(AccessLevel.NONE)
+    private volatile Map<String, Object> extView;
+
+    /** 最近一次转换的扩展信息对象 */
+    @Getter(AccessLevel.NONE)
+    private volatile Object extBean;
+
+    public CommonRelationRecord(String id, String objectId, String targetId, String category, String extJson) {
+        this.id = id;
+        this.objectId = objectId;
+        this.targetId = targetId;
+        this.category = category;
+        this.extJson = extJson;
+        this.ext = JSONUtil.isTypeJSONObject(extJson) ? JSONUtil.parseObj(extJson) : null;
+    }
+
+    /**
+     * 获取扩展信息的只读视图，嵌套的对象与数组同样只读，非JSON对象时为null
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getExt() {
+        Map<String, Object> current = extView;
+        if (current == null && ext != null) {
+            current = (Map<String, Object>) readOnly(ext);
+            extView = current;
+        }
+        return current;
+    }
+
+    /**
+     * 获取转换为指定类型的扩展信息，同一类型只转换一次，返回的对象只读，不可修改
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    public <T> T getExt(Class<T> beanClass) {
+        Object current = extBean;
+        if (current != null && current.getClass() == beanClass) {
+            return beanClass.cast(current);
+        }
+        if (ext == null) {
+            return null;
+        }
+        T bean = ext.toBean(beanClass);
+        extBean = bean;
+        return bean;
+    }
+
+    private static Object readOnly(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copyMap = new LinkedHashMap<>(map.size());
+            map.forEach((key, item) -> copyMap.put(String.valueOf(key), readOnly(item)));
+            return Collections.unmodifiableMap(copyMap);
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(CommonRelationRecord::readOnly).toList();
+        }
+        return value;
+    }
+}
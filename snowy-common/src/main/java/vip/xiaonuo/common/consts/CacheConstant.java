@@ -35,4 +35,24 @@ public class CacheConstant {
      */
     public static final String AUTH_C_PERMISSION_LIST_CACHE_KEY = "auth-c-permission-list:";
 
+    /**
+     * 权限版本号，角色或用户授权变化时递增
+     */
+    public static final String AUTH_PERMISSION_VERSION_CACHE_KEY = "auth-permission-version";
+
+    /**
+     * 登录用户权限码本地缓存失效消息频道
+     */
+    public static final String AUTH_PERMISSION_LIST_INVALIDATE_CHANNEL = "auth-permission-list-invalidate";
+
+    /**
+     * 关系图缓存失效消息频道
+     */
+    public static final String RELATION_GRAPH_INVALIDATE_CHANNEL = "relation-graph-invalidate";
+
+    /**
+     * 通用缓存本地一级缓存失效消息频道
+     */
+    public static final String CACHE_INVALIDATE_CHANNEL = "common-cache-invalidate";
+
 }
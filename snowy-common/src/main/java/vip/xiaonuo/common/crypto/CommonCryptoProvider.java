@@ -0,0 +1,88 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.crypto;
+
+/**
+ * 国密算法提供者SPI，CommonCryptogramUtil通过本接口完成全部加解密、签名与杂凑
+ * 默认使用纯Java实现的CommonSmCryptoProvider；如需接入加密机等实现，
+ * 在META-INF/services/vip.xiaonuo.common.crypto.CommonCryptoProvider中声明实现类即可，
+ * 实现类必须与现有密文、签名格式保持兼容（十六进制小写，SM2密文C1C3C2，签名r||s，SM4为ECB模式）
+ *
+ * @author jetox
+ * @date 2026/10/18 17:00
+ **/
+public interface CommonCryptoProvider {
+
+    /**
+     * SM2公钥加密
+     *
+     * @param str 明文
+     * @param publicKey 公钥十六进制
+     * @return C1C3C2十六进制密文
+     */
+    String sm2Encrypt(String str, String publicKey);
+
+    /**
+     * SM2私钥解密
+     *
+     * @param str C1C3C2十六进制密文
+     * @param privateKey 私钥十六进制
+     * @return 明文，解密失败时返回空字符串
+     */
+    String sm2Decrypt(String str, String privateKey);
+
+    /**
+     * SM2签名
+     *
+     * @param str 待签名数据
+     * @param privateKey 私钥十六进制
+     * @return r||s十六进制签名
+     */
+    String sm2Sign(String str, String privateKey);
+
+    /**
+     * SM2验签
+     *
+     * @param originalStr 签名原文
+     * @param sign r||s十六进制签名
+     * @param publicKey 公钥十六进制
+     * @return 是否通过
+     */
+    boolean sm2Verify(String originalStr, String sign, String publicKey);
+
+    /**
+     * SM3杂凑
+     *
+     * @param str 字符串
+     * @return 十六进制杂凑值
+     */
+    String sm3Hash(String str);
+
+    /**
+     * SM4加密，ECB模式，PKCS#7填充
+     *
+     * @param str 明文
+     * @param key 十六进制密钥
+     * @return 十六进制密文
+     */
+    String sm4Encrypt(String str, String key);
+
+    /**
+     * SM4解密，ECB模式，PKCS#7填充
+     *
+     * @param str 十六进制密文
+     * @param key 十六进制密钥
+     * @return 明文，解密失败时返回空字符串
+     */
+    String sm4Decrypt(String str, String key);
+}
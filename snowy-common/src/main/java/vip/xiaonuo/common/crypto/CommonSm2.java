@@ -0,0 +1,403 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.crypto;
+
+import cn.hutool.core.util.HexUtil;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SM2椭圆曲线公钥密码（GB/T 32918-2016），纯Java实现
+ * 密文与签名格式与前端sm-crypto保持一致：密文为C1C3C2的十六进制，C1不带04前缀；
+ * 签名为r||s的十六进制，不做DER编码，也不对消息做Z值杂凑（直接以消息字节作为e）
+ * 基点与常用公钥预先计算4位窗口的定点倍点表，签名与加密只需64次点加，无需倍点运算
+ *
+ * @author jetox
+ * @date 2026/10/18 17:00
+ **/
+public final class CommonSm2 {
+
+    private static final BigInteger P = new BigInteger("FFFFFFFEFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF00000000FFFFFFFFFFFFFFFF", 16);
+    private static final BigInteger B = new BigInteger("28E9FA9E9D9F5E344D5A9E4BCF6509A7F39789F515AB8F92DDBCBD414D940E93", 16);
+    private static final BigInteger N = new BigInteger("FFFFFFFEFFFFFFFFFFFFFFFFFFFFFFFF7203DF6B21C6052B53BBF40939D54123", 16);
+    private static final BigInteger GX = new BigInteger("32C4AE2C1F1981195F9904466A39C9948FE30BBFF2660BE1715A4589334C74C7", 16);
+    private static final BigInteger GY = new BigInteger("BC3736A2F4F6779C59BDCEE36B692153D0A9877CC62A474002DF32E52139F0A0", 16);
+
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+
+    /** 坐标十六进制长度 */
+    private static final int COORDINATE_HEX_LENGTH = 64;
+
+    /** 缓存定点倍点表的公钥数量上限 */
+    private static final int MAX_CACHED_KEYS = 16;
+
+    private static final Point INFINITY = new Point(BigInteger.ONE, BigInteger.ONE, BigInteger.ZERO);
+
+    private static final Point[][] G_TABLE = buildFixedTable(new Point(GX, GY, BigInteger.ONE));
+
+    private static final Map<String, Point[][]> PUBLIC_KEY_TABLE_CACHE = new ConcurrentHashMap<>();
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private CommonSm2() {
+    }
+
+    /**
+     * 公钥加密，输出C1C3C2十六进制
+     *
+     * @param data 明文字节
+     * @param publicKey 公钥十六进制（04||x||y）
+     */
+    public static String encrypt(byte[] data, String publicKey) {
+        Point[][] publicKeyTable = getPublicKeyTable(publicKey);
+        BigInteger k = randomScalar();
+        Point c1 = multiplyFixed(G_TABLE, k).normalize();
+        Point shared = multiplyFixed(publicKeyTable, k).normalize();
+        byte[] x2 = toBytes(shared.x);
+        byte[] y2 = toBytes(shared.y);
+        byte[] c2 = kdfXor(x2, y2, data);
+        CommonSm3 sm3 = new CommonSm3();
+        sm3.update(x2);
+        sm3.update(data);
+        sm3.update(y2);
+        byte[] c3 = sm3.doFinal();
+        return toHex(c1.x) + toHex(c1.y) + HexUtil.encodeHexStr(c3) + HexUtil.encodeHexStr(c2);
+    }
+
+    /**
+     * 私钥解密，密文不合法或校验失败时返回null
+     *
+     * @param cipherHex C1C3C2十六进制密文
+     * @param privateKey 私钥十六进制
+     */
+    public static byte[] decrypt(String cipherHex, String privateKey) {
+        if (cipherHex == null || cipherHex.length() < 2 * COORDINATE_HEX_LENGTH + 64 || cipherHex.length() % 2 != 0) {
+            return null;
+        }
+        byte[] cipher;
+        try {
+            cipher = HexUtil.decodeHex(cipherHex);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        BigInteger x1 = new BigInteger(1, Arrays.copyOfRange(cipher, 0, 32));
+        BigInteger y1 = new BigInteger(1, Arrays.copyOfRange(cipher, 32, 64));
+        Point c1 = new Point(x1, y1, BigInteger.ONE);
+        if (!c1.isOnCurve()) {
+            return null;
+        }
+        Point shared = multiply(c1, new BigInteger(privateKey, 16)).normalize();
+        if (shared.isInfinity()) {
+            return null;
+        }
+        byte[] x2 = toBytes(shared.x);
+        byte[] y2 = toBytes(shared.y);
+        byte[] c3 = Arrays.copyOfRange(cipher, 64, 96);
+        byte[] plain = kdfXor(x2, y2, Arrays.copyOfRange(cipher, 96, cipher.length));
+        CommonSm3 sm3 = new CommonSm3();
+        sm3.update(x2);
+        sm3.update(plain);
+        sm3.update(y2);
+        return Arrays.equals(sm3.doFinal(), c3) ? plain : null;
+    }
+
+    /**
+     * 私钥签名，输出r||s十六进制
+     *
+     * @param data 待签名字节
+     * @param privateKey 私钥十六进制
+     */
+    public static String sign(byte[] data, String privateKey) {
+        BigInteger d = new BigInteger(privateKey, 16);
+        BigInteger e = new BigInteger(1, data);
+        BigInteger dInverse = d.add(BigInteger.ONE).modInverse(N);
+        while (true) {
+            BigInteger k = randomScalar();
+            Point kg = multiplyFixed(G_TABLE, k).normalize();
+            BigInteger r = e.add(kg.x).mod(N);
+            if (r.signum() == 0 || r.add(k).equals(N)) {
+                continue;
+            }
+            BigInteger s = dInverse.multiply(k.subtract(r.multiply(d))).mod(N);
+            if (s.signum() != 0) {
+                return toHex(r) + toHex(s);
+            }
+        }
+    }
+
+    /**
+     * 公钥验签
+     *
+     * @param data 签名原文字节
+     * @param signHex r||s十六进制签名
+     * @param publicKey 公钥十六进制（04||x||y）
+     */
+    public static boolean verify(byte[] data, String signHex, String publicKey) {
+        if (signHex == null || signHex.length() != 2 * COORDINATE_HEX_LENGTH) {
+            return false;
+        }
+        BigInteger r;
+        BigInteger s;
+        try {
+            r = new BigInteger(signHex.substring(0, COORDINATE_HEX_LENGTH), 16);
+            s = new BigInteger(signHex.substring(COORDINATE_HEX_LENGTH), 16);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (r.signum() <= 0 || r.compareTo(N) >= 0 || s.signum() <= 0 || s.compareTo(N) >= 0) {
+            return false;
+        }
+        BigInteger t = r.add(s).mod(N);
+        if (t.signum() == 0) {
+            return false;
+        }
+        Point point = add(multiplyFixed(G_TABLE, s), multiplyFixed(getPublicKeyTable(publicKey), t)).normalize();
+        if (point.isInfinity()) {
+            return false;
+        }
+        return r.equals(new BigInteger(1, data).add(point.x).mod(N));
+    }
+
+    /**
+     * 由私钥计算公钥（04||x||y）
+     */
+    public static String getPublicKey(String privateKey) {
+        Point point = multiplyFixed(G_TABLE, new BigInteger(privateKey, 16)).normalize();
+        return "04" + toHex(point.x) + toHex(point.y);
+    }
+
+    private static Point[][] getPublicKeyTable(String publicKey) {
+        Point[][] table = PUBLIC_KEY_TABLE_CACHE.get(publicKey);
+        if (table != null) {
+            return table;
+        }
+        table = buildFixedTable(decodePublicKey(publicKey));
+        if (PUBLIC_KEY_TABLE_CACHE.size() < MAX_CACHED_KEYS) {
+            PUBLIC_KEY_TABLE_CACHE.put(publicKey, table);
+        }
+        return table;
+    }
+
+    private static Point decodePublicKey(String publicKey) {
+        String hex = publicKey.length() > 2 * COORDINATE_HEX_LENGTH ? publicKey.substring(publicKey.length() - 2 * COORDINATE_HEX_LENGTH) : publicKey;
+        Point point = new Point(new BigInteger(hex.substring(0, COORDINATE_HEX_LENGTH), 16),
+                new BigInteger(hex.substring(COORDINATE_HEX_LENGTH), 16), BigInteger.ONE);
+        if (!point.isOnCurve()) {
+            throw new IllegalArgumentException("SM2 public key is not on curve");
+        }
+        return point;
+    }
+
+    private static BigInteger randomScalar() {
+        BigInteger k;
+        do {
+            k = new BigInteger(N.bitLength(), RANDOM);
+        } while (k.signum() == 0 || k.compareTo(N) >= 0);
+        return k;
+    }
+
+    /**
+     * 密钥派生函数：t = SM3(x2||y2||ct)级联，与数据异或
+     */
+    private static byte[] kdfXor(byte[] x2, byte[] y2, byte[] data) {
+        byte[] out = new byte[data.length];
+        CommonSm3 sm3 = new CommonSm3();
+        byte[] counter = new byte[4];
+        int ct = 1;
+        for (int offset = 0; offset < data.length; offset += CommonSm3.DIGEST_LENGTH, ct++) {
+            counter[0] = (byte) (ct >>> 24);
+            counter[1] = (byte) (ct >>> 16);
+            counter[2] = (byte) (ct >>> 8);
+            counter[3] = (byte) ct;
+            sm3.update(x2);
+            sm3.update(y2);
+            sm3.update(counter);
+            byte[] t = sm3.doFinal();
+            int length = Math.min(CommonSm3.DIGEST_LENGTH, data.length - offset);
+            for (int i = 0; i < length; i++) {
+                out[offset + i] = (byte) (data[offset + i] ^ t[i]);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 定点倍点表：table[i][j] = j * 16^i * Q（仿射坐标），i为0~63，j为1~15
+     */
+    private static Point[][] buildFixedTable(Point base) {
+        Point[][] table = new Point[64][16];
+        Point row = base;
+        for (int i = 0; i < 64; i++) {
+            Point current = row;
+            table[i][1] = row;
+            for (int j = 2; j < 16; j++) {
+                current = add(current, row);
+                table[i][j] = current.normalize();
+            }
+            // 下一行的基点为 16 * 本行基点
+            row = add(table[i][15], row).normalize();
+        }
+        return table;
+    }
+
+    private static Point multiplyFixed(Point[][] table, BigInteger k) {
+        Point result = INFINITY;
+        for (int i = 0; i < 64; i++) {
+            int nibble = (k.testBit(4 * i) ? 1 : 0) | (k.testBit(4 * i + 1) ? 2 : 0)
+                    | (k.testBit(4 * i + 2) ? 4 : 0) | (k.testBit(4 * i + 3) ? 8 : 0);
+            if (nibble != 0) {
+                result = add(result, table[i][nibble]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 任意点的4位窗口倍点
+     */
+    private static Point multiply(Point base, BigInteger k) {
+        k = k.mod(N);
+        Point[] window = new Point[16];
+        window[1] = base;
+        for (int j = 2; j < 16; j++) {
+            window[j] = add(window[j - 1], base);
+        }
+        Point result = INFINITY;
+        for (int i = (k.bitLength() + 3) / 4 - 1; i >= 0; i--) {
+            result = twice(twice(twice(twice(result))));
+            int nibble = (k.testBit(4 * i) ? 1 : 0) | (k.testBit(4 * i + 1) ? 2 : 0)
+                    | (k.testBit(4 * i + 2) ? 4 : 0) | (k.testBit(4 * i + 3) ? 8 : 0);
+            if (nibble != 0) {
+                result = add(result, window[nibble]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Jacobian坐标倍点，a = -3
+     */
+    private static Point twice(Point point) {
+        if (point.isInfinity() || point.y.signum() == 0) {
+            return INFINITY;
+        }
+        BigInteger delta = point.z.multiply(point.z).mod(P);
+        BigInteger gamma = point.y.multiply(point.y).mod(P);
+        BigInteger beta = point.x.multiply(gamma).mod(P);
+        BigInteger alpha = THREE.multiply(point.x.subtract(delta)).multiply(point.x.add(delta)).mod(P);
+        BigInteger x3 = alpha.multiply(alpha).subtract(beta.shiftLeft(3)).mod(P);
+        BigInteger z3 = point.y.add(point.z).pow(2).subtract(gamma).subtract(delta).mod(P);
+        BigInteger y3 = alpha.multiply(beta.shiftLeft(2).subtract(x3)).subtract(gamma.multiply(gamma).shiftLeft(3)).mod(P);
+        return new Point(x3, y3, z3);
+    }
+
+    /**
+     * Jacobian坐标点加，q为仿射坐标时省去相应乘法
+     */
+    private static Point add(Point p, Point q) {
+        if (p.isInfinity()) {
+            return q;
+        }
+        if (q.isInfinity()) {
+            return p;
+        }
+        boolean qAffine = BigInteger.ONE.equals(q.z);
+        BigInteger z1z1 = p.z.multiply(p.z).mod(P);
+        BigInteger u1 = p.x;
+        BigInteger s1 = p.y;
+        if (!qAffine) {
+            BigInteger z2z2 = q.z.multiply(q.z).mod(P);
+            u1 = p.x.multiply(z2z2).mod(P);
+            s1 = p.y.multiply(q.z).multiply(z2z2).mod(P);
+        }
+        BigInteger u2 = q.x.multiply(z1z1).mod(P);
+        BigInteger s2 = q.y.multiply(p.z).multiply(z1z1).mod(P);
+        BigInteger h = u2.subtract(u1).mod(P);
+        BigInteger r = s2.subtract(s1).mod(P);
+        if (h.signum() == 0) {
+            return r.signum() == 0 ? twice(p) : INFINITY;
+        }
+        BigInteger hh = h.multiply(h).mod(P);
+        BigInteger hhh = h.multiply(hh).mod(P);
+        BigInteger v = u1.multiply(hh).mod(P);
+        BigInteger x3 = r.multiply(r).subtract(hhh).subtract(v.shiftLeft(1)).mod(P);
+        BigInteger y3 = r.multiply(v.subtract(x3)).subtract(s1.multiply(hhh)).mod(P);
+        BigInteger z3 = p.z.multiply(h).mod(P);
+        if (!qAffine) {
+            z3 = z3.multiply(q.z).mod(P);
+        }
+        return new Point(x3, y3, z3);
+    }
+
+    private static byte[] toBytes(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length == 32) {
+            return bytes;
+        }
+        byte[] out = new byte[32];
+        if (bytes.length > 32) {
+            System.arraycopy(bytes, bytes.length - 32, out, 0, 32);
+        } else {
+            System.arraycopy(bytes, 0, out, 32 - bytes.length, bytes.length);
+        }
+        return out;
+    }
+
+    private static String toHex(BigInteger value) {
+        return HexUtil.encodeHexStr(toBytes(value));
+    }
+
+    /**
+     * 椭圆曲线点，z为1时为仿射坐标，z为0时为无穷远点
+     */
+    private static final class Point {
+
+        private final BigInteger x;
+        private final BigInteger y;
+        private final BigInteger z;
+
+        private Point(BigInteger x, BigInteger y, BigInteger z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        private boolean isInfinity() {
+            return z.signum() == 0;
+        }
+
+        private Point normalize() {
+            if (isInfinity() || BigInteger.ONE.equals(z)) {
+                return this;
+            }
+            BigInteger zInverse = z.modInverse(P);
+            BigInteger zInverse2 = zInverse.multiply(zInverse).mod(P);
+            return new Point(x.multiply(zInverse2).mod(P), y.multiply(zInverse2).multiply(zInverse).mod(P), BigInteger.ONE);
+        }
+
+        /**
+         * y^2 = x^3 - 3x + b
+         */
+        private boolean isOnCurve() {
+            if (x.signum() < 0 || x.compareTo(P) >= 0 || y.signum() < 0 || y.compareTo(P) >= 0) {
+                return false;
+            }
+            BigInteger right = x.pow(3).subtract(x.multiply(THREE)).add(B).mod(P);
+            return y.multiply(y).mod(P).equals(right);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.crypto;
+
+import java.util.Arrays;
+
+/**
+ * SM3杂凑算法（GB/T 32905-2016），纯Java实现，实例非线程安全
+ *
+ * @author jetox
+ * @date 2026/10/18 17:00
+ **/
+public final class CommonSm3 {
+
+    /** 摘要长度 */
+    public static final int DIGEST_LENGTH = 32;
+
+    private static final int[] IV = {0x7380166F, 0x4914B2B9, 0x172442D7, 0xDA8A0600,
+            0xA96F30BC, 0x163138AA, 0xE38DEE4D, 0xB0FB0E4E};
+
+    /** 预先循环左移的常量Tj */
+    private static final int[] T = new int[64];
+
+    static {
+        for (int j = 0; j < 64; j++) {
+            T[j] = Integer.rotateLeft(j < 16 ? 0x79CC4519 : 0x7A879D8A, j % 32);
+        }
+    }
+
+    private final int[] v = new int[8];
+    private final int[] w = new int[68];
+    private final byte[] buffer = new byte[64];
+    private int bufferLength;
+    private long totalLength;
+
+    public CommonSm3() {
+        reset();
+    }
+
+    /**
+     * 计算摘要
+     */
+    public static byte[] hash(byte[] data) {
+        CommonSm3 sm3 = new CommonSm3();
+        sm3.update(data, 0, data.length);
+        return sm3.doFinal();
+    }
+
+    public void reset() {
+        System.arraycopy(IV, 0, v, 0, 8);
+        bufferLength = 0;
+        totalLength = 0;
+    }
+
+    public void update(byte[] data, int offset, int length) {
+        totalLength += length;
+        if (bufferLength > 0) {
+            int fill = Math.min(64 - bufferLength, length);
+            System.arraycopy(data, offset, buffer, bufferLength, fill);
+            bufferLength += fill;
+            offset += fill;
+            length -= fill;
+            if (bufferLength < 64) {
+                return;
+            }
+            compress(buffer, 0);
+            bufferLength = 0;
+        }
+        while (length >= 64) {
+            compress(data, offset);
+            offset += 64;
+            length -= 64;
+        }
+        System.arraycopy(data, offset, buffer, 0, length);
+        bufferLength = length;
+    }
+
+    public void update(byte[] data) {
+        update(data, 0, data.length);
+    }
+
+    /**
+     * 完成计算并返回摘要，之后实例自动重置
+     */
+    public byte[] doFinal() {
+        long bitLength = totalLength << 3;
+        buffer[bufferLength++] = (byte) 0x80;
+        if (bufferLength > 56) {
+            Arrays.fill(buffer, bufferLength, 64, (byte) 0);
+            compress(buffer, 0);
+            bufferLength = 0;
+        }
+        Arrays.fill(buffer, bufferLength, 56, (byte) 0);
+        for (int i = 0; i < 8; i++) {
+            buffer[56 + i] = (byte) (bitLength >>> (56 - 8 * i));
+        }
+        compress(buffer, 0);
+        byte[] digest = new byte[DIGEST_LENGTH];
+        for (int i = 0; i < 8; i++) {
+            digest[4 * i] = (byte) (v[i] >>> 24);
+            digest[4 * i + 1] = (byte) (v[i] >>> 16);
+            digest[4 * i + 2] = (byte) (v[i] >>> 8);
+            digest[4 * i + 3] = (byte) v[i];
+        }
+        reset();
+        return digest;
+    }
+
+    private void compress(byte[] block, int offset) {
+        for (int j = 0; j < 16; j++) {
+            int p = offset + 4 * j;
+            w[j] = (block[p] & 0xFF) << 24 | (block[p + 1] & 0xFF) << 16 | (block[p + 2] & 0xFF) << 8 | (block[p + 3] & 0xFF);
+        }
+        for (int j = 16; j < 68; j++) {
+            int x = w[j - 16] ^ w[j - 9] ^ Integer.rotateLeft(w[j - 3], 15);
+            w[j] = (x ^ Integer.rotateLeft(x, 15) ^ Integer.rotateLeft(x, 23)) ^ Integer.rotateLeft(w[j - 13], 7) ^ w[j - 6];
+        }
+        int a = v[0], b = v[1], c = v[2], d = v[3], e = v[4], f = v[5], g = v[6], h = v[7];
+        for (int j = 0; j < 64; j++) {
+            int a12 = Integer.rotateLeft(a, 12);
+            int ss1 = Integer.rotateLeft(a12 + e + T[j], 7);
+            int ss2 = ss1 ^ a12;
+            int w1 = w[j] ^ w[j + 4];
+            int tt1;
+            int tt2;
+            if (j < 16) {
+                tt1 = (a ^ b ^ c) + d + ss2 + w1;
+                tt2 = (e ^ f ^ g) + h + ss1 + w[j];
+            } else {
+                tt1 = ((a & b) | (a & c) | (b & c)) + d + ss2 + w1;
+                tt2 = ((e & f) | (~e & g)) + h + ss1 + w[j];
+            }
+            d = c;
+            c = Integer.rotateLeft(b, 9);
+            b = a;
+            a = tt1;
+            h = g;
+            g = Integer.rotateLeft(f, 19);
+            f = e;
+            e = tt2 ^ Integer.rotateLeft(tt2, 9) ^ Integer.rotateLeft(tt2, 17);
+        }
+        v[0] ^= a;
+        v[1] ^= b;
+        v[2] ^= c;
+        v[3] ^= d;
+        v[4] ^= e;
+        v[5] ^= f;
+        v[6] ^= g;
+        v[7] ^= h;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.crypto;
+
+import java.util.Arrays;
+
+/**
+ * SM4分组密码（GB/T 32907-2016），纯Java实现
+ * 轮密钥在构造时一次算好，实例不可变、可在线程间共享；分组模式为ECB，使用PKCS#7填充
+ *
+ * @author jetox
+ * @date 2026/10/18 17:00
+ **/
+public final class CommonSm4 {
+
+    /** 分组长度 */
+    public static final int BLOCK_SIZE = 16;
+
+    private static final byte[] SBOX = {
+            (byte) 0xd6, (byte) 0x90, (byte) 0xe9, (byte) 0xfe, (byte) 0xcc, (byte) 0xe1, (byte) 0x3d, (byte) 0xb7, (byte) 0x16, (byte) 0xb6, (byte) 0x14, (byte) 0xc2, (byte) 0x28, (byte) 0xfb, (byte) 0x2c, (byte) 0x05,
+            (byte) 0x2b, (byte) 0x67, (byte) 0x9a, (byte) 0x76, (byte) 0x2a, (byte) 0xbe, (byte) 0x04, (byte) 0xc3, (byte) 0xaa, (byte) 0x44, (byte) 0x13, (byte) 0x26, (byte) 0x49, (byte) 0x86, (byte) 0x06, (byte) 0x99,
+            (byte) 0x9c, (byte) 0x42, (byte) 0x50, (byte) 0xf4, (byte) 0x91, (byte) 0xef, (byte) 0x98, (byte) 0x7a, (byte) 0x33, (byte) 0x54, (byte) 0x0b, (byte) 0x43, (byte) 0xed, (byte) 0xcf, (byte) 0xac, (byte) 0x62,
+            (byte) 0xe4, (byte) 0xb3, (byte) 0x1c, (byte) 0xa9, (byte) 0xc9, (byte) 0x08, (byte) 0xe8, (byte) 0x95, (byte) 0x80, (byte) 0xdf, (byte) 0x94, (byte) 0xfa, (byte) 0x75, (byte) 0x8f, (byte) 0x3f, (byte) 0xa6,
+            (byte) 0x47, (byte) 0x07, (byte) 0xa7, (byte) 0xfc, (byte) 0xf3, (byte) 0x73, (byte) 0x17, (byte) 0xba, (byte) 0x83, (byte) 0x59, (byte) 0x3c, (byte) 0x19, (byte) 0xe6, (byte) 0x85, (byte) 0x4f, (byte) 0xa8,
+            (byte) 0x68, (byte) 0x6b, (byte) 0x81, (byte) 0xb2, (byte) 0x71, (byte) 0x64, (byte) 0xda, (byte) 0x8b, (byte) 0xf8, (byte) 0xeb, (byte) 0x0f, (byte) 0x4b, (byte) 0x70, (byte) 0x56, (byte) 0x9d, (byte) 0x35,
+            (byte) 0x1e, (byte) 0x24, (byte) 0x0e, (byte) 0x5e, (byte) 0x63, (byte) 0x58, (byte) 0xd1, (byte) 0xa2, (byte) 0x25, (byte) 0x22, (byte) 0x7c, (byte) 0x3b, (byte) 0x01, (byte) 0x21, (byte) 0x78, (byte) 0x87,
+            (byte) 0xd4, (byte) 0x00, (byte) 0x46, (byte) 0x57, (byte) 0x9f, (byte) 0xd3, (byte) 0x27, (byte) 0x52, (byte) 0x4c, (byte) 0x36, (byte) 0x02, (byte) 0xe7, (byte) 0xa0, (byte) 0xc4, (byte) 0xc8, (byte) 0x9e,
+            (byte) 0xea, (byte) 0xbf, (byte) 0x8a, (byte) 0xd2, (byte) 0x40, (byte) 0xc7, (byte) 0x38, (byte) 0xb5, (byte) 0xa3, (byte) 0xf7, (byte) 0xf2, (byte) 0xce, (byte) 0xf9, (byte) 0x61, (byte) 0x15, (byte) 0xa1,
+            (byte) 0xe0, (byte) 0xae, (byte) 0x5d, (byte) 0xa4, (byte) 0x9b, (byte) 0x34, (byte) 0x1a, (byte) 0x55, (byte) 0xad, (byte) 0x93, (byte) 0x32, (byte) 0x30, (byte) 0xf5, (byte) 0x8c, (byte) 0xb1, (byte) 0xe3,
+            (byte) 0x1d, (byte) 0xf6, (byte) 0xe2, (byte) 0x2e, (byte) 0x82, (byte) 0x66, (byte) 0xca, (byte) 0x60, (byte) 0xc0, (byte) 0x29, (byte) 0x23, (byte) 0xab, (byte) 0x0d, (byte) 0x53, (byte) 0x4e, (byte) 0x6f,
+            (byte) 0xd5, (byte) 0xdb, (byte) 0x37, (byte) 0x45, (byte) 0xde, (byte) 0xfd, (byte) 0x8e, (byte) 0x2f, (byte) 0x03, (byte) 0xff, (byte) 0x6a, (byte) 0x72, (byte) 0x6d, (byte) 0x6c, (byte) 0x5b, (byte) 0x51,
+            (byte) 0x8d, (byte) 0x1b, (byte) 0xaf, (byte) 0x92, (byte) 0xbb, (byte) 0xdd, (byte) 0xbc, (byte) 0x7f, (byte) 0x11, (byte) 0xd9, (byte) 0x5c, (byte) 0x41, (byte) 0x1f, (byte) 0x10, (byte) 0x5a, (byte) 0xd8,
+            (byte) 0x0a, (byte) 0xc1, (byte) 0x31, (byte) 0x88, (byte) 0xa5, (byte) 0xcd, (byte) 0x7b, (byte) 0xbd, (byte) 0x2d, (byte) 0x74, (byte) 0xd0, (byte) 0x12, (byte) 0xb8, (byte) 0xe5, (byte) 0xb4, (byte) 0xb0,
+            (byte) 0x89, (byte) 0x69, (byte) 0x97, (byte) 0x4a, (byte) 0x0c, (byte) 0x96, (byte) 0x77, (byte) 0x7e, (byte) 0x65, (byte) 0xb9, (byte) 0xf1, (byte) 0x09, (byte) 0xc5, (byte) 0x6e, (byte) 0xc6, (byte) 0x84,
+            (byte) 0x18, (byte) 0xf0, (byte) 0x7d, (byte) 0xec, (byte) 0x3a, (byte) 0xdc, (byte) 0x4d, (byte) 0x20, (byte) 0x79, (byte) 0xee, (byte) 0x5f, (byte) 0x3e, (byte) 0xd7, (byte) 0xcb, (byte) 0x39, (byte) 0x48
+    };
+
+    private static final int[] FK = {0xa3b1bac6, 0x56aa3350, 0x677d9197, 0xb27022dc};
+
+    /** 轮函数查找表：S盒代换与线性变换L合并，按字节位置各一张 */
+    private static final int[] T0 = new int[256];
+    private static final int[] T1 = new int[256];
+    private static final int[] T2 = new int[256];
+    private static final int[] T3 = new int[256];
+
+    private static final int[] CK = new int[32];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int b = SBOX[i] & 0xFF;
+            int t = b << 24;
+            t = t ^ Integer.rotateLeft(t, 2) ^ Integer.rotateLeft(t, 10) ^ Integer.rotateLeft(t, 18) ^ Integer.rotateLeft(t, 24);
+            T0[i] = t;
+            T1[i] = Integer.rotateRight(t, 8);
+            T2[i] = Integer.rotateRight(t, 16);
+            T3[i] = Integer.rotateRight(t, 24);
+        }
+        for (int i = 0; i < 32; i++) {
+            int ck = 0;
+            for (int j = 0; j < 4; j++) {
+                ck = (ck << 8) | (((4 * i + j) * 7) & 0xFF);
+            }
+            CK[i] = ck;
+        }
+    }
+
+    /** 加密轮密钥 */
+    private final int[] encryptKeys = new int[32];
+
+    /** 解密轮密钥，加密轮密钥的逆序 */
+    private final int[] decryptKeys = new int[32];
+
+    public CommonSm4(byte[] key) {
+        if (key == null || key.length != BLOCK_SIZE) {
+            throw new IllegalArgumentException("SM4 key must be 16 bytes");
+        }
+        int k0 = readInt(key, 0) ^ FK[0];
+        int k1 = readInt(key, 4) ^ FK[1];
+        int k2 = readInt(key, 8) ^ FK[2];
+        int k3 = readInt(key, 12) ^ FK[3];
+        for (int i = 0; i < 32; i++) {
+            int x = k1 ^ k2 ^ k3 ^ CK[i];
+            int t = tau(x);
+            int rk = k0 ^ t ^ Integer.rotateLeft(t, 13) ^ Integer.rotateLeft(t, 23);
+            encryptKeys[i] = rk;
+            decryptKeys[31 - i] = rk;
+            k0 = k1;
+            k1 = k2;
+            k2 = k3;
+            k3 = rk;
+        }
+    }
+
+    /**
+     * ECB模式加密，PKCS#7填充
+     */
+    public byte[] encrypt(byte[] plain) {
+        int padding = BLOCK_SIZE - plain.length % BLOCK_SIZE;
+        byte[] out = new byte[plain.length + padding];
+        System.arraycopy(plain, 0, out, 0, plain.length);
+        for (int i = plain.length; i < out.length; i++) {
+            out[i] = (byte) padding;
+        }
+        for (int offset = 0; offset < out.length; offset += BLOCK_SIZE) {
+            cryptBlock(out, offset, encryptKeys);
+        }
+        return out;
+    }
+
+    /**
+     * ECB模式解密并去除PKCS#7填充，密文长度或填充不合法时返回null
+     */
+    public byte[] decrypt(byte[] cipher) {
+        byte[] out = cipher.clone();
+        int length = decrypt(out, out.length);
+        return length < 0 ? null : Arrays.copyOf(out, length);
+    }
+
+    /**
+     * ECB模式原地解密data的前length个字节，返回去除PKCS#7填充后的明文长度，不合法时返回-1
+     * 不分配任何对象，批量解密时可配合调用方复用的缓冲区使用
+     */
+    public int decrypt(byte[] data, int length) {
+        if (length == 0 || length % BLOCK_SIZE != 0) {
+            return -1;
+        }
+        for (int offset = 0; offset < length; offset += BLOCK_SIZE) {
+            cryptBlock(data, offset, decryptKeys);
+        }
+        int padding = data[length - 1] & 0xFF;
+        if (padding == 0 || padding > BLOCK_SIZE) {
+            return -1;
+        }
+        for (int i = length - padding; i < length; i++) {
+            if ((data[i] & 0xFF) != padding) {
+                return -1;
+            }
+        }
+        return length - padding;
+    }
+
+    /**
+     * 原地处理一个分组：32轮迭代与反序变换
+     */
+    private static void cryptBlock(byte[] data, int offset, int[] roundKeys) {
+        int x0 = readInt(data, offset), x1 = readInt(data, offset + 4), x2 = readInt(data, offset + 8), x3 = readInt(data, offset + 12);
+        for (int i = 0; i < 32; i += 4) {
+            x0 ^= t(x1 ^ x2 ^ x3 ^ roundKeys[i]);
+            x1 ^= t(x2 ^ x3 ^ x0 ^ roundKeys[i + 1]);
+            x2 ^= t(x3 ^ x0 ^ x1 ^ roundKeys[i + 2]);
+            x3 ^= t(x0 ^ x1 ^ x2 ^ roundKeys[i + 3]);
+        }
+        writeInt(data, offset, x3);
+        writeInt(data, offset + 4, x2);
+        writeInt(data, offset + 8, x1);
+        writeInt(data, offset + 12, x0);
+    }
+
+    private static int t(int x) {
+        return T0[x >>> 24] ^ T1[(x >>> 16) & 0xFF] ^ T2[(x >>> 8) & 0xFF] ^ T3[x & 0xFF];
+    }
+
+    private static int tau(int x) {
+        return (SBOX[x >>> 24] & 0xFF) << 24 | (SBOX[(x >>> 16) & 0xFF] & 0xFF) << 16
+                | (SBOX[(x >>> 8) & 0xFF] & 0xFF) << 8 | (SBOX[x & 0xFF] & 0xFF);
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16 | (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+    }
+
+    private static void writeInt(byte[] data, int offset, int value) {
+        data[offset] = (byte) (value >>> 24);
+        data[offset + 1] = (byte) (value >>> 16);
+        data[offset + 2] = (byte) (value >>> 8);
+        data[offset + 3] = (byte) value;
+    }
+}
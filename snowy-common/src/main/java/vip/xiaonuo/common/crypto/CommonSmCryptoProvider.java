@@ -0,0 +1,130 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.crypto;
+
+import cn.hutool.core.util.HexUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 国密算法默认提供者，纯Java实现，不依赖脚本引擎
+ * 输出与原sm-crypto逐字节一致，空白输入同样返回空字符串；SM4的轮密钥按密钥缓存，同一密钥只计算一次
+ *
+ * @author jetox
+ * @date 2026/10/18 17:00
+ **/
+public class CommonSmCryptoProvider implements CommonCryptoProvider {
+
+    /** 缓存轮密钥的SM4密钥数量上限 */
+    private static final int MAX_CACHED_SM4_KEYS = 16;
+
+    /** 线程内复用的SM4解密缓冲区保留上限，超过的密文临时分配 */
+    private static final int MAX_BUFFER_SIZE = 4096;
+
+    private static final ThreadLocal<byte[]> SM4_BUFFER = ThreadLocal.withInitial(() -> new byte[256]);
+
+    private final Map<String, CommonSm4> sm4Cache = new ConcurrentHashMap<>();
+
+    @Override
+    public String sm2Encrypt(String str, String publicKey) {
+        if (isBlank(str)) {
+            return "";
+        }
+        return CommonSm2.encrypt(str.getBytes(StandardCharsets.UTF_8), publicKey);
+    }
+
+    @Override
+    public String sm2Decrypt(String str, String privateKey) {
+        if (isBlank(str)) {
+            return "";
+        }
+        byte[] plain = CommonSm2.decrypt(str, privateKey);
+        return plain == null ? "" : new String(plain, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String sm2Sign(String str, String privateKey) {
+        return CommonSm2.sign(str.getBytes(StandardCharsets.UTF_8), privateKey);
+    }
+
+    @Override
+    public boolean sm2Verify(String originalStr, String sign, String publicKey) {
+        return CommonSm2.verify(originalStr.getBytes(StandardCharsets.UTF_8), sign, publicKey);
+    }
+
+    @Override
+    public String sm3Hash(String str) {
+        if (isBlank(str)) {
+            return "";
+        }
+        return HexUtil.encodeHexStr(CommonSm3.hash(str.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public String sm4Encrypt(String str, String key) {
+        if (isBlank(str)) {
+            return "";
+        }
+        return HexUtil.encodeHexStr(getSm4(key).encrypt(str.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public String sm4Decrypt(String str, String key) {
+        if (isBlank(str)) {
+            return "";
+        }
+        int length = str.length() / 2;
+        if (str.length() % 2 != 0) {
+            return "";
+        }
+        // 十六进制直接解码到线程内复用的缓冲区并原地解密，逐行解密时不再为每个字段分配中间数组
+        byte[] buffer = length > MAX_BUFFER_SIZE ? new byte[length] : SM4_BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new byte[Math.min(MAX_BUFFER_SIZE, Math.max(length, buffer.length * 2))];
+            SM4_BUFFER.set(buffer);
+        }
+        for (int i = 0; i < length; i++) {
+            int high = Character.digit(str.charAt(i * 2), 16);
+            int low = Character.digit(str.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return "";
+            }
+            buffer[i] = (byte) (high << 4 | low);
+        }
+        int plainLength = getSm4(key).decrypt(buffer, length);
+        return plainLength < 0 ? "" : new String(buffer, 0, plainLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 空白输入返回空字符串，与sm-crypto的处理保持一致
+     */
+    private static boolean isBlank(String str) {
+        return str == null || str.trim().isEmpty();
+    }
+
+    /**
+     * 获取密钥对应的SM4实例，轮密钥只计算一次
+     */
+    public CommonSm4 getSm4(String key) {
+        CommonSm4 sm4 = sm4Cache.get(key);
+        if (sm4 == null) {
+            sm4 = new CommonSm4(HexUtil.decodeHex(key));
+            if (sm4Cache.size() < MAX_CACHED_SM4_KEYS) {
+                sm4Cache.put(key, sm4);
+            }
+        }
+        return sm4;
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.handler;
+
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.common.util.CommonCryptogramUtil;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Sm4Cbc字段批量解密
+ * 查询结果集读取期间字段保持密文，整个结果集读取完毕后再统一解密，大结果集按分片并行解密；
+ * 在lazy范围内查询实现了CommonSm4LazyDecryptEntity的实体时，加密字段保持带标记的密文，首次调用getter时才解密
+ *
+ * @author jetox
+ * @date 2026/10/18 18:10
+ **/
+public final class CommonSm4BatchDecryptor {
+
+    /** 字段数达到该值时并行解密 */
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    /** 并行解密时每个分片的行数 */
+    private static final int CHUNK_SIZE = 512;
+
+    /** 延迟解密字段的密文前缀，明文中不会出现 */
+    private static final String LAZY_PREFIX = "\u0000sm4:";
+
+    /** 当前线程读取结果集时是否保持密文 */
+    private static final ThreadLocal<Boolean> DEFERRED = new ThreadLocal<>();
+
+    /** 当前线程是否处于延迟解密模式 */
+    private static final ThreadLocal<Boolean> LAZY = new ThreadLocal<>();
+
+    /** 实体类型对应的加密字段 */
+    private static final Map<Class<?>, List<Field>> FIELD_CACHE = new ConcurrentHashMap<>();
+
+    private CommonSm4BatchDecryptor() {
+    }
+
+    /**
+     * 在延迟解密模式下执行查询，适用于查询整行但只用到部分行加密字段的场景（如按其他字段批量处理的全量查询），
+     * 结果中支持延迟解密的实体在首次调用加密字段的getter时才解密，其他实体仍按批量解密处理
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    public static <R> R lazy(Supplier<R> supplier) {
+        boolean previous = Boolean.TRUE.equals(LAZY.get());
+        LAZY.set(Boolean.TRUE);
+        try {
+            return supplier.get();
+        } finally {
+            if (!previous) {
+                LAZY.remove();
+            }
+        }
+    }
+
+    /**
+     * 当前线程查询的指定实体类型是否延迟解密
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    public static boolean isLazy(Class<?> type) {
+        return Boolean.TRUE.equals(LAZY.get()) && CommonSm4LazyDecryptEntity.class.isAssignableFrom(type);
+    }
+
+    /**
+     * 还原延迟解密字段的明文，供实体加密字段的getter调用，非延迟解密的值原样返回
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    public static String reveal(String value) {
+        if (value == null || !value.startsWith(LAZY_PREFIX)) {
+            return value;
+        }
+        return CommonCryptogramUtil.doSm4CbcDecrypt(value.substring(LAZY_PREFIX.length()));
+    }
+
+    /**
+     * 把指定实体类型的加密字段标记为延迟解密，字段保持密文直到getter调用reveal
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    public static void markLazy(Collection<?> entities, Class<?> type) {
+        List<Field> fieldList = getEncryptedFields(type);
+        for (Object entity : entities) {
+            if (entity == null) {
+                continue;
+            }
+            for (Field field : fieldList) {
+                try {
+                    String value = (String) field.get(entity);
+                    if (StrUtil.isNotBlank(value) && !value.startsWith(LAZY_PREFIX)) {
+                        field.set(entity, LAZY_PREFIX + value);
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new CommonException("字段{}标记延迟解密失败", field.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * 当前线程读取结果集时是否保持密文，由类型处理器判断
+     *
+     * @author jetox
+     * @date 2026/10/18 18:10
+     */
+    static boolean isDeferred() {
+        return Boolean.TRUE.equals(DEFERRED.get());
+    }
+
+    /**
+     * 进入保持密文状态，返回进入前的状态，需与exitDeferred成对调用
+     *
+     * @author jetox
+     * @date 2026/10/18 18:10
+     */
+    public static boolean enterDeferred() {
+        boolean previous = isDeferred();
+        DEFERRED.set(Boolean.TRUE);
+        return previous;
+    }
+
+    /**
+     * 退出保持密文状态，恢复为进入前的状态
+     *
+     * @author jetox
+     * @date 2026/10/18 18:10
+     */
+    public static void exitDeferred(boolean previous) {
+        if (previous) {
+            DEFERRED.set(Boolean.TRUE);
+        } else {
+            DEFERRED.remove();
+        }
+    }
+
+    /**
+     * 批量解密实体中使用Sm4Cbc类型处理器的字段，非实体或无加密字段的对象原样跳过
+     *
+     * @author jetox
+     * @date 2026/10/18 18:10
+     */
+    public static <E> Collection<E> decrypt(Collection<E> entities) {
+        if (ObjectUtil.isEmpty(entities)) {
+            return entities;
+        }
+        E first = entities.stream().filter(ObjectUtil::isNotNull).findFirst().orElse(null);
+        if (first == null) {
+            return entities;
+        }
+        decrypt(entities, first.getClass());
+        return entities;
+    }
+
+    /**
+     * 批量解密指定实体类型的加密字段
+     *
+     * @author jetox
+     * @date 2026/10/18 18:10
+     */
+    public static void decrypt(Collection<?> entities, Class<?> type) {
+        List<Field> fieldList = getEncryptedFields(type);
+        if (fieldList.isEmpty() || entities.isEmpty()) {
+            return;
+        }
+        List<?> entityList = entities instanceof List ? (List<?>) entities : new ArrayList<>(entities);
+        int size = entityList.size();
+        if ((long) size * fieldList.size() < PARALLEL_THRESHOLD) {
+            decryptRange(entityList, fieldList, 0, size);
+            return;
+        }
+        int chunkCount = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunkCount).parallel().forEach(chunk ->
+                decryptRange(entityList, fieldList, chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE)));
+    }
+
+    /**
+     * 获取实体类型中使用Sm4Cbc类型处理器的字段
+     *
+     * @author jetox
+     * @date 2026/10/18 18:10
+     */
+    public static List<Field> getEncryptedFields(Class<?> type) {
+        return FIELD_CACHE.computeIfAbsent(type, key -> {
+            TableInfo tableInfo = TableInfoHelper.getTableInfo(key);
+            if (tableInfo == null) {
+                return List.of();
+            }
+            List<Field> fieldList = new ArrayList<>();
+            for (TableFieldInfo tableFieldInfo : tableInfo.getFieldList()) {
+                if (tableFieldInfo.getTypeHandler() != null && CommonSm4CbcTypeHandler.class.isAssignableFrom(tableFieldInfo.getTypeHandler())
+                        && tableFieldInfo.getField().getType() == String.class) {
+                    Field field = tableFieldInfo.getField();
+                    field.setAccessible(true);
+                    fieldList.add(field);
+                }
+            }
+            return List.copyOf(fieldList);
+        });
+    }
+
+    private static void decryptRange(List<?> entityList, List<Field> fieldList, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Object entity = entityList.get(i);
+            if (entity == null) {
+                continue;
+            }
+            for (Field field : fieldList) {
+                try {
+                    String value = (String) field.get(entity);
+                    if (StrUtil.isNotBlank(value)) {
+                        field.set(entity, value.startsWith(LAZY_PREFIX) ? reveal(value) : CommonCryptogramUtil.doSm4CbcDecrypt(value));
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new CommonException("字段{}解密失败", field.getName());
+                }
+            }
+        }
+    }
+}
@@ -42,20 +42,30 @@ public class CommonSm4CbcTypeHandler<T> extends BaseTypeHandler<T> {
     public T getNullableResult(ResultSet rs, String columnName) throws SQLException {
         String columnValue = rs.getString(columnName);
         //有一些可能是空字符
-        return StringUtils.isBlank(columnValue) ? (T)columnValue : (T) CommonCryptogramUtil.doSm4CbcDecrypt(columnValue);
+        return (T) decrypt(columnValue);
     }
 
     @SuppressWarnings("ALL")
     @Override
     public T getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
         String columnValue = rs.getString(columnIndex);
-        return StringUtils.isBlank(columnValue) ? (T)columnValue : (T) CommonCryptogramUtil.doSm4CbcDecrypt(columnValue);
+        return (T) decrypt(columnValue);
     }
 
     @SuppressWarnings("ALL")
     @Override
     public T getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
         String columnValue = cs.getString(columnIndex);
-        return StringUtils.isBlank(columnValue) ? (T)columnValue : (T) CommonCryptogramUtil.doSm4CbcDecrypt(columnValue);
+        return (T) decrypt(columnValue);
+    }
+
+    /**
+     * 批量解密的查询在结果集读取完毕后统一解密，此处保持密文
+     */
+    private static String decrypt(String columnValue) {
+        if (StringUtils.isBlank(columnValue) || CommonSm4BatchDecryptor.isDeferred()) {
+            return columnValue;
+        }
+        return CommonCryptogramUtil.doSm4CbcDecrypt(columnValue);
     }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.interceptor;
+
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import vip.xiaonuo.common.handler.CommonSm4BatchDecryptor;
+import vip.xiaonuo.common.handler.CommonSm4CbcTypeHandler;
+
+import java.lang.reflect.Field;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sm4Cbc结果集批量解密拦截器
+ * 对返回实体且加密字段全部位于顶层映射的查询，读取结果集时字段保持密文，读取完毕后统一批量解密或标记为延迟解密，
+ * 嵌套映射、嵌套查询、自定义ResultHandler等场景保持原有的逐字段解密
+ *
+ * @author jetox
+ * @date 2026/10/18 18:10
+ **/
+@Intercepts({@Signature(type = ResultSetHandler.class, method = "handleResultSets", args = {Statement.class})})
+public class CommonSm4DecryptInterceptor implements Interceptor {
+
+    /** 语句是否可批量解密，按语句id缓存 */
+    private final Map<String, Boolean> eligibleCache = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MetaObject metaObject = SystemMetaObject.forObject(invocation.getTarget());
+        if (!metaObject.hasGetter("mappedStatement") || !metaObject.hasGetter("resultHandler")
+                || metaObject.getValue("resultHandler") != null) {
+            return invocation.proceed();
+        }
+        MappedStatement mappedStatement = (MappedStatement) metaObject.getValue("mappedStatement");
+        if (!eligibleCache.computeIfAbsent(mappedStatement.getId(), id -> isEligible(mappedStatement))) {
+            return invocation.proceed();
+        }
+        Object result;
+        boolean previous = CommonSm4BatchDecryptor.enterDeferred();
+        try {
+            result = invocation.proceed();
+        } finally {
+            CommonSm4BatchDecryptor.exitDeferred(previous);
+        }
+        if (result instanceof List<?> resultList) {
+            Class<?> type = mappedStatement.getResultMaps().get(0).getType();
+            if (CommonSm4BatchDecryptor.isLazy(type)) {
+                CommonSm4BatchDecryptor.markLazy(resultList, type);
+            } else {
+                CommonSm4BatchDecryptor.decrypt(resultList, type);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 仅单结果映射、无嵌套，且所有Sm4Cbc映射字段都属于实体加密字段的语句才批量解密
+     */
+    private boolean isEligible(MappedStatement mappedStatement) {
+        List<ResultMap> resultMapList = mappedStatement.getResultMaps();
+        if (resultMapList.size() != 1) {
+            return false;
+        }
+        ResultMap resultMap = resultMapList.get(0);
+        if (resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries()) {
+            return false;
+        }
+        List<String> encryptedPropertyList = CommonSm4BatchDecryptor.getEncryptedFields(resultMap.getType())
+                .stream().map(Field::getName).toList();
+        boolean hasEncryptedMapping = false;
+        for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+            if (resultMapping.getTypeHandler() instanceof CommonSm4CbcTypeHandler) {
+                if (!encryptedPropertyList.contains(resultMapping.getProperty())) {
+                    return false;
+                }
+                hasEncryptedMapping = true;
+            }
+        }
+        return hasEncryptedMapping;
+    }
+}
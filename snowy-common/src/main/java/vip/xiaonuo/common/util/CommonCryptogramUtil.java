@@ -12,15 +12,16 @@
  */
 package vip.xiaonuo.common.util;
 
-import com.antherd.smcrypto.sm2.Sm2;
-import com.antherd.smcrypto.sm3.Sm3;
-import com.antherd.smcrypto.sm4.Sm4;
-import com.antherd.smcrypto.sm4.Sm4Options;
 import lombok.extern.slf4j.Slf4j;
+import vip.xiaonuo.common.crypto.CommonCryptoProvider;
+import vip.xiaonuo.common.crypto.CommonSmCryptoProvider;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
 
 /**
- * 加密工具类，本框架目前使用 <a href="https://github.com/antherd/sm-crypto">sm-crypto</a> 项目中一些加解密方式
- * 使用小伙伴需要过等保密评相关，请在此处更改为自己的加密方法，或加密机，使用加密机同时需要替换公钥，私钥在内部无法导出，提供加密的方法
+ * 加密工具类，算法由CommonCryptoProvider提供，默认为纯Java国密实现，密文与签名格式与前端 <a href="https://github.com/antherd/sm-crypto">sm-crypto</a> 一致
+ * 使用小伙伴需要过等保密评相关，请通过SPI接入自己的加密方法，或加密机，使用加密机同时需要替换公钥，私钥在内部无法导出，提供加密的方法
  * 如果不涉及到加密机方面的内容，请更改公私要为自己重新生成的，生成方式请看集成的sm-crypto主页
  *
  * @author yubaoshan
@@ -38,6 +39,29 @@ public class CommonCryptogramUtil {
     /** SM4的对称秘钥（生产环境需要改成自己使用的） 16 进制字符串，要求为 128 比特 */
     private static final String KEY = "0123456789abcdeffedcba9876543210";
 
+    /** 算法提供者，优先使用SPI声明的实现 */
+    private static final CommonCryptoProvider PROVIDER = loadProvider();
+
+    private static CommonCryptoProvider loadProvider() {
+        Iterator<CommonCryptoProvider> iterator = ServiceLoader.load(CommonCryptoProvider.class).iterator();
+        if (iterator.hasNext()) {
+            CommonCryptoProvider provider = iterator.next();
+            log.info(">>> 使用自定义国密算法提供者：{}", provider.getClass().getName());
+            return provider;
+        }
+        return new CommonSmCryptoProvider();
+    }
+
+    /**
+     * 获取当前使用的算法提供者
+     *
+     * @author jetox
+     * @date 2026/10/18 17:00
+     */
+    public static CommonCryptoProvider getProvider() {
+        return PROVIDER;
+    }
+
     /**
      * 加密方法（Sm2 的专门针对前后端分离，非对称秘钥对的方式，暴露出去的公钥，对传输过程中的密码加个密）
      *
@@ -47,7 +71,7 @@ public class CommonCryptogramUtil {
      * @return 加密后的密文
      */
     public static String doSm2Encrypt(String str) {
-        return Sm2.doEncrypt(str, PUBLIC_KEY);
+        return PROVIDER.sm2Encrypt(str, PUBLIC_KEY);
     }
 
     /**
@@ -61,7 +85,7 @@ public class CommonCryptogramUtil {
      */
     public static String doSm2Decrypt(String str) {
         // 解密
-        return Sm2.doDecrypt(str, PRIVATE_KEY);
+        return PROVIDER.sm2Decrypt(str, PRIVATE_KEY);
     }
 
     /**
@@ -73,11 +97,8 @@ public class CommonCryptogramUtil {
      * @return 加密后的密文
      */
     public static String doSm4CbcEncrypt(String str) {
-        // SM4 加密  cbc模式
-        Sm4Options sm4Options4 = new Sm4Options();
-        sm4Options4.setMode("cbc");
-        sm4Options4.setIv("fedcba98765432100123456789abcdef");
-        return Sm4.encrypt(str, KEY, sm4Options4);
+        // SM4 加密，sm-crypto的Java封装未将mode与iv传入脚本，历史密文实际为ECB模式，此处保持一致
+        return PROVIDER.sm4Encrypt(str, KEY);
     }
 
     /**
@@ -90,11 +111,8 @@ public class CommonCryptogramUtil {
      * @return 解密后的明文
      */
     public static String doSm4CbcDecrypt(String str) {
-        // 解密，cbc 模式，输出 utf8 字符串
-        Sm4Options sm4Options8 = new Sm4Options();
-        sm4Options8.setMode("cbc");
-        sm4Options8.setIv("fedcba98765432100123456789abcdef");
-        String docString =  Sm4.decrypt(str, KEY, sm4Options8);
+        // 解密，与加密保持一致使用ECB模式，输出 utf8 字符串
+        String docString = PROVIDER.sm4Decrypt(str, KEY);
         if ("".equals(docString)) {
             log.warn(">>> 字段解密失败，返回原文值：{}", str);
             return str;
@@ -112,7 +130,7 @@ public class CommonCryptogramUtil {
      * @return 签名结果
      */
     public static String doSignature(String str) {
-        return Sm2.doSignature(str, PRIVATE_KEY);
+        return PROVIDER.sm2Sign(str, PRIVATE_KEY);
     }
 
     /**
@@ -125,7 +143,7 @@ public class CommonCryptogramUtil {
      * @return 是否通过
      */
     public static boolean doVerifySignature(String originalStr, String str) {
-        return Sm2.doVerifySignature(originalStr, str, PUBLIC_KEY);
+        return PROVIDER.sm2Verify(originalStr, str, PUBLIC_KEY);
     }
 
     /**
@@ -137,6 +155,6 @@ public class CommonCryptogramUtil {
      * @return hash 值
      */
     public static String doHashValue(String str) {
-        return Sm3.sm3(str);
+        return PROVIDER.sm3Hash(str);
     }
 }
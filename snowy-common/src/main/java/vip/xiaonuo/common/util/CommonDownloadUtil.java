@@ -12,14 +12,24 @@
  */
 package vip.xiaonuo.common.util;
 
+import cn.hutool.core.date.DatePattern;
+import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * 文件下载工具类，使用本类前，对参数校验的异常使用CommonResponseUtil.renderError()方法进行渲染
@@ -30,6 +40,15 @@ import java.io.IOException;
 @Slf4j
 public class CommonDownloadUtil {
 
+    /** Tomcat sendfile支持标记与参数，容器支持时由容器在请求结束后直接发送文件 */
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    /** 流式下载的缓冲区大小 */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     /**
      * 下载文件
      *
@@ -39,7 +58,11 @@ public class CommonDownloadUtil {
      * @date 2020/8/5 21:46
      */
     public static void download(File file, HttpServletResponse response) {
-        download(file.getName(), FileUtil.readBytes(file), response);
+        try {
+            download(file.getName(), FileUtil.getInputStream(file), file.length(), response);
+        } catch (IOException e) {
+            log.error(">>> 文件下载异常：", e);
+        }
     }
 
     /**
@@ -60,4 +83,166 @@ public class CommonDownloadUtil {
             log.error(">>> 文件下载异常：", e);
         }
     }
+
+    /**
+     * 流式下载本地文件，支持Range断点续传与ETag协商缓存，
+     * 容器支持sendfile时交由容器零拷贝发送，否则使用FileChannel.transferTo发送，不将文件读入内存
+     *
+     * @author jetox
+     * @date 2026/10/18 23:55
+     */
+    public static void download(String fileName, File file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = file.length();
+        // 由修改时间与长度生成，同一秒内的修改无法区分，因此为弱校验值，If-Range只按修改时间判断
+        String eTag = "W/\"" + Long.toHexString(file.lastModified()) + "-" + Long.toHexString(length) + "\"";
+        setDownloadHeader(fileName, response);
+        response.setHeader("ETag", eTag);
+        response.setDateHeader("Last-Modified", file.lastModified());
+        response.setHeader("Accept-Ranges", "bytes");
+        if (eTagMatch(request.getHeader("If-None-Match"), eTag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader("Range");
+        String ifRange = request.getHeader("If-Range");
+        // If-Range与当前版本不一致时忽略Range，返回完整文件；多段Range同样返回完整文件
+        if (StrUtil.isNotBlank(range) && (StrUtil.isBlank(ifRange) || ifRangeMatch(ifRange, file.lastModified())) && !range.contains(",")) {
+            long[] rangeArray = parseRange(range, length);
+            if (rangeArray == null) {
+                response.setHeader("Content-Range", "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = rangeArray[0];
+            end = rangeArray[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (count <= 0 || "HEAD".equalsIgnoreCase(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.getCanonicalPath());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end + 1);
+            return;
+        }
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel outChannel = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (count > 0) {
+                long transferred = fileChannel.transferTo(position, count, outChannel);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                count -= transferred;
+            }
+            response.flushBuffer();
+        }
+    }
+
+    /**
+     * 流式下载输入流，使用固定大小缓冲区转发，contentLength未知时传-1
+     *
+     * @author jetox
+     * @date 2026/10/18 23:55
+     */
+    public static void download(String fileName, InputStream inputStream, long contentLength, HttpServletResponse response) throws IOException {
+        setDownloadHeader(fileName, response);
+        if (contentLength >= 0) {
+            response.setContentLengthLong(contentLength);
+        }
+        copy(inputStream, response.getOutputStream());
+    }
+
+    /**
+     * 使用固定大小缓冲区复制流
+     *
+     * @author jetox
+     * @date 2026/10/18 23:55
+     */
+    public static void copy(InputStream inputStream, OutputStream outputStream) throws IOException {
+        try (InputStream in = inputStream) {
+            IoUtil.copy(in, outputStream, BUFFER_SIZE);
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * 设置下载响应头
+     *
+     * @author jetox
+     * @date 2026/10/18 23:55
+     */
+    public static void setDownloadHeader(String fileName, HttpServletResponse response) {
+        response.setHeader("Content-Disposition", "attachment;filename=" + URLUtil.encode(fileName));
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Expose-Headers", "Content-Disposition, Content-Range, Accept-Ranges, ETag");
+        response.setContentType("application/octet-stream;charset=UTF-8");
+    }
+
+    /**
+     * If-None-Match使用弱比较，忽略W/前缀
+     */
+    private static boolean eTagMatch(String ifNoneMatch, String eTag) {
+        if (StrUtil.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : StrUtil.splitTrim(ifNoneMatch, StrUtil.COMMA)) {
+            if ("*".equals(candidate) || StrUtil.removePrefix(candidate, "W/").equals(StrUtil.removePrefix(eTag, "W/"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * If-Range要求强比较，弱ETag永不匹配，只接受与修改时间（精确到秒）一致的HTTP日期
+     */
+    private static boolean ifRangeMatch(String ifRange, long lastModified) {
+        if (ifRange.trim().startsWith("\"") || ifRange.trim().startsWith("W/")) {
+            return false;
+        }
+        try {
+            return DateUtil.parse(ifRange.trim(), DatePattern.HTTP_DATETIME_FORMAT).getTime() / 1000 == lastModified / 1000;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * 解析单段Range，返回闭区间[start, end]，不可满足时返回null
+     *
+     * @author jetox
+     * @date 2026/10/18 23:55
+     */
+    private static long[] parseRange(String range, long length) {
+        if (!range.startsWith("bytes=") || length <= 0) {
+            return null;
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int index = spec.indexOf('-');
+        if (index < 0) {
+            return null;
+        }
+        try {
+            String startStr = spec.substring(0, index).trim();
+            String endStr = spec.substring(index + 1).trim();
+            if (startStr.isEmpty()) {
+                // 后缀形式：bytes=-500 表示最后500字节
+                long suffix = Long.parseLong(endStr);
+                return suffix <= 0 ? null : new long[]{Math.max(length - suffix, 0), length - 1};
+            }
+            long start = Long.parseLong(startStr);
+            long end = endStr.isEmpty() ? length - 1 : Math.min(Long.parseLong(endStr), length - 1);
+            return start >= length || start > end ? null : new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.util;
+
+import vip.xiaonuo.common.exception.CommonException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * 通用图片工具类，按目标尺寸降采样解码并等比缩放，大图不会以原始分辨率解码到内存
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ **/
+public class CommonImageUtil {
+
+    /**
+     * 此工具类不可被实例化
+     */
+    private CommonImageUtil() {
+    }
+
+    /**
+     * 读取图片，解码时按整数倍降采样，结果的宽高仍不小于目标宽高（原图更小时保持原图）
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static BufferedImage read(InputStream inputStream, int targetWidth, int targetHeight) throws IOException {
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            if(imageInputStream == null) {
+                throw new CommonException("无法读取图片");
+            }
+            Iterator<ImageReader> imageReaderIterator = ImageIO.getImageReaders(imageInputStream);
+            if(!imageReaderIterator.hasNext()) {
+                throw new CommonException("不支持的图片格式");
+            }
+            ImageReader imageReader = imageReaderIterator.next();
+            try {
+                imageReader.setInput(imageInputStream, true, true);
+                int subsampling = Math.max(1, Math.min(imageReader.getWidth(0) / targetWidth,
+                        imageReader.getHeight(0) / targetHeight));
+                ImageReadParam imageReadParam = imageReader.getDefaultReadParam();
+                imageReadParam.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return imageReader.read(0, imageReadParam);
+            } finally {
+                imageReader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 等比缩放到指定范围内，不放大
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static BufferedImage scaleToFit(BufferedImage image, int maxWidth, int maxHeight, boolean keepAlpha) {
+        double ratio = Math.min(1d, Math.min((double) maxWidth / image.getWidth(), (double) maxHeight / image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        BufferedImage result = new BufferedImage(width, height, keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = result.createGraphics();
+        try {
+            if(!keepAlpha) {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.util;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 通用Redis键遍历工具类，使用SCAN游标按批遍历匹配的键，替代会阻塞Redis的KEYS命令，
+ * 每批的取值使用一次MGET或管道，删除使用UNLINK在后台释放内存
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ **/
+public class CommonRedisScanUtil {
+
+    /** 默认每批数量，同时作为SCAN的COUNT提示 */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /**
+     * 此工具类不可被实例化
+     */
+    private CommonRedisScanUtil() {
+    }
+
+    /**
+     * 按批遍历匹配的键，SCAN可能返回重复的键，调用方需要时自行去重
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static void scan(RedisTemplate<String, ?> redisTemplate, String pattern, int batchSize, Consumer<List<String>> batchConsumer) {
+        ScanOptions scanOptions = ScanOptions.scanOptions().match(pattern).count(batchSize).build();
+        List<String> batch = new ArrayList<>(batchSize);
+        try (Cursor<String> cursor = redisTemplate.scan(scanOptions)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= batchSize) {
+                    batchConsumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            batchConsumer.accept(batch);
+        }
+    }
+
+    /**
+     * 按批遍历匹配的键及其值，每批使用一次MGET，键在遍历期间被删除时值为null
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static <V> void scanValues(RedisTemplate<String, V> redisTemplate, String pattern, int batchSize,
+                                      BiConsumer<List<String>, List<V>> batchConsumer) {
+        scan(redisTemplate, pattern, batchSize, keyList -> {
+            List<V> valueList = redisTemplate.opsForValue().multiGet(keyList);
+            batchConsumer.accept(keyList, valueList == null ? new ArrayList<>() : valueList);
+        });
+    }
+
+    /**
+     * 按批在管道中执行命令，减少逐键往返，返回每批的管道结果
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static void scanPipelined(RedisTemplate<String, ?> redisTemplate, String pattern, int batchSize,
+                                     BiConsumer<RedisOperations<String, ?>, List<String>> commandConsumer,
+                                     BiConsumer<List<String>, List<Object>> resultConsumer) {
+        scan(redisTemplate, pattern, batchSize, keyList -> resultConsumer.accept(keyList,
+                redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object execute(RedisOperations operations) throws DataAccessException {
+                        commandConsumer.accept(operations, keyList);
+                        return null;
+                    }
+                })));
+    }
+
+    /**
+     * 删除匹配的键，每批使用一次UNLINK，返回删除数量
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static long delete(RedisTemplate<String, ?> redisTemplate, String pattern) {
+        long[] count = {0};
+        scan(redisTemplate, pattern, DEFAULT_BATCH_SIZE, keyList -> {
+            Long deleteCount = redisTemplate.unlink(keyList);
+            count[0] += deleteCount == null ? 0 : deleteCount;
+        });
+        return count[0];
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.auth.core.permission;
+
+import cn.hutool.extra.spring.SpringUtil;
+import vip.xiaonuo.auth.api.SaDataScopeApi;
+import vip.xiaonuo.auth.core.pojo.SaBaseLoginUser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 当前请求的数据范围，紧凑表示：全部数据仅为一个标记，含下级的范围仅保存顶层组织id，
+ * 判断时按组织层级索引做区间判断，只有在需要拼接IN条件时才展开为组织id集合
+ *
+ * @author jetox
+ * @date 2026/10/18 21:00
+ **/
+public final class SaDataScope {
+
+    /** 空数据范围，即仅本人数据 */
+    public static final SaDataScope EMPTY = new SaDataScope(false, Collections.emptySet(), Collections.emptySet());
+
+    /** 全部数据 */
+    public static final SaDataScope ALL = new SaDataScope(true, Collections.emptySet(), Collections.emptySet());
+
+    private final boolean scopeAll;
+
+    private final Set<String> orgIdSet;
+
+    private final Set<String> orgChildIdSet;
+
+    private List<String> orgIdList;
+
+    private SaDataScope(boolean scopeAll, Set<String> orgIdSet, Set<String> orgChildIdSet) {
+        this.scopeAll = scopeAll;
+        this.orgIdSet = orgIdSet;
+        this.orgChildIdSet = orgChildIdSet;
+    }
+
+    /**
+     * 合并指定接口的数据范围
+     *
+     * @author jetox
+     * @date 2026/10/18 21:00
+     **/
+    public static SaDataScope of(Collection<SaBaseLoginUser.DataScope> dataScopeList, String apiUrl) {
+        Set<String> orgIdSet = new LinkedHashSet<>();
+        Set<String> orgChildIdSet = new LinkedHashSet<>();
+        boolean matched = false;
+        for (SaBaseLoginUser.DataScope dataScope : dataScopeList) {
+            if (!apiUrl.equals(dataScope.getApiUrl())) {
+                continue;
+            }
+            if (Boolean.TRUE.equals(dataScope.getScopeAll())) {
+                return ALL;
+            }
+            matched = true;
+            if (dataScope.getDataScope() != null) {
+                orgIdSet.addAll(dataScope.getDataScope());
+            }
+            if (dataScope.getDataScopeWithChild() != null) {
+                orgChildIdSet.addAll(dataScope.getDataScopeWithChild());
+            }
+        }
+        orgIdSet.remove(null);
+        orgChildIdSet.remove(null);
+        if (!matched || (orgIdSet.isEmpty() && orgChildIdSet.isEmpty())) {
+            return EMPTY;
+        }
+        return new SaDataScope(false, orgIdSet, orgChildIdSet);
+    }
+
+    /**
+     * 是否全部数据，此时查询无需附加组织条件
+     *
+     * @author jetox
+     * @date 2026/10/18 21:00
+     **/
+    public boolean isScopeAll() {
+        return scopeAll;
+    }
+
+    /**
+     * 是否为空，即仅本人数据
+     *
+     * @author jetox
+     * @date 2026/10/18 21:00
+     **/
+    public boolean isEmpty() {
+        return !scopeAll && orgIdSet.isEmpty() && orgChildIdSet.isEmpty();
+    }
+
+    /**
+     * 是否不为空
+     *
+     * @author jetox
+     * @date 2026/10/18 21:00
+     **/
+    public boolean isNotEmpty() {
+        return !isEmpty();
+    }
+
+    /**
+     * 判断组织是否在数据范围内，不展开组织集合
+     *
+     * @author jetox
+     * @date 2026/10/18 21:00
+     **/
+    public boolean contains(String orgId) {
+        if (scopeAll) {
+            return true;
+        }
+        if (orgId == null) {
+            return false;
+        }
+        if (orgIdSet.contains(orgId) || orgChildIdSet.contains(orgId)) {
+            return true;
+        }
+        if (orgChildIdSet.isEmpty()) {
+            return false;
+        }
+        SaDataScopeApi saDataScopeApi = SpringUtil.getBean(SaDataScopeApi.class);
+        for (String orgChildId : orgChildIdSet) {
+            if (saDataScopeApi.isSelfOrChild(orgChildId, orgId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断组织是否全部在数据范围内
+     *
+     * @author jetox
+     * @date 2026/10/18 21:00
+     **/
+    public boolean containsAll(Collection<String> orgIdCollection) {
+        for (String orgId : orgIdCollection) {
+            if (!this.contains(orgId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取不在数据范围内的组织
+     *
+     * @author jetox
+     * @date 2026/10/18 21:00
+     **/
+    public List<String> subtractFrom(Collection<String> orgIdCollection) {
+        List<String> resultList = new ArrayList<>();
+        for (String orgId : orgIdCollection) {
+            if (!this.contains(orgId)) {
+                resultList.add(orgId);
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * 展开为组织id集合，用于拼接IN条件，同一实例只展开一次；全部数据时返回全部组织id
+     *
+     * @author jetox
+     * @date 2026/10/18 21:00
+     **/
+    public List<String> getOrgIdList() {
+        if (scopeAll) {
+            // 全部数据为共享实例，不缓存展开结果
+            return SpringUtil.getBean(SaDataScopeApi.class).getAllOrgIdList();
+        }
+        List<String> current = orgIdList;
+        if (current == null) {
+            if (orgChildIdSet.isEmpty()) {
+                current = List.copyOf(orgIdSet);
+            } else {
+                SaDataScopeApi saDataScopeApi = SpringUtil.getBean(SaDataScopeApi.class);
+                Set<String> expandedSet = new LinkedHashSet<>(orgIdSet);
+                orgChildIdSet.forEach(orgChildId -> expandedSet.addAll(saDataScopeApi.getChildOrgIdListWithSelf(orgChildId)));
+                current = List.copyOf(expandedSet);
+            }
+            orgIdList = current;
+        }
+        return current;
+    }
+}
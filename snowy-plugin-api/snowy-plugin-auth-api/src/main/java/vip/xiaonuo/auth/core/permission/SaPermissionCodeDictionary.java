@@ -0,0 +1,99 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.auth.core.permission;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 权限码字典，为每个权限码分配进程内唯一的整数编号并驻留字符串
+ * 查询编号无锁，只有出现新的权限码时才加锁分配
+ *
+ * @author jetox
+ * @date 2026/10/18 20:00
+ **/
+public final class SaPermissionCodeDictionary {
+
+    /** 接口权限码字典，编号用于权限位图 */
+    public static final SaPermissionCodeDictionary PERMISSION = new SaPermissionCodeDictionary();
+
+    /** 按钮码字典 */
+    public static final SaPermissionCodeDictionary BUTTON = new SaPermissionCodeDictionary();
+
+    private final Map<String, Integer> idMap = new ConcurrentHashMap<>();
+
+    private volatile String[] codes = new String[256];
+
+    private int size;
+
+    private SaPermissionCodeDictionary() {
+    }
+
+    /**
+     * 获取权限码的编号，不存在时分配
+     *
+     * @author jetox
+     * @date 2026/10/18 20:00
+     */
+    public int idOf(String code) {
+        Integer id = idMap.get(code);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = idMap.get(code);
+            if (id != null) {
+                return id;
+            }
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, size * 2);
+            }
+            // 先写入数组再发布编号，读取方拿到编号时数组中一定已有对应的权限码
+            codes[size] = code;
+            idMap.put(code, size);
+            return size++;
+        }
+    }
+
+    /**
+     * 查询权限码的编号，不存在时返回-1，不分配
+     *
+     * @author jetox
+     * @date 2026/10/18 20:00
+     */
+    public int findId(String code) {
+        Integer id = idMap.get(code);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * 根据编号获取权限码
+     *
+     * @author jetox
+     * @date 2026/10/18 20:00
+     */
+    public String codeOf(int id) {
+        return codes[id];
+    }
+
+    /**
+     * 驻留权限码，相同权限码返回同一个字符串实例
+     *
+     * @author jetox
+     * @date 2026/10/18 20:00
+     */
+    public String intern(String code) {
+        return codeOf(idOf(code));
+    }
+}
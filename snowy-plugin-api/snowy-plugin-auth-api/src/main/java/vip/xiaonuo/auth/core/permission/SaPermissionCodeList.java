@@ -0,0 +1,172 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.auth.core.permission;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 基于位图的只读权限码集合
+ * contains与hasPermission只做位运算，不加锁也不分配对象；通配符权限码单独保存，仅在位图未命中时匹配，
+ * 通配符*匹配任意字符序列，与Sa-Token的模糊匹配一致但不编译正则
+ *
+ * @author jetox
+ * @date 2026/10/18 20:00
+ **/
+public final class SaPermissionCodeList extends AbstractList<String> implements RandomAccess {
+
+    private static final SaPermissionCodeList EMPTY = new SaPermissionCodeList(new long[0]);
+
+    private final long[] bits;
+
+    private final String[] codes;
+
+    private final String[] patterns;
+
+    private SaPermissionCodeList(long[] bits) {
+        this.bits = bits;
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        this.codes = new String[count];
+        List<String> patternList = new ArrayList<>();
+        int index = 0;
+        for (int i = 0; i < bits.length; i++) {
+            long word = bits[i];
+            while (word != 0) {
+                String code = SaPermissionCodeDictionary.PERMISSION.codeOf((i << 6) + Long.numberOfTrailingZeros(word));
+                codes[index++] = code;
+                if (code.indexOf('*') >= 0) {
+                    patternList.add(code);
+                }
+                word &= word - 1;
+            }
+        }
+        this.patterns = patternList.toArray(new String[0]);
+    }
+
+    /**
+     * 根据权限码集合构建
+     *
+     * @author jetox
+     * @date 2026/10/18 20:00
+     */
+    public static SaPermissionCodeList of(Collection<String> codeList) {
+        if (codeList == null || codeList.isEmpty()) {
+            return EMPTY;
+        }
+        long[] bits = new long[0];
+        for (String code : codeList) {
+            if (code == null) {
+                continue;
+            }
+            int id = SaPermissionCodeDictionary.PERMISSION.idOf(code);
+            if ((id >> 6) >= bits.length) {
+                bits = Arrays.copyOf(bits, (id >> 6) + 1);
+            }
+            bits[id >> 6] |= 1L << id;
+        }
+        return new SaPermissionCodeList(bits);
+    }
+
+    /**
+     * 合并多个权限快照的接口权限位图
+     *
+     * @author jetox
+     * @date 2026/10/18 20:00
+     */
+    public static SaPermissionCodeList union(Collection<SaPermissionSnapshot> snapshotList) {
+        int length = 0;
+        for (SaPermissionSnapshot snapshot : snapshotList) {
+            length = Math.max(length, snapshot.getPermissionBits().length);
+        }
+        long[] bits = new long[length];
+        for (SaPermissionSnapshot snapshot : snapshotList) {
+            long[] snapshotBits = snapshot.getPermissionBits();
+            for (int i = 0; i < snapshotBits.length; i++) {
+                bits[i] |= snapshotBits[i];
+            }
+        }
+        return new SaPermissionCodeList(bits);
+    }
+
+    /**
+     * 是否拥有指定权限，支持权限码中的通配符
+     *
+     * @author jetox
+     * @date 2026/10/18 20:00
+     */
+    public boolean hasPermission(String permission) {
+        if (this.contains(permission)) {
+            return true;
+        }
+        for (String pattern : patterns) {
+            if (wildcardMatch(pattern, permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String code)) {
+            return false;
+        }
+        int id = SaPermissionCodeDictionary.PERMISSION.findId(code);
+        return id >= 0 && (id >> 6) < bits.length && (bits[id >> 6] & (1L << id)) != 0;
+    }
+
+    @Override
+    public String get(int index) {
+        return codes[index];
+    }
+
+    @Override
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * 通配符匹配，*匹配任意字符序列，回溯实现不分配对象
+     */
+    private static boolean wildcardMatch(String pattern, String str) {
+        if (str == null) {
+            return false;
+        }
+        int p = 0, s = 0, star = -1, mark = 0;
+        while (s < str.length()) {
+            if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                mark = s;
+            } else if (p < pattern.length() && pattern.charAt(p) == str.charAt(s)) {
+                p++;
+                s++;
+            } else if (star >= 0) {
+                p = star + 1;
+                s = ++mark;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.auth.core.permission;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 权限快照，按角色（或用户直接授权）预先编译，不可变
+ * 接口权限以位图保存，按钮码已驻留，数据范围规则已从扩展信息中解析
+ *
+ * @author jetox
+ * @date 2026/10/18 20:00
+ **/
+@Getter
+public final class SaPermissionSnapshot {
+
+    /** 角色id或用户id */
+    private final String objectId;
+
+    /** 编译时的权限版本号 */
+    private final long version;
+
+    /** 接口权限位图，位序号为权限码字典中的编号 */
+    private final long[] permissionBits;
+
+    /** 接口权限对应的数据范围规则 */
+    private final Map<String, List<DataScopeRule>> dataScopeRuleMap;
+
+    /** 按钮码 */
+    private final List<String> buttonCodeList;
+
+    /** 移动端按钮id */
+    private final List<String> mobileButtonIdList;
+
+    public SaPermissionSnapshot(String objectId, long version, Map<String, List<DataScopeRule>> dataScopeRuleMap,
+                                List<String> buttonCodeList, List<String> mobileButtonIdList) {
+        this.objectId = objectId;
+        this.version = version;
+        this.dataScopeRuleMap = Collections.unmodifiableMap(dataScopeRuleMap);
+        this.buttonCodeList = List.copyOf(buttonCodeList);
+        this.mobileButtonIdList = List.copyOf(mobileButtonIdList);
+        int maxId = -1;
+        int[] ids = new int[dataScopeRuleMap.size()];
+        int index = 0;
+        for (String apiUrl : dataScopeRuleMap.keySet()) {
+            ids[index] = SaPermissionCodeDictionary.PERMISSION.idOf(apiUrl);
+            maxId = Math.max(maxId, ids[index++]);
+        }
+        this.permissionBits = new long[(maxId >> 6) + 1];
+        for (int id : ids) {
+            permissionBits[id >> 6] |= 1L << id;
+        }
+    }
+
+    /**
+     * 数据范围规则
+     *
+     * @author jetox
+     * @date 2026/10/18 20:00
+     **/
+    @Getter
+    public static final class DataScopeRule {
+
+        /** 数据范围分类 */
+        private final String scopeCategory;
+
+        /** 自定义数据范围的组织id集合 */
+        private final List<String> scopeDefineOrgIdList;
+
+        public DataScopeRule(String scopeCategory, List<String> scopeDefineOrgIdList) {
+            this.scopeCategory = scopeCategory;
+            this.scopeDefineOrgIdList = List.copyOf(scopeDefineOrgIdList);
+        }
+    }
+}
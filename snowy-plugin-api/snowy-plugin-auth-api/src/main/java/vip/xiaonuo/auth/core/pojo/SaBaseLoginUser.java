@@ -264,8 +264,16 @@ public abstract class SaBaseLoginUser {
         @Schema(description = "API接口")
         private String apiUrl;
 
-        /** 数据范围 */
+        /** 是否全部数据，为true时不再列举组织id */
+        @Schema(description = "是否全部数据")
+        private Boolean scopeAll;
+
+        /** 数据范围（仅组织本身的id） */
         @Schema(description = "数据范围")
         private List<String> dataScope;
+
+        /** 数据范围（组织及其全部下级，仅保存顶层组织id） */
+        @Schema(description = "数据范围（含下级）")
+        private List<String> dataScopeWithChild;
     }
 }
@@ -13,12 +13,10 @@
 package vip.xiaonuo.auth.core.util;
 
 import cn.dev33.satoken.stp.StpUtil;
-import cn.hutool.core.collection.CollectionUtil;
+import vip.xiaonuo.auth.core.permission.SaDataScope;
 import vip.xiaonuo.auth.core.pojo.SaBaseLoginUser;
 import vip.xiaonuo.common.util.CommonServletUtil;
 
-import java.util.List;
-
 /**
  * B端登录用户工具类
  *
@@ -43,13 +41,7 @@ public class StpLoginUserUtil {
      * @author xuyuxiang
      * @date 2022/7/8 10:41
      **/
-    public static List<String> getLoginUserDataScope() {
-        List<String> resultList = CollectionUtil.newArrayList();
-        getLoginUser().getDataScopeList().forEach(dataScope -> {
-            if(dataScope.getApiUrl().equals(CommonServletUtil.getRequest().getServletPath())) {
-                resultList.addAll(dataScope.getDataScope());
-            }
-        });
-        return resultList;
+    public static SaDataScope getLoginUserDataScope() {
+        return SaDataScope.of(getLoginUser().getDataScopeList(), CommonServletUtil.getRequest().getServletPath());
     }
 }
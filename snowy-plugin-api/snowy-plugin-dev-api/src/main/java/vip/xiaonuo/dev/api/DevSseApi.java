@@ -66,4 +66,14 @@ public interface DevSseApi {
      **/
     public void sendMessageToOneClient(String clientId, String msg);
 
+    /**
+     * 根据用户id发送消息给该用户在集群内的全部客户端
+     *
+     * @param loginId 用户id
+     * @param msg 推送消息
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    public void sendMessageToUser(String loginId, String msg);
+
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.auth.core.cache;
+
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.auth.core.enums.SaClientTypeEnum;
+import vip.xiaonuo.auth.core.permission.SaPermissionCodeList;
+import vip.xiaonuo.common.cache.CommonCacheOperator;
+import vip.xiaonuo.common.consts.CacheConstant;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 登录用户权限码本地缓存
+ * 鉴权时直接返回本地的位图权限集合，不再每次读取Redis并解析字符串；
+ * 权限版本号变化（角色或用户授权变化）后清空，重新从Redis读取登录时写入的权限码列表；
+ * 用户登录时通过Redis发布订阅通知其他节点移除该用户的权限码集合，消息格式为：节点id,端类型,登录id
+ *
+ * @author jetox
+ * @date 2026/10/18 20:00
+ **/
+@Slf4j
+@Component
+public class AuthPermissionListCache implements MessageListener {
+
+    /** 单端最大缓存用户数 */
+    private static final int MAX_SIZE = 100000;
+
+    /** 本地权限码集合存活时间，失效消息丢失时的最长不一致时间 */
+    private static final long EXPIRE_SECONDS = 300;
+
+    /** 检查Redis版本号的间隔 */
+    private static final long VERSION_CHECK_INTERVAL_MILLIS = 1000;
+
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    @Resource
+    private CommonCacheOperator commonCacheOperator;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final Cache<String, SaPermissionCodeList> bPermissionListCache = newCache();
+
+    private final Cache<String, SaPermissionCodeList> cPermissionListCache = newCache();
+
+    private final AtomicLong lastCheckMillis = new AtomicLong();
+
+    private volatile long version = Long.MIN_VALUE;
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CacheConstant.AUTH_PERMISSION_LIST_INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 获取登录用户的权限码集合
+     *
+     * @author jetox
+     * @date 2026/10/18 20:00
+     */
+    public SaPermissionCodeList get(Object loginId, String loginType) {
+        this.checkVersion();
+        boolean isB = SaClientTypeEnum.B.getValue().equals(loginType);
+        return (isB ? bPermissionListCache : cPermissionListCache).get(String.valueOf(loginId),
+                id -> SaPermissionCodeList.of(this.load(id, isB)));
+    }
+
+    /**
+     * 登录或刷新用户信息后更新本节点的权限码集合，并通知其他节点移除该用户的旧集合
+     * 须在权限码列表写入Redis之后调用，其他节点收到消息后重新读取Redis
+     *
+     * @author jetox
+     * @date 2026/10/18 20:00
+     */
+    public void put(Object loginId, String loginType, List<String> permissionCodeList) {
+        String id = String.valueOf(loginId);
+        this.getCache(loginType).put(id, SaPermissionCodeList.of(permissionCodeList));
+        try {
+            stringRedisTemplate.convertAndSend(CacheConstant.AUTH_PERMISSION_LIST_INVALIDATE_CHANNEL,
+                    StrUtil.join(StrUtil.COMMA, nodeId, loginType, id));
+        } catch (Exception e) {
+            // 发布失败时其他节点依赖本地权限码集合存活时间兜底
+            log.error(">>> 权限码失效消息发布失败，登录id：{}", id, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        List<String> partList = StrUtil.split(new String(message.getBody(), StandardCharsets.UTF_8), StrUtil.C_COMMA, 3);
+        if (partList.size() != 3 || nodeId.equals(partList.get(0))) {
+            return;
+        }
+        this.getCache(partList.get(1)).invalidate(partList.get(2));
+    }
+
+    private Cache<String, SaPermissionCodeList> getCache(String loginType) {
+        return SaClientTypeEnum.B.getValue().equals(loginType) ? bPermissionListCache : cPermissionListCache;
+    }
+
+    private static Cache<String, SaPermissionCodeList> newCache() {
+        return Caffeine.newBuilder().maximumSize(MAX_SIZE).expireAfterWrite(EXPIRE_SECONDS, TimeUnit.SECONDS).build();
+    }
+
+    /**
+     * 读取登录时写入Redis的权限码列表
+     */
+    private List<String> load(String id, boolean isB) {
+        Object permissionListObject = commonCacheOperator.get((isB ? CacheConstant.AUTH_B_PERMISSION_LIST_CACHE_KEY :
+                CacheConstant.AUTH_C_PERMISSION_LIST_CACHE_KEY) + id);
+        if (permissionListObject == null) {
+            return CollectionUtil.newArrayList();
+        }
+        if (permissionListObject instanceof Collection<?> collection) {
+            return collection.stream().map(String::valueOf).toList();
+        }
+        // 兼容字符串形式，去除首尾的方括号后使用逗号和空格分割
+        return StrUtil.split(StrUtil.sub(permissionListObject.toString(), 1, -1), ", ");
+    }
+
+    /**
+     * 每秒最多一个线程读取一次权限版本号，变化时清空本地缓存
+     */
+    private void checkVersion() {
+        long now = System.currentTimeMillis();
+        long last = lastCheckMillis.get();
+        if (now - last < VERSION_CHECK_INTERVAL_MILLIS || !lastCheckMillis.compareAndSet(last, now)) {
+            return;
+        }
+        try {
+            long currentVersion = Convert.toLong(commonCacheOperator.get(CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY), 0L);
+            if (currentVersion != version) {
+                bPermissionListCache.invalidateAll();
+                cPermissionListCache.invalidateAll();
+                version = currentVersion;
+            }
+        } catch (Exception e) {
+            log.warn(">>> 读取权限版本号失败：{}", e.getMessage());
+        }
+    }
+}
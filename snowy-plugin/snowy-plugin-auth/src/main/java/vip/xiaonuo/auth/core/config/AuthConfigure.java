@@ -13,12 +13,11 @@
 package vip.xiaonuo.auth.core.config;
 
 import cn.dev33.satoken.config.SaTokenConfig;
+import cn.dev33.satoken.fun.strategy.SaHasElementFunction;
 import cn.dev33.satoken.interceptor.SaInterceptor;
 import cn.dev33.satoken.stp.StpInterface;
 import cn.dev33.satoken.stp.StpLogic;
 import cn.dev33.satoken.strategy.SaStrategy;
-import cn.hutool.core.collection.CollectionUtil;
-import cn.hutool.core.util.StrUtil;
 import jakarta.annotation.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -28,11 +27,11 @@ import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import vip.xiaonuo.auth.core.cache.AuthPermissionListCache;
 import vip.xiaonuo.auth.core.enums.SaClientTypeEnum;
+import vip.xiaonuo.auth.core.permission.SaPermissionCodeList;
 import vip.xiaonuo.auth.core.util.StpClientLoginUserUtil;
 import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
-import vip.xiaonuo.common.cache.CommonCacheOperator;
-import vip.xiaonuo.common.consts.CacheConstant;
 
 import java.util.List;
 
@@ -82,6 +81,10 @@ public class AuthConfigure implements WebMvcConfigurer {
     public void rewriteSaStrategy() {
         // 重写Sa-Token的注解处理器，增加注解合并功能
         SaStrategy.instance.getAnnotation = AnnotatedElementUtils::getMergedAnnotation;
+        // 重写Sa-Token的元素匹配，位图权限集合直接按位判断
+        SaHasElementFunction hasElement = SaStrategy.instance.hasElement;
+        SaStrategy.instance.hasElement = (list, element) -> list instanceof SaPermissionCodeList permissionCodeList ?
+                permissionCodeList.hasPermission(element) : hasElement.apply(list, element);
     }
 
     /**
@@ -94,25 +97,14 @@ public class AuthConfigure implements WebMvcConfigurer {
     public static class StpInterfaceImpl implements StpInterface {
 
         @Resource
-        private CommonCacheOperator commonCacheOperator;
+        private AuthPermissionListCache authPermissionListCache;
 
         /**
-         * 返回一个账号所拥有的权限码集合
+         * 返回一个账号所拥有的权限码集合，直接返回本地缓存的位图权限集合
          */
         @Override
         public List<String> getPermissionList(Object loginId, String loginType) {
-            Object permissionListObject;
-            if (SaClientTypeEnum.B.getValue().equals(loginType)) {
-                permissionListObject = commonCacheOperator.get(CacheConstant.AUTH_B_PERMISSION_LIST_CACHE_KEY + loginId);
-            } else {
-                permissionListObject = commonCacheOperator.get(CacheConstant.AUTH_C_PERMISSION_LIST_CACHE_KEY + loginId);
-            }
-            // 转为字符串
-            String permissionListString = permissionListObject.toString();
-            // 去除首尾的方括号
-            String trimmedStr = StrUtil.sub(permissionListString, 1, -1);
-            // 使用逗号和空格分割字符串，并转换为列表
-            return CollectionUtil.newArrayList(StrUtil.split(trimmedStr, ", "));
+            return authPermissionListCache.get(loginId, loginType);
         }
 
         /**
@@ -28,6 +28,7 @@ import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import vip.xiaonuo.auth.api.SaBaseLoginUserApi;
+import vip.xiaonuo.auth.core.cache.AuthPermissionListCache;
 import vip.xiaonuo.auth.core.enums.SaClientTypeEnum;
 import vip.xiaonuo.auth.core.pojo.SaBaseClientLoginUser;
 import vip.xiaonuo.auth.core.pojo.SaBaseLoginUser;
@@ -160,6 +161,9 @@ public class AuthServiceImpl implements AuthService {
     @Resource
     private CommonCacheOperator commonCacheOperator;
 
+    @Resource
+    private AuthPermissionListCache authPermissionListCache;
+
     @Override
     public AuthPicValidCodeResult getPicCaptcha(String type) {
         // 生成验证码，随机4位字符
@@ -787,6 +791,7 @@ public class AuthServiceImpl implements AuthService {
         saBaseLoginUser.setPermissionCodeList(permissionCodeList);
         // 权限码列表存入缓存
         commonCacheOperator.put(CacheConstant.AUTH_B_PERMISSION_LIST_CACHE_KEY + saBaseLoginUser.getId(),permissionCodeList);
+        authPermissionListCache.put(saBaseLoginUser.getId(), SaClientTypeEnum.B.getValue(), permissionCodeList);
         // 获取角色码
         saBaseLoginUser.setRoleCodeList(roleCodeList);
         // 缓存用户信息，此处使用TokenSession为了指定时间内无操作则自动下线
@@ -841,6 +846,7 @@ public class AuthServiceImpl implements AuthService {
         saBaseClientLoginUser.setPermissionCodeList(permissionCodeList);
         // 权限码列表存入缓存
         commonCacheOperator.put(CacheConstant.AUTH_C_PERMISSION_LIST_CACHE_KEY + saBaseClientLoginUser.getId(),permissionCodeList);
+        authPermissionListCache.put(saBaseClientLoginUser.getId(), SaClientTypeEnum.C.getValue(), permissionCodeList);
         // 获取角色码
         saBaseClientLoginUser.setRoleCodeList(roleCodeList);
         // 缓存用户信息，此处使用TokenSession为了指定时间内无操作则自动下线
@@ -27,6 +27,7 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vip.xiaonuo.auth.core.permission.SaDataScope;
 import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
 import vip.xiaonuo.biz.modular.group.entity.BizGroup;
 import vip.xiaonuo.biz.modular.group.mapper.BizGroupMapper;
@@ -128,9 +129,13 @@ public class BizGroupServiceImpl extends ServiceImpl<BizGroupMapper, BizGroup> i
         // 定义机构集合
         Set<BizOrg> bizOrgSet = CollectionUtil.newHashSet();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            loginUserDataScope.forEach(orgId -> bizOrgSet.addAll(bizOrgService.getParentListById(allOrgList, orgId, true)));
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
+            if(loginUserDataScope.isScopeAll()) {
+                bizOrgSet.addAll(allOrgList);
+            } else {
+                loginUserDataScope.getOrgIdList().forEach(orgId -> bizOrgSet.addAll(bizOrgService.getParentListById(allOrgList, orgId, true)));
+            }
         } else {
             return CollectionUtil.newArrayList();
         }
@@ -147,9 +152,11 @@ public class BizGroupServiceImpl extends ServiceImpl<BizGroupMapper, BizGroup> i
         // 只查询状态为正常的
         queryWrapper.lambda().eq(BizUser::getUserStatus, BizUserStatusEnum.ENABLE.getValue());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope);
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
+            if(!loginUserDataScope.isScopeAll()) {
+                queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope.getOrgIdList());
+            }
         } else {
             return new Page<>();
         }
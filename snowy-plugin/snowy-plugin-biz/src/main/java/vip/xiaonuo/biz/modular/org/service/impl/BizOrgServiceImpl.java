@@ -30,6 +30,7 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vip.xiaonuo.auth.core.permission.SaDataScope;
 import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
 import vip.xiaonuo.biz.core.enums.BizDataTypeEnum;
 import vip.xiaonuo.biz.modular.org.entity.BizOrg;
@@ -92,9 +93,11 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
             queryWrapper.lambda().orderByAsc(BizOrg::getSortCode);
         }
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizOrg::getId, loginUserDataScope);
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
+            if(!loginUserDataScope.isScopeAll()) {
+                queryWrapper.lambda().in(BizOrg::getId, loginUserDataScope.getOrgIdList());
+            }
         } else {
             return new Page<>();
         }
@@ -108,9 +111,13 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
         // 定义机构集合
         Set<BizOrg> bizOrgSet = CollectionUtil.newHashSet();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            loginUserDataScope.forEach(orgId -> bizOrgSet.addAll(this.getParentListById(allOrgList, orgId, true)));
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
+            if(loginUserDataScope.isScopeAll()) {
+                bizOrgSet.addAll(allOrgList);
+            } else {
+                loginUserDataScope.getOrgIdList().forEach(orgId -> bizOrgSet.addAll(this.getParentListById(allOrgList, orgId, true)));
+            }
         } else {
             return CollectionUtil.newArrayList();
         }
@@ -132,8 +139,8 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
     public void add(BizOrgAddParam bizOrgAddParam, String sourceFromType) {
         BizOrgCategoryEnum.validate(bizOrgAddParam.getCategory());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
             if(!loginUserDataScope.contains(bizOrgAddParam.getParentId())) {
                 throw new CommonException("您没有权限在该机构下增加机构，机构id：{}", bizOrgAddParam.getParentId());
             }
@@ -163,8 +170,8 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
         BizOrgCategoryEnum.validate(bizOrgEditParam.getCategory());
         BizOrg bizOrg = this.queryEntity(bizOrgEditParam.getId());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
             if(!loginUserDataScope.contains(bizOrg.getId())) {
                 throw new CommonException("您没有权限编辑该机构，机构id：{}", bizOrg.getId());
             }
@@ -198,9 +205,9 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
         List<String> orgIdList = CollStreamUtil.toList(bizOrgIdParamList, BizOrgIdParam::getId);
         if(ObjectUtil.isNotEmpty(orgIdList)) {
             // 校验数据范围
-            List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-            if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-                if(!new HashSet<>(loginUserDataScope).containsAll(orgIdList)) {
+            SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+            if(loginUserDataScope.isNotEmpty()) {
+                if(!loginUserDataScope.containsAll(orgIdList)) {
                     throw new CommonException("您没有权限删除这些机构，机构id：{}", orgIdList);
                 }
             } else {
@@ -320,15 +327,18 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
     public List<Tree<String>> orgTreeSelector() {
         LambdaQueryWrapper<BizOrg> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
         // 定义机构集合
         Set<BizOrg> bizOrgSet = CollectionUtil.newHashSet();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            // 获取所有机构
-            List<BizOrg> allOrgList = this.list();
-            loginUserDataScope.forEach(orgId -> bizOrgSet.addAll(this.getParentListById(allOrgList, orgId, true)));
-            List<String> loginUserDataScopeFullList = bizOrgSet.stream().map(BizOrg::getId).collect(Collectors.toList());
-            lambdaQueryWrapper.in(BizOrg::getId, loginUserDataScopeFullList);
+        if(loginUserDataScope.isNotEmpty()) {
+            // 全部数据时无需限定机构
+            if(!loginUserDataScope.isScopeAll()) {
+                // 获取所有机构
+                List<BizOrg> allOrgList = this.list();
+                loginUserDataScope.getOrgIdList().forEach(orgId -> bizOrgSet.addAll(this.getParentListById(allOrgList, orgId, true)));
+                List<String> loginUserDataScopeFullList = bizOrgSet.stream().map(BizOrg::getId).collect(Collectors.toList());
+                lambdaQueryWrapper.in(BizOrg::getId, loginUserDataScopeFullList);
+            }
         } else {
             return CollectionUtil.newArrayList();
         }
@@ -344,9 +354,11 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
     public List<BizOrg> orgListSelector(BizOrgSelectorOrgListParam bizOrgSelectorOrgListParam) {
         QueryWrapper<BizOrg> queryWrapper = new QueryWrapper<BizOrg>().checkSqlInjection();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizOrg::getId, loginUserDataScope);
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
+            if(!loginUserDataScope.isScopeAll()) {
+                queryWrapper.lambda().in(BizOrg::getId, loginUserDataScope.getOrgIdList());
+            }
         } else {
             return CollectionUtil.newArrayList();
         }
@@ -367,9 +379,11 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
     public Page<BizUser> userSelector(BizOrgSelectorUserParam bizOrgSelectorUserParam) {
         QueryWrapper<BizUser> queryWrapper = new QueryWrapper<BizUser>().checkSqlInjection();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope);
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
+            if(!loginUserDataScope.isScopeAll()) {
+                queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope.getOrgIdList());
+            }
         } else {
             return new Page<>();
         }
@@ -31,6 +31,7 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vip.xiaonuo.auth.core.permission.SaDataScope;
 import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
 import vip.xiaonuo.biz.core.enums.BizDataTypeEnum;
 import vip.xiaonuo.biz.modular.org.entity.BizOrg;
@@ -47,7 +48,6 @@ import vip.xiaonuo.common.exception.CommonException;
 import vip.xiaonuo.common.listener.CommonDataChangeEventCenter;
 import vip.xiaonuo.common.page.CommonPageRequest;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -90,9 +90,11 @@ public class BizPositionServiceImpl extends ServiceImpl<BizPositionMapper, BizPo
             queryWrapper.lambda().orderByAsc(BizPosition::getSortCode);
         }
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizPosition::getOrgId, loginUserDataScope);
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
+            if(!loginUserDataScope.isScopeAll()) {
+                queryWrapper.lambda().in(BizPosition::getOrgId, loginUserDataScope.getOrgIdList());
+            }
         } else {
             return new Page<>();
         }
@@ -104,8 +106,8 @@ public class BizPositionServiceImpl extends ServiceImpl<BizPositionMapper, BizPo
     public void add(BizPositionAddParam bizPositionAddParam) {
         BizPositionCategoryEnum.validate(bizPositionAddParam.getCategory());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
             if(!loginUserDataScope.contains(bizPositionAddParam.getOrgId())) {
                 throw new CommonException("您没有权限在该机构下增加岗位，机构id：{}", bizPositionAddParam.getOrgId());
             }
@@ -131,8 +133,8 @@ public class BizPositionServiceImpl extends ServiceImpl<BizPositionMapper, BizPo
         BizPositionCategoryEnum.validate(bizPositionEditParam.getCategory());
         BizPosition bizPosition = this.queryEntity(bizPositionEditParam.getId());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
             if(!loginUserDataScope.contains(bizPositionEditParam.getOrgId())) {
                 throw new CommonException("您没有权限编辑该机构下的岗位，机构id：{}", bizPositionEditParam.getOrgId());
             }
@@ -161,9 +163,9 @@ public class BizPositionServiceImpl extends ServiceImpl<BizPositionMapper, BizPo
             // 获取这些岗位的的机构id集合
             Set<String> positionOrgIdList = this.listByIds(positionIdList).stream().map(BizPosition::getOrgId).collect(Collectors.toSet());
             // 校验数据范围
-            List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-            if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-                if(!new HashSet<>(loginUserDataScope).containsAll(positionOrgIdList)) {
+            SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+            if(loginUserDataScope.isNotEmpty()) {
+                if(!loginUserDataScope.containsAll(positionOrgIdList)) {
                     throw new CommonException("您没有权限删除这些机构下的岗位，机构id：{}", positionOrgIdList);
                 }
             } else {
@@ -219,15 +221,18 @@ public class BizPositionServiceImpl extends ServiceImpl<BizPositionMapper, BizPo
     public List<Tree<String>> orgTreeSelector() {
         LambdaQueryWrapper<BizOrg> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
         // 定义机构集合
         Set<BizOrg> bizOrgSet = CollectionUtil.newHashSet();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            // 获取所有机构
-            List<BizOrg> allOrgList = bizOrgService.list();
-            loginUserDataScope.forEach(orgId -> bizOrgSet.addAll(bizOrgService.getParentListById(allOrgList, orgId, true)));
-            List<String> loginUserDataScopeFullList = bizOrgSet.stream().map(BizOrg::getId).collect(Collectors.toList());
-            lambdaQueryWrapper.in(BizOrg::getId, loginUserDataScopeFullList);
+        if(loginUserDataScope.isNotEmpty()) {
+            // 全部数据时无需限定机构
+            if(!loginUserDataScope.isScopeAll()) {
+                // 获取所有机构
+                List<BizOrg> allOrgList = bizOrgService.list();
+                loginUserDataScope.getOrgIdList().forEach(orgId -> bizOrgSet.addAll(bizOrgService.getParentListById(allOrgList, orgId, true)));
+                List<String> loginUserDataScopeFullList = bizOrgSet.stream().map(BizOrg::getId).collect(Collectors.toList());
+                lambdaQueryWrapper.in(BizOrg::getId, loginUserDataScopeFullList);
+            }
         } else {
             return CollectionUtil.newArrayList();
         }
@@ -243,9 +248,11 @@ public class BizPositionServiceImpl extends ServiceImpl<BizPositionMapper, BizPo
     public Page<BizPosition> positionSelector(BizPositionSelectorPositionParam bizPositionSelectorPositionParam) {
         QueryWrapper<BizPosition> queryWrapper = new QueryWrapper<BizPosition>();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizPosition::getOrgId, loginUserDataScope);
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
+            if(!loginUserDataScope.isScopeAll()) {
+                queryWrapper.lambda().in(BizPosition::getOrgId, loginUserDataScope.getOrgIdList());
+            }
         } else {
             return new Page<>();
         }
@@ -53,6 +53,7 @@ import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vip.xiaonuo.auth.core.permission.SaDataScope;
 import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
 import vip.xiaonuo.biz.core.enums.BizBuildInEnum;
 import vip.xiaonuo.biz.core.enums.BizDataTypeEnum;
@@ -140,9 +141,11 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
         // 排除超管
         queryWrapper.lambda().ne(BizUser::getAccount, BizBuildInEnum.BUILD_IN_USER_ACCOUNT.getValue());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope);
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
+            if(!loginUserDataScope.isScopeAll()) {
+                queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope.getOrgIdList());
+            }
         } else {
             queryWrapper.lambda().eq(BizUser::getId, StpUtil.getLoginIdAsString());
         }
@@ -172,8 +175,8 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
 
     private void checkParam(BizUserAddParam bizUserAddParam) {
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
             if(!loginUserDataScope.contains(bizUserAddParam.getOrgId())) {
                 throw new CommonException("您没有权限在该机构下增加人员，机构id：{}", bizUserAddParam.getOrgId());
             }
@@ -223,8 +226,8 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
 
     private void checkParam(BizUserEditParam bizUserEditParam) {
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
             if(!loginUserDataScope.contains(bizUserEditParam.getOrgId())) {
                 throw new CommonException("您没有权限编辑该机构下的人员，机构id：{}", bizUserEditParam.getOrgId());
             }
@@ -273,11 +276,11 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
             // 获取这些人员的的机构id集合
             Set<String> userOrgIdList = this.listByIds(bizUserIdList).stream().map(BizUser::getOrgId).collect(Collectors.toSet());
             // 校验数据范围
-            List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-            if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-                if(!new HashSet<>(loginUserDataScope).containsAll(userOrgIdList)) {
+            SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+            if(loginUserDataScope.isNotEmpty()) {
+                if(!loginUserDataScope.containsAll(userOrgIdList)) {
                     throw new CommonException("您没有权限删除这些机构下的人员，机构id：{}",
-                            CollectionUtil.subtract(userOrgIdList, loginUserDataScope));
+                            loginUserDataScope.subtractFrom(userOrgIdList));
                 }
             } else {
                 if(bizUserIdList.size() != 1 || !bizUserIdList.get(0).equals(StpUtil.getLoginIdAsString())) {
@@ -324,8 +327,8 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public void disableUser(BizUserIdParam bizUserIdParam) {
         BizUser bizUser = this.detail(bizUserIdParam);
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
             if(!loginUserDataScope.contains(bizUser.getOrgId())) {
                 throw new CommonException("您没有权限禁用该机构下的人员：{}，机构id：{}", bizUser.getName(), bizUser.getOrgId());
             }
@@ -343,8 +346,8 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public void enableUser(BizUserIdParam bizUserIdParam) {
         BizUser bizUser = this.detail(bizUserIdParam);
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
             if(!loginUserDataScope.contains(bizUser.getOrgId())) {
                 throw new CommonException("您没有权限启用该机构下的人员：{}，机构id：{}", bizUser.getName(), bizUser.getOrgId());
             }
@@ -362,8 +365,8 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public void resetPassword(BizUserIdParam bizUserIdParam) {
         BizUser bizUser = this.detail(bizUserIdParam);
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
             if(!loginUserDataScope.contains(bizUser.getOrgId())) {
                 throw new CommonException("您没有权限为该机构下的人员：{}重置密码，机构id：{}", bizUser.getName(), bizUser.getOrgId());
             }
@@ -387,8 +390,8 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public void grantRole(BizUserGrantRoleParam bizUserGrantRoleParam) {
         BizUser bizUser = this.queryEntity(bizUserGrantRoleParam.getId());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
             if(!loginUserDataScope.contains(bizUser.getOrgId())) {
                 throw new CommonException("您没有权限为该机构下的人员：{}授权角色，机构id：{}", bizUser.getName(), bizUser.getOrgId());
             }
@@ -408,9 +411,11 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
             // 排除超管
             queryWrapper.lambda().ne(BizUser::getAccount, BizBuildInEnum.BUILD_IN_USER_ACCOUNT.getValue());
             // 校验数据范围
-            List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-            if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-                queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope);
+            SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+            if(loginUserDataScope.isNotEmpty()) {
+                if(!loginUserDataScope.isScopeAll()) {
+                    queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope.getOrgIdList());
+                }
             } else {
                 queryWrapper.lambda().eq(BizUser::getId, StpUtil.getLoginIdAsString());
             }
@@ -616,15 +621,18 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public List<Tree<String>> orgTreeSelector() {
         LambdaQueryWrapper<BizOrg> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
         // 定义机构集合
         Set<BizOrg> bizOrgSet = CollectionUtil.newHashSet();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            // 获取所有机构
-            List<BizOrg> allOrgList = bizOrgService.list();
-            loginUserDataScope.forEach(orgId -> bizOrgSet.addAll(bizOrgService.getParentListById(allOrgList, orgId, true)));
-            List<String> loginUserDataScopeFullList = bizOrgSet.stream().map(BizOrg::getId).collect(Collectors.toList());
-            lambdaQueryWrapper.in(BizOrg::getId, loginUserDataScopeFullList);
+        if(loginUserDataScope.isNotEmpty()) {
+            // 全部数据时无需限定机构
+            if(!loginUserDataScope.isScopeAll()) {
+                // 获取所有机构
+                List<BizOrg> allOrgList = bizOrgService.list();
+                loginUserDataScope.getOrgIdList().forEach(orgId -> bizOrgSet.addAll(bizOrgService.getParentListById(allOrgList, orgId, true)));
+                List<String> loginUserDataScopeFullList = bizOrgSet.stream().map(BizOrg::getId).collect(Collectors.toList());
+                lambdaQueryWrapper.in(BizOrg::getId, loginUserDataScopeFullList);
+            }
         } else {
             return CollectionUtil.newArrayList();
         }
@@ -640,9 +648,11 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public Page<BizOrg> orgListSelector(BizUserSelectorOrgListParam bizUserSelectorOrgListParam) {
         QueryWrapper<BizOrg> queryWrapper = new QueryWrapper<BizOrg>().checkSqlInjection();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizOrg::getId, loginUserDataScope);
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
+            if(!loginUserDataScope.isScopeAll()) {
+                queryWrapper.lambda().in(BizOrg::getId, loginUserDataScope.getOrgIdList());
+            }
         } else {
             return new Page<>();
         }
@@ -663,9 +673,11 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public Page<BizPosition> positionSelector(BizUserSelectorPositionParam bizUserSelectorPositionParam) {
         QueryWrapper<BizPosition> queryWrapper = new QueryWrapper<BizPosition>().checkSqlInjection();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizPosition::getOrgId, loginUserDataScope);
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
+            if(!loginUserDataScope.isScopeAll()) {
+                queryWrapper.lambda().in(BizPosition::getOrgId, loginUserDataScope.getOrgIdList());
+            }
         } else {
             return new Page<>();
         }
@@ -686,12 +698,14 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     @Override
     public Page<BizUserRoleResult> roleSelector(BizUserSelectorRoleParam bizUserSelectorRoleParam) {
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
+            // 全部数据时无需限定机构
+            List<String> dataScopeList = loginUserDataScope.isScopeAll() ? null : loginUserDataScope.getOrgIdList();
             if(ObjectUtil.isNotEmpty(bizUserSelectorRoleParam.getOrgId())) {
                 if(loginUserDataScope.contains(bizUserSelectorRoleParam.getOrgId())) {
                     return BeanUtil.toBean(sysRoleApi.roleSelector(bizUserSelectorRoleParam.getOrgId(), bizUserSelectorRoleParam.getCategory(),
-                            bizUserSelectorRoleParam.getSearchKey(), loginUserDataScope, true), Page.class);
+                            bizUserSelectorRoleParam.getSearchKey(), dataScopeList, true), Page.class);
                 } else {
                     return new Page<>();
                 }
@@ -702,7 +716,7 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
                             bizUserSelectorRoleParam.getSearchKey(), null, true), Page.class);
                 } else {
                     return BeanUtil.toBean(sysRoleApi.roleSelector(null, bizUserSelectorRoleParam.getCategory(),
-                            bizUserSelectorRoleParam.getSearchKey(), loginUserDataScope, true), Page.class);
+                            bizUserSelectorRoleParam.getSearchKey(), dataScopeList, true), Page.class);
                 }
             }
         } else {
@@ -714,9 +728,11 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public Page<BizUser> userSelector(BizUserSelectorUserParam bizUserSelectorUserParam) {
         QueryWrapper<BizUser> queryWrapper = new QueryWrapper<BizUser>().checkSqlInjection();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope);
+        SaDataScope loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        if(loginUserDataScope.isNotEmpty()) {
+            if(!loginUserDataScope.isScopeAll()) {
+                queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope.getOrgIdList());
+            }
         } else {
             return new Page<>();
         }
@@ -12,21 +12,32 @@
  */
 package vip.xiaonuo.client.modular.relation.service.impl;
 
+import cn.hutool.core.collection.CollStreamUtil;
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.util.ObjectUtil;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vip.xiaonuo.common.cache.CommonRelationGraphCache;
+import vip.xiaonuo.common.cache.CommonRelationGraphCenter;
+import vip.xiaonuo.common.cache.CommonRelationRecord;
 import vip.xiaonuo.client.modular.relation.entity.ClientRelation;
+import vip.xiaonuo.client.modular.relation.enums.ClientRelationCategoryEnum;
 import vip.xiaonuo.client.modular.relation.mapper.ClientRelationMapper;
 import vip.xiaonuo.client.modular.relation.service.ClientRelationService;
 
+import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * C端关系Service接口实现类
+ * 关系Service接口实现类
  *
  * @author xuyuxiang
  * @date 2022/2/23 18:43
@@ -34,11 +45,76 @@ import java.util.stream.Collectors;
 @Service
 public class ClientRelationServiceImpl extends ServiceImpl<ClientRelationMapper, ClientRelation> implements ClientRelationService {
 
+    /** 由关系图缓存提供的分类 */
+    private static final Set<String> CACHED_CATEGORY_SET = Set.of(
+            ClientRelationCategoryEnum.USER_TEST.getValue());
+
+    @Resource
+    private CommonRelationGraphCenter commonRelationGraphCenter;
+
+    private CommonRelationGraphCache relationGraphCache;
+
+    @PostConstruct
+    public void init() {
+        relationGraphCache = commonRelationGraphCenter.register("CLIENT_RELATION", CACHED_CATEGORY_SET, category ->
+                CollStreamUtil.toList(this.list(new LambdaQueryWrapper<ClientRelation>().eq(ClientRelation::getCategory, category)),
+                        this::toRecord));
+    }
+
+    /* ====关系写入时维护关系图，删除与更新前先查询受影响关系的分类，按分类失效==== */
+
+    @Override
+    public boolean save(ClientRelation entity) {
+        boolean result = super.save(entity);
+        this.afterRelationSave(null, entity.getCategory(), CollectionUtil.newArrayList(entity));
+        return result;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public boolean saveBatch(Collection<ClientRelation> entityList, int batchSize) {
+        boolean result = super.saveBatch(entityList, batchSize);
+        relationGraphCache.append(CollStreamUtil.toList(entityList, this::toRecord));
+        return result;
+    }
+
+    @Override
+    public boolean remove(Wrapper<ClientRelation> queryWrapper) {
+        Set<String> categorySet = CollStreamUtil.toSet(this.list(queryWrapper), ClientRelation::getCategory);
+        boolean result = super.remove(queryWrapper);
+        relationGraphCache.invalidate(categorySet);
+        return result;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<?> list) {
+        if(ObjectUtil.isEmpty(list)) {
+            return false;
+        }
+        Set<String> categorySet = CollStreamUtil.toSet(this.listByIds(CollStreamUtil.toList(list, id -> (Serializable) id)),
+                ClientRelation::getCategory);
+        boolean result = super.removeByIds(list);
+        relationGraphCache.invalidate(categorySet);
+        return result;
+    }
+
+    @Override
+    public boolean update(ClientRelation entity, Wrapper<ClientRelation> updateWrapper) {
+        Set<String> categorySet = CollStreamUtil.toSet(this.list(updateWrapper), ClientRelation::getCategory);
+        // 更新为其他分类时，新分类同样受影响
+        if(ObjectUtil.isNotEmpty(entity) && ObjectUtil.isNotEmpty(entity.getCategory())) {
+            categorySet.add(entity.getCategory());
+        }
+        boolean result = super.update(entity, updateWrapper);
+        relationGraphCache.invalidate(categorySet);
+        return result;
+    }
+
     @Transactional(rollbackFor = Exception.class)
     public void saveRelation(String objectId, String targetId, String category, String extJson, boolean clear) {
-        // 是否需要先删除关系
+        // 是否需要先删除关系，删除条件已知，直接删除后按对象与分类写入关系图
         if(clear) {
-            this.remove(new LambdaQueryWrapper<ClientRelation>().eq(ClientRelation::getObjectId, objectId)
+            this.getBaseMapper().delete(new LambdaQueryWrapper<ClientRelation>().eq(ClientRelation::getObjectId, objectId)
                     .eq(ClientRelation::getCategory, category));
         }
         ClientRelation clientRelation = new ClientRelation();
@@ -46,14 +122,15 @@ public class ClientRelationServiceImpl extends ServiceImpl<ClientRelationMapper,
         clientRelation.setTargetId(targetId);
         clientRelation.setCategory(category);
         clientRelation.setExtJson(extJson);
-        this.save(clientRelation);
+        super.save(clientRelation);
+        this.afterRelationSave(clear ? objectId : null, category, CollectionUtil.newArrayList(clientRelation));
     }
 
     @Transactional(rollbackFor = Exception.class)
     public void saveRelationBatch(String objectId, List<String> targetIdList, String category, List<String> extJsonList, boolean clear) {
-        // 是否需要先删除关系
+        // 是否需要先删除关系，删除条件已知，直接删除后按对象与分类写入关系图
         if(clear) {
-            this.remove(new LambdaQueryWrapper<ClientRelation>().eq(ClientRelation::getObjectId, objectId)
+            this.getBaseMapper().delete(new LambdaQueryWrapper<ClientRelation>().eq(ClientRelation::getObjectId, objectId)
                     .eq(ClientRelation::getCategory, category));
         }
         List<ClientRelation> clientRelationList = CollectionUtil.newArrayList();
@@ -68,10 +145,41 @@ public class ClientRelationServiceImpl extends ServiceImpl<ClientRelationMapper,
             clientRelationList.add(clientRelation);
         }
         if(ObjectUtil.isNotEmpty(clientRelationList)) {
-            this.saveBatch(clientRelationList);
+            super.saveBatch(clientRelationList, DEFAULT_BATCH_SIZE);
+        }
+        this.afterRelationSave(clear ? objectId : null, category, clientRelationList);
+    }
+
+    /**
+     * 关系保存后写入关系图，clearObjectId不为空时替换该对象在该分类下的全部关系
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     */
+    private void afterRelationSave(String clearObjectId, String category, List<ClientRelation> clientRelationList) {
+        List<CommonRelationRecord> recordList = CollStreamUtil.toList(clientRelationList, this::toRecord);
+        if(ObjectUtil.isNotEmpty(clearObjectId)) {
+            relationGraphCache.replace(clearObjectId, category, recordList);
+        } else {
+            relationGraphCache.append(recordList);
         }
     }
 
+    private CommonRelationRecord toRecord(ClientRelation clientRelation) {
+        return new CommonRelationRecord(clientRelation.getId(), clientRelation.getObjectId(), clientRelation.getTargetId(),
+                clientRelation.getCategory(), clientRelation.getExtJson());
+    }
+
+    private ClientRelation toEntity(CommonRelationRecord commonRelationRecord) {
+        ClientRelation clientRelation = new ClientRelation();
+        clientRelation.setId(commonRelationRecord.getId());
+        clientRelation.setObjectId(commonRelationRecord.getObjectId());
+        clientRelation.setTargetId(commonRelationRecord.getTargetId());
+        clientRelation.setCategory(commonRelationRecord.getCategory());
+        clientRelation.setExtJson(commonRelationRecord.getExtJson());
+        return clientRelation;
+    }
+
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void saveRelationWithAppend(String objectId, String targetId, String category) {
@@ -132,6 +240,9 @@ public class ClientRelationServiceImpl extends ServiceImpl<ClientRelationMapper,
 
     @Override
     public List<ClientRelation> getRelationListByObjectIdAndCategory(String objectId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByObjectId(objectId, category), this::toEntity);
+        }
         LambdaQueryWrapper<ClientRelation> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         lambdaQueryWrapper.eq(ClientRelation::getObjectId, objectId);
         if(ObjectUtil.isNotEmpty(category)) {
@@ -142,6 +253,9 @@ public class ClientRelationServiceImpl extends ServiceImpl<ClientRelationMapper,
 
     @Override
     public List<ClientRelation> getRelationListByObjectIdListAndCategory(List<String> objectIdList, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByObjectIdList(objectIdList, category), this::toEntity);
+        }
         LambdaQueryWrapper<ClientRelation> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         lambdaQueryWrapper.in(ClientRelation::getObjectId, objectIdList);
         if(ObjectUtil.isNotEmpty(category)) {
@@ -150,6 +264,14 @@ public class ClientRelationServiceImpl extends ServiceImpl<ClientRelationMapper,
         return this.list(lambdaQueryWrapper);
     }
 
+    @Override
+    public List<CommonRelationRecord> getRelationRecordListByObjectIdAndCategory(String objectId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return relationGraphCache.getByObjectId(objectId, category);
+        }
+        return CollStreamUtil.toList(this.getRelationListByObjectIdAndCategory(objectId, category), this::toRecord);
+    }
+
     @Override
     public List<ClientRelation> getRelationListByTargetId(String targetId) {
         return this.getRelationListByTargetIdAndCategory(targetId, null);
@@ -162,6 +284,9 @@ public class ClientRelationServiceImpl extends ServiceImpl<ClientRelationMapper,
 
     @Override
     public List<ClientRelation> getRelationListByTargetIdAndCategory(String targetId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByTargetId(targetId, category), this::toEntity);
+        }
         LambdaQueryWrapper<ClientRelation> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         lambdaQueryWrapper.eq(ClientRelation::getTargetId, targetId);
         if(ObjectUtil.isNotEmpty(category)) {
@@ -172,6 +297,9 @@ public class ClientRelationServiceImpl extends ServiceImpl<ClientRelationMapper,
 
     @Override
     public List<ClientRelation> getRelationListByTargetIdListAndCategory(List<String> targetIdList, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByTargetIdList(targetIdList, category), this::toEntity);
+        }
         LambdaQueryWrapper<ClientRelation> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         lambdaQueryWrapper.in(ClientRelation::getTargetId, targetIdList);
         if(ObjectUtil.isNotEmpty(category)) {
@@ -192,12 +320,18 @@ public class ClientRelationServiceImpl extends ServiceImpl<ClientRelationMapper,
 
     @Override
     public List<String> getRelationTargetIdListByObjectIdAndCategory(String objectId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByObjectId(objectId, category), CommonRelationRecord::getTargetId);
+        }
         return this.getRelationListByObjectIdAndCategory(objectId, category).stream()
                 .map(ClientRelation::getTargetId).collect(Collectors.toList());
     }
 
     @Override
     public List<String> getRelationTargetIdListByObjectIdListAndCategory(List<String> objectIdList, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByObjectIdList(objectIdList, category), CommonRelationRecord::getTargetId);
+        }
         return this.getRelationListByObjectIdListAndCategory(objectIdList, category).stream()
                 .map(ClientRelation::getTargetId).collect(Collectors.toList());
     }
@@ -214,12 +348,18 @@ public class ClientRelationServiceImpl extends ServiceImpl<ClientRelationMapper,
 
     @Override
     public List<String> getRelationObjectIdListByTargetIdAndCategory(String targetId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByTargetId(targetId, category), CommonRelationRecord::getObjectId);
+        }
         return this.getRelationListByTargetIdAndCategory(targetId, category).stream()
                 .map(ClientRelation::getObjectId).collect(Collectors.toList());
     }
 
     @Override
     public List<String> getRelationObjectIdListByTargetIdListAndCategory(List<String> targetIdList, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByTargetIdList(targetIdList, category), CommonRelationRecord::getObjectId);
+        }
         return this.getRelationListByTargetIdListAndCategory(targetIdList, category).stream()
                 .map(ClientRelation::getObjectId).collect(Collectors.toList());
     }
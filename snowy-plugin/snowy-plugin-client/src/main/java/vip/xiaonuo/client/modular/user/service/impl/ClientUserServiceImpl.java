@@ -65,6 +65,7 @@ import vip.xiaonuo.dev.api.DevSmsApi;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Objects;
 
@@ -906,7 +907,11 @@ public class ClientUserServiceImpl extends ServiceImpl<ClientUserMapper, ClientU
         ClientUser clientUser = this.queryEntity(StpClientUtil.getLoginIdAsString());
         try {
             String suffix = Objects.requireNonNull(FileUtil.getSuffix(file.getOriginalFilename())).toLowerCase();
-            BufferedImage image = ImgUtil.toImage(file.getBytes());
+            // 按头像尺寸降采样解码，不将原图读入内存
+            BufferedImage image;
+            try (InputStream inputStream = file.getInputStream()) {
+                image = CommonImageUtil.read(inputStream, 200, 200);
+            }
             String base64;
             if(image.getWidth() <= 200 && image.getHeight() <= 200) {
                 base64 = ImgUtil.toBase64DataUri(image, suffix);
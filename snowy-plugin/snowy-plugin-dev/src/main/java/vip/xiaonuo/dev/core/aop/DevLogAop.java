@@ -37,7 +37,6 @@ Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意
 package vip.xiaonuo.dev.core.aop;
 
 import cn.hutool.core.util.ObjectUtil;
-import cn.hutool.json.JSONUtil;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.AfterThrowing;
@@ -103,7 +102,7 @@ public class DevLogAop {
         } catch (Exception ignored) {
         }
         // 异步记录日志
-        DevLogUtil.executeOperationLog(commonLog, userName, joinPoint, JSONUtil.toJsonStr(result));
+        DevLogUtil.executeOperationLog(commonLog, userName, joinPoint, result);
     }
 
     /**
@@ -0,0 +1,488 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.file.chunk;
+
+import cn.dev33.satoken.stp.StpUtil;
+import cn.hutool.core.collection.CollStreamUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.Resource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.dev.modular.file.enums.DevFileEngineTypeEnum;
+import vip.xiaonuo.dev.modular.file.result.DevFileChunkResult;
+import vip.xiaonuo.dev.modular.file.util.DevFileAliyunUtil;
+import vip.xiaonuo.dev.modular.file.util.DevFileLocalUtil;
+import vip.xiaonuo.dev.modular.file.util.DevFileMinIoUtil;
+import vip.xiaonuo.dev.modular.file.util.DevFileTencentUtil;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分片上传暂存
+ * 上传会话（文件信息、分片规格、上传人）与已完成的分片序号保存在Redis，分片内容暂存在会话所用的存储引擎中，
+ * 集群各节点都能读到任意节点收到的分片：本地存储暂存在存储目录下的暂存桶中，先写临时文件再原子改名；
+ * 其他引擎以临时对象暂存在默认存储桶的暂存目录下，对象写入完成才可见，
+ * 网络中断时不会留下被记为完成的残缺分片，客户端按已上传分片续传即可；
+ * 合并时按序流式读取分片并同时计算SHA-256摘要，分片不在内存中拼接
+ *
+ * @author jetox
+ * @date 2026/10/18 23:58
+ **/
+@Slf4j
+@Component
+public class DevFileChunkStore {
+
+    private static final String SESSION_KEY_PREFIX = "dev:file:chunk:";
+    private static final String PART_KEY_SUFFIX = ":part";
+
+    /** 非本地引擎的上传会话按最后上传时间排序，会话过期后据此清理引擎中的暂存对象，成员格式为 引擎:分片数量:uploadId */
+    private static final String REMOTE_SESSION_KEY = SESSION_KEY_PREFIX + "remote";
+
+    /** 暂存桶名称，位于本地存储目录下，集群部署时与本地存储文件一样需共享该目录；非本地引擎的暂存对象也位于同名目录下 */
+    private static final String CHUNK_BUCKET_NAME = ".chunk";
+
+    /** 会话过期时间，每次上传分片时续期 */
+    private static final long EXPIRE_HOURS = 24;
+
+    /** 默认分片大小 5MB */
+    private static final long DEFAULT_PART_SIZE = 5L * 1024 * 1024;
+
+    /** 最小分片大小 1MB */
+    private static final long MIN_PART_SIZE = 1024L * 1024;
+
+    /** 最大分片大小 50MB，需小于spring.servlet.multipart.max-file-size */
+    private static final long MAX_PART_SIZE = 50L * 1024 * 1024;
+
+    /** 最大分片数量 */
+    private static final int MAX_PART_COUNT = 10000;
+
+    /** 过期暂存目录的清理间隔 */
+    private static final long SWEEP_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AtomicLong lastSweepTime = new AtomicLong();
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 创建上传会话
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     */
+    public DevFileChunkResult init(String engine, String fileName, long fileSize, Long partSize) {
+        this.sweepExpired();
+        long actualPartSize = ObjectUtil.isEmpty(partSize) ? DEFAULT_PART_SIZE : Math.min(Math.max(partSize, MIN_PART_SIZE), MAX_PART_SIZE);
+        if(ceilDiv(fileSize, actualPartSize) > MAX_PART_COUNT) {
+            actualPartSize = ceilDiv(fileSize, MAX_PART_COUNT);
+            if(actualPartSize > MAX_PART_SIZE) {
+                throw new CommonException("文件过大，最大支持{}", FileUtil.readableFileSize(MAX_PART_SIZE * MAX_PART_COUNT));
+            }
+        }
+        String uploadId = IdUtil.fastSimpleUUID();
+        Map<String, String> session = new HashMap<>();
+        session.put("engine", engine);
+        session.put("fileName", fileName);
+        session.put("fileSize", String.valueOf(fileSize));
+        session.put("partSize", String.valueOf(actualPartSize));
+        session.put("partCount", String.valueOf(ceilDiv(fileSize, actualPartSize)));
+        session.put("userId", StpUtil.getLoginIdAsString());
+        String sessionKey = SESSION_KEY_PREFIX + uploadId;
+        stringRedisTemplate.opsForHash().putAll(sessionKey, session);
+        stringRedisTemplate.expire(sessionKey, EXPIRE_HOURS, TimeUnit.HOURS);
+        this.touchRemoteSession(engine, uploadId, ceilDiv(fileSize, actualPartSize));
+        return this.status(uploadId);
+    }
+
+    /**
+     * 获取上传会话状态，包含已上传的分片序号
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     */
+    public DevFileChunkResult status(String uploadId) {
+        Map<String, String> session = this.getSession(uploadId);
+        DevFileChunkResult devFileChunkResult = new DevFileChunkResult();
+        devFileChunkResult.setUploadId(uploadId);
+        devFileChunkResult.setPartSize(Convert.toLong(session.get("partSize")));
+        devFileChunkResult.setPartCount(Convert.toInt(session.get("partCount")));
+        devFileChunkResult.setUploadedPartList(this.uploadedPartList(uploadId));
+        return devFileChunkResult;
+    }
+
+    /**
+     * 上传分片，同一分片重复上传时覆盖
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     */
+    public void uploadPart(String uploadId, int partNumber, MultipartFile file) {
+        Map<String, String> session = this.getSession(uploadId);
+        long fileSize = Convert.toLong(session.get("fileSize"));
+        long partSize = Convert.toLong(session.get("partSize"));
+        int partCount = Convert.toInt(session.get("partCount"));
+        if(partNumber < 1 || partNumber > partCount) {
+            throw new CommonException("分片序号超出范围：{}，分片数量为：{}", partNumber, partCount);
+        }
+        long expectedSize = partNumber < partCount ? partSize : fileSize - partSize * (partCount - 1);
+        if(file.getSize() != expectedSize) {
+            throw new CommonException("分片{}大小不正确，应为{}字节，实际为{}字节", partNumber, expectedSize, file.getSize());
+        }
+        String engine = session.get("engine");
+        if(isLocal(engine)) {
+            File uploadFolder = this.getUploadFolder(uploadId);
+            FileUtil.mkdir(uploadFolder);
+            File tempFile = FileUtil.file(uploadFolder, partNumber + "." + IdUtil.fastSimpleUUID() + ".tmp");
+            try {
+                // 上传组件已将分片落盘时为改名，不经过内存
+                file.transferTo(tempFile);
+                Files.move(tempFile.toPath(), FileUtil.file(uploadFolder, String.valueOf(partNumber)).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                FileUtil.del(tempFile);
+                throw new CommonException("分片{}保存失败：{}", partNumber, e.getMessage());
+            }
+        } else {
+            try {
+                // 存储服务只在对象完整写入后才可见，重复上传时直接覆盖
+                storagePart(engine, getPartKey(uploadId, partNumber), file.getInputStream(), file.getSize());
+            } catch (IOException e) {
+                throw new CommonException("分片{}保存失败：{}", partNumber, e.getMessage());
+            }
+            this.touchRemoteSession(engine, uploadId, partCount);
+        }
+        String partKey = SESSION_KEY_PREFIX + uploadId + PART_KEY_SUFFIX;
+        stringRedisTemplate.opsForSet().add(partKey, String.valueOf(partNumber));
+        stringRedisTemplate.expire(partKey, EXPIRE_HOURS, TimeUnit.HOURS);
+        stringRedisTemplate.expire(SESSION_KEY_PREFIX + uploadId, EXPIRE_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * 校验分片完整性并流式计算整个文件的SHA-256摘要
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     */
+    public ChunkFile complete(String uploadId) {
+        Map<String, String> session = this.getSession(uploadId);
+        long fileSize = Convert.toLong(session.get("fileSize"));
+        int partCount = Convert.toInt(session.get("partCount"));
+        List<Integer> uploadedPartList = this.uploadedPartList(uploadId);
+        if(uploadedPartList.size() != partCount) {
+            throw new CommonException("分片未上传完整，已上传{}个，共{}个", uploadedPartList.size(), partCount);
+        }
+        String engine = session.get("engine");
+        List<InputStreamSource> partList = new ArrayList<>(partCount);
+        if(isLocal(engine)) {
+            long totalSize = 0;
+            for (int partNumber = 1; partNumber <= partCount; partNumber++) {
+                File partFile = FileUtil.file(this.getUploadFolder(uploadId), String.valueOf(partNumber));
+                if(!FileUtil.isFile(partFile)) {
+                    throw new CommonException("分片{}不存在，请重新上传该分片", partNumber);
+                }
+                totalSize += partFile.length();
+                partList.add(() -> new FileInputStream(partFile));
+            }
+            if(totalSize != fileSize) {
+                throw new CommonException("文件大小不一致，应为{}字节，实际为{}字节", fileSize, totalSize);
+            }
+        } else {
+            // 分片大小在上传时已校验，暂存对象在读取时才打开，缺失时读取失败
+            for (int partNumber = 1; partNumber <= partCount; partNumber++) {
+                String partKey = getPartKey(uploadId, partNumber);
+                partList.add(() -> getPartInputStream(engine, partKey));
+            }
+        }
+        ChunkFile chunkFile = new ChunkFile(engine, session.get("fileName"), fileSize, partList);
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream inputStream = new DigestInputStream(chunkFile.getInputStream(), messageDigest)) {
+                while (inputStream.read(buffer) != -1) {
+                    // 读取即完成摘要计算
+                }
+            }
+            chunkFile.sha256 = HexUtil.encodeHexStr(messageDigest.digest());
+        } catch (IOException | UncheckedIOException | NoSuchAlgorithmException e) {
+            throw new CommonException("分片读取失败：{}", e.getMessage());
+        } catch (CommonException e) {
+            throw new CommonException("分片读取失败，请重新上传：{}", e.getMessage());
+        }
+        return chunkFile;
+    }
+
+    /**
+     * 删除上传会话及暂存的分片
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     */
+    public void remove(String uploadId) {
+        Map<String, String> session = this.getSession(uploadId);
+        String engine = session.get("engine");
+        List<Integer> uploadedPartList = this.uploadedPartList(uploadId);
+        stringRedisTemplate.delete(List.of(SESSION_KEY_PREFIX + uploadId, SESSION_KEY_PREFIX + uploadId + PART_KEY_SUFFIX));
+        if(isLocal(engine)) {
+            FileUtil.del(this.getUploadFolder(uploadId));
+        } else {
+            stringRedisTemplate.opsForZSet().remove(REMOTE_SESSION_KEY, remoteSessionMember(engine, uploadId, Convert.toLong(session.get("partCount"))));
+            uploadedPartList.forEach(partNumber -> deletePartQuietly(engine, getPartKey(uploadId, partNumber)));
+        }
+    }
+
+    /**
+     * 获取上传会话，只有创建会话的用户可以继续操作
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     */
+    private Map<String, String> getSession(String uploadId) {
+        Map<Object, Object> session = stringRedisTemplate.opsForHash().entries(SESSION_KEY_PREFIX + uploadId);
+        if(ObjectUtil.isEmpty(session)) {
+            throw new CommonException("上传会话不存在或已过期，uploadId值为：{}", uploadId);
+        }
+        if(!StpUtil.getLoginIdAsString().equals(session.get("userId"))) {
+            throw new CommonException("无权操作该上传会话，uploadId值为：{}", uploadId);
+        }
+        Map<String, String> result = new HashMap<>(session.size());
+        session.forEach((key, value) -> result.put(Convert.toStr(key), Convert.toStr(value)));
+        return result;
+    }
+
+    private List<Integer> uploadedPartList(String uploadId) {
+        Set<String> memberSet = stringRedisTemplate.opsForSet().members(SESSION_KEY_PREFIX + uploadId + PART_KEY_SUFFIX);
+        List<Integer> uploadedPartList = CollStreamUtil.toList(ObjectUtil.isEmpty(memberSet) ? Collections.emptySet() : memberSet, Integer::valueOf);
+        Collections.sort(uploadedPartList);
+        return uploadedPartList;
+    }
+
+    /**
+     * 记录非本地引擎上传会话的最后上传时间，用于清理过期会话的暂存对象
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    private void touchRemoteSession(String engine, String uploadId, long partCount) {
+        if(isLocal(engine)) {
+            return;
+        }
+        stringRedisTemplate.opsForZSet().add(REMOTE_SESSION_KEY, remoteSessionMember(engine, uploadId, partCount), System.currentTimeMillis());
+    }
+
+    private static String remoteSessionMember(String engine, String uploadId, long partCount) {
+        return engine + StrUtil.COLON + partCount + StrUtil.COLON + uploadId;
+    }
+
+    private File getUploadFolder(String uploadId) {
+        return FileUtil.file(DevFileLocalUtil.getBucketFolder(CHUNK_BUCKET_NAME), uploadId);
+    }
+
+    /**
+     * 清理会话已过期的暂存目录及暂存对象，每个节点每小时最多执行一次
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     */
+    private void sweepExpired() {
+        long now = System.currentTimeMillis();
+        long lastTime = lastSweepTime.get();
+        if(now - lastTime < SWEEP_INTERVAL_MILLIS || !lastSweepTime.compareAndSet(lastTime, now)) {
+            return;
+        }
+        long expireTime = now - TimeUnit.HOURS.toMillis(EXPIRE_HOURS);
+        this.sweepExpiredRemote(expireTime);
+        File[] uploadFolders = DevFileLocalUtil.getBucketFolder(CHUNK_BUCKET_NAME).listFiles(File::isDirectory);
+        if(ObjectUtil.isEmpty(uploadFolders)) {
+            return;
+        }
+        for (File uploadFolder : uploadFolders) {
+            if(uploadFolder.lastModified() < expireTime && !Boolean.TRUE.equals(stringRedisTemplate.hasKey(SESSION_KEY_PREFIX + uploadFolder.getName()))) {
+                log.info(">>> 清理过期的分片上传暂存目录：{}", uploadFolder.getName());
+                FileUtil.del(uploadFolder);
+            }
+        }
+    }
+
+    /**
+     * 清理非本地引擎中过期会话的暂存对象，从有序集合中移除成功的节点负责清理，多个节点不会重复清理同一会话
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    private void sweepExpiredRemote(long expireTime) {
+        Set<String> memberSet = stringRedisTemplate.opsForZSet().rangeByScore(REMOTE_SESSION_KEY, 0, expireTime);
+        if(ObjectUtil.isEmpty(memberSet)) {
+            return;
+        }
+        for (String member : memberSet) {
+            List<String> partList = StrUtil.split(member, StrUtil.C_COLON, 3);
+            String engine = partList.get(0);
+            String uploadId = partList.get(2);
+            if(Boolean.TRUE.equals(stringRedisTemplate.hasKey(SESSION_KEY_PREFIX + uploadId))) {
+                continue;
+            }
+            Long removed = stringRedisTemplate.opsForZSet().remove(REMOTE_SESSION_KEY, member);
+            if(removed == null || removed == 0) {
+                continue;
+            }
+            log.info(">>> 清理过期的分片上传暂存对象：{}", uploadId);
+            int partCount = Convert.toInt(partList.get(1));
+            for (int partNumber = 1; partNumber <= partCount; partNumber++) {
+                deletePartQuietly(engine, getPartKey(uploadId, partNumber));
+            }
+        }
+    }
+
+    private static boolean isLocal(String engine) {
+        return DevFileEngineTypeEnum.LOCAL.getValue().equals(engine);
+    }
+
+    /**
+     * 非本地引擎中暂存对象的key，格式如 .chunk/uploadId/1
+     */
+    private static String getPartKey(String uploadId, int partNumber) {
+        return CHUNK_BUCKET_NAME + StrUtil.SLASH + uploadId + StrUtil.SLASH + partNumber;
+    }
+
+    /**
+     * 根据引擎类型获取暂存对象所在的存储桶，即引擎默认配置的存储桶
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    private static String getBucketName(String engine) {
+        if(engine.equals(DevFileEngineTypeEnum.ALIYUN.getValue())) {
+            return DevFileAliyunUtil.getDefaultBucketName();
+        } else if(engine.equals(DevFileEngineTypeEnum.TENCENT.getValue())) {
+            return DevFileTencentUtil.getDefaultBucketName();
+        } else if(engine.equals(DevFileEngineTypeEnum.MINIO.getValue())) {
+            return DevFileMinIoUtil.getDefaultBucketName();
+        } else {
+            throw new CommonException("不支持的文件引擎：{}", engine);
+        }
+    }
+
+    private static void storagePart(String engine, String partKey, InputStream inputStream, long partSize) {
+        String bucketName = getBucketName(engine);
+        if(engine.equals(DevFileEngineTypeEnum.ALIYUN.getValue())) {
+            DevFileAliyunUtil.storageFile(bucketName, partKey, inputStream, partSize);
+        } else if(engine.equals(DevFileEngineTypeEnum.TENCENT.getValue())) {
+            DevFileTencentUtil.storageFile(bucketName, partKey, inputStream, partSize);
+        } else {
+            DevFileMinIoUtil.storageFile(bucketName, partKey, inputStream, partSize);
+        }
+    }
+
+    private static InputStream getPartInputStream(String engine, String partKey) {
+        String bucketName = getBucketName(engine);
+        if(engine.equals(DevFileEngineTypeEnum.ALIYUN.getValue())) {
+            return DevFileAliyunUtil.getFileInputStream(bucketName, partKey);
+        } else if(engine.equals(DevFileEngineTypeEnum.TENCENT.getValue())) {
+            return DevFileTencentUtil.getFileInputStream(bucketName, partKey);
+        } else {
+            return DevFileMinIoUtil.getFileInputStream(bucketName, partKey);
+        }
+    }
+
+    /**
+     * 删除暂存对象，删除失败时记录日志，过期清理时会再次尝试
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    private static void deletePartQuietly(String engine, String partKey) {
+        try {
+            String bucketName = getBucketName(engine);
+            if(engine.equals(DevFileEngineTypeEnum.ALIYUN.getValue())) {
+                DevFileAliyunUtil.deleteFile(bucketName, partKey);
+            } else if(engine.equals(DevFileEngineTypeEnum.TENCENT.getValue())) {
+                DevFileTencentUtil.deleteFile(bucketName, partKey);
+            } else {
+                DevFileMinIoUtil.deleteFile(bucketName, partKey);
+            }
+        } catch (RuntimeException e) {
+            log.warn(">>> 删除分片上传暂存对象失败：{}，{}", partKey, e.getMessage());
+        }
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return (x + y - 1) / y;
+    }
+
+    /**
+     * 已校验完整的分片，可多次打开按序拼接的输入流
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    @Getter
+    public static class ChunkFile implements InputStreamSource {
+
+        private final String engine;
+
+        private final String fileName;
+
+        private final long fileSize;
+
+        private final List<InputStreamSource> partList;
+
+        private String sha256;
+
+        private ChunkFile(String engine, String fileName, long fileSize, List<InputStreamSource> partList) {
+            this.engine = engine;
+            this.fileName = fileName;
+            this.fileSize = fileSize;
+            this.partList = partList;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            Iterator<InputStreamSource> iterator = partList.iterator();
+            return new BufferedInputStream(new SequenceInputStream(new Enumeration<>() {
+                @Override
+                public boolean hasMoreElements() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public InputStream nextElement() {
+                    try {
+                        return iterator.next().getInputStream();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }), BUFFER_SIZE);
+        }
+    }
+}
@@ -12,6 +12,7 @@
  */
 package vip.xiaonuo.dev.modular.file.controller;
 
+import cn.hutool.core.util.ObjectUtil;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.github.xiaoymin.knife4j.annotations.ApiOperationSupport;
 import com.github.xiaoymin.knife4j.annotations.ApiSupport;
@@ -29,10 +30,15 @@ import vip.xiaonuo.common.pojo.CommonResult;
 import vip.xiaonuo.dev.api.DevConfigApi;
 import vip.xiaonuo.dev.modular.file.entity.DevFile;
 import vip.xiaonuo.dev.modular.file.enums.DevFileEngineTypeEnum;
+import vip.xiaonuo.dev.modular.file.param.DevFileChunkIdParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileChunkInitParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileChunkUploadParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileIdParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileListParam;
 import vip.xiaonuo.dev.modular.file.param.DevFilePageParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileThumbnailParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileUrlListParam;
+import vip.xiaonuo.dev.modular.file.result.DevFileChunkResult;
 import vip.xiaonuo.dev.modular.file.service.DevFileService;
 
 import javax.validation.Valid;
@@ -310,4 +316,88 @@ public class DevFileController {
     public CommonResult<List<DevFile>> getFileListByUrlList(@RequestBody @Valid DevFileUrlListParam devFileUrlListParam) {
         return CommonResult.data(devFileService.getFileListByUrlList(devFileUrlListParam));
     }
+
+    /**
+     * 初始化分片上传
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    @ApiOperationSupport(order = 19)
+    @Operation(summary = "初始化分片上传")
+    @PostMapping("/dev/file/chunk/init")
+    public CommonResult<DevFileChunkResult> chunkInit(@RequestBody @Valid DevFileChunkInitParam devFileChunkInitParam) {
+        String engine = ObjectUtil.isNotEmpty(devFileChunkInitParam.getEngine()) ? devFileChunkInitParam.getEngine() :
+                devConfigApi.getValueByKey(SNOWY_SYS_DEFAULT_FILE_ENGINE_KEY);
+        return CommonResult.data(devFileService.chunkInit(engine, devFileChunkInitParam));
+    }
+
+    /**
+     * 获取分片上传状态
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    @ApiOperationSupport(order = 20)
+    @Operation(summary = "获取分片上传状态")
+    @GetMapping("/dev/file/chunk/status")
+    public CommonResult<DevFileChunkResult> chunkStatus(@Valid DevFileChunkIdParam devFileChunkIdParam) {
+        return CommonResult.data(devFileService.chunkStatus(devFileChunkIdParam));
+    }
+
+    /**
+     * 上传分片
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    @ApiOperationSupport(order = 21)
+    @Operation(summary = "上传分片")
+    @PostMapping("/dev/file/chunk/upload")
+    public CommonResult<String> chunkUpload(@Valid DevFileChunkUploadParam devFileChunkUploadParam,
+                                            @RequestPart("file") MultipartFile file) {
+        devFileService.chunkUpload(devFileChunkUploadParam, file);
+        return CommonResult.ok();
+    }
+
+    /**
+     * 完成分片上传返回id
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    @ApiOperationSupport(order = 22)
+    @Operation(summary = "完成分片上传返回id")
+    @CommonLog("完成分片上传返回id")
+    @PostMapping("/dev/file/chunk/complete")
+    public CommonResult<String> chunkComplete(@RequestBody @Valid DevFileChunkIdParam devFileChunkIdParam) {
+        return CommonResult.data(devFileService.chunkComplete(devFileChunkIdParam));
+    }
+
+    /**
+     * 取消分片上传
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    @ApiOperationSupport(order = 23)
+    @Operation(summary = "取消分片上传")
+    @PostMapping("/dev/file/chunk/abort")
+    public CommonResult<String> chunkAbort(@RequestBody @Valid DevFileChunkIdParam devFileChunkIdParam) {
+        devFileService.chunkAbort(devFileChunkIdParam);
+        return CommonResult.ok();
+    }
+
+    /**
+     * 获取图片缩略图
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    @ApiOperationSupport(order = 24)
+    @Operation(summary = "获取图片缩略图")
+    @GetMapping("/dev/file/thumbnail")
+    public void thumbnail(@Valid DevFileThumbnailParam devFileThumbnailParam, HttpServletResponse response) throws IOException {
+        devFileService.thumbnail(devFileThumbnailParam, response);
+    }
 }
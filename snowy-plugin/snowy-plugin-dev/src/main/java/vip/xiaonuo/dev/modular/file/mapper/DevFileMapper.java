@@ -12,6 +12,7 @@
  */
 package vip.xiaonuo.dev.modular.file.mapper;
 
+import org.apache.ibatis.annotations.Param;
 import vip.xiaonuo.common.mapper.CommonDeleteAbsoluteMapper;
 import vip.xiaonuo.dev.modular.file.entity.DevFile;
 
@@ -22,4 +23,13 @@ import vip.xiaonuo.dev.modular.file.entity.DevFile;
  * @date 2022/2/23 18:40
  **/
 public interface DevFileMapper extends CommonDeleteAbsoluteMapper<DevFile> {
+
+    /**
+     * 统计引用同一存储对象的其他文件记录数，包含逻辑删除的记录
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    Long countByFileKey(@Param("engine") String engine, @Param("bucket") String bucket, @Param("fileKey") String fileKey,
+                        @Param("excludeId") String excludeId);
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.file.result;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 分片上传状态结果
+ *
+ * @author jetox
+ * @date 2026/10/18 23:58
+ */
+@Getter
+@Setter
+public class DevFileChunkResult {
+
+    /** 上传id */
+    @Schema(description = "上传id")
+    private String uploadId;
+
+    /** 分片大小（字节） */
+    @Schema(description = "分片大小（字节）")
+    private Long partSize;
+
+    /** 分片数量 */
+    @Schema(description = "分片数量")
+    private Integer partCount;
+
+    /** 已上传的分片序号，断点续传时跳过这些分片 */
+    @Schema(description = "已上传的分片序号，断点续传时跳过这些分片")
+    private List<Integer> uploadedPartList;
+}
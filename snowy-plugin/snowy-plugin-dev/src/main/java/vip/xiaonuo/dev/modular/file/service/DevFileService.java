@@ -17,10 +17,15 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.multipart.MultipartFile;
 import vip.xiaonuo.dev.modular.file.entity.DevFile;
+import vip.xiaonuo.dev.modular.file.param.DevFileChunkIdParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileChunkInitParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileChunkUploadParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileIdParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileListParam;
 import vip.xiaonuo.dev.modular.file.param.DevFilePageParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileThumbnailParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileUrlListParam;
+import vip.xiaonuo.dev.modular.file.result.DevFileChunkResult;
 
 import java.io.IOException;
 import java.util.List;
@@ -49,6 +54,46 @@ public interface DevFileService extends IService<DevFile> {
      **/
     String uploadReturnUrl(String engine, MultipartFile file);
 
+    /**
+     * 初始化分片上传，返回上传id与分片规格
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    DevFileChunkResult chunkInit(String engine, DevFileChunkInitParam devFileChunkInitParam);
+
+    /**
+     * 获取分片上传状态，用于断点续传
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    DevFileChunkResult chunkStatus(DevFileChunkIdParam devFileChunkIdParam);
+
+    /**
+     * 上传分片
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    void chunkUpload(DevFileChunkUploadParam devFileChunkUploadParam, MultipartFile file);
+
+    /**
+     * 完成分片上传，返回文件id
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    String chunkComplete(DevFileChunkIdParam devFileChunkIdParam);
+
+    /**
+     * 取消分片上传
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    void chunkAbort(DevFileChunkIdParam devFileChunkIdParam);
+
     /**
      * 文件分页列表接口
      *
@@ -83,6 +128,14 @@ public interface DevFileService extends IService<DevFile> {
     void authDownload(DevFileIdParam devFileIdParam, HttpServletResponse response) throws IOException;
 
 
+    /**
+     * 获取图片缩略图，尚未生成时按需生成
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    void thumbnail(DevFileThumbnailParam devFileThumbnailParam, HttpServletResponse response) throws IOException;
+
     /**
      * 删除文件
      *
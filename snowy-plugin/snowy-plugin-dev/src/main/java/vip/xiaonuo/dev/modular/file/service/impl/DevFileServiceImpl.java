@@ -12,41 +12,61 @@
  */
 package vip.xiaonuo.dev.modular.file.service.impl;
 
+import cn.dev33.satoken.stp.StpUtil;
 import cn.hutool.core.collection.CollStreamUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.date.DateUtil;
-import cn.hutool.core.img.ImgUtil;
 import cn.hutool.core.io.FileUtil;
-import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.core.util.BooleanUtil;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.NumberUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.http.HttpUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.http.Header;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import cn.hutool.http.HttpStatus;
+import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import vip.xiaonuo.common.exception.CommonException;
 import vip.xiaonuo.common.page.CommonPageRequest;
 import vip.xiaonuo.common.prop.CommonProperties;
 import vip.xiaonuo.common.util.CommonDownloadUtil;
 import vip.xiaonuo.common.util.CommonResponseUtil;
+import vip.xiaonuo.common.util.CommonServletUtil;
+import vip.xiaonuo.dev.modular.file.chunk.DevFileChunkStore;
 import vip.xiaonuo.dev.modular.file.entity.DevFile;
 import vip.xiaonuo.dev.modular.file.enums.DevFileEngineTypeEnum;
 import vip.xiaonuo.dev.modular.file.mapper.DevFileMapper;
+import vip.xiaonuo.dev.modular.file.param.DevFileChunkIdParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileChunkInitParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileChunkUploadParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileIdParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileListParam;
 import vip.xiaonuo.dev.modular.file.param.DevFilePageParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileThumbnailParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileUrlListParam;
+import vip.xiaonuo.dev.modular.file.result.DevFileChunkResult;
 import vip.xiaonuo.dev.modular.file.service.DevFileService;
+import vip.xiaonuo.dev.modular.file.thumbnail.DevFileThumbnailPipeline;
 import vip.xiaonuo.dev.modular.file.util.DevFileAliyunUtil;
 import vip.xiaonuo.dev.modular.file.util.DevFileLocalUtil;
 import vip.xiaonuo.dev.modular.file.util.DevFileMinIoUtil;
@@ -54,9 +74,11 @@ import vip.xiaonuo.dev.modular.file.util.DevFileTencentUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 文件Service接口实现类
@@ -68,9 +90,53 @@ import java.util.List;
 @Service
 public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> implements DevFileService {
 
+    /** 代理下载时转发给存储服务的请求头 */
+    private static final List<String> PROXY_REQUEST_HEADER_LIST = List.of("Range", "If-Range", "If-None-Match", "If-Modified-Since");
+
+    /** 代理下载时回传给客户端的响应头 */
+    private static final List<String> PROXY_RESPONSE_HEADER_LIST = List.of("Content-Length", "Content-Range", "Accept-Ranges",
+            "ETag", "Last-Modified");
+
+    /** 代理下载连接存储服务的超时时间 */
+    private static final int PROXY_CONNECT_TIMEOUT_MILLIS = 5000;
+
+    /** 代理下载读取存储服务响应的超时时间（两次读取之间的最长间隔） */
+    private static final int PROXY_READ_TIMEOUT_MILLIS = 30000;
+
+    /** 秒传摘要索引，值为首个存储该内容的文件id */
+    private static final String DIGEST_KEY_PREFIX = "dev:file:digest:";
+
+    /** 秒传摘要索引过期时间，命中时续期 */
+    private static final long DIGEST_EXPIRE_DAYS = 30;
+
+    /** 扩展信息中的摘要字段 */
+    private static final String SHA256_KEY = "sha256";
+
+    /** 秒传摘要锁的键后缀，串行化同一内容的秒传命中与存储对象的物理删除 */
+    private static final String DIGEST_LOCK_KEY_SUFFIX = ":lock";
+
+    /** 秒传摘要锁的过期时间 */
+    private static final long DIGEST_LOCK_EXPIRE_SECONDS = 30;
+
+    /** 等待秒传摘要锁的最长时间 */
+    private static final long DIGEST_LOCK_WAIT_MILLIS = 10000;
+
+    // Lua脚本：只释放自己持有的锁
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0", Long.class);
+
     @Resource
     private CommonProperties commonProperties;
 
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private DevFileChunkStore devFileChunkStore;
+
+    @Resource
+    private DevFileThumbnailPipeline devFileThumbnailPipeline;
+
     @Override
     public String uploadReturnId(String engine, MultipartFile file) {
         return this.storageFile(engine, file, true,  true);
@@ -81,6 +147,42 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
         return this.storageFile(engine, file, false, false);
     }
 
+    @Override
+    public DevFileChunkResult chunkInit(String engine, DevFileChunkInitParam devFileChunkInitParam) {
+        // 如果引擎为空，默认使用本地
+        if(ObjectUtil.isEmpty(engine)) {
+            engine = DevFileEngineTypeEnum.LOCAL.getValue();
+        }
+        // 提前校验引擎
+        this.getBucketName(engine);
+        return devFileChunkStore.init(engine, devFileChunkInitParam.getFileName(), devFileChunkInitParam.getFileSize(),
+                devFileChunkInitParam.getPartSize());
+    }
+
+    @Override
+    public DevFileChunkResult chunkStatus(DevFileChunkIdParam devFileChunkIdParam) {
+        return devFileChunkStore.status(devFileChunkIdParam.getUploadId());
+    }
+
+    @Override
+    public void chunkUpload(DevFileChunkUploadParam devFileChunkUploadParam, MultipartFile file) {
+        devFileChunkStore.uploadPart(devFileChunkUploadParam.getUploadId(), devFileChunkUploadParam.getPartNumber(), file);
+    }
+
+    @Override
+    public String chunkComplete(DevFileChunkIdParam devFileChunkIdParam) {
+        DevFileChunkStore.ChunkFile chunkFile = devFileChunkStore.complete(devFileChunkIdParam.getUploadId());
+        DevFile devFile = this.saveFile(chunkFile.getEngine(), chunkFile.getFileName(), chunkFile.getFileSize(),
+                chunkFile.getSha256(), true, chunkFile);
+        devFileChunkStore.remove(devFileChunkIdParam.getUploadId());
+        return devFile.getId();
+    }
+
+    @Override
+    public void chunkAbort(DevFileChunkIdParam devFileChunkIdParam) {
+        devFileChunkStore.remove(devFileChunkIdParam.getUploadId());
+    }
+
     @Override
     public Page<DevFile> page(DevFilePageParam devFilePageParam) {
         QueryWrapper<DevFile> queryWrapper = new QueryWrapper<DevFile>().checkSqlInjection();
@@ -151,11 +253,69 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
                 CommonResponseUtil.renderError(response, "找不到存储的文件，id值为：" + devFile.getId());
                 return;
             }
-            CommonDownloadUtil.download(devFile.getName(), IoUtil.readBytes(FileUtil.getInputStream(file)), response);
+            // 流式发送，支持Range与ETag，不将文件读入内存
+            CommonDownloadUtil.download(devFile.getName(), file, CommonServletUtil.getRequest(), response);
         } else {
-            String storagePath = devFile.getStoragePath();
-            CommonDownloadUtil.download(devFile.getName(), HttpUtil.downloadBytes(storagePath), response);
+            this.proxyDownload(devFile, response);
+        }
+    }
+
+    /**
+     * 代理下载远程存储的文件，转发Range与协商缓存请求头，使用固定大小缓冲区转发响应体
+     *
+     * @author jetox
+     * @date 2026/10/18 23:55
+     **/
+    private void proxyDownload(DevFile devFile, HttpServletResponse response) throws IOException {
+        HttpServletRequest request = CommonServletUtil.getRequest();
+        // 要求存储服务不压缩，转发的Content-Length与Content-Range才与响应体一致
+        HttpRequest httpRequest = HttpRequest.get(devFile.getStoragePath()).setFollowRedirects(true)
+                .setConnectionTimeout(PROXY_CONNECT_TIMEOUT_MILLIS).setReadTimeout(PROXY_READ_TIMEOUT_MILLIS)
+                .header(Header.ACCEPT_ENCODING, "identity");
+        for (String headerName : PROXY_REQUEST_HEADER_LIST) {
+            if (ObjectUtil.isNotEmpty(request.getHeader(headerName))) {
+                httpRequest.header(headerName, request.getHeader(headerName));
+            }
         }
+        try (HttpResponse httpResponse = httpRequest.executeAsync()) {
+            int status = httpResponse.getStatus();
+            if (status != HttpStatus.HTTP_OK && status != HttpStatus.HTTP_PARTIAL && status != HttpStatus.HTTP_NOT_MODIFIED
+                    && status != HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+                CommonResponseUtil.renderError(response, "存储服务返回异常状态：" + status + "，id值为：" + devFile.getId());
+                return;
+            }
+            CommonDownloadUtil.setDownloadHeader(devFile.getName(), response);
+            response.setStatus(status);
+            // 存储服务仍返回压缩内容时响应体会被解压，压缩后的长度不再适用
+            boolean encoded = ObjectUtil.isNotEmpty(httpResponse.header(Header.CONTENT_ENCODING));
+            for (String headerName : PROXY_RESPONSE_HEADER_LIST) {
+                if (encoded && Header.CONTENT_LENGTH.getValue().equals(headerName)) {
+                    continue;
+                }
+                if (ObjectUtil.isNotEmpty(httpResponse.header(headerName))) {
+                    response.setHeader(headerName, httpResponse.header(headerName));
+                }
+            }
+            if (status == HttpStatus.HTTP_OK || status == HttpStatus.HTTP_PARTIAL) {
+                CommonDownloadUtil.copy(httpResponse.bodyStream(), response.getOutputStream());
+            }
+        }
+    }
+
+    @Override
+    public void thumbnail(DevFileThumbnailParam devFileThumbnailParam, HttpServletResponse response) throws IOException {
+        DevFile devFile;
+        try {
+            devFile = this.queryEntity(devFileThumbnailParam.getId());
+        } catch (Exception e) {
+            CommonResponseUtil.renderError(response, e.getMessage());
+            return;
+        }
+        // 授权下载的文件，缩略图同样需要登录
+        if(BooleanUtil.isTrue(devFile.getIsDownloadAuth())) {
+            StpUtil.checkLogin();
+        }
+        devFileThumbnailPipeline.write(devFile, devFileThumbnailParam.getSize(), CommonServletUtil.getRequest(), response);
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -167,30 +327,53 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
     @Override
     public void deleteAbsolute(DevFileIdParam devFileIdParam) {
         DevFile devFile = this.queryEntity(devFileIdParam.getId());
+        // 与秒传命中互斥，避免统计引用后又有新记录复用即将删除的存储对象
+        String sha256 = this.getSha256(devFile);
+        String digestKey = ObjectUtil.isEmpty(sha256) ? null : this.digestKey(devFile.getEngine(), devFile.getBucket(), sha256);
+        String lockToken = digestKey == null ? null : this.lockDigest(digestKey);
         try {
-            // 存储引擎
-            String engine = devFile.getEngine();
-            // 存储桶名称
-            String bucketName = devFile.getBucket();
-            // 文件key
-            String fileKey = devFile.getFileKey();
-            // 根据存储引擎删除文件
-            if (DevFileEngineTypeEnum.LOCAL.getValue().equals(engine)) {
-                DevFileLocalUtil.deleteFile(bucketName, fileKey);
-            } else if (DevFileEngineTypeEnum.ALIYUN.getValue().equals(engine)) {
-                DevFileAliyunUtil.deleteFile(bucketName, fileKey);
-            } else if (DevFileEngineTypeEnum.TENCENT.getValue().equals(engine)) {
-                DevFileTencentUtil.deleteFile(bucketName, fileKey);
-            } else if (DevFileEngineTypeEnum.MINIO.getValue().equals(engine)) {
-                DevFileMinIoUtil.deleteFile(bucketName, fileKey);
-            } else {
-                log.error("未知存储引擎：{}", engine);
+            // 秒传的文件共用存储对象，仍被其他文件（含逻辑删除的文件）引用时只删除记录
+            long referenceCount = this.baseMapper.countByFileKey(devFile.getEngine(), devFile.getBucket(), devFile.getFileKey(),
+                    devFile.getId());
+            if(referenceCount > 0) {
+                this.baseMapper.deleteAbsoluteById(devFile.getId());
+                return;
+            }
+            try {
+                // 存储引擎
+                String engine = devFile.getEngine();
+                // 存储桶名称
+                String bucketName = devFile.getBucket();
+                // 文件key
+                String fileKey = devFile.getFileKey();
+                // 根据存储引擎删除文件
+                if (DevFileEngineTypeEnum.LOCAL.getValue().equals(engine)) {
+                    DevFileLocalUtil.deleteFile(bucketName, fileKey);
+                } else if (DevFileEngineTypeEnum.ALIYUN.getValue().equals(engine)) {
+                    DevFileAliyunUtil.deleteFile(bucketName, fileKey);
+                } else if (DevFileEngineTypeEnum.TENCENT.getValue().equals(engine)) {
+                    DevFileTencentUtil.deleteFile(bucketName, fileKey);
+                } else if (DevFileEngineTypeEnum.MINIO.getValue().equals(engine)) {
+                    DevFileMinIoUtil.deleteFile(bucketName, fileKey);
+                } else {
+                    log.error("未知存储引擎：{}", engine);
+                }
+            } catch (Exception e) {
+                log.error("文件删除失败：{}，路径：{}", devFile.getName(), devFile.getStoragePath(), e);
+                throw new CommonException("文件删除失败"); // 触发事务回滚
+            }
+            try {
+                // 衍生图随存储对象一起删除
+                devFileThumbnailPipeline.delete(devFile);
+            } catch (Exception e) {
+                log.warn("衍生图删除失败：{}，路径：{}", devFile.getName(), devFile.getStoragePath(), e);
+            }
+            this.baseMapper.deleteAbsoluteById(devFile.getId());
+        } finally {
+            if(lockToken != null) {
+                this.unlockDigest(digestKey, lockToken);
             }
-        } catch (Exception e) {
-            log.error("文件删除失败：{}，路径：{}", devFile.getName(), devFile.getStoragePath(), e);
-            throw new CommonException("文件删除失败"); // 触发事务回滚
         }
-        this.baseMapper.deleteAbsoluteById(devFile.getId());
     }
 
     /**
@@ -201,6 +384,34 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
      **/
     private String storageFile(String engine, MultipartFile file, boolean returnFileId, Boolean isDownloadAuth) {
 
+        // 流式计算文件摘要，用于秒传去重
+        String sha256;
+        try (InputStream inputStream = file.getInputStream()) {
+            sha256 = DigestUtil.sha256Hex(inputStream);
+        } catch (IOException e) {
+            throw new CommonException("文件读取失败：{}", file.getOriginalFilename());
+        }
+
+        DevFile devFile = this.saveFile(engine, file.getOriginalFilename(), file.getSize(), sha256, isDownloadAuth, file);
+
+        // 如果是返回id则返回文件id
+        if(returnFileId) {
+            return devFile.getId();
+        } else {
+            // 否则返回下载地址
+            return devFile.getDownloadPath();
+        }
+    }
+
+    /**
+     * 保存文件，同一引擎和存储桶下已存在相同摘要的文件时复用其存储对象，不再重复存储
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    private DevFile saveFile(String engine, String fileName, long fileSize, String sha256, Boolean isDownloadAuth,
+                             InputStreamSource inputStreamSource) {
+
         // 如果引擎为空，默认使用本地
         if(ObjectUtil.isEmpty(engine)) {
             engine = DevFileEngineTypeEnum.LOCAL.getValue();
@@ -210,106 +421,204 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
         String fileId = IdWorker.getIdStr();
 
         // 存储桶名称
-        String bucketName;
+        String bucketName = this.getBucketName(engine);
 
-        String fileKey = genFileKey(fileId, file);
+        String suffix = ObjectUtil.isNotEmpty(fileName)?StrUtil.subAfter(fileName, StrUtil.DOT, true):null;
+
+        String fileKey;
 
         // 定义存储的url，本地文件返回文件实际路径，其他引擎返回网络地址
         String storageUrl;
 
-        // 根据引擎类型执行不同方法
-        if(engine.equals(DevFileEngineTypeEnum.LOCAL.getValue())) {
+        // 秒传命中时持有摘要锁直到记录提交，防止被复用的存储对象同时被物理删除
+        String digestKey = this.digestKey(engine, bucketName, sha256);
+        String lockToken = this.lockDigest(digestKey);
+        DevFile sameDevFile;
+        // 将文件信息保存到数据库
+        DevFile devFile = new DevFile();
+        try {
+            sameDevFile = this.getByDigest(engine, bucketName, sha256);
+            if(ObjectUtil.isNotEmpty(sameDevFile)) {
+                // 内容相同，复用已存储的对象及其衍生图
+                fileKey = sameDevFile.getFileKey();
+                storageUrl = sameDevFile.getStoragePath();
+            } else {
+                // 未命中时上传新对象，无需持锁
+                this.unlockDigest(digestKey, lockToken);
+                lockToken = null;
+                fileKey = genFileKey(fileId, fileName);
+                try {
+                    storageUrl = this.storageByEngine(engine, bucketName, fileKey, inputStreamSource.getInputStream(), fileSize);
+                } catch (IOException e) {
+                    throw new CommonException("文件读取失败：{}", fileName);
+                }
+            }
 
-            // 使用固定名称defaultBucketName
-            bucketName = "defaultBucketName";
-            storageUrl = DevFileLocalUtil.storageFileWithReturnUrl(bucketName, fileKey, file);
-        } else if(engine.equals(DevFileEngineTypeEnum.ALIYUN.getValue())) {
+            // 设置文件id
+            devFile.setId(fileId);
+
+            // 设置存储引擎类型
+            devFile.setEngine(engine);
+            devFile.setBucket(bucketName);
+            devFile.setFileKey(fileKey);
+            devFile.setName(fileName);
+            devFile.setSuffix(suffix);
+            devFile.setSizeKb(Convert.toStr(NumberUtil.div(new BigDecimal(fileSize), BigDecimal.valueOf(1024))
+                    .setScale(0,  RoundingMode.HALF_UP )));
+            devFile.setSizeInfo(FileUtil.readableFileSize(fileSize));
+            devFile.setObjName(ObjectUtil.isNotEmpty(devFile.getSuffix())?fileId + StrUtil.DOT + devFile.getSuffix():null);
+            // 存储路径
+            devFile.setStoragePath(storageUrl);
+
+            // 定义下载地址
+            String downloadUrl;
+            String apiUrl = commonProperties.getBackendUrl();
+            if(ObjectUtil.isEmpty(apiUrl)) {
+                throw new CommonException("后端域名地址未正确配置：snowy.config.common.backend-url为空");
+            }
+            // 如果是图片，缩略图为缩略图接口地址，衍生图由后台生成
+            if(DevFileThumbnailPipeline.isSupported(suffix)) {
+                devFile.setThumbnail(apiUrl + "/dev/file/thumbnail?id=" + fileId);
+            }
+            if (BooleanUtil.isTrue(isDownloadAuth)){
+                downloadUrl= apiUrl + "/dev/file/authDownload?id=" + fileId + "&token=";
+            }else {
+                downloadUrl= apiUrl + "/dev/file/download?id=" + fileId;
+            }
+            devFile.setDownloadPath(downloadUrl);
 
-            // 使用阿里云默认配置的bucketName
-            bucketName = DevFileAliyunUtil.getDefaultBucketName();
-            storageUrl = DevFileAliyunUtil.storageFileWithReturnUrl(bucketName, fileKey, file);
-        } else if(engine.equals(DevFileEngineTypeEnum.TENCENT.getValue())) {
+            devFile.setIsDownloadAuth(isDownloadAuth);
 
-            // 使用腾讯云默认配置的bucketName
-            bucketName = DevFileTencentUtil.getDefaultBucketName();
-            storageUrl = DevFileTencentUtil.storageFileWithReturnUrl(bucketName, fileKey, file);
-        } else if(engine.equals(DevFileEngineTypeEnum.MINIO.getValue())) {
+            // 扩展信息中记录摘要，用于校验秒传索引
+            devFile.setExtJson(JSONUtil.createObj().set(SHA256_KEY, sha256).toString());
 
-            // 使用MINIO默认配置的bucketName
-            bucketName = DevFileMinIoUtil.getDefaultBucketName();
-            storageUrl = DevFileMinIoUtil.storageFileWithReturnUrl(bucketName, fileKey, file);
-        } else {
-            throw new CommonException("不支持的文件引擎：{}", engine);
+            this.save(devFile);
+        } finally {
+            if(lockToken != null) {
+                this.unlockDigestAfterCompletion(digestKey, lockToken);
+            }
         }
 
-        // 将文件信息保存到数据库
-        DevFile devFile = new DevFile();
+        if(ObjectUtil.isEmpty(sameDevFile)) {
+            stringRedisTemplate.opsForValue().set(digestKey, fileId, DIGEST_EXPIRE_DAYS, TimeUnit.DAYS);
+            devFileThumbnailPipeline.submit(devFile);
+        }
+        return devFile;
+    }
 
-        // 设置文件id
-        devFile.setId(fileId);
-
-        // 设置存储引擎类型
-        devFile.setEngine(engine);
-        devFile.setBucket(bucketName);
-        devFile.setFileKey(fileKey);
-        devFile.setName(file.getOriginalFilename());
-        String suffix = ObjectUtil.isNotEmpty(file.getOriginalFilename())?StrUtil.subAfter(file.getOriginalFilename(),
-                StrUtil.DOT, true):null;
-        devFile.setSuffix(suffix);
-        devFile.setSizeKb(Convert.toStr(NumberUtil.div(new BigDecimal(file.getSize()), BigDecimal.valueOf(1024))
-                .setScale(0,  RoundingMode.HALF_UP )));
-        devFile.setSizeInfo(FileUtil.readableFileSize(file.getSize()));
-        devFile.setObjName(ObjectUtil.isNotEmpty(devFile.getSuffix())?fileId + StrUtil.DOT + devFile.getSuffix():null);
-        // 如果是图片，则压缩生成缩略图
-        if(ObjectUtil.isNotEmpty(suffix)) {
-            if(isPic(suffix)) {
-                try {
-                    devFile.setThumbnail(ImgUtil.toBase64DataUri(ImgUtil.scale(ImgUtil.toImage(file.getBytes()),
-                            100, 100, null), suffix));
-                } catch (Exception ignored) {
-                }
-            }
+    /**
+     * 根据摘要获取同一引擎和存储桶下内容相同的文件，索引失效或摘要不一致时返回null
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    private DevFile getByDigest(String engine, String bucketName, String sha256) {
+        String digestKey = this.digestKey(engine, bucketName, sha256);
+        String fileId = stringRedisTemplate.opsForValue().get(digestKey);
+        if(ObjectUtil.isEmpty(fileId)) {
+            return null;
         }
-        // 存储路径
-        devFile.setStoragePath(storageUrl);
-
-        // 定义下载地址
-        String downloadUrl;
-        String apiUrl = commonProperties.getBackendUrl();
-        if(ObjectUtil.isEmpty(apiUrl)) {
-            throw new CommonException("后端域名地址未正确配置：snowy.config.common.backend-url为空");
+        DevFile devFile = this.getById(fileId);
+        if(ObjectUtil.isEmpty(devFile) || !engine.equals(devFile.getEngine()) || !bucketName.equals(devFile.getBucket())
+                || !sha256.equals(this.getSha256(devFile))) {
+            stringRedisTemplate.delete(digestKey);
+            return null;
         }
-        if (BooleanUtil.isTrue(isDownloadAuth)){
-            downloadUrl= apiUrl + "/dev/file/authDownload?id=" + fileId + "&token=";
-        }else {
-            downloadUrl= apiUrl + "/dev/file/download?id=" + fileId;
+        stringRedisTemplate.expire(digestKey, DIGEST_EXPIRE_DAYS, TimeUnit.DAYS);
+        return devFile;
+    }
+
+    private String digestKey(String engine, String bucketName, String sha256) {
+        return DIGEST_KEY_PREFIX + engine + StrUtil.COLON + bucketName + StrUtil.COLON + sha256;
+    }
+
+    private String getSha256(DevFile devFile) {
+        return JSONUtil.isTypeJSONObject(devFile.getExtJson()) ? JSONUtil.parseObj(devFile.getExtJson()).getStr(SHA256_KEY) : null;
+    }
+
+    /**
+     * 获取秒传摘要锁，返回释放锁所需的标识，等待超时时抛出异常
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    private String lockDigest(String digestKey) {
+        String lockToken = IdUtil.fastSimpleUUID();
+        long deadline = System.currentTimeMillis() + DIGEST_LOCK_WAIT_MILLIS;
+        while (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(digestKey + DIGEST_LOCK_KEY_SUFFIX, lockToken,
+                DIGEST_LOCK_EXPIRE_SECONDS, TimeUnit.SECONDS))) {
+            if(System.currentTimeMillis() > deadline) {
+                throw new CommonException("文件正在处理中，请稍后重试");
+            }
+            ThreadUtil.sleep(20);
         }
-        devFile.setDownloadPath(downloadUrl);
-
-//        // 下载路径，注意：本地文件下载地址设置为下载接口地址 + 文件id
-//        if(engine.equals(DevFileEngineTypeEnum.LOCAL.getValue())) {
-//            String apiUrl = commonProperties.getBackendUrl();
-//            if(ObjectUtil.isEmpty(apiUrl)) {
-//                throw new CommonException("后端域名地址未正确配置：snowy.config.common.backend-url为空");
-//            }
-//            downloadUrl= apiUrl + "/dev/file/download?id=" + fileId;
-//            devFile.setDownloadPath(downloadUrl);
-//        } else {
-//            // 阿里云、腾讯云、MINIO可以直接使用存储地址（公网）作为下载地址
-//            downloadUrl= storageUrl;
-//            devFile.setDownloadPath(devFile.getStoragePath());
-//        }
+        return lockToken;
+    }
 
-        devFile.setIsDownloadAuth(isDownloadAuth);
+    private void unlockDigest(String digestKey, String lockToken) {
+        stringRedisTemplate.execute(UNLOCK_SCRIPT, List.of(digestKey + DIGEST_LOCK_KEY_SUFFIX), lockToken);
+    }
 
-        this.save(devFile);
+    /**
+     * 在外层事务中时，事务结束后再释放秒传摘要锁，使记录在释放前已对其他节点可见
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    private void unlockDigestAfterCompletion(String digestKey, String lockToken) {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    unlockDigest(digestKey, lockToken);
+                }
+            });
+        } else {
+            this.unlockDigest(digestKey, lockToken);
+        }
+    }
 
-        // 如果是返回id则返回文件id
-        if(returnFileId) {
-            return fileId;
+    /**
+     * 根据引擎类型获取存储桶名称
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    private String getBucketName(String engine) {
+        if(engine.equals(DevFileEngineTypeEnum.LOCAL.getValue())) {
+            // 使用固定名称defaultBucketName
+            return "defaultBucketName";
+        } else if(engine.equals(DevFileEngineTypeEnum.ALIYUN.getValue())) {
+            // 使用阿里云默认配置的bucketName
+            return DevFileAliyunUtil.getDefaultBucketName();
+        } else if(engine.equals(DevFileEngineTypeEnum.TENCENT.getValue())) {
+            // 使用腾讯云默认配置的bucketName
+            return DevFileTencentUtil.getDefaultBucketName();
+        } else if(engine.equals(DevFileEngineTypeEnum.MINIO.getValue())) {
+            // 使用MINIO默认配置的bucketName
+            return DevFileMinIoUtil.getDefaultBucketName();
         } else {
-            // 否则返回下载地址
-            return downloadUrl;
+            throw new CommonException("不支持的文件引擎：{}", engine);
+        }
+    }
+
+    /**
+     * 根据引擎类型流式存储文件，返回存储地址
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    private String storageByEngine(String engine, String bucketName, String fileKey, InputStream inputStream, long fileSize) {
+        if(engine.equals(DevFileEngineTypeEnum.LOCAL.getValue())) {
+            return DevFileLocalUtil.storageFileWithReturnUrl(bucketName, fileKey, inputStream, fileSize);
+        } else if(engine.equals(DevFileEngineTypeEnum.ALIYUN.getValue())) {
+            return DevFileAliyunUtil.storageFileWithReturnUrl(bucketName, fileKey, inputStream, fileSize);
+        } else if(engine.equals(DevFileEngineTypeEnum.TENCENT.getValue())) {
+            return DevFileTencentUtil.storageFileWithReturnUrl(bucketName, fileKey, inputStream, fileSize);
+        } else if(engine.equals(DevFileEngineTypeEnum.MINIO.getValue())) {
+            return DevFileMinIoUtil.storageFileWithReturnUrl(bucketName, fileKey, inputStream, fileSize);
+        } else {
+            throw new CommonException("不支持的文件引擎：{}", engine);
         }
     }
 
@@ -320,9 +629,16 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
      * @date 2022/4/22 15:58
      **/
     public String genFileKey(String fileId, MultipartFile file) {
+        return genFileKey(fileId, file.getOriginalFilename());
+    }
 
-        // 获取文件原始名称
-        String originalFileName = file.getOriginalFilename();
+    /**
+     * 根据文件原始名称生成文件的key，格式如 2021/10/11/1377109572375810050.docx
+     *
+     * @author jetox
+     * @date 2026/10/18 23:58
+     **/
+    public String genFileKey(String fileId, String originalFileName) {
 
         // 获取文件后缀
         String fileSuffix = FileUtil.getSuffix(originalFileName);
@@ -362,20 +678,4 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
         }
         return devFile;
     }
-
-    /**
-     * 根据文件后缀判断是否图片
-     *
-     * @author xuyuxiang
-     * @date 2020/7/6 15:31
-     */
-    private static boolean isPic(String fileSuffix) {
-        fileSuffix = fileSuffix.toLowerCase();
-        return ImgUtil.IMAGE_TYPE_GIF.equals(fileSuffix)
-                || ImgUtil.IMAGE_TYPE_JPG.equals(fileSuffix)
-                || ImgUtil.IMAGE_TYPE_JPEG.equals(fileSuffix)
-                || ImgUtil.IMAGE_TYPE_BMP.equals(fileSuffix)
-                || ImgUtil.IMAGE_TYPE_PNG.equals(fileSuffix)
-                || ImgUtil.IMAGE_TYPE_PSD.equals(fileSuffix);
-    }
 }
@@ -0,0 +1,355 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.file.thumbnail;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.core.img.ImgUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.common.util.CommonImageUtil;
+import vip.xiaonuo.dev.modular.file.entity.DevFile;
+import vip.xiaonuo.dev.modular.file.enums.DevFileEngineTypeEnum;
+import vip.xiaonuo.dev.modular.file.util.DevFileAliyunUtil;
+import vip.xiaonuo.dev.modular.file.util.DevFileLocalUtil;
+import vip.xiaonuo.dev.modular.file.util.DevFileMinIoUtil;
+import vip.xiaonuo.dev.modular.file.util.DevFileTencentUtil;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * 图片衍生图流水线
+ * 上传图片后在有界线程池中生成多个尺寸的缩略图，一次降采样解码后由大到小逐级缩放，结果作为独立文件存入原文件所在的
+ * 存储引擎和存储桶，key为原文件key加尺寸后缀，秒传复用存储对象的文件也复用衍生图，随存储对象一起删除；
+ * 队列满时直接丢弃任务，首次请求缩略图时再提交到同一线程池按需生成，请求线程只限时等待，
+ * 同一文件的并发请求共用一次生成；原图以流的方式读取，不整体载入内存
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ **/
+@Slf4j
+@Component
+public class DevFileThumbnailPipeline {
+
+    /** 衍生图尺寸（最长边），由大到小排列 */
+    public static final List<Integer> SIZE_LIST = List.of(800, 300, 100);
+
+    /** 默认尺寸，用于列表缩略图 */
+    public static final int DEFAULT_SIZE = 100;
+
+    /** 衍生图key前缀 */
+    private static final String THUMBNAIL_KEY_PREFIX = "thumbnail/";
+
+    /** 可解码的图片后缀 */
+    private static final List<String> SUPPORTED_SUFFIX_LIST = List.of(ImgUtil.IMAGE_TYPE_GIF, ImgUtil.IMAGE_TYPE_JPG,
+            ImgUtil.IMAGE_TYPE_JPEG, ImgUtil.IMAGE_TYPE_BMP, ImgUtil.IMAGE_TYPE_PNG);
+
+    /** 等待生成的任务上限 */
+    private static final int QUEUE_CAPACITY = 200;
+
+    /** 请求缩略图时等待按需生成的最长时间 */
+    private static final long LAZY_WAIT_SECONDS = 10;
+
+    /** 衍生图浏览器缓存时间，衍生图内容随文件key不变 */
+    private static final long CACHE_MAX_AGE_SECONDS = TimeUnit.DAYS.toSeconds(7);
+
+    private final ThreadPoolExecutor thumbnailPool = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), new NamedThreadFactory("dev-file-thumbnail-", true),
+            new ThreadPoolExecutor.AbortPolicy());
+
+    /** 已确认生成的存储对象，避免每次请求都查询存储服务 */
+    private final Cache<String, Boolean> generatedCache = CacheUtil.newLRUCache(10000);
+
+    /** 生成中的存储对象，同一对象的并发请求等待同一次生成 */
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> generatingMap = new ConcurrentHashMap<>();
+
+    @PreDestroy
+    public void destroy() {
+        thumbnailPool.shutdownNow();
+    }
+
+    /**
+     * 根据文件后缀判断是否可生成衍生图
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static boolean isSupported(String suffix) {
+        return StrUtil.isNotEmpty(suffix) && SUPPORTED_SUFFIX_LIST.contains(suffix.toLowerCase());
+    }
+
+    /**
+     * 提交生成任务，存在事务时在事务提交后执行
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public void submit(DevFile devFile) {
+        if(!isSupported(devFile.getSuffix())) {
+            return;
+        }
+        Runnable task = () -> this.generateAsync(devFile).whenComplete((result, e) -> {
+            if(e != null) {
+                log.warn(">>> 衍生图生成失败，文件id：{}，原因：{}", devFile.getId(), e.getMessage());
+            }
+        });
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * 删除存储对象的全部衍生图，在存储对象的最后一个引用被物理删除时调用
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public void delete(DevFile devFile) {
+        if(!isSupported(devFile.getSuffix())) {
+            return;
+        }
+        generatedCache.remove(objectKey(devFile));
+        for (Integer size : SIZE_LIST) {
+            deleteFile(devFile.getEngine(), devFile.getBucket(), thumbnailKey(devFile, size));
+        }
+    }
+
+    /**
+     * 输出衍生图，尚未生成时提交到生成线程池并限时等待，支持ETag协商缓存
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public void write(DevFile devFile, Integer size, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if(!isSupported(devFile.getSuffix())) {
+            throw new CommonException("该文件不支持缩略图，id值为：{}", devFile.getId());
+        }
+        int actualSize = normalizeSize(size);
+        String thumbnailKey = thumbnailKey(devFile, actualSize);
+        String eTag = "\"" + SecureUtil.md5(devFile.getEngine() + devFile.getBucket() + thumbnailKey) + "\"";
+        response.setHeader("ETag", eTag);
+        response.setHeader("Cache-Control", (Boolean.TRUE.equals(devFile.getIsDownloadAuth()) ? "private" : "public")
+                + ", max-age=" + CACHE_MAX_AGE_SECONDS);
+        if(eTag.equals(request.getHeader("If-None-Match"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        this.awaitGenerated(devFile);
+        byte[] bytes = getFileBytes(devFile.getEngine(), devFile.getBucket(), thumbnailKey);
+        response.setContentType(ImgUtil.IMAGE_TYPE_PNG.equals(formatName(devFile)) ? "image/png" : "image/jpeg");
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    /**
+     * 等待存储对象的衍生图生成完成，请求线程不执行解码
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    private void awaitGenerated(DevFile devFile) {
+        try {
+            this.generateAsync(devFile).get(LAZY_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommonException("衍生图生成被中断");
+        } catch (TimeoutException e) {
+            throw new CommonException("衍生图生成中，请稍后重试");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof CommonException ? (CommonException) e.getCause()
+                    : new CommonException("衍生图生成失败：{}", e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * 在生成线程池中确保存储对象的全部衍生图已生成，同一存储对象同时只生成一次，线程池已满时返回失败的结果
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    private CompletableFuture<Void> generateAsync(DevFile devFile) {
+        String objectKey = objectKey(devFile);
+        if(generatedCache.containsKey(objectKey)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        CompletableFuture<Void> generatingFuture = generatingMap.putIfAbsent(objectKey, future);
+        if(generatingFuture != null) {
+            return generatingFuture;
+        }
+        try {
+            thumbnailPool.execute(() -> {
+                try {
+                    if(!isExistingFile(devFile.getEngine(), devFile.getBucket(), thumbnailKey(devFile, DEFAULT_SIZE))) {
+                        this.generate(devFile);
+                    }
+                    generatedCache.put(objectKey, true);
+                    future.complete(null);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    generatingMap.remove(objectKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            generatingMap.remove(objectKey);
+            future.completeExceptionally(new CommonException("衍生图生成繁忙，请稍后重试"));
+        }
+        return future;
+    }
+
+    /**
+     * 一次解码生成全部尺寸，由大到小逐级缩放，最小尺寸最后写入，作为已生成的标记
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    private void generate(DevFile devFile) throws IOException {
+        String formatName = formatName(devFile);
+        boolean keepAlpha = ImgUtil.IMAGE_TYPE_PNG.equals(formatName);
+        int maxSize = SIZE_LIST.get(0);
+        BufferedImage image;
+        try (InputStream inputStream = openOriginal(devFile)) {
+            image = CommonImageUtil.read(inputStream, maxSize, maxSize);
+        }
+        if(image == null) {
+            throw new CommonException("无法解码图片");
+        }
+        for (Integer size : SIZE_LIST) {
+            image = CommonImageUtil.scaleToFit(image, size, size, keepAlpha);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ImageIO.write(image, formatName, outputStream);
+            storageFile(devFile.getEngine(), devFile.getBucket(), thumbnailKey(devFile, size), outputStream.toByteArray());
+        }
+    }
+
+    private static int normalizeSize(Integer size) {
+        if(size == null) {
+            return DEFAULT_SIZE;
+        }
+        // 取不小于请求尺寸的最小衍生图，超出时取最大衍生图
+        int result = SIZE_LIST.get(0);
+        for (Integer candidate : SIZE_LIST) {
+            if(candidate >= size) {
+                result = candidate;
+            }
+        }
+        return result;
+    }
+
+    private static String formatName(DevFile devFile) {
+        String suffix = devFile.getSuffix().toLowerCase();
+        return ImgUtil.IMAGE_TYPE_PNG.equals(suffix) || ImgUtil.IMAGE_TYPE_GIF.equals(suffix) ? ImgUtil.IMAGE_TYPE_PNG : ImgUtil.IMAGE_TYPE_JPG;
+    }
+
+    private static String thumbnailKey(DevFile devFile, int size) {
+        return THUMBNAIL_KEY_PREFIX + devFile.getFileKey() + StrUtil.UNDERLINE + size + StrUtil.DOT + formatName(devFile);
+    }
+
+    private static String objectKey(DevFile devFile) {
+        return devFile.getEngine() + StrUtil.COLON + devFile.getBucket() + StrUtil.COLON + devFile.getFileKey();
+    }
+
+    private static InputStream openOriginal(DevFile devFile) {
+        String engine = devFile.getEngine();
+        if(DevFileEngineTypeEnum.LOCAL.getValue().equals(engine)) {
+            return DevFileLocalUtil.getFileInputStream(devFile.getBucket(), devFile.getFileKey());
+        } else if(DevFileEngineTypeEnum.ALIYUN.getValue().equals(engine)) {
+            return DevFileAliyunUtil.getFileInputStream(devFile.getBucket(), devFile.getFileKey());
+        } else if(DevFileEngineTypeEnum.TENCENT.getValue().equals(engine)) {
+            return DevFileTencentUtil.getFileInputStream(devFile.getBucket(), devFile.getFileKey());
+        } else if(DevFileEngineTypeEnum.MINIO.getValue().equals(engine)) {
+            return DevFileMinIoUtil.getFileInputStream(devFile.getBucket(), devFile.getFileKey());
+        } else {
+            throw new CommonException("不支持的文件引擎：{}", engine);
+        }
+    }
+
+    private static byte[] getFileBytes(String engine, String bucketName, String key) {
+        if(DevFileEngineTypeEnum.LOCAL.getValue().equals(engine)) {
+            return DevFileLocalUtil.getFileBytes(bucketName, key);
+        } else if(DevFileEngineTypeEnum.ALIYUN.getValue().equals(engine)) {
+            return DevFileAliyunUtil.getFileBytes(bucketName, key);
+        } else if(DevFileEngineTypeEnum.TENCENT.getValue().equals(engine)) {
+            return DevFileTencentUtil.getFileBytes(bucketName, key);
+        } else if(DevFileEngineTypeEnum.MINIO.getValue().equals(engine)) {
+            return DevFileMinIoUtil.getFileBytes(bucketName, key);
+        } else {
+            throw new CommonException("不支持的文件引擎：{}", engine);
+        }
+    }
+
+    private static boolean isExistingFile(String engine, String bucketName, String key) {
+        if(DevFileEngineTypeEnum.LOCAL.getValue().equals(engine)) {
+            return DevFileLocalUtil.isExistingFile(bucketName, key);
+        } else if(DevFileEngineTypeEnum.ALIYUN.getValue().equals(engine)) {
+            return DevFileAliyunUtil.isExistingFile(bucketName, key);
+        } else if(DevFileEngineTypeEnum.TENCENT.getValue().equals(engine)) {
+            return DevFileTencentUtil.isExistingFile(bucketName, key);
+        } else if(DevFileEngineTypeEnum.MINIO.getValue().equals(engine)) {
+            return DevFileMinIoUtil.isExistingFile(bucketName, key);
+        } else {
+            throw new CommonException("不支持的文件引擎：{}", engine);
+        }
+    }
+
+    private static void storageFile(String engine, String bucketName, String key, byte[] bytes) {
+        if(DevFileEngineTypeEnum.LOCAL.getValue().equals(engine)) {
+            DevFileLocalUtil.storageFile(bucketName, key, bytes);
+        } else if(DevFileEngineTypeEnum.ALIYUN.getValue().equals(engine)) {
+            DevFileAliyunUtil.storageFile(bucketName, key, bytes);
+        } else if(DevFileEngineTypeEnum.TENCENT.getValue().equals(engine)) {
+            DevFileTencentUtil.storageFile(bucketName, key, bytes);
+        } else if(DevFileEngineTypeEnum.MINIO.getValue().equals(engine)) {
+            DevFileMinIoUtil.storageFile(bucketName, key, bytes);
+        } else {
+            throw new CommonException("不支持的文件引擎：{}", engine);
+        }
+    }
+
+    private static void deleteFile(String engine, String bucketName, String key) {
+        if(DevFileEngineTypeEnum.LOCAL.getValue().equals(engine)) {
+            DevFileLocalUtil.deleteFile(bucketName, key);
+        } else if(DevFileEngineTypeEnum.ALIYUN.getValue().equals(engine)) {
+            DevFileAliyunUtil.deleteFile(bucketName, key);
+        } else if(DevFileEngineTypeEnum.TENCENT.getValue().equals(engine)) {
+            DevFileTencentUtil.deleteFile(bucketName, key);
+        } else if(DevFileEngineTypeEnum.MINIO.getValue().equals(engine)) {
+            DevFileMinIoUtil.deleteFile(bucketName, key);
+        } else {
+            throw new CommonException("不支持的文件引擎：{}", engine);
+        }
+    }
+}
@@ -109,6 +109,18 @@ public class DevFileLocalUtil {
         return client.getStr("localFileUploadFolder");
     }
 
+    /**
+     * 获取存储桶对应的本地目录，目录不存在时不会创建
+     *
+     * @param bucketName 桶名称
+     * @author jetox
+     * @date 2026/10/18 23:58
+     */
+    public static File getBucketFolder(String bucketName) {
+        initClient();
+        return FileUtil.file(getUploadFileFolder() + FileUtil.FILE_SEPARATOR + bucketName);
+    }
+
     /**
      * 查询存储桶是否存在
      * 例如：传入参数examplebucket-1250000000，返回true代表存在此桶
@@ -214,6 +226,20 @@ public class DevFileLocalUtil {
         FileUtil.writeFromStream(inputStream, getUploadFileFolder() + FileUtil.FILE_SEPARATOR + bucketName + FileUtil.FILE_SEPARATOR + key);
     }
 
+    /**
+     * 存储文件，不返回地址，与其他引擎保持一致，本地存储无需使用内容长度
+     *
+     * @param bucketName    桶名称
+     * @param key           唯一标示id，例如a.txt, doc/a.txt
+     * @param inputStream   文件流
+     * @param contentLength 内容长度
+     * @author jetox
+     * @date 2026/10/18 23:58
+     */
+    public static void storageFile(String bucketName, String key, InputStream inputStream, long contentLength) {
+        storageFile(bucketName, key, inputStream);
+    }
+
     /**
      * 存储文件，返回存储的地址
      *
@@ -270,6 +296,21 @@ public class DevFileLocalUtil {
         return getFileAuthUrl(bucketName, key);
     }
 
+    /**
+     * 存储文件，返回存储的地址，与其他引擎保持一致
+     *
+     * @param bucketName    桶名称
+     * @param key           唯一标示id，例如a.txt, doc/a.txt
+     * @param inputStream   文件流
+     * @param contentLength 内容长度
+     * @author jetox
+     * @date 2026/10/18 23:58
+     */
+    public static String storageFileWithReturnUrl(String bucketName, String key, InputStream inputStream, long contentLength) {
+        storageFile(bucketName, key, inputStream, contentLength);
+        return getFileAuthUrl(bucketName, key);
+    }
+
     /**
      * 获取某个bucket下的文件字节
      *
@@ -283,6 +324,18 @@ public class DevFileLocalUtil {
         return FileUtil.readBytes(file);
     }
 
+    /**
+     * 获取某个bucket下的文件输入流，由调用方关闭，用于流式读取大文件
+     *
+     * @param bucketName 桶名称
+     * @param key        唯一标示id，例如a.txt, doc/a.txt
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    public static InputStream getFileInputStream(String bucketName, String key) {
+        return FileUtil.getInputStream(getFileByBucketNameAndKey(bucketName, key));
+    }
+
     /**
      * 设置文件访问权限管理
      *
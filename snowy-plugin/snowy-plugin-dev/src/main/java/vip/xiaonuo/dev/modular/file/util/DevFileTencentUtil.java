@@ -233,7 +233,7 @@ public class DevFileTencentUtil {
         } catch (IORuntimeException e) {
             throw new CommonException("获取文件流异常，名称是：{}", file.getName());
         }
-        storageFile(bucketName, key, inputStream);
+        storageFile(bucketName, key, inputStream, file.length());
     }
 
     /**
@@ -252,7 +252,7 @@ public class DevFileTencentUtil {
         } catch (IOException e) {
             throw new CommonException("获取文件流异常，名称是：{}", multipartFile.getName());
         }
-        storageFile(bucketName, key, inputStream);
+        storageFile(bucketName, key, inputStream, multipartFile.getSize());
     }
 
     /**
@@ -301,6 +301,30 @@ public class DevFileTencentUtil {
         }
     }
 
+    /**
+     * 存储文件，不返回地址，显式指定内容长度，避免存储服务将整个流缓冲到内存
+     *
+     * @param bucketName    桶名称
+     * @param key           唯一标示id，例如a.txt, doc/a.txt
+     * @param inputStream   文件流
+     * @param contentLength 内容长度
+     * @author jetox
+     * @date 2026/10/18 23:58
+     */
+    public static void storageFile(String bucketName, String key, InputStream inputStream, long contentLength) {
+        try {
+            initClient();
+            ObjectMetadata objectMetadata = new ObjectMetadata();
+            objectMetadata.setContentType(getFileContentType(key));
+            objectMetadata.setContentLength(contentLength);
+            client.putObject(bucketName, key, inputStream, objectMetadata);
+        } catch (CosClientException e) {
+            throw new CommonException(e.getMessage());
+        } finally {
+            IoUtil.close(inputStream);
+        }
+    }
+
     /**
      * 存储文件，返回外网地址
      *
@@ -361,6 +385,22 @@ public class DevFileTencentUtil {
         return getFileAuthUrl(bucketName, key);
     }
 
+    /**
+     * 存储文件，返回外网地址，显式指定内容长度
+     *
+     * @param bucketName    桶名称
+     * @param key           唯一标示id，例如a.txt, doc/a.txt
+     * @param inputStream   文件流
+     * @param contentLength 内容长度
+     * @author jetox
+     * @date 2026/10/18 23:58
+     */
+    public static String storageFileWithReturnUrl(String bucketName, String key, InputStream inputStream, long contentLength) {
+        storageFile(bucketName, key, inputStream, contentLength);
+        setFileAcl(bucketName, key, DevFileBucketAuthEnum.PUBLIC_READ);
+        return getFileAuthUrl(bucketName, key);
+    }
+
     /**
      * 获取某个bucket下的文件字节
      *
@@ -384,6 +424,23 @@ public class DevFileTencentUtil {
         }
     }
 
+    /**
+     * 获取某个bucket下的文件输入流，由调用方关闭，用于流式读取大文件
+     *
+     * @param bucketName 桶名称
+     * @param key        唯一标示id，例如a.txt, doc/a.txt
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    public static InputStream getFileInputStream(String bucketName, String key) {
+        try {
+            initClient();
+            return client.getObject(new GetObjectRequest(bucketName, key)).getObjectContent();
+        } catch (CosClientException e) {
+            throw new CommonException(e.getMessage());
+        }
+    }
+
     /**
      * 设置文件访问权限管理
      *
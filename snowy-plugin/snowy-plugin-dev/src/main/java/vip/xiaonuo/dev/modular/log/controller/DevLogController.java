@@ -26,14 +26,19 @@ import org.springframework.web.bind.annotation.RestController;
 import vip.xiaonuo.common.annotation.CommonLog;
 import vip.xiaonuo.common.pojo.CommonResult;
 import vip.xiaonuo.dev.modular.log.entity.DevLog;
+import vip.xiaonuo.dev.modular.log.param.DevLogChainVerifyParam;
 import vip.xiaonuo.dev.modular.log.param.DevLogDeleteParam;
 import vip.xiaonuo.dev.modular.log.param.DevLogIdParam;
 import vip.xiaonuo.dev.modular.log.param.DevLogPageParam;
+import vip.xiaonuo.dev.modular.log.result.DevLogChainVerifyResult;
 import vip.xiaonuo.dev.modular.log.result.DevLogOpBarChartDataResult;
 import vip.xiaonuo.dev.modular.log.result.DevLogOpPieChartDataResult;
 import vip.xiaonuo.dev.modular.log.result.DevLogVisLineChartDataResult;
 import vip.xiaonuo.dev.modular.log.result.DevLogVisPieChartDataResult;
+import vip.xiaonuo.dev.modular.log.result.DevLogWriterStatResult;
 import vip.xiaonuo.dev.modular.log.service.DevLogService;
+import vip.xiaonuo.dev.modular.log.writer.DevLogChainVerifier;
+import vip.xiaonuo.dev.modular.log.writer.DevLogWriter;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -53,6 +58,12 @@ public class DevLogController {
     @Resource
     private DevLogService devLogService;
 
+    @Resource
+    private DevLogWriter devLogWriter;
+
+    @Resource
+    private DevLogChainVerifier devLogChainVerifier;
+
     /**
      * 获取日志分页
      *
@@ -143,4 +154,29 @@ public class DevLogController {
         return CommonResult.data(devLogService.detail(devLogIdParam));
     }
 
+    /**
+     * 获取日志写入器统计
+     *
+     * @author jetox
+     * @date 2026/10/18 23:45
+     */
+    @ApiOperationSupport(order = 7)
+    @Operation(summary = "获取日志写入器统计")
+    @GetMapping("/dev/log/writerStat")
+    public CommonResult<DevLogWriterStatResult> writerStat() {
+        return CommonResult.data(devLogWriter.stat());
+    }
+
+    /**
+     * 校验日志哈希链
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    @ApiOperationSupport(order = 8)
+    @Operation(summary = "校验日志哈希链")
+    @GetMapping("/dev/log/verifyChain")
+    public CommonResult<DevLogChainVerifyResult> verifyChain(DevLogChainVerifyParam devLogChainVerifyParam) {
+        return CommonResult.data(devLogChainVerifier.verify(devLogChainVerifyParam));
+    }
 }
@@ -15,6 +15,7 @@ package vip.xiaonuo.dev.modular.log.provider;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
@@ -52,7 +53,7 @@ public class DevLogApiProvider implements DevLogApi {
 
     @Override
     public List<JSONObject> currentUserVisLogList() {
-        return devLogService.page(CommonPageRequest.defaultPage(), new LambdaQueryWrapper<DevLog>()
+        return devLogService.page(this.recentPage(), new LambdaQueryWrapper<DevLog>()
                 .select(DevLog::getName, DevLog::getOpUser, DevLog::getOpTime, DevLog::getOpAddress, DevLog::getOpIp)
                 .eq(DevLog::getOpUser, StpLoginUserUtil.getLoginUser().getName())
                 .in(DevLog::getCategory, DevLogCategoryEnum.LOGIN.getValue(), DevLogCategoryEnum.LOGOUT.getValue())
@@ -62,11 +63,23 @@ public class DevLogApiProvider implements DevLogApi {
 
     @Override
     public List<JSONObject> currentUserOpLogList() {
-        return devLogService.page(CommonPageRequest.defaultPage(), new LambdaQueryWrapper<DevLog>()
+        return devLogService.page(this.recentPage(), new LambdaQueryWrapper<DevLog>()
                 .select(DevLog::getName, DevLog::getOpUser, DevLog::getOpTime, DevLog::getOpAddress, DevLog::getOpIp)
                 .eq(DevLog::getOpUser, StpLoginUserUtil.getLoginUser().getName())
                 .in(DevLog::getCategory, DevLogCategoryEnum.OPERATE.getValue(), DevLogCategoryEnum.EXCEPTION.getValue())
                 .orderByDesc(DevLog::getCreateTime))
                 .getRecords().stream().map(JSONUtil::parseObj).collect(Collectors.toList());
     }
+
+    /**
+     * 首页最近日志只取记录，不统计总数，避免随日志量增长的count查询
+     *
+     * @author jetox
+     * @date 2026/10/18 23:50
+     */
+    private <T> Page<T> recentPage() {
+        Page<T> page = CommonPageRequest.defaultPage();
+        page.setSearchCount(false);
+        return page;
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.result;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 日志哈希链校验结果
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+@Getter
+@Setter
+public class DevLogChainVerifyResult {
+
+    /** 节点id */
+    @Schema(description = "节点id")
+    private String nodeId;
+
+    /** 已校验日志数量 */
+    @Schema(description = "已校验日志数量")
+    private Long checkedCount = 0L;
+
+    /** 哈希不一致（被篡改）的日志数量 */
+    @Schema(description = "哈希不一致的日志数量")
+    private Long brokenCount = 0L;
+
+    /** 签名无效的批次数量 */
+    @Schema(description = "签名无效的批次数量")
+    private Long badSignatureCount = 0L;
+
+    /** 序号缺失（日志被删除）的位置数量，缺失后的日志以其自身哈希继续校验 */
+    @Schema(description = "序号缺失的位置数量")
+    private Long gapCount = 0L;
+
+    /** 第一条哈希不一致或签名无效的日志id */
+    @Schema(description = "第一条哈希不一致或签名无效的日志id")
+    private String firstBrokenId;
+
+    /** 最后一条日志的序号 */
+    @Schema(description = "最后一条日志的序号")
+    private Long lastSeq = 0L;
+}
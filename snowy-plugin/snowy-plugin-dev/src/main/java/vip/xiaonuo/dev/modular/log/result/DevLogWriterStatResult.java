@@ -0,0 +1,56 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.result;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 日志写入器统计结果
+ *
+ * @author jetox
+ * @date 2026/10/18 23:45
+ */
+@Getter
+@Setter
+public class DevLogWriterStatResult {
+
+    /** 队列中待写入数量 */
+    @Schema(description = "队列中待写入数量")
+    private Integer queueDepth;
+
+    /** 队列容量 */
+    @Schema(description = "队列容量")
+    private Integer queueCapacity;
+
+    /** 已接收数量 */
+    @Schema(description = "已接收数量")
+    private Long acceptedCount;
+
+    /** 队列已满丢弃数量 */
+    @Schema(description = "队列已满丢弃数量")
+    private Long droppedCount;
+
+    /** 已写入数量 */
+    @Schema(description = "已写入数量")
+    private Long writtenCount;
+
+    /** 生成或写入失败数量 */
+    @Schema(description = "生成或写入失败数量")
+    private Long failedCount;
+
+    /** 已写入批次数 */
+    @Schema(description = "已写入批次数")
+    private Long batchCount;
+}
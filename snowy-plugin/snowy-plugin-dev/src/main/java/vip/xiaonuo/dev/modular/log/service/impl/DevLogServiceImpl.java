@@ -13,18 +13,16 @@
 package vip.xiaonuo.dev.modular.log.service.impl;
 
 import cn.hutool.core.collection.CollectionUtil;
-import cn.hutool.core.convert.Convert;
 import cn.hutool.core.date.DateTime;
 import cn.hutool.core.date.DateUnit;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import vip.xiaonuo.common.enums.CommonSortOrderEnum;
 import vip.xiaonuo.common.exception.CommonException;
@@ -40,10 +38,10 @@ import vip.xiaonuo.dev.modular.log.result.DevLogOpPieChartDataResult;
 import vip.xiaonuo.dev.modular.log.result.DevLogVisLineChartDataResult;
 import vip.xiaonuo.dev.modular.log.result.DevLogVisPieChartDataResult;
 import vip.xiaonuo.dev.modular.log.service.DevLogService;
+import vip.xiaonuo.dev.modular.log.stat.DevLogStatRollup;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 日志Service接口实现类
@@ -54,6 +52,9 @@ import java.util.stream.Collectors;
 @Service
 public class DevLogServiceImpl extends ServiceImpl<DevLogMapper, DevLog> implements DevLogService {
 
+    @Resource
+    private DevLogStatRollup devLogStatRollup;
+
     @Override
     public Page<DevLog> page(DevLogPageParam devLogPageParam) {
         QueryWrapper<DevLog> queryWrapper = new QueryWrapper<DevLog>().checkSqlInjection();
@@ -92,32 +93,23 @@ public class DevLogServiceImpl extends ServiceImpl<DevLogMapper, DevLog> impleme
     @Override
     public void delete(DevLogDeleteParam devLogDeleteParam) {
         this.remove(new LambdaQueryWrapper<DevLog>().eq(DevLog::getCategory, devLogDeleteParam.getCategory()));
+        // 汇总随之失效，下次读取时重建
+        devLogStatRollup.invalidate(devLogDeleteParam.getCategory());
     }
 
     @Override
     public List<DevLogVisLineChartDataResult> visLogLineChartData() {
         DateTime lastWeek = DateUtil.lastWeek();
         DateTime now = DateTime.now();
-        Map<String, List<JSONObject>> listMap = this.list(new LambdaQueryWrapper<DevLog>().in(DevLog::getCategory, DevLogCategoryEnum.LOGIN.getValue(),
-                DevLogCategoryEnum.LOGOUT.getValue()).between(DevLog::getOpTime, lastWeek, now).orderByAsc(DevLog::getOpTime))
-                .stream().map(devLog -> JSONUtil.parseObj(devLog).set("date", DateUtil.formatDate(devLog.getOpTime())))
-                .collect(Collectors.groupingBy(jsonObject -> jsonObject.getStr("date")));
         long between = DateUtil.between(lastWeek, now, DateUnit.DAY);
         List<DevLogVisLineChartDataResult> resultList = CollectionUtil.newArrayList();
         for(int i = 1; i<= between; i++) {
             DevLogVisLineChartDataResult devLogVisLineChartDataResult = new DevLogVisLineChartDataResult();
-            String date = DateUtil.formatDate(DateUtil.offsetDay(lastWeek, i));
-            devLogVisLineChartDataResult.setDate(date);
-            List<JSONObject> jsonObjectList = listMap.get(date);
-            if(ObjectUtil.isNotEmpty(jsonObjectList)) {
-                devLogVisLineChartDataResult.setLoginCount(jsonObjectList.stream().filter(jsonObject -> jsonObject.getStr("category")
-                        .equals(DevLogCategoryEnum.LOGIN.getValue())).count());
-                devLogVisLineChartDataResult.setLogoutCount(jsonObjectList.stream().filter(jsonObject -> jsonObject.getStr("category")
-                        .equals(DevLogCategoryEnum.LOGOUT.getValue())).count());
-            } else {
-                devLogVisLineChartDataResult.setLoginCount(0L);
-                devLogVisLineChartDataResult.setLogoutCount(0L);
-            }
+            DateTime date = DateUtil.offsetDay(lastWeek, i);
+            devLogVisLineChartDataResult.setDate(DateUtil.formatDate(date));
+            Map<String, Long> categoryCountMap = devLogStatRollup.dayCategoryCount(date);
+            devLogVisLineChartDataResult.setLoginCount(categoryCountMap.getOrDefault(DevLogCategoryEnum.LOGIN.getValue(), 0L));
+            devLogVisLineChartDataResult.setLogoutCount(categoryCountMap.getOrDefault(DevLogCategoryEnum.LOGOUT.getValue(), 0L));
             resultList.add(devLogVisLineChartDataResult);
         }
         return resultList;
@@ -125,17 +117,16 @@ public class DevLogServiceImpl extends ServiceImpl<DevLogMapper, DevLog> impleme
 
     @Override
     public List<DevLogVisPieChartDataResult> visLogPieChartData() {
+        Map<String, Long> categoryCountMap = devLogStatRollup.totalCategoryCount();
         List<DevLogVisPieChartDataResult> resultList = CollectionUtil.newArrayList();
         DevLogVisPieChartDataResult devLogLoginPieChartDataResult = new DevLogVisPieChartDataResult();
         devLogLoginPieChartDataResult.setType("登录");
-        devLogLoginPieChartDataResult.setValue(Convert.toLong(this.count(new LambdaQueryWrapper<DevLog>()
-                .eq(DevLog::getCategory, DevLogCategoryEnum.LOGIN.getValue()))));
+        devLogLoginPieChartDataResult.setValue(categoryCountMap.getOrDefault(DevLogCategoryEnum.LOGIN.getValue(), 0L));
         resultList.add(devLogLoginPieChartDataResult);
 
         DevLogVisPieChartDataResult devLogLogoutPieChartDataResult = new DevLogVisPieChartDataResult();
         devLogLogoutPieChartDataResult.setType("登出");
-        devLogLogoutPieChartDataResult.setValue(Convert.toLong(this.count(new LambdaQueryWrapper<DevLog>()
-                .eq(DevLog::getCategory, DevLogCategoryEnum.LOGOUT.getValue()))));
+        devLogLogoutPieChartDataResult.setValue(categoryCountMap.getOrDefault(DevLogCategoryEnum.LOGOUT.getValue(), 0L));
         resultList.add(devLogLogoutPieChartDataResult);
         return resultList;
     }
@@ -144,33 +135,20 @@ public class DevLogServiceImpl extends ServiceImpl<DevLogMapper, DevLog> impleme
     public List<DevLogOpBarChartDataResult> opLogBarChartData() {
         DateTime lastWeek = DateUtil.lastWeek();
         DateTime now = DateTime.now();
-        Map<String, List<JSONObject>> listMap = this.list(new LambdaQueryWrapper<DevLog>().select(DevLog::getId,
-                                DevLog::getName,DevLog::getOpIp, DevLog::getOpAddress, DevLog::getCategory, DevLog::getClassName,
-                                DevLog::getMethodName, DevLog::getOpTime, DevLog::getOpUser)
-                        .in(DevLog::getCategory, DevLogCategoryEnum.OPERATE.getValue(),
-                                DevLogCategoryEnum.EXCEPTION.getValue()).between(DevLog::getOpTime, lastWeek, now).orderByAsc(DevLog::getOpTime))
-                .stream().map(devLog -> JSONUtil.parseObj(devLog).set("date", DateUtil.formatDate(devLog.getOpTime())))
-                .collect(Collectors.groupingBy(jsonObject -> jsonObject.getStr("date")));
         long between = DateUtil.between(lastWeek, now, DateUnit.DAY);
         List<DevLogOpBarChartDataResult> resultList = CollectionUtil.newArrayList();
         for(int i = 1; i<= between; i++) {
-            String date = DateUtil.formatDate(DateUtil.offsetDay(lastWeek, i));
+            DateTime dateTime = DateUtil.offsetDay(lastWeek, i);
+            String date = DateUtil.formatDate(dateTime);
+            Map<String, Long> categoryCountMap = devLogStatRollup.dayCategoryCount(dateTime);
             DevLogOpBarChartDataResult devLogOperateBarChartDataResult = new DevLogOpBarChartDataResult();
             devLogOperateBarChartDataResult.setDate(date);
             devLogOperateBarChartDataResult.setName("操作日志");
+            devLogOperateBarChartDataResult.setCount(categoryCountMap.getOrDefault(DevLogCategoryEnum.OPERATE.getValue(), 0L));
             DevLogOpBarChartDataResult devLogExceptionBarChartDataResult = new DevLogOpBarChartDataResult();
             devLogExceptionBarChartDataResult.setDate(date);
             devLogExceptionBarChartDataResult.setName("异常日志");
-            List<JSONObject> jsonObjectList = listMap.get(date);
-            if(ObjectUtil.isNotEmpty(jsonObjectList)) {
-                devLogOperateBarChartDataResult.setCount(jsonObjectList.stream().filter(jsonObject -> jsonObject.getStr("category")
-                        .equals(DevLogCategoryEnum.OPERATE.getValue())).count());
-                devLogExceptionBarChartDataResult.setCount(jsonObjectList.stream().filter(jsonObject -> jsonObject.getStr("category")
-                        .equals(DevLogCategoryEnum.EXCEPTION.getValue())).count());
-            } else {
-                devLogOperateBarChartDataResult.setCount(0L);
-                devLogExceptionBarChartDataResult.setCount(0L);
-            }
+            devLogExceptionBarChartDataResult.setCount(categoryCountMap.getOrDefault(DevLogCategoryEnum.EXCEPTION.getValue(), 0L));
             resultList.add(devLogOperateBarChartDataResult);
             resultList.add(devLogExceptionBarChartDataResult);
         }
@@ -179,17 +157,16 @@ public class DevLogServiceImpl extends ServiceImpl<DevLogMapper, DevLog> impleme
 
     @Override
     public List<DevLogOpPieChartDataResult> opLogPieChartData() {
+        Map<String, Long> categoryCountMap = devLogStatRollup.totalCategoryCount();
         List<DevLogOpPieChartDataResult> resultList = CollectionUtil.newArrayList();
         DevLogOpPieChartDataResult devLogOperatePieChartDataResult = new DevLogOpPieChartDataResult();
         devLogOperatePieChartDataResult.setType("操作日志");
-        devLogOperatePieChartDataResult.setValue(Convert.toLong(this.count(new LambdaQueryWrapper<DevLog>()
-                .eq(DevLog::getCategory, DevLogCategoryEnum.OPERATE.getValue()))));
+        devLogOperatePieChartDataResult.setValue(categoryCountMap.getOrDefault(DevLogCategoryEnum.OPERATE.getValue(), 0L));
         resultList.add(devLogOperatePieChartDataResult);
 
         DevLogOpPieChartDataResult devLogExceptionPieChartDataResult = new DevLogOpPieChartDataResult();
         devLogExceptionPieChartDataResult.setType("异常日志");
-        devLogExceptionPieChartDataResult.setValue(Convert.toLong(this.count(new LambdaQueryWrapper<DevLog>()
-                .eq(DevLog::getCategory, DevLogCategoryEnum.EXCEPTION.getValue()))));
+        devLogExceptionPieChartDataResult.setValue(categoryCountMap.getOrDefault(DevLogCategoryEnum.EXCEPTION.getValue(), 0L));
         resultList.add(devLogExceptionPieChartDataResult);
         return resultList;
     }
@@ -0,0 +1,313 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.stat;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.date.DateTime;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.ObjectUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.dev.modular.log.entity.DevLog;
+import vip.xiaonuo.dev.modular.log.mapper.DevLogMapper;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志统计汇总
+ * 按天、分类、执行状态汇总日志数量，存放在Redis哈希中（字段为“分类:状态”），另有一个全部日志的汇总，
+ * 日志写入器每写入一批即累加，图表只读汇总，与日志总量无关；
+ * 汇总缺失时（首次使用、过期或清空日志后）按日志表分组统计重建。重建以创建时间所在分钟为水位：
+ * 水位之前的日志由分组统计计入，水位及之后的日志由累加计入。累加同时记入按分钟分桶的待合并哈希，
+ * 重建在临时键中完成后由Lua脚本合并水位之后的分桶并改名为正式键，正式键的就绪字段记录水位，
+ * 累加时跳过水位之前的日志，因此重建与并发累加之间不会重复或遗漏。
+ * 全部日志的汇总不过期，只在清空日志失效后重建：失效时只移除就绪字段保留旧计数，
+ * 重建涉及全表分组统计，由抢到锁的一个调用方执行，其他调用方期间返回旧计数
+ *
+ * @author jetox
+ * @date 2026/10/18 23:50
+ **/
+@Slf4j
+@Component
+public class DevLogStatRollup {
+
+    private static final String DAY_KEY_PREFIX = "dev:log:stat:day:";
+    private static final String TOTAL_KEY = "dev:log:stat:total";
+
+    /** 按分钟分桶的待合并累加的键后缀 */
+    private static final String PENDING_KEY_SUFFIX = ":pending:";
+
+    /** 重建临时键的后缀 */
+    private static final String REBUILD_KEY_SUFFIX = ":rebuild:";
+
+    /** 重建锁的键后缀 */
+    private static final String REBUILD_LOCK_KEY_SUFFIX = ":lock";
+
+    /** 就绪标记字段，值为水位分钟 */
+    private static final String READY_FIELD = "#";
+
+    /** 按天汇总的保留天数，覆盖图表最近一周 */
+    private static final long DAY_EXPIRE_DAYS = 8;
+
+    /** 全部日志汇总不过期 */
+    private static final long TOTAL_EXPIRE_SECONDS = 0;
+
+    /** 水位落后当前时间的分钟数，日志写入器设置创建时间到事务提交之间的耗时须小于一分钟 */
+    private static final long WATERMARK_LAG_MINUTES = 2;
+
+    /** 合并分桶时向后多取的分钟数，容忍节点间时钟偏差 */
+    private static final long CLOCK_SKEW_MINUTES = 2;
+
+    /** 待合并分桶、重建临时键与重建锁的保留分钟数 */
+    private static final long PENDING_EXPIRE_MINUTES = 10;
+
+    // Lua脚本：累加记入分桶，正式键已就绪且日志不早于水位时同时累加正式键
+    private static final DefaultRedisScript<Long> ACCUMULATE_SCRIPT = new DefaultRedisScript<>(
+            "local watermark = redis.call('hget', KEYS[1], '" + READY_FIELD + "') " +
+            "local live = watermark and tonumber(ARGV[1]) >= tonumber(watermark) " +
+            "for i = 3, #ARGV, 2 do " +
+            "    redis.call('hincrby', KEYS[2], ARGV[i], ARGV[i + 1]) " +
+            "    if live then redis.call('hincrby', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "end " +
+            "redis.call('expire', KEYS[2], ARGV[2]) " +
+            "return 0", Long.class);
+
+    // Lua脚本：合并水位之后的分桶并将临时键改名为正式键，正式键已被其他重建就绪时放弃
+    private static final DefaultRedisScript<Long> INSTALL_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('hexists', KEYS[1], '" + READY_FIELD + "') == 1 then " +
+            "    redis.call('del', KEYS[2]) " +
+            "    return 0 " +
+            "end " +
+            "for i = 3, #KEYS do " +
+            "    local entries = redis.call('hgetall', KEYS[i]) " +
+            "    for j = 1, #entries, 2 do redis.call('hincrby', KEYS[2], entries[j], entries[j + 1]) end " +
+            "end " +
+            "redis.call('hset', KEYS[2], '" + READY_FIELD + "', ARGV[1]) " +
+            "redis.call('rename', KEYS[2], KEYS[1]) " +
+            "if tonumber(ARGV[2]) > 0 then redis.call('expire', KEYS[1], ARGV[2]) else redis.call('persist', KEYS[1]) end " +
+            "return 1", Long.class);
+
+    // Lua脚本：持有者释放重建锁
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0", Long.class);
+
+    // Lua脚本：删除各分桶中某一分类的字段
+    private static final DefaultRedisScript<Long> REMOVE_CATEGORY_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #KEYS do " +
+            "    for _, field in ipairs(redis.call('hkeys', KEYS[i])) do " +
+            "        if string.sub(field, 1, #ARGV[1]) == ARGV[1] then redis.call('hdel', KEYS[i], field) end " +
+            "    end " +
+            "end " +
+            "return 0", Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private DevLogMapper devLogMapper;
+
+    /**
+     * 累加一批已写入的日志，日志的创建时间须已设置
+     *
+     * @author jetox
+     * @date 2026/10/18 23:50
+     **/
+    public void accumulate(List<DevLog> devLogList) {
+        // 先在内存中按汇总键、创建分钟与字段合并，一批只执行少量脚本
+        Map<String, Map<Long, Map<String, Long>>> keyCountMap = new HashMap<>();
+        for (DevLog devLog : devLogList) {
+            String field = this.field(devLog.getCategory(), devLog.getExeStatus());
+            Date opTime = ObjectUtil.defaultIfNull(devLog.getOpTime(), new Date());
+            long minute = this.minute(ObjectUtil.defaultIfNull(devLog.getCreateTime(), new Date()).getTime());
+            keyCountMap.computeIfAbsent(DAY_KEY_PREFIX + DateUtil.formatDate(opTime), k -> new HashMap<>())
+                    .computeIfAbsent(minute, k -> new HashMap<>()).merge(field, 1L, Long::sum);
+            keyCountMap.computeIfAbsent(TOTAL_KEY, k -> new HashMap<>())
+                    .computeIfAbsent(minute, k -> new HashMap<>()).merge(field, 1L, Long::sum);
+        }
+        keyCountMap.forEach((key, minuteCountMap) -> minuteCountMap.forEach((minute, countMap) -> {
+            List<Object> argList = new ArrayList<>();
+            argList.add(String.valueOf(minute));
+            argList.add(String.valueOf(TimeUnit.MINUTES.toSeconds(PENDING_EXPIRE_MINUTES)));
+            countMap.forEach((field, count) -> {
+                argList.add(field);
+                argList.add(String.valueOf(count));
+            });
+            stringRedisTemplate.execute(ACCUMULATE_SCRIPT, List.of(key, this.pendingKey(key, minute)), argList.toArray());
+        }));
+    }
+
+    /**
+     * 获取某一天各分类的日志数量
+     *
+     * @author jetox
+     * @date 2026/10/18 23:50
+     **/
+    public Map<String, Long> dayCategoryCount(DateTime date) {
+        String dayKey = DAY_KEY_PREFIX + DateUtil.formatDate(date);
+        Map<String, Long> fieldCountMap = this.read(dayKey);
+        if (fieldCountMap == null) {
+            QueryWrapper<DevLog> queryWrapper = new QueryWrapper<>();
+            queryWrapper.lambda().between(DevLog::getOpTime, DateUtil.beginOfDay(date), DateUtil.endOfDay(date));
+            fieldCountMap = this.rebuild(dayKey, queryWrapper, TimeUnit.DAYS.toSeconds(DAY_EXPIRE_DAYS));
+        }
+        return this.sumByCategory(fieldCountMap);
+    }
+
+    /**
+     * 获取全部日志各分类的数量，汇总缺失时只有一个调用方重建，其他调用方返回失效前的旧计数（首次建立时为空）
+     *
+     * @author jetox
+     * @date 2026/10/18 23:50
+     **/
+    public Map<String, Long> totalCategoryCount() {
+        Map<String, Long> fieldCountMap = this.read(TOTAL_KEY);
+        if (fieldCountMap == null) {
+            String lockKey = TOTAL_KEY + REBUILD_LOCK_KEY_SUFFIX;
+            String lockToken = IdUtil.fastSimpleUUID();
+            if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(lockKey, lockToken,
+                    PENDING_EXPIRE_MINUTES, TimeUnit.MINUTES))) {
+                try {
+                    fieldCountMap = this.rebuild(TOTAL_KEY, new QueryWrapper<>(), TOTAL_EXPIRE_SECONDS);
+                } finally {
+                    stringRedisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), lockToken);
+                }
+            } else {
+                fieldCountMap = this.readStale(TOTAL_KEY);
+            }
+        }
+        return this.sumByCategory(fieldCountMap);
+    }
+
+    /**
+     * 某一分类的日志被删除后清除汇总及分桶中该分类的计数，下次读取时重建
+     *
+     * @author jetox
+     * @date 2026/10/18 23:50
+     **/
+    public void invalidate(String category) {
+        List<String> keyList = new ArrayList<>();
+        DateTime today = DateTime.now();
+        for (int i = 0; i < DAY_EXPIRE_DAYS; i++) {
+            keyList.add(DAY_KEY_PREFIX + DateUtil.formatDate(DateUtil.offsetDay(today, -i)));
+        }
+        stringRedisTemplate.delete(keyList);
+        // 全部日志的汇总保留旧计数供重建期间读取，移除就绪字段后停止累加，下次读取时重建
+        stringRedisTemplate.opsForHash().delete(TOTAL_KEY, READY_FIELD);
+        keyList.add(TOTAL_KEY);
+        List<String> pendingKeyList = new ArrayList<>();
+        keyList.forEach(key -> pendingKeyList.addAll(this.pendingKeys(key, this.watermark())));
+        stringRedisTemplate.execute(REMOVE_CATEGORY_SCRIPT, pendingKeyList, this.field(category, ""));
+    }
+
+    private Map<String, Long> read(String key) {
+        Map<Object, Object> entryMap = stringRedisTemplate.opsForHash().entries(key);
+        if (!entryMap.containsKey(READY_FIELD)) {
+            return null;
+        }
+        return this.toFieldCountMap(entryMap);
+    }
+
+    /**
+     * 读取汇总中的计数，不要求已就绪，用于重建期间返回失效前的旧计数
+     */
+    private Map<String, Long> readStale(String key) {
+        return this.toFieldCountMap(stringRedisTemplate.opsForHash().entries(key));
+    }
+
+    private Map<String, Long> toFieldCountMap(Map<Object, Object> entryMap) {
+        Map<String, Long> fieldCountMap = new HashMap<>();
+        entryMap.forEach((field, count) -> fieldCountMap.put(Convert.toStr(field), Convert.toLong(count, 0L)));
+        return fieldCountMap;
+    }
+
+    /**
+     * 按分类与状态分组统计水位之前的日志写入临时键，合并水位之后的分桶后改名为正式键，保留秒数为0时不过期
+     *
+     * @author jetox
+     * @date 2026/10/18 23:50
+     **/
+    private Map<String, Long> rebuild(String key, QueryWrapper<DevLog> queryWrapper, long expireSeconds) {
+        long watermark = this.watermark();
+        Date watermarkTime = new Date(TimeUnit.MINUTES.toMillis(watermark));
+        queryWrapper.lambda().and(wrapper -> wrapper.lt(DevLog::getCreateTime, watermarkTime).or().isNull(DevLog::getCreateTime));
+        queryWrapper.select("CATEGORY", "EXE_STATUS", "COUNT(*) AS TOTAL").groupBy("CATEGORY", "EXE_STATUS");
+        Map<String, Long> fieldCountMap = new HashMap<>();
+        for (Map<String, Object> row : devLogMapper.selectMaps(queryWrapper)) {
+            Map<String, Object> upperRow = new HashMap<>();
+            row.forEach((column, value) -> upperRow.put(column.toUpperCase(), value));
+            fieldCountMap.merge(this.field(Convert.toStr(upperRow.get("CATEGORY")), Convert.toStr(upperRow.get("EXE_STATUS"))),
+                    Convert.toLong(upperRow.get("TOTAL"), 0L), Long::sum);
+        }
+        String rebuildKey = key + REBUILD_KEY_SUFFIX + IdUtil.fastSimpleUUID();
+        if (!fieldCountMap.isEmpty()) {
+            Map<String, String> hashMap = new HashMap<>();
+            fieldCountMap.forEach((field, count) -> hashMap.put(field, String.valueOf(count)));
+            stringRedisTemplate.opsForHash().putAll(rebuildKey, hashMap);
+            stringRedisTemplate.expire(rebuildKey, PENDING_EXPIRE_MINUTES, TimeUnit.MINUTES);
+        }
+        List<String> scriptKeyList = new ArrayList<>();
+        scriptKeyList.add(key);
+        scriptKeyList.add(rebuildKey);
+        scriptKeyList.addAll(this.pendingKeys(key, watermark));
+        Long installed = stringRedisTemplate.execute(INSTALL_SCRIPT, scriptKeyList, String.valueOf(watermark), String.valueOf(expireSeconds));
+        if (Long.valueOf(1).equals(installed)) {
+            log.info(">>> 日志统计汇总{}已按日志表重建，水位：{}", key, DateUtil.formatDateTime(watermarkTime));
+        }
+        // 读取合并分桶后的结果，期间被删除时返回本次统计值
+        return ObjectUtil.defaultIfNull(this.read(key), fieldCountMap);
+    }
+
+    /**
+     * 水位及之后直到当前时间（含时钟偏差）的分桶键
+     */
+    private List<String> pendingKeys(String key, long watermark) {
+        List<String> pendingKeyList = new ArrayList<>();
+        long lastMinute = this.minute(System.currentTimeMillis()) + CLOCK_SKEW_MINUTES;
+        for (long minute = watermark; minute <= lastMinute; minute++) {
+            pendingKeyList.add(this.pendingKey(key, minute));
+        }
+        return pendingKeyList;
+    }
+
+    private String pendingKey(String key, long minute) {
+        return key + PENDING_KEY_SUFFIX + minute;
+    }
+
+    private long watermark() {
+        return this.minute(System.currentTimeMillis()) - WATERMARK_LAG_MINUTES;
+    }
+
+    private long minute(long millis) {
+        return TimeUnit.MILLISECONDS.toMinutes(millis);
+    }
+
+    private Map<String, Long> sumByCategory(Map<String, Long> fieldCountMap) {
+        Map<String, Long> categoryCountMap = new HashMap<>();
+        fieldCountMap.forEach((field, count) -> {
+            if (!READY_FIELD.equals(field)) {
+                categoryCountMap.merge(field.substring(0, Math.max(field.indexOf(':'), 0)), count, Long::sum);
+            }
+        });
+        return categoryCountMap;
+    }
+
+    private String field(String category, String exeStatus) {
+        return ObjectUtil.defaultIfNull(category, "") + ":" + ObjectUtil.defaultIfNull(exeStatus, "");
+    }
+}
@@ -13,9 +13,9 @@
 package vip.xiaonuo.dev.modular.log.util;
 
 import cn.hutool.core.date.DateTime;
-import cn.hutool.core.exceptions.ExceptionUtil;
-import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.extra.spring.SpringUtil;
+import cn.hutool.json.JSONUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import org.aspectj.lang.JoinPoint;
 import vip.xiaonuo.common.annotation.CommonLog;
@@ -23,17 +23,22 @@ import vip.xiaonuo.common.util.*;
 import vip.xiaonuo.dev.modular.log.entity.DevLog;
 import vip.xiaonuo.dev.modular.log.enums.DevLogCategoryEnum;
 import vip.xiaonuo.dev.modular.log.enums.DevLogExeStatusEnum;
-import vip.xiaonuo.dev.modular.log.service.DevLogService;
+import vip.xiaonuo.dev.modular.log.writer.DevLogWriter;
 
 /**
  * 日志工具类
+ * 请求线程序列化参数与结果并截断到固定长度，队列中不持有请求对象与返回结果的引用，
+ * 异常堆栈生成、IP归属地查询、签名和入库由日志写入器批量完成
  *
  * @author xuyuxiang
  * @date 2022/9/2 15:26
  */
 public class DevLogUtil {
 
-    private static final DevLogService devLogService = SpringUtil.getBean(DevLogService.class);
+    /** 参数与结果JSON的最大长度 */
+    private static final int JSON_MAX_LENGTH = 10000;
+
+    private static final DevLogWriter devLogWriter = SpringUtil.getBean(DevLogWriter.class);
 
     /**
      * 记录操作日志
@@ -41,26 +46,23 @@ public class DevLogUtil {
      * @author xuyuxiang
      * @date 2022/9/2 15:31
      */
-    public static void executeOperationLog(CommonLog commonLog, String userName, JoinPoint joinPoint, String resultJson) {
+    public static void executeOperationLog(CommonLog commonLog, String userName, JoinPoint joinPoint, Object result) {
         HttpServletRequest request = CommonServletUtil.getRequest();
         String requestURI = request.getRequestURI();
         String method = request.getRequestURI();
         DevLog devLog = genBasOpLog();
-        ThreadUtil.execute(() -> {
-            devLog.setCategory(DevLogCategoryEnum.OPERATE.getValue());
-            devLog.setName(commonLog.value());
-            devLog.setExeStatus(DevLogExeStatusEnum.SUCCESS.getValue());
-            devLog.setClassName(joinPoint.getTarget().getClass().getName());
-            devLog.setMethodName(joinPoint.getSignature().getName());
-            devLog.setReqMethod(method);
-            devLog.setReqUrl(requestURI);
-            devLog.setParamJson(CommonJoinPointUtil.getArgsJsonString(joinPoint));
-            devLog.setResultJson(resultJson);
-            devLog.setOpTime(DateTime.now());
-            devLog.setOpUser(userName);
-            creatLogSignValue(devLog);
-            devLogService.save(devLog);
-        });
+        devLog.setCategory(DevLogCategoryEnum.OPERATE.getValue());
+        devLog.setName(commonLog.value());
+        devLog.setExeStatus(DevLogExeStatusEnum.SUCCESS.getValue());
+        devLog.setClassName(joinPoint.getTarget().getClass().getName());
+        devLog.setMethodName(joinPoint.getSignature().getName());
+        devLog.setReqMethod(method);
+        devLog.setReqUrl(requestURI);
+        devLog.setParamJson(StrUtil.maxLength(CommonJoinPointUtil.getArgsJsonString(joinPoint), JSON_MAX_LENGTH));
+        devLog.setResultJson(StrUtil.maxLength(JSONUtil.toJsonStr(result), JSON_MAX_LENGTH));
+        devLog.setOpTime(DateTime.now());
+        devLog.setOpUser(userName);
+        devLogWriter.submit(devLog);
     }
 
     /**
@@ -74,21 +76,17 @@ public class DevLogUtil {
         String requestURI = request.getRequestURI();
         String method = request.getRequestURI();
         DevLog devLog = genBasOpLog();
-        ThreadUtil.execute(() -> {
-            devLog.setCategory(DevLogCategoryEnum.EXCEPTION.getValue());
-            devLog.setName(commonLog.value());
-            devLog.setExeStatus(DevLogExeStatusEnum.FAIL.getValue());
-            devLog.setExeMessage(ExceptionUtil.stacktraceToString(exception, Integer.MAX_VALUE));
-            devLog.setClassName(joinPoint.getTarget().getClass().getName());
-            devLog.setMethodName(joinPoint.getSignature().getName());
-            devLog.setReqMethod(method);
-            devLog.setReqUrl(requestURI);
-            devLog.setParamJson(CommonJoinPointUtil.getArgsJsonString(joinPoint));
-            devLog.setOpTime(DateTime.now());
-            devLog.setOpUser(userName);
-            creatLogSignValue(devLog);
-            devLogService.save(devLog);
-        });
+        devLog.setCategory(DevLogCategoryEnum.EXCEPTION.getValue());
+        devLog.setName(commonLog.value());
+        devLog.setExeStatus(DevLogExeStatusEnum.FAIL.getValue());
+        devLog.setClassName(joinPoint.getTarget().getClass().getName());
+        devLog.setMethodName(joinPoint.getSignature().getName());
+        devLog.setReqMethod(method);
+        devLog.setReqUrl(requestURI);
+        devLog.setParamJson(StrUtil.maxLength(CommonJoinPointUtil.getArgsJsonString(joinPoint), JSON_MAX_LENGTH));
+        devLog.setOpTime(DateTime.now());
+        devLog.setOpUser(userName);
+        devLogWriter.submit(devLog, exception);
     }
 
     /**
@@ -99,15 +97,12 @@ public class DevLogUtil {
      */
     public static void executeLoginLog(String userName) {
         DevLog devLog = genBasOpLog();
-        ThreadUtil.execute(() -> {
-            devLog.setCategory(DevLogCategoryEnum.LOGIN.getValue());
-            devLog.setName("用户登录");
-            devLog.setExeStatus(DevLogExeStatusEnum.SUCCESS.getValue());
-            devLog.setOpTime(DateTime.now());
-            devLog.setOpUser(userName);
-            creatLogSignValue(devLog);
-            devLogService.save(devLog);
-        });
+        devLog.setCategory(DevLogCategoryEnum.LOGIN.getValue());
+        devLog.setName("用户登录");
+        devLog.setExeStatus(DevLogExeStatusEnum.SUCCESS.getValue());
+        devLog.setOpTime(DateTime.now());
+        devLog.setOpUser(userName);
+        devLogWriter.submit(devLog);
     }
 
     /**
@@ -118,39 +113,26 @@ public class DevLogUtil {
      */
     public static void executeLogoutLog(String userName) {
         DevLog devLog = genBasOpLog();
-        ThreadUtil.execute(() -> {
-            devLog.setCategory(DevLogCategoryEnum.LOGOUT.getValue());
-            devLog.setName("用户登出");
-            devLog.setExeStatus(DevLogExeStatusEnum.SUCCESS.getValue());
-            devLog.setOpTime(DateTime.now());
-            devLog.setOpUser(userName);
-            creatLogSignValue(devLog);
-            devLogService.save(devLog);
-        });
+        devLog.setCategory(DevLogCategoryEnum.LOGOUT.getValue());
+        devLog.setName("用户登出");
+        devLog.setExeStatus(DevLogExeStatusEnum.SUCCESS.getValue());
+        devLog.setOpTime(DateTime.now());
+        devLog.setOpUser(userName);
+        devLogWriter.submit(devLog);
     }
 
     /**
-     * 构建基础操作日志
+     * 构建基础操作日志，只采集必须在请求线程上读取的信息
      *
      * @author xuyuxiang
      * @date 2020/3/19 14:44
      */
     private static DevLog genBasOpLog() {
         HttpServletRequest request = CommonServletUtil.getRequest();
-        String ip = CommonIpAddressUtil.getIp(request);
         DevLog devLog = new DevLog();
         devLog.setOpIp(CommonIpAddressUtil.getIp(request));
-        devLog.setOpAddress(CommonIpAddressUtil.getCityInfo(ip));
         devLog.setOpBrowser(CommonUaUtil.getBrowser(request));
         devLog.setOpOs(CommonUaUtil.getOs(request));
         return devLog;
     }
-
-    /**
-     * 构建日志完整性保护签名数据
-     */
-    private static void creatLogSignValue (DevLog devLog) {
-        String logStr = devLog.toString().replaceAll(" +","");
-        devLog.setSignData(CommonCryptogramUtil.doSignature(logStr));
-    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.writer;
+
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.ReUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.Getter;
+import vip.xiaonuo.common.util.CommonCryptogramUtil;
+import vip.xiaonuo.dev.modular.log.entity.DevLog;
+
+import java.util.Date;
+
+/**
+ * 日志哈希链
+ * 每个节点一条链，签名数据格式为“节点id:序号:哈希”，批次最后一条再追加“.签名”；
+ * 序号固定19位补零，同一节点的签名数据按字符串排序即为链的顺序。
+ * 哈希为SM3(上一条哈希|序号|日志内容)，第一条的上一条哈希为节点的起始哈希，操作时间按整秒计入日志内容
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ **/
+public final class DevLogChain {
+
+    /** 节点id、序号与哈希的分隔符 */
+    public static final String SEPARATOR = ":";
+
+    private static final String GENESIS_PREFIX = "SNOWY-LOG-CHAIN" + SEPARATOR;
+
+    private DevLogChain() {
+    }
+
+    /**
+     * 规范化节点id，节点id用于签名数据的分隔与LIKE前缀查询，只保留字母、数字与短横线
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static String normalizeNodeId(String nodeId) {
+        return ReUtil.replaceAll(StrUtil.nullToEmpty(nodeId), "[^A-Za-z0-9\\-]", "-");
+    }
+
+    /**
+     * 节点的起始哈希
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static String genesis(String nodeId) {
+        return CommonCryptogramUtil.doHashValue(GENESIS_PREFIX + nodeId);
+    }
+
+    /**
+     * 把操作时间截断到秒，OP_TIME为datetime类型只保存整秒，入库前截断才能与读回的值一致
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static Date truncateOpTime(Date opTime) {
+        return ObjectUtil.isEmpty(opTime) ? opTime : new Date(Math.floorDiv(opTime.getTime(), 1000L) * 1000L);
+    }
+
+    /**
+     * 计算链上一条日志的哈希，操作时间按秒参与计算
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static String hash(String previousHash, long seq, DevLog devLog) {
+        String content = StrUtil.join("|", devLog.getCategory(), devLog.getName(), devLog.getExeStatus(),
+                devLog.getExeMessage(), devLog.getOpIp(), devLog.getOpAddress(), devLog.getOpBrowser(), devLog.getOpOs(),
+                devLog.getClassName(), devLog.getMethodName(), devLog.getReqMethod(), devLog.getReqUrl(),
+                devLog.getParamJson(), devLog.getResultJson(),
+                ObjectUtil.isNotEmpty(devLog.getOpTime()) ? Math.floorDiv(devLog.getOpTime().getTime(), 1000L) : null,
+                devLog.getOpUser());
+        return CommonCryptogramUtil.doHashValue(previousHash + "|" + seq + "|" + content);
+    }
+
+    /**
+     * 生成签名数据（不含签名）
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static String format(String nodeId, long seq, String hash) {
+        return nodeId + SEPARATOR + String.format("%019d", seq) + SEPARATOR + hash;
+    }
+
+    /**
+     * 同一节点签名数据的前缀，用于按节点查询
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static String prefix(String nodeId) {
+        return nodeId + SEPARATOR;
+    }
+
+    /**
+     * 解析签名数据，非哈希链格式时返回null
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public static Link parse(String signData) {
+        if (StrUtil.isBlank(signData)) {
+            return null;
+        }
+        int dotIndex = signData.indexOf(StrUtil.DOT);
+        String linkData = dotIndex < 0 ? signData : signData.substring(0, dotIndex);
+        String[] partArray = linkData.split(SEPARATOR);
+        if (partArray.length != 3 || partArray[1].length() != 19 || !StrUtil.isNumeric(partArray[1])) {
+            return null;
+        }
+        return new Link(partArray[0], Long.parseLong(partArray[1]), partArray[2], linkData,
+                dotIndex < 0 ? null : signData.substring(dotIndex + 1));
+    }
+
+    /**
+     * 链上的一条日志
+     */
+    @Getter
+    public static final class Link {
+
+        /** 节点id */
+        private final String nodeId;
+
+        /** 序号 */
+        private final long seq;
+
+        /** 哈希 */
+        private final String hash;
+
+        /** 签名数据中被签名的部分 */
+        private final String linkData;
+
+        /** 签名，非批次最后一条时为null */
+        private final String signature;
+
+        private Link(String nodeId, long seq, String hash, String linkData, String signature) {
+            this.nodeId = nodeId;
+            this.seq = seq;
+            this.hash = hash;
+            this.linkData = linkData;
+            this.signature = signature;
+        }
+    }
+}
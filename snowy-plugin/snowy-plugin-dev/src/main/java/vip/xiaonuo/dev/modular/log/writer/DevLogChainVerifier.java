@@ -0,0 +1,102 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.writer;
+
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.util.CommonCryptogramUtil;
+import vip.xiaonuo.dev.modular.log.entity.DevLog;
+import vip.xiaonuo.dev.modular.log.param.DevLogChainVerifyParam;
+import vip.xiaonuo.dev.modular.log.result.DevLogChainVerifyResult;
+import vip.xiaonuo.dev.modular.log.service.DevLogService;
+
+import java.util.List;
+
+/**
+ * 日志哈希链校验器
+ * 按序号分批读取节点的日志，逐条重算哈希并校验批次签名；序号缺失处无法得知上一条哈希，
+ * 记为缺失后以该条自身的哈希继续校验，使篡改可以定位到具体日志
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ **/
+@Component
+public class DevLogChainVerifier {
+
+    /** 每批读取条数 */
+    private static final int BATCH_SIZE = 500;
+
+    @Resource
+    private DevLogService devLogService;
+
+    @Resource
+    private DevLogWriter devLogWriter;
+
+    /**
+     * 校验节点的日志哈希链
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public DevLogChainVerifyResult verify(DevLogChainVerifyParam devLogChainVerifyParam) {
+        String nodeId = StrUtil.isBlank(devLogChainVerifyParam.getNodeId()) ? devLogWriter.getNodeId()
+                : DevLogChain.normalizeNodeId(devLogChainVerifyParam.getNodeId());
+        DevLogChainVerifyResult devLogChainVerifyResult = new DevLogChainVerifyResult();
+        devLogChainVerifyResult.setNodeId(nodeId);
+        long previousSeq = 0;
+        String previousHash = DevLogChain.genesis(nodeId);
+        String lastSignData = null;
+        while (true) {
+            LambdaQueryWrapper<DevLog> lambdaQueryWrapper = new LambdaQueryWrapper<DevLog>()
+                    .likeRight(DevLog::getSignData, DevLogChain.prefix(nodeId))
+                    .gt(ObjectUtil.isNotEmpty(lastSignData), DevLog::getSignData, lastSignData)
+                    .orderByAsc(DevLog::getSignData);
+            List<DevLog> devLogList = devLogService.page(new Page<>(1, BATCH_SIZE, false), lambdaQueryWrapper).getRecords();
+            for (DevLog devLog : devLogList) {
+                DevLogChain.Link link = DevLogChain.parse(devLog.getSignData());
+                if (link == null || !nodeId.equals(link.getNodeId())) {
+                    continue;
+                }
+                devLogChainVerifyResult.setCheckedCount(devLogChainVerifyResult.getCheckedCount() + 1);
+                if (link.getSeq() != previousSeq + 1) {
+                    devLogChainVerifyResult.setGapCount(devLogChainVerifyResult.getGapCount() + 1);
+                } else if (!DevLogChain.hash(previousHash, link.getSeq(), devLog).equals(link.getHash())) {
+                    devLogChainVerifyResult.setBrokenCount(devLogChainVerifyResult.getBrokenCount() + 1);
+                    this.markFirstBroken(devLogChainVerifyResult, devLog);
+                }
+                if (link.getSignature() != null && !CommonCryptogramUtil.doVerifySignature(link.getLinkData(), link.getSignature())) {
+                    devLogChainVerifyResult.setBadSignatureCount(devLogChainVerifyResult.getBadSignatureCount() + 1);
+                    this.markFirstBroken(devLogChainVerifyResult, devLog);
+                }
+                previousSeq = link.getSeq();
+                previousHash = link.getHash();
+            }
+            if (devLogList.size() < BATCH_SIZE) {
+                break;
+            }
+            lastSignData = devLogList.get(devLogList.size() - 1).getSignData();
+        }
+        devLogChainVerifyResult.setLastSeq(previousSeq);
+        return devLogChainVerifyResult;
+    }
+
+    private void markFirstBroken(DevLogChainVerifyResult devLogChainVerifyResult, DevLog devLog) {
+        if (devLogChainVerifyResult.getFirstBrokenId() == null) {
+            devLogChainVerifyResult.setFirstBrokenId(devLog.getId());
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.writer;
+
+import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.net.NetUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.util.CommonCryptogramUtil;
+import vip.xiaonuo.common.util.CommonIpAddressUtil;
+import vip.xiaonuo.dev.modular.log.entity.DevLog;
+import vip.xiaonuo.dev.modular.log.result.DevLogWriterStatResult;
+import vip.xiaonuo.dev.modular.log.service.DevLogService;
+import vip.xiaonuo.dev.modular.log.stat.DevLogStatRollup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 日志批量写入器
+ * 请求线程完成参数与结果序列化后把日志放入有界队列，队列已满时直接丢弃并计数，不阻塞请求；
+ * 单个写线程按数量或时间攒批，在写线程上生成异常堆栈、查询IP归属地，再批量入库并累加统计汇总。
+ * 完整性保护采用按节点的哈希链（见DevLogChain），链尾在首次写入前从数据库中本节点最后一条日志恢复，
+ * 只在批次入库成功后前移，入库失败时下次写入前重新从数据库恢复；
+ * 每批最后一条在签名数据后追加“.”与SM2签名，一批只做一次签名
+ *
+ * @author jetox
+ * @date 2026/10/18 23:45
+ **/
+@Slf4j
+@Component
+public class DevLogWriter {
+
+    /** 队列容量 */
+    private static final int QUEUE_CAPACITY = 10000;
+
+    /** 每批最多写入条数 */
+    private static final int BATCH_SIZE = 500;
+
+    /** 最长攒批时间 */
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+    /** 停机时等待写线程写完剩余日志的时间 */
+    private static final long SHUTDOWN_WAIT_MILLIS = 10000;
+
+    /** 异常堆栈最大长度 */
+    private static final int EXE_MESSAGE_MAX_LENGTH = 20000;
+
+    private final BlockingQueue<PendingLog> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /** 哈希链节点id */
+    private String nodeId;
+
+    /** 已入库的链尾序号，仅写线程访问 */
+    private long lastSeq;
+
+    /** 已入库的链尾哈希，仅写线程访问，为空时需从数据库恢复 */
+    private String lastHash;
+
+    private volatile boolean running = true;
+
+    private Thread writerThread;
+
+    @Resource
+    private DevLogService devLogService;
+
+    @Resource
+    private DevLogStatRollup devLogStatRollup;
+
+    @Resource
+    private DevLogProperties devLogProperties;
+
+    @Resource
+    private Environment environment;
+
+    @PostConstruct
+    public void init() {
+        nodeId = this.resolveNodeId();
+        writerThread = new Thread(this::run, "dev-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(SHUTDOWN_WAIT_MILLIS);
+    }
+
+    /**
+     * 提交日志，日志内容需已在请求线程上生成完毕，队列已满时丢弃
+     *
+     * @author jetox
+     * @date 2026/10/18 23:45
+     **/
+    public void submit(DevLog devLog) {
+        this.submit(devLog, null);
+    }
+
+    /**
+     * 提交异常日志，异常堆栈在写线程上生成
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public void submit(DevLog devLog, Throwable exception) {
+        if (running && queue.offer(new PendingLog(devLog, exception))) {
+            acceptedCount.incrementAndGet();
+            return;
+        }
+        long dropped = droppedCount.incrementAndGet();
+        // 按2的幂次输出告警，避免丢弃时刷屏
+        if ((dropped & (dropped - 1)) == 0) {
+            log.warn(">>> 日志队列已满，已累计丢弃{}条日志", dropped);
+        }
+    }
+
+    /**
+     * 获取本节点的哈希链节点id
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 获取写入器统计
+     *
+     * @author jetox
+     * @date 2026/10/18 23:45
+     **/
+    public DevLogWriterStatResult stat() {
+        DevLogWriterStatResult devLogWriterStatResult = new DevLogWriterStatResult();
+        devLogWriterStatResult.setQueueDepth(queue.size());
+        devLogWriterStatResult.setQueueCapacity(QUEUE_CAPACITY);
+        devLogWriterStatResult.setAcceptedCount(acceptedCount.get());
+        devLogWriterStatResult.setDroppedCount(droppedCount.get());
+        devLogWriterStatResult.setWrittenCount(writtenCount.get());
+        devLogWriterStatResult.setFailedCount(failedCount.get());
+        devLogWriterStatResult.setBatchCount(batchCount.get());
+        return devLogWriterStatResult;
+    }
+
+    private void run() {
+        List<PendingLog> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                long deadline = System.currentTimeMillis() + FLUSH_INTERVAL_MILLIS;
+                while (batch.size() < BATCH_SIZE) {
+                    long waitMillis = deadline - System.currentTimeMillis();
+                    if (waitMillis <= 0) {
+                        break;
+                    }
+                    PendingLog pendingLog = queue.poll(waitMillis, TimeUnit.MILLISECONDS);
+                    if (pendingLog == null) {
+                        break;
+                    }
+                    batch.add(pendingLog);
+                    queue.drainTo(batch, BATCH_SIZE - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // 停机时中断等待，写完剩余日志后退出
+                queue.drainTo(batch, BATCH_SIZE - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                this.flush(batch.stream().map(PendingLog::toDevLog).toList());
+                batch.clear();
+            }
+        }
+    }
+
+    void flush(List<DevLog> batch) {
+        if (lastHash == null) {
+            try {
+                this.loadChainTail();
+            } catch (Exception e) {
+                failedCount.addAndGet(batch.size());
+                log.error(">>> 恢复日志哈希链失败，丢弃{}条日志：", batch.size(), e);
+                return;
+            }
+        }
+        List<DevLog> devLogList = new ArrayList<>(batch.size());
+        long seq = lastSeq;
+        String hash = lastHash;
+        for (DevLog devLog : batch) {
+            try {
+                devLog.setOpAddress(this.resolveOpAddress(devLog.getOpIp()));
+                // 按入库后的精度计算哈希
+                devLog.setOpTime(DevLogChain.truncateOpTime(devLog.getOpTime()));
+                String nextHash = DevLogChain.hash(hash, seq + 1, devLog);
+                seq++;
+                hash = nextHash;
+                devLog.setSignData(DevLogChain.format(nodeId, seq, hash));
+                devLogList.add(devLog);
+            } catch (Exception e) {
+                failedCount.incrementAndGet();
+                log.error(">>> 生成日志失败：", e);
+            }
+        }
+        if (devLogList.isEmpty()) {
+            return;
+        }
+        DevLog tailLog = devLogList.get(devLogList.size() - 1);
+        tailLog.setSignData(tailLog.getSignData() + StrUtil.DOT + CommonCryptogramUtil.doSignature(tailLog.getSignData()));
+        // 统计汇总以创建时间为重建水位，在提交前统一设置
+        Date createTime = new Date();
+        devLogList.forEach(devLog -> devLog.setCreateTime(createTime));
+        try {
+            devLogService.saveBatch(devLogList, BATCH_SIZE);
+            writtenCount.addAndGet(devLogList.size());
+            batchCount.incrementAndGet();
+        } catch (Exception e) {
+            // 无法确定是否已提交，下次写入前从数据库恢复链尾
+            lastHash = null;
+            failedCount.addAndGet(devLogList.size());
+            log.error(">>> 批量写入日志失败，丢弃{}条日志：", devLogList.size(), e);
+            return;
+        }
+        lastSeq = seq;
+        lastHash = hash;
+        try {
+            devLogStatRollup.accumulate(devLogList);
+        } catch (Exception e) {
+            log.error(">>> 累加日志统计汇总失败：", e);
+        }
+    }
+
+    /**
+     * 从数据库中本节点最后一条日志恢复链尾，没有时从起始哈希开始
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    private void loadChainTail() {
+        List<DevLog> tailList = devLogService.page(new Page<>(1, 1, false), new LambdaQueryWrapper<DevLog>()
+                .select(DevLog::getSignData)
+                .likeRight(DevLog::getSignData, DevLogChain.prefix(nodeId))
+                .orderByDesc(DevLog::getSignData)).getRecords();
+        DevLogChain.Link link = tailList.isEmpty() ? null : DevLogChain.parse(tailList.get(0).getSignData());
+        lastSeq = link == null ? 0 : link.getSeq();
+        lastHash = link == null ? DevLogChain.genesis(nodeId) : link.getHash();
+    }
+
+    /**
+     * 解析操作地址，在写线程执行以免占用请求线程
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    String resolveOpAddress(String opIp) {
+        return CommonIpAddressUtil.getCityInfo(opIp);
+    }
+
+    private String resolveNodeId() {
+        String configNodeId = devLogProperties.getNodeId();
+        if (StrUtil.isBlank(configNodeId)) {
+            configNodeId = NetUtil.getLocalHostName() + "-" + environment.getProperty("server.port", "8080");
+        }
+        return DevLogChain.normalizeNodeId(configNodeId);
+    }
+
+    /**
+     * 队列中的日志，异常日志同时持有异常，出队后再生成堆栈
+     */
+    private record PendingLog(DevLog devLog, Throwable exception) {
+
+        DevLog toDevLog() {
+            if (exception != null) {
+                devLog.setExeMessage(ExceptionUtil.stacktraceToString(exception, EXE_MESSAGE_MAX_LENGTH));
+            }
+            return devLog;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.message.inbox;
+
+import cn.hutool.core.collection.CollStreamUtil;
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.annotation.Resource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vip.xiaonuo.dev.modular.message.entity.DevMessage;
+import vip.xiaonuo.dev.modular.message.mapper.DevMessageMapper;
+import vip.xiaonuo.dev.modular.relation.entity.DevRelation;
+import vip.xiaonuo.dev.modular.relation.enums.DevRelationCategoryEnum;
+import vip.xiaonuo.dev.modular.relation.service.DevRelationService;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 站内信收件箱索引
+ * 每个用户在Redis中维护按发送时间排序的收件箱有序集合（全部、按分类）以及未读有序集合，
+ * 分页按排名截取、未读数为集合基数，均与用户消息总量无关；站内信与用户关系表仍是数据来源，
+ * 索引缺失或过期时按关系表重建。每个集合以分数为0的占位成员标记已完整加载
+ *
+ * @author jetox
+ * @date 2026/10/18 23:00
+ **/
+@Component
+public class DevMessageInbox {
+
+    private static final String INBOX_KEY_PREFIX = "dev:message:inbox:";
+    private static final String UNREAD_KEY_PREFIX = "dev:message:unread:";
+    private static final String UNION_KEY_PREFIX = "dev:message:union:";
+
+    /** 多接收人分页的临时合并集合过期时间，正常情况下查询后立即删除 */
+    private static final long UNION_EXPIRE_SECONDS = 60;
+
+    /** 已加载占位成员，分数为0，排在所有消息之后 */
+    private static final String LOADED_MEMBER = "#";
+
+    /** 索引过期时间，发送消息时续期 */
+    private static final long EXPIRE_DAYS = 7;
+
+    /** 批量投递与重建时每批处理的数量 */
+    private static final int BATCH_SIZE = 1000;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private DevMessageMapper devMessageMapper;
+
+    @Resource
+    private DevRelationService devRelationService;
+
+    /**
+     * 获取用户未读数量
+     *
+     * @author jetox
+     * @date 2026/10/18 23:00
+     */
+    public long unreadCount(String userId) {
+        String unreadKey = UNREAD_KEY_PREFIX + userId;
+        this.ensureLoaded(userId, unreadKey, null);
+        return Math.max(Convert.toLong(stringRedisTemplate.opsForZSet().zCard(unreadKey), 0L) - 1, 0);
+    }
+
+    /**
+     * 获取用户最新的未读消息id，按发送时间倒序
+     *
+     * @author jetox
+     * @date 2026/10/18 23:00
+     */
+    public List<String> unreadMessageIdList(String userId, int limit) {
+        String unreadKey = UNREAD_KEY_PREFIX + userId;
+        this.ensureLoaded(userId, unreadKey, null);
+        return this.withoutLoadedMember(stringRedisTemplate.opsForZSet().reverseRange(unreadKey, 0, limit - 1));
+    }
+
+    /**
+     * 按页获取接收人的消息id，按发送时间倒序，多个接收人时合并去重
+     *
+     * @author jetox
+     * @date 2026/10/18 23:00
+     */
+    public Page<String> page(List<String> receiverIdList, String category, long current, long size) {
+        Page<String> page = new Page<>(current, size);
+        long start = (Math.max(current, 1) - 1) * size;
+        long end = start + size - 1;
+        if(receiverIdList.size() == 1) {
+            String inboxKey = this.inboxKey(receiverIdList.get(0), category);
+            this.ensureLoaded(receiverIdList.get(0), inboxKey, category);
+            page.setTotal(Math.max(Convert.toLong(stringRedisTemplate.opsForZSet().zCard(inboxKey), 0L) - 1, 0));
+            page.setRecords(this.withoutLoadedMember(stringRedisTemplate.opsForZSet().reverseRange(inboxKey, start, end)));
+            return page;
+        }
+        // 多个接收人：在Redis中合并为临时集合，同一消息只保留一次，总数与分页均基于合并后的集合
+        List<String> inboxKeyList = new ArrayList<>();
+        for(String receiverId : new LinkedHashSet<>(receiverIdList)) {
+            String inboxKey = this.inboxKey(receiverId, category);
+            this.ensureLoaded(receiverId, inboxKey, category);
+            inboxKeyList.add(inboxKey);
+        }
+        String unionKey = UNION_KEY_PREFIX + IdUtil.fastSimpleUUID();
+        try {
+            stringRedisTemplate.opsForZSet().unionAndStore(inboxKeyList.get(0), inboxKeyList.subList(1, inboxKeyList.size()),
+                    unionKey, Aggregate.MAX);
+            stringRedisTemplate.expire(unionKey, UNION_EXPIRE_SECONDS, TimeUnit.SECONDS);
+            page.setTotal(Math.max(Convert.toLong(stringRedisTemplate.opsForZSet().zCard(unionKey), 0L) - 1, 0));
+            page.setRecords(this.withoutLoadedMember(stringRedisTemplate.opsForZSet().reverseRange(unionKey, start, end)));
+        } finally {
+            stringRedisTemplate.delete(unionKey);
+        }
+        return page;
+    }
+
+    /**
+     * 获取给定消息中对任一接收人仍未读的消息id
+     *
+     * @author jetox
+     * @date 2026/10/18 23:00
+     */
+    public Set<String> unreadMessageIdSet(List<String> receiverIdList, List<String> messageIdList) {
+        Set<String> unreadMessageIdSet = new HashSet<>();
+        if(ObjectUtil.isEmpty(messageIdList)) {
+            return unreadMessageIdSet;
+        }
+        List<String> keyList = new ArrayList<>();
+        for(String receiverId : new LinkedHashSet<>(receiverIdList)) {
+            String unreadKey = UNREAD_KEY_PREFIX + receiverId;
+            this.ensureLoaded(receiverId, unreadKey, null);
+            keyList.add(unreadKey);
+        }
+        List<Object> scoreList = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for(String unreadKey : keyList) {
+                    for(String messageId : messageIdList) {
+                        operations.opsForZSet().score(unreadKey, messageId);
+                    }
+                }
+                return null;
+            }
+        });
+        for(int i = 0; i < scoreList.size(); i++) {
+            if(scoreList.get(i) != null) {
+                unreadMessageIdSet.add(messageIdList.get(i % messageIdList.size()));
+            }
+        }
+        return unreadMessageIdSet;
+    }
+
+    /**
+     * 投递消息到接收人收件箱，在事务中调用时于提交后分批流水线写入
+     *
+     * @author jetox
+     * @date 2026/10/18 23:00
+     */
+    public void deliver(String messageId, String category, Date createTime, List<String> receiverIdList) {
+        double score = this.score(createTime);
+        this.afterCommit(() -> {
+            for(List<String> receiverIdBatch : CollectionUtil.split(CollectionUtil.distinct(receiverIdList), BATCH_SIZE)) {
+                stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object execute(RedisOperations operations) throws DataAccessException {
+                        for(String receiverId : receiverIdBatch) {
+                            for(String key : List.of(INBOX_KEY_PREFIX + receiverId, inboxKey(receiverId, category),
+                                    UNREAD_KEY_PREFIX + receiverId)) {
+                                operations.opsForZSet().add(key, messageId, score);
+                                operations.expire(key, EXPIRE_DAYS, TimeUnit.DAYS);
+                            }
+                        }
+                        return null;
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 标记用户的消息已读
+     *
+     * @author jetox
+     * @date 2026/10/18 23:00
+     */
+    public void markRead(String userId, String messageId) {
+        this.afterCommit(() -> stringRedisTemplate.opsForZSet().remove(UNREAD_KEY_PREFIX + userId, messageId));
+    }
+
+    /**
+     * 标记用户的全部消息已读，保留占位成员
+     *
+     * @author jetox
+     * @date 2026/10/18 23:00
+     */
+    public void markAllRead(String userId) {
+        this.afterCommit(() -> stringRedisTemplate.opsForZSet().removeRangeByScore(UNREAD_KEY_PREFIX + userId,
+                Double.MIN_VALUE, Double.POSITIVE_INFINITY));
+    }
+
+    /**
+     * 从接收人收件箱中移除已删除的消息
+     *
+     * @author jetox
+     * @date 2026/10/18 23:00
+     */
+    public void remove(List<DevMessage> devMessageList, List<DevRelation> devRelationList) {
+        Map<String, String> categoryMap = CollStreamUtil.toMap(devMessageList, DevMessage::getId, DevMessage::getCategory);
+        this.afterCommit(() -> {
+            for(List<DevRelation> devRelationBatch : CollectionUtil.split(devRelationList, BATCH_SIZE)) {
+                stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object execute(RedisOperations operations) throws DataAccessException {
+                        for(DevRelation devRelation : devRelationBatch) {
+                            String receiverId = devRelation.getTargetId();
+                            String messageId = devRelation.getObjectId();
+                            operations.opsForZSet().remove(INBOX_KEY_PREFIX + receiverId, messageId);
+                            operations.opsForZSet().remove(UNREAD_KEY_PREFIX + receiverId, messageId);
+                            if(ObjectUtil.isNotEmpty(categoryMap.get(messageId))) {
+                                operations.opsForZSet().remove(inboxKey(receiverId, categoryMap.get(messageId)), messageId);
+                            }
+                        }
+                        return null;
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 集合未完整加载时按关系表重建该用户的全部集合，重建为合并写入，不会覆盖期间投递的消息
+     *
+     * @author jetox
+     * @date 2026/10/18 23:00
+     */
+    private void ensureLoaded(String userId, String key, String category) {
+        if(stringRedisTemplate.opsForZSet().score(key, LOADED_MEMBER) != null) {
+            return;
+        }
+        List<DevRelation> devRelationList = devRelationService.getRelationListByTargetIdAndCategory(userId,
+                DevRelationCategoryEnum.MSG_TO_USER.getValue());
+        Map<String, DevMessage> devMessageMap = new HashMap<>();
+        for(List<String> messageIdBatch : CollectionUtil.split(CollStreamUtil.toList(devRelationList, DevRelation::getObjectId), BATCH_SIZE)) {
+            devMessageMapper.selectList(new LambdaQueryWrapper<DevMessage>()
+                    .select(DevMessage::getId, DevMessage::getCategory, DevMessage::getCreateTime)
+                    .in(DevMessage::getId, messageIdBatch)).forEach(devMessage -> devMessageMap.put(devMessage.getId(), devMessage));
+        }
+        Map<String, Set<ZSetOperations.TypedTuple<String>>> keyTupleMap = new LinkedHashMap<>();
+        String inboxKey = INBOX_KEY_PREFIX + userId;
+        String unreadKey = UNREAD_KEY_PREFIX + userId;
+        keyTupleMap.put(inboxKey, new HashSet<>());
+        keyTupleMap.put(unreadKey, new HashSet<>());
+        if(ObjectUtil.isNotEmpty(category)) {
+            keyTupleMap.put(this.inboxKey(userId, category), new HashSet<>());
+        }
+        for(DevRelation devRelation : devRelationList) {
+            DevMessage devMessage = devMessageMap.get(devRelation.getObjectId());
+            if(devMessage == null) {
+                continue;
+            }
+            DefaultTypedTuple<String> tuple = new DefaultTypedTuple<>(devMessage.getId(), this.score(devMessage.getCreateTime()));
+            keyTupleMap.get(inboxKey).add(tuple);
+            if(ObjectUtil.isNotEmpty(devMessage.getCategory())) {
+                keyTupleMap.computeIfAbsent(this.inboxKey(userId, devMessage.getCategory()), k -> new HashSet<>()).add(tuple);
+            }
+            if(!ObjectUtil.defaultIfNull(JSONUtil.parseObj(devRelation.getExtJson()).getBool("read"), false)) {
+                keyTupleMap.get(unreadKey).add(tuple);
+            }
+        }
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                keyTupleMap.forEach((tupleKey, tupleSet) -> {
+                    for(List<ZSetOperations.TypedTuple<String>> tupleBatch : CollectionUtil.split(tupleSet, BATCH_SIZE)) {
+                        operations.opsForZSet().add(tupleKey, new HashSet<>(tupleBatch));
+                    }
+                    // 占位成员最后写入，未写完的集合不会被视为已加载
+                    operations.opsForZSet().add(tupleKey, LOADED_MEMBER, 0);
+                    operations.expire(tupleKey, EXPIRE_DAYS, TimeUnit.DAYS);
+                });
+                return null;
+            }
+        });
+    }
+
+    private String inboxKey(String userId, String category) {
+        return ObjectUtil.isEmpty(category) ? INBOX_KEY_PREFIX + userId : INBOX_KEY_PREFIX + userId + ":" + category;
+    }
+
+    private double score(Date createTime) {
+        return createTime == null ? System.currentTimeMillis() : Math.max(createTime.getTime(), 1);
+    }
+
+    private List<String> withoutLoadedMember(Set<String> memberSet) {
+        if(ObjectUtil.isEmpty(memberSet)) {
+            return CollectionUtil.newArrayList();
+        }
+        return memberSet.stream().filter(member -> !LOADED_MEMBER.equals(member)).toList();
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+        } else {
+            runnable.run();
+        }
+    }
+}
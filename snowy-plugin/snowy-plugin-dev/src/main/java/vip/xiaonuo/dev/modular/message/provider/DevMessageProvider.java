@@ -16,7 +16,6 @@ import cn.dev33.satoken.stp.StpUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
-import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
@@ -25,9 +24,6 @@ import vip.xiaonuo.dev.modular.message.param.DevMessageIdParam;
 import vip.xiaonuo.dev.modular.message.param.DevMessageListParam;
 import vip.xiaonuo.dev.modular.message.param.DevMessageSendParam;
 import vip.xiaonuo.dev.modular.message.service.DevMessageService;
-import vip.xiaonuo.dev.modular.relation.entity.DevRelation;
-import vip.xiaonuo.dev.modular.relation.enums.DevRelationCategoryEnum;
-import vip.xiaonuo.dev.modular.relation.service.DevRelationService;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -44,9 +40,6 @@ public class DevMessageProvider implements DevMessageApi {
     @Resource
     private DevMessageService devMessageService;
 
-    @Resource
-    private DevRelationService devRelationService;
-
     @Override
     public void sendMessage(List<String> receiverIdList, String subject) {
         this.sendMessage(receiverIdList, subject, null);
@@ -100,10 +93,6 @@ public class DevMessageProvider implements DevMessageApi {
     @Override
     public void allMessageMarkRead(){
         // 设置为已读
-        String myMessageExtJson = "{\"read\":true}";
-        devRelationService.update(new LambdaUpdateWrapper<DevRelation>()
-                .eq(DevRelation::getTargetId, StpUtil.getLoginIdAsString())
-                .eq(DevRelation::getCategory, DevRelationCategoryEnum.MSG_TO_USER.getValue())
-                .set(DevRelation::getExtJson, myMessageExtJson));
+        devMessageService.markAllRead(StpUtil.getLoginIdAsString());
     }
 }
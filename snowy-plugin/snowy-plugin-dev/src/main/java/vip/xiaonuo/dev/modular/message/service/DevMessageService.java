@@ -72,6 +72,14 @@ public interface DevMessageService extends IService<DevMessage> {
      */
     Long unreadCount(String loginId);
 
+    /**
+     * 将用户的站内信全部标记为已读
+     *
+     * @author jetox
+     * @date 2026/10/18 23:00
+     */
+    void markAllRead(String loginId);
+
     /**
      * 删除站内信
      *
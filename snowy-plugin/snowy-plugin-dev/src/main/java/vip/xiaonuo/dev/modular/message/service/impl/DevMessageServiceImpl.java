@@ -33,6 +33,7 @@ import vip.xiaonuo.common.enums.CommonSortOrderEnum;
 import vip.xiaonuo.common.exception.CommonException;
 import vip.xiaonuo.common.page.CommonPageRequest;
 import vip.xiaonuo.dev.modular.message.entity.DevMessage;
+import vip.xiaonuo.dev.modular.message.inbox.DevMessageInbox;
 import vip.xiaonuo.dev.modular.message.enums.DevMessageCategoryEnum;
 import vip.xiaonuo.dev.modular.message.mapper.DevMessageMapper;
 import vip.xiaonuo.dev.modular.message.param.DevMessageIdParam;
@@ -46,8 +47,7 @@ import vip.xiaonuo.dev.modular.relation.enums.DevRelationCategoryEnum;
 import vip.xiaonuo.dev.modular.relation.service.DevRelationService;
 import vip.xiaonuo.sys.api.SysUserApi;
 
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -65,6 +65,8 @@ public class DevMessageServiceImpl extends ServiceImpl<DevMessageMapper, DevMess
     @Resource
     private DevRelationService devRelationService;
 
+    @Resource
+    private DevMessageInbox devMessageInbox;
 
     @Transactional(rollbackFor = Exception.class)
     @Override
@@ -81,6 +83,8 @@ public class DevMessageServiceImpl extends ServiceImpl<DevMessageMapper, DevMess
                     .set("read", false))).collect(Collectors.toList());
             devRelationService.saveRelationBatchWithAppend(devMessage.getId(), receiverIdList,
                     DevRelationCategoryEnum.MSG_TO_USER.getValue(), extJsonList);
+            // 提交后批量投递到各接收人收件箱
+            devMessageInbox.deliver(devMessage.getId(), devMessage.getCategory(), devMessage.getCreateTime(), receiverIdList);
         }
     }
 
@@ -107,30 +111,22 @@ public class DevMessageServiceImpl extends ServiceImpl<DevMessageMapper, DevMess
     @Override
     public Page<JSONObject> page(List<String> receiverIdList, String category) {
         if(ObjectUtil.isNotEmpty(receiverIdList)) {
-            List<DevRelation> messageRelationList = devRelationService
-                    .getRelationListByTargetIdListAndCategory(receiverIdList, DevRelationCategoryEnum.MSG_TO_USER.getValue());
-            List<String> messageIdList = messageRelationList.stream().map(DevRelation::getObjectId).collect(Collectors.toList());
+            Page<DevMessage> defaultPage = CommonPageRequest.defaultPage();
+            // 按收件箱排名截取当前页的消息id，只查询当前页的站内信
+            Page<String> messageIdPage = devMessageInbox.page(receiverIdList, category, defaultPage.getCurrent(), defaultPage.getSize());
+            List<String> messageIdList = messageIdPage.getRecords();
+            Page<JSONObject> resultPage = new Page<>(messageIdPage.getCurrent(), messageIdPage.getSize(), messageIdPage.getTotal());
             if(ObjectUtil.isNotEmpty(messageIdList)) {
-                LambdaQueryWrapper<DevMessage> lambdaQueryWrapper = new LambdaQueryWrapper<>();
-                lambdaQueryWrapper.in(DevMessage::getId, messageIdList).orderByDesc(DevMessage::getCreateTime);
-                if(ObjectUtil.isNotEmpty(category)) {
-                    lambdaQueryWrapper.eq(DevMessage::getCategory, category);
-                }
-                Page<JSONObject> resultPage = new Page<>();
-                Page<DevMessage> devMessagePage = this.page(CommonPageRequest.defaultPage(), lambdaQueryWrapper);
-                BeanUtil.copyProperties(devMessagePage, resultPage);
-                List<String> relationMessageIdList = CollStreamUtil.toList(messageRelationList, DevRelation::getObjectId);
-                List<JSONObject> jsonObjectList = devMessagePage.getRecords().stream().map(obj -> {
+                Set<String> unreadMessageIdSet = devMessageInbox.unreadMessageIdSet(receiverIdList, messageIdList);
+                List<JSONObject> jsonObjectList = this.listByIdsInOrder(messageIdList).stream().map(obj -> {
                     JSONObject jsonObject = JSONUtil.parseObj(obj);
-                    jsonObject.set("read", JSONUtil.parseObj(messageRelationList.get(relationMessageIdList
-                            .indexOf(jsonObject.getStr("id"))).getExtJson()).getBool("read"));
+                    jsonObject.set("read", !unreadMessageIdSet.contains(obj.getId()));
                     return jsonObject;
                 }).collect(Collectors.toList());
                 CollectionUtil.sort(jsonObjectList, Comparator.comparingInt(jsonObject -> Convert.toInt(jsonObject.getBool("read"))));
                 resultPage.setRecords(jsonObjectList);
-                return resultPage;
             }
-            return CommonPageRequest.defaultPage();
+            return resultPage;
         }
         return CommonPageRequest.defaultPage();
     }
@@ -138,15 +134,16 @@ public class DevMessageServiceImpl extends ServiceImpl<DevMessageMapper, DevMess
     @Override
     public List<DevMessage> list(DevMessageListParam devMessageListParam) {
         if(ObjectUtil.isNotEmpty(devMessageListParam.getReceiverIdList())) {
-            List<String> messageIdList = devRelationService
-                    .getRelationListByTargetIdListAndCategory(devMessageListParam.getReceiverIdList(),
-                    DevRelationCategoryEnum.MSG_TO_USER.getValue()).stream().filter(devRelation -> JSONUtil
-                            .parseObj(devRelation.getExtJson()).getBool("read").equals(false))
-                    .map(DevRelation::getObjectId).collect(Collectors.toList());
+            int limit = ObjectUtil.isNotEmpty(devMessageListParam.getLimit()) ? devMessageListParam.getLimit() :
+                    (int) CommonPageRequest.defaultPage().getSize();
+            // 合并各接收人最新的未读消息id，按发送时间倒序取前limit条
+            List<String> messageIdList = devMessageListParam.getReceiverIdList().stream().distinct()
+                    .flatMap(receiverId -> devMessageInbox.unreadMessageIdList(receiverId, limit).stream())
+                    .distinct().collect(Collectors.toList());
             if(ObjectUtil.isNotEmpty(messageIdList)) {
-                LambdaQueryWrapper<DevMessage> lambdaQueryWrapper = new LambdaQueryWrapper<>();
-                lambdaQueryWrapper.in(DevMessage::getId, messageIdList).orderByDesc(DevMessage::getCreateTime);
-                return this.page(CommonPageRequest.defaultPage(),lambdaQueryWrapper).getRecords();
+                return this.listByIdsInOrder(messageIdList).stream()
+                        .sorted(Comparator.comparing(DevMessage::getCreateTime, Comparator.nullsLast(Comparator.reverseOrder())))
+                        .limit(limit).collect(Collectors.toList());
             }
             return CollectionUtil.newArrayList();
         }
@@ -155,9 +152,17 @@ public class DevMessageServiceImpl extends ServiceImpl<DevMessageMapper, DevMess
 
     @Override
     public Long unreadCount(String loginId){
-        return devRelationService.getRelationListByTargetIdAndCategory(loginId,
-                DevRelationCategoryEnum.MSG_TO_USER.getValue()).stream().filter(devRelation -> JSONUtil
-                .parseObj(devRelation.getExtJson()).getBool("read").equals(false)).count();
+        return devMessageInbox.unreadCount(loginId);
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void markAllRead(String loginId) {
+        devRelationService.update(new LambdaUpdateWrapper<DevRelation>()
+                .eq(DevRelation::getTargetId, loginId)
+                .eq(DevRelation::getCategory, DevRelationCategoryEnum.MSG_TO_USER.getValue())
+                .set(DevRelation::getExtJson, JSONUtil.toJsonStr(JSONUtil.createObj().set("read", true))));
+        devMessageInbox.markAllRead(loginId);
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -165,6 +170,13 @@ public class DevMessageServiceImpl extends ServiceImpl<DevMessageMapper, DevMess
     public void delete(List<DevMessageIdParam> devMessageIdParamList) {
         List<String> devMessageIdList = CollStreamUtil.toList(devMessageIdParamList, DevMessageIdParam::getId);
         if(ObjectUtil.isNotEmpty(devMessageIdList)) {
+            // 记录接收人，提交后从各收件箱移除
+            List<DevMessage> devMessageList = this.listByIds(devMessageIdList);
+            List<DevRelation> devRelationList = devRelationService.list(new LambdaQueryWrapper<DevRelation>()
+                    .select(DevRelation::getObjectId, DevRelation::getTargetId)
+                    .eq(DevRelation::getCategory, DevRelationCategoryEnum.MSG_TO_USER.getValue())
+                    .in(DevRelation::getObjectId, devMessageIdList));
+            devMessageInbox.remove(devMessageList, devRelationList);
             // 清除站内信与用户关联关系
             devRelationService.remove(new LambdaUpdateWrapper<DevRelation>().eq(DevRelation::getCategory, DevRelationCategoryEnum.MSG_TO_USER.getValue())
                     .in(DevRelation::getObjectId, devMessageIdList));
@@ -182,21 +194,24 @@ public class DevMessageServiceImpl extends ServiceImpl<DevMessageMapper, DevMess
         DevRelation myMessage = devRelationService.getOne(new LambdaQueryWrapper<DevRelation>()
                 .eq(DevRelation::getObjectId, devMessage.getId()).eq(DevRelation::getTargetId, StpUtil.getLoginIdAsString())
                 .eq(DevRelation::getCategory, DevRelationCategoryEnum.MSG_TO_USER.getValue()));
-        if(ObjectUtil.isNotEmpty(myMessage)) {
-            // 设置为已读
+        if(ObjectUtil.isNotEmpty(myMessage) && !ObjectUtil.defaultIfNull(JSONUtil.parseObj(myMessage.getExtJson()).getBool("read"), false)) {
+            // 设置为已读，已读的不再重复更新
             String myMessageExtJson = JSONUtil.toJsonStr(JSONUtil.parseObj(myMessage.getExtJson()).set("read", true));
             devRelationService.update(new LambdaUpdateWrapper<DevRelation>()
                     .eq(DevRelation::getObjectId, devMessage.getId()).eq(DevRelation::getTargetId, StpUtil.getLoginIdAsString())
                     .eq(DevRelation::getCategory, DevRelationCategoryEnum.MSG_TO_USER.getValue()).set(DevRelation::getExtJson, myMessageExtJson));
+            devMessageInbox.markRead(StpUtil.getLoginIdAsString(), devMessage.getId());
         }
-        List<DevMessageResult.DevReceiveInfo> receiveInfoList = devRelationService.getRelationListByObjectIdAndCategory(devMessage.getId(),
-                DevRelationCategoryEnum.MSG_TO_USER.getValue()).stream().map(devRelation -> {
+        List<DevRelation> receiveRelationList = devRelationService.getRelationListByObjectIdAndCategory(devMessage.getId(),
+                DevRelationCategoryEnum.MSG_TO_USER.getValue());
+        // 接收人姓名分批一次查出，不再逐个查询用户
+        Map<String, String> userNameMap = new HashMap<>();
+        CollectionUtil.split(CollStreamUtil.toList(receiveRelationList, DevRelation::getTargetId), 1000).forEach(userIdList ->
+                sysUserApi.getUserListByIdListWithoutException(userIdList).forEach(userObj ->
+                        userNameMap.put(userObj.getStr("id"), userObj.getStr("name"))));
+        List<DevMessageResult.DevReceiveInfo> receiveInfoList = receiveRelationList.stream().map(devRelation -> {
             DevMessageResult.DevReceiveInfo devReceiveInfo = new DevMessageResult.DevReceiveInfo();
-            JSONObject userObj = sysUserApi.getUserByIdWithException(devRelation.getTargetId());
-            String userName = "未知用户";
-            if(ObjectUtil.isNotEmpty(userObj)) {
-                userName = userObj.getStr("name");
-            }
+            String userName = userNameMap.getOrDefault(devRelation.getTargetId(), "未知用户");
             devReceiveInfo.setReceiveUserId(devRelation.getTargetId());
             devReceiveInfo.setReceiveUserName(userName);
             devReceiveInfo.setRead(JSONUtil.parseObj(devRelation.getExtJson()).getBool("read"));
@@ -206,6 +221,17 @@ public class DevMessageServiceImpl extends ServiceImpl<DevMessageMapper, DevMess
         return devMessageResult;
     }
 
+    /**
+     * 按id查询站内信并保持id的顺序
+     *
+     * @author jetox
+     * @date 2026/10/18 23:00
+     */
+    private List<DevMessage> listByIdsInOrder(List<String> messageIdList) {
+        Map<String, DevMessage> devMessageMap = CollStreamUtil.toIdentityMap(this.listByIds(messageIdList), DevMessage::getId);
+        return messageIdList.stream().map(devMessageMap::get).filter(ObjectUtil::isNotEmpty).collect(Collectors.toList());
+    }
+
     @Override
     public DevMessage queryEntity(String id) {
         DevMessage devMessage = this.getById(id);
@@ -21,6 +21,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 import vip.xiaonuo.common.pojo.CommonResult;
+import vip.xiaonuo.dev.modular.monitor.result.DevMonitorCacheResult;
 import vip.xiaonuo.dev.modular.monitor.result.DevMonitorServerResult;
 import vip.xiaonuo.dev.modular.monitor.service.DevMonitorService;
 
@@ -64,4 +65,17 @@ public class DevMonitorController {
     public CommonResult<DevMonitorServerResult> networkInfo() {
         return CommonResult.data(devMonitorService.networkInfo());
     }
+
+    /**
+     * 获取本地缓存统计
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    @ApiOperationSupport(order = 3)
+    @Operation(summary = "获取本地缓存统计")
+    @GetMapping("/dev/monitor/cacheInfo")
+    public CommonResult<DevMonitorCacheResult> cacheInfo() {
+        return CommonResult.data(devMonitorService.cacheInfo());
+    }
 }
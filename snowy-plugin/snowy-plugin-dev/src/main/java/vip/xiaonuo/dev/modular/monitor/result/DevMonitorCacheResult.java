@@ -0,0 +1,52 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.monitor.result;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 本地缓存监控结果
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+@Getter
+@Setter
+public class DevMonitorCacheResult {
+
+    /** 当前数量（估算值） */
+    @Schema(description = "当前数量（估算值）")
+    private Long size;
+
+    /** 命中次数 */
+    @Schema(description = "命中次数")
+    private Long hitCount;
+
+    /** 未命中次数 */
+    @Schema(description = "未命中次数")
+    private Long missCount;
+
+    /** 命中率 */
+    @Schema(description = "命中率")
+    private Double hitRate;
+
+    /** 淘汰次数 */
+    @Schema(description = "淘汰次数")
+    private Long evictionCount;
+
+    /** 平均加载耗时（纳秒） */
+    @Schema(description = "平均加载耗时（纳秒）")
+    private Double averageLoadPenalty;
+}
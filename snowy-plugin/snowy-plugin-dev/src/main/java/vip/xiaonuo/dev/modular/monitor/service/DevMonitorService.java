@@ -12,6 +12,7 @@
  */
 package vip.xiaonuo.dev.modular.monitor.service;
 
+import vip.xiaonuo.dev.modular.monitor.result.DevMonitorCacheResult;
 import vip.xiaonuo.dev.modular.monitor.result.DevMonitorServerResult;
 
 /**
@@ -37,4 +38,12 @@ public interface DevMonitorService {
      * @date 2023/7/27
      */
     DevMonitorServerResult networkInfo();
+
+    /**
+     * 获取本节点本地缓存统计
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    DevMonitorCacheResult cacheInfo();
 }
@@ -22,6 +22,8 @@ import cn.hutool.system.JvmInfo;
 import cn.hutool.system.OsInfo;
 import cn.hutool.system.RuntimeInfo;
 import cn.hutool.system.SystemUtil;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import oshi.SystemInfo;
 import oshi.hardware.CentralProcessor;
@@ -30,7 +32,9 @@ import oshi.hardware.HardwareAbstractionLayer;
 import oshi.software.os.FileSystem;
 import oshi.software.os.OperatingSystem;
 import oshi.util.Util;
+import vip.xiaonuo.common.cache.CommonCacheOperator;
 import vip.xiaonuo.common.util.CommonNetWorkInfoUtil;
+import vip.xiaonuo.dev.modular.monitor.result.DevMonitorCacheResult;
 import vip.xiaonuo.dev.modular.monitor.result.DevMonitorServerResult;
 import vip.xiaonuo.dev.modular.monitor.service.DevMonitorService;
 
@@ -49,6 +53,9 @@ import java.util.concurrent.atomic.AtomicLong;
 @Service
 public class DevMonitorServiceImpl implements DevMonitorService {
 
+    @Resource
+    private CommonCacheOperator commonCacheOperator;
+
     @Override
     public DevMonitorServerResult serverInfo() {
         DevMonitorServerResult devMonitorServerResult = new DevMonitorServerResult();
@@ -171,4 +178,17 @@ public class DevMonitorServiceImpl implements DevMonitorService {
         devMonitorServerResult.setDevMonitorNetworkInfo(devMonitorNetworkInfo);
         return devMonitorServerResult;
     }
+
+    @Override
+    public DevMonitorCacheResult cacheInfo() {
+        CacheStats cacheStats = commonCacheOperator.getLocalCacheStats();
+        DevMonitorCacheResult devMonitorCacheResult = new DevMonitorCacheResult();
+        devMonitorCacheResult.setSize(commonCacheOperator.getLocalCacheSize());
+        devMonitorCacheResult.setHitCount(cacheStats.hitCount());
+        devMonitorCacheResult.setMissCount(cacheStats.missCount());
+        devMonitorCacheResult.setHitRate(cacheStats.hitRate());
+        devMonitorCacheResult.setEvictionCount(cacheStats.evictionCount());
+        devMonitorCacheResult.setAverageLoadPenalty(cacheStats.averageLoadPenalty());
+        return devMonitorCacheResult;
+    }
 }
@@ -13,6 +13,7 @@
 package vip.xiaonuo.dev.modular.relation.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import vip.xiaonuo.common.cache.CommonRelationRecord;
 import vip.xiaonuo.dev.modular.relation.entity.DevRelation;
 
 import java.util.List;
@@ -121,6 +122,14 @@ public interface DevRelationService extends IService<DevRelation> {
      */
     List<DevRelation> getRelationListByObjectIdListAndCategory(List<String> objectIdList, String category);
 
+    /**
+     * 根据对象id和关系分类获取关系记录列表，扩展信息已解析，缓存的分类直接从关系图读取
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     */
+    List<CommonRelationRecord> getRelationRecordListByObjectIdAndCategory(String objectId, String category);
+
     /**
      * 根据目标id获取关系列表
      *
@@ -12,17 +12,28 @@
  */
 package vip.xiaonuo.dev.modular.relation.service.impl;
 
+import cn.hutool.core.collection.CollStreamUtil;
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.util.ObjectUtil;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vip.xiaonuo.common.cache.CommonRelationGraphCache;
+import vip.xiaonuo.common.cache.CommonRelationGraphCenter;
+import vip.xiaonuo.common.cache.CommonRelationRecord;
 import vip.xiaonuo.dev.modular.relation.entity.DevRelation;
+import vip.xiaonuo.dev.modular.relation.enums.DevRelationCategoryEnum;
 import vip.xiaonuo.dev.modular.relation.mapper.DevRelationMapper;
 import vip.xiaonuo.dev.modular.relation.service.DevRelationService;
 
+import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -34,11 +45,76 @@ import java.util.stream.Collectors;
 @Service
 public class DevRelationServiceImpl extends ServiceImpl<DevRelationMapper, DevRelation> implements DevRelationService {
 
+    /** 由关系图缓存提供的分类，站内信与用户关系随消息数量持续增长，不缓存 */
+    private static final Set<String> CACHED_CATEGORY_SET = Set.of(
+            DevRelationCategoryEnum.FILE_TO_BIZ_DEFAULT.getValue());
+
+    @Resource
+    private CommonRelationGraphCenter commonRelationGraphCenter;
+
+    private CommonRelationGraphCache relationGraphCache;
+
+    @PostConstruct
+    public void init() {
+        relationGraphCache = commonRelationGraphCenter.register("DEV_RELATION", CACHED_CATEGORY_SET, category ->
+                CollStreamUtil.toList(this.list(new LambdaQueryWrapper<DevRelation>().eq(DevRelation::getCategory, category)),
+                        this::toRecord));
+    }
+
+    /* ====关系写入时维护关系图，删除与更新前先查询受影响关系的分类，按分类失效==== */
+
+    @Override
+    public boolean save(DevRelation entity) {
+        boolean result = super.save(entity);
+        this.afterRelationSave(null, entity.getCategory(), CollectionUtil.newArrayList(entity));
+        return result;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public boolean saveBatch(Collection<DevRelation> entityList, int batchSize) {
+        boolean result = super.saveBatch(entityList, batchSize);
+        relationGraphCache.append(CollStreamUtil.toList(entityList, this::toRecord));
+        return result;
+    }
+
+    @Override
+    public boolean remove(Wrapper<DevRelation> queryWrapper) {
+        Set<String> categorySet = CollStreamUtil.toSet(this.list(queryWrapper), DevRelation::getCategory);
+        boolean result = super.remove(queryWrapper);
+        relationGraphCache.invalidate(categorySet);
+        return result;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<?> list) {
+        if(ObjectUtil.isEmpty(list)) {
+            return false;
+        }
+        Set<String> categorySet = CollStreamUtil.toSet(this.listByIds(CollStreamUtil.toList(list, id -> (Serializable) id)),
+                DevRelation::getCategory);
+        boolean result = super.removeByIds(list);
+        relationGraphCache.invalidate(categorySet);
+        return result;
+    }
+
+    @Override
+    public boolean update(DevRelation entity, Wrapper<DevRelation> updateWrapper) {
+        Set<String> categorySet = CollStreamUtil.toSet(this.list(updateWrapper), DevRelation::getCategory);
+        // 更新为其他分类时，新分类同样受影响
+        if(ObjectUtil.isNotEmpty(entity) && ObjectUtil.isNotEmpty(entity.getCategory())) {
+            categorySet.add(entity.getCategory());
+        }
+        boolean result = super.update(entity, updateWrapper);
+        relationGraphCache.invalidate(categorySet);
+        return result;
+    }
+
     @Transactional(rollbackFor = Exception.class)
     public void saveRelation(String objectId, String targetId, String category, String extJson, boolean clear) {
-        // 是否需要先删除关系
+        // 是否需要先删除关系，删除条件已知，直接删除后按对象与分类写入关系图
         if(clear) {
-            this.remove(new LambdaQueryWrapper<DevRelation>().eq(DevRelation::getObjectId, objectId)
+            this.getBaseMapper().delete(new LambdaQueryWrapper<DevRelation>().eq(DevRelation::getObjectId, objectId)
                     .eq(DevRelation::getCategory, category));
         }
         DevRelation devRelation = new DevRelation();
@@ -46,14 +122,15 @@ public class DevRelationServiceImpl extends ServiceImpl<DevRelationMapper, DevRe
         devRelation.setTargetId(targetId);
         devRelation.setCategory(category);
         devRelation.setExtJson(extJson);
-        this.save(devRelation);
+        super.save(devRelation);
+        this.afterRelationSave(clear ? objectId : null, category, CollectionUtil.newArrayList(devRelation));
     }
 
     @Transactional(rollbackFor = Exception.class)
     public void saveRelationBatch(String objectId, List<String> targetIdList, String category, List<String> extJsonList, boolean clear) {
-        // 是否需要先删除关系
+        // 是否需要先删除关系，删除条件已知，直接删除后按对象与分类写入关系图
         if(clear) {
-            this.remove(new LambdaQueryWrapper<DevRelation>().eq(DevRelation::getObjectId, objectId)
+            this.getBaseMapper().delete(new LambdaQueryWrapper<DevRelation>().eq(DevRelation::getObjectId, objectId)
                     .eq(DevRelation::getCategory, category));
         }
         List<DevRelation> devRelationList = CollectionUtil.newArrayList();
@@ -68,10 +145,41 @@ public class DevRelationServiceImpl extends ServiceImpl<DevRelationMapper, DevRe
             devRelationList.add(devRelation);
         }
         if(ObjectUtil.isNotEmpty(devRelationList)) {
-            this.saveBatch(devRelationList);
+            super.saveBatch(devRelationList, DEFAULT_BATCH_SIZE);
+        }
+        this.afterRelationSave(clear ? objectId : null, category, devRelationList);
+    }
+
+    /**
+     * 关系保存后写入关系图，clearObjectId不为空时替换该对象在该分类下的全部关系
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     */
+    private void afterRelationSave(String clearObjectId, String category, List<DevRelation> devRelationList) {
+        List<CommonRelationRecord> recordList = CollStreamUtil.toList(devRelationList, this::toRecord);
+        if(ObjectUtil.isNotEmpty(clearObjectId)) {
+            relationGraphCache.replace(clearObjectId, category, recordList);
+        } else {
+            relationGraphCache.append(recordList);
         }
     }
 
+    private CommonRelationRecord toRecord(DevRelation devRelation) {
+        return new CommonRelationRecord(devRelation.getId(), devRelation.getObjectId(), devRelation.getTargetId(),
+                devRelation.getCategory(), devRelation.getExtJson());
+    }
+
+    private DevRelation toEntity(CommonRelationRecord commonRelationRecord) {
+        DevRelation devRelation = new DevRelation();
+        devRelation.setId(commonRelationRecord.getId());
+        devRelation.setObjectId(commonRelationRecord.getObjectId());
+        devRelation.setTargetId(commonRelationRecord.getTargetId());
+        devRelation.setCategory(commonRelationRecord.getCategory());
+        devRelation.setExtJson(commonRelationRecord.getExtJson());
+        return devRelation;
+    }
+
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void saveRelationWithAppend(String objectId, String targetId, String category) {
@@ -132,6 +240,9 @@ public class DevRelationServiceImpl extends ServiceImpl<DevRelationMapper, DevRe
 
     @Override
     public List<DevRelation> getRelationListByObjectIdAndCategory(String objectId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByObjectId(objectId, category), this::toEntity);
+        }
         LambdaQueryWrapper<DevRelation> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         lambdaQueryWrapper.eq(DevRelation::getObjectId, objectId);
         if(ObjectUtil.isNotEmpty(category)) {
@@ -142,6 +253,9 @@ public class DevRelationServiceImpl extends ServiceImpl<DevRelationMapper, DevRe
 
     @Override
     public List<DevRelation> getRelationListByObjectIdListAndCategory(List<String> objectIdList, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByObjectIdList(objectIdList, category), this::toEntity);
+        }
         LambdaQueryWrapper<DevRelation> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         lambdaQueryWrapper.in(DevRelation::getObjectId, objectIdList);
         if(ObjectUtil.isNotEmpty(category)) {
@@ -150,6 +264,14 @@ public class DevRelationServiceImpl extends ServiceImpl<DevRelationMapper, DevRe
         return this.list(lambdaQueryWrapper);
     }
 
+    @Override
+    public List<CommonRelationRecord> getRelationRecordListByObjectIdAndCategory(String objectId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return relationGraphCache.getByObjectId(objectId, category);
+        }
+        return CollStreamUtil.toList(this.getRelationListByObjectIdAndCategory(objectId, category), this::toRecord);
+    }
+
     @Override
     public List<DevRelation> getRelationListByTargetId(String targetId) {
         return this.getRelationListByTargetIdAndCategory(targetId, null);
@@ -162,6 +284,9 @@ public class DevRelationServiceImpl extends ServiceImpl<DevRelationMapper, DevRe
 
     @Override
     public List<DevRelation> getRelationListByTargetIdAndCategory(String targetId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByTargetId(targetId, category), this::toEntity);
+        }
         LambdaQueryWrapper<DevRelation> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         lambdaQueryWrapper.eq(DevRelation::getTargetId, targetId);
         if(ObjectUtil.isNotEmpty(category)) {
@@ -172,6 +297,9 @@ public class DevRelationServiceImpl extends ServiceImpl<DevRelationMapper, DevRe
 
     @Override
     public List<DevRelation> getRelationListByTargetIdListAndCategory(List<String> targetIdList, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByTargetIdList(targetIdList, category), this::toEntity);
+        }
         LambdaQueryWrapper<DevRelation> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         lambdaQueryWrapper.in(DevRelation::getTargetId, targetIdList);
         if(ObjectUtil.isNotEmpty(category)) {
@@ -192,12 +320,18 @@ public class DevRelationServiceImpl extends ServiceImpl<DevRelationMapper, DevRe
 
     @Override
     public List<String> getRelationTargetIdListByObjectIdAndCategory(String objectId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByObjectId(objectId, category), CommonRelationRecord::getTargetId);
+        }
         return this.getRelationListByObjectIdAndCategory(objectId, category).stream()
                 .map(DevRelation::getTargetId).collect(Collectors.toList());
     }
 
     @Override
     public List<String> getRelationTargetIdListByObjectIdListAndCategory(List<String> objectIdList, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByObjectIdList(objectIdList, category), CommonRelationRecord::getTargetId);
+        }
         return this.getRelationListByObjectIdListAndCategory(objectIdList, category).stream()
                 .map(DevRelation::getTargetId).collect(Collectors.toList());
     }
@@ -214,12 +348,18 @@ public class DevRelationServiceImpl extends ServiceImpl<DevRelationMapper, DevRe
 
     @Override
     public List<String> getRelationObjectIdListByTargetIdAndCategory(String targetId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByTargetId(targetId, category), CommonRelationRecord::getObjectId);
+        }
         return this.getRelationListByTargetIdAndCategory(targetId, category).stream()
                 .map(DevRelation::getObjectId).collect(Collectors.toList());
     }
 
     @Override
     public List<String> getRelationObjectIdListByTargetIdListAndCategory(List<String> targetIdList, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByTargetIdList(targetIdList, category), CommonRelationRecord::getObjectId);
+        }
         return this.getRelationListByTargetIdListAndCategory(targetIdList, category).stream()
                 .map(DevRelation::getObjectId).collect(Collectors.toList());
     }
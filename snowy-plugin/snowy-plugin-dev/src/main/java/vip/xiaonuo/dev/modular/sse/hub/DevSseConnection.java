@@ -0,0 +1,145 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.sse.hub;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SSE连接，持有有界发送队列，同一连接同一时刻只有一个写线程在发送，保证消息顺序；
+ * 记录当前发送的开始时间与队列持续写满的起始时间，供连接中心剔除卡住或消费过慢的连接
+ *
+ * @author jetox
+ * @date 2026/10/18 23:30
+ **/
+@Getter
+public class DevSseConnection {
+
+    /** 发送队列容量，写满后丢弃最早的消息 */
+    private static final int QUEUE_CAPACITY = 64;
+
+    private final String clientId;
+
+    private final String loginId;
+
+    private final SseEmitter sseEmitter;
+
+    /** 心跳任务，为空表示不发送心跳 */
+    private final Runnable heartbeat;
+
+    private final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /** 是否已有写任务在处理该连接 */
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    private volatile boolean closed;
+
+    /** 当前发送的开始时间，0表示未在发送 */
+    private volatile long sendStartMillis;
+
+    /** 队列写满开始丢弃消息的时间，0表示未写满 */
+    private volatile long saturatedSinceMillis;
+
+    /** 当前发送是否已被判定超时 */
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean sendTimedOut = new AtomicBoolean(false);
+
+    public DevSseConnection(String clientId, String loginId, SseEmitter sseEmitter, Runnable heartbeat) {
+        this.clientId = clientId;
+        this.loginId = loginId;
+        this.sseEmitter = sseEmitter;
+        this.heartbeat = heartbeat;
+    }
+
+    /**
+     * 放入发送队列，队列已满时丢弃最早的消息，返回是否有消息被丢弃
+     *
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    boolean offer(SseEmitter.SseEventBuilder event) {
+        boolean dropped = false;
+        while (!queue.offer(event)) {
+            queue.poll();
+            dropped = true;
+        }
+        if (dropped && saturatedSinceMillis == 0) {
+            saturatedSinceMillis = System.currentTimeMillis();
+        }
+        return dropped;
+    }
+
+    /**
+     * 队列已发送完毕，结束写满状态
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    void clearSaturated() {
+        saturatedSinceMillis = 0;
+    }
+
+    /**
+     * 开始发送一条消息，记录开始时间
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    void startSend() {
+        sendStartMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * 结束发送，返回本次发送是否已被判定超时
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    boolean finishSend() {
+        sendStartMillis = 0;
+        return sendTimedOut.getAndSet(false);
+    }
+
+    /**
+     * 当前发送超过期限时标记为超时，只有一个调用方能标记成功
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    boolean markSendTimedOut(long now, long timeoutMillis) {
+        long startMillis = sendStartMillis;
+        return startMillis != 0 && now - startMillis > timeoutMillis && sendTimedOut.compareAndSet(false, true);
+    }
+
+    boolean isSending() {
+        return sendStartMillis != 0;
+    }
+
+    boolean tryStartDrain() {
+        return !closed && draining.compareAndSet(false, true);
+    }
+
+    void finishDrain() {
+        draining.set(false);
+    }
+
+    void close() {
+        closed = true;
+        queue.clear();
+    }
+}
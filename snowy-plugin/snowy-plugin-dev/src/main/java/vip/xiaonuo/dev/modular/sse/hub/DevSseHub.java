@@ -0,0 +1,482 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.sse.hub;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.common.pojo.CommonResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SSE连接中心
+ * 本节点的连接按客户端id和用户id建立索引，消息先放入连接的有界队列，再由写线程池发送，
+ * 慢客户端不会阻塞群发；单次发送超过期限或队列持续写满的连接会被剔除，卡住的写线程由临时扩容的写线程补足，
+ * 剔除不等待发送锁，连接由写线程在发送返回后结束；心跳按客户端id分桶，每秒处理一个桶，分批交给心跳线程池执行；
+ * 目标连接不在本节点时通过Redis发布订阅转发到其他节点
+ * 转发消息格式为JSON：nodeId节点id，type类型（ALL、CLIENT、USER、CLOSE），target目标，msg消息
+ *
+ * @author jetox
+ * @date 2026/10/18 23:30
+ **/
+@Slf4j
+@Component
+public class DevSseHub implements MessageListener {
+
+    /** 集群转发频道 */
+    private static final String SSE_CHANNEL = "dev-sse-message";
+
+    private static final String TYPE_ALL = "ALL";
+    private static final String TYPE_CLIENT = "CLIENT";
+    private static final String TYPE_USER = "USER";
+    private static final String TYPE_CLOSE = "CLOSE";
+
+    /** 心跳周期（秒），也是心跳分桶的数量 */
+    private static final int HEARTBEAT_PERIOD_SECONDS = 10;
+
+    /** 每个心跳批次的连接数 */
+    private static final int HEARTBEAT_BATCH_SIZE = 256;
+
+    /** 每次写任务最多连续发送的消息数，之后让出线程 */
+    private static final int DRAIN_BATCH_SIZE = 32;
+
+    /** 单次发送的期限（毫秒），超过后剔除该连接 */
+    private static final long SEND_TIMEOUT_MILLIS = 10 * 1000L;
+
+    /** 发送队列持续写满的期限（毫秒），超过后关闭该连接 */
+    private static final long SATURATION_TIMEOUT_MILLIS = 30 * 1000L;
+
+    /** 为发送超时卡住的写线程最多补充的线程数 */
+    private static final int MAX_EXTRA_WRITERS = 64;
+
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    /** 客户端id -> 连接 */
+    private final Map<String, DevSseConnection> connectionMap = new ConcurrentHashMap<>();
+
+    /** 用户id -> 客户端id集合 */
+    private final Map<String, Set<String>> loginIdIndex = new ConcurrentHashMap<>();
+
+    /** 心跳分桶 */
+    private final List<Set<DevSseConnection>> heartbeatBucketList = new ArrayList<>();
+
+    private final ThreadPoolExecutor writerPool;
+
+    /** 写线程池的基本线程数 */
+    private final int writerThreads;
+
+    /** 发送已超时但尚未返回的写线程数 */
+    private final AtomicInteger stalledWriters = new AtomicInteger();
+
+    private final ExecutorService heartbeatPool;
+
+    private final ScheduledExecutorService heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory("dev-sse-heartbeat-tick-", true));
+
+    /** 尚未执行完的心跳批次数，上一轮未完成时跳过本轮，避免堆积 */
+    private final AtomicInteger pendingHeartbeatBatch = new AtomicInteger();
+
+    private long heartbeatTick;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    public DevSseHub() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.writerThreads = threads;
+        this.writerPool = new ThreadPoolExecutor(threads, threads + MAX_EXTRA_WRITERS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory("dev-sse-writer-", true));
+        this.heartbeatPool = Executors.newFixedThreadPool(Math.max(2, threads / 2), new NamedThreadFactory("dev-sse-heartbeat-", true));
+        for (int i = 0; i < HEARTBEAT_PERIOD_SECONDS; i++) {
+            heartbeatBucketList.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(SSE_CHANNEL));
+        heartbeatScheduler.scheduleAtFixedRate(this::heartbeatTick, 1, 1, TimeUnit.SECONDS);
+        heartbeatScheduler.scheduleAtFixedRate(() -> this.evictStalled(System.currentTimeMillis()), 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        heartbeatScheduler.shutdownNow();
+        heartbeatPool.shutdownNow();
+        writerPool.shutdownNow();
+        connectionMap.values().forEach(devSseConnection -> {
+            devSseConnection.close();
+            try {
+                devSseConnection.getSseEmitter().complete();
+            } catch (Exception ignored) {
+            }
+        });
+        connectionMap.clear();
+        loginIdIndex.clear();
+    }
+
+    /**
+     * 根据客户端id获取本节点连接
+     *
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    public DevSseConnection getConnection(String clientId) {
+        return clientId == null ? null : connectionMap.get(clientId);
+    }
+
+    /**
+     * 判断连接是否有效：在本节点且属于该用户
+     *
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    public boolean connectionValidity(String clientId, String loginId) {
+        DevSseConnection devSseConnection = this.getConnection(clientId);
+        return devSseConnection != null && Objects.equals(loginId, devSseConnection.getLoginId());
+    }
+
+    /**
+     * 增加连接，并注册完成、超时、异常回调
+     *
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    public void addConnection(DevSseConnection devSseConnection) {
+        String clientId = devSseConnection.getClientId();
+        if (connectionMap.putIfAbsent(clientId, devSseConnection) != null) {
+            throw new CommonException("连接已存在:{}", clientId);
+        }
+        loginIdIndex.computeIfAbsent(devSseConnection.getLoginId(), k -> ConcurrentHashMap.newKeySet()).add(clientId);
+        if (devSseConnection.getHeartbeat() != null) {
+            this.heartbeatBucket(clientId).add(devSseConnection);
+        }
+        SseEmitter sseEmitter = devSseConnection.getSseEmitter();
+        sseEmitter.onCompletion(() -> {
+            log.info("结束连接:{}", clientId);
+            this.removeConnection(clientId);
+        });
+        sseEmitter.onTimeout(() -> {
+            log.info("连接超时:{}", clientId);
+            this.removeConnection(clientId);
+        });
+        sseEmitter.onError(throwable -> {
+            log.info("推送消息异常:{}", clientId);
+            this.removeConnection(clientId);
+        });
+    }
+
+    /**
+     * 移除本节点连接
+     *
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    public DevSseConnection removeConnection(String clientId) {
+        DevSseConnection devSseConnection = clientId == null ? null : connectionMap.remove(clientId);
+        if (devSseConnection == null) {
+            return null;
+        }
+        devSseConnection.close();
+        this.heartbeatBucket(clientId).remove(devSseConnection);
+        loginIdIndex.computeIfPresent(devSseConnection.getLoginId(), (loginId, clientIdSet) -> {
+            clientIdSet.remove(clientId);
+            return clientIdSet.isEmpty() ? null : clientIdSet;
+        });
+        log.info("移除连接:{}", clientId);
+        return devSseConnection;
+    }
+
+    /**
+     * 关闭连接，不在本节点时转发到其他节点
+     *
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    public void closeConnection(String clientId) {
+        if (!this.closeLocal(clientId)) {
+            this.publish(TYPE_CLOSE, clientId, null);
+        }
+    }
+
+    /**
+     * 推送消息到集群内所有客户端
+     *
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    public void sendToAll(String msg) {
+        this.sendToAllLocal(msg);
+        this.publish(TYPE_ALL, null, msg);
+    }
+
+    /**
+     * 推送消息到某一客户端，不在本节点时转发到其他节点
+     *
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    public void sendToClient(String clientId, String msg) {
+        if (!this.sendToClientLocal(clientId, msg)) {
+            this.publish(TYPE_CLIENT, clientId, msg);
+        }
+    }
+
+    /**
+     * 推送消息到某一用户在集群内的全部客户端
+     *
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    public void sendToUser(String loginId, String msg) {
+        this.sendToUserLocal(loginId, msg);
+        this.publish(TYPE_USER, loginId, msg);
+    }
+
+    /**
+     * 推送消息到本节点的客户端，入队后立即返回
+     *
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    public void send(DevSseConnection devSseConnection, CommonResult<String> message) {
+        if (devSseConnection.offer(SseEmitter.event().data(message, MediaType.APPLICATION_JSON))) {
+            log.warn(">>> SSE客户端{}消费过慢，已丢弃最早的消息", devSseConnection.getClientId());
+        }
+        this.scheduleDrain(devSseConnection);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        JSONObject jsonObject = JSONUtil.parseObj(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (nodeId.equals(jsonObject.getStr("nodeId"))) {
+            return;
+        }
+        String target = jsonObject.getStr("target");
+        String msg = jsonObject.getStr("msg");
+        switch (jsonObject.getStr("type", StrUtil.EMPTY)) {
+            case TYPE_ALL -> this.sendToAllLocal(msg);
+            case TYPE_CLIENT -> this.sendToClientLocal(target, msg);
+            case TYPE_USER -> this.sendToUserLocal(target, msg);
+            case TYPE_CLOSE -> this.closeLocal(target);
+            default -> log.warn(">>> 未知的SSE转发消息：{}", jsonObject);
+        }
+    }
+
+    private void sendToAllLocal(String msg) {
+        CommonResult<String> message = new CommonResult<>(CommonResult.CODE_SUCCESS, "", msg);
+        connectionMap.values().forEach(devSseConnection -> this.send(devSseConnection, message));
+    }
+
+    private boolean sendToClientLocal(String clientId, String msg) {
+        DevSseConnection devSseConnection = this.getConnection(clientId);
+        if (devSseConnection == null) {
+            return false;
+        }
+        this.send(devSseConnection, new CommonResult<>(CommonResult.CODE_SUCCESS, "", msg));
+        return true;
+    }
+
+    private void sendToUserLocal(String loginId, String msg) {
+        Set<String> clientIdSet = loginId == null ? null : loginIdIndex.get(loginId);
+        if (ObjectUtil.isEmpty(clientIdSet)) {
+            return;
+        }
+        CommonResult<String> message = new CommonResult<>(CommonResult.CODE_SUCCESS, "", msg);
+        for (String clientId : clientIdSet) {
+            DevSseConnection devSseConnection = connectionMap.get(clientId);
+            if (devSseConnection != null) {
+                this.send(devSseConnection, message);
+            }
+        }
+    }
+
+    private boolean closeLocal(String clientId) {
+        DevSseConnection devSseConnection = this.removeConnection(clientId);
+        if (devSseConnection == null) {
+            return false;
+        }
+        // 结束连接需获取发送锁，正在发送时由写线程在发送返回后结束
+        if (!devSseConnection.isSending()) {
+            this.complete(devSseConnection);
+        }
+        return true;
+    }
+
+    private void complete(DevSseConnection devSseConnection) {
+        try {
+            devSseConnection.getSseEmitter().complete();
+        } catch (Exception e) {
+            log.warn(">>> 关闭SSE连接{}失败：{}", devSseConnection.getClientId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 剔除发送超过期限或队列持续写满的连接，不获取发送锁，不会被卡住的发送阻塞
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     **/
+    void evictStalled(long now) {
+        for (DevSseConnection devSseConnection : connectionMap.values()) {
+            if (devSseConnection.markSendTimedOut(now, SEND_TIMEOUT_MILLIS)) {
+                log.warn(">>> SSE客户端{}发送超过{}毫秒，已剔除", devSseConnection.getClientId(), SEND_TIMEOUT_MILLIS);
+                stalledWriters.incrementAndGet();
+                this.resizeWriterPool();
+                this.removeConnection(devSseConnection.getClientId());
+            } else {
+                long saturatedSinceMillis = devSseConnection.getSaturatedSinceMillis();
+                if (saturatedSinceMillis != 0 && now - saturatedSinceMillis > SATURATION_TIMEOUT_MILLIS) {
+                    log.warn(">>> SSE客户端{}发送队列持续写满超过{}毫秒，已关闭", devSseConnection.getClientId(), SATURATION_TIMEOUT_MILLIS);
+                    this.closeLocal(devSseConnection.getClientId());
+                }
+            }
+        }
+    }
+
+    /**
+     * 按卡住的写线程数调整写线程池，保证可用的写线程数不变
+     */
+    private synchronized void resizeWriterPool() {
+        writerPool.setCorePoolSize(writerThreads + Math.min(stalledWriters.get(), MAX_EXTRA_WRITERS));
+    }
+
+    private void scheduleDrain(DevSseConnection devSseConnection) {
+        if (devSseConnection.tryStartDrain()) {
+            try {
+                writerPool.execute(() -> this.drain(devSseConnection));
+            } catch (RejectedExecutionException e) {
+                devSseConnection.finishDrain();
+            }
+        }
+    }
+
+    private void drain(DevSseConnection devSseConnection) {
+        try {
+            for (int i = 0; i < DRAIN_BATCH_SIZE && !devSseConnection.isClosed(); i++) {
+                SseEmitter.SseEventBuilder event = devSseConnection.getQueue().poll();
+                if (event == null) {
+                    break;
+                }
+                devSseConnection.startSend();
+                try {
+                    devSseConnection.getSseEmitter().send(event);
+                } finally {
+                    if (devSseConnection.finishSend()) {
+                        stalledWriters.decrementAndGet();
+                        this.resizeWriterPool();
+                    }
+                }
+            }
+            if (devSseConnection.getQueue().isEmpty()) {
+                devSseConnection.clearSaturated();
+            }
+        } catch (Exception e) {
+            log.error("推送消息失败,客户端:{},报错异常:{}", devSseConnection.getClientId(), e.getMessage());
+            this.removeConnection(devSseConnection.getClientId());
+        } finally {
+            devSseConnection.finishDrain();
+        }
+        // 发送期间被剔除或关闭的连接在此结束
+        if (devSseConnection.isClosed()) {
+            this.complete(devSseConnection);
+            return;
+        }
+        // 仍有积压时重新排队，让其他连接也有机会被发送
+        if (!devSseConnection.getQueue().isEmpty()) {
+            this.scheduleDrain(devSseConnection);
+        }
+    }
+
+    private void heartbeatTick() {
+        Set<DevSseConnection> bucket = heartbeatBucketList.get((int) (heartbeatTick++ % HEARTBEAT_PERIOD_SECONDS));
+        if (bucket.isEmpty()) {
+            return;
+        }
+        if (pendingHeartbeatBatch.get() > 0) {
+            log.warn(">>> 上一轮SSE心跳尚未完成，跳过本轮");
+            return;
+        }
+        List<DevSseConnection> batch = new ArrayList<>(HEARTBEAT_BATCH_SIZE);
+        for (DevSseConnection devSseConnection : bucket) {
+            batch.add(devSseConnection);
+            if (batch.size() == HEARTBEAT_BATCH_SIZE) {
+                this.submitHeartbeatBatch(batch);
+                batch = new ArrayList<>(HEARTBEAT_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            this.submitHeartbeatBatch(batch);
+        }
+    }
+
+    private void submitHeartbeatBatch(List<DevSseConnection> batch) {
+        pendingHeartbeatBatch.incrementAndGet();
+        try {
+            heartbeatPool.execute(() -> {
+                try {
+                    for (DevSseConnection devSseConnection : batch) {
+                        if (devSseConnection.isClosed()) {
+                            continue;
+                        }
+                        try {
+                            devSseConnection.getHeartbeat().run();
+                        } catch (Exception e) {
+                            log.error(">>> SSE客户端{}心跳任务执行失败：{}", devSseConnection.getClientId(), e.getMessage());
+                        }
+                    }
+                } finally {
+                    pendingHeartbeatBatch.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingHeartbeatBatch.decrementAndGet();
+        }
+    }
+
+    private Set<DevSseConnection> heartbeatBucket(String clientId) {
+        return heartbeatBucketList.get((clientId.hashCode() & Integer.MAX_VALUE) % HEARTBEAT_PERIOD_SECONDS);
+    }
+
+    private void publish(String type, String target, String msg) {
+        try {
+            stringRedisTemplate.convertAndSend(SSE_CHANNEL, JSONUtil.toJsonStr(JSONUtil.createObj().set("nodeId", nodeId)
+                    .set("type", type).set("target", target).set("msg", msg)));
+        } catch (Exception e) {
+            log.error(">>> SSE消息转发失败，类型：{}，目标：{}", type, target, e);
+        }
+    }
+}
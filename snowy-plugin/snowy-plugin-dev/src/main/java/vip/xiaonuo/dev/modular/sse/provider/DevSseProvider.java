@@ -76,4 +76,15 @@ public class DevSseProvider implements DevSseApi {
     public void sendMessageToOneClient(String clientId, String msg) {
         devSseEmitterService.sendMessageToOneClient(clientId,msg);
     }
+
+    /**
+     * 根据用户id发送消息给该用户的全部客户端
+     *
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    @Override
+    public void sendMessageToUser(String loginId, String msg) {
+        devSseEmitterService.sendMessageToUser(loginId,msg);
+    }
 }
@@ -56,4 +56,12 @@ public interface DevSseEmitterService {
      * @date 2023/7/3
      **/
     public void sendMessageToOneClient(String clientId, String msg);
+
+    /**
+     * 根据用户id发送消息给该用户的全部客户端
+     *
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    public void sendMessageToUser(String loginId, String msg);
 }
@@ -14,18 +14,17 @@ package vip.xiaonuo.dev.modular.sse.service.impl;
 
 import cn.dev33.satoken.stp.StpUtil;
 import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import vip.xiaonuo.common.pojo.CommonResult;
 import vip.xiaonuo.common.sse.CommonSseParam;
+import vip.xiaonuo.dev.modular.sse.hub.DevSseConnection;
+import vip.xiaonuo.dev.modular.sse.hub.DevSseHub;
 import vip.xiaonuo.dev.modular.sse.service.DevSseEmitterService;
-import vip.xiaonuo.dev.modular.sse.util.DevSseCacheUtil;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
@@ -38,11 +37,8 @@ import java.util.function.Consumer;
 @Service
 public class DevSseEmitterServiceImpl implements DevSseEmitterService {
 
-    /**
-     * 心跳线程池
-     */
-    private static final ScheduledExecutorService heartbeatExecutors = Executors.newScheduledThreadPool(10);
-
+    @Resource
+    private DevSseHub devSseHub;
 
     /**
      * 创建连接
@@ -56,46 +52,35 @@ public class DevSseEmitterServiceImpl implements DevSseEmitterService {
         SseEmitter sseEmitter = new SseEmitter(0L);
         String loginId = StpUtil.getLoginIdAsString();
         // 判断连接是否有效
-        if (DevSseCacheUtil.connectionValidity(clientId,loginId)) {
-            return DevSseCacheUtil.getSseEmitterByClientId(clientId);
+        if (devSseHub.connectionValidity(clientId,loginId)) {
+            return devSseHub.getConnection(clientId).getSseEmitter();
         }else{
-            DevSseCacheUtil.removeConnection(clientId);
+            devSseHub.removeConnection(clientId);
         }
         clientId = IdUtil.simpleUUID();
         String finalClientId = clientId;
-        // 增加心跳
-        final ScheduledFuture<?> future;
+        // 心跳任务由连接中心按周期分批执行
+        Runnable heartbeat = null;
         // 是否自定义心跳任务
         if (setHeartBeat!=null&&setHeartBeat) {
             //是否使用默认心跳任务
             if(defaultHeartbeat!=null&&defaultHeartbeat){
                 //默认心跳任务
-                future = heartbeatExecutors.scheduleAtFixedRate(() ->
-                                DevSseCacheUtil.sendMessageToOneClient(finalClientId,finalClientId+"-"+loginId),
-                        2, 10, TimeUnit.SECONDS);
+                heartbeat = () -> devSseHub.sendToClient(finalClientId, finalClientId+"-"+loginId);
             }else{
                 //自定义心跳任务
                 CommonSseParam commonSseParam = new CommonSseParam();
                 commonSseParam.setClientId(clientId);
                 commonSseParam.setLoginId(loginId);
-                future = heartbeatExecutors.scheduleAtFixedRate(() -> consumer.accept(commonSseParam),
-                        2, 10, TimeUnit.SECONDS);
+                heartbeat = () -> consumer.accept(commonSseParam);
             }
-            // 增加连接
-            DevSseCacheUtil.addConnection(clientId, loginId, sseEmitter, future);
-        } else {
-            // 增加连接
-            DevSseCacheUtil.addConnection(clientId, loginId, sseEmitter, null);
         }
-        // 长链接完成后回调(即关闭连接时调用)
-        sseEmitter.onCompletion(DevSseCacheUtil.completionCallBack(clientId));
-        // 连接超时回调
-        sseEmitter.onTimeout(DevSseCacheUtil.timeoutCallBack(clientId));
-        // 推送消息异常回调
-        sseEmitter.onError(DevSseCacheUtil.errorCallBack(clientId));
+        // 增加连接，同时注册完成、超时、异常回调
+        DevSseConnection devSseConnection = new DevSseConnection(clientId, loginId, sseEmitter, heartbeat);
+        devSseHub.addConnection(devSseConnection);
         // 初次建立连接,推送客户端id
         CommonResult<String> message = new CommonResult<>(0,"",clientId);
-        DevSseCacheUtil.sendMessageToClientByClientId(clientId,message);
+        devSseHub.send(devSseConnection, message);
         return sseEmitter;
     }
 
@@ -107,7 +92,7 @@ public class DevSseEmitterServiceImpl implements DevSseEmitterService {
      **/
     @Override
     public void closeSseConnect(String clientId){
-        DevSseCacheUtil.removeConnection(clientId);
+        devSseHub.closeConnection(clientId);
     }
 
     /**
@@ -118,7 +103,11 @@ public class DevSseEmitterServiceImpl implements DevSseEmitterService {
      **/
     @Override
     public void sendMessageToAllClient(String msg) {
-        DevSseCacheUtil.sendMessageToAllClient(msg);
+        if (StrUtil.isEmpty(msg)) {
+            log.info("群发消息为空");
+            return;
+        }
+        devSseHub.sendToAll(msg);
     }
 
     /**
@@ -129,7 +118,30 @@ public class DevSseEmitterServiceImpl implements DevSseEmitterService {
      **/
     @Override
     public void sendMessageToOneClient(String clientId, String msg) {
-        DevSseCacheUtil.sendMessageToOneClient(clientId,msg);
+        if (StrUtil.isEmpty(clientId)) {
+            log.info("客户端ID为空");
+            return;
+        }
+        if (StrUtil.isEmpty(msg)) {
+            log.info("向客户端{}推送消息为空", clientId);
+            return;
+        }
+        devSseHub.sendToClient(clientId, msg);
+    }
+
+    /**
+     * 根据用户id发送消息给该用户的全部客户端
+     *
+     * @author jetox
+     * @date 2026/10/18 23:30
+     **/
+    @Override
+    public void sendMessageToUser(String loginId, String msg) {
+        if (StrUtil.hasEmpty(loginId, msg)) {
+            log.info("用户ID或推送消息为空");
+            return;
+        }
+        devSseHub.sendToUser(loginId, msg);
     }
 
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.barcode;
+
+import lombok.Getter;
+import vip.xiaonuo.common.exception.CommonException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * 条码图片输出格式，条码图像均为1位黑白图，PNG、BMP、TIFF按1位深度编码；JPEG没有1位模式，先转为8位灰度再编码
+ *
+ * @author jetox
+ * @date 2026/10/18 12:00
+ **/
+@Getter
+public enum BarcodeImageFormat {
+
+    /** PNG */
+    PNG("png", "png", "image/png", null, true, false),
+
+    /** JPEG，8位灰度 */
+    JPEG("jpeg", "jpg", "image/jpeg", null, true, true),
+
+    /** BMP */
+    BMP("bmp", "bmp", "image/bmp", null, false, false),
+
+    /** TIFF，使用CCITT T.6压缩 */
+    TIFF("tiff", "tif", "image/tiff", "CCITT T.6", false, false);
+
+    /** 线程内复用的灰度图像，尺寸不变时直接覆盖像素 */
+    private static final ThreadLocal<BufferedImage> GRAY_POOL = new ThreadLocal<>();
+
+    private final String formatName;
+
+    private final String extension;
+
+    private final String contentType;
+
+    private final String compressionType;
+
+    /** 格式本身已压缩，打包时无需再压缩 */
+    private final boolean compressed;
+
+    /** 格式不支持1位图像，需先转为8位灰度 */
+    private final boolean grayscale;
+
+    BarcodeImageFormat(String formatName, String extension, String contentType, String compressionType, boolean compressed, boolean grayscale) {
+        this.formatName = formatName;
+        this.extension = extension;
+        this.contentType = contentType;
+        this.compressionType = compressionType;
+        this.compressed = compressed;
+        this.grayscale = grayscale;
+    }
+
+    /**
+     * 根据名称获取格式，不区分大小写，TIF视为TIFF，JPG视为JPEG，为空时默认PNG
+     *
+     * @author jetox
+     * @date 2026/10/18 12:00
+     */
+    public static BarcodeImageFormat of(String name) {
+        if (name == null || name.isEmpty()) {
+            return PNG;
+        }
+        String upper = name.toUpperCase(Locale.ROOT);
+        if ("TIF".equals(upper)) {
+            return TIFF;
+        }
+        if ("JPG".equals(upper)) {
+            return JPEG;
+        }
+        for (BarcodeImageFormat format : values()) {
+            if (format.name().equals(upper)) {
+                return format;
+            }
+        }
+        throw new CommonException("不支持的图片格式：{}，仅支持PNG、JPEG、BMP、TIFF", name);
+    }
+
+    /**
+     * 将图像编码后直接写入输出流，使用内存缓冲的图像流，不产生临时文件，也不关闭输出流
+     *
+     * @author jetox
+     * @date 2026/10/18 12:00
+     */
+    public void write(BufferedImage image, OutputStream outputStream) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
+        if (!writers.hasNext()) {
+            throw new CommonException("当前运行环境不支持{}编码", name());
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream imageOut = new MemoryCacheImageOutputStream(outputStream)) {
+            writer.setOutput(imageOut);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (compressionType != null && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionType(compressionType);
+            }
+            writer.write(null, new IIOImage(grayscale ? toGray(image) : image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * 转为线程内复用的8位灰度图像
+     */
+    private static BufferedImage toGray(BufferedImage image) {
+        BufferedImage gray = GRAY_POOL.get();
+        if (gray == null || gray.getWidth() != image.getWidth() || gray.getHeight() != image.getHeight()) {
+            gray = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+            GRAY_POOL.set(gray);
+        }
+        Graphics2D g2d = gray.createGraphics();
+        try {
+            g2d.drawImage(image, 0, 0, null);
+        } finally {
+            g2d.dispose();
+        }
+        return gray;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.barcode;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+import org.springframework.stereotype.Component;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Arrays;
+
+/**
+ * 条码栅格化器，把位矩阵直接写入1位黑白图像的数据缓冲区
+ * 图像按线程池化复用，render返回的图像只在当前线程下一次render之前有效，调用方须立即编码输出，不可缓存或跨线程传递
+ *
+ * @author jetox
+ * @date 2026/10/18 10:00
+ **/
+@Component
+public class BarcodeRenderer {
+
+    /** 一维码下方可读文本区域高度 */
+    private static final int TEXT_AREA_HEIGHT = 20;
+
+    /** 可读文本字体，Font不可变，全局共享 */
+    private static final Font TEXT_FONT = new Font("Arial", Font.PLAIN, 12);
+
+    /** 线程内复用的图像，尺寸不变时直接覆盖像素 */
+    private static final ThreadLocal<BufferedImage> IMAGE_POOL = new ThreadLocal<>();
+
+    /** 线程内复用的行缓冲 */
+    private static final ThreadLocal<BitArray> ROW_POOL = ThreadLocal.withInitial(BitArray::new);
+
+    /**
+     * 按码制编码并栅格化，一维码会在下方绘制可读文本
+     *
+     * @author jetox
+     * @date 2026/10/18 10:00
+     */
+    public BufferedImage render(BarcodeSymbology symbology, String text, int width, int height) {
+        if (symbology.isLinear()) {
+            int barHeight = Math.max(1, height - TEXT_AREA_HEIGHT);
+            BitMatrix matrix = symbology.encode(text, width, barHeight);
+            BufferedImage image = borrowImage(matrix.getWidth(), barHeight + TEXT_AREA_HEIGHT);
+            byte[] data = dataOf(image);
+            int stride = strideOf(image);
+            packRow(matrix, 0, data, 0, stride);
+            for (int y = 1; y < barHeight; y++) {
+                System.arraycopy(data, 0, data, y * stride, stride);
+            }
+            Arrays.fill(data, barHeight * stride, data.length, (byte) 0xFF);
+            drawText(image, text, barHeight);
+            return image;
+        }
+        BitMatrix matrix = symbology.encode(text, width, height);
+        BufferedImage image = borrowImage(matrix.getWidth(), matrix.getHeight());
+        byte[] data = dataOf(image);
+        int stride = strideOf(image);
+        for (int y = 0; y < matrix.getHeight(); y++) {
+            packRow(matrix, y, data, y * stride, stride);
+        }
+        return image;
+    }
+
+    /**
+     * 获取当前线程的图像，尺寸不一致时重新分配
+     */
+    private BufferedImage borrowImage(int width, int height) {
+        BufferedImage image = IMAGE_POOL.get();
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+            IMAGE_POOL.set(image);
+        }
+        return image;
+    }
+
+    private byte[] dataOf(BufferedImage image) {
+        return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    }
+
+    private int strideOf(BufferedImage image) {
+        return (image.getWidth() + 7) >> 3;
+    }
+
+    /**
+     * 将矩阵的一行按高位在前打包写入，TYPE_BYTE_BINARY中1为白、0为黑
+     */
+    private void packRow(BitMatrix matrix, int y, byte[] data, int offset, int stride) {
+        BitArray row = ROW_POOL.get();
+        row = matrix.getRow(y, row);
+        ROW_POOL.set(row);
+        int width = matrix.getWidth();
+        for (int i = 0; i < stride; i++) {
+            int packed = 0;
+            int x = i << 3;
+            for (int bit = 0; bit < 8; bit++, x++) {
+                packed <<= 1;
+                if (x >= width || !row.get(x)) {
+                    packed |= 1;
+                }
+            }
+            data[offset + i] = (byte) packed;
+        }
+    }
+
+    /**
+     * 在条码下方居中绘制可读文本
+     */
+    private void drawText(BufferedImage image, String text, int barHeight) {
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setColor(Color.BLACK);
+            g2d.setFont(TEXT_FONT);
+            FontMetrics fm = g2d.getFontMetrics();
+            int textX = Math.max(0, (image.getWidth() - fm.stringWidth(text)) / 2);
+            g2d.drawString(text, textX, barHeight + fm.getAscent() + (TEXT_AREA_HEIGHT - fm.getHeight()) / 2);
+        } finally {
+            g2d.dispose();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.barcode;
+
+import com.google.zxing.common.BitMatrix;
+
+/**
+ * 条码码制接口，每种码制负责把文本编码为位矩阵，栅格化由BarcodeRenderer统一完成
+ *
+ * @author jetox
+ * @date 2026/10/18 10:00
+ **/
+public interface BarcodeSymbology {
+
+    /**
+     * 码制类型标识（如CODE128、QR），与接口参数barcodeType对应，不区分大小写
+     *
+     * @author jetox
+     * @date 2026/10/18 10:00
+     */
+    String getType();
+
+    /**
+     * 是否为一维码，一维码只编码一行，渲染时按行复制，并在下方绘制可读文本
+     *
+     * @author jetox
+     * @date 2026/10/18 10:00
+     */
+    boolean isLinear();
+
+    /**
+     * 将文本编码为位矩阵，true表示黑色模块，一维码返回高度为1的矩阵
+     *
+     * @param text 要编码的文本
+     * @param width 期望宽度（像素）
+     * @param height 期望高度（像素）
+     * @author jetox
+     * @date 2026/10/18 10:00
+     */
+    BitMatrix encode(String text, int width, int height);
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.barcode;
+
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.exception.CommonException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 码制注册中心，收集容器中所有BarcodeSymbology实现，新增码制只需注册一个Bean
+ *
+ * @author jetox
+ * @date 2026/10/18 10:00
+ **/
+@Component
+public class BarcodeSymbologyRegistry {
+
+    private final Map<String, BarcodeSymbology> symbologyMap;
+
+    public BarcodeSymbologyRegistry(List<BarcodeSymbology> symbologyList) {
+        Map<String, BarcodeSymbology> map = new HashMap<>();
+        for (BarcodeSymbology symbology : symbologyList) {
+            BarcodeSymbology exist = map.put(symbology.getType().toUpperCase(Locale.ROOT), symbology);
+            if (exist != null) {
+                throw new CommonException("码制类型重复注册：{}", symbology.getType());
+            }
+        }
+        this.symbologyMap = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * 根据码制类型获取码制，不区分大小写
+     *
+     * @author jetox
+     * @date 2026/10/18 10:00
+     */
+    public BarcodeSymbology get(String type) {
+        BarcodeSymbology symbology = symbologyMap.get(type.toUpperCase(Locale.ROOT));
+        if (symbology == null) {
+            throw new CommonException("不支持的条码类型：{}", type);
+        }
+        return symbology;
+    }
+
+    /**
+     * 获取已注册的码制类型
+     *
+     * @author jetox
+     * @date 2026/10/18 10:00
+     */
+    public Set<String> getTypes() {
+        return symbologyMap.keySet();
+    }
+}
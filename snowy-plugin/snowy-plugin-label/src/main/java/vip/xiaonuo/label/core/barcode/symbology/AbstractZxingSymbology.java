@@ -0,0 +1,53 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.barcode.symbology;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.Writer;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbology;
+
+import java.util.Map;
+
+/**
+ * 基于ZXing的码制基类，ZXing的Writer实现均无状态，可在多线程间共享
+ *
+ * @author jetox
+ * @date 2026/10/18 10:00
+ **/
+public abstract class AbstractZxingSymbology implements BarcodeSymbology {
+
+    private final Writer writer;
+
+    private final BarcodeFormat format;
+
+    private final Map<EncodeHintType, ?> hints;
+
+    protected AbstractZxingSymbology(Writer writer, BarcodeFormat format, Map<EncodeHintType, ?> hints) {
+        this.writer = writer;
+        this.format = format;
+        this.hints = hints;
+    }
+
+    @Override
+    public BitMatrix encode(String text, int width, int height) {
+        try {
+            return writer.encode(text, format, width, isLinear() ? 1 : height, hints);
+        } catch (WriterException | IllegalArgumentException e) {
+            throw new CommonException("{}编码失败：{}", getType(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.barcode.symbology;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.oned.EAN13Writer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * EAN-13码制，文本须为12位（自动补校验位）或13位数字
+ *
+ * @author jetox
+ * @date 2026/10/18 10:00
+ **/
+@Component
+public class Ean13Symbology extends AbstractZxingSymbology {
+
+    public Ean13Symbology() {
+        super(new EAN13Writer(), BarcodeFormat.EAN_13, Map.of(EncodeHintType.MARGIN, 10));
+    }
+
+    @Override
+    public String getType() {
+        return "EAN13";
+    }
+
+    @Override
+    public boolean isLinear() {
+        return true;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.cache;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import jakarta.annotation.Resource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * 带集群版本号的本地缓存基类，用于规则执行计划、模板布局等编译结果
+ * 每个业务ID在Redis哈希中有一个版本号，修改时在事务提交后递增；读取时按版本号校验本地缓存，
+ * 版本号本身在本地缓存VERSION_CHECK_MILLIS，其他节点的修改最多延迟这么久生效，命中时不访问数据库
+ *
+ * @author jetox
+ * @date 2026/10/18 23:51
+ **/
+public abstract class LabelVersionedCache<V> {
+
+    /** 版本号哈希键前缀 */
+    private static final String VERSION_KEY_PREFIX = "label:cache-version:";
+
+    /** 版本号本地复查间隔 */
+    private static final long VERSION_CHECK_MILLIS = 1000;
+
+    private final String versionKey;
+
+    private final LRUCache<String, VersionedValue<V>> valueCache;
+
+    private final LRUCache<String, Long> versionCache;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * @param name 缓存名称，用于区分版本号哈希
+     * @param maxSize 最大缓存数
+     * @param expireMillis 缓存过期时间，兜底绕过服务直接改库的情况
+     */
+    protected LabelVersionedCache(String name, int maxSize, long expireMillis) {
+        this.versionKey = VERSION_KEY_PREFIX + name;
+        this.valueCache = CacheUtil.newLRUCache(maxSize, expireMillis);
+        this.versionCache = CacheUtil.newLRUCache(maxSize, VERSION_CHECK_MILLIS);
+    }
+
+    /**
+     * 获取缓存值，不存在或版本号不一致时通过loader加载，loader的参数为当前版本号
+     *
+     * @author jetox
+     * @date 2026/10/18 23:51
+     */
+    public V get(String id, LongFunction<V> loader) {
+        // 先取版本号再加载，加载期间版本号递增时下次读取会重新加载
+        long version = getVersion(id);
+        VersionedValue<V> cached = valueCache.get(id, false);
+        if (cached != null && cached.version == version) {
+            return cached.value;
+        }
+        V value = loader.apply(version);
+        VersionedValue<V> current = valueCache.get(id, false);
+        // 并发加载时保留版本较新的值
+        if (current == null || current.version <= version) {
+            valueCache.put(id, new VersionedValue<>(version, value));
+        }
+        return value;
+    }
+
+    /**
+     * 获取业务ID的当前版本号，从未修改过时为0
+     *
+     * @author jetox
+     * @date 2026/10/18 23:51
+     */
+    public long getVersion(String id) {
+        Long version = versionCache.get(id, false);
+        if (version == null) {
+            Object value = stringRedisTemplate.opsForHash().get(versionKey, id);
+            version = value == null ? 0L : Long.parseLong(value.toString());
+            versionCache.put(id, version);
+        }
+        return version;
+    }
+
+    /**
+     * 失效指定ID，本节点立即移除；在事务中调用时于提交后递增版本号并再移除一次，防止并发读取到旧数据重新入缓存
+     *
+     * @author jetox
+     * @date 2026/10/18 23:51
+     */
+    public void invalidate(Collection<String> idList) {
+        List<String> ids = new ArrayList<>(idList);
+        if (ids.isEmpty()) {
+            return;
+        }
+        evictLocal(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpVersion(ids);
+                }
+            });
+        } else {
+            bumpVersion(ids);
+        }
+    }
+
+    /**
+     * 递增版本号，通知所有节点
+     */
+    private void bumpVersion(List<String> ids) {
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (String id : ids) {
+                    operations.opsForHash().increment(versionKey, id, 1);
+                }
+                return null;
+            }
+        });
+        evictLocal(ids);
+    }
+
+    private void evictLocal(List<String> ids) {
+        for (String id : ids) {
+            valueCache.remove(id);
+            versionCache.remove(id);
+        }
+    }
+
+    private static final class VersionedValue<V> {
+
+        private final long version;
+
+        private final V value;
+
+        private VersionedValue(long version, V value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.listener;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.collection.ListUtil;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.label.core.print.LabelPrintJobListener;
+import vip.xiaonuo.label.modular.record.entity.LabelPrintRecord;
+import vip.xiaonuo.label.modular.record.enums.LabelPrintStatusEnum;
+import vip.xiaonuo.label.modular.record.service.LabelPrintRecordService;
+
+import java.util.*;
+
+/**
+ * 打印记录结果监听器，将一批作业结果合并为按状态与次数分组的批量更新
+ *
+ * @author jetox
+ * @date 2026/10/18 16:40
+ **/
+@Component
+public class LabelPrintRecordListener implements LabelPrintJobListener {
+
+    /** 单条更新语句的最大ID数 */
+    private static final int UPDATE_BATCH_SIZE = 500;
+
+    @Resource
+    private LabelPrintRecordService labelPrintRecordService;
+
+    @Override
+    public void onPrintJobsFinished(Map<String, Integer> completedCountMap, Collection<String> failedJobIds) {
+        // 同一批次内绝大多数记录只打印一次，按次数分组后通常只有一组
+        Map<Integer, List<String>> countGroupMap = new HashMap<>();
+        completedCountMap.forEach((id, count) -> countGroupMap.computeIfAbsent(count, key -> new ArrayList<>()).add(id));
+        countGroupMap.forEach((count, ids) -> ListUtil.partition(ids, UPDATE_BATCH_SIZE).forEach(partIds ->
+            labelPrintRecordService.lambdaUpdate()
+                .in(LabelPrintRecord::getId, partIds)
+                .set(LabelPrintRecord::getPrintStatus, LabelPrintStatusEnum.COMPLETED.getValue())
+                .setSql("PRINT_COUNT = COALESCE(PRINT_COUNT, 0) + " + count)
+                .update()));
+        if (CollUtil.isNotEmpty(failedJobIds)) {
+            ListUtil.partition(new ArrayList<>(failedJobIds), UPDATE_BATCH_SIZE).forEach(partIds ->
+                labelPrintRecordService.lambdaUpdate()
+                    .in(LabelPrintRecord::getId, partIds)
+                    .set(LabelPrintRecord::getPrintStatus, LabelPrintStatusEnum.FAILED.getValue())
+                    .update());
+        }
+    }
+}
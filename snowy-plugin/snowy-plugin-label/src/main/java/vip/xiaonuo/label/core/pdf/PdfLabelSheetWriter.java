@@ -0,0 +1,570 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.pdf;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * 流式PDF标签页写入器，条码以矢量矩形绘制，每页结束即压缩写出并刷新，
+ * 内存只保留当前页内容与每个对象的偏移量，与标签总数无关
+ * 坐标单位为点（1/72英寸），原点为页面左上角；Latin-1文本使用内置Helvetica字体，含中文等其他字符的文本使用
+ * Type0字体STSong-Light（UniGB-UCS2-H编码，由阅读器提供的Adobe-GB1字体渲染，不嵌入字形）；图像写出一次后各页共享引用
+ *
+ * @author jetox
+ * @date 2026/10/18 11:00
+ **/
+public class PdfLabelSheetWriter implements Closeable {
+
+    private static final int CATALOG_ID = 1;
+
+    private static final int PAGES_ID = 2;
+
+    private static final int FONT_ID = 3;
+
+    private static final int BOLD_FONT_ID = 4;
+
+    private static final int CJK_FONT_ID = 5;
+
+    private static final int CJK_CID_FONT_ID = 6;
+
+    private static final int CJK_DESCRIPTOR_ID = 7;
+
+    /** Helvetica字宽（千分之一字号），下标为字符码减32，覆盖ASCII可见字符 */
+    private static final short[] HELVETICA_WIDTHS = {
+        278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,
+        556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,
+        1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,
+        667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,
+        333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,
+        556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584
+    };
+
+    private static final int DEFAULT_CHAR_WIDTH = 556;
+
+    /** STSong-Light字宽，与字体字典中的/W、/DW一致：ASCII可见字符（CID 1-95）为半角，其余为全角 */
+    private static final int CJK_HALF_WIDTH = 500;
+
+    private static final int CJK_FULL_WIDTH = 1000;
+
+    /** 中文粗体以填充加描边模拟，描边宽度与字号之比 */
+    private static final float CJK_BOLD_STROKE_RATIO = 0.03f;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /** 左对齐 */
+    public static final int ALIGN_LEFT = 0;
+
+    /** 居中 */
+    public static final int ALIGN_CENTER = 1;
+
+    /** 右对齐 */
+    public static final int ALIGN_RIGHT = 2;
+
+    private final CountingOutputStream out;
+
+    private final float pageWidth;
+
+    private final float pageHeight;
+
+    /** 当前页内容流 */
+    private final StringBuilder content = new StringBuilder(64 * 1024);
+
+    /** 压缩缓冲，逐页复用 */
+    private final ByteArrayOutputStream deflateBuffer = new ByteArrayOutputStream(32 * 1024);
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    /** 对象偏移量，下标为对象号 */
+    private long[] offsets = new long[64];
+
+    /** 已写出的页面对象号 */
+    private int[] pageIds = new int[16];
+
+    private int pageCount;
+
+    private int nextId = CJK_DESCRIPTOR_ID + 1;
+
+    /** 已写出的图像对象号，图像在整个文档内共享，各页通过名称引用 */
+    private int[] imageIds = new int[4];
+
+    private int imageCount;
+
+    /** 当前页引用的图像序号，页面资源只列出本页用到的图像 */
+    private final BitSet pageImages = new BitSet();
+
+    private boolean pageOpen;
+
+    /** 行缓冲，逐行复用 */
+    private BitArray rowBuffer = new BitArray();
+
+    public PdfLabelSheetWriter(OutputStream outputStream, float pageWidth, float pageHeight) throws IOException {
+        this.out = new CountingOutputStream(new BufferedOutputStream(outputStream, 64 * 1024));
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        writeAscii("%PDF-1.4\n%âãÏÓ\n");
+        beginObject(CATALOG_ID);
+        writeAscii("<< /Type /Catalog /Pages " + PAGES_ID + " 0 R >>\nendobj\n");
+        beginObject(FONT_ID);
+        writeAscii("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>\nendobj\n");
+        beginObject(BOLD_FONT_ID);
+        writeAscii("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>\nendobj\n");
+        beginObject(CJK_FONT_ID);
+        writeAscii("<< /Type /Font /Subtype /Type0 /BaseFont /STSong-Light /Encoding /UniGB-UCS2-H /DescendantFonts ["
+            + CJK_CID_FONT_ID + " 0 R] >>\nendobj\n");
+        beginObject(CJK_CID_FONT_ID);
+        writeAscii("<< /Type /Font /Subtype /CIDFontType0 /BaseFont /STSong-Light /CIDSystemInfo << /Registry (Adobe)"
+            + " /Ordering (GB1) /Supplement 2 >> /FontDescriptor " + CJK_DESCRIPTOR_ID + " 0 R /DW " + CJK_FULL_WIDTH
+            + " /W [1 95 " + CJK_HALF_WIDTH + "] >>\nendobj\n");
+        beginObject(CJK_DESCRIPTOR_ID);
+        writeAscii("<< /Type /FontDescriptor /FontName /STSong-Light /Flags 6 /FontBBox [-25 -254 1000 880]"
+            + " /ItalicAngle 0 /Ascent 880 /Descent -120 /CapHeight 880 /StemV 93 >>\nendobj\n");
+    }
+
+    /**
+     * 开始新页面，上一页未结束时先结束
+     *
+     * @author jetox
+     * @date 2026/10/18 11:00
+     */
+    public void beginPage() throws IOException {
+        if (pageOpen) {
+            endPage();
+        }
+        content.setLength(0);
+        pageImages.clear();
+        pageOpen = true;
+    }
+
+    /**
+     * 在指定区域绘制位矩阵，一维码只取第一行并拉伸到区域高度，二维码按模块逐行合并连续黑块，
+     * 矩阵为空或没有黑块时不输出任何内容
+     *
+     * @param matrix 位矩阵
+     * @param linear 是否一维码
+     * @param x 区域左上角横坐标
+     * @param y 区域左上角纵坐标
+     * @param width 区域宽度
+     * @param height 区域高度
+     * @author jetox
+     * @date 2026/10/18 11:00
+     */
+    public void drawMatrix(BitMatrix matrix, boolean linear, float x, float y, float width, float height) {
+        int matrixWidth = matrix.getWidth();
+        int rows = linear ? 1 : matrix.getHeight();
+        if (matrixWidth <= 0 || rows <= 0) {
+            return;
+        }
+        boolean filled = false;
+        float moduleWidth = width / matrixWidth;
+        float moduleHeight = linear ? height : height / rows;
+        float bottom = pageHeight - y - height;
+        for (int row = 0; row < rows; row++) {
+            BitArray bits = matrix.getRow(row, rowBuffer);
+            rowBuffer = bits;
+            float rowTop = bottom + height - row * moduleHeight;
+            int start = bits.getNextSet(0);
+            while (start < matrixWidth) {
+                int end = Math.min(bits.getNextUnset(start), matrixWidth);
+                appendNumber(x + start * moduleWidth).append(' ');
+                appendNumber(rowTop - moduleHeight).append(' ');
+                appendNumber((end - start) * moduleWidth).append(' ');
+                appendNumber(moduleHeight).append(" re\n");
+                filled = true;
+                start = bits.getNextSet(end);
+            }
+        }
+        if (filled) {
+            content.append("f\n");
+        }
+    }
+
+    /**
+     * 绘制矩形边框
+     *
+     * @param gray 灰度，0为黑，1为白
+     * @author jetox
+     * @date 2026/10/18 11:00
+     */
+    public void drawRect(float x, float y, float width, float height, float lineWidth, float gray) {
+        appendNumber(gray).append(" G ");
+        appendNumber(lineWidth).append(" w ");
+        appendNumber(x).append(' ');
+        appendNumber(pageHeight - y - height).append(' ');
+        appendNumber(width).append(' ');
+        appendNumber(height).append(" re S 0 G\n");
+    }
+
+    /**
+     * 在指定宽度内水平居中绘制单行文本，y为文本基线位置
+     *
+     * @author jetox
+     * @date 2026/10/18 11:00
+     */
+    public void drawCenteredText(String text, float x, float baseline, float boxWidth, float fontSize) {
+        drawText(text, x, baseline, boxWidth, fontSize, false, ALIGN_CENTER);
+    }
+
+    /**
+     * 在指定宽度内按对齐方式绘制单行文本，y为文本基线位置，加粗时使用Helvetica-Bold，中文文本以描边模拟加粗
+     *
+     * @param align 对齐方式，取ALIGN_LEFT、ALIGN_CENTER、ALIGN_RIGHT
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    public void drawText(String text, float x, float baseline, float boxWidth, float fontSize, boolean bold, int align) {
+        float offset = 0;
+        if (align != ALIGN_LEFT) {
+            // 粗体字宽略大于常规字体，按常规字宽估算即可满足标签排版
+            float free = Math.max(0, boxWidth - textWidth(text, fontSize));
+            offset = align == ALIGN_CENTER ? free / 2 : free;
+        }
+        if (!isLatin1(text)) {
+            drawCjkText(text, x + offset, baseline, fontSize, bold);
+            return;
+        }
+        content.append(bold ? "BT /F2 " : "BT /F1 ");
+        appendNumber(fontSize).append(" Tf ");
+        appendNumber(x + offset).append(' ');
+        appendNumber(pageHeight - baseline).append(" Td (");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                content.append('\\').append(c);
+            } else if (c < 32 || c > 126) {
+                // 非ASCII的Latin-1字符转为八进制转义
+                content.append('\\').append((char) ('0' + (c >> 6 & 7)))
+                    .append((char) ('0' + (c >> 3 & 7))).append((char) ('0' + (c & 7)));
+            } else {
+                content.append(c);
+            }
+        }
+        content.append(") Tj ET\n");
+    }
+
+    /**
+     * 以STSong-Light绘制文本，字符按UCS-2编码为十六进制字符串，增补平面字符的两个代理项各以问号代替
+     */
+    private void drawCjkText(String text, float x, float baseline, float fontSize, boolean bold) {
+        content.append("q BT /F3 ");
+        appendNumber(fontSize).append(" Tf ");
+        if (bold) {
+            content.append("2 Tr ");
+            appendNumber(fontSize * CJK_BOLD_STROKE_RATIO).append(" w ");
+        }
+        appendNumber(x).append(' ');
+        appendNumber(pageHeight - baseline).append(" Td <");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isSurrogate(c)) {
+                c = '?';
+            }
+            content.append(HEX_DIGITS[c >> 12 & 0xF]).append(HEX_DIGITS[c >> 8 & 0xF])
+                .append(HEX_DIGITS[c >> 4 & 0xF]).append(HEX_DIGITS[c & 0xF]);
+        }
+        content.append("> Tj ET Q\n");
+    }
+
+    /**
+     * 绘制直线
+     *
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    public void drawLine(float x1, float y1, float x2, float y2, float lineWidth) {
+        appendNumber(lineWidth).append(" w ");
+        appendNumber(x1).append(' ');
+        appendNumber(pageHeight - y1).append(" m ");
+        appendNumber(x2).append(' ');
+        appendNumber(pageHeight - y2).append(" l S\n");
+    }
+
+    /**
+     * 写出图像对象并返回图像序号，同一图像只需写出一次，之后各页通过drawImage引用
+     * 图像按RGB写出，透明部分按白色背景合成
+     *
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    public int addImage(BufferedImage image) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        deflateBuffer.reset();
+        deflater.reset();
+        try (DeflaterOutputStream deflaterOut = new DeflaterOutputStream(deflateBuffer, deflater, 8192)) {
+            int[] argb = new int[width];
+            byte[] rgb = new byte[width * 3];
+            for (int y = 0; y < height; y++) {
+                image.getRGB(0, y, width, 1, argb, 0, width);
+                for (int x = 0; x < width; x++) {
+                    int pixel = argb[x];
+                    int alpha = pixel >>> 24;
+                    rgb[x * 3] = (byte) blendWhite(pixel >> 16 & 0xFF, alpha);
+                    rgb[x * 3 + 1] = (byte) blendWhite(pixel >> 8 & 0xFF, alpha);
+                    rgb[x * 3 + 2] = (byte) blendWhite(pixel & 0xFF, alpha);
+                }
+                deflaterOut.write(rgb);
+            }
+        }
+        int imageId = nextId++;
+        beginObject(imageId);
+        writeAscii("<< /Type /XObject /Subtype /Image /Width " + width + " /Height " + height
+            + " /ColorSpace /DeviceRGB /BitsPerComponent 8 /Length " + deflateBuffer.size() + " /Filter /FlateDecode >>\nstream\n");
+        deflateBuffer.writeTo(out);
+        writeAscii("\nendstream\nendobj\n");
+        if (imageCount == imageIds.length) {
+            imageIds = Arrays.copyOf(imageIds, imageCount << 1);
+        }
+        imageIds[imageCount] = imageId;
+        return imageCount++;
+    }
+
+    /**
+     * 在指定区域绘制已写出的图像
+     *
+     * @param imageIndex addImage返回的图像序号
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    public void drawImage(int imageIndex, float x, float y, float width, float height) {
+        pageImages.set(imageIndex);
+        content.append("q ");
+        appendNumber(width).append(" 0 0 ");
+        appendNumber(height).append(' ');
+        appendNumber(x).append(' ');
+        appendNumber(pageHeight - y - height).append(" cm /Im").append(imageIndex).append(" Do Q\n");
+    }
+
+    private static int blendWhite(int value, int alpha) {
+        return alpha == 255 ? value : (value * alpha + 255 * (255 - alpha)) / 255;
+    }
+
+    /**
+     * 计算文本宽度，Latin-1文本按Helvetica字宽，其余按STSong-Light字宽
+     *
+     * @author jetox
+     * @date 2026/10/18 11:00
+     */
+    public static float textWidth(String text, float fontSize) {
+        int total = 0;
+        if (isLatin1(text)) {
+            for (int i = 0; i < text.length(); i++) {
+                int index = text.charAt(i) - 32;
+                total += index >= 0 && index < HELVETICA_WIDTHS.length ? HELVETICA_WIDTHS[index] : DEFAULT_CHAR_WIDTH;
+            }
+        } else {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                // 增补平面字符输出为两个半角问号，合计按一个全角字宽
+                if (Character.isLowSurrogate(c)) {
+                    continue;
+                }
+                total += c >= 32 && c <= 126 ? CJK_HALF_WIDTH : CJK_FULL_WIDTH;
+            }
+        }
+        return total * fontSize / 1000f;
+    }
+
+    private static boolean isLatin1(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 255) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 结束当前页面，压缩内容流并立即写出
+     *
+     * @author jetox
+     * @date 2026/10/18 11:00
+     */
+    public void endPage() throws IOException {
+        if (!pageOpen) {
+            return;
+        }
+        pageOpen = false;
+
+        deflateBuffer.reset();
+        deflater.reset();
+        try (DeflaterOutputStream deflaterOut = new DeflaterOutputStream(deflateBuffer, deflater, 8192)) {
+            deflaterOut.write(content.toString().getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        int contentId = nextId++;
+        beginObject(contentId);
+        writeAscii("<< /Length " + deflateBuffer.size() + " /Filter /FlateDecode >>\nstream\n");
+        deflateBuffer.writeTo(out);
+        writeAscii("\nendstream\nendobj\n");
+
+        int pageId = nextId++;
+        beginObject(pageId);
+        StringBuilder page = new StringBuilder(128 + pageImages.cardinality() * 16);
+        page.append("<< /Type /Page /Parent ").append(PAGES_ID).append(" 0 R /MediaBox [0 0 ").append(formatNumber(pageWidth))
+            .append(' ').append(formatNumber(pageHeight)).append("] /Resources << /Font << /F1 ").append(FONT_ID)
+            .append(" 0 R /F2 ").append(BOLD_FONT_ID).append(" 0 R /F3 ").append(CJK_FONT_ID).append(" 0 R >>");
+        if (!pageImages.isEmpty()) {
+            page.append(" /XObject <<");
+            for (int i = pageImages.nextSetBit(0); i >= 0; i = pageImages.nextSetBit(i + 1)) {
+                page.append(" /Im").append(i).append(' ').append(imageIds[i]).append(" 0 R");
+            }
+            page.append(" >>");
+        }
+        page.append(" >> /Contents ").append(contentId).append(" 0 R >>\nendobj\n");
+        writeAscii(page.toString());
+        if (pageCount == pageIds.length) {
+            pageIds = Arrays.copyOf(pageIds, pageCount << 1);
+        }
+        pageIds[pageCount++] = pageId;
+        out.flush();
+    }
+
+    /**
+     * 已写出的页数
+     *
+     * @author jetox
+     * @date 2026/10/18 11:00
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * 写出页面树、交叉引用表与文件尾，并关闭输出流
+     *
+     * @author jetox
+     * @date 2026/10/18 11:00
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (pageOpen) {
+                endPage();
+            }
+            if (pageCount == 0) {
+                beginPage();
+                endPage();
+            }
+            beginObject(PAGES_ID);
+            StringBuilder kids = new StringBuilder(pageCount * 8 + 64);
+            kids.append("<< /Type /Pages /Count ").append(pageCount).append(" /Kids [");
+            for (int i = 0; i < pageCount; i++) {
+                kids.append(pageIds[i]).append(" 0 R ");
+            }
+            kids.append("] >>\nendobj\n");
+            writeAscii(kids.toString());
+
+            long xrefOffset = out.count;
+            StringBuilder xref = new StringBuilder(nextId * 20 + 128);
+            xref.append("xref\n0 ").append(nextId).append("\n0000000000 65535 f \n");
+            for (int id = 1; id < nextId; id++) {
+                String offset = Long.toString(offsets[id]);
+                for (int i = offset.length(); i < 10; i++) {
+                    xref.append('0');
+                }
+                xref.append(offset).append(" 00000 n \n");
+            }
+            xref.append("trailer\n<< /Size ").append(nextId).append(" /Root ").append(CATALOG_ID)
+                .append(" 0 R >>\nstartxref\n").append(xrefOffset).append("\n%%EOF\n");
+            writeAscii(xref.toString());
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void beginObject(int id) throws IOException {
+        if (id >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(offsets.length << 1, id + 1));
+        }
+        offsets[id] = out.count;
+        writeAscii(id + " 0 obj\n");
+    }
+
+    private void writeAscii(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * 追加保留两位小数的数字，避免String.format的开销
+     */
+    private StringBuilder appendNumber(float value) {
+        long scaled = Math.round(value * 100d);
+        if (scaled < 0) {
+            content.append('-');
+            scaled = -scaled;
+        }
+        content.append(scaled / 100);
+        int fraction = (int) (scaled % 100);
+        if (fraction != 0) {
+            content.append('.').append((char) ('0' + fraction / 10));
+            if (fraction % 10 != 0) {
+                content.append((char) ('0' + fraction % 10));
+            }
+        }
+        return content;
+    }
+
+    private String formatNumber(float value) {
+        return Math.round(value) == value ? String.valueOf(Math.round(value)) : String.valueOf(value);
+    }
+
+    /**
+     * 记录已写出字节数，用于生成交叉引用表
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+
+        private long count;
+
+        private CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.print;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 打印作业结果监听器，打印队列按批次回调，实现方可合并为少量更新语句
+ *
+ * @author jetox
+ * @date 2026/10/18 16:40
+ **/
+public interface LabelPrintJobListener {
+
+    /**
+     * 一批作业执行完毕
+     *
+     * @param completedCountMap 成功的作业ID及本批次内成功的次数
+     * @param failedJobIds 重试耗尽后仍失败的作业ID
+     */
+    void onPrintJobsFinished(Map<String, Integer> completedCountMap, Collection<String> failedJobIds);
+}
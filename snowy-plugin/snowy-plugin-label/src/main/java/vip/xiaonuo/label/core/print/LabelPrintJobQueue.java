@@ -0,0 +1,447 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.print;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.net.NetUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.system.SystemUtil;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.exception.CommonException;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 持久化打印作业队列，基于Redis Streams
+ * 每台打印机（host:port）一条流，同一打印机的作业合并在同一条流中按序消费；
+ * 集群中每台打印机由持有租约的一个节点消费，发送等待期间持续续租；节点宕机后租约过期，由其他节点接管，
+ * 并认领空闲时间超过租约时间的未确认作业，未超过的可能仍在原节点发送中，留待之后再认领；
+ * 发送失败的作业按指数退避进入延迟集合，到期后重新入流，重试耗尽后记为失败；
+ * 作业结果在内存中汇总，按固定间隔批量回调监听器，不逐条更新数据库
+ *
+ * @author jetox
+ * @date 2026/10/18 16:40
+ **/
+@Slf4j
+@Component
+public class LabelPrintJobQueue implements ApplicationListener<ApplicationStartedEvent> {
+
+    private static final String STREAM_KEY_PREFIX = "label:print:stream:";
+    private static final String RETRY_KEY_PREFIX = "label:print:retry:";
+    private static final String OWNER_KEY_PREFIX = "label:print:owner:";
+    private static final String PRINTER_SET_KEY = "label:print:printers";
+    private static final String CONSUMER_GROUP = "label-print";
+    private static final String JOB_FIELD = "job";
+
+    /** 本节点标识，作为消费者名称与租约持有者 */
+    private static final String NODE_ID = NetUtil.getLocalhostStr() + "@" + SystemUtil.getCurrentPID();
+
+    /** 单台打印机最大积压作业数，超出时拒绝入队 */
+    private static final int MAX_BACKLOG = 10000;
+
+    /** 单次读取的作业数，同批作业经同一连接连续发送 */
+    private static final int READ_COUNT = 64;
+
+    /** 读取阻塞时间 */
+    private static final Duration READ_BLOCK = Duration.ofSeconds(1);
+
+    /** 打印机租约时间 */
+    private static final long LEASE_MILLIS = 30000;
+
+    /** 发送等待期间的续租间隔 */
+    private static final long LEASE_RENEW_MILLIS = LEASE_MILLIS / 3;
+
+    /** 打印机空闲多久后释放租约 */
+    private static final long IDLE_RELEASE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /** 单个作业最大尝试次数 */
+    private static final int MAX_ATTEMPTS = 5;
+
+    /** 重试退避基数与上限（毫秒） */
+    private static final long RETRY_BASE_MILLIS = 1000;
+    private static final long RETRY_MAX_MILLIS = 60000;
+
+    /** 单批发送等待时间（秒） */
+    private static final long SEND_TIMEOUT_SECONDS = 60;
+
+    /** 打印机发现与结果汇总间隔（毫秒） */
+    private static final long DISCOVER_INTERVAL_MILLIS = 5000;
+    private static final long FLUSH_INTERVAL_MILLIS = 500;
+
+    // Lua脚本：积压未超限时批量入流并登记打印机，首次入队时创建流与消费组
+    private static final DefaultRedisScript<Long> ENQUEUE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('exists', KEYS[1]) == 0 then " +
+        "    redis.call('xgroup', 'create', KEYS[1], ARGV[2], '0', 'MKSTREAM') " +
+        "elseif redis.call('xlen', KEYS[1]) + #ARGV - 3 > tonumber(ARGV[3]) then " +
+        "    return 0 " +
+        "end " +
+        "for i = 4, #ARGV do redis.call('xadd', KEYS[1], '*', 'job', ARGV[i]) end " +
+        "redis.call('sadd', KEYS[2], ARGV[1]) " +
+        "return 1", Long.class);
+
+    // Lua脚本：获取或续期租约
+    private static final DefaultRedisScript<Long> LEASE_SCRIPT = new DefaultRedisScript<>(
+        "local owner = redis.call('get', KEYS[1]) " +
+        "if owner == false or owner == ARGV[1] then " +
+        "    redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+        "    return 1 " +
+        "end " +
+        "return 0", Long.class);
+
+    // Lua脚本：释放租约
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end " +
+        "return 0", Long.class);
+
+    // Lua脚本：打印机流与重试集合均为空时注销打印机并释放租约，与入队脚本互斥执行
+    private static final DefaultRedisScript<Long> RETIRE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) ~= ARGV[1] then return 0 end " +
+        "if redis.call('xlen', KEYS[2]) > 0 or redis.call('zcard', KEYS[3]) > 0 then return 0 end " +
+        "redis.call('srem', KEYS[4], ARGV[2]) " +
+        "redis.call('del', KEYS[1]) " +
+        "return 1", Long.class);
+
+    // Lua脚本：将到期的重试作业移回打印机流
+    private static final DefaultRedisScript<Long> RETRY_PUMP_SCRIPT = new DefaultRedisScript<>(
+        "local items = redis.call('zrangebyscore', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+        "for _, item in ipairs(items) do " +
+        "    redis.call('zrem', KEYS[1], item) " +
+        "    redis.call('xadd', KEYS[2], '*', 'job', item) " +
+        "end " +
+        "return #items", Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RawSocketPrintSpooler rawSocketPrintSpooler;
+
+    @Resource
+    private List<LabelPrintJobListener> labelPrintJobListenerList;
+
+    // 打印机工作线程，每台打印机最多一个
+    private final ExecutorService workerPool = Executors.newCachedThreadPool(new NamedThreadFactory("label-print-worker-", true));
+
+    // 打印机发现与结果汇总
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        new NamedThreadFactory("label-print-scheduler-", true));
+
+    // 本节点正在消费的打印机
+    private final Map<String, PrinterWorker> runningWorkers = new ConcurrentHashMap<>();
+
+    // 待汇总的作业结果
+    private final Queue<String> completedJobIds = new ConcurrentLinkedQueue<>();
+    private final Queue<String> failedJobIds = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running = true;
+
+    @Override
+    public void onApplicationEvent(@NonNull ApplicationStartedEvent applicationStartedEvent) {
+        scheduler.scheduleWithFixedDelay(this::discoverPrinters, 0, DISCOVER_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::flushResults, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 作业入队，请求线程只写Redis，不等待打印机
+     *
+     * @param host 打印机地址
+     * @param port 打印机端口，为空时使用9100
+     * @param jobId 作业ID，结果回调时原样返回
+     * @param data 打印指令
+     */
+    public void enqueue(String host, Integer port, String jobId, byte[] data) {
+        if (StrUtil.isBlank(host)) {
+            throw new CommonException("打印机地址不能为空");
+        }
+        String printer = host + ":" + (port == null ? RawSocketPrintSpooler.DEFAULT_PORT : port);
+        Long result = stringRedisTemplate.execute(ENQUEUE_SCRIPT, List.of(STREAM_KEY_PREFIX + printer, PRINTER_SET_KEY),
+            printer, CONSUMER_GROUP, String.valueOf(MAX_BACKLOG), encodeJob(0, jobId, data));
+        if (result == null || result == 0) {
+            throw new CommonException("打印机{}积压作业已满，请稍后重试", printer);
+        }
+        startWorker(printer);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        running = false;
+        scheduler.shutdownNow();
+        workerPool.shutdownNow();
+        try {
+            workerPool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushResults();
+        // 未确认的作业保留在流中，由接管的节点重新发送
+        runningWorkers.keySet().forEach(printer -> stringRedisTemplate.execute(RELEASE_SCRIPT,
+            List.of(OWNER_KEY_PREFIX + printer), NODE_ID));
+    }
+
+    /**
+     * 扫描登记的打印机，为无人消费的打印机启动工作线程
+     */
+    private void discoverPrinters() {
+        try {
+            Set<String> printers = stringRedisTemplate.opsForSet().members(PRINTER_SET_KEY);
+            if (printers != null) {
+                printers.forEach(this::startWorker);
+            }
+        } catch (Exception e) {
+            log.warn(">>> 打印机发现失败：{}", e.getMessage());
+        }
+    }
+
+    private void startWorker(String printer) {
+        if (!running || runningWorkers.containsKey(printer)) {
+            return;
+        }
+        if (!acquireLease(printer)) {
+            return;
+        }
+        PrinterWorker worker = new PrinterWorker(printer);
+        if (runningWorkers.putIfAbsent(printer, worker) == null) {
+            workerPool.execute(worker);
+        }
+    }
+
+    private boolean acquireLease(String printer) {
+        Long result = stringRedisTemplate.execute(LEASE_SCRIPT, List.of(OWNER_KEY_PREFIX + printer),
+            NODE_ID, String.valueOf(LEASE_MILLIS));
+        return result != null && result == 1;
+    }
+
+    /**
+     * 汇总作业结果并回调监听器，回调失败时结果放回队列下次重试
+     */
+    private void flushResults() {
+        if (completedJobIds.isEmpty() && failedJobIds.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> completedCountMap = new HashMap<>();
+        String jobId;
+        while ((jobId = completedJobIds.poll()) != null) {
+            completedCountMap.merge(jobId, 1, Integer::sum);
+        }
+        Set<String> failedSet = new LinkedHashSet<>();
+        while ((jobId = failedJobIds.poll()) != null) {
+            failedSet.add(jobId);
+        }
+        failedSet.removeAll(completedCountMap.keySet());
+        try {
+            for (LabelPrintJobListener labelPrintJobListener : labelPrintJobListenerList) {
+                labelPrintJobListener.onPrintJobsFinished(completedCountMap, failedSet);
+            }
+        } catch (Exception e) {
+            log.error(">>> 打印结果回写失败，成功{}个，失败{}个", completedCountMap.size(), failedSet.size(), e);
+            completedCountMap.forEach((id, count) -> {
+                for (int i = 0; i < count; i++) {
+                    completedJobIds.add(id);
+                }
+            });
+            failedJobIds.addAll(failedSet);
+        }
+    }
+
+    /**
+     * 作业编码：尝试次数|作业ID|Base64指令
+     */
+    private static String encodeJob(int attempt, String jobId, byte[] data) {
+        return attempt + "|" + jobId + "|" + Base64.encode(data);
+    }
+
+    /**
+     * 打印机工作线程，持有租约期间循环读取作业并发送
+     */
+    private final class PrinterWorker implements Runnable {
+
+        private final String printer;
+        private final String host;
+        private final int port;
+        private final String streamKey;
+        private final String retryKey;
+        private final String ownerKey;
+
+        private PrinterWorker(String printer) {
+            this.printer = printer;
+            int index = printer.lastIndexOf(':');
+            this.host = printer.substring(0, index);
+            this.port = Integer.parseInt(printer.substring(index + 1));
+            this.streamKey = STREAM_KEY_PREFIX + printer;
+            this.retryKey = RETRY_KEY_PREFIX + printer;
+            this.ownerKey = OWNER_KEY_PREFIX + printer;
+        }
+
+        @Override
+        public void run() {
+            Consumer consumer = Consumer.from(CONSUMER_GROUP, NODE_ID);
+            StreamReadOptions readOptions = StreamReadOptions.empty().count(READ_COUNT).block(READ_BLOCK);
+            // 先处理认领到的未确认作业，再读取新作业
+            boolean backlog = true;
+            long lastActiveTime = System.currentTimeMillis();
+            long lastClaimTime = lastActiveTime;
+            try {
+                claimPending();
+                while (running && !Thread.currentThread().isInterrupted()) {
+                    if (!acquireLease(printer)) {
+                        log.info(">>> 打印机{}的租约已被其他节点持有，停止消费", printer);
+                        return;
+                    }
+                    // 接管时尚未空闲够租约时间的作业，之后定期再认领
+                    if (System.currentTimeMillis() - lastClaimTime > LEASE_MILLIS) {
+                        backlog |= claimPending() > 0;
+                        lastClaimTime = System.currentTimeMillis();
+                    }
+                    stringRedisTemplate.execute(RETRY_PUMP_SCRIPT, List.of(retryKey, streamKey),
+                        String.valueOf(System.currentTimeMillis()), String.valueOf(READ_COUNT));
+                    List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(consumer, readOptions,
+                        StreamOffset.create(streamKey, backlog ? ReadOffset.from("0") : ReadOffset.lastConsumed()));
+                    if (records == null || records.isEmpty()) {
+                        if (backlog) {
+                            backlog = false;
+                        } else if (System.currentTimeMillis() - lastActiveTime > IDLE_RELEASE_MILLIS
+                            && Long.valueOf(1).equals(stringRedisTemplate.execute(RETIRE_SCRIPT,
+                            List.of(ownerKey, streamKey, retryKey, PRINTER_SET_KEY), NODE_ID, printer))) {
+                            return;
+                        }
+                        continue;
+                    }
+                    send(records);
+                    lastActiveTime = System.currentTimeMillis();
+                }
+            } catch (Exception e) {
+                if (running) {
+                    log.error(">>> 打印机{}工作线程异常退出，等待重新调度", printer, e);
+                    stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(ownerKey), NODE_ID);
+                }
+            } finally {
+                runningWorkers.remove(printer, this);
+            }
+        }
+
+        /**
+         * 认领其他消费者（已宕机节点）空闲时间超过租约时间的未确认作业，返回认领数量；
+         * 认领后不再持有未确认作业的消费者才移除
+         */
+        private int claimPending() {
+            PendingMessages pendingMessages = stringRedisTemplate.opsForStream().pending(streamKey, CONSUMER_GROUP,
+                Range.unbounded(), Long.MAX_VALUE);
+            Map<String, List<RecordId>> pendingMap = new HashMap<>();
+            for (PendingMessage pendingMessage : pendingMessages) {
+                if (NODE_ID.equals(pendingMessage.getConsumerName())) {
+                    continue;
+                }
+                List<RecordId> recordIds = pendingMap.computeIfAbsent(pendingMessage.getConsumerName(), key -> new ArrayList<>());
+                if (pendingMessage.getElapsedTimeSinceLastDelivery().toMillis() > LEASE_MILLIS) {
+                    recordIds.add(pendingMessage.getId());
+                }
+            }
+            int claimedCount = 0;
+            for (Map.Entry<String, List<RecordId>> entry : pendingMap.entrySet()) {
+                String consumerName = entry.getKey();
+                if (!entry.getValue().isEmpty()) {
+                    // 服务端按空闲时间再次校验，期间被重新投递的作业不会被认领
+                    List<MapRecord<String, Object, Object>> claimed = stringRedisTemplate.opsForStream().claim(streamKey,
+                        CONSUMER_GROUP, NODE_ID, Duration.ofMillis(LEASE_MILLIS), entry.getValue().toArray(new RecordId[0]));
+                    claimedCount += claimed.size();
+                    log.info(">>> 打印机{}认领消费者{}的未确认作业{}个", printer, consumerName, claimed.size());
+                }
+                Consumer consumer = Consumer.from(CONSUMER_GROUP, consumerName);
+                if (stringRedisTemplate.opsForStream().pending(streamKey, consumer, Range.unbounded(), 1L).isEmpty()) {
+                    stringRedisTemplate.opsForStream().deleteConsumer(streamKey, consumer);
+                }
+            }
+            return claimedCount;
+        }
+
+        /**
+         * 一批作业经打印队列连续发送，失败的作业进入延迟重试，最后统一确认并删除
+         */
+        private void send(List<MapRecord<String, Object, Object>> records) throws InterruptedException {
+            int size = records.size();
+            String[][] jobs = new String[size][];
+            List<CompletableFuture<Void>> futures = new ArrayList<>(size);
+            for (MapRecord<String, Object, Object> record : records) {
+                Object value = record.getValue().get(JOB_FIELD);
+                String[] job = value == null ? null : StrUtil.splitToArray(value.toString(), '|', 3);
+                if (job == null || job.length < 3) {
+                    // 格式不正确的条目直接确认丢弃
+                    log.warn(">>> 打印机{}丢弃无法解析的作业条目：{}", printer, record.getId());
+                    jobs[futures.size()] = null;
+                    futures.add(CompletableFuture.completedFuture(null));
+                    continue;
+                }
+                jobs[futures.size()] = job;
+                futures.add(rawSocketPrintSpooler.submit(host, port, Base64.decode(job[2])));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SEND_TIMEOUT_SECONDS);
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < size; i++) {
+                String[] job = jobs[i];
+                if (job == null) {
+                    continue;
+                }
+                try {
+                    awaitSent(futures.get(i), deadline);
+                    completedJobIds.add(job[1]);
+                } catch (ExecutionException | TimeoutException e) {
+                    int attempt = Integer.parseInt(job[0]) + 1;
+                    if (attempt < MAX_ATTEMPTS) {
+                        long delay = Math.min(RETRY_MAX_MILLIS, RETRY_BASE_MILLIS << (attempt - 1));
+                        stringRedisTemplate.opsForZSet().add(retryKey, attempt + "|" + job[1] + "|" + job[2], now + delay);
+                    } else {
+                        log.error(">>> 打印作业{}重试{}次后仍失败，打印机：{}", job[1], attempt, printer);
+                        failedJobIds.add(job[1]);
+                    }
+                }
+            }
+            String[] recordIds = records.stream().map(record -> record.getId().getValue()).toArray(String[]::new);
+            stringRedisTemplate.opsForStream().acknowledge(streamKey, CONSUMER_GROUP, recordIds);
+            stringRedisTemplate.opsForStream().delete(streamKey, recordIds);
+        }
+
+        /**
+         * 等待作业发送完成，等待期间按续租间隔续租，发送耗时超过租约时间也不会被其他节点接管重复打印
+         */
+        private void awaitSent(CompletableFuture<Void> future, long deadline)
+            throws InterruptedException, ExecutionException, TimeoutException {
+            while (true) {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                try {
+                    future.get(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(LEASE_RENEW_MILLIS)), TimeUnit.NANOSECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    if (deadline - System.nanoTime() <= 0) {
+                        throw e;
+                    }
+                    if (!acquireLease(printer)) {
+                        log.warn(">>> 打印机{}发送期间续租失败", printer);
+                    }
+                }
+            }
+        }
+    }
+}
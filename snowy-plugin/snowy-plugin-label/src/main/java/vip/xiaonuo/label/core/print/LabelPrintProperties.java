@@ -0,0 +1,84 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.print;
+
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.exception.CommonException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 标签直连打印配置
+ * 打印机登记在服务端，打印请求只能指定打印机ID，不能传入任意地址，防止借打印接口连接内网其他服务
+ *
+ * @author jetox
+ * @date 2026/10/18 23:56
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "snowy.config.label")
+public class LabelPrintProperties {
+
+    /** 直连打印机，键为打印机ID */
+    private Map<String, Printer> printers = new LinkedHashMap<>();
+
+    /** 连接超时（毫秒） */
+    private int connectTimeout = 3000;
+
+    /** 单批作业写入超时（毫秒），打印机停止接收数据时超时断开 */
+    private int writeTimeout = 10000;
+
+    /**
+     * 根据ID获取登记的打印机
+     *
+     * @author jetox
+     * @date 2026/10/18 23:56
+     */
+    public Printer getPrinter(String printerId) {
+        Printer printer = StrUtil.isBlank(printerId) ? null : printers.get(printerId);
+        if (ObjectUtil.isEmpty(printer) || StrUtil.isBlank(printer.getHost())) {
+            throw new CommonException("打印机不存在或未配置，id值为：{}", printerId);
+        }
+        return printer;
+    }
+
+    /**
+     * 打印机
+     */
+    @Getter
+    @Setter
+    public static class Printer {
+
+        /** 打印机名称 */
+        private String name;
+
+        /** 打印机地址 */
+        private String host;
+
+        /** 打印机端口 */
+        private Integer port = RawSocketPrintSpooler.DEFAULT_PORT;
+
+        /** 默认指令语言（ZPL、TSPL），请求未指定时使用 */
+        private String language;
+
+        /** 默认分辨率，请求未指定时使用 */
+        private Integer dpi;
+    }
+}
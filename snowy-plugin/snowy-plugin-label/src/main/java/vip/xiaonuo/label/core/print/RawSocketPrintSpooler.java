@@ -0,0 +1,265 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.print;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.exception.CommonException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * 原始端口打印队列，按打印机（host:port）排队，每台打印机一个工作线程与一条长连接
+ * 工作线程一次取出队列中已积压的全部作业连续写入后统一flush，连接空闲超时后关闭；
+ * RAW 9100协议没有应答，数据完整写入套接字即视为发送成功；写入失败时重连并整批重发一次，
+ * 此时断线前已送达的标签可能重复打印；套接字写入本身没有超时，单批写入超过写入超时仍未完成时由看门狗关闭连接，
+ * 避免打印机停止接收数据时工作线程永久阻塞
+ *
+ * @author jetox
+ * @date 2026/10/18 16:10
+ **/
+@Slf4j
+@Component
+public class RawSocketPrintSpooler {
+
+    /** 默认打印端口 */
+    public static final int DEFAULT_PORT = 9100;
+
+    /** 单台打印机最大排队作业数 */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /** 单次连续写入的最大作业数 */
+    private static final int PIPELINE_SIZE = 64;
+
+    /** 单批作业发送尝试次数 */
+    private static final int SEND_ATTEMPTS = 2;
+
+    /** 连接空闲关闭时间（毫秒） */
+    private static final long IDLE_TIMEOUT = 60000;
+
+    private final Map<String, PrinterChannel> channelMap = new ConcurrentHashMap<>();
+
+    private final ExecutorService workerPool = Executors.newCachedThreadPool(new NamedThreadFactory("label-print-spooler-", true));
+
+    /** 写入超时看门狗 */
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(
+        new NamedThreadFactory("label-print-watchdog-", true));
+
+    @Resource
+    private LabelPrintProperties labelPrintProperties;
+
+    private volatile boolean shutdown;
+
+    /**
+     * 提交打印作业，返回在数据写入打印机后完成的Future
+     *
+     * @param host 打印机地址
+     * @param port 打印机端口，为空时使用9100
+     * @param data 打印指令
+     */
+    public CompletableFuture<Void> submit(String host, Integer port, byte[] data) {
+        if (StrUtil.isBlank(host)) {
+            throw new CommonException("打印机地址不能为空");
+        }
+        if (shutdown) {
+            throw new CommonException("打印队列已关闭");
+        }
+        int targetPort = port == null ? DEFAULT_PORT : port;
+        PrinterChannel channel = channelMap.computeIfAbsent(host + ":" + targetPort, key -> new PrinterChannel(host, targetPort));
+        PrintJob job = new PrintJob(data);
+        if (!channel.queue.offer(job)) {
+            throw new CommonException("打印机{}:{}排队作业已满，请稍后重试", host, targetPort);
+        }
+        channel.ensureWorker();
+        return job.future;
+    }
+
+    /**
+     * 一批作业从提交到完成或失败的最长耗时（毫秒），含重连重发
+     */
+    public long getMaxSendMillis() {
+        return (long) SEND_ATTEMPTS * (labelPrintProperties.getConnectTimeout() + labelPrintProperties.getWriteTimeout());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        shutdown = true;
+        workerPool.shutdownNow();
+        watchdog.shutdownNow();
+        channelMap.values().forEach(channel -> {
+            channel.closeSocket();
+            PrintJob job;
+            while ((job = channel.queue.poll()) != null) {
+                job.future.completeExceptionally(new IOException("打印队列已关闭"));
+            }
+        });
+    }
+
+    /**
+     * 打印作业
+     */
+    private static final class PrintJob {
+
+        private final byte[] data;
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PrintJob(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * 打印机通道，持有作业队列与长连接，仅由所属工作线程读写连接
+     */
+    private final class PrinterChannel implements Runnable {
+
+        private final String host;
+
+        private final int port;
+
+        private final BlockingQueue<PrintJob> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+
+        private final Object workerLock = new Object();
+
+        private boolean workerRunning;
+
+        private Socket socket;
+
+        private OutputStream outputStream;
+
+        private PrinterChannel(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        private void ensureWorker() {
+            synchronized (workerLock) {
+                if (!workerRunning && !shutdown) {
+                    workerRunning = true;
+                    workerPool.execute(this);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            List<PrintJob> batch = new ArrayList<>(PIPELINE_SIZE);
+            try {
+                while (!shutdown) {
+                    PrintJob first = queue.poll(IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        // 空闲超时，关闭连接并退出，后续提交时重新拉起
+                        synchronized (workerLock) {
+                            if (queue.isEmpty()) {
+                                closeSocket();
+                                workerRunning = false;
+                                return;
+                            }
+                        }
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, PIPELINE_SIZE - 1);
+                    send(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.forEach(job -> job.future.completeExceptionally(new IOException("打印队列已关闭")));
+                synchronized (workerLock) {
+                    if (workerRunning) {
+                        closeSocket();
+                        workerRunning = false;
+                    }
+                }
+            }
+        }
+
+        /**
+         * 连续写入一批作业后统一flush，失败时重连重发尚未确认的部分
+         */
+        private void send(List<PrintJob> batch) {
+            IOException lastError = null;
+            for (int attempt = 0; attempt < SEND_ATTEMPTS; attempt++) {
+                try {
+                    OutputStream out = connect();
+                    Socket current = socket;
+                    ScheduledFuture<?> timeout = watchdog.schedule(() -> closeQuietly(current),
+                        labelPrintProperties.getWriteTimeout(), TimeUnit.MILLISECONDS);
+                    try {
+                        for (PrintJob job : batch) {
+                            out.write(job.data);
+                        }
+                        out.flush();
+                    } finally {
+                        timeout.cancel(false);
+                    }
+                    batch.forEach(job -> job.future.complete(null));
+                    return;
+                } catch (IOException e) {
+                    lastError = e;
+                    closeSocket();
+                }
+            }
+            log.error(">>> 打印机{}:{}发送失败，作业数：{}", host, port, batch.size(), lastError);
+            for (PrintJob job : batch) {
+                job.future.completeExceptionally(lastError);
+            }
+        }
+
+        private OutputStream connect() throws IOException {
+            if (socket == null || socket.isClosed()) {
+                Socket newSocket = new Socket();
+                newSocket.setTcpNoDelay(true);
+                newSocket.setKeepAlive(true);
+                // RAW协议不读取应答，读超时仅作兜底
+                newSocket.setSoTimeout(labelPrintProperties.getWriteTimeout());
+                newSocket.connect(new InetSocketAddress(host, port), labelPrintProperties.getConnectTimeout());
+                socket = newSocket;
+                outputStream = new BufferedOutputStream(newSocket.getOutputStream(), 64 * 1024);
+            }
+            return outputStream;
+        }
+
+        private void closeSocket() {
+            Socket current = socket;
+            socket = null;
+            outputStream = null;
+            closeQuietly(current);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // 忽略关闭异常
+            }
+        }
+    }
+}
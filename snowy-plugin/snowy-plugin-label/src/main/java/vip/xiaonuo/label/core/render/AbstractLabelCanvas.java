@@ -0,0 +1,57 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.render;
+
+import com.google.zxing.common.BitMatrix;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbology;
+
+import java.io.IOException;
+
+/**
+ * 画布基类，统一条码的排版：一维码拉伸到区域宽度并在下方留出可读文本，二维码保持正方形模块居中
+ *
+ * @author jetox
+ * @date 2026/10/18 15:00
+ **/
+public abstract class AbstractLabelCanvas implements LabelCanvas {
+
+    /** 一维码可读文本字号 */
+    protected static final float BARCODE_TEXT_SIZE = 8f;
+
+    /** 一维码可读文本区域高度 */
+    protected static final float BARCODE_TEXT_HEIGHT = 10f;
+
+    @Override
+    public void drawBarcode(BarcodeSymbology symbology, String text, BitMatrix matrix, float x, float y, float width, float height, boolean showText) throws IOException {
+        if (symbology.isLinear()) {
+            float barHeight = showText ? Math.max(1, height - BARCODE_TEXT_HEIGHT) : height;
+            drawMatrix(matrix, true, x, y, width, barHeight);
+            if (showText) {
+                drawText(text, x, y + barHeight, width, BARCODE_TEXT_HEIGHT, BARCODE_TEXT_SIZE, false, LabelElement.ALIGN_CENTER);
+            }
+            return;
+        }
+        float module = Math.min(width / matrix.getWidth(), height / matrix.getHeight());
+        float drawWidth = module * matrix.getWidth();
+        float drawHeight = module * matrix.getHeight();
+        drawMatrix(matrix, false, x + (width - drawWidth) / 2, y + (height - drawHeight) / 2, drawWidth, drawHeight);
+    }
+
+    /**
+     * 把位矩阵填充到指定区域，一维码只取第一行并拉伸到区域高度
+     *
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    protected abstract void drawMatrix(BitMatrix matrix, boolean linear, float x, float y, float width, float height) throws IOException;
+}
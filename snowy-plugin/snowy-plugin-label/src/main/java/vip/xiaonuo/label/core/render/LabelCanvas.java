@@ -0,0 +1,71 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.render;
+
+import com.google.zxing.common.BitMatrix;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbology;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * 标签画布，由各输出格式实现，坐标单位为点（1/72英寸），原点为标签左上角
+ *
+ * @author jetox
+ * @date 2026/10/18 15:00
+ **/
+public interface LabelCanvas {
+
+    /**
+     * 在文本框内绘制单行文本
+     *
+     * @param align 对齐方式，取LabelElement.ALIGN_*常量
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    void drawText(String text, float x, float y, float width, float height, float fontSize, boolean bold, int align) throws IOException;
+
+    /**
+     * 绘制条码或二维码，matrix为按最小模块编码的位矩阵，由画布缩放到目标区域
+     *
+     * @param showText 一维码是否在下方显示可读文本
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    void drawBarcode(BarcodeSymbology symbology, String text, BitMatrix matrix, float x, float y, float width, float height, boolean showText) throws IOException;
+
+    /**
+     * 绘制图像
+     *
+     * @param shared 是否为模板中的静态图片，静态图片在每个标签中都是同一对象，画布可只编码一次后重复引用
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    void drawImage(BufferedImage image, boolean shared, float x, float y, float width, float height) throws IOException;
+
+    /**
+     * 绘制直线
+     *
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    void drawLine(float x1, float y1, float x2, float y2, float lineWidth) throws IOException;
+
+    /**
+     * 绘制矩形边框
+     *
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    void drawRect(float x, float y, float width, float height, float lineWidth) throws IOException;
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.render;
+
+import cn.hutool.core.bean.BeanPath;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.StrUtil;
+import com.google.zxing.common.BitMatrix;
+import lombok.Getter;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbology;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的标签元素，模板解析时已完成单位换算、码制查找、静态图片解码与字段路径编译，
+ * 绘制时只做数据取值，不再解析模板JSON
+ *
+ * @author jetox
+ * @date 2026/10/18 15:00
+ **/
+@Getter
+public class LabelElement {
+
+    /** 左对齐 */
+    public static final int ALIGN_LEFT = 0;
+
+    /** 居中 */
+    public static final int ALIGN_CENTER = 1;
+
+    /** 右对齐 */
+    public static final int ALIGN_RIGHT = 2;
+
+    /** 元素类型 */
+    public enum Type {
+        /** 文本 */
+        TEXT,
+        /** 一维码 */
+        BARCODE,
+        /** 二维码 */
+        QRCODE,
+        /** 图片 */
+        IMAGE,
+        /** 横线 */
+        HLINE,
+        /** 竖线 */
+        VLINE,
+        /** 矩形 */
+        RECT,
+        /** 表格 */
+        TABLE
+    }
+
+    Type type;
+
+    float x;
+
+    float y;
+
+    float width;
+
+    float height;
+
+    /** 绑定字段，为空时使用固定标题 */
+    String field;
+
+    /** 字段取值路径，含“.”时按嵌套路径取值 */
+    BeanPath fieldPath;
+
+    String title;
+
+    boolean hideTitle;
+
+    float fontSize;
+
+    boolean bold;
+
+    int align;
+
+    /** 条码码制 */
+    BarcodeSymbology symbology;
+
+    /** 一维码是否显示可读文本 */
+    boolean showText;
+
+    float lineWidth;
+
+    /** 静态图片，编译时解码，所有标签共享 */
+    BufferedImage image;
+
+    /** 表格列 */
+    List<Column> columns;
+
+    float headerRowHeight;
+
+    float bodyRowHeight;
+
+    /**
+     * 按数据行绘制元素
+     *
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    public void paint(LabelCanvas canvas, Map<String, Object> row) throws IOException {
+        switch (type) {
+            case TEXT -> {
+                String text = resolveText(row);
+                if (StrUtil.isNotEmpty(text)) {
+                    canvas.drawText(text, x, y, width, height, fontSize, bold, align);
+                }
+            }
+            case BARCODE, QRCODE -> {
+                String text = StrUtil.isEmpty(field) ? title : Convert.toStr(resolveValue(row), null);
+                if (StrUtil.isNotEmpty(text)) {
+                    BitMatrix matrix = symbology.encode(text, 0, 0);
+                    canvas.drawBarcode(symbology, text, matrix, x, y, width, height, showText);
+                }
+            }
+            case IMAGE -> {
+                BufferedImage current = image != null ? image : LabelLayoutCompiler.decodeImage(Convert.toStr(resolveValue(row), null));
+                if (current != null) {
+                    canvas.drawImage(current, current == image, x, y, width, height);
+                }
+            }
+            case HLINE -> canvas.drawLine(x, y, x + width, y, lineWidth);
+            case VLINE -> canvas.drawLine(x, y, x, y + height, lineWidth);
+            case RECT -> canvas.drawRect(x, y, width, height, lineWidth);
+            case TABLE -> paintTable(canvas, row);
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * 表格按表头加明细行绘制，单元格文本垂直居中，明细超出元素高度的部分不再绘制
+     */
+    private void paintTable(LabelCanvas canvas, Map<String, Object> row) throws IOException {
+        Object value = resolveValue(row);
+        Collection<?> items = value instanceof Collection<?> collection ? collection : List.of();
+        int maxRows = Math.max(0, (int) ((height - headerRowHeight) / bodyRowHeight));
+        int rowCount = Math.min(items.size(), maxRows);
+        float tableHeight = headerRowHeight + rowCount * bodyRowHeight;
+
+        canvas.drawRect(x, y, width, tableHeight, lineWidth);
+        canvas.drawLine(x, y + headerRowHeight, x + width, y + headerRowHeight, lineWidth);
+        float columnX = x;
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            canvas.drawText(column.title, columnX, y + (headerRowHeight - fontSize) / 2, column.width, fontSize, fontSize, true, ALIGN_CENTER);
+            columnX += column.width;
+            if (i < columns.size() - 1) {
+                canvas.drawLine(columnX, y, columnX, y + tableHeight, lineWidth);
+            }
+        }
+
+        float rowY = y + headerRowHeight;
+        int index = 0;
+        for (Object item : items) {
+            if (index++ >= rowCount) {
+                break;
+            }
+            columnX = x;
+            for (Column column : columns) {
+                Object cell = item instanceof Map<?, ?> map ? map.get(column.field) : null;
+                String text = Convert.toStr(cell, null);
+                if (StrUtil.isNotEmpty(text)) {
+                    canvas.drawText(text, columnX, rowY + (bodyRowHeight - fontSize) / 2, column.width, fontSize, fontSize, false, column.align);
+                }
+                columnX += column.width;
+            }
+            rowY += bodyRowHeight;
+            if (index < rowCount) {
+                canvas.drawLine(x, rowY, x + width, rowY, lineWidth);
+            }
+        }
+    }
+
+    /**
+     * 文本元素的显示内容，绑定字段且未隐藏标题时显示为“标题：值”
+     */
+    private String resolveText(Map<String, Object> row) {
+        if (StrUtil.isEmpty(field)) {
+            return title;
+        }
+        String value = Convert.toStr(resolveValue(row), "");
+        return hideTitle || StrUtil.isEmpty(title) ? value : title + "：" + value;
+    }
+
+    private Object resolveValue(Map<String, Object> row) {
+        if (StrUtil.isEmpty(field) || row == null) {
+            return null;
+        }
+        return fieldPath != null ? fieldPath.get(row) : row.get(field);
+    }
+
+    /**
+     * 表格列
+     */
+    @Getter
+    public static class Column {
+
+        String title;
+
+        String field;
+
+        float width;
+
+        int align;
+    }
+}
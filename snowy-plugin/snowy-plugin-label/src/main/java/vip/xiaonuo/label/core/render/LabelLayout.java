@@ -0,0 +1,73 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.render;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译后的标签布局，不可变，可在多线程间共享
+ *
+ * @author jetox
+ * @date 2026/10/18 15:00
+ **/
+@Getter
+public class LabelLayout {
+
+    /** 模板ID */
+    private final String templateId;
+
+    /** 模板版本，取编译时的集群缓存版本号 */
+    private final long version;
+
+    /** 标签宽度（点） */
+    private final float width;
+
+    /** 标签高度（点） */
+    private final float height;
+
+    private final List<LabelElement> elements;
+
+    /** 模板引用的数据字段 */
+    private final Set<String> fieldKeys;
+
+    /** 必填字段，来自模板的动态字段配置 */
+    private final Set<String> requiredFieldKeys;
+
+    public LabelLayout(String templateId, long version, float width, float height, List<LabelElement> elements,
+                       Set<String> fieldKeys, Set<String> requiredFieldKeys) {
+        this.templateId = templateId;
+        this.version = version;
+        this.width = width;
+        this.height = height;
+        this.elements = elements;
+        this.fieldKeys = fieldKeys;
+        this.requiredFieldKeys = requiredFieldKeys;
+    }
+
+    /**
+     * 按数据行绘制整个标签
+     *
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    public void paint(LabelCanvas canvas, Map<String, Object> row) throws IOException {
+        for (LabelElement element : elements) {
+            element.paint(canvas, row);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.render;
+
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.label.core.cache.LabelVersionedCache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 标签布局本地缓存，按模板ID缓存编译结果
+ * 模板编辑、设计、删除及动态字段变更时递增集群版本号，各节点命中前按版本号校验，命中时不查询模板
+ *
+ * @author jetox
+ * @date 2026/10/18 15:00
+ **/
+@Component
+public class LabelLayoutCache extends LabelVersionedCache<LabelLayout> {
+
+    /** 最大缓存模板数 */
+    private static final int MAX_SIZE = 512;
+
+    /** 缓存过期时间 */
+    private static final long EXPIRE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    public LabelLayoutCache() {
+        super("label-layout", MAX_SIZE, EXPIRE_MILLIS);
+    }
+}
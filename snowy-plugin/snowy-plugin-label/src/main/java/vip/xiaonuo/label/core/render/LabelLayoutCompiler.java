@@ -0,0 +1,259 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.render;
+
+import cn.hutool.core.bean.BeanPath;
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbology;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbologyRegistry;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * sv-print模板编译器，把templateContent解析为标签布局
+ * 面板宽高单位为毫米，元素坐标与尺寸单位为点，编译后统一为点；只取第一个面板
+ *
+ * @author jetox
+ * @date 2026/10/18 15:00
+ **/
+@Slf4j
+@Component
+public class LabelLayoutCompiler {
+
+    /** 毫米换算为点 */
+    private static final float MM_TO_PT = 72f / 25.4f;
+
+    private static final float DEFAULT_FONT_SIZE = 9f;
+
+    private static final float DEFAULT_LINE_WIDTH = 0.75f;
+
+    private static final String DEFAULT_BARCODE_TYPE = "CODE128";
+
+    private static final String QRCODE_TYPE = "QR";
+
+    private final BarcodeSymbologyRegistry barcodeSymbologyRegistry;
+
+    public LabelLayoutCompiler(BarcodeSymbologyRegistry barcodeSymbologyRegistry) {
+        this.barcodeSymbologyRegistry = barcodeSymbologyRegistry;
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param templateId 模板ID
+     * @param version 模板版本
+     * @param templateContent sv-print模板JSON
+     * @param requiredFieldKeys 必填字段
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    public LabelLayout compile(String templateId, long version, String templateContent, Set<String> requiredFieldKeys) {
+        if (StrUtil.isBlank(templateContent)) {
+            throw new CommonException("模板尚未设计，模板ID：{}", templateId);
+        }
+        JSONArray panels;
+        try {
+            panels = JSONUtil.parseObj(templateContent).getJSONArray("panels");
+        } catch (Exception e) {
+            throw new CommonException("模板内容格式错误：{}", e.getMessage());
+        }
+        if (panels == null || panels.isEmpty()) {
+            throw new CommonException("模板不包含任何面板，模板ID：{}", templateId);
+        }
+        JSONObject panel = panels.getJSONObject(0);
+        float width = panel.getFloat("width", 100f) * MM_TO_PT;
+        float height = panel.getFloat("height", 60f) * MM_TO_PT;
+
+        List<LabelElement> elements = new ArrayList<>();
+        Set<String> fieldKeys = new LinkedHashSet<>();
+        JSONArray printElements = panel.getJSONArray("printElements");
+        if (printElements != null) {
+            for (int i = 0; i < printElements.size(); i++) {
+                LabelElement element = compileElement(printElements.getJSONObject(i));
+                if (element != null) {
+                    elements.add(element);
+                    if (StrUtil.isNotEmpty(element.field)) {
+                        fieldKeys.add(element.field);
+                    }
+                }
+            }
+        }
+        return new LabelLayout(templateId, version, width, height, Collections.unmodifiableList(elements),
+                Collections.unmodifiableSet(fieldKeys), Collections.unmodifiableSet(new LinkedHashSet<>(requiredFieldKeys)));
+    }
+
+    /**
+     * 编译单个元素，不支持的元素类型返回null
+     */
+    private LabelElement compileElement(JSONObject printElement) {
+        JSONObject options = printElement.getJSONObject("options");
+        JSONObject printElementType = printElement.getJSONObject("printElementType");
+        if (options == null || printElementType == null) {
+            return null;
+        }
+        LabelElement.Type type = resolveType(printElementType.getStr("type"), options.getStr("textType"));
+        if (type == null) {
+            log.debug("忽略不支持的模板元素：{}", printElementType.getStr("type"));
+            return null;
+        }
+
+        LabelElement element = new LabelElement();
+        element.type = type;
+        element.x = options.getFloat("left", 0f);
+        element.y = options.getFloat("top", 0f);
+        element.width = options.getFloat("width", 0f);
+        element.height = options.getFloat("height", 0f);
+        element.field = StrUtil.emptyToNull(options.getStr("field"));
+        if (element.field != null && element.field.contains(".")) {
+            element.fieldPath = BeanPath.create(element.field);
+        }
+        element.title = StrUtil.nullToEmpty(options.getStr("title"));
+        element.hideTitle = options.getBool("hideTitle", false);
+        element.fontSize = options.getFloat("fontSize", DEFAULT_FONT_SIZE);
+        element.bold = isBold(options.getStr("fontWeight"));
+        element.align = resolveAlign(options.getStr("textAlign"));
+        element.lineWidth = options.getFloat("borderWidth", DEFAULT_LINE_WIDTH);
+
+        switch (type) {
+            case BARCODE -> {
+                element.symbology = resolveBarcode(options.getStr("barcodeType"));
+                element.showText = options.getBool("displayValue", true);
+            }
+            case QRCODE -> element.symbology = barcodeSymbologyRegistry.get(QRCODE_TYPE);
+            case IMAGE -> {
+                if (element.field == null) {
+                    element.image = decodeImage(options.getStr("src"));
+                    if (element.image == null) {
+                        return null;
+                    }
+                }
+            }
+            case TABLE -> compileTable(element, options);
+            default -> {
+            }
+        }
+        return element;
+    }
+
+    private LabelElement.Type resolveType(String type, String textType) {
+        if (type == null) {
+            return null;
+        }
+        return switch (type) {
+            case "text", "longText" -> "barcode".equals(textType) ? LabelElement.Type.BARCODE
+                    : "qrcode".equals(textType) ? LabelElement.Type.QRCODE : LabelElement.Type.TEXT;
+            case "barcode" -> LabelElement.Type.BARCODE;
+            case "qrcode" -> LabelElement.Type.QRCODE;
+            case "image" -> LabelElement.Type.IMAGE;
+            case "hline" -> LabelElement.Type.HLINE;
+            case "vline" -> LabelElement.Type.VLINE;
+            case "rect", "oval" -> LabelElement.Type.RECT;
+            case "table", "tableCustom" -> LabelElement.Type.TABLE;
+            default -> null;
+        };
+    }
+
+    /**
+     * 表格列宽合计与元素宽度不一致时按比例缩放
+     */
+    private void compileTable(LabelElement element, JSONObject options) {
+        JSONArray columnArray = options.getJSONArray("columns");
+        if (columnArray != null && !columnArray.isEmpty() && columnArray.get(0) instanceof JSONArray) {
+            columnArray = columnArray.getJSONArray(0);
+        }
+        List<LabelElement.Column> columns = new ArrayList<>();
+        float totalWidth = 0;
+        if (columnArray != null) {
+            for (int i = 0; i < columnArray.size(); i++) {
+                JSONObject columnObject = columnArray.getJSONObject(i);
+                LabelElement.Column column = new LabelElement.Column();
+                column.title = StrUtil.nullToEmpty(columnObject.getStr("title"));
+                column.field = columnObject.getStr("field");
+                column.width = columnObject.getFloat("width", 50f);
+                column.align = resolveAlign(columnObject.getStr("align"));
+                totalWidth += column.width;
+                columns.add(column);
+            }
+        }
+        if (totalWidth > 0) {
+            float scale = element.width / totalWidth;
+            columns.forEach(column -> column.width *= scale);
+        }
+        element.columns = Collections.unmodifiableList(columns);
+        element.headerRowHeight = options.getFloat("tableHeaderRowHeight", element.fontSize * 2.2f);
+        element.bodyRowHeight = options.getFloat("tableBodyRowHeight", element.fontSize * 2.2f);
+    }
+
+    /**
+     * 把前端条码类型映射到已注册的码制，CODE128A/B/C统一为CODE128，未注册的类型回退为CODE128
+     */
+    private BarcodeSymbology resolveBarcode(String barcodeType) {
+        String type = StrUtil.isEmpty(barcodeType) ? DEFAULT_BARCODE_TYPE : barcodeType.toUpperCase(Locale.ROOT);
+        if (type.startsWith(DEFAULT_BARCODE_TYPE)) {
+            type = DEFAULT_BARCODE_TYPE;
+        }
+        if (!barcodeSymbologyRegistry.getTypes().contains(type)) {
+            log.debug("条码类型{}未注册，使用{}", barcodeType, DEFAULT_BARCODE_TYPE);
+            type = DEFAULT_BARCODE_TYPE;
+        }
+        return barcodeSymbologyRegistry.get(type);
+    }
+
+    private boolean isBold(String fontWeight) {
+        if (StrUtil.isEmpty(fontWeight)) {
+            return false;
+        }
+        return "bold".equalsIgnoreCase(fontWeight) || "bolder".equalsIgnoreCase(fontWeight)
+                || (StrUtil.isNumeric(fontWeight) && Integer.parseInt(fontWeight) >= 600);
+    }
+
+    private int resolveAlign(String textAlign) {
+        if ("center".equals(textAlign)) {
+            return LabelElement.ALIGN_CENTER;
+        }
+        if ("right".equals(textAlign)) {
+            return LabelElement.ALIGN_RIGHT;
+        }
+        return LabelElement.ALIGN_LEFT;
+    }
+
+    /**
+     * 解码data URI格式的图片，其他格式或解码失败时返回null，不访问网络地址
+     *
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    public static BufferedImage decodeImage(String src) {
+        if (StrUtil.isEmpty(src) || !src.startsWith("data:")) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.decode(src.substring(src.indexOf(',') + 1));
+            return ImageIO.read(new ByteArrayInputStream(bytes));
+        } catch (IOException | RuntimeException e) {
+            log.debug("模板图片解码失败：{}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.render;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 标签输出格式渲染器，新增格式只需注册一个Bean
+ *
+ * @author jetox
+ * @date 2026/10/18 15:00
+ **/
+public interface LabelRenderer {
+
+    /**
+     * 输出格式标识，如PNG、PDF、ZPL，不区分大小写
+     *
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    String getFormat();
+
+    /**
+     * 响应内容类型
+     *
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    String getContentType();
+
+    /**
+     * 文件扩展名
+     *
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    String getExtension();
+
+    /**
+     * 按数据行逐个渲染标签并写入输出流，输出流由调用方关闭
+     *
+     * @param layout 编译后的标签布局
+     * @param rows 数据行，每行一个标签
+     * @param options 渲染选项，如dpi
+     * @param outputStream 输出流
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    void render(LabelLayout layout, List<Map<String, Object>> rows, Map<String, Object> options, OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.render.format;
+
+import com.google.zxing.common.BitMatrix;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.label.core.pdf.PdfLabelSheetWriter;
+import vip.xiaonuo.label.core.render.AbstractLabelCanvas;
+import vip.xiaonuo.label.core.render.LabelLayout;
+import vip.xiaonuo.label.core.render.LabelRenderer;
+
+import java.awt.image.BufferedImage;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PDF渲染器，每个标签一页，页面尺寸与模板一致，逐页流式写出
+ * 模板中的静态图片在文档内只写出一次，各页共享引用
+ *
+ * @author jetox
+ * @date 2026/10/18 15:00
+ **/
+@Component
+public class PdfLabelRenderer implements LabelRenderer {
+
+    /** 文本基线相对字号的位置，按Helvetica上升高度估算 */
+    private static final float BASELINE_RATIO = 0.8f;
+
+    @Override
+    public String getFormat() {
+        return "PDF";
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/pdf";
+    }
+
+    @Override
+    public String getExtension() {
+        return "pdf";
+    }
+
+    @Override
+    public void render(LabelLayout layout, List<Map<String, Object>> rows, Map<String, Object> options, OutputStream outputStream) throws IOException {
+        // 输出流由调用方关闭，写入器关闭时只结束文档
+        OutputStream unclosable = new FilterOutputStream(outputStream) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        try (PdfLabelSheetWriter writer = new PdfLabelSheetWriter(unclosable, layout.getWidth(), layout.getHeight())) {
+            PdfCanvas canvas = new PdfCanvas(writer);
+            for (Map<String, Object> row : rows) {
+                writer.beginPage();
+                layout.paint(canvas, row);
+                writer.endPage();
+            }
+        }
+    }
+
+    /**
+     * 基于PdfLabelSheetWriter的画布
+     */
+    private static final class PdfCanvas extends AbstractLabelCanvas {
+
+        private final PdfLabelSheetWriter writer;
+
+        /** 已写出的静态图像及其序号 */
+        private final Map<BufferedImage, Integer> imageIndexMap = new IdentityHashMap<>();
+
+        private PdfCanvas(PdfLabelSheetWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void drawText(String text, float x, float y, float width, float height, float fontSize, boolean bold, int align) {
+            // 画布对齐常量与写入器一致
+            writer.drawText(text, x, y + fontSize * BASELINE_RATIO, width, fontSize, bold, align);
+        }
+
+        @Override
+        public void drawImage(BufferedImage image, boolean shared, float x, float y, float width, float height) throws IOException {
+            Integer imageIndex = shared ? imageIndexMap.get(image) : null;
+            if (imageIndex == null) {
+                imageIndex = writer.addImage(image);
+                if (shared) {
+                    imageIndexMap.put(image, imageIndex);
+                }
+            }
+            writer.drawImage(imageIndex, x, y, width, height);
+        }
+
+        @Override
+        public void drawLine(float x1, float y1, float x2, float y2, float lineWidth) {
+            writer.drawLine(x1, y1, x2, y2, lineWidth);
+        }
+
+        @Override
+        public void drawRect(float x, float y, float width, float height, float lineWidth) {
+            writer.drawRect(x, y, width, height, lineWidth, 0f);
+        }
+
+        @Override
+        protected void drawMatrix(BitMatrix matrix, boolean linear, float x, float y, float width, float height) {
+            writer.drawMatrix(matrix, linear, x, y, width, height);
+        }
+    }
+}
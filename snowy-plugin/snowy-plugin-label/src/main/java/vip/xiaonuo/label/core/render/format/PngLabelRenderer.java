@@ -0,0 +1,155 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.render.format;
+
+import cn.hutool.core.convert.Convert;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.label.core.barcode.BarcodeImageFormat;
+import vip.xiaonuo.label.core.render.AbstractLabelCanvas;
+import vip.xiaonuo.label.core.render.LabelElement;
+import vip.xiaonuo.label.core.render.LabelLayout;
+import vip.xiaonuo.label.core.render.LabelRenderer;
+
+import java.awt.*;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PNG渲染器，用于服务端预览，一次渲染一个标签
+ *
+ * @author jetox
+ * @date 2026/10/18 15:00
+ **/
+@Component
+public class PngLabelRenderer implements LabelRenderer {
+
+    /** 默认分辨率 */
+    private static final int DEFAULT_DPI = 144;
+
+    /** 最大分辨率，防止请求生成超大图片 */
+    private static final int MAX_DPI = 600;
+
+    @Override
+    public String getFormat() {
+        return "PNG";
+    }
+
+    @Override
+    public String getContentType() {
+        return "image/png";
+    }
+
+    @Override
+    public String getExtension() {
+        return "png";
+    }
+
+    @Override
+    public void render(LabelLayout layout, List<Map<String, Object>> rows, Map<String, Object> options, OutputStream outputStream) throws IOException {
+        if (rows.size() != 1) {
+            throw new CommonException("PNG格式一次只能渲染一个标签");
+        }
+        int dpi = Math.min(MAX_DPI, Math.max(72, Convert.toInt(options.get("dpi"), DEFAULT_DPI)));
+        float scale = dpi / 72f;
+        BufferedImage image = new BufferedImage(Math.max(1, Math.round(layout.getWidth() * scale)),
+                Math.max(1, Math.round(layout.getHeight() * scale)), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g2d.scale(scale, scale);
+            g2d.setColor(Color.BLACK);
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            layout.paint(new PngCanvas(g2d), rows.get(0));
+        } finally {
+            g2d.dispose();
+        }
+        BarcodeImageFormat.PNG.write(image, outputStream);
+    }
+
+    /**
+     * 基于Graphics2D的画布，坐标已按分辨率缩放，直接使用点为单位绘制
+     */
+    private static final class PngCanvas extends AbstractLabelCanvas {
+
+        private final Graphics2D g2d;
+
+        private PngCanvas(Graphics2D g2d) {
+            this.g2d = g2d;
+        }
+
+        @Override
+        public void drawText(String text, float x, float y, float width, float height, float fontSize, boolean bold, int align) {
+            g2d.setFont(new Font(Font.SANS_SERIF, bold ? Font.BOLD : Font.PLAIN, Math.max(1, Math.round(fontSize))));
+            FontMetrics fm = g2d.getFontMetrics();
+            float offset = 0;
+            if (align != LabelElement.ALIGN_LEFT) {
+                float free = Math.max(0, width - fm.stringWidth(text));
+                offset = align == LabelElement.ALIGN_CENTER ? free / 2 : free;
+            }
+            g2d.drawString(text, x + offset, y + fm.getAscent());
+        }
+
+        @Override
+        public void drawImage(BufferedImage image, boolean shared, float x, float y, float width, float height) {
+            g2d.drawImage(image, Math.round(x), Math.round(y), Math.round(width), Math.round(height), null);
+        }
+
+        @Override
+        public void drawLine(float x1, float y1, float x2, float y2, float lineWidth) {
+            g2d.setStroke(new BasicStroke(lineWidth));
+            g2d.draw(new Line2D.Float(x1, y1, x2, y2));
+        }
+
+        @Override
+        public void drawRect(float x, float y, float width, float height, float lineWidth) {
+            g2d.setStroke(new BasicStroke(lineWidth));
+            g2d.draw(new Rectangle2D.Float(x, y, width, height));
+        }
+
+        @Override
+        protected void drawMatrix(BitMatrix matrix, boolean linear, float x, float y, float width, float height) {
+            // 条码不做抗锯齿，保证条空边缘清晰
+            Object antialias = g2d.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            int matrixWidth = matrix.getWidth();
+            int rows = linear ? 1 : matrix.getHeight();
+            float moduleWidth = width / matrixWidth;
+            float moduleHeight = linear ? height : height / rows;
+            BitArray bits = new BitArray(matrixWidth);
+            Rectangle2D.Float rect = new Rectangle2D.Float();
+            for (int row = 0; row < rows; row++) {
+                bits = matrix.getRow(row, bits);
+                int start = bits.getNextSet(0);
+                while (start < matrixWidth) {
+                    int end = Math.min(bits.getNextUnset(start), matrixWidth);
+                    rect.setRect(x + start * moduleWidth, y + row * moduleHeight, (end - start) * moduleWidth, moduleHeight);
+                    g2d.fill(rect);
+                    start = bits.getNextSet(end);
+                }
+            }
+            if (antialias != null) {
+                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialias);
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.render.format;
+
+import cn.hutool.core.convert.Convert;
+import com.google.zxing.common.BitMatrix;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbology;
+import vip.xiaonuo.label.core.render.AbstractLabelCanvas;
+import vip.xiaonuo.label.core.render.LabelElement;
+import vip.xiaonuo.label.core.render.LabelLayout;
+import vip.xiaonuo.label.core.render.LabelRenderer;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TSPL渲染器，输出TSC系列打印机指令，每个标签以CLS开始、PRINT结束
+ * 常用码制使用打印机原生条码指令，其余码制与图片按点阵以BITMAP下发；
+ * 纯ASCII文本使用矢量字体"0"按点数缩放，含中文时使用内置简体中文字库TSS24.BF2
+ *
+ * @author jetox
+ * @date 2026/10/18 16:00
+ **/
+@Component
+public class TsplLabelRenderer implements LabelRenderer {
+
+    /** 默认打印分辨率 */
+    private static final int DEFAULT_DPI = 203;
+
+    /** 默认标签间隙（毫米） */
+    private static final int DEFAULT_GAP_MM = 2;
+
+    /** 中文字库点阵高度 */
+    private static final int CJK_FONT_DOTS = 24;
+
+    @Override
+    public String getFormat() {
+        return "TSPL";
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/octet-stream";
+    }
+
+    @Override
+    public String getExtension() {
+        return "prn";
+    }
+
+    @Override
+    public void render(LabelLayout layout, List<Map<String, Object>> rows, Map<String, Object> options, OutputStream outputStream) throws IOException {
+        int dpi = Convert.toInt(options.get("dpi"), DEFAULT_DPI);
+        int gap = Convert.toInt(options.get("gap"), DEFAULT_GAP_MM);
+        OutputStream out = new BufferedOutputStream(outputStream, 64 * 1024);
+        float mmPerPoint = 25.4f / 72f;
+        writeAscii(out, "SIZE " + formatMm(layout.getWidth() * mmPerPoint) + " mm," + formatMm(layout.getHeight() * mmPerPoint) + " mm\r\n"
+                + "GAP " + gap + " mm,0 mm\r\nDIRECTION 1\r\nREFERENCE 0,0\r\nCODEPAGE UTF-8\r\n");
+        TsplCanvas canvas = new TsplCanvas(dpi / 72f);
+        for (Map<String, Object> row : rows) {
+            canvas.label.reset();
+            canvas.command("CLS");
+            layout.paint(canvas, row);
+            canvas.command("PRINT 1,1");
+            canvas.label.writeTo(out);
+        }
+        out.flush();
+    }
+
+    private static String formatMm(float mm) {
+        return String.valueOf(Math.round(mm * 10) / 10f);
+    }
+
+    private static void writeAscii(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * TSPL画布，坐标按分辨率换算为点数，指令为文本，BITMAP数据为二进制
+     */
+    private static final class TsplCanvas extends AbstractLabelCanvas {
+
+        private final float scale;
+
+        /** 当前标签指令 */
+        private final ByteArrayOutputStream label = new ByteArrayOutputStream(4096);
+
+        private TsplCanvas(float scale) {
+            this.scale = scale;
+        }
+
+        private int dots(float points) {
+            return Math.round(points * scale);
+        }
+
+        private void command(String command) {
+            byte[] bytes = (command + "\r\n").getBytes(StandardCharsets.UTF_8);
+            label.write(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void drawText(String text, float x, float y, float width, float height, float fontSize, boolean bold, int align) {
+            // 对齐参数：1左、2中、3右，x为对应的锚点
+            int anchorX = dots(x);
+            int alignment = 1;
+            if (align == LabelElement.ALIGN_CENTER) {
+                anchorX = dots(x + width / 2);
+                alignment = 2;
+            } else if (align == LabelElement.ALIGN_RIGHT) {
+                anchorX = dots(x + width);
+                alignment = 3;
+            }
+            if (isAscii(text)) {
+                int size = Math.max(1, Math.round(fontSize));
+                command("TEXT " + anchorX + "," + dots(y) + ",\"0\",0," + size + "," + size + "," + alignment + ",\"" + escape(text) + "\"");
+            } else {
+                int multiplier = Math.max(1, Math.round(dots(fontSize) / (float) CJK_FONT_DOTS));
+                command("TEXT " + anchorX + "," + dots(y) + ",\"TSS24.BF2\",0," + multiplier + "," + multiplier + "," + alignment + ",\"" + escape(text) + "\"");
+            }
+        }
+
+        @Override
+        public void drawBarcode(BarcodeSymbology symbology, String text, BitMatrix matrix, float x, float y, float width, float height, boolean showText) throws IOException {
+            int xDots = dots(x);
+            int yDots = dots(y);
+            int widthDots = dots(width);
+            int heightDots = dots(height);
+            int matrixWidth = matrix.getWidth();
+            switch (symbology.getType()) {
+                case "CODE128", "CODE39", "EAN13" -> {
+                    int module = Math.max(1, widthDots / matrixWidth);
+                    int barHeight = Math.max(1, showText ? heightDots - dots(BARCODE_TEXT_HEIGHT) : heightDots);
+                    String codeType = switch (symbology.getType()) {
+                        case "CODE128" -> "128";
+                        case "CODE39" -> "39";
+                        default -> "EAN13";
+                    };
+                    // 可读文本：0不显示，2居中显示
+                    command("BARCODE " + (xDots + (widthDots - module * matrixWidth) / 2) + "," + yDots + ",\"" + codeType + "\","
+                            + barHeight + "," + (showText ? 2 : 0) + ",0," + module + "," + module + ",\"" + escape(text) + "\"");
+                }
+                case "QR" -> {
+                    int cell = Math.max(1, Math.min(10, Math.min(widthDots, heightDots) / matrixWidth));
+                    command("QRCODE " + xDots + "," + yDots + ",M," + cell + ",A,0,\"" + escape(text) + "\"");
+                }
+                case "DATAMATRIX" -> command("DMATRIX " + xDots + "," + yDots + "," + widthDots + "," + heightDots + ",\"" + escape(text) + "\"");
+                default -> super.drawBarcode(symbology, text, matrix, x, y, width, height, showText);
+            }
+        }
+
+        @Override
+        protected void drawMatrix(BitMatrix matrix, boolean linear, float x, float y, float width, float height) {
+            int widthDots = Math.max(1, dots(width));
+            int heightDots = Math.max(1, dots(height));
+            int stride = (widthDots + 7) >> 3;
+            byte[] bits = new byte[stride * heightDots];
+            int matrixWidth = matrix.getWidth();
+            int matrixHeight = linear ? 1 : matrix.getHeight();
+            for (int yd = 0; yd < heightDots; yd++) {
+                int row = Math.min(matrixHeight - 1, yd * matrixHeight / heightDots);
+                for (int xd = 0; xd < widthDots; xd++) {
+                    if (matrix.get(Math.min(matrixWidth - 1, xd * matrixWidth / widthDots), row)) {
+                        bits[yd * stride + (xd >> 3)] |= (byte) (0x80 >> (xd & 7));
+                    }
+                }
+            }
+            appendBitmap(dots(x), dots(y), stride, heightDots, bits);
+        }
+
+        @Override
+        public void drawImage(BufferedImage image, boolean shared, float x, float y, float width, float height) {
+            int widthDots = Math.max(1, dots(width));
+            int heightDots = Math.max(1, dots(height));
+            appendBitmap(dots(x), dots(y), (widthDots + 7) >> 3, heightDots, ZplLabelRenderer.toMonochrome(image, widthDots, heightDots));
+        }
+
+        @Override
+        public void drawLine(float x1, float y1, float x2, float y2, float lineWidth) {
+            int thickness = Math.max(1, dots(lineWidth));
+            int left = dots(Math.min(x1, x2));
+            int top = dots(Math.min(y1, y2));
+            int width = Math.abs(dots(x2) - dots(x1));
+            int height = Math.abs(dots(y2) - dots(y1));
+            if (width == 0 || height == 0) {
+                command("BAR " + left + "," + top + "," + Math.max(width, thickness) + "," + Math.max(height, thickness));
+            } else {
+                command("DIAGONAL " + dots(x1) + "," + dots(y1) + "," + dots(x2) + "," + dots(y2) + "," + thickness);
+            }
+        }
+
+        @Override
+        public void drawRect(float x, float y, float width, float height, float lineWidth) {
+            command("BOX " + dots(x) + "," + dots(y) + "," + dots(x + width) + "," + dots(y + height) + "," + Math.max(1, dots(lineWidth)));
+        }
+
+        /**
+         * BITMAP点阵中0为打印点，需按位取反
+         */
+        private void appendBitmap(int x, int y, int stride, int height, byte[] bits) {
+            byte[] header = ("BITMAP " + x + "," + y + "," + stride + "," + height + ",0,").getBytes(StandardCharsets.US_ASCII);
+            label.write(header, 0, header.length);
+            for (byte bit : bits) {
+                label.write(~bit & 0xFF);
+            }
+            label.write('\r');
+            label.write('\n');
+        }
+
+        private static boolean isAscii(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) > 126) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 双引号按TSPL约定转义为\["]
+         */
+        private static String escape(String text) {
+            return text.replace("\"", "\\[\"]").replace('\r', ' ').replace('\n', ' ');
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.render.format;
+
+import cn.hutool.core.convert.Convert;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbology;
+import vip.xiaonuo.label.core.render.AbstractLabelCanvas;
+import vip.xiaonuo.label.core.render.LabelElement;
+import vip.xiaonuo.label.core.render.LabelLayout;
+import vip.xiaonuo.label.core.render.LabelRenderer;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ZPL渲染器，输出斑马打印机指令，每个标签一个^XA...^XZ格式块
+ * 常用码制使用打印机原生条码指令，其余码制与图片按点阵以^GFA下发；模板静态图片用~DG只下发一次，之后以^XG引用
+ * 文本使用^CI28（UTF-8）与打印机内置字体^A0，中文需打印机已安装对应字库
+ *
+ * @author jetox
+ * @date 2026/10/18 15:00
+ **/
+@Component
+public class ZplLabelRenderer implements LabelRenderer {
+
+    /** 默认打印分辨率 */
+    private static final int DEFAULT_DPI = 203;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    @Override
+    public String getFormat() {
+        return "ZPL";
+    }
+
+    @Override
+    public String getContentType() {
+        return "text/plain;charset=UTF-8";
+    }
+
+    @Override
+    public String getExtension() {
+        return "zpl";
+    }
+
+    @Override
+    public void render(LabelLayout layout, List<Map<String, Object>> rows, Map<String, Object> options, OutputStream outputStream) throws IOException {
+        int dpi = Convert.toInt(options.get("dpi"), DEFAULT_DPI);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        ZplCanvas canvas = new ZplCanvas(dpi / 72f, writer);
+        for (Map<String, Object> row : rows) {
+            canvas.label.setLength(0);
+            canvas.label.append("^XA^CI28^PW").append(canvas.dots(layout.getWidth()))
+                    .append("^LL").append(canvas.dots(layout.getHeight())).append("^LH0,0\n");
+            layout.paint(canvas, row);
+            canvas.label.append("^PQ1^XZ\n");
+            writer.append(canvas.label);
+        }
+        writer.flush();
+    }
+
+    /**
+     * 把1位点阵按行转为十六进制，每行字节数为(宽+7)/8，1为黑点
+     */
+    static String toHex(byte[] bits) {
+        char[] chars = new char[bits.length * 2];
+        for (int i = 0; i < bits.length; i++) {
+            chars[i * 2] = HEX[bits[i] >> 4 & 0xF];
+            chars[i * 2 + 1] = HEX[bits[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 把图像缩放到目标点数并二值化，返回按行打包的1位点阵，1为黑点
+     */
+    static byte[] toMonochrome(BufferedImage image, int width, int height) {
+        BufferedImage gray = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g2d = gray.createGraphics();
+        try {
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(0, 0, width, height);
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g2d.dispose();
+        }
+        byte[] pixels = ((DataBufferByte) gray.getRaster().getDataBuffer()).getData();
+        int stride = (width + 7) >> 3;
+        byte[] bits = new byte[stride * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if ((pixels[y * width + x] & 0xFF) < 128) {
+                    bits[y * stride + (x >> 3)] |= (byte) (0x80 >> (x & 7));
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * ZPL画布，坐标按分辨率换算为点数
+     */
+    private static final class ZplCanvas extends AbstractLabelCanvas {
+
+        private final float scale;
+
+        private final Writer writer;
+
+        /** 当前标签指令 */
+        private final StringBuilder label = new StringBuilder(4096);
+
+        /** 已下发的静态图片及其存储名 */
+        private final Map<BufferedImage, String> graphicNameMap = new IdentityHashMap<>();
+
+        private ZplCanvas(float scale, Writer writer) {
+            this.scale = scale;
+            this.writer = writer;
+        }
+
+        private int dots(float points) {
+            return Math.round(points * scale);
+        }
+
+        @Override
+        public void drawText(String text, float x, float y, float width, float height, float fontSize, boolean bold, int align) {
+            int fontDots = Math.max(10, dots(fontSize));
+            label.append("^FO").append(dots(x)).append(',').append(dots(y))
+                    .append("^A0N,").append(fontDots).append(',').append(bold ? fontDots + fontDots / 5 : fontDots)
+                    .append("^FB").append(Math.max(1, dots(width))).append(",1,0,")
+                    .append(align == LabelElement.ALIGN_CENTER ? 'C' : align == LabelElement.ALIGN_RIGHT ? 'R' : 'L');
+            appendFieldData(text);
+        }
+
+        @Override
+        public void drawBarcode(BarcodeSymbology symbology, String text, BitMatrix matrix, float x, float y, float width, float height, boolean showText) throws IOException {
+            int xDots = dots(x);
+            int yDots = dots(y);
+            int widthDots = dots(width);
+            int heightDots = dots(height);
+            int matrixWidth = matrix.getWidth();
+            String interpretation = showText ? "Y" : "N";
+            switch (symbology.getType()) {
+                case "CODE128", "CODE39", "EAN13" -> {
+                    int module = Math.max(1, widthDots / matrixWidth);
+                    int leftQuiet = matrix.getRow(0, new BitArray(matrixWidth)).getNextSet(0);
+                    int barHeight = Math.max(1, showText ? heightDots - dots(BARCODE_TEXT_HEIGHT) : heightDots);
+                    label.append("^FO").append(xDots + (widthDots - module * matrixWidth) / 2 + module * leftQuiet).append(',').append(yDots)
+                            .append("^BY").append(module);
+                    switch (symbology.getType()) {
+                        case "CODE128" -> label.append("^BCN,").append(barHeight).append(',').append(interpretation).append(",N,N,A");
+                        case "CODE39" -> label.append("^B3N,N,").append(barHeight).append(',').append(interpretation).append(",N");
+                        default -> {
+                            label.append("^BEN,").append(barHeight).append(',').append(interpretation).append(",N");
+                            // 打印机自行计算校验位
+                            text = text.length() > 12 ? text.substring(0, 12) : text;
+                        }
+                    }
+                    appendFieldData(text);
+                }
+                case "QR" -> {
+                    int magnification = Math.max(1, Math.min(10, Math.min(widthDots, heightDots) / matrixWidth));
+                    label.append("^FO").append(xDots).append(',').append(yDots).append("^BQN,2,").append(magnification);
+                    appendFieldData("MA," + text);
+                }
+                case "DATAMATRIX" -> {
+                    int module = Math.max(1, Math.min(widthDots / matrixWidth, heightDots / matrix.getHeight()));
+                    label.append("^FO").append(xDots).append(',').append(yDots).append("^BXN,").append(module).append(",200");
+                    appendFieldData(text);
+                }
+                default -> super.drawBarcode(symbology, text, matrix, x, y, width, height, showText);
+            }
+        }
+
+        @Override
+        protected void drawMatrix(BitMatrix matrix, boolean linear, float x, float y, float width, float height) {
+            int widthDots = Math.max(1, dots(width));
+            int heightDots = Math.max(1, dots(height));
+            int stride = (widthDots + 7) >> 3;
+            byte[] bits = new byte[stride * heightDots];
+            int matrixWidth = matrix.getWidth();
+            int matrixHeight = linear ? 1 : matrix.getHeight();
+            for (int yd = 0; yd < heightDots; yd++) {
+                int row = Math.min(matrixHeight - 1, yd * matrixHeight / heightDots);
+                for (int xd = 0; xd < widthDots; xd++) {
+                    if (matrix.get(Math.min(matrixWidth - 1, xd * matrixWidth / widthDots), row)) {
+                        bits[yd * stride + (xd >> 3)] |= (byte) (0x80 >> (xd & 7));
+                    }
+                }
+            }
+            appendGraphic(dots(x), dots(y), stride, bits);
+        }
+
+        @Override
+        public void drawImage(BufferedImage image, boolean shared, float x, float y, float width, float height) throws IOException {
+            int widthDots = Math.max(1, dots(width));
+            int heightDots = Math.max(1, dots(height));
+            if (!shared) {
+                appendGraphic(dots(x), dots(y), (widthDots + 7) >> 3, toMonochrome(image, widthDots, heightDots));
+                return;
+            }
+            String name = graphicNameMap.get(image);
+            if (name == null) {
+                name = "IMG" + graphicNameMap.size() + ".GRF";
+                byte[] bits = toMonochrome(image, widthDots, heightDots);
+                // 下载图形在格式块之外，写在当前标签之前
+                writer.append("~DGR:").append(name).append(',').append(String.valueOf(bits.length)).append(',')
+                        .append(String.valueOf((widthDots + 7) >> 3)).append(',').append(toHex(bits)).append('\n');
+                graphicNameMap.put(image, name);
+            }
+            label.append("^FO").append(dots(x)).append(',').append(dots(y)).append("^XGR:").append(name).append(",1,1^FS\n");
+        }
+
+        @Override
+        public void drawLine(float x1, float y1, float x2, float y2, float lineWidth) {
+            int thickness = Math.max(1, dots(lineWidth));
+            int left = dots(Math.min(x1, x2));
+            int top = dots(Math.min(y1, y2));
+            int width = Math.abs(dots(x2) - dots(x1));
+            int height = Math.abs(dots(y2) - dots(y1));
+            label.append("^FO").append(left).append(',').append(top);
+            if (height == 0 || width == 0) {
+                label.append("^GB").append(Math.max(width, thickness)).append(',').append(Math.max(height, thickness)).append(',').append(thickness);
+            } else {
+                // 斜线：左上到右下为L，左下到右上为R
+                boolean descending = (x2 - x1) * (y2 - y1) > 0;
+                label.append("^GD").append(width).append(',').append(height).append(',').append(thickness).append(",B,").append(descending ? 'L' : 'R');
+            }
+            label.append("^FS\n");
+        }
+
+        @Override
+        public void drawRect(float x, float y, float width, float height, float lineWidth) {
+            int thickness = Math.max(1, dots(lineWidth));
+            label.append("^FO").append(dots(x)).append(',').append(dots(y))
+                    .append("^GB").append(Math.max(thickness, dots(width))).append(',').append(Math.max(thickness, dots(height)))
+                    .append(',').append(thickness).append("^FS\n");
+        }
+
+        private void appendGraphic(int x, int y, int stride, byte[] bits) {
+            label.append("^FO").append(x).append(',').append(y).append("^GFA,").append(bits.length).append(',').append(bits.length)
+                    .append(',').append(stride).append(',').append(toHex(bits)).append("^FS\n");
+        }
+
+        /**
+         * 写入字段数据，^、~、_按^FH十六进制转义
+         */
+        private void appendFieldData(String text) {
+            label.append("^FH^FD");
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '^' -> label.append("_5E");
+                    case '~' -> label.append("_7E");
+                    case '_' -> label.append("_5F");
+                    case '\n', '\r' -> label.append(' ');
+                    default -> label.append(c);
+                }
+            }
+            label.append("^FS\n");
+        }
+    }
+}
@@ -425,6 +425,19 @@ public class WqsCodeRuleController {
         return CommonResult.data(status);
     }
 
+    /**
+     * 下载批量生成任务结果
+     *
+     * @author jetox
+     * @date 2026/10/18 10:20
+     */
+    @Operation(summary = "下载批量生成任务结果")
+    @SaCheckPermission("/barcode/coderule/downloadBatchTaskResult")
+    @GetMapping(value = "/barcode/coderule/downloadBatchTaskResult", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public void downloadBatchTaskResult(@RequestParam String taskId, HttpServletResponse response) {
+        batchBarcodeService.downloadBatchTaskResult(taskId, response);
+    }
+
     /**
      * 根据数量批量生成条码
      *
@@ -0,0 +1,274 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.modular.coderule.plan;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.Getter;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.label.modular.coderule.service.SerialNumberService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的编码规则执行计划
+ * 编码段配置只解析一次，编译为不可变的编码段输出器数组，日期格式器与补零宽度预先构建，生成编码时依次写入线程内复用的StringBuilder
+ *
+ * @author jetox
+ * @date 2026/10/18 14:00
+ **/
+public final class CodeRulePlan {
+
+    /** 流水号模式：严格有序 */
+    public static final String SERIAL_MODE_STRICT = "strict";
+
+    /** 流水号模式：号段租约 */
+    public static final String SERIAL_MODE_LEASE = "lease";
+
+    /** 号段租约模式下默认每次租用的号码数量 */
+    private static final int DEFAULT_LEASE_SIZE = 100;
+
+    /** 线程内复用的编码缓冲 */
+    private static final ThreadLocal<StringBuilder> CODE_BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(64));
+
+    /** 规则ID */
+    @Getter
+    private final String ruleId;
+
+    /** 规则版本，取编译时的集群缓存版本号 */
+    @Getter
+    private final long version;
+
+    private final SegmentEmitter[] emitters;
+
+    private CodeRulePlan(String ruleId, long version, SegmentEmitter[] emitters) {
+        this.ruleId = ruleId;
+        this.version = version;
+        this.emitters = emitters;
+    }
+
+    /**
+     * 编译编码段配置，相邻的固定值与分隔符合并为一个常量段
+     * 支持的编码段类型：fixed（固定值）、field（字段值）、date（日期格式）、serial（流水号）、separator（分隔符）
+     *
+     * @author jetox
+     * @date 2026/10/18 14:00
+     */
+    public static CodeRulePlan compile(String ruleId, long version, String segments, SerialNumberService serialNumberService) {
+        JSONArray segmentArray = JSONUtil.parseArray(segments);
+        List<SegmentEmitter> emitterList = new ArrayList<>(segmentArray.size());
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < segmentArray.size(); i++) {
+            JSONObject segment = segmentArray.getJSONObject(i);
+            String type = segment.getStr("type");
+            if ("fixed".equals(type) || "separator".equals(type)) {
+                literal.append(StrUtil.nullToEmpty(segment.getStr("fixed".equals(type) ? "value" : "separator")));
+                continue;
+            }
+            if (literal.length() > 0) {
+                emitterList.add(new LiteralEmitter(literal.toString()));
+                literal.setLength(0);
+            }
+            if ("field".equals(type)) {
+                String fieldName = segment.getStr("fieldName");
+                if (StrUtil.isNotEmpty(fieldName)) {
+                    emitterList.add(new FieldEmitter(fieldName));
+                }
+            } else if ("date".equals(type)) {
+                emitterList.add(new DateEmitter(buildDateFormatter(segment.getStr("format"))));
+            } else if ("serial".equals(type)) {
+                emitterList.add(new SerialEmitter(serialNumberService, ruleId, i,
+                        segment.getInt("length", 3),
+                        segment.getInt("startValue", 1),
+                        segment.getStr("resetType", "none"),
+                        SERIAL_MODE_LEASE.equals(segment.getStr("serialMode", SERIAL_MODE_STRICT)),
+                        segment.getInt("leaseSize", DEFAULT_LEASE_SIZE)));
+            } else {
+                throw new CommonException("不支持的编码段类型：{}", type);
+            }
+        }
+        if (literal.length() > 0) {
+            emitterList.add(new LiteralEmitter(literal.toString()));
+        }
+        return new CodeRulePlan(ruleId, version, emitterList.toArray(new SegmentEmitter[0]));
+    }
+
+    /**
+     * 按计划生成一个编码，同一编码内的所有日期段使用同一时刻
+     *
+     * @author jetox
+     * @date 2026/10/18 14:00
+     */
+    public String generate(Map<String, Object> params) {
+        StringBuilder codeBuilder = CODE_BUILDER.get();
+        codeBuilder.setLength(0);
+        LocalDateTime now = LocalDateTime.now();
+        for (SegmentEmitter emitter : emitters) {
+            emitter.emit(codeBuilder, params, now);
+        }
+        return codeBuilder.toString();
+    }
+
+    /**
+     * 将日期段格式转换为格式器，内置格式YYYY、MM、DD、YYYYMM、YYYYMMDD，其余按自定义模式解析
+     */
+    private static DateTimeFormatter buildDateFormatter(String format) {
+        if (StrUtil.isEmpty(format)) {
+            format = "YYYY";
+        }
+        switch (format) {
+            case "YYYY":
+                return DateTimeFormatter.ofPattern("yyyy");
+            case "MM":
+                return DateTimeFormatter.ofPattern("MM");
+            case "DD":
+                return DateTimeFormatter.ofPattern("dd");
+            case "YYYYMM":
+                return DateTimeFormatter.ofPattern("yyyyMM");
+            case "YYYYMMDD":
+                return DateTimeFormatter.ofPattern("yyyyMMdd");
+            default:
+                return DateTimeFormatter.ofPattern(format);
+        }
+    }
+
+    /**
+     * 编码段输出器
+     */
+    private interface SegmentEmitter {
+
+        void emit(StringBuilder out, Map<String, Object> params, LocalDateTime now);
+    }
+
+    /**
+     * 常量段（固定值、分隔符）
+     */
+    private static final class LiteralEmitter implements SegmentEmitter {
+
+        private final String value;
+
+        private LiteralEmitter(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public void emit(StringBuilder out, Map<String, Object> params, LocalDateTime now) {
+            out.append(value);
+        }
+    }
+
+    /**
+     * 字段值段
+     */
+    private static final class FieldEmitter implements SegmentEmitter {
+
+        private final String fieldName;
+
+        private FieldEmitter(String fieldName) {
+            this.fieldName = fieldName;
+        }
+
+        @Override
+        public void emit(StringBuilder out, Map<String, Object> params, LocalDateTime now) {
+            Object fieldValue = params == null ? null : params.get(fieldName);
+            if (fieldValue != null) {
+                out.append(fieldValue);
+            }
+        }
+    }
+
+    /**
+     * 日期段，直接格式化到缓冲中
+     */
+    private static final class DateEmitter implements SegmentEmitter {
+
+        private final DateTimeFormatter formatter;
+
+        private DateEmitter(DateTimeFormatter formatter) {
+            this.formatter = formatter;
+        }
+
+        @Override
+        public void emit(StringBuilder out, Map<String, Object> params, LocalDateTime now) {
+            formatter.formatTo(now, out);
+        }
+    }
+
+    /**
+     * 流水号段，按预设宽度补零
+     * serialMode为strict（默认）时每个号码一次Redis往返，严格递增；为lease时按leaseSize租用号段在本节点发放，
+     * 多节点下号码唯一但不保证全局有序
+     */
+    private static final class SerialEmitter implements SegmentEmitter {
+
+        private final SerialNumberService serialNumberService;
+
+        private final String ruleId;
+
+        private final int segmentIndex;
+
+        private final int length;
+
+        private final int startValue;
+
+        private final String resetType;
+
+        private final boolean leased;
+
+        private final int leaseSize;
+
+        private SerialEmitter(SerialNumberService serialNumberService, String ruleId, int segmentIndex, int length,
+                              int startValue, String resetType, boolean leased, int leaseSize) {
+            this.serialNumberService = serialNumberService;
+            this.ruleId = ruleId;
+            this.segmentIndex = segmentIndex;
+            this.length = length;
+            this.startValue = startValue;
+            this.resetType = resetType;
+            this.leased = leased;
+            this.leaseSize = leaseSize;
+        }
+
+        @Override
+        public void emit(StringBuilder out, Map<String, Object> params, LocalDateTime now) {
+            long value = leased
+                    ? serialNumberService.getNextLeasedSerial(ruleId, segmentIndex, resetType, startValue, leaseSize)
+                    : serialNumberService.getNextSerial(ruleId, segmentIndex, resetType, startValue);
+            if (value < 0) {
+                out.append(String.format("%0" + length + "d", value));
+                return;
+            }
+            for (int padding = length - stringSize(value); padding > 0; padding--) {
+                out.append('0');
+            }
+            out.append(value);
+        }
+
+        private static int stringSize(long value) {
+            long bound = 10;
+            for (int size = 1; size < 19; size++) {
+                if (value < bound) {
+                    return size;
+                }
+                bound *= 10;
+            }
+            return 19;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.modular.coderule.plan;
+
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.label.core.cache.LabelVersionedCache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 编码规则执行计划本地缓存
+ * 容量有界，规则新增、编辑、删除时递增集群版本号，各节点命中前按版本号校验，不会长期使用旧计划
+ *
+ * @author jetox
+ * @date 2026/10/18 14:00
+ **/
+@Component
+public class CodeRulePlanCache extends LabelVersionedCache<CodeRulePlan> {
+
+    /** 最大缓存规则数 */
+    private static final int MAX_SIZE = 1024;
+
+    /** 缓存过期时间 */
+    private static final long EXPIRE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    public CodeRulePlanCache() {
+        super("code-rule", MAX_SIZE, EXPIRE_MILLIS);
+    }
+}
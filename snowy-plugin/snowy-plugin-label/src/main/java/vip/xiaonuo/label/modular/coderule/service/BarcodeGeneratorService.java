@@ -12,6 +12,7 @@
  */
 package vip.xiaonuo.label.modular.coderule.service;
 
+import java.io.OutputStream;
 import java.util.Map;
 
 /**
@@ -68,4 +69,29 @@ public interface BarcodeGeneratorService {
      * @return Base64编码的图片数据列表
      */
     java.util.List<String> generateBarcodeImages(String ruleId, java.util.List<Map<String, Object>> paramsList, String barcodeType, Integer width, Integer height);
-}
\ No newline at end of file
+
+    /**
+     * 根据编码规则生成条码图片，编码后的字节直接写入输出流，不经过Base64，输出流由调用方关闭
+     *
+     * @param ruleId 规则ID
+     * @param params 参数集合
+     * @param barcodeType 条码类型
+     * @param width 条码宽度
+     * @param height 条码高度
+     * @param imageFormat 图片格式（PNG、JPEG、BMP、TIFF）
+     * @param outputStream 输出流
+     */
+    void writeBarcodeImage(String ruleId, Map<String, Object> params, String barcodeType, Integer width, Integer height, String imageFormat, OutputStream outputStream);
+
+    /**
+     * 根据文本生成条码图片，编码后的字节直接写入输出流，不经过Base64，输出流由调用方关闭
+     *
+     * @param text 要编码的文本
+     * @param barcodeType 条码类型
+     * @param width 条码宽度
+     * @param height 条码高度
+     * @param imageFormat 图片格式（PNG、JPEG、BMP、TIFF）
+     * @param outputStream 输出流
+     */
+    void writeBarcodeFromText(String text, String barcodeType, Integer width, Integer height, String imageFormat, OutputStream outputStream);
+}
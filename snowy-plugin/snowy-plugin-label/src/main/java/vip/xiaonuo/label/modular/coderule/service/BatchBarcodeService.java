@@ -12,6 +12,8 @@
  */
 package vip.xiaonuo.label.modular.coderule.service;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 import java.util.List;
 import java.util.Map;
 
@@ -76,6 +78,14 @@ public interface BatchBarcodeService {
      */
     Map<String, Object> batchGenerateByTemplate(Map<String, Object> template);
 
+    /**
+     * 下载异步批量生成任务的结果压缩包，结果文件保存在执行任务的节点上
+     *
+     * @param taskId 任务ID
+     * @param response HTTP响应
+     */
+    void downloadBatchTaskResult(String taskId, HttpServletResponse response);
+
     /**
      * 取消批量生成任务
      *
@@ -34,6 +34,19 @@ public interface SerialNumberService {
      */
     Long getNextSerial(String ruleId, int segmentIndex, String resetType, int startValue);
 
+    /**
+     * 以号段租约模式获取下一个流水号，每次向Redis租用leaseSize个号，在本节点内存中逐个发放
+     * 租约超时或节点关闭时未用完的号段归还Redis，由后续租约优先复用，保证号码不丢失
+     *
+     * @param ruleId 规则ID
+     * @param segmentIndex 编码段索引
+     * @param resetType 重置类型
+     * @param startValue 起始值
+     * @param leaseSize 每次租用的号段大小
+     * @return 下一个流水号
+     */
+    Long getNextLeasedSerial(String ruleId, int segmentIndex, String resetType, int startValue, int leaseSize);
+
     /**
      * 重置指定的流水号
      *
@@ -12,23 +12,38 @@
  */
 package vip.xiaonuo.label.modular.coderule.service.impl;
 
-import cn.hutool.core.codec.Base64;
+import cn.hutool.core.convert.Convert;
 import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.builder.ExcelWriterBuilder;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import com.alibaba.excel.write.style.column.SimpleColumnWidthStyleStrategy;
+import com.alibaba.excel.write.style.row.SimpleRowHeightStyleStrategy;
+import com.google.zxing.common.BitMatrix;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import vip.xiaonuo.label.core.barcode.BarcodeImageFormat;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbology;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbologyRegistry;
+import vip.xiaonuo.label.core.pdf.PdfLabelSheetWriter;
 import vip.xiaonuo.label.modular.coderule.service.BarcodeExportService;
 import vip.xiaonuo.label.modular.coderule.service.BarcodeGeneratorService;
+import vip.xiaonuo.label.modular.coderule.service.CodeSegmentGeneratorService;
 import vip.xiaonuo.common.exception.CommonException;
 
 import java.io.*;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -45,6 +60,47 @@ public class BarcodeExportServiceImpl implements BarcodeExportService {
     @Autowired
     private BarcodeGeneratorService barcodeGeneratorService;
 
+    @Autowired
+    private CodeSegmentGeneratorService codeSegmentGeneratorService;
+
+    @Autowired
+    private BarcodeSymbologyRegistry barcodeSymbologyRegistry;
+
+    /** 图片编码线程数 */
+    private static final int ENCODER_COUNT = Runtime.getRuntime().availableProcessors();
+
+    /** 单次导出在途图片数量上限 */
+    private static final int EXPORT_WINDOW_SIZE = ENCODER_COUNT * 4;
+
+    /** 图片编码线程池，队列满时由提交线程自己编码 */
+    private final ThreadPoolExecutor encoderPool = new ThreadPoolExecutor(ENCODER_COUNT, ENCODER_COUNT,
+        0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(ENCODER_COUNT * 4),
+        new NamedThreadFactory("barcode-export-encoder-", true), new ThreadPoolExecutor.CallerRunsPolicy());
+
+    /** Excel每页写入行数 */
+    private static final int EXCEL_PAGE_SIZE = 1000;
+
+    /** Excel默认最多嵌入的缩略图数量 */
+    private static final int EXCEL_MAX_IMAGES = 5000;
+
+    /** 像素换算为点，按96DPI */
+    private static final float PX_TO_PT = 0.75f;
+
+    /** A4纸张宽度（像素，96DPI） */
+    private static final int A4_WIDTH_PX = 794;
+
+    /** A4纸张高度（像素，96DPI） */
+    private static final int A4_HEIGHT_PX = 1123;
+
+    /** 计算纸张可容纳的行列数时容许的浮点误差 */
+    private static final float PAGE_FIT_TOLERANCE = 0.001f;
+
+    /** 一维码下方可读文本区域高度（点） */
+    private static final float LABEL_TEXT_HEIGHT = 15f;
+
+    /** 可读文本字号 */
+    private static final float LABEL_FONT_SIZE = 9f;
+
     @Override
     public void exportToPDF(String ruleId, List<Map<String, Object>> paramsList, String barcodeType, Map<String, Object> exportConfig, HttpServletResponse response) {
         if (paramsList == null || paramsList.isEmpty()) {
@@ -57,16 +113,15 @@ public class BarcodeExportServiceImpl implements BarcodeExportService {
             response.setContentType("application/pdf");
             response.setHeader("Content-Disposition", "attachment; filename=" + URLEncoder.encode(fileName, StandardCharsets.UTF_8));
 
-            // 简化的PDF生成（实际项目中建议使用iText或其他PDF库）
-            String htmlContent = generateBarcodesHTML(ruleId, paramsList, barcodeType, exportConfig);
-            
-            // 这里使用简化的PDF生成，实际应使用专业PDF库
-            byte[] pdfBytes = generateSimplePDF(htmlContent, paramsList.size());
-            
-            try (OutputStream outputStream = response.getOutputStream()) {
-                outputStream.write(pdfBytes);
-                outputStream.flush();
-            }
+            // 整页条码不分栏，条码尺寸取width/height
+            Map<String, Object> sheetConfig = new HashMap<>(exportConfig);
+            sheetConfig.putIfAbsent("barcodeWidth", exportConfig.getOrDefault("width", 300));
+            sheetConfig.putIfAbsent("barcodeHeight", exportConfig.getOrDefault("height", 150));
+            sheetConfig.putIfAbsent("labelWidth", Convert.toInt(sheetConfig.get("barcodeWidth"), 300) + 40);
+            sheetConfig.putIfAbsent("labelHeight", Convert.toInt(sheetConfig.get("barcodeHeight"), 150) + 40);
+            sheetConfig.putIfAbsent("columns", 1);
+            sheetConfig.putIfAbsent("border", false);
+            writeLabelSheet(ruleId, paramsList, barcodeType, sheetConfig, response.getOutputStream());
 
             log.info("PDF导出成功，文件名：{}，条码数量：{}", fileName, paramsList.size());
 
@@ -88,35 +143,31 @@ public class BarcodeExportServiceImpl implements BarcodeExportService {
             response.setContentType("application/zip");
             response.setHeader("Content-Disposition", "attachment; filename=" + URLEncoder.encode(fileName, StandardCharsets.UTF_8));
 
-            Integer width = (Integer) exportConfig.getOrDefault("width", 300);
-            Integer height = (Integer) exportConfig.getOrDefault("height", 150);
-            String format = ObjectUtil.defaultIfEmpty(imageFormat, "PNG").toLowerCase();
-
-            try (ZipOutputStream zipOut = new ZipOutputStream(response.getOutputStream())) {
+            Integer width = Convert.toInt(exportConfig.get("width"), 300);
+            Integer height = Convert.toInt(exportConfig.get("height"), 150);
+            BarcodeImageFormat format = BarcodeImageFormat.of(imageFormat);
+
+            // 请求线程按顺序生成编码文本，保证流水号与序号一致；编码线程只并行栅格化与编码图片，
+            // 请求线程按提交顺序逐个取出写入压缩包，在途数量受窗口限制
+            Deque<Future<ByteArrayOutputStream>> window = new ArrayDeque<>(EXPORT_WINDOW_SIZE);
+            int written = 0;
+            try (ZipOutputStream zipOut = new ZipOutputStream(new BufferedOutputStream(response.getOutputStream(), 64 * 1024))) {
+                // PNG本身已压缩，不再重复压缩
+                zipOut.setLevel(format.isCompressed() ? Deflater.NO_COMPRESSION : Deflater.BEST_SPEED);
                 for (int i = 0; i < paramsList.size(); i++) {
-                    try {
-                        Map<String, Object> params = paramsList.get(i);
-                        
-                        // 生成条码图片
-                        String imageBase64 = barcodeGeneratorService.generateBarcodeImage(ruleId, params, barcodeType, width, height);
-                        
-                        // 解析Base64图片
-                        String base64Data = imageBase64.substring(imageBase64.indexOf(",") + 1);
-                        byte[] imageBytes = Base64.decode(base64Data);
-                        
-                        // 创建ZIP条目
-                        String imageName = String.format("barcode_%04d.%s", i + 1, format);
-                        ZipEntry zipEntry = new ZipEntry(imageName);
-                        zipOut.putNextEntry(zipEntry);
-                        zipOut.write(imageBytes);
-                        zipOut.closeEntry();
-                        
-                    } catch (Exception e) {
-                        log.warn("生成第{}个条码图片失败：{}", i + 1, e.getMessage());
+                    String codeText = generateCode(ruleId, paramsList.get(i), i);
+                    int index = i;
+                    window.addLast(encoderPool.submit(() -> encodeImage(codeText, barcodeType, width, height, format, index)));
+                    if (window.size() >= EXPORT_WINDOW_SIZE) {
+                        writeImageEntry(zipOut, window.pollFirst(), ++written, format);
                     }
                 }
-                
+                while (!window.isEmpty()) {
+                    writeImageEntry(zipOut, window.pollFirst(), ++written, format);
+                }
                 zipOut.finish();
+            } finally {
+                window.forEach(future -> future.cancel(false));
             }
 
             log.info("图片压缩包导出成功，文件名：{}，条码数量：{}", fileName, paramsList.size());
@@ -139,13 +190,7 @@ public class BarcodeExportServiceImpl implements BarcodeExportService {
             response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
             response.setHeader("Content-Disposition", "attachment; filename=" + URLEncoder.encode(fileName, StandardCharsets.UTF_8));
 
-            // 简化的Excel生成（实际项目中建议使用EasyExcel或POI）
-            String csvContent = generateBarcodesCSV(ruleId, paramsList, barcodeType, exportConfig);
-            
-            try (OutputStream outputStream = response.getOutputStream()) {
-                outputStream.write(csvContent.getBytes(StandardCharsets.UTF_8));
-                outputStream.flush();
-            }
+            writeBarcodeExcel(ruleId, paramsList, barcodeType, exportConfig, response.getOutputStream());
 
             log.info("Excel导出成功，文件名：{}，条码数量：{}", fileName, paramsList.size());
 
@@ -267,23 +312,7 @@ public class BarcodeExportServiceImpl implements BarcodeExportService {
             response.setContentType("application/pdf");
             response.setHeader("Content-Disposition", "attachment; filename=" + URLEncoder.encode(fileName, StandardCharsets.UTF_8));
 
-            // 标签配置
-            Integer labelWidth = (Integer) labelConfig.getOrDefault("labelWidth", 400);
-            Integer labelHeight = (Integer) labelConfig.getOrDefault("labelHeight", 200);
-            Integer barcodeWidth = (Integer) labelConfig.getOrDefault("barcodeWidth", 300);
-            Integer barcodeHeight = (Integer) labelConfig.getOrDefault("barcodeHeight", 100);
-            Integer columns = (Integer) labelConfig.getOrDefault("columns", 3);
-
-            // 生成标签HTML
-            String htmlContent = generateLabelsHTML(ruleId, paramsList, barcodeType, labelConfig);
-            
-            // 转换为PDF
-            byte[] pdfBytes = generateSimplePDF(htmlContent, paramsList.size());
-            
-            try (OutputStream outputStream = response.getOutputStream()) {
-                outputStream.write(pdfBytes);
-                outputStream.flush();
-            }
+            writeLabelSheet(ruleId, paramsList, barcodeType, labelConfig, response.getOutputStream());
 
             log.info("标签导出成功，文件名：{}，条码数量：{}", fileName, paramsList.size());
 
@@ -294,148 +323,213 @@ public class BarcodeExportServiceImpl implements BarcodeExportService {
     }
 
     /**
-     * 生成条码HTML
+     * 生成编码文本，失败时返回null，对应图片由写出方跳过
      */
-    private String generateBarcodesHTML(String ruleId, List<Map<String, Object>> paramsList, String barcodeType, Map<String, Object> config) {
-        StringBuilder htmlBuilder = new StringBuilder();
-        
-        htmlBuilder.append("<!DOCTYPE html><html><head><meta charset=\"UTF-8\"><title>条码列表</title></head><body>");
-        
-        Integer width = (Integer) config.getOrDefault("width", 300);
-        Integer height = (Integer) config.getOrDefault("height", 150);
-        
-        for (int i = 0; i < paramsList.size(); i++) {
-            try {
-                Map<String, Object> params = paramsList.get(i);
-                String imageBase64 = barcodeGeneratorService.generateBarcodeImage(ruleId, params, barcodeType, width, height);
-                
-                htmlBuilder.append("<div style=\"margin: 10px;\">")
-                          .append("<img src=\"").append(imageBase64).append("\" />")
-                          .append("<p>编号：").append(i + 1).append("</p>")
-                          .append("</div>");
-                          
-            } catch (Exception e) {
-                htmlBuilder.append("<div style=\"margin: 10px; color: red;\">生成失败：").append(e.getMessage()).append("</div>");
-            }
+    private String generateCode(String ruleId, Map<String, Object> params, int index) {
+        try {
+            return codeSegmentGeneratorService.generateCode(ruleId, params);
+        } catch (Exception e) {
+            log.warn("生成第{}个编码失败：{}", index + 1, e.getMessage());
+            return null;
         }
-        
-        htmlBuilder.append("</body></html>");
-        return htmlBuilder.toString();
     }
 
     /**
-     * 生成标签HTML
+     * 在编码线程中生成一张图片，编码文本为空或失败时返回null，由写出方跳过
      */
-    private String generateLabelsHTML(String ruleId, List<Map<String, Object>> paramsList, String barcodeType, Map<String, Object> labelConfig) {
-        StringBuilder htmlBuilder = new StringBuilder();
-        
-        Integer columns = (Integer) labelConfig.getOrDefault("columns", 3);
-        Integer labelWidth = (Integer) labelConfig.getOrDefault("labelWidth", 400);
-        Integer labelHeight = (Integer) labelConfig.getOrDefault("labelHeight", 200);
-        Integer barcodeWidth = (Integer) labelConfig.getOrDefault("barcodeWidth", 300);
-        Integer barcodeHeight = (Integer) labelConfig.getOrDefault("barcodeHeight", 100);
-        
-        htmlBuilder.append("<!DOCTYPE html><html><head><meta charset=\"UTF-8\">")
-                  .append("<style>")
-                  .append(".label-container { display: inline-block; width: ").append(labelWidth).append("px; height: ").append(labelHeight).append("px; border: 1px solid #ccc; margin: 5px; text-align: center; vertical-align: top; }")
-                  .append(".label-barcode { margin: 10px 0; }")
-                  .append("</style>")
-                  .append("</head><body>");
-        
-        for (int i = 0; i < paramsList.size(); i++) {
-            try {
-                Map<String, Object> params = paramsList.get(i);
-                String imageBase64 = barcodeGeneratorService.generateBarcodeImage(ruleId, params, barcodeType, barcodeWidth, barcodeHeight);
-                
-                htmlBuilder.append("<div class=\"label-container\">")
-                          .append("<div class=\"label-barcode\">")
-                          .append("<img src=\"").append(imageBase64).append("\" />")
-                          .append("</div>")
-                          .append("<div>编号：").append(i + 1).append("</div>")
-                          .append("</div>");
-                          
-                // 每行换行
-                if ((i + 1) % columns == 0) {
-                    htmlBuilder.append("<br>");
+    private ByteArrayOutputStream encodeImage(String codeText, String barcodeType, Integer width, Integer height,
+                                              BarcodeImageFormat format, int index) {
+        if (codeText == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+            barcodeGeneratorService.writeBarcodeFromText(codeText, barcodeType, width, height, format.name(), buffer);
+            return buffer;
+        } catch (Exception e) {
+            log.warn("生成第{}个条码图片失败：{}", index + 1, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 等待图片编码完成并写入压缩包条目
+     */
+    private void writeImageEntry(ZipOutputStream zipOut, Future<ByteArrayOutputStream> future, int number, BarcodeImageFormat format) throws IOException {
+        ByteArrayOutputStream buffer;
+        try {
+            buffer = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommonException("图片编码被中断");
+        } catch (ExecutionException e) {
+            throw new CommonException("图片编码失败：{}", e.getCause().getMessage());
+        }
+        if (buffer == null) {
+            return;
+        }
+        zipOut.putNextEntry(new ZipEntry(String.format("barcode_%04d.%s", number, format.getExtension())));
+        buffer.writeTo(zipOut);
+        zipOut.closeEntry();
+    }
+
+    /**
+     * 流式写出标签页PDF，尺寸配置单位为像素（按96DPI换算为点），条码以矢量绘制，
+     * 每页写完立即输出，内存占用与标签总数无关
+     */
+    private void writeLabelSheet(String ruleId, List<Map<String, Object>> paramsList, String barcodeType,
+                                 Map<String, Object> config, OutputStream outputStream) throws IOException {
+        float labelWidth = pxToPt(config, "labelWidth", 400);
+        float labelHeight = pxToPt(config, "labelHeight", 200);
+        float barcodeWidth = Math.min(pxToPt(config, "barcodeWidth", 300), labelWidth);
+        float barcodeHeight = Math.min(pxToPt(config, "barcodeHeight", 100), labelHeight);
+        float margin = pxToPt(config, "margin", 20);
+        boolean border = Convert.toBool(config.get("border"), true);
+
+        // 纸张默认A4，列数不超过纸张可容纳的数量，单个标签大于纸张时按标签撑开，每页至少一行一列
+        float pageWidth = Math.max(pxToPt(config, "pageWidth", A4_WIDTH_PX), margin * 2 + labelWidth);
+        float pageHeight = Math.max(pxToPt(config, "pageHeight", A4_HEIGHT_PX), margin * 2 + labelHeight);
+        int columns = Math.max(1, Math.min(Convert.toInt(config.get("columns"), 3),
+            (int) ((pageWidth - margin * 2) / labelWidth + PAGE_FIT_TOLERANCE)));
+        int rows = Math.max(1, (int) ((pageHeight - margin * 2) / labelHeight + PAGE_FIT_TOLERANCE));
+        int labelsPerPage = rows * columns;
+
+        BarcodeSymbology symbology = barcodeSymbologyRegistry.get(ObjectUtil.defaultIfEmpty(barcodeType, "CODE128"));
+        float padding = (labelHeight - barcodeHeight) / 2;
+        float barHeight = symbology.isLinear() ? Math.max(1, barcodeHeight - LABEL_TEXT_HEIGHT) : barcodeHeight;
+
+        try (PdfLabelSheetWriter writer = new PdfLabelSheetWriter(outputStream, pageWidth, pageHeight)) {
+            for (int i = 0; i < paramsList.size(); i++) {
+                int slot = i % labelsPerPage;
+                if (slot == 0) {
+                    writer.beginPage();
+                }
+                float labelX = margin + (slot % columns) * labelWidth;
+                float labelY = margin + (slot / columns) * labelHeight;
+                if (border) {
+                    writer.drawRect(labelX, labelY, labelWidth, labelHeight, 0.75f, 0.8f);
+                }
+                try {
+                    String codeText = codeSegmentGeneratorService.generateCode(ruleId, paramsList.get(i));
+                    // 按最小模块编码，由PDF矢量缩放，不受输出分辨率影响
+                    BitMatrix matrix = symbology.encode(codeText, 0, 0);
+                    float drawWidth = barcodeWidth;
+                    float drawHeight = barHeight;
+                    if (!symbology.isLinear()) {
+                        // 二维码保持模块为正方形
+                        float module = Math.min(barcodeWidth / matrix.getWidth(), barcodeHeight / matrix.getHeight());
+                        drawWidth = module * matrix.getWidth();
+                        drawHeight = module * matrix.getHeight();
+                    }
+                    float barcodeX = labelX + (labelWidth - drawWidth) / 2;
+                    float barcodeY = labelY + padding + (barHeight - drawHeight) / 2;
+                    writer.drawMatrix(matrix, symbology.isLinear(), barcodeX, barcodeY, drawWidth, drawHeight);
+                    if (symbology.isLinear()) {
+                        writer.drawCenteredText(codeText, labelX, labelY + padding + barHeight + LABEL_TEXT_HEIGHT - 4, labelWidth, LABEL_FONT_SIZE);
+                    }
+                } catch (Exception e) {
+                    log.warn("生成第{}个标签失败：{}", i + 1, e.getMessage());
+                    writer.drawCenteredText("No." + (i + 1) + " FAILED", labelX, labelY + labelHeight / 2, labelWidth, LABEL_FONT_SIZE);
                 }
-                
-            } catch (Exception e) {
-                htmlBuilder.append("<div class=\"label-container\" style=\"color: red;\">生成失败</div>");
             }
+            log.debug("标签页PDF写出完成，页数：{}", writer.getPageCount());
         }
-        
-        htmlBuilder.append("</body></html>");
-        return htmlBuilder.toString();
     }
 
     /**
-     * 生成CSV内容
+     * 读取像素配置并换算为点
      */
-    private String generateBarcodesCSV(String ruleId, List<Map<String, Object>> paramsList, String barcodeType, Map<String, Object> config) {
-        StringBuilder csvBuilder = new StringBuilder();
-        csvBuilder.append("编号,条码编码,生成时间\n");
-        
-        for (int i = 0; i < paramsList.size(); i++) {
-            try {
+    private float pxToPt(Map<String, Object> config, String key, int defaultValue) {
+        return Convert.toFloat(config.get(key), (float) defaultValue) * PX_TO_PT;
+    }
+
+    /**
+     * 分页流式写出Excel，每页生成编码后立即写入并释放，行数据不随总行数累积；
+     * 图片对象由POI保留到写出结束，因此嵌入缩略图的行数受maxImages限制
+     */
+    private void writeBarcodeExcel(String ruleId, List<Map<String, Object>> paramsList, String barcodeType,
+                                   Map<String, Object> config, OutputStream outputStream) {
+        boolean includeImage = Convert.toBool(config.get("includeImage"), false);
+        int maxImages = Convert.toInt(config.get("maxImages"), EXCEL_MAX_IMAGES);
+        Integer imageWidth = Convert.toInt(config.get("imageWidth"), 200);
+        Integer imageHeight = Convert.toInt(config.get("imageHeight"), 80);
+
+        // 参数列：优先使用配置的列，否则取所有参数键的并集，保持首次出现的顺序
+        List<String> paramColumns = Convert.toList(String.class, config.get("paramColumns"));
+        if (paramColumns == null || paramColumns.isEmpty()) {
+            Set<String> keySet = new LinkedHashSet<>();
+            paramsList.forEach(params -> keySet.addAll(params.keySet()));
+            paramColumns = new ArrayList<>(keySet);
+        }
+
+        List<List<String>> head = new ArrayList<>();
+        head.add(Collections.singletonList("序号"));
+        head.add(Collections.singletonList("条码编码"));
+        if (includeImage) {
+            head.add(Collections.singletonList("条码图片"));
+        }
+        paramColumns.forEach(column -> head.add(Collections.singletonList(column)));
+
+        ExcelWriterBuilder writerBuilder = EasyExcel.write(outputStream).head(head)
+                .registerWriteHandler(new SimpleColumnWidthStyleStrategy(20));
+        if (includeImage) {
+            // 行高按缩略图高度设置，像素换算为点
+            writerBuilder.registerWriteHandler(new SimpleRowHeightStyleStrategy((short) 20, (short) Math.ceil(imageHeight * PX_TO_PT)));
+        }
+
+        ByteArrayOutputStream imageBuffer = new ByteArrayOutputStream(4096);
+        try (ExcelWriter excelWriter = writerBuilder.build()) {
+            WriteSheet writeSheet = EasyExcel.writerSheet("条码列表").build();
+            List<List<Object>> page = new ArrayList<>(EXCEL_PAGE_SIZE);
+            for (int i = 0; i < paramsList.size(); i++) {
                 Map<String, Object> params = paramsList.get(i);
-                String code = "CODE_" + (i + 1); // 简化的编码生成
-                csvBuilder.append(i + 1).append(",").append(code).append(",").append(DateUtil.now()).append("\n");
-            } catch (Exception e) {
-                csvBuilder.append(i + 1).append(",生成失败,").append(DateUtil.now()).append("\n");
+                List<Object> row = new ArrayList<>(head.size());
+                row.add(i + 1);
+                String code = null;
+                try {
+                    code = codeSegmentGeneratorService.generateCode(ruleId, params);
+                    row.add(code);
+                } catch (Exception e) {
+                    log.warn("生成第{}个编码失败：{}", i + 1, e.getMessage());
+                    row.add("生成失败：" + e.getMessage());
+                }
+                if (includeImage) {
+                    row.add(code != null && i < maxImages ? encodeThumbnail(code, barcodeType, imageWidth, imageHeight, imageBuffer) : null);
+                }
+                for (String column : paramColumns) {
+                    row.add(ObjectUtil.isNull(params.get(column)) ? null : String.valueOf(params.get(column)));
+                }
+                page.add(row);
+                if (page.size() == EXCEL_PAGE_SIZE) {
+                    excelWriter.write(page, writeSheet);
+                    page.clear();
+                }
+            }
+            if (!page.isEmpty()) {
+                excelWriter.write(page, writeSheet);
             }
         }
-        
-        return csvBuilder.toString();
     }
 
     /**
-     * 简化的PDF生成（实际项目中建议使用专业PDF库）
+     * 生成单元格缩略图，失败时该单元格留空
      */
-    private byte[] generateSimplePDF(String content, int count) {
+    private byte[] encodeThumbnail(String code, String barcodeType, Integer width, Integer height, ByteArrayOutputStream buffer) {
         try {
-            // 创建简单的PDF替代内容
-            StringBuilder pdfContent = new StringBuilder();
-            pdfContent.append("%PDF-1.4\n")
-                      .append("1 0 obj\n")
-                      .append("<<\n")
-                      .append("/Type /Catalog\n")
-                      .append("/Pages 2 0 R\n")
-                      .append(">>\n")
-                      .append("endobj\n")
-                      .append("2 0 obj\n")
-                      .append("<<\n")
-                      .append("/Type /Pages\n")
-                      .append("/Kids [3 0 R]\n")
-                      .append("/Count 1\n")
-                      .append(">>\n")
-                      .append("endobj\n")
-                      .append("3 0 obj\n")
-                      .append("<<\n")
-                      .append("/Type /Page\n")
-                      .append("/Parent 2 0 R\n")
-                      .append("/MediaBox [0 0 612 792]\n")
-                      .append(">>\n")
-                      .append("endobj\n")
-                      .append("xref\n")
-                      .append("0 4\n")
-                      .append("0000000000 65535 f \n")
-                      .append("0000000009 65535 n \n")
-                      .append("0000000074 65535 n \n")
-                      .append("0000000131 65535 n \n")
-                      .append("trailer\n")
-                      .append("<<\n")
-                      .append("/Size 4\n")
-                      .append("/Root 1 0 R\n")
-                      .append(">>\n")
-                      .append("startxref\n")
-                      .append("208\n")
-                      .append("%%EOF");
-            
-            return pdfContent.toString().getBytes(StandardCharsets.UTF_8);
-            
+            buffer.reset();
+            barcodeGeneratorService.writeBarcodeFromText(code, barcodeType, width, height, BarcodeImageFormat.PNG.name(), buffer);
+            return buffer.toByteArray();
         } catch (Exception e) {
-            log.error("生成PDF失败：", e);
-            throw new CommonException("生成PDF失败：{}", e.getMessage());
+            log.warn("生成条码缩略图失败：{}", e.getMessage());
+            return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 关闭图片编码线程池
+     */
+    @PreDestroy
+    public void destroy() {
+        encoderPool.shutdownNow();
+    }
+}
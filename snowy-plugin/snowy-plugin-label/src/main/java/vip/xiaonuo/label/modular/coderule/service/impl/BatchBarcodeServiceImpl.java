@@ -13,24 +13,43 @@
 package vip.xiaonuo.label.modular.coderule.service.impl;
 
 import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.net.NetUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import cn.hutool.system.SystemUtil;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
+import vip.xiaonuo.label.core.barcode.BarcodeImageFormat;
 import vip.xiaonuo.label.modular.coderule.service.BatchBarcodeService;
 import vip.xiaonuo.label.modular.coderule.service.BarcodeGeneratorService;
+import vip.xiaonuo.label.modular.coderule.service.CodeSegmentGeneratorService;
 import vip.xiaonuo.label.modular.coderule.service.SerialNumberService;
 import vip.xiaonuo.common.exception.CommonException;
 
+import java.io.*;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 /**
  * 批量条码生成服务实现类
+ * 异步任务由调度线程切块提交到有界渲染线程池并行执行，每块结果直接写入本地磁盘的分块压缩包，
+ * 任务状态与进度保存在Redis中，任意节点均可查询和取消
  *
  * @author jetox
  * @date 2025/07/23 22:00
@@ -46,14 +65,65 @@ public class BatchBarcodeServiceImpl implements BatchBarcodeService {
     private SerialNumberService serialNumberService;
 
     @Autowired
-    private StringRedisTemplate stringRedisTemplate;
+    private CodeSegmentGeneratorService codeSegmentGeneratorService;
 
-    // 内存中的任务状态缓存（生产环境建议使用Redis）
-    private final Map<String, Map<String, Object>> taskStatusCache = new ConcurrentHashMap<>();
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
 
     private static final String BATCH_TASK_KEY_PREFIX = "barcode:batch:task:";
-    private static final int MAX_BATCH_SIZE = 1000; // 最大批次大小
-    private static final int BATCH_CHUNK_SIZE = 50;  // 分块处理大小
+    private static final String BATCH_TASK_ERRORS_SUFFIX = ":errors";
+    private static final int MAX_BATCH_SIZE = 1000; // 同步批次最大数量，同步接口直接返回图片
+    private static final int MAX_ASYNC_BATCH_SIZE = 1000000; // 异步批次最大数量
+    private static final int BATCH_CHUNK_SIZE = 200;  // 分块处理大小
+    private static final int MAX_ERROR_ITEMS = 100; // 每个任务最多保留的错误明细数
+    private static final long TASK_EXPIRE_SECONDS = TimeUnit.HOURS.toSeconds(24); // 任务状态与结果文件保留时间
+
+    private static final String STATUS_PROCESSING = "PROCESSING";
+    private static final String STATUS_COMPLETED = "COMPLETED";
+    private static final String STATUS_CANCELLED = "CANCELLED";
+    private static final String STATUS_FAILED = "FAILED";
+
+    /** 渲染线程数 */
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+
+    /** 结果文件根目录 */
+    private static final File RESULT_BASE_DIR = FileUtil.file(FileUtil.getTmpDir(), "barcode-batch");
+
+    /** 本节点标识，结果文件只能在生成它的节点下载 */
+    private static final String NODE_ID = NetUtil.getLocalhostStr() + "@" + SystemUtil.getCurrentPID();
+
+    // Lua脚本：按块累加进度并追加错误明细，错误明细只保留前若干条
+    private static final DefaultRedisScript<Long> PROGRESS_SCRIPT = new DefaultRedisScript<>(
+        "redis.call('hincrby', KEYS[1], 'successCount', ARGV[1]) " +
+        "redis.call('hincrby', KEYS[1], 'errorCount', ARGV[2]) " +
+        "local processed = redis.call('hincrby', KEYS[1], 'processedCount', tonumber(ARGV[1]) + tonumber(ARGV[2])) " +
+        "if #ARGV > 3 then " +
+        "    for i = 4, #ARGV do redis.call('rpush', KEYS[2], ARGV[i]) end " +
+        "    redis.call('ltrim', KEYS[2], 0, tonumber(ARGV[3]) - 1) " +
+        "    redis.call('expire', KEYS[2], redis.call('ttl', KEYS[1])) " +
+        "end " +
+        "return processed", Long.class);
+
+    // Lua脚本：状态比较并设置，防止完成与取消相互覆盖
+    private static final DefaultRedisScript<Long> TRANSIT_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('hget', KEYS[1], 'status') == ARGV[1] then " +
+        "    redis.call('hset', KEYS[1], 'status', ARGV[2], 'endTime', ARGV[3]) " +
+        "    if ARGV[4] ~= '' then redis.call('hset', KEYS[1], 'error', ARGV[4]) end " +
+        "    return 1 " +
+        "end " +
+        "return 0", Long.class);
+
+    // 渲染线程池，队列有界，队列满时由调度线程自己执行，形成背压
+    private final ThreadPoolExecutor workerPool = new ThreadPoolExecutor(WORKER_COUNT, WORKER_COUNT,
+        0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(WORKER_COUNT * 2),
+        new NamedThreadFactory("barcode-batch-worker-", true), new ThreadPoolExecutor.CallerRunsPolicy());
+
+    // 调度线程池，限制同时执行的任务数
+    private final ExecutorService dispatcherPool = Executors.newFixedThreadPool(2,
+        new NamedThreadFactory("barcode-batch-dispatcher-", true));
+
+    // 本节点正在执行的任务
+    private final Map<String, BatchTask> runningTasks = new ConcurrentHashMap<>();
 
     @Override
     public Map<String, Object> batchGenerateBarcodes(String ruleId, List<Map<String, Object>> paramsList, String barcodeType, Integer width, Integer height) {
@@ -112,106 +182,182 @@ public class BatchBarcodeServiceImpl implements BatchBarcodeService {
             throw new CommonException("参数列表不能为空");
         }
 
-        if (paramsList.size() > MAX_BATCH_SIZE) {
-            throw new CommonException("批量生成数量不能超过{}个", MAX_BATCH_SIZE);
+        if (paramsList.size() > MAX_ASYNC_BATCH_SIZE) {
+            throw new CommonException("批量生成数量不能超过{}个", MAX_ASYNC_BATCH_SIZE);
         }
 
+        cleanExpiredResults();
+
         // 生成任务ID
-        String taskId = "batch_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
-        
+        String taskId = "batch_" + IdUtil.fastSimpleUUID();
+        File resultDir = FileUtil.mkdir(FileUtil.file(RESULT_BASE_DIR, taskId));
+
         // 初始化任务状态
-        Map<String, Object> taskStatus = new HashMap<>();
+        Map<String, String> taskStatus = new HashMap<>();
         taskStatus.put("taskId", taskId);
-        taskStatus.put("status", "PROCESSING");
-        taskStatus.put("totalCount", paramsList.size());
-        taskStatus.put("processedCount", 0);
-        taskStatus.put("successCount", 0);
-        taskStatus.put("errorCount", 0);
-        taskStatus.put("startTime", System.currentTimeMillis());
+        taskStatus.put("status", STATUS_PROCESSING);
+        taskStatus.put("totalCount", String.valueOf(paramsList.size()));
+        taskStatus.put("processedCount", "0");
+        taskStatus.put("successCount", "0");
+        taskStatus.put("errorCount", "0");
+        taskStatus.put("startTime", String.valueOf(System.currentTimeMillis()));
         taskStatus.put("ruleId", ruleId);
-        taskStatus.put("barcodeType", barcodeType);
-        taskStatus.put("width", width);
-        taskStatus.put("height", height);
-        taskStatus.put("progress", 0.0);
-
-        taskStatusCache.put(taskId, taskStatus);
-
-        // 异步处理
-        processAsyncBatchGeneration(taskId, ruleId, paramsList, barcodeType, width, height);
+        taskStatus.put("barcodeType", StrUtil.nullToEmpty(barcodeType));
+        taskStatus.put("width", String.valueOf(width));
+        taskStatus.put("height", String.valueOf(height));
+        taskStatus.put("node", NODE_ID);
+        String taskKey = BATCH_TASK_KEY_PREFIX + taskId;
+        stringRedisTemplate.opsForHash().putAll(taskKey, taskStatus);
+        stringRedisTemplate.expire(taskKey, TASK_EXPIRE_SECONDS, TimeUnit.SECONDS);
+
+        BatchTask task = new BatchTask(taskId, ruleId, paramsList, barcodeType, width, height, resultDir);
+        runningTasks.put(taskId, task);
+        dispatcherPool.execute(() -> dispatch(task));
 
         return taskId;
     }
 
-    @Async
-    private void processAsyncBatchGeneration(String taskId, String ruleId, List<Map<String, Object>> paramsList, String barcodeType, Integer width, Integer height) {
-        Map<String, Object> taskStatus = taskStatusCache.get(taskId);
-        if (taskStatus == null) {
-            return;
-        }
-
-        List<String> successImages = new ArrayList<>();
-        List<Map<String, Object>> errorItems = new ArrayList<>();
-        AtomicInteger processedCount = new AtomicInteger(0);
-
+    /**
+     * 调度任务：按顺序生成每块的编码文本后切块提交渲染线程池，控制在途块数量，等待全部完成后落定最终状态
+     * 编码在调度线程上按下标顺序生成，保证流水号与条目序号一致，渲染线程只负责栅格化与编码图片
+     */
+    private void dispatch(BatchTask task) {
+        int window = WORKER_COUNT * 2;
+        Semaphore inFlight = new Semaphore(window);
         try {
-            // 分块处理
-            for (int start = 0; start < paramsList.size(); start += BATCH_CHUNK_SIZE) {
-                int end = Math.min(start + BATCH_CHUNK_SIZE, paramsList.size());
-                List<Map<String, Object>> chunk = paramsList.subList(start, end);
-
-                for (int i = 0; i < chunk.size(); i++) {
-                    int globalIndex = start + i;
+            int chunkIndex = 0;
+            for (int start = 0; start < task.paramsList.size(); start += BATCH_CHUNK_SIZE, chunkIndex++) {
+                if (isCancelled(task)) {
+                    break;
+                }
+                int from = start;
+                int to = Math.min(start + BATCH_CHUNK_SIZE, task.paramsList.size());
+                int index = chunkIndex;
+                // 块内参数随块提交，调度线程被中断提前清空任务参数时，仍在执行的块不受影响
+                List<Map<String, Object>> chunkParams = new ArrayList<>(task.paramsList.subList(from, to));
+                String[] codes = new String[to - from];
+                String[] codeErrors = new String[to - from];
+                for (int i = from; i < to; i++) {
                     try {
-                        Map<String, Object> params = chunk.get(i);
-                        String imageBase64 = barcodeGeneratorService.generateBarcodeImage(ruleId, params, barcodeType, width, height);
-                        successImages.add(imageBase64);
-                        
-                        // 更新成功计数
-                        taskStatus.put("successCount", (Integer)taskStatus.get("successCount") + 1);
+                        codes[i - from] = codeSegmentGeneratorService.generateCode(task.ruleId, chunkParams.get(i - from));
                     } catch (Exception e) {
-                        Map<String, Object> errorItem = new HashMap<>();
-                        errorItem.put("index", globalIndex);
-                        errorItem.put("params", chunk.get(i));
-                        errorItem.put("error", e.getMessage());
-                        errorItems.add(errorItem);
-                        
-                        // 更新错误计数
-                        taskStatus.put("errorCount", (Integer)taskStatus.get("errorCount") + 1);
-                        
-                        log.warn("异步批量生成条码时第{}项失败：{}", globalIndex, e.getMessage());
+                        codeErrors[i - from] = StrUtil.nullToEmpty(e.getMessage());
                     }
-
-                    // 更新处理进度
-                    int processed = processedCount.incrementAndGet();
-                    taskStatus.put("processedCount", processed);
-                    taskStatus.put("progress", (double)processed / paramsList.size() * 100);
                 }
-
-                // 每处理一个块后短暂休息，避免占用过多资源
+                inFlight.acquire();
                 try {
-                    Thread.sleep(10);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
+                    workerPool.execute(() -> {
+                        try {
+                            processChunk(task, index, from, chunkParams, codes, codeErrors);
+                        } catch (RuntimeException e) {
+                            task.failure.compareAndSet(null, e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    throw e;
                 }
             }
+            // 取回全部许可即所有已提交的块都已结束，已取消任务的块开始后立即返回
+            inFlight.acquire(window);
+            if (task.failure.get() != null) {
+                throw task.failure.get();
+            }
+            if (!task.cancelled) {
+                transitStatus(task.taskId, STATUS_PROCESSING, STATUS_COMPLETED, "");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            transitStatus(task.taskId, STATUS_PROCESSING, STATUS_FAILED, "任务被中断");
+        } catch (Exception e) {
+            log.error("异步批量生成条码失败，任务ID：{}", task.taskId, e);
+            transitStatus(task.taskId, STATUS_PROCESSING, STATUS_FAILED, StrUtil.nullToEmpty(e.getMessage()));
+        } finally {
+            runningTasks.remove(task.taskId);
+            task.paramsList = Collections.emptyList();
+        }
+    }
 
-            // 完成处理
-            taskStatus.put("status", "COMPLETED");
-            taskStatus.put("endTime", System.currentTimeMillis());
-            taskStatus.put("processingTime", (Long)taskStatus.get("endTime") - (Long)taskStatus.get("startTime"));
-            taskStatus.put("images", successImages);
-            taskStatus.put("errors", errorItems);
-            
-            // 将结果缓存到Redis（可选）
-            cacheTaskResult(taskId, taskStatus);
+    /**
+     * 渲染一个块并写入分块压缩包，进度按块一次性累加到Redis
+     */
+    private void processChunk(BatchTask task, int chunkIndex, int from, List<Map<String, Object>> chunkParams,
+                              String[] codes, String[] codeErrors) {
+        if (task.cancelled) {
+            return;
+        }
+        int to = from + codes.length;
+        int successCount = 0;
+        List<String> errorItems = new ArrayList<>();
+        File chunkFile = FileUtil.file(task.resultDir, String.format("chunk_%06d.zip", chunkIndex));
+        ByteArrayOutputStream imageBuffer = new ByteArrayOutputStream(8192);
+        try (ZipOutputStream zipOut = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(chunkFile)))) {
+            // PNG本身已压缩，不再重复压缩
+            zipOut.setLevel(Deflater.NO_COMPRESSION);
+            for (int i = from; i < to && !task.cancelled; i++) {
+                try {
+                    if (codeErrors[i - from] != null) {
+                        throw new CommonException(codeErrors[i - from]);
+                    }
+                    // 先编码到复用缓冲，失败时不会在压缩包中留下残缺条目
+                    imageBuffer.reset();
+                    barcodeGeneratorService.writeBarcodeFromText(codes[i - from], task.barcodeType, task.width, task.height,
+                        BarcodeImageFormat.PNG.name(), imageBuffer);
+                    zipOut.putNextEntry(new ZipEntry(String.format("barcode_%06d.png", i + 1)));
+                    imageBuffer.writeTo(zipOut);
+                    zipOut.closeEntry();
+                    successCount++;
+                } catch (Exception e) {
+                    if (errorItems.size() < MAX_ERROR_ITEMS) {
+                        errorItems.add(JSONUtil.createObj().set("index", i).set("params", chunkParams.get(i - from))
+                            .set("error", e.getMessage()).toString());
+                    }
+                    log.warn("异步批量生成条码时第{}项失败：{}", i, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.error("写入批量生成结果失败，任务ID：{}，块：{}", task.taskId, chunkIndex, e);
+        }
+        int processedCount = task.cancelled ? successCount + errorItems.size() : to - from;
+        List<String> args = new ArrayList<>(errorItems.size() + 3);
+        args.add(String.valueOf(successCount));
+        args.add(String.valueOf(processedCount - successCount));
+        args.add(String.valueOf(MAX_ERROR_ITEMS));
+        args.addAll(errorItems);
+        stringRedisTemplate.execute(PROGRESS_SCRIPT,
+            Arrays.asList(BATCH_TASK_KEY_PREFIX + task.taskId, BATCH_TASK_KEY_PREFIX + task.taskId + BATCH_TASK_ERRORS_SUFFIX),
+            args.toArray());
+    }
 
-        } catch (Exception e) {
-            log.error("异步批量生成条码失败，任务ID：{}", taskId, e);
-            taskStatus.put("status", "FAILED");
-            taskStatus.put("error", e.getMessage());
-            taskStatus.put("endTime", System.currentTimeMillis());
+    /**
+     * 判断任务是否已取消，其他节点发起的取消通过Redis状态感知
+     */
+    private boolean isCancelled(BatchTask task) {
+        if (!task.cancelled) {
+            Object status = stringRedisTemplate.opsForHash().get(BATCH_TASK_KEY_PREFIX + task.taskId, "status");
+            if (STATUS_CANCELLED.equals(status)) {
+                cancelLocal(task);
+            }
         }
+        return task.cancelled;
+    }
+
+    /**
+     * 停止本节点上的任务，未开始的块开始后立即返回，执行中的块在当前条码完成后退出
+     */
+    private void cancelLocal(BatchTask task) {
+        task.cancelled = true;
+    }
+
+    /**
+     * 状态比较并设置
+     */
+    private boolean transitStatus(String taskId, String expectStatus, String targetStatus, String error) {
+        Long result = stringRedisTemplate.execute(TRANSIT_SCRIPT, Collections.singletonList(BATCH_TASK_KEY_PREFIX + taskId),
+            expectStatus, targetStatus, String.valueOf(System.currentTimeMillis()), error);
+        return result != null && result == 1L;
     }
 
     @Override
@@ -220,16 +366,72 @@ public class BatchBarcodeServiceImpl implements BatchBarcodeService {
             throw new CommonException("任务ID不能为空");
         }
 
-        Map<String, Object> taskStatus = taskStatusCache.get(taskId);
-        if (taskStatus == null) {
-            // 尝试从Redis获取
-            taskStatus = getCachedTaskResult(taskId);
-            if (taskStatus == null) {
-                throw new CommonException("任务不存在或已过期，任务ID：{}", taskId);
+        Map<Object, Object> cacheData = stringRedisTemplate.opsForHash().entries(BATCH_TASK_KEY_PREFIX + taskId);
+        if (cacheData.isEmpty()) {
+            throw new CommonException("任务不存在或已过期，任务ID：{}", taskId);
+        }
+
+        Map<String, Object> taskStatus = new HashMap<>();
+        cacheData.forEach((key, value) -> taskStatus.put(String.valueOf(key), value));
+        for (String field : new String[]{"totalCount", "processedCount", "successCount", "errorCount"}) {
+            taskStatus.put(field, Integer.parseInt(String.valueOf(cacheData.get(field))));
+        }
+        for (String field : new String[]{"startTime", "endTime"}) {
+            if (cacheData.containsKey(field)) {
+                taskStatus.put(field, Long.parseLong(String.valueOf(cacheData.get(field))));
             }
         }
+        int totalCount = (Integer) taskStatus.get("totalCount");
+        int processedCount = (Integer) taskStatus.get("processedCount");
+        taskStatus.put("progress", totalCount == 0 ? 0.0 : (double) processedCount / totalCount * 100);
+        if (taskStatus.containsKey("endTime")) {
+            taskStatus.put("processingTime", (Long) taskStatus.get("endTime") - (Long) taskStatus.get("startTime"));
+        }
+        List<String> errorItems = stringRedisTemplate.opsForList().range(BATCH_TASK_KEY_PREFIX + taskId + BATCH_TASK_ERRORS_SUFFIX, 0, -1);
+        taskStatus.put("errors", errorItems == null ? Collections.emptyList() : errorItems.stream().map(JSONUtil::parseObj).toList());
+
+        return taskStatus;
+    }
+
+    @Override
+    public void downloadBatchTaskResult(String taskId, HttpServletResponse response) {
+        Map<String, Object> taskStatus = getBatchTaskStatus(taskId);
+        if (!STATUS_COMPLETED.equals(taskStatus.get("status"))) {
+            throw new CommonException("任务未完成，任务ID：{}", taskId);
+        }
+        if (!NODE_ID.equals(taskStatus.get("node"))) {
+            throw new CommonException("任务结果保存在节点{}，请在该节点下载", taskStatus.get("node"));
+        }
+        File resultDir = FileUtil.file(RESULT_BASE_DIR, taskId);
+        File[] chunkFiles = resultDir.listFiles((dir, name) -> name.startsWith("chunk_"));
+        if (chunkFiles == null) {
+            throw new CommonException("任务结果文件不存在，任务ID：{}", taskId);
+        }
+        Arrays.sort(chunkFiles, Comparator.comparing(File::getName));
 
-        return new HashMap<>(taskStatus);
+        try {
+            String fileName = "barcodes_" + DateUtil.format(DateUtil.date(), "yyyyMMdd_HHmmss") + ".zip";
+            response.setContentType("application/zip");
+            response.setHeader("Content-Disposition", "attachment; filename=" + URLEncoder.encode(fileName, StandardCharsets.UTF_8));
+
+            // 逐个分块复制条目，内存占用与任务规模无关
+            try (ZipOutputStream zipOut = new ZipOutputStream(response.getOutputStream())) {
+                for (File chunkFile : chunkFiles) {
+                    try (ZipInputStream zipIn = new ZipInputStream(new BufferedInputStream(new FileInputStream(chunkFile)))) {
+                        ZipEntry entry;
+                        while ((entry = zipIn.getNextEntry()) != null) {
+                            zipOut.putNextEntry(new ZipEntry(entry.getName()));
+                            IoUtil.copy(zipIn, zipOut);
+                            zipOut.closeEntry();
+                        }
+                    }
+                }
+                zipOut.finish();
+            }
+        } catch (IOException e) {
+            log.error("下载批量生成结果失败，任务ID：{}", taskId, e);
+            throw new CommonException("下载批量生成结果失败：{}", e.getMessage());
+        }
     }
 
     @Override
@@ -277,61 +479,80 @@ public class BatchBarcodeServiceImpl implements BatchBarcodeService {
             return false;
         }
 
-        Map<String, Object> taskStatus = taskStatusCache.get(taskId);
-        if (taskStatus != null && "PROCESSING".equals(taskStatus.get("status"))) {
-            taskStatus.put("status", "CANCELLED");
-            taskStatus.put("endTime", System.currentTimeMillis());
-            
-            log.info("批量生成任务已取消，任务ID：{}", taskId);
-            return true;
+        if (!transitStatus(taskId, STATUS_PROCESSING, STATUS_CANCELLED, "")) {
+            return false;
+        }
+
+        // 任务在本节点执行时立即停止，否则由执行节点的调度线程感知
+        BatchTask task = runningTasks.get(taskId);
+        if (task != null) {
+            cancelLocal(task);
         }
+        log.info("批量生成任务已取消，任务ID：{}", taskId);
+        return true;
+    }
 
-        return false;
+    /**
+     * 清理过期的结果文件
+     */
+    private void cleanExpiredResults() {
+        File[] taskDirs = RESULT_BASE_DIR.listFiles(File::isDirectory);
+        if (taskDirs == null) {
+            return;
+        }
+        long expireBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(TASK_EXPIRE_SECONDS);
+        for (File taskDir : taskDirs) {
+            if (taskDir.lastModified() < expireBefore && !runningTasks.containsKey(taskDir.getName())) {
+                FileUtil.del(taskDir);
+            }
+        }
     }
 
     /**
-     * 缓存任务结果到Redis
+     * 节点关闭时停止任务，未完成的任务标记为失败
      */
-    private void cacheTaskResult(String taskId, Map<String, Object> taskStatus) {
-        try {
-            String cacheKey = BATCH_TASK_KEY_PREFIX + taskId;
-            
-            // 序列化任务状态（简化版本，生产环境建议使用JSON）
-            Map<String, String> cacheData = new HashMap<>();
-            taskStatus.forEach((key, value) -> {
-                if (!(value instanceof List)) { // 跳过复杂对象
-                    cacheData.put(key, String.valueOf(value));
-                }
-            });
-            
-            stringRedisTemplate.opsForHash().putAll(cacheKey, cacheData);
-            stringRedisTemplate.expire(cacheKey, 1, TimeUnit.HOURS); // 缓存1小时
-            
-        } catch (Exception e) {
-            log.warn("缓存任务结果失败，任务ID：{}", taskId, e);
+    @PreDestroy
+    public void destroy() {
+        for (BatchTask task : runningTasks.values()) {
+            cancelLocal(task);
+            transitStatus(task.taskId, STATUS_PROCESSING, STATUS_FAILED, "执行节点已关闭");
         }
+        dispatcherPool.shutdownNow();
+        workerPool.shutdownNow();
     }
 
     /**
-     * 从Redis获取缓存的任务结果
+     * 本节点上执行中的任务
      */
-    private Map<String, Object> getCachedTaskResult(String taskId) {
-        try {
-            String cacheKey = BATCH_TASK_KEY_PREFIX + taskId;
-            Map<Object, Object> cacheData = stringRedisTemplate.opsForHash().entries(cacheKey);
-            
-            if (cacheData.isEmpty()) {
-                return null;
-            }
-            
-            Map<String, Object> taskStatus = new HashMap<>();
-            cacheData.forEach((key, value) -> taskStatus.put(String.valueOf(key), value));
-            
-            return taskStatus;
-            
-        } catch (Exception e) {
-            log.warn("获取缓存任务结果失败，任务ID：{}", taskId, e);
-            return null;
+    private static final class BatchTask {
+
+        private final String taskId;
+
+        private final String ruleId;
+
+        private final String barcodeType;
+
+        private final Integer width;
+
+        private final Integer height;
+
+        private final File resultDir;
+
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        private volatile List<Map<String, Object>> paramsList;
+
+        private volatile boolean cancelled;
+
+        private BatchTask(String taskId, String ruleId, List<Map<String, Object>> paramsList, String barcodeType,
+                          Integer width, Integer height, File resultDir) {
+            this.taskId = taskId;
+            this.ruleId = ruleId;
+            this.paramsList = paramsList;
+            this.barcodeType = barcodeType;
+            this.width = width;
+            this.height = height;
+            this.resultDir = resultDir;
         }
     }
-}
\ No newline at end of file
+}
@@ -14,17 +14,24 @@ package vip.xiaonuo.label.modular.coderule.service.impl;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
+import vip.xiaonuo.common.util.CommonRedisScanUtil;
 import vip.xiaonuo.label.modular.coderule.service.SerialNumberService;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 流水号管理服务实现类
@@ -41,19 +48,60 @@ public class SerialNumberServiceImpl implements SerialNumberService {
 
     private static final String SERIAL_KEY_PREFIX = "barcode:serial:";
     private static final String SERIAL_INFO_KEY_PREFIX = "barcode:serial:info:";
+    private static final String SERIAL_LEASE_KEY_PREFIX = "barcode:serial:lease:";
 
-    // Lua脚本：原子性地获取并递增流水号
-    private static final String INCR_SCRIPT = 
+    // 租约有效期，超时后未用完的号段归还Redis
+    private static final long LEASE_TTL_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    // Lua脚本片段：过期秒数大于0时设置过期时间，否则移除过期时间（不重置的流水号永不过期）
+    private static final String EXPIRE_OR_PERSIST =
+        "local function expireOrPersist(key, seconds) " +
+        "    if tonumber(seconds) > 0 then " +
+        "        redis.call('expire', key, seconds) " +
+        "    else " +
+        "        redis.call('persist', key) " +
+        "    end " +
+        "end ";
+
+    // Lua脚本：原子性地获取并递增流水号，同时设置过期时间并记录流水号信息，一次往返完成
+    // 计数器不存在时先初始化为起始值减1，起始值为0或1时同样从起始值开始递增
+    private static final DefaultRedisScript<Long> INCR_SCRIPT = new DefaultRedisScript<>(EXPIRE_OR_PERSIST +
+        "redis.call('set', KEYS[1], tonumber(ARGV[1]) - 1, 'NX') " +
         "local current = redis.call('incr', KEYS[1]) " +
-        "if current == 1 then " +
-        "    redis.call('set', KEYS[1], ARGV[1]) " +
-        "    return tonumber(ARGV[1]) " +
+        "expireOrPersist(KEYS[1], ARGV[2]) " +
+        "redis.call('hset', KEYS[2], 'ruleId', ARGV[3], 'segmentIndex', ARGV[4], 'resetType', ARGV[5], " +
+        "    'currentValue', current, 'lastUpdateTime', ARGV[6], 'lastUpdateDate', ARGV[7]) " +
+        "redis.call('expire', KEYS[2], ARGV[8]) " +
+        "return current", Long.class);
+
+    // Lua脚本：租用流水号段，优先复用已归还的号段，否则从计数器上分配
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> LEASE_SCRIPT = new DefaultRedisScript<>(EXPIRE_OR_PERSIST +
+        "local released = redis.call('lpop', KEYS[2]) " +
+        "if released then " +
+        "    local pos = string.find(released, ':') " +
+        "    return {tonumber(string.sub(released, 1, pos - 1)), tonumber(string.sub(released, pos + 1))} " +
+        "end " +
+        "local current = redis.call('get', KEYS[1]) " +
+        "if current then " +
+        "    current = tonumber(current) " +
         "else " +
-        "    return current " +
-        "end";
+        "    current = tonumber(ARGV[1]) - 1 " +
+        "end " +
+        "local newValue = current + tonumber(ARGV[2]) " +
+        "redis.call('set', KEYS[1], newValue) " +
+        "expireOrPersist(KEYS[1], ARGV[3]) " +
+        "return {current + 1, newValue}", List.class);
+
+    // Lua脚本：归还未用完的号段
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(EXPIRE_OR_PERSIST +
+        "local size = redis.call('rpush', KEYS[1], ARGV[1]) " +
+        "expireOrPersist(KEYS[1], ARGV[2]) " +
+        "return size", Long.class);
 
     // Lua脚本：原子性地分配流水号段
-    private static final String ALLOCATE_RANGE_SCRIPT =
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> ALLOCATE_RANGE_SCRIPT = new DefaultRedisScript<>(
         "local current = redis.call('get', KEYS[1]) " +
         "if not current then " +
         "    current = ARGV[1] " +
@@ -63,32 +111,35 @@ public class SerialNumberServiceImpl implements SerialNumberService {
         "local count = tonumber(ARGV[2]) " +
         "local newValue = start + count - 1 " +
         "redis.call('set', KEYS[1], newValue) " +
-        "return {start, newValue}";
+        "return {start, newValue}", List.class);
+
+    // 本节点持有的号段租约，键为流水号Redis键
+    private final Map<String, SerialLease> leaseMap = new ConcurrentHashMap<>();
+
+    // 定期归还超时租约
+    private final ScheduledExecutorService leaseSweeper = Executors.newSingleThreadScheduledExecutor(
+        new NamedThreadFactory("serial-lease-sweeper-", true));
+
+    public SerialNumberServiceImpl() {
+        leaseSweeper.scheduleWithFixedDelay(this::releaseExpiredLeases, LEASE_TTL_MILLIS, LEASE_TTL_MILLIS / 2, TimeUnit.MILLISECONDS);
+    }
 
     @Override
     public Long getNextSerial(String ruleId, int segmentIndex, String resetType, int startValue) {
         String serialKey = buildSerialKey(ruleId, segmentIndex, resetType);
         
         try {
-            // 使用Lua脚本保证原子性
-            DefaultRedisScript<Long> script = new DefaultRedisScript<>();
-            script.setScriptText(INCR_SCRIPT);
-            script.setResultType(Long.class);
-            
-            Long result = stringRedisTemplate.execute(script, 
-                Collections.singletonList(serialKey), 
-                String.valueOf(startValue));
+            // 使用Lua脚本保证原子性，递增、过期时间与信息记录一次往返完成
+            Long result = stringRedisTemplate.execute(INCR_SCRIPT,
+                Arrays.asList(serialKey, buildSerialInfoKey(ruleId, segmentIndex, resetType)),
+                String.valueOf(startValue), String.valueOf(getExpireSeconds(resetType)),
+                ruleId, String.valueOf(segmentIndex), resetType,
+                String.valueOf(System.currentTimeMillis()), DateUtil.now(), String.valueOf(TimeUnit.DAYS.toSeconds(366)));
             
             if (result == null) {
                 result = (long) startValue;
             }
             
-            // 设置过期时间
-            setSerialExpireTime(serialKey, resetType);
-            
-            // 记录流水号信息
-            recordSerialInfo(ruleId, segmentIndex, resetType, result);
-            
             log.debug("获取流水号成功，键：{}，值：{}", serialKey, result);
             return result;
             
@@ -98,6 +149,109 @@ public class SerialNumberServiceImpl implements SerialNumberService {
         }
     }
 
+    @Override
+    public Long getNextLeasedSerial(String ruleId, int segmentIndex, String resetType, int startValue, int leaseSize) {
+        String serialKey = buildSerialKey(ruleId, segmentIndex, resetType);
+        while (true) {
+            SerialLease lease = leaseMap.get(serialKey);
+            if (lease != null) {
+                long value = lease.next.getAndIncrement();
+                if (value <= lease.end) {
+                    return value;
+                }
+            }
+            if (lease == null) {
+                discardStaleLeases(ruleId, segmentIndex, serialKey);
+            }
+            // 租约用完或不存在，在映射锁外向Redis续租，避免Redis往返阻塞同一桶上的其他键
+            SerialLease acquired = acquireLease(ruleId, segmentIndex, resetType, serialKey, startValue, leaseSize);
+            boolean installed = lease == null ? leaseMap.putIfAbsent(serialKey, acquired) == null
+                    : leaseMap.replace(serialKey, lease, acquired);
+            if (!installed) {
+                // 其他线程已先安装新租约，本次租到的号段归还Redis，下次续租时复用，不会丢号
+                releaseLease(acquired);
+            }
+        }
+    }
+
+    /**
+     * 丢弃本规则编码段已过周期的旧租约，周期切换后计数器已重置，旧号段无需归还
+     */
+    private void discardStaleLeases(String ruleId, int segmentIndex, String serialKey) {
+        String periodPrefix = SERIAL_KEY_PREFIX + ruleId + ":" + segmentIndex;
+        leaseMap.keySet().removeIf(key -> !key.equals(serialKey) && (key.equals(periodPrefix) || key.startsWith(periodPrefix + ":")));
+    }
+
+    /**
+     * 向Redis租用一个号段
+     */
+    private SerialLease acquireLease(String ruleId, int segmentIndex, String resetType, String serialKey, int startValue, int leaseSize) {
+        try {
+            @SuppressWarnings("unchecked")
+            List<Long> result = stringRedisTemplate.execute(LEASE_SCRIPT,
+                Arrays.asList(serialKey, buildSerialLeaseKey(serialKey)),
+                String.valueOf(startValue), String.valueOf(Math.max(1, leaseSize)), String.valueOf(getExpireSeconds(resetType)));
+            if (result == null || result.size() != 2) {
+                throw new RuntimeException("租用流水号段失败，返回结果异常");
+            }
+            recordSerialInfo(ruleId, segmentIndex, resetType, result.get(1));
+            log.debug("租用流水号段成功，键：{}，范围：[{}, {}]", serialKey, result.get(0), result.get(1));
+            return new SerialLease(serialKey, resetType, result.get(0), result.get(1));
+        } catch (RuntimeException e) {
+            log.error("租用流水号段失败，键：{}", serialKey, e);
+            throw e;
+        }
+    }
+
+    /**
+     * 收回租约中未发放的号段并归还Redis
+     */
+    private void releaseLease(SerialLease lease) {
+        long from = lease.next.getAndSet(lease.end + 1);
+        if (from > lease.end) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(buildSerialLeaseKey(lease.serialKey)),
+                from + ":" + lease.end, String.valueOf(getExpireSeconds(lease.resetType)));
+            log.debug("归还流水号段成功，键：{}，范围：[{}, {}]", lease.serialKey, from, lease.end);
+        } catch (Exception e) {
+            log.warn("归还流水号段失败，键：{}，范围：[{}, {}]", lease.serialKey, from, lease.end, e);
+        }
+    }
+
+    /**
+     * 归还已超时的租约，避免空闲节点长期占用号段
+     */
+    private void releaseExpiredLeases() {
+        long now = System.currentTimeMillis();
+        for (SerialLease lease : leaseMap.values()) {
+            if (now - lease.acquireTime >= LEASE_TTL_MILLIS && leaseMap.remove(lease.serialKey, lease)) {
+                releaseLease(lease);
+            }
+        }
+    }
+
+    /**
+     * 节点关闭时归还所有租约
+     */
+    @PreDestroy
+    public void destroy() {
+        leaseSweeper.shutdownNow();
+        for (SerialLease lease : leaseMap.values()) {
+            if (leaseMap.remove(lease.serialKey, lease)) {
+                releaseLease(lease);
+            }
+        }
+    }
+
+    /**
+     * 丢弃本节点上指定规则的租约（重置或改值后旧号段作废，无需归还）
+     */
+    private void discardLeases(String serialKeyPrefix) {
+        leaseMap.keySet().removeIf(key -> key.startsWith(serialKeyPrefix));
+    }
+
     @Override
     public void resetSerial(String ruleId, int segmentIndex, String resetType) {
         String serialKey = buildSerialKey(ruleId, segmentIndex, resetType);
@@ -105,9 +259,10 @@ public class SerialNumberServiceImpl implements SerialNumberService {
         try {
             stringRedisTemplate.delete(serialKey);
             
-            // 删除对应的信息记录
+            // 删除对应的信息记录和已归还号段
             String infoKey = buildSerialInfoKey(ruleId, segmentIndex, resetType);
-            stringRedisTemplate.delete(infoKey);
+            stringRedisTemplate.delete(Arrays.asList(infoKey, buildSerialLeaseKey(serialKey)));
+            leaseMap.remove(serialKey);
             
             log.info("重置流水号成功，键：{}", serialKey);
         } catch (Exception e) {
@@ -121,18 +276,18 @@ public class SerialNumberServiceImpl implements SerialNumberService {
         String pattern = SERIAL_KEY_PREFIX + ruleId + ":*";
         
         try {
-            Set<String> keys = stringRedisTemplate.keys(pattern);
-            if (CollUtil.isNotEmpty(keys)) {
-                stringRedisTemplate.delete(keys);
-                log.info("批量重置流水号成功，规则ID：{}，重置数量：{}", ruleId, keys.size());
+            // 使用SCAN按批UNLINK，避免KEYS阻塞Redis
+            long count = CommonRedisScanUtil.delete(stringRedisTemplate, pattern);
+            if (count > 0) {
+                log.info("批量重置流水号成功，规则ID：{}，重置数量：{}", ruleId, count);
             }
             
             // 删除对应的信息记录
-            String infoPattern = SERIAL_INFO_KEY_PREFIX + ruleId + ":*";
-            Set<String> infoKeys = stringRedisTemplate.keys(infoPattern);
-            if (CollUtil.isNotEmpty(infoKeys)) {
-                stringRedisTemplate.delete(infoKeys);
-            }
+            CommonRedisScanUtil.delete(stringRedisTemplate, SERIAL_INFO_KEY_PREFIX + ruleId + ":*");
+
+            // 删除已归还号段并丢弃本节点租约
+            CommonRedisScanUtil.delete(stringRedisTemplate, SERIAL_LEASE_KEY_PREFIX + ruleId + ":*");
+            discardLeases(SERIAL_KEY_PREFIX + ruleId + ":");
             
         } catch (Exception e) {
             log.error("批量重置流水号失败，规则ID：{}", ruleId, e);
@@ -144,43 +299,51 @@ public class SerialNumberServiceImpl implements SerialNumberService {
     public List<Map<String, Object>> getSerialStatus(String ruleId) {
         String pattern = SERIAL_KEY_PREFIX + ruleId + ":*";
         List<Map<String, Object>> statusList = new ArrayList<>();
+        // SCAN可能返回重复的键，按键去重
+        Set<String> scannedKeys = new HashSet<>();
         
         try {
-            Set<String> keys = stringRedisTemplate.keys(pattern);
-            if (CollUtil.isEmpty(keys)) {
-                return statusList;
-            }
-            
-            for (String key : keys) {
-                Map<String, Object> status = new HashMap<>();
-                
-                // 解析键信息
-                String[] parts = key.replace(SERIAL_KEY_PREFIX, "").split(":");
-                status.put("ruleId", parts[0]);
-                status.put("segmentIndex", Integer.parseInt(parts[1]));
-                
-                // 获取当前值
-                String currentValue = stringRedisTemplate.opsForValue().get(key);
-                status.put("currentValue", currentValue != null ? Long.parseLong(currentValue) : 0L);
-                
-                // 获取过期时间
-                Long expire = stringRedisTemplate.getExpire(key);
-                status.put("expireTime", expire);
-                
-                // 获取重置类型和其他信息
-                String infoKey = key.replace(SERIAL_KEY_PREFIX, SERIAL_INFO_KEY_PREFIX);
-                Map<Object, Object> infoMap = stringRedisTemplate.opsForHash().entries(infoKey);
-                if (CollUtil.isNotEmpty(infoMap)) {
-                    for (Map.Entry<Object, Object> entry : infoMap.entrySet()) {
-                        status.put(String.valueOf(entry.getKey()), entry.getValue());
+            // 每批在一次管道中获取当前值、过期时间和信息记录，避免逐键往返
+            CommonRedisScanUtil.scanPipelined(stringRedisTemplate, pattern, CommonRedisScanUtil.DEFAULT_BATCH_SIZE, (operations, keyList) -> {
+                for (String key : keyList) {
+                    operations.opsForValue().get(key);
+                    operations.getExpire(key);
+                    operations.opsForHash().entries(key.replace(SERIAL_KEY_PREFIX, SERIAL_INFO_KEY_PREFIX));
+                }
+            }, (keyList, resultList) -> {
+                for (int i = 0; i < keyList.size(); i++) {
+                    String key = keyList.get(i);
+                    if (!scannedKeys.add(key)) {
+                        continue;
                     }
+                    Map<String, Object> status = new HashMap<>();
+                    
+                    // 解析键信息
+                    String[] parts = key.replace(SERIAL_KEY_PREFIX, "").split(":");
+                    status.put("ruleId", parts[0]);
+                    status.put("segmentIndex", Integer.parseInt(parts[1]));
+                    
+                    // 获取当前值
+                    Object currentValue = resultList.get(i * 3);
+                    status.put("currentValue", currentValue != null ? Long.parseLong(String.valueOf(currentValue)) : 0L);
+                    
+                    // 获取过期时间
+                    status.put("expireTime", resultList.get(i * 3 + 1));
+                    
+                    // 获取重置类型和其他信息，信息记录中的当前值在租用号段后可能滞后，以计数器为准
+                    Object infoMap = resultList.get(i * 3 + 2);
+                    if (infoMap instanceof Map<?, ?> map && CollUtil.isNotEmpty(map)) {
+                        for (Map.Entry<?, ?> entry : map.entrySet()) {
+                            status.putIfAbsent(String.valueOf(entry.getKey()), entry.getValue());
+                        }
+                    }
+                    
+                    // 添加时间戳
+                    status.put("lastUpdateTime", System.currentTimeMillis());
+                    
+                    statusList.add(status);
                 }
-                
-                // 添加时间戳
-                status.put("lastUpdateTime", System.currentTimeMillis());
-                
-                statusList.add(status);
-            }
+            });
             
         } catch (Exception e) {
             log.error("获取流水号状态失败，规则ID：{}", ruleId, e);
@@ -196,6 +359,8 @@ public class SerialNumberServiceImpl implements SerialNumberService {
         
         try {
             stringRedisTemplate.opsForValue().set(serialKey, String.valueOf(value));
+            stringRedisTemplate.delete(buildSerialLeaseKey(serialKey));
+            leaseMap.remove(serialKey);
             
             // 设置过期时间
             setSerialExpireTime(serialKey, resetType);
@@ -216,12 +381,8 @@ public class SerialNumberServiceImpl implements SerialNumberService {
         
         try {
             // 使用Lua脚本原子性地分配范围
-            DefaultRedisScript<List> script = new DefaultRedisScript<>();
-            script.setScriptText(ALLOCATE_RANGE_SCRIPT);
-            script.setResultType(List.class);
-            
             @SuppressWarnings("unchecked")
-            List<Long> result = stringRedisTemplate.execute(script,
+            List<Long> result = stringRedisTemplate.execute(ALLOCATE_RANGE_SCRIPT,
                 Collections.singletonList(serialKey),
                 "0", String.valueOf(count));
             
@@ -282,44 +443,42 @@ public class SerialNumberServiceImpl implements SerialNumberService {
         return buildSerialKey(ruleId, segmentIndex, resetType).replace(SERIAL_KEY_PREFIX, SERIAL_INFO_KEY_PREFIX);
     }
 
+    /**
+     * 构建已归还号段列表键
+     */
+    private String buildSerialLeaseKey(String serialKey) {
+        return SERIAL_LEASE_KEY_PREFIX + serialKey.substring(SERIAL_KEY_PREFIX.length());
+    }
+
+    /**
+     * 计算流水号键的过期秒数，周期重置的键在下一周期开始时过期，不重置的键返回-1表示永不过期，
+     * 否则空闲过久的计数器过期后会从起始值重新发号，与已打印的编码重复
+     */
+    private long getExpireSeconds(String resetType) {
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
+        switch (resetType) {
+            case "daily":
+                return Math.max(1, java.time.Duration.between(now, LocalDate.now().plusDays(1).atStartOfDay()).getSeconds());
+            case "monthly":
+                return Math.max(1, java.time.Duration.between(now, LocalDate.now().plusMonths(1).withDayOfMonth(1).atStartOfDay()).getSeconds());
+            case "yearly":
+                return Math.max(1, java.time.Duration.between(now, LocalDate.now().plusYears(1).withDayOfYear(1).atStartOfDay()).getSeconds());
+            case "none":
+            default:
+                return -1;
+        }
+    }
+
     /**
      * 设置流水号过期时间
      */
     private void setSerialExpireTime(String serialKey, String resetType) {
         try {
-            switch (resetType) {
-                case "daily":
-                    // 设置到次日0点过期
-                    LocalDate tomorrow = LocalDate.now().plusDays(1);
-                    long secondsUntilTomorrow = java.time.Duration.between(
-                        java.time.LocalDateTime.now(),
-                        tomorrow.atStartOfDay()
-                    ).getSeconds();
-                    stringRedisTemplate.expire(serialKey, secondsUntilTomorrow, TimeUnit.SECONDS);
-                    break;
-                case "monthly":
-                    // 设置到下月1号0点过期
-                    LocalDate nextMonth = LocalDate.now().plusMonths(1).withDayOfMonth(1);
-                    long secondsUntilNextMonth = java.time.Duration.between(
-                        java.time.LocalDateTime.now(),
-                        nextMonth.atStartOfDay()
-                    ).getSeconds();
-                    stringRedisTemplate.expire(serialKey, secondsUntilNextMonth, TimeUnit.SECONDS);
-                    break;
-                case "yearly":
-                    // 设置到明年1月1号0点过期
-                    LocalDate nextYear = LocalDate.now().plusYears(1).withDayOfYear(1);
-                    long secondsUntilNextYear = java.time.Duration.between(
-                        java.time.LocalDateTime.now(),
-                        nextYear.atStartOfDay()
-                    ).getSeconds();
-                    stringRedisTemplate.expire(serialKey, secondsUntilNextYear, TimeUnit.SECONDS);
-                    break;
-                case "none":
-                default:
-                    // 不设置过期时间，但设置一个很长的过期时间防止内存泄漏
-                    stringRedisTemplate.expire(serialKey, 365, TimeUnit.DAYS);
-                    break;
+            long expireSeconds = getExpireSeconds(resetType);
+            if (expireSeconds > 0) {
+                stringRedisTemplate.expire(serialKey, expireSeconds, TimeUnit.SECONDS);
+            } else {
+                stringRedisTemplate.persist(serialKey);
             }
         } catch (Exception e) {
             log.warn("设置流水号过期时间失败，键：{}", serialKey, e);
@@ -350,4 +509,27 @@ public class SerialNumberServiceImpl implements SerialNumberService {
             log.warn("记录流水号信息失败", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 号段租约，[next, end]为本节点尚未发放的号码
+     */
+    private static final class SerialLease {
+
+        private final String serialKey;
+
+        private final String resetType;
+
+        private final long end;
+
+        private final AtomicLong next;
+
+        private final long acquireTime = System.currentTimeMillis();
+
+        private SerialLease(String serialKey, String resetType, long start, long end) {
+            this.serialKey = serialKey;
+            this.resetType = resetType;
+            this.end = end;
+            this.next = new AtomicLong(start);
+        }
+    }
+}
@@ -28,6 +28,7 @@ import com.alibaba.excel.EasyExcel;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -41,6 +42,7 @@ import vip.xiaonuo.label.modular.coderule.param.WqsCodeRuleAddParam;
 import vip.xiaonuo.label.modular.coderule.param.WqsCodeRuleEditParam;
 import vip.xiaonuo.label.modular.coderule.param.WqsCodeRuleIdParam;
 import vip.xiaonuo.label.modular.coderule.param.WqsCodeRulePageParam;
+import vip.xiaonuo.label.modular.coderule.plan.CodeRulePlanCache;
 import vip.xiaonuo.label.modular.coderule.service.WqsCodeRuleService;
 
 import vip.xiaonuo.common.util.CommonDownloadUtil;
@@ -59,6 +61,9 @@ import java.util.List;
 @Service
 public class WqsCodeRuleServiceImpl extends ServiceImpl<WqsCodeRuleMapper, WqsCodeRule> implements WqsCodeRuleService {
 
+    @Resource
+    private CodeRulePlanCache codeRulePlanCache;
+
     @Override
     public Page<WqsCodeRule> page(WqsCodeRulePageParam wqsCodeRulePageParam) {
         QueryWrapper<WqsCodeRule> queryWrapper = new QueryWrapper<WqsCodeRule>().checkSqlInjection();
@@ -85,13 +90,16 @@ public class WqsCodeRuleServiceImpl extends ServiceImpl<WqsCodeRuleMapper, WqsCo
         WqsCodeRule wqsCodeRule = this.queryEntity(wqsCodeRuleEditParam.getId());
         BeanUtil.copyProperties(wqsCodeRuleEditParam, wqsCodeRule);
         this.updateById(wqsCodeRule);
+        codeRulePlanCache.invalidate(CollectionUtil.newArrayList(wqsCodeRule.getId()));
     }
 
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void delete(List<WqsCodeRuleIdParam> wqsCodeRuleIdParamList) {
+        List<String> idList = CollStreamUtil.toList(wqsCodeRuleIdParamList, WqsCodeRuleIdParam::getId);
         // 执行删除
-        this.removeByIds(CollStreamUtil.toList(wqsCodeRuleIdParamList, WqsCodeRuleIdParam::getId));
+        this.removeByIds(idList);
+        codeRulePlanCache.invalidate(idList);
     }
 
     @Override
@@ -182,6 +190,7 @@ public class WqsCodeRuleServiceImpl extends ServiceImpl<WqsCodeRuleMapper, WqsCo
                     allDataList.add(index, wqsCodeRule);
                 }
                 this.saveOrUpdate(wqsCodeRule);
+                codeRulePlanCache.invalidate(CollectionUtil.newArrayList(wqsCodeRule.getId()));
                 return JSONUtil.createObj().set("success", true);
             } catch (Exception e) {
               log.error(">>> 数据导入异常：", e);
@@ -21,9 +21,11 @@ import cn.hutool.core.util.ObjectUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vip.xiaonuo.common.page.CommonPageRequest;
+import vip.xiaonuo.label.core.render.LabelLayoutCache;
 import vip.xiaonuo.label.modular.field.entity.LabelDynamicField;
 import vip.xiaonuo.label.modular.field.mapper.LabelDynamicFieldMapper;
 import vip.xiaonuo.label.modular.field.param.LabelDynamicFieldAddParam;
@@ -44,6 +46,9 @@ import java.util.List;
 @Service
 public class LabelDynamicFieldServiceImpl extends ServiceImpl<LabelDynamicFieldMapper, LabelDynamicField> implements LabelDynamicFieldService {
 
+    @Resource
+    private LabelLayoutCache labelLayoutCache;
+
     @Override
     public Page<LabelDynamicField> page(LabelDynamicFieldPageParam labelDynamicFieldPageParam) {
         QueryWrapper<LabelDynamicField> queryWrapper = new QueryWrapper<>();
@@ -106,6 +111,7 @@ public class LabelDynamicFieldServiceImpl extends ServiceImpl<LabelDynamicFieldM
         
         LabelDynamicField labelDynamicField = BeanUtil.copyProperties(labelDynamicFieldAddParam, LabelDynamicField.class);
         this.save(labelDynamicField);
+        labelLayoutCache.invalidate(List.of(labelDynamicField.getTemplateId()));
     }
 
     @Override
@@ -124,14 +130,20 @@ public class LabelDynamicFieldServiceImpl extends ServiceImpl<LabelDynamicFieldM
             throw new RuntimeException("在模板[" + labelDynamicFieldEditParam.getTemplateId() + "]的字段范围[" + labelDynamicFieldEditParam.getFieldScope() + "]中，字段键[" + labelDynamicFieldEditParam.getFieldKey() + "]已存在");
         }
         
+        // 字段可能被移到其他模板，新旧模板的布局都需失效
+        String oldTemplateId = labelDynamicField.getTemplateId();
         BeanUtil.copyProperties(labelDynamicFieldEditParam, labelDynamicField);
         this.updateById(labelDynamicField);
+        labelLayoutCache.invalidate(CollUtil.removeNull(CollUtil.newHashSet(oldTemplateId, labelDynamicField.getTemplateId())));
     }
 
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void delete(List<LabelDynamicFieldIdParam> labelDynamicFieldIdParamList) {
-        this.removeByIds(CollUtil.getFieldValues(labelDynamicFieldIdParamList, "id"));
+        List<String> fieldIdList = CollUtil.getFieldValues(labelDynamicFieldIdParamList, "id", String.class);
+        List<String> templateIdList = this.listByIds(fieldIdList).stream().map(LabelDynamicField::getTemplateId).distinct().toList();
+        this.removeByIds(fieldIdList);
+        labelLayoutCache.invalidate(templateIdList);
     }
 
     @Override
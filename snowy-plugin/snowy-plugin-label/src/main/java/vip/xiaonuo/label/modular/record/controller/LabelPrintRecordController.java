@@ -30,11 +30,13 @@ import org.springframework.web.bind.annotation.RestController;
 import vip.xiaonuo.common.annotation.CommonLog;
 import vip.xiaonuo.common.pojo.CommonResult;
 import vip.xiaonuo.label.modular.record.entity.LabelPrintRecord;
+import vip.xiaonuo.label.modular.record.param.LabelPrintParam;
 import vip.xiaonuo.label.modular.record.param.LabelPrintRecordAddParam;
 import vip.xiaonuo.label.modular.record.param.LabelPrintRecordEditParam;
 import vip.xiaonuo.label.modular.record.param.LabelPrintRecordIdParam;
 import vip.xiaonuo.label.modular.record.param.LabelPrintRecordPageParam;
 import vip.xiaonuo.label.modular.record.service.LabelPrintRecordService;
+import vip.xiaonuo.label.modular.record.service.LabelPrintService;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -54,6 +56,9 @@ public class LabelPrintRecordController {
     @Resource
     private LabelPrintRecordService labelPrintRecordService;
 
+    @Resource
+    private LabelPrintService labelPrintService;
+
     /**
      * 获取打印记录分页
      *
@@ -129,4 +134,19 @@ public class LabelPrintRecordController {
     public CommonResult<LabelPrintRecord> detail(@Valid LabelPrintRecordIdParam labelPrintRecordIdParam) {
         return CommonResult.data(labelPrintRecordService.detail(labelPrintRecordIdParam));
     }
+
+    /**
+     * 标签直连打印
+     *
+     * @author jetox
+     * @date 2026/10/18 16:10
+     */
+    @ApiOperationSupport(order = 6)
+    @Operation(summary = "标签直连打印")
+    @CommonLog("标签直连打印")
+    @SaCheckPermission("/label/record/print")
+    @PostMapping("/label/record/print")
+    public CommonResult<String> print(@RequestBody @Valid LabelPrintParam labelPrintParam) {
+        return CommonResult.data(labelPrintService.print(labelPrintParam));
+    }
 }
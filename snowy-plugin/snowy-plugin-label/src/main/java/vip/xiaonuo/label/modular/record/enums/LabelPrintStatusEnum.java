@@ -10,38 +10,31 @@
  * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
  * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
  */
-package vip.xiaonuo.dev.modular.sse.enums;
+package vip.xiaonuo.label.modular.record.enums;
 
 import lombok.Getter;
 
 /**
- * SSE通信参数枚举
+ * 打印状态枚举
  *
- * @author diantu
- * @date 2023/7/17
+ * @author jetox
+ * @date 2026/10/18 16:10
  **/
 @Getter
-public enum DevSseEmitterParameterEnum {
+public enum LabelPrintStatusEnum {
 
-    /**
-     * 通信
-     */
-    EMITTER("EMITTER"),
+    /** 打印中 */
+    PRINTING("PRINTING"),
 
-    /**
-     * 心跳
-     */
-    FUTURE("FUTURE"),
+    /** 已完成 */
+    COMPLETED("COMPLETED"),
 
-    /**
-     * 用户ID
-     */
-    LOGINID("LOGINID");
+    /** 失败 */
+    FAILED("FAILED");
 
     private final String value;
 
-    DevSseEmitterParameterEnum(String value) {
+    LabelPrintStatusEnum(String value) {
         this.value = value;
     }
-
 }
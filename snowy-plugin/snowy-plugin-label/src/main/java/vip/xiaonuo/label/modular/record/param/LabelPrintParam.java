@@ -0,0 +1,61 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.modular.record.param;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 标签直连打印参数，数据来源二选一：指定打印记录时按其数据快照重打，否则使用dataList并新建记录
+ *
+ * @author jetox
+ * @date 2026/10/18 16:10
+ **/
+@Getter
+@Setter
+public class LabelPrintParam {
+
+    /** 模板ID，指定打印记录时可为空，默认取记录关联的模板 */
+    @Schema(description = "模板ID")
+    private String templateId;
+
+    /** 打印记录ID */
+    @Schema(description = "打印记录ID")
+    private String recordId;
+
+    /** 核心业务标识 */
+    @Schema(description = "核心业务标识")
+    private String businessKey;
+
+    /** 数据行，每行一个标签 */
+    @Schema(description = "数据行")
+    private List<Map<String, Object>> dataList;
+
+    /** 打印机ID，取服务端登记的打印机 */
+    @Schema(description = "打印机ID", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotBlank(message = "printerId不能为空")
+    private String printerId;
+
+    /** 打印机指令语言（ZPL、TSPL），默认取打印机配置，均未指定时为ZPL */
+    @Schema(description = "打印机指令语言（ZPL、TSPL）")
+    private String language;
+
+    /** 打印机分辨率，默认取打印机配置，均未指定时为203 */
+    @Schema(description = "打印机分辨率")
+    private Integer dpi;
+}
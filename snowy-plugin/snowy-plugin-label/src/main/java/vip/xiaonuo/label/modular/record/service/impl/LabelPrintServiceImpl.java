@@ -0,0 +1,118 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.modular.record.service.impl;
+
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Service;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.label.core.print.LabelPrintJobQueue;
+import vip.xiaonuo.label.core.print.LabelPrintProperties;
+import vip.xiaonuo.label.modular.record.entity.LabelPrintRecord;
+import vip.xiaonuo.label.modular.record.enums.LabelPrintStatusEnum;
+import vip.xiaonuo.label.modular.record.param.LabelPrintParam;
+import vip.xiaonuo.label.modular.record.service.LabelPrintRecordService;
+import vip.xiaonuo.label.modular.record.service.LabelPrintService;
+import vip.xiaonuo.label.modular.template.service.LabelRenderService;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 标签直连打印Service接口实现类
+ * 标签在服务端渲染为ZPL/TSPL指令，条码使用打印机原生指令，每个标签仅几百字节；
+ * 请求线程只负责渲染与写入持久化队列，发送、重试与结果回写由打印作业队列异步完成；
+ * 打印机按ID从服务端配置中解析地址，请求不能指定任意地址
+ *
+ * @author jetox
+ * @date 2026/10/18 16:10
+ **/
+@Service
+public class LabelPrintServiceImpl implements LabelPrintService {
+
+    private static final String DEFAULT_LANGUAGE = "ZPL";
+
+    private static final Set<String> SUPPORTED_LANGUAGES = Set.of("ZPL", "TSPL");
+
+    @Resource
+    private LabelPrintRecordService labelPrintRecordService;
+
+    @Resource
+    private LabelRenderService labelRenderService;
+
+    @Resource
+    private LabelPrintJobQueue labelPrintJobQueue;
+
+    @Resource
+    private LabelPrintProperties labelPrintProperties;
+
+    @Override
+    public String print(LabelPrintParam labelPrintParam) {
+        LabelPrintProperties.Printer printer = labelPrintProperties.getPrinter(labelPrintParam.getPrinterId());
+        String language = StrUtil.blankToDefault(StrUtil.blankToDefault(labelPrintParam.getLanguage(), printer.getLanguage()),
+                DEFAULT_LANGUAGE).toUpperCase();
+        if (!SUPPORTED_LANGUAGES.contains(language)) {
+            throw new CommonException("不支持的打印机指令语言：{}", labelPrintParam.getLanguage());
+        }
+
+        LabelPrintRecord labelPrintRecord;
+        List<Map<String, Object>> rows;
+        if (StrUtil.isNotEmpty(labelPrintParam.getRecordId())) {
+            labelPrintRecord = labelPrintRecordService.getById(labelPrintParam.getRecordId());
+            if (ObjectUtil.isEmpty(labelPrintRecord)) {
+                throw new CommonException("打印记录不存在，id值为：{}", labelPrintParam.getRecordId());
+            }
+            if (StrUtil.isNotEmpty(labelPrintParam.getTemplateId())) {
+                labelPrintRecord.setTemplateId(labelPrintParam.getTemplateId());
+            }
+            rows = labelRenderService.parsePrintData(labelPrintRecord.getPrintData());
+        } else {
+            if (StrUtil.isEmpty(labelPrintParam.getTemplateId())) {
+                throw new CommonException("模板ID不能为空");
+            }
+            rows = labelPrintParam.getDataList();
+            labelPrintRecord = new LabelPrintRecord();
+            labelPrintRecord.setTemplateId(labelPrintParam.getTemplateId());
+            labelPrintRecord.setBusinessKey(labelPrintParam.getBusinessKey());
+            labelPrintRecord.setPrintData(rows == null ? null : JSONUtil.toJsonStr(rows));
+            labelPrintRecord.setPrintCount(0);
+        }
+
+        // 先渲染，模板或数据有误时直接返回错误，不产生打印记录
+        Map<String, Object> options = new HashMap<>();
+        Integer dpi = ObjectUtil.defaultIfNull(labelPrintParam.getDpi(), printer.getDpi());
+        if (dpi != null) {
+            options.put("dpi", dpi);
+        }
+        ByteArrayOutputStream commandStream = new ByteArrayOutputStream(1024);
+        labelRenderService.render(labelPrintRecord.getTemplateId(), rows, language, options, commandStream);
+
+        labelPrintRecord.setPrintStatus(LabelPrintStatusEnum.PRINTING.getValue());
+        labelPrintRecordService.saveOrUpdate(labelPrintRecord);
+
+        try {
+            labelPrintJobQueue.enqueue(printer.getHost(), printer.getPort(), labelPrintRecord.getId(), commandStream.toByteArray());
+        } catch (RuntimeException e) {
+            // 入队失败（如打印机积压已满）时记录直接置为失败，避免一直停留在打印中
+            labelPrintRecord.setPrintStatus(LabelPrintStatusEnum.FAILED.getValue());
+            labelPrintRecordService.updateById(labelPrintRecord);
+            throw e;
+        }
+        return labelPrintRecord.getId();
+    }
+}
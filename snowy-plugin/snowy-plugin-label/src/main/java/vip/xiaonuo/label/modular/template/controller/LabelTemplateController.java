@@ -22,6 +22,8 @@ import com.github.xiaoymin.knife4j.annotations.ApiSupport;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -31,6 +33,7 @@ import vip.xiaonuo.common.annotation.CommonLog;
 import vip.xiaonuo.common.pojo.CommonResult;
 import vip.xiaonuo.label.modular.template.entity.LabelTemplate;
 import vip.xiaonuo.label.modular.template.param.*;
+import vip.xiaonuo.label.modular.template.service.LabelRenderService;
 import vip.xiaonuo.label.modular.template.service.LabelTemplateService;
 
 import javax.validation.Valid;
@@ -51,6 +54,9 @@ public class LabelTemplateController {
     @Resource
     private LabelTemplateService labelTemplateService;
 
+    @Resource
+    private LabelRenderService labelRenderService;
+
     /**
      * 获取标签模板分页
      *
@@ -141,4 +147,18 @@ public class LabelTemplateController {
         labelTemplateService.design(labelTemplateDesignParam);
         return CommonResult.ok();
     }
+
+    /**
+     * 服务端渲染标签
+     *
+     * @author jetox
+     * @date 2026/10/18 15:00
+     */
+    @ApiOperationSupport(order = 7)
+    @Operation(summary = "服务端渲染标签")
+    @SaCheckPermission("/label/template/render")
+    @PostMapping(value = "/label/template/render", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public void render(@RequestBody LabelTemplateRenderParam labelTemplateRenderParam, HttpServletResponse response) {
+        labelRenderService.render(labelTemplateRenderParam, response);
+    }
 }
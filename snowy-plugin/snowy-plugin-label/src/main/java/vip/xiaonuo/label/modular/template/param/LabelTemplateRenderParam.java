@@ -0,0 +1,51 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.modular.template.param;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 标签渲染参数，数据来源二选一：指定打印记录时使用其数据快照，否则使用dataList
+ *
+ * @author jetox
+ * @date 2026/10/18 15:00
+ **/
+@Getter
+@Setter
+public class LabelTemplateRenderParam {
+
+    /** 模板ID，指定打印记录时可为空，默认取记录关联的模板 */
+    @Schema(description = "模板ID")
+    private String templateId;
+
+    /** 打印记录ID */
+    @Schema(description = "打印记录ID")
+    private String recordId;
+
+    /** 输出格式（PNG、PDF、ZPL、TSPL），默认PDF */
+    @Schema(description = "输出格式（PNG、PDF、ZPL、TSPL）")
+    private String format;
+
+    /** 分辨率，PNG默认144，ZPL、TSPL默认203 */
+    @Schema(description = "分辨率")
+    private Integer dpi;
+
+    /** 数据行，每行一个标签 */
+    @Schema(description = "数据行")
+    private List<Map<String, Object>> dataList;
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.modular.template.service;
+
+import jakarta.servlet.http.HttpServletResponse;
+import vip.xiaonuo.label.core.render.LabelLayout;
+import vip.xiaonuo.label.modular.template.param.LabelTemplateRenderParam;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 标签渲染Service接口
+ *
+ * @author jetox
+ * @date 2026/10/18 15:00
+ **/
+public interface LabelRenderService {
+
+    /**
+     * 获取模板的编译布局，模板未变化时直接使用缓存
+     *
+     * @param templateId 模板ID
+     * @return 标签布局
+     */
+    LabelLayout getLayout(String templateId);
+
+    /**
+     * 渲染标签并写入输出流，输出流由调用方关闭
+     *
+     * @param templateId 模板ID
+     * @param rows 数据行，每行一个标签
+     * @param format 输出格式（PNG、PDF、ZPL、TSPL）
+     * @param options 渲染选项，如dpi
+     * @param outputStream 输出流
+     */
+    void render(String templateId, List<Map<String, Object>> rows, String format, Map<String, Object> options, OutputStream outputStream);
+
+    /**
+     * 渲染标签并下载
+     *
+     * @param labelTemplateRenderParam 渲染参数
+     * @param response HTTP响应
+     */
+    void render(LabelTemplateRenderParam labelTemplateRenderParam, HttpServletResponse response);
+
+    /**
+     * 解析打印记录的数据快照，对象为单行，数组为多行
+     *
+     * @param printData 数据快照JSON
+     * @return 数据行
+     */
+    List<Map<String, Object>> parsePrintData(String printData);
+}
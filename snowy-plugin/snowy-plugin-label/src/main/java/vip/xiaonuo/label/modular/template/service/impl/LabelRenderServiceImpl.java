@@ -0,0 +1,206 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.modular.template.service.impl;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSON;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.label.core.render.LabelLayout;
+import vip.xiaonuo.label.core.render.LabelLayoutCache;
+import vip.xiaonuo.label.core.render.LabelLayoutCompiler;
+import vip.xiaonuo.label.core.render.LabelRenderer;
+import vip.xiaonuo.label.modular.field.entity.LabelDynamicField;
+import vip.xiaonuo.label.modular.field.service.LabelDynamicFieldService;
+import vip.xiaonuo.label.modular.record.entity.LabelPrintRecord;
+import vip.xiaonuo.label.modular.record.service.LabelPrintRecordService;
+import vip.xiaonuo.label.modular.template.entity.LabelTemplate;
+import vip.xiaonuo.label.modular.template.param.LabelTemplateRenderParam;
+import vip.xiaonuo.label.modular.template.service.LabelRenderService;
+import vip.xiaonuo.label.modular.template.service.LabelTemplateService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 标签渲染Service接口实现类
+ * 模板按ID与版本编译一次后缓存，渲染时只绑定数据，不再解析模板JSON
+ *
+ * @author jetox
+ * @date 2026/10/18 15:00
+ **/
+@Slf4j
+@Service
+public class LabelRenderServiceImpl implements LabelRenderService {
+
+    private static final String DEFAULT_FORMAT = "PDF";
+
+    @Resource
+    private LabelTemplateService labelTemplateService;
+
+    @Resource
+    private LabelPrintRecordService labelPrintRecordService;
+
+    @Resource
+    private LabelDynamicFieldService labelDynamicFieldService;
+
+    @Resource
+    private LabelLayoutCompiler labelLayoutCompiler;
+
+    @Resource
+    private LabelLayoutCache labelLayoutCache;
+
+    @Resource
+    private List<LabelRenderer> labelRendererList;
+
+    @Override
+    public LabelLayout getLayout(String templateId) {
+        // 命中时只校验集群版本号，模板与字段仅在编译时查询
+        return labelLayoutCache.get(templateId, version -> {
+            LabelTemplate labelTemplate = labelTemplateService.getById(templateId);
+            if (ObjectUtil.isEmpty(labelTemplate)) {
+                throw new CommonException("标签模板不存在，id值为：{}", templateId);
+            }
+            return labelLayoutCompiler.compile(templateId, version, labelTemplate.getTemplateContent(), getRequiredFieldKeys(templateId));
+        });
+    }
+
+    @Override
+    public void render(String templateId, List<Map<String, Object>> rows, String format, Map<String, Object> options, OutputStream outputStream) {
+        LabelRenderer renderer = getRenderer(format);
+        LabelLayout layout = getCheckedLayout(templateId, rows);
+        try {
+            renderer.render(layout, rows, options, outputStream);
+        } catch (IOException e) {
+            log.error("标签渲染失败，模板ID：{}", templateId, e);
+            throw new CommonException("标签渲染失败：{}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void render(LabelTemplateRenderParam labelTemplateRenderParam, HttpServletResponse response) {
+        String templateId = labelTemplateRenderParam.getTemplateId();
+        List<Map<String, Object>> rows = labelTemplateRenderParam.getDataList();
+        if (StrUtil.isNotEmpty(labelTemplateRenderParam.getRecordId())) {
+            LabelPrintRecord labelPrintRecord = labelPrintRecordService.getById(labelTemplateRenderParam.getRecordId());
+            if (ObjectUtil.isEmpty(labelPrintRecord)) {
+                throw new CommonException("打印记录不存在，id值为：{}", labelTemplateRenderParam.getRecordId());
+            }
+            templateId = StrUtil.blankToDefault(templateId, labelPrintRecord.getTemplateId());
+            rows = parsePrintData(labelPrintRecord.getPrintData());
+        }
+        if (StrUtil.isEmpty(templateId)) {
+            throw new CommonException("模板ID不能为空");
+        }
+
+        // 先完成全部校验再设置下载响应头，校验失败时前端收到的是错误信息而不是下载文件
+        LabelRenderer renderer = getRenderer(labelTemplateRenderParam.getFormat());
+        LabelLayout layout = getCheckedLayout(templateId, rows);
+        Map<String, Object> options = new HashMap<>();
+        if (labelTemplateRenderParam.getDpi() != null) {
+            options.put("dpi", labelTemplateRenderParam.getDpi());
+        }
+        String fileName = "label_" + DateUtil.format(DateUtil.date(), "yyyyMMdd_HHmmss") + "." + renderer.getExtension();
+        response.setContentType(renderer.getContentType());
+        response.setHeader("Content-Disposition", "attachment; filename=" + URLEncoder.encode(fileName, StandardCharsets.UTF_8));
+        try (OutputStream outputStream = response.getOutputStream()) {
+            renderer.render(layout, rows, options, outputStream);
+        } catch (IOException e) {
+            log.error("标签渲染输出失败，模板ID：{}", templateId, e);
+            throw new CommonException("标签渲染输出失败：{}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> parsePrintData(String printData) {
+        if (StrUtil.isBlank(printData)) {
+            return Collections.emptyList();
+        }
+        JSON json = JSONUtil.parse(printData);
+        if (json instanceof JSONArray jsonArray) {
+            List<Map<String, Object>> rows = new ArrayList<>(jsonArray.size());
+            for (int i = 0; i < jsonArray.size(); i++) {
+                rows.add(jsonArray.getJSONObject(i));
+            }
+            return rows;
+        }
+        return Collections.singletonList((JSONObject) json);
+    }
+
+    /**
+     * 获取布局并校验渲染数据，模板不存在、数据为空或缺少必填字段时抛出异常
+     */
+    private LabelLayout getCheckedLayout(String templateId, List<Map<String, Object>> rows) {
+        if (rows == null || rows.isEmpty()) {
+            throw new CommonException("渲染数据不能为空");
+        }
+        LabelLayout layout = getLayout(templateId);
+        checkRequiredFields(layout, rows);
+        return layout;
+    }
+
+    /**
+     * 根据格式获取渲染器，不区分大小写，默认PDF
+     */
+    private LabelRenderer getRenderer(String format) {
+        String target = StrUtil.blankToDefault(format, DEFAULT_FORMAT);
+        for (LabelRenderer labelRenderer : labelRendererList) {
+            if (labelRenderer.getFormat().equalsIgnoreCase(target)) {
+                return labelRenderer;
+            }
+        }
+        throw new CommonException("不支持的标签输出格式：{}", format);
+    }
+
+    /**
+     * 查询模板的必填动态字段
+     */
+    private Set<String> getRequiredFieldKeys(String templateId) {
+        QueryWrapper<LabelDynamicField> queryWrapper = new QueryWrapper<>();
+        queryWrapper.lambda().eq(LabelDynamicField::getTemplateId, templateId)
+                .eq(LabelDynamicField::getIsRequired, "1")
+                .ne(LabelDynamicField::getStatus, "DISABLE");
+        return labelDynamicFieldService.list(queryWrapper).stream().map(LabelDynamicField::getFieldKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * 校验必填字段，出错时指明行号与字段
+     */
+    private void checkRequiredFields(LabelLayout layout, List<Map<String, Object>> rows) {
+        if (layout.getRequiredFieldKeys().isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, Object> row = rows.get(i);
+            for (String fieldKey : layout.getRequiredFieldKeys()) {
+                if (row == null || ObjectUtil.isEmpty(row.get(fieldKey))) {
+                    throw new CommonException("第{}行缺少必填字段：{}", i + 1, fieldKey);
+                }
+            }
+        }
+    }
+}
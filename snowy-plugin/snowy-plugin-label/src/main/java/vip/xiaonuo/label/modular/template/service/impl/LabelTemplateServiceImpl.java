@@ -21,9 +21,11 @@ import cn.hutool.core.util.ObjectUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vip.xiaonuo.common.page.CommonPageRequest;
+import vip.xiaonuo.label.core.render.LabelLayoutCache;
 import vip.xiaonuo.label.modular.template.entity.LabelTemplate;
 import vip.xiaonuo.label.modular.template.mapper.LabelTemplateMapper;
 import vip.xiaonuo.label.modular.template.param.*;
@@ -40,6 +42,9 @@ import java.util.List;
 @Service
 public class LabelTemplateServiceImpl extends ServiceImpl<LabelTemplateMapper, LabelTemplate> implements LabelTemplateService {
 
+    @Resource
+    private LabelLayoutCache labelLayoutCache;
+
     @Override
     public Page<LabelTemplate> page(LabelTemplatePageParam labelTemplatePageParam) {
         QueryWrapper<LabelTemplate> queryWrapper = new QueryWrapper<>();
@@ -70,6 +75,7 @@ public class LabelTemplateServiceImpl extends ServiceImpl<LabelTemplateMapper, L
         LabelTemplate labelTemplate = this.queryEntity(labelTemplateEditParam.getId());
         BeanUtil.copyProperties(labelTemplateEditParam, labelTemplate);
         this.updateById(labelTemplate);
+        labelLayoutCache.invalidate(List.of(labelTemplate.getId()));
     }
 
     @Override
@@ -82,7 +88,9 @@ public class LabelTemplateServiceImpl extends ServiceImpl<LabelTemplateMapper, L
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void delete(List<LabelTemplateIdParam> labelTemplateIdParamList) {
-        this.removeByIds(CollUtil.getFieldValues(labelTemplateIdParamList, "id"));
+        List<String> templateIdList = CollUtil.getFieldValues(labelTemplateIdParamList, "id", String.class);
+        this.removeByIds(templateIdList);
+        labelLayoutCache.invalidate(templateIdList);
     }
 
 
@@ -96,6 +104,7 @@ public class LabelTemplateServiceImpl extends ServiceImpl<LabelTemplateMapper, L
         LabelTemplate labelTemplate = this.queryEntity(labelTemplateDesignParam.getId());
         labelTemplate.setTemplateContent(labelTemplateDesignParam.getTemplateContent());
         this.updateById(labelTemplate);
+        labelLayoutCache.invalidate(List.of(labelTemplate.getId()));
     }
 
     private LabelTemplate queryEntity(String id) {
@@ -13,14 +13,21 @@
 package vip.xiaonuo.sys.core.listener;
 
 import cn.dev33.satoken.stp.StpUtil;
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.json.JSONArray;
 import cn.hutool.json.JSONObject;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Component;
 import vip.xiaonuo.auth.core.pojo.SaBaseLoginUser;
 import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
 import vip.xiaonuo.common.listener.CommonDataChangeListener;
 import vip.xiaonuo.sys.core.enums.SysDataTypeEnum;
+import vip.xiaonuo.sys.modular.org.entity.SysOrg;
+import vip.xiaonuo.sys.modular.org.index.SysOrgHierarchyIndexHolder;
+import vip.xiaonuo.sys.modular.role.snapshot.SysPermissionSnapshotCache;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -32,6 +39,12 @@ import java.util.List;
 @Component
 public class SysDataChangeListener implements CommonDataChangeListener {
 
+    @Resource
+    private SysOrgHierarchyIndexHolder sysOrgHierarchyIndexHolder;
+
+    @Resource
+    private SysPermissionSnapshotCache sysPermissionSnapshotCache;
+
     @Override
     public void doAddWithDataId(String dataType, String dataId) {
         // 此处可做额外处理
@@ -42,7 +55,14 @@ public class SysDataChangeListener implements CommonDataChangeListener {
         // 如果检测到机构增加，则将该机构加入到当前登录用户的数据范围缓存
         if(dataType.equals(SysDataTypeEnum.ORG.getValue())) {
             SaBaseLoginUser saBaseLoginUser = StpLoginUserUtil.getLoginUser();
-            saBaseLoginUser.getDataScopeList().forEach(dataScope -> dataScope.getDataScope().addAll(dataIdList));
+            // 全部数据范围无需追加
+            saBaseLoginUser.getDataScopeList().stream().filter(dataScope -> !Boolean.TRUE.equals(dataScope.getScopeAll()))
+                    .forEach(dataScope -> {
+                        List<String> dataScopeList = ObjectUtil.isNull(dataScope.getDataScope()) ?
+                                CollectionUtil.newArrayList() : dataScope.getDataScope();
+                        dataIdList.stream().filter(dataId -> !dataScopeList.contains(dataId)).forEach(dataScopeList::add);
+                        dataScope.setDataScope(dataScopeList);
+                    });
             saBaseLoginUser.setDataScopeList(saBaseLoginUser.getDataScopeList());
             // 重新缓存当前登录用户信息
             StpUtil.getTokenSession().set("loginUser", saBaseLoginUser);
@@ -56,7 +76,10 @@ public class SysDataChangeListener implements CommonDataChangeListener {
 
     @Override
     public void doAddWithDataList(String dataType, JSONArray jsonArray) {
-        // 此处可做额外处理
+        // 如果检测到机构增加，则增量更新组织层级索引
+        if(dataType.equals(SysDataTypeEnum.ORG.getValue())) {
+            sysOrgHierarchyIndexHolder.onOrgChanged(jsonArray.toList(SysOrg.class), Collections.emptyList());
+        }
     }
 
     @Override
@@ -76,7 +99,14 @@ public class SysDataChangeListener implements CommonDataChangeListener {
 
     @Override
     public void doUpdateWithDataList(String dataType, JSONArray jsonArray) {
-        // 此处可做额外处理
+        // 如果检测到机构更新，则增量更新组织层级索引
+        if(dataType.equals(SysDataTypeEnum.ORG.getValue())) {
+            sysOrgHierarchyIndexHolder.onOrgChanged(jsonArray.toList(SysOrg.class), Collections.emptyList());
+        }
+        // 如果检测到资源更新（按钮码可能变化），则失效权限快照
+        if(dataType.equals(SysDataTypeEnum.RESOURCE.getValue())) {
+            sysPermissionSnapshotCache.invalidate();
+        }
     }
 
     @Override
@@ -86,6 +116,13 @@ public class SysDataChangeListener implements CommonDataChangeListener {
 
     @Override
     public void doDeleteWithDataIdList(String dataType, List<String> dataIdList) {
-        // 此处可做额外处理
+        // 如果检测到机构删除，则增量更新组织层级索引
+        if(dataType.equals(SysDataTypeEnum.ORG.getValue())) {
+            sysOrgHierarchyIndexHolder.onOrgChanged(Collections.emptyList(), dataIdList);
+        }
+        // 如果检测到资源删除，则失效权限快照
+        if(dataType.equals(SysDataTypeEnum.RESOURCE.getValue())) {
+            sysPermissionSnapshotCache.invalidate();
+        }
     }
 }
@@ -0,0 +1,253 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.org.index;
+
+import vip.xiaonuo.sys.modular.org.entity.SysOrg;
+
+import java.util.*;
+
+/**
+ * 组织层级索引，不可变快照
+ * 组织按先序（欧拉序）遍历排列，每个组织的所有下级组织位于其后的连续区间内，
+ * 查询下级、上级均只与结果数量相关，无需再逐层扫描全部组织
+ *
+ * @author jetox
+ * @date 2026/10/18 19:00
+ **/
+public final class SysOrgHierarchyIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    /** 快照版本号 */
+    private final long version;
+
+    /** 按排序码排列的组织列表 */
+    private final List<SysOrg> orgList;
+
+    /** 先序排列的组织 */
+    private final SysOrg[] nodes;
+
+    /** 组织id到先序位置 */
+    private final Map<String, Integer> positionMap;
+
+    /** 先序位置到其子树结束位置（不含） */
+    private final int[] subtreeEnd;
+
+    /** 上级组织不存在的组织，按上级组织id分组的先序位置 */
+    private final Map<String, int[]> orphanPositionMap;
+
+    private SysOrgHierarchyIndex(long version, List<SysOrg> orgList, SysOrg[] nodes, Map<String, Integer> positionMap,
+                                 int[] subtreeEnd, Map<String, int[]> orphanPositionMap) {
+        this.version = version;
+        this.orgList = orgList;
+        this.nodes = nodes;
+        this.positionMap = positionMap;
+        this.subtreeEnd = subtreeEnd;
+        this.orphanPositionMap = orphanPositionMap;
+    }
+
+    /**
+     * 根据按排序码排列的组织列表构建索引，id重复的组织只保留第一个
+     *
+     * @author jetox
+     * @date 2026/10/18 19:00
+     */
+    public static SysOrgHierarchyIndex build(List<SysOrg> orgList, long version) {
+        List<SysOrg> distinctList = new ArrayList<>(orgList.size());
+        Map<String, Integer> listIndexMap = new HashMap<>(orgList.size() * 4 / 3 + 1);
+        for (SysOrg sysOrg : orgList) {
+            if (sysOrg != null && sysOrg.getId() != null && listIndexMap.putIfAbsent(sysOrg.getId(), distinctList.size()) == null) {
+                distinctList.add(sysOrg);
+            }
+        }
+        int size = distinctList.size();
+        // 邻接表：每个组织的直属下级，保持排序码顺序
+        int[] childCount = new int[size];
+        int[] parentIndex = new int[size];
+        for (int i = 0; i < size; i++) {
+            Integer parent = listIndexMap.get(distinctList.get(i).getParentId());
+            parentIndex[i] = parent == null ? -1 : parent;
+            if (parent != null) {
+                childCount[parent]++;
+            }
+        }
+        int[] childStart = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            childStart[i + 1] = childStart[i] + childCount[i];
+        }
+        int[] children = new int[childStart[size]];
+        int[] fill = Arrays.copyOf(childStart, size);
+        for (int i = 0; i < size; i++) {
+            if (parentIndex[i] >= 0) {
+                children[fill[parentIndex[i]]++] = i;
+            }
+        }
+        // 先从上级组织不存在的组织开始遍历，再处理环中无法到达的组织
+        SysOrg[] nodes = new SysOrg[size];
+        int[] subtreeEnd = new int[size];
+        int[] positionOfIndex = new int[size];
+        Arrays.fill(positionOfIndex, -1);
+        Map<String, Integer> positionMap = new HashMap<>(size * 4 / 3 + 1);
+        int[] stack = new int[size];
+        int[] cursor = new int[size];
+        int position = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int root = 0; root < size; root++) {
+                if (positionOfIndex[root] >= 0 || (pass == 0 && parentIndex[root] >= 0)) {
+                    continue;
+                }
+                int depth = 0;
+                stack[0] = root;
+                cursor[0] = childStart[root];
+                positionOfIndex[root] = position;
+                nodes[position++] = distinctList.get(root);
+                while (depth >= 0) {
+                    int current = stack[depth];
+                    if (cursor[depth] < childStart[current + 1]) {
+                        int child = children[cursor[depth]++];
+                        if (positionOfIndex[child] < 0) {
+                            positionOfIndex[child] = position;
+                            nodes[position++] = distinctList.get(child);
+                            stack[++depth] = child;
+                            cursor[depth] = childStart[child];
+                        }
+                    } else {
+                        subtreeEnd[positionOfIndex[current]] = position;
+                        depth--;
+                    }
+                }
+            }
+        }
+        Map<String, List<Integer>> orphanListMap = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            positionMap.put(distinctList.get(i).getId(), positionOfIndex[i]);
+            if (parentIndex[i] < 0) {
+                orphanListMap.computeIfAbsent(distinctList.get(i).getParentId(), key -> new ArrayList<>()).add(positionOfIndex[i]);
+            }
+        }
+        Map<String, int[]> orphanPositionMap = new HashMap<>(orphanListMap.size() * 4 / 3 + 1);
+        orphanListMap.forEach((parentId, positionList) -> orphanPositionMap.put(parentId,
+                positionList.stream().mapToInt(Integer::intValue).sorted().toArray()));
+        return new SysOrgHierarchyIndex(version, Collections.unmodifiableList(distinctList), nodes, positionMap,
+                subtreeEnd, orphanPositionMap);
+    }
+
+    /**
+     * 在当前快照上应用组织的新增、修改与删除，生成新的快照
+     *
+     * @author jetox
+     * @date 2026/10/18 19:00
+     */
+    public SysOrgHierarchyIndex apply(Collection<SysOrg> upsertList, Collection<String> deleteIdList, long version) {
+        Map<String, SysOrg> orgMap = new LinkedHashMap<>(orgList.size() * 4 / 3 + 1);
+        orgList.forEach(sysOrg -> orgMap.put(sysOrg.getId(), sysOrg));
+        deleteIdList.forEach(orgMap::remove);
+        upsertList.forEach(sysOrg -> orgMap.put(sysOrg.getId(), sysOrg));
+        List<SysOrg> newOrgList = new ArrayList<>(orgMap.values());
+        newOrgList.sort(Comparator.comparing(SysOrg::getSortCode, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return build(newOrgList, version);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 获取按排序码排列的全部组织，只读
+     */
+    public List<SysOrg> getOrgList() {
+        return orgList;
+    }
+
+    /**
+     * 根据id获取组织
+     */
+    public SysOrg getById(String id) {
+        Integer position = positionMap.get(id);
+        return position == null ? null : nodes[position];
+    }
+
+    /**
+     * 获取第一个直属下级组织
+     */
+    public SysOrg getFirstChild(String id) {
+        Integer position = positionMap.get(id);
+        if (position == null) {
+            int[] orphanPositions = orphanPositionMap.getOrDefault(id, EMPTY);
+            return orphanPositions.length == 0 ? null : nodes[orphanPositions[0]];
+        }
+        return subtreeEnd[position] > position + 1 ? nodes[position + 1] : null;
+    }
+
+    /**
+     * 获取所有下级组织，按先序排列，包含自身时自身位于末尾
+     */
+    public List<SysOrg> getChildList(String id, boolean includeSelf) {
+        List<SysOrg> resultList = new ArrayList<>();
+        Integer position = positionMap.get(id);
+        if (position == null) {
+            for (int orphanPosition : orphanPositionMap.getOrDefault(id, EMPTY)) {
+                resultList.addAll(Arrays.asList(nodes).subList(orphanPosition, subtreeEnd[orphanPosition]));
+            }
+            return resultList;
+        }
+        resultList.addAll(Arrays.asList(nodes).subList(position + 1, subtreeEnd[position]));
+        if (includeSelf) {
+            resultList.add(nodes[position]);
+        }
+        return resultList;
+    }
+
+    /**
+     * 获取所有上级组织，由近及远排列，包含自身时自身位于末尾
+     */
+    public List<SysOrg> getParentList(String id, boolean includeSelf) {
+        List<SysOrg> resultList = new ArrayList<>();
+        SysOrg self = this.getById(id);
+        if (self == null) {
+            return resultList;
+        }
+        SysOrg parent = this.getById(self.getParentId());
+        // 数据存在环时最多遍历全部组织
+        while (parent != null && resultList.size() < nodes.length) {
+            resultList.add(parent);
+            parent = this.getById(parent.getParentId());
+        }
+        if (includeSelf) {
+            resultList.add(self);
+        }
+        return resultList;
+    }
+
+    /**
+     * 获取逐级上级组织id，直至不存在的上级组织id（通常为根节点0）
+     */
+    public List<String> getParentIdList(String id) {
+        List<String> resultList = new ArrayList<>();
+        SysOrg current = this.getById(id);
+        while (current != null && resultList.size() <= nodes.length) {
+            resultList.add(current.getParentId());
+            current = this.getById(current.getParentId());
+        }
+        return resultList;
+    }
+
+    /**
+     * 判断组织是否为另一组织的下级（不含自身），区间判断
+     */
+    public boolean isChild(String parentId, String id) {
+        Integer parentPosition = positionMap.get(parentId);
+        Integer position = positionMap.get(id);
+        return parentPosition != null && position != null && position > parentPosition && position < subtreeEnd[parentPosition];
+    }
+}
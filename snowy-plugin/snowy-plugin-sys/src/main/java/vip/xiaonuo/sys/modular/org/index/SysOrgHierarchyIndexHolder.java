@@ -0,0 +1,162 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.org.index;
+
+import cn.hutool.core.convert.Convert;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vip.xiaonuo.sys.modular.org.entity.SysOrg;
+import vip.xiaonuo.sys.modular.org.mapper.SysOrgMapper;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 组织层级索引持有者
+ * 集群内通过Redis中的版本号判断索引是否过期：本节点修改组织后在事务提交后递增版本号并增量更新本地索引，
+ * 其他节点发现版本号变化后从数据库重新加载
+ *
+ * @author jetox
+ * @date 2026/10/18 19:00
+ **/
+@Slf4j
+@Component
+public class SysOrgHierarchyIndexHolder {
+
+    /** 组织索引版本号的Redis键 */
+    private static final String VERSION_KEY = "sys-org-hierarchy-version";
+
+    /** 检查Redis版本号的间隔 */
+    private static final long VERSION_CHECK_INTERVAL_MILLIS = 1000;
+
+    /** 索引最长存活时间，兜底未发布事件的直接改表 */
+    private static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    /** Redis不可用时使用的版本号 */
+    private static final long UNKNOWN_VERSION = -1;
+
+    @Resource
+    private SysOrgMapper sysOrgMapper;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final Object lock = new Object();
+
+    private volatile SysOrgHierarchyIndex index;
+
+    private volatile boolean dirty = true;
+
+    private volatile long lastCheckMillis;
+
+    private volatile long loadMillis;
+
+    /**
+     * 获取当前的组织层级索引，过期时重新加载
+     *
+     * @author jetox
+     * @date 2026/10/18 19:00
+     */
+    public SysOrgHierarchyIndex getIndex() {
+        SysOrgHierarchyIndex current = index;
+        long now = System.currentTimeMillis();
+        if (current != null && !dirty && now - lastCheckMillis < VERSION_CHECK_INTERVAL_MILLIS) {
+            return current;
+        }
+        synchronized (lock) {
+            current = index;
+            if (current != null && !dirty && now - lastCheckMillis < VERSION_CHECK_INTERVAL_MILLIS) {
+                return current;
+            }
+            long version = this.readVersion();
+            lastCheckMillis = now;
+            if (current != null && !dirty && version != UNKNOWN_VERSION && version == current.getVersion()
+                    && now - loadMillis < MAX_AGE_MILLIS) {
+                return current;
+            }
+            List<SysOrg> orgList = sysOrgMapper.selectList(new LambdaQueryWrapper<SysOrg>().orderByAsc(SysOrg::getSortCode));
+            current = SysOrgHierarchyIndex.build(orgList, version);
+            index = current;
+            dirty = false;
+            loadMillis = now;
+            return current;
+        }
+    }
+
+    /**
+     * 获取当前已加载的索引，不检查版本，未加载时返回null
+     *
+     * @author jetox
+     * @date 2026/10/18 19:00
+     */
+    public SysOrgHierarchyIndex peekIndex() {
+        return index;
+    }
+
+    /**
+     * 组织发生变化，在事务中调用时于提交后递增集群版本号并增量更新本地索引
+     *
+     * @author jetox
+     * @date 2026/10/18 19:00
+     */
+    public void onOrgChanged(Collection<SysOrg> upsertList, Collection<String> deleteIdList) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyChange(upsertList, deleteIdList);
+                }
+            });
+        } else {
+            this.applyChange(upsertList, deleteIdList);
+        }
+    }
+
+    private void applyChange(Collection<SysOrg> upsertList, Collection<String> deleteIdList) {
+        long version = this.incrementVersion();
+        synchronized (lock) {
+            SysOrgHierarchyIndex current = index;
+            // 版本号连续说明期间没有其他节点修改，可在本地索引上增量更新，否则重新加载
+            if (current != null && !dirty && version != UNKNOWN_VERSION && version == current.getVersion() + 1) {
+                index = current.apply(upsertList, deleteIdList, version);
+            } else {
+                dirty = true;
+            }
+        }
+    }
+
+    private long readVersion() {
+        try {
+            return Convert.toLong(stringRedisTemplate.opsForValue().get(VERSION_KEY), 0L);
+        } catch (Exception e) {
+            log.warn(">>> 读取组织索引版本号失败：{}", e.getMessage());
+            return UNKNOWN_VERSION;
+        }
+    }
+
+    private long incrementVersion() {
+        try {
+            Long version = stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+            return version == null ? UNKNOWN_VERSION : version;
+        } catch (Exception e) {
+            log.warn(">>> 递增组织索引版本号失败：{}", e.getMessage());
+            return UNKNOWN_VERSION;
+        }
+    }
+}
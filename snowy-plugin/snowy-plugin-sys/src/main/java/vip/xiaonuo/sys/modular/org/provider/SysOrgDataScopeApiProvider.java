@@ -0,0 +1,51 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.org.provider;
+
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Service;
+import vip.xiaonuo.auth.api.SaDataScopeApi;
+import vip.xiaonuo.sys.modular.org.entity.SysOrg;
+import vip.xiaonuo.sys.modular.org.index.SysOrgHierarchyIndex;
+import vip.xiaonuo.sys.modular.org.index.SysOrgHierarchyIndexHolder;
+
+import java.util.List;
+
+/**
+ * 数据范围API接口提供者，基于组织层级索引
+ *
+ * @author jetox
+ * @date 2026/10/18 21:00
+ **/
+@Service
+public class SysOrgDataScopeApiProvider implements SaDataScopeApi {
+
+    @Resource
+    private SysOrgHierarchyIndexHolder sysOrgHierarchyIndexHolder;
+
+    @Override
+    public List<String> getAllOrgIdList() {
+        return sysOrgHierarchyIndexHolder.getIndex().getOrgList().stream().map(SysOrg::getId).toList();
+    }
+
+    @Override
+    public List<String> getChildOrgIdListWithSelf(String orgId) {
+        return sysOrgHierarchyIndexHolder.getIndex().getChildList(orgId, true).stream().map(SysOrg::getId).toList();
+    }
+
+    @Override
+    public boolean isSelfOrChild(String parentId, String orgId) {
+        SysOrgHierarchyIndex sysOrgHierarchyIndex = sysOrgHierarchyIndexHolder.getIndex();
+        return parentId.equals(orgId) || sysOrgHierarchyIndex.isChild(parentId, orgId);
+    }
+}
@@ -86,7 +86,7 @@ public interface SysOrgService extends IService<SysOrg> {
     SysOrg queryEntity(String id);
 
     /**
-     * 获取所有组织
+     * 获取所有组织，按排序码排列，返回组织层级索引中的只读列表
      *
      * @author xuyuxiang
      * @date 2022/7/25 19:42
@@ -38,6 +38,8 @@ import vip.xiaonuo.sys.core.enums.SysDataTypeEnum;
 import vip.xiaonuo.sys.modular.org.entity.SysOrg;
 import vip.xiaonuo.sys.modular.org.enums.SysOrgCategoryEnum;
 import vip.xiaonuo.sys.modular.org.enums.SysOrgSourceFromTypeEnum;
+import vip.xiaonuo.sys.modular.org.index.SysOrgHierarchyIndex;
+import vip.xiaonuo.sys.modular.org.index.SysOrgHierarchyIndexHolder;
 import vip.xiaonuo.sys.modular.org.mapper.SysOrgMapper;
 import vip.xiaonuo.sys.modular.org.param.*;
 import vip.xiaonuo.sys.modular.org.service.SysOrgExtService;
@@ -75,6 +77,9 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
     @Resource
     private SysUserService sysUserService;
 
+    @Resource
+    private SysOrgHierarchyIndexHolder sysOrgHierarchyIndexHolder;
+
     @Override
     public Page<SysOrg> page(SysOrgPageParam sysOrgPageParam) {
         QueryWrapper<SysOrg> queryWrapper = new QueryWrapper<SysOrg>().checkSqlInjection();
@@ -212,12 +217,13 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
 
     @Override
     public List<SysOrg> getAllOrgList() {
-        return this.list(new LambdaQueryWrapper<SysOrg>().orderByAsc(SysOrg::getSortCode));
+        return sysOrgHierarchyIndexHolder.getIndex().getOrgList();
     }
 
     @Override
     public String getOrgIdByOrgFullNameWithCreate(String orgFullName) {
-        List<SysOrg> allOrgList = this.getAllOrgList();
+        // 导入时在同一事务内逐行调用，层级索引在提交后才会包含本事务新建的组织，此处必须直接查库，否则同名组织会重复创建
+        List<SysOrg> allOrgList = this.list(new LambdaQueryWrapper<SysOrg>().orderByAsc(SysOrg::getSortCode));
         List<Tree<String>> treeList = TreeUtil.build(allOrgList.stream().map(sysOrg ->
                 new TreeNode<>(sysOrg.getId(), sysOrg.getParentId(), sysOrg.getName(), sysOrg.getSortCode()))
                 .collect(Collectors.toList()), "0");
@@ -326,24 +332,10 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
 
     @Override
     public List<String> getParentIdListByOrgId(String orgId) {
-        List<SysOrg> sysOrgList = this.getAllOrgList();
-        List<String> resultList = CollectionUtil.newArrayList();
-        if(ObjectUtil.isNotEmpty(sysOrgList)) {
-            execRecursionFindParentByList(orgId, sysOrgList, resultList);
-        }
-        return resultList;
-    }
-
-    private List<String> execRecursionFindParentByList(String id, List<SysOrg> list,List<String> resultList) {
-        SysOrg parentById = list.stream().filter(sysOrg -> sysOrg.getId().equals(id)).findFirst().orElse(null);
-        if(ObjectUtil.isNotEmpty(parentById)) {
-            resultList.add(parentById.getParentId());
-            execRecursionFindParentByList(parentById.getParentId(), list, resultList);
-        }
-        return resultList;
+        return sysOrgHierarchyIndexHolder.getIndex().getParentIdList(orgId);
     }
 
-    /* ====以下为各种递归方法==== */
+    /* ====以下为各种层级查询方法，基于组织层级索引==== */
 
     @Override
     public List<SysOrg> getParentAndChildListById(List<SysOrg> originDataList, String id, boolean includeSelf) {
@@ -355,66 +347,42 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
 
     @Override
     public List<SysOrg> getChildListById(List<SysOrg> originDataList, String id, boolean includeSelf) {
-        List<SysOrg> resultList = CollectionUtil.newArrayList();
-        execRecursionFindChild(originDataList, id, resultList);
-        if(includeSelf) {
-            SysOrg self = this.getById(originDataList, id);
-            if(ObjectUtil.isNotEmpty(self)) {
-                resultList.add(self);
-            }
-        }
-        return resultList;
+        return this.getHierarchyIndex(originDataList).getChildList(id, includeSelf);
     }
 
     @Override
     public List<SysOrg> getParentListById(List<SysOrg> originDataList, String id, boolean includeSelf) {
-        List<SysOrg> resultList = CollectionUtil.newArrayList();
-        execRecursionFindParent(originDataList, id, resultList);
-        if(includeSelf) {
-            SysOrg self = this.getById(originDataList, id);
-            if(ObjectUtil.isNotEmpty(self)) {
-                resultList.add(self);
-            }
-        }
-        return resultList;
-    }
-
-    public void execRecursionFindChild(List<SysOrg> originDataList, String id, List<SysOrg> resultList) {
-        originDataList.forEach(item -> {
-            if(item.getParentId().equals(id)) {
-                resultList.add(item);
-                execRecursionFindChild(originDataList, item.getId(), resultList);
-            }
-        });
-    }
-
-    public void execRecursionFindParent(List<SysOrg> originDataList, String id, List<SysOrg> resultList) {
-        originDataList.forEach(item -> {
-            if(item.getId().equals(id)) {
-                SysOrg parent = this.getById(originDataList, item.getParentId());
-                if(ObjectUtil.isNotEmpty(parent)) {
-                    resultList.add(parent);
-                }
-                execRecursionFindParent(originDataList, item.getParentId(), resultList);
-            }
-        });
+        return this.getHierarchyIndex(originDataList).getParentList(id, includeSelf);
     }
 
     @Override
     public SysOrg getById(List<SysOrg> originDataList, String id) {
-        int index = CollStreamUtil.toList(originDataList, SysOrg::getId).indexOf(id);
-        return index == -1?null:originDataList.get(index);
+        return this.getHierarchyIndex(originDataList).getById(id);
     }
 
     @Override
     public SysOrg getParentById(List<SysOrg> originDataList, String id) {
-        SysOrg self = this.getById(originDataList, id);
-        return ObjectUtil.isNotEmpty(self)?self:this.getById(originDataList, self.getParentId());
+        SysOrgHierarchyIndex hierarchyIndex = this.getHierarchyIndex(originDataList);
+        SysOrg self = hierarchyIndex.getById(id);
+        return ObjectUtil.isNotEmpty(self)?self:hierarchyIndex.getById(self.getParentId());
     }
 
     @Override
     public SysOrg getChildById(List<SysOrg> originDataList, String id) {
-        int index = CollStreamUtil.toList(originDataList, SysOrg::getParentId).indexOf(id);
-        return index == -1?null:originDataList.get(index);
+        return this.getHierarchyIndex(originDataList).getFirstChild(id);
+    }
+
+    /**
+     * 获取组织列表对应的层级索引，传入的是getAllOrgList返回的列表时直接复用缓存的索引，否则临时构建
+     *
+     * @author jetox
+     * @date 2026/10/18 19:00
+     **/
+    private SysOrgHierarchyIndex getHierarchyIndex(List<SysOrg> originDataList) {
+        SysOrgHierarchyIndex hierarchyIndex = sysOrgHierarchyIndexHolder.peekIndex();
+        if(hierarchyIndex != null && hierarchyIndex.getOrgList() == originDataList) {
+            return hierarchyIndex;
+        }
+        return SysOrgHierarchyIndex.build(originDataList, -1);
     }
 }
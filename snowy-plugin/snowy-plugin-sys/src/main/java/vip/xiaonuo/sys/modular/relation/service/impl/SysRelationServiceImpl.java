@@ -12,17 +12,29 @@
  */
 package vip.xiaonuo.sys.modular.relation.service.impl;
 
+import cn.hutool.core.collection.CollStreamUtil;
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.util.ObjectUtil;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vip.xiaonuo.common.cache.CommonRelationGraphCache;
+import vip.xiaonuo.common.cache.CommonRelationGraphCenter;
+import vip.xiaonuo.common.cache.CommonRelationRecord;
 import vip.xiaonuo.sys.modular.relation.entity.SysRelation;
+import vip.xiaonuo.sys.modular.relation.enums.SysRelationCategoryEnum;
 import vip.xiaonuo.sys.modular.relation.mapper.SysRelationMapper;
 import vip.xiaonuo.sys.modular.relation.service.SysRelationService;
+import vip.xiaonuo.sys.modular.role.snapshot.SysPermissionSnapshotCache;
 
+import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -34,11 +46,101 @@ import java.util.stream.Collectors;
 @Service
 public class SysRelationServiceImpl extends ServiceImpl<SysRelationMapper, SysRelation> implements SysRelationService {
 
+    /** 由关系图缓存提供的分类，工作台与日程数据仅按用户读取且内容较大，不缓存 */
+    private static final Set<String> CACHED_CATEGORY_SET = Set.of(
+            SysRelationCategoryEnum.SYS_USER_HAS_RESOURCE.getValue(),
+            SysRelationCategoryEnum.SYS_USER_HAS_PERMISSION.getValue(),
+            SysRelationCategoryEnum.SYS_USER_HAS_ROLE.getValue(),
+            SysRelationCategoryEnum.SYS_ROLE_HAS_RESOURCE.getValue(),
+            SysRelationCategoryEnum.SYS_ROLE_HAS_MOBILE_MENU.getValue(),
+            SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue(),
+            SysRelationCategoryEnum.SYS_USER_HAS_GROUP.getValue());
+
+    @Resource
+    private SysPermissionSnapshotCache sysPermissionSnapshotCache;
+
+    @Resource
+    private CommonRelationGraphCenter commonRelationGraphCenter;
+
+    private CommonRelationGraphCache relationGraphCache;
+
+    @PostConstruct
+    public void init() {
+        relationGraphCache = commonRelationGraphCenter.register("SYS_RELATION", CACHED_CATEGORY_SET, category ->
+                CollStreamUtil.toList(this.list(new LambdaQueryWrapper<SysRelation>().eq(SysRelation::getCategory, category)),
+                        this::toRecord));
+    }
+
+    /* ====关系写入时维护关系图并失效权限快照，删除与更新前先查询受影响关系的分类，按分类失效==== */
+
+    @Override
+    public boolean save(SysRelation entity) {
+        boolean result = super.save(entity);
+        this.afterRelationSave(null, entity.getCategory(), CollectionUtil.newArrayList(entity));
+        return result;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public boolean saveBatch(Collection<SysRelation> entityList, int batchSize) {
+        boolean result = super.saveBatch(entityList, batchSize);
+        relationGraphCache.append(CollStreamUtil.toList(entityList, this::toRecord));
+        this.invalidatePermissionSnapshot(CollStreamUtil.toSet(entityList, SysRelation::getCategory));
+        return result;
+    }
+
+    @Override
+    public boolean remove(Wrapper<SysRelation> queryWrapper) {
+        Set<String> categorySet = CollStreamUtil.toSet(this.list(queryWrapper), SysRelation::getCategory);
+        boolean result = super.remove(queryWrapper);
+        relationGraphCache.invalidate(categorySet);
+        this.invalidatePermissionSnapshot(categorySet);
+        return result;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<?> list) {
+        if(ObjectUtil.isEmpty(list)) {
+            return false;
+        }
+        Set<String> categorySet = CollStreamUtil.toSet(this.listByIds(CollStreamUtil.toList(list, id -> (Serializable) id)),
+                SysRelation::getCategory);
+        boolean result = super.removeByIds(list);
+        relationGraphCache.invalidate(categorySet);
+        this.invalidatePermissionSnapshot(categorySet);
+        return result;
+    }
+
+    @Override
+    public boolean update(SysRelation entity, Wrapper<SysRelation> updateWrapper) {
+        Set<String> categorySet = CollStreamUtil.toSet(this.list(updateWrapper), SysRelation::getCategory);
+        // 更新为其他分类时，新分类同样受影响
+        if(ObjectUtil.isNotEmpty(entity) && ObjectUtil.isNotEmpty(entity.getCategory())) {
+            categorySet.add(entity.getCategory());
+        }
+        boolean result = super.update(entity, updateWrapper);
+        relationGraphCache.invalidate(categorySet);
+        this.invalidatePermissionSnapshot(categorySet);
+        return result;
+    }
+
+    /**
+     * 受影响的分类中包含权限相关分类时失效权限快照
+     *
+     * @author jetox
+     * @date 2026/10/18 23:59
+     */
+    private void invalidatePermissionSnapshot(Collection<String> categoryList) {
+        if(categoryList.stream().anyMatch(sysPermissionSnapshotCache::isPermissionCategory)) {
+            sysPermissionSnapshotCache.invalidate();
+        }
+    }
+
     @Transactional(rollbackFor = Exception.class)
     public void saveRelation(String objectId, String targetId, String category, String extJson, boolean clear) {
-        // 是否需要先删除关系
+        // 是否需要先删除关系，删除条件已知，直接删除后按对象与分类写入关系图
         if(clear) {
-            this.remove(new LambdaQueryWrapper<SysRelation>().eq(SysRelation::getObjectId, objectId)
+            this.getBaseMapper().delete(new LambdaQueryWrapper<SysRelation>().eq(SysRelation::getObjectId, objectId)
                     .eq(SysRelation::getCategory, category));
         }
         SysRelation sysRelation = new SysRelation();
@@ -46,14 +148,15 @@ public class SysRelationServiceImpl extends ServiceImpl<SysRelationMapper, SysRe
         sysRelation.setTargetId(targetId);
         sysRelation.setCategory(category);
         sysRelation.setExtJson(extJson);
-        this.save(sysRelation);
+        super.save(sysRelation);
+        this.afterRelationSave(clear ? objectId : null, category, CollectionUtil.newArrayList(sysRelation));
     }
 
     @Transactional(rollbackFor = Exception.class)
     public void saveRelationBatch(String objectId, List<String> targetIdList, String category, List<String> extJsonList, boolean clear) {
-        // 是否需要先删除关系
+        // 是否需要先删除关系，删除条件已知，直接删除后按对象与分类写入关系图
         if(clear) {
-            this.remove(new LambdaQueryWrapper<SysRelation>().eq(SysRelation::getObjectId, objectId)
+            this.getBaseMapper().delete(new LambdaQueryWrapper<SysRelation>().eq(SysRelation::getObjectId, objectId)
                     .eq(SysRelation::getCategory, category));
         }
         List<SysRelation> sysRelationList = CollectionUtil.newArrayList();
@@ -68,8 +171,40 @@ public class SysRelationServiceImpl extends ServiceImpl<SysRelationMapper, SysRe
             sysRelationList.add(sysRelation);
         }
         if(ObjectUtil.isNotEmpty(sysRelationList)) {
-            this.saveBatch(sysRelationList);
+            super.saveBatch(sysRelationList, DEFAULT_BATCH_SIZE);
+        }
+        this.afterRelationSave(clear ? objectId : null, category, sysRelationList);
+    }
+
+    /**
+     * 关系保存后写入关系图，clearObjectId不为空时替换该对象在该分类下的全部关系
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     */
+    private void afterRelationSave(String clearObjectId, String category, List<SysRelation> sysRelationList) {
+        List<CommonRelationRecord> recordList = CollStreamUtil.toList(sysRelationList, this::toRecord);
+        if(ObjectUtil.isNotEmpty(clearObjectId)) {
+            relationGraphCache.replace(clearObjectId, category, recordList);
+        } else {
+            relationGraphCache.append(recordList);
         }
+        this.invalidatePermissionSnapshot(CollectionUtil.newArrayList(category));
+    }
+
+    private CommonRelationRecord toRecord(SysRelation sysRelation) {
+        return new CommonRelationRecord(sysRelation.getId(), sysRelation.getObjectId(), sysRelation.getTargetId(),
+                sysRelation.getCategory(), sysRelation.getExtJson());
+    }
+
+    private SysRelation toEntity(CommonRelationRecord commonRelationRecord) {
+        SysRelation sysRelation = new SysRelation();
+        sysRelation.setId(commonRelationRecord.getId());
+        sysRelation.setObjectId(commonRelationRecord.getObjectId());
+        sysRelation.setTargetId(commonRelationRecord.getTargetId());
+        sysRelation.setCategory(commonRelationRecord.getCategory());
+        sysRelation.setExtJson(commonRelationRecord.getExtJson());
+        return sysRelation;
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -132,6 +267,9 @@ public class SysRelationServiceImpl extends ServiceImpl<SysRelationMapper, SysRe
 
     @Override
     public List<SysRelation> getRelationListByObjectIdAndCategory(String objectId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByObjectId(objectId, category), this::toEntity);
+        }
         LambdaQueryWrapper<SysRelation> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         lambdaQueryWrapper.eq(SysRelation::getObjectId, objectId);
         if(ObjectUtil.isNotEmpty(category)) {
@@ -142,6 +280,9 @@ public class SysRelationServiceImpl extends ServiceImpl<SysRelationMapper, SysRe
 
     @Override
     public List<SysRelation> getRelationListByObjectIdListAndCategory(List<String> objectIdList, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByObjectIdList(objectIdList, category), this::toEntity);
+        }
         LambdaQueryWrapper<SysRelation> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         lambdaQueryWrapper.in(SysRelation::getObjectId, objectIdList);
         if(ObjectUtil.isNotEmpty(category)) {
@@ -150,6 +291,14 @@ public class SysRelationServiceImpl extends ServiceImpl<SysRelationMapper, SysRe
         return this.list(lambdaQueryWrapper);
     }
 
+    @Override
+    public List<CommonRelationRecord> getRelationRecordListByObjectIdAndCategory(String objectId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return relationGraphCache.getByObjectId(objectId, category);
+        }
+        return CollStreamUtil.toList(this.getRelationListByObjectIdAndCategory(objectId, category), this::toRecord);
+    }
+
     @Override
     public List<SysRelation> getRelationListByTargetId(String targetId) {
         return this.getRelationListByTargetIdAndCategory(targetId, null);
@@ -162,6 +311,9 @@ public class SysRelationServiceImpl extends ServiceImpl<SysRelationMapper, SysRe
 
     @Override
     public List<SysRelation> getRelationListByTargetIdAndCategory(String targetId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByTargetId(targetId, category), this::toEntity);
+        }
         LambdaQueryWrapper<SysRelation> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         lambdaQueryWrapper.eq(SysRelation::getTargetId, targetId);
         if(ObjectUtil.isNotEmpty(category)) {
@@ -172,6 +324,9 @@ public class SysRelationServiceImpl extends ServiceImpl<SysRelationMapper, SysRe
 
     @Override
     public List<SysRelation> getRelationListByTargetIdListAndCategory(List<String> targetIdList, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByTargetIdList(targetIdList, category), this::toEntity);
+        }
         LambdaQueryWrapper<SysRelation> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         lambdaQueryWrapper.in(SysRelation::getTargetId, targetIdList);
         if(ObjectUtil.isNotEmpty(category)) {
@@ -192,12 +347,18 @@ public class SysRelationServiceImpl extends ServiceImpl<SysRelationMapper, SysRe
 
     @Override
     public List<String> getRelationTargetIdListByObjectIdAndCategory(String objectId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByObjectId(objectId, category), CommonRelationRecord::getTargetId);
+        }
         return this.getRelationListByObjectIdAndCategory(objectId, category).stream()
                 .map(SysRelation::getTargetId).collect(Collectors.toList());
     }
 
     @Override
     public List<String> getRelationTargetIdListByObjectIdListAndCategory(List<String> objectIdList, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByObjectIdList(objectIdList, category), CommonRelationRecord::getTargetId);
+        }
         return this.getRelationListByObjectIdListAndCategory(objectIdList, category).stream()
                 .map(SysRelation::getTargetId).collect(Collectors.toList());
     }
@@ -214,12 +375,18 @@ public class SysRelationServiceImpl extends ServiceImpl<SysRelationMapper, SysRe
 
     @Override
     public List<String> getRelationObjectIdListByTargetIdAndCategory(String targetId, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByTargetId(targetId, category), CommonRelationRecord::getObjectId);
+        }
         return this.getRelationListByTargetIdAndCategory(targetId, category).stream()
                 .map(SysRelation::getObjectId).collect(Collectors.toList());
     }
 
     @Override
     public List<String> getRelationObjectIdListByTargetIdListAndCategory(List<String> targetIdList, String category) {
+        if(relationGraphCache.isCached(category)) {
+            return CollStreamUtil.toList(relationGraphCache.getByTargetIdList(targetIdList, category), CommonRelationRecord::getObjectId);
+        }
         return this.getRelationListByTargetIdListAndCategory(targetIdList, category).stream()
                 .map(SysRelation::getObjectId).collect(Collectors.toList());
     }
@@ -246,9 +246,9 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
     public SysRoleOwnResourceResult ownResource(SysRoleIdParam sysRoleIdParam) {
         SysRoleOwnResourceResult sysRoleOwnResourceResult = new SysRoleOwnResourceResult();
         sysRoleOwnResourceResult.setId(sysRoleIdParam.getId());
-        sysRoleOwnResourceResult.setGrantInfoList(sysRelationService.getRelationListByObjectIdAndCategory(sysRoleIdParam.getId(),
-                SysRelationCategoryEnum.SYS_ROLE_HAS_RESOURCE.getValue()).stream().map(sysRelation ->
-                JSONUtil.toBean(sysRelation.getExtJson(), SysRoleOwnResourceResult.SysRoleOwnResource.class)).collect(Collectors.toList()));
+        sysRoleOwnResourceResult.setGrantInfoList(sysRelationService.getRelationRecordListByObjectIdAndCategory(sysRoleIdParam.getId(),
+                SysRelationCategoryEnum.SYS_ROLE_HAS_RESOURCE.getValue()).stream().map(commonRelationRecord ->
+                commonRelationRecord.getExt(SysRoleOwnResourceResult.SysRoleOwnResource.class)).collect(Collectors.toList()));
         return sysRoleOwnResourceResult;
     }
 
@@ -278,9 +278,9 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
     public SysRoleOwnMobileMenuResult ownMobileMenu(SysRoleIdParam sysRoleIdParam) {
         SysRoleOwnMobileMenuResult sysRoleOwnMobileMenuResult = new SysRoleOwnMobileMenuResult();
         sysRoleOwnMobileMenuResult.setId(sysRoleIdParam.getId());
-        sysRoleOwnMobileMenuResult.setGrantInfoList(sysRelationService.getRelationListByObjectIdAndCategory(sysRoleIdParam.getId(),
-                SysRelationCategoryEnum.SYS_ROLE_HAS_MOBILE_MENU.getValue()).stream().map(sysRelation ->
-                JSONUtil.toBean(sysRelation.getExtJson(), SysRoleOwnMobileMenuResult.SysRoleOwnMobileMenu.class)).collect(Collectors.toList()));
+        sysRoleOwnMobileMenuResult.setGrantInfoList(sysRelationService.getRelationRecordListByObjectIdAndCategory(sysRoleIdParam.getId(),
+                SysRelationCategoryEnum.SYS_ROLE_HAS_MOBILE_MENU.getValue()).stream().map(commonRelationRecord ->
+                commonRelationRecord.getExt(SysRoleOwnMobileMenuResult.SysRoleOwnMobileMenu.class)).collect(Collectors.toList()));
         return sysRoleOwnMobileMenuResult;
     }
 
@@ -299,9 +299,9 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
     public SysRoleOwnPermissionResult ownPermission(SysRoleIdParam sysRoleIdParam) {
         SysRoleOwnPermissionResult sysRoleOwnPermissionResult = new SysRoleOwnPermissionResult();
         sysRoleOwnPermissionResult.setId(sysRoleIdParam.getId());
-        sysRoleOwnPermissionResult.setGrantInfoList(sysRelationService.getRelationListByObjectIdAndCategory(sysRoleIdParam.getId(),
-                SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue()).stream().map(sysRelation ->
-                JSONUtil.toBean(sysRelation.getExtJson(), SysRoleOwnPermissionResult.SysRoleOwnPermission.class)).collect(Collectors.toList()));
+        sysRoleOwnPermissionResult.setGrantInfoList(sysRelationService.getRelationRecordListByObjectIdAndCategory(sysRoleIdParam.getId(),
+                SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue()).stream().map(commonRelationRecord ->
+                commonRelationRecord.getExt(SysRoleOwnPermissionResult.SysRoleOwnPermission.class)).collect(Collectors.toList()));
         return sysRoleOwnPermissionResult;
     }
 
@@ -0,0 +1,228 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.role.snapshot;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vip.xiaonuo.auth.core.permission.SaPermissionCodeDictionary;
+import vip.xiaonuo.auth.core.permission.SaPermissionSnapshot;
+import vip.xiaonuo.common.cache.CommonCacheOperator;
+import vip.xiaonuo.common.consts.CacheConstant;
+import vip.xiaonuo.sys.modular.relation.entity.SysRelation;
+import vip.xiaonuo.sys.modular.relation.enums.SysRelationCategoryEnum;
+import vip.xiaonuo.sys.modular.relation.mapper.SysRelationMapper;
+import vip.xiaonuo.sys.modular.resource.entity.SysButton;
+import vip.xiaonuo.sys.modular.resource.mapper.SysButtonMapper;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 权限快照本地缓存
+ * 按角色id（以及用户id，对应用户的直接授权）缓存编译好的权限快照，快照携带编译时的权限版本号，
+ * 授权关系变化后递增Redis中的版本号，各节点发现版本号变化后重新编译
+ *
+ * @author jetox
+ * @date 2026/10/18 20:00
+ **/
+@Slf4j
+@Component
+public class SysPermissionSnapshotCache {
+
+    /** 最大缓存快照数 */
+    private static final int MAX_SIZE = 4096;
+
+    /** 检查Redis版本号的间隔 */
+    private static final long VERSION_CHECK_INTERVAL_MILLIS = 1000;
+
+    /** 参与编译权限快照的关系分类 */
+    private static final List<String> SNAPSHOT_CATEGORY_LIST = List.of(
+            SysRelationCategoryEnum.SYS_USER_HAS_RESOURCE.getValue(),
+            SysRelationCategoryEnum.SYS_ROLE_HAS_RESOURCE.getValue(),
+            SysRelationCategoryEnum.SYS_USER_HAS_PERMISSION.getValue(),
+            SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue(),
+            SysRelationCategoryEnum.SYS_ROLE_HAS_MOBILE_MENU.getValue());
+
+    /** 变化后需要递增权限版本号的关系分类 */
+    private static final Set<String> PERMISSION_CATEGORY_SET = Set.of(
+            SysRelationCategoryEnum.SYS_USER_HAS_RESOURCE.getValue(),
+            SysRelationCategoryEnum.SYS_ROLE_HAS_RESOURCE.getValue(),
+            SysRelationCategoryEnum.SYS_USER_HAS_PERMISSION.getValue(),
+            SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue(),
+            SysRelationCategoryEnum.SYS_ROLE_HAS_MOBILE_MENU.getValue(),
+            SysRelationCategoryEnum.SYS_USER_HAS_ROLE.getValue());
+
+    @Resource
+    private SysRelationMapper sysRelationMapper;
+
+    @Resource
+    private SysButtonMapper sysButtonMapper;
+
+    @Resource
+    private CommonCacheOperator commonCacheOperator;
+
+    private final LRUCache<String, SaPermissionSnapshot> snapshotCache = CacheUtil.newLRUCache(MAX_SIZE);
+
+    private volatile long version;
+
+    private volatile long lastCheckMillis;
+
+    /**
+     * 获取角色或用户的权限快照，按传入顺序返回，缺失或过期的快照一次查询后编译
+     *
+     * @author jetox
+     * @date 2026/10/18 20:00
+     */
+    public List<SaPermissionSnapshot> getSnapshotList(List<String> objectIdList) {
+        long currentVersion = this.getVersion();
+        Map<String, SaPermissionSnapshot> snapshotMap = new LinkedHashMap<>();
+        List<String> missingIdList = CollectionUtil.newArrayList();
+        for (String objectId : objectIdList) {
+            SaPermissionSnapshot snapshot = snapshotCache.get(objectId, false);
+            if (snapshot != null && snapshot.getVersion() == currentVersion) {
+                snapshotMap.put(objectId, snapshot);
+            } else {
+                snapshotMap.put(objectId, null);
+                missingIdList.add(objectId);
+            }
+        }
+        if (ObjectUtil.isNotEmpty(missingIdList)) {
+            this.compile(missingIdList, currentVersion).forEach((objectId, snapshot) -> {
+                snapshotMap.put(objectId, snapshot);
+                snapshotCache.put(objectId, snapshot);
+            });
+        }
+        return new ArrayList<>(snapshotMap.values());
+    }
+
+    /**
+     * 判断关系分类变化后是否需要失效权限快照
+     *
+     * @author jetox
+     * @date 2026/10/18 20:00
+     */
+    public boolean isPermissionCategory(String category) {
+        return category == null || PERMISSION_CATEGORY_SET.contains(category);
+    }
+
+    /**
+     * 授权变化，在事务中调用时于提交后递增权限版本号，使所有节点的快照失效
+     *
+     * @author jetox
+     * @date 2026/10/18 20:00
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidate();
+                }
+            });
+        } else {
+            this.doInvalidate();
+        }
+    }
+
+    private void doInvalidate() {
+        snapshotCache.clear();
+        try {
+            Long newVersion = commonCacheOperator.increment(CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY);
+            if (newVersion != null) {
+                version = newVersion;
+                lastCheckMillis = System.currentTimeMillis();
+            }
+        } catch (Exception e) {
+            log.warn(">>> 递增权限版本号失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取当前权限版本号，每秒最多读取一次Redis
+     */
+    private long getVersion() {
+        long now = System.currentTimeMillis();
+        if (now - lastCheckMillis >= VERSION_CHECK_INTERVAL_MILLIS) {
+            try {
+                version = Convert.toLong(commonCacheOperator.get(CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY), 0L);
+            } catch (Exception e) {
+                log.warn(">>> 读取权限版本号失败：{}", e.getMessage());
+            }
+            lastCheckMillis = now;
+        }
+        return version;
+    }
+
+    /**
+     * 一次查询编译多个角色或用户的权限快照，扩展信息只在编译时解析一次
+     */
+    private Map<String, SaPermissionSnapshot> compile(List<String> objectIdList, long snapshotVersion) {
+        Map<String, List<SysRelation>> relationMap = sysRelationMapper.selectList(new LambdaQueryWrapper<SysRelation>()
+                        .in(SysRelation::getObjectId, objectIdList).in(SysRelation::getCategory, SNAPSHOT_CATEGORY_LIST))
+                .stream().collect(Collectors.groupingBy(SysRelation::getObjectId));
+        Map<SysRelation, List<String>> buttonIdMap = new IdentityHashMap<>();
+        Set<String> allButtonIdSet = new HashSet<>();
+        relationMap.values().forEach(relationList -> relationList.forEach(sysRelation -> {
+            if (!isPermissionRelation(sysRelation) && ObjectUtil.isNotEmpty(sysRelation.getExtJson())) {
+                List<String> buttonIdList = JSONUtil.parseObj(sysRelation.getExtJson()).getBeanList("buttonInfo", String.class);
+                if (ObjectUtil.isNotEmpty(buttonIdList)) {
+                    buttonIdMap.put(sysRelation, buttonIdList);
+                    if (!SysRelationCategoryEnum.SYS_ROLE_HAS_MOBILE_MENU.getValue().equals(sysRelation.getCategory())) {
+                        allButtonIdSet.addAll(buttonIdList);
+                    }
+                }
+            }
+        }));
+        Map<String, String> buttonCodeMap = ObjectUtil.isEmpty(allButtonIdSet) ? Collections.emptyMap() :
+                sysButtonMapper.selectBatchIds(allButtonIdSet).stream()
+                        .collect(Collectors.toMap(SysButton::getId, SysButton::getCode, (a, b) -> a));
+        Map<String, SaPermissionSnapshot> resultMap = new HashMap<>();
+        for (String objectId : objectIdList) {
+            Map<String, List<SaPermissionSnapshot.DataScopeRule>> dataScopeRuleMap = new LinkedHashMap<>();
+            Set<String> buttonCodeSet = new LinkedHashSet<>();
+            Set<String> mobileButtonIdSet = new LinkedHashSet<>();
+            for (SysRelation sysRelation : relationMap.getOrDefault(objectId, Collections.emptyList())) {
+                if (isPermissionRelation(sysRelation)) {
+                    JSONObject extJsonObject = JSONUtil.parseObj(sysRelation.getExtJson());
+                    dataScopeRuleMap.computeIfAbsent(SaPermissionCodeDictionary.PERMISSION.intern(sysRelation.getTargetId()),
+                            key -> new ArrayList<>()).add(new SaPermissionSnapshot.DataScopeRule(extJsonObject.getStr("scopeCategory"),
+                            CollectionUtil.emptyIfNull(extJsonObject.getBeanList("scopeDefineOrgIdList", String.class))));
+                } else if (SysRelationCategoryEnum.SYS_ROLE_HAS_MOBILE_MENU.getValue().equals(sysRelation.getCategory())) {
+                    mobileButtonIdSet.addAll(buttonIdMap.getOrDefault(sysRelation, Collections.emptyList()));
+                } else {
+                    buttonIdMap.getOrDefault(sysRelation, Collections.emptyList()).stream().map(buttonCodeMap::get)
+                            .filter(ObjectUtil::isNotEmpty).map(SaPermissionCodeDictionary.BUTTON::intern).forEach(buttonCodeSet::add);
+                }
+            }
+            resultMap.put(objectId, new SaPermissionSnapshot(objectId, snapshotVersion, dataScopeRuleMap,
+                    new ArrayList<>(buttonCodeSet), new ArrayList<>(mobileButtonIdSet)));
+        }
+        return resultMap;
+    }
+
+    private static boolean isPermissionRelation(SysRelation sysRelation) {
+        return SysRelationCategoryEnum.SYS_USER_HAS_PERMISSION.getValue().equals(sysRelation.getCategory())
+                || SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue().equals(sysRelation.getCategory());
+    }
+}
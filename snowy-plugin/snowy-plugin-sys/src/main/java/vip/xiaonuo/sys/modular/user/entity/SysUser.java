@@ -22,7 +22,9 @@ import com.fhs.core.trans.constant.TransType;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import lombok.Setter;
+import vip.xiaonuo.common.handler.CommonSm4BatchDecryptor;
 import vip.xiaonuo.common.handler.CommonSm4CbcTypeHandler;
+import vip.xiaonuo.common.handler.CommonSm4LazyDecryptEntity;
 import vip.xiaonuo.common.pojo.CommonEntity;
 import vip.xiaonuo.sys.modular.org.entity.SysOrg;
 import vip.xiaonuo.sys.modular.position.entity.SysPosition;
@@ -38,7 +40,7 @@ import java.util.Date;
 @Getter
 @Setter
 @TableName(value = "SYS_USER", autoResultMap = true)
-public class SysUser extends CommonEntity {
+public class SysUser extends CommonEntity implements CommonSm4LazyDecryptEntity {
 
     /** id */
     @TableId
@@ -282,4 +284,17 @@ public class SysUser extends CommonEntity {
     @TableField(exist = false)
     private String directorName;
 
+    /* ====加密字段延迟解密，首次读取时还原明文==== */
+
+    public String getIdCardNumber() {
+        return idCardNumber = CommonSm4BatchDecryptor.reveal(idCardNumber);
+    }
+
+    public String getPhone() {
+        return phone = CommonSm4BatchDecryptor.reveal(phone);
+    }
+
+    public String getEmergencyPhone() {
+        return emergencyPhone = CommonSm4BatchDecryptor.reveal(emergencyPhone);
+    }
 }
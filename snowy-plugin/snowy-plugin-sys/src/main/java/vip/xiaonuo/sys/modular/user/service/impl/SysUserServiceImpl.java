@@ -33,6 +33,7 @@ import cn.hutool.core.lang.tree.TreeNode;
 import cn.hutool.core.lang.tree.TreeNodeConfig;
 import cn.hutool.core.lang.tree.TreeUtil;
 import cn.hutool.core.lang.tree.parser.DefaultNodeParser;
+import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.PhoneUtil;
 import cn.hutool.core.util.RandomUtil;
@@ -63,11 +64,14 @@ import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import vip.xiaonuo.auth.core.permission.SaPermissionCodeList;
+import vip.xiaonuo.auth.core.permission.SaPermissionSnapshot;
 import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
 import vip.xiaonuo.common.cache.CommonCacheOperator;
 import vip.xiaonuo.common.enums.CommonGenderEnum;
 import vip.xiaonuo.common.enums.CommonSortOrderEnum;
 import vip.xiaonuo.common.excel.CommonExcelCustomMergeStrategy;
+import vip.xiaonuo.common.handler.CommonSm4BatchDecryptor;
 import vip.xiaonuo.common.exception.CommonException;
 import vip.xiaonuo.common.listener.CommonDataChangeEventCenter;
 import vip.xiaonuo.common.page.CommonPageRequest;
@@ -91,19 +95,18 @@ import vip.xiaonuo.sys.modular.position.service.SysPositionService;
 import vip.xiaonuo.sys.modular.relation.entity.SysRelation;
 import vip.xiaonuo.sys.modular.relation.enums.SysRelationCategoryEnum;
 import vip.xiaonuo.sys.modular.relation.service.SysRelationService;
-import vip.xiaonuo.sys.modular.resource.entity.SysButton;
 import vip.xiaonuo.sys.modular.resource.entity.SysMenu;
 import vip.xiaonuo.sys.modular.resource.entity.SysModule;
 import vip.xiaonuo.sys.modular.resource.enums.SysMenuWhetherEnum;
 import vip.xiaonuo.sys.modular.resource.enums.SysResourceCategoryEnum;
 import vip.xiaonuo.sys.modular.resource.enums.SysResourceMenuTypeEnum;
-import vip.xiaonuo.sys.modular.resource.service.SysButtonService;
 import vip.xiaonuo.sys.modular.resource.service.SysMenuService;
 import vip.xiaonuo.sys.modular.resource.service.SysModuleService;
 import vip.xiaonuo.sys.modular.role.entity.SysRole;
 import vip.xiaonuo.sys.modular.role.enums.SysRoleDataScopeCategoryEnum;
 import vip.xiaonuo.sys.modular.role.param.SysRoleGrantUserParam;
 import vip.xiaonuo.sys.modular.role.service.SysRoleService;
+import vip.xiaonuo.sys.modular.role.snapshot.SysPermissionSnapshotCache;
 import vip.xiaonuo.sys.modular.user.entity.SysUser;
 import vip.xiaonuo.sys.modular.user.entity.SysUserExt;
 import vip.xiaonuo.sys.modular.user.enums.SysUpdatePasswordValidTypeEnum;
@@ -235,15 +238,15 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
     @Resource
     private SysMenuService sysMenuService;
 
-    @Resource
-    private SysButtonService sysButtonService;
-
     @Resource
     private SysRelationService sysRelationService;
 
     @Resource
     private MobileButtonApi mobileButtonApi;
 
+    @Resource
+    private SysPermissionSnapshotCache sysPermissionSnapshotCache;
+
     @Resource
     private SysGroupService sysGroupService;
 
@@ -426,8 +429,8 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
             // 清除【将这些用户作为主管】的信息
             this.update(new LambdaUpdateWrapper<SysUser>().in(SysUser::getDirectorId, sysUserIdList).set(SysUser::getDirectorId, null));
 
-            // 清除【将这些用户作为兼任职位的主管】的信息
-            this.list(new LambdaQueryWrapper<SysUser>().isNotNull(SysUser::getPositionJson)).forEach(sysUser -> {
+            // 清除【将这些用户作为兼任职位的主管】的信息，只用到兼任信息，加密字段延迟解密
+            CommonSm4BatchDecryptor.lazy(() -> this.list(new LambdaQueryWrapper<SysUser>().isNotNull(SysUser::getPositionJson))).forEach(sysUser -> {
                 List<JSONObject> handledJsonObjectList = JSONUtil.toList(JSONUtil.parseArray(sysUser.getPositionJson()),
                         JSONObject.class).stream().peek(jsonObject -> {
                     String directorId = jsonObject.getStr("directorId");
@@ -1091,7 +1094,11 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
         SysUser sysUser = this.queryEntity(StpUtil.getLoginIdAsString());
         try {
             String suffix = Objects.requireNonNull(FileUtil.getSuffix(file.getOriginalFilename())).toLowerCase();
-            BufferedImage image = ImgUtil.toImage(file.getBytes());
+            // 按头像尺寸降采样解码，不将原图读入内存
+            BufferedImage image;
+            try (InputStream inputStream = file.getInputStream()) {
+                image = CommonImageUtil.read(inputStream, 200, 200);
+            }
             String base64;
             if(image.getWidth() <= 200 && image.getHeight() <= 200) {
                 base64 = ImgUtil.toBase64DataUri(image, suffix);
@@ -1335,9 +1342,9 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
     public SysUserOwnResourceResult ownResource(SysUserIdParam sysUserIdParam) {
         SysUserOwnResourceResult sysUserOwnResourceResult = new SysUserOwnResourceResult();
         sysUserOwnResourceResult.setId(sysUserIdParam.getId());
-        sysUserOwnResourceResult.setGrantInfoList(sysRelationService.getRelationListByObjectIdAndCategory(sysUserIdParam.getId(),
-                SysRelationCategoryEnum.SYS_USER_HAS_RESOURCE.getValue()).stream().map(sysRelation ->
-                JSONUtil.toBean(sysRelation.getExtJson(), SysUserOwnResourceResult.SysUserOwnResource.class)).collect(Collectors.toList()));
+        sysUserOwnResourceResult.setGrantInfoList(sysRelationService.getRelationRecordListByObjectIdAndCategory(sysUserIdParam.getId(),
+                SysRelationCategoryEnum.SYS_USER_HAS_RESOURCE.getValue()).stream().map(commonRelationRecord ->
+                commonRelationRecord.getExt(SysUserOwnResourceResult.SysUserOwnResource.class)).collect(Collectors.toList()));
         return sysUserOwnResourceResult;
     }
 
@@ -1373,9 +1380,9 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
     public SysUserOwnPermissionResult ownPermission(SysUserIdParam sysUserIdParam) {
         SysUserOwnPermissionResult sysUserOwnPermissionResult = new SysUserOwnPermissionResult();
         sysUserOwnPermissionResult.setId(sysUserIdParam.getId());
-        sysUserOwnPermissionResult.setGrantInfoList(sysRelationService.getRelationListByObjectIdAndCategory(sysUserIdParam.getId(),
-                SysRelationCategoryEnum.SYS_USER_HAS_PERMISSION.getValue()).stream().map(sysRelation ->
-                JSONUtil.toBean(sysRelation.getExtJson(), SysUserOwnPermissionResult.SysUserOwnPermission.class)).collect(Collectors.toList()));
+        sysUserOwnPermissionResult.setGrantInfoList(sysRelationService.getRelationRecordListByObjectIdAndCategory(sysUserIdParam.getId(),
+                SysRelationCategoryEnum.SYS_USER_HAS_PERMISSION.getValue()).stream().map(commonRelationRecord ->
+                commonRelationRecord.getExt(SysUserOwnPermissionResult.SysUserOwnPermission.class)).collect(Collectors.toList()));
         return sysUserOwnPermissionResult;
     }
 
@@ -1393,7 +1400,7 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
     @Override
     public List<Tree<String>> loginOrgTree(SysUserIdParam sysUserIdParam) {
         SysUser sysUser = this.queryEntity(sysUserIdParam.getId());
-        List<SysOrg> originDataList = sysOrgService.getAllOrgList();
+        List<SysOrg> originDataList = CollectionUtil.newArrayList(sysOrgService.getAllOrgList());
         // 构建一个根组织
         SysOrg rootSysOrg = new SysOrg();
         rootSysOrg.setId("0");
@@ -1474,71 +1481,69 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
 
     @Override
     public List<String> getButtonCodeList(List<String> userAndRoleIdList) {
-        List<String> buttonIdList = CollectionUtil.newArrayList();
-        sysRelationService.list(new LambdaQueryWrapper<SysRelation>().in(SysRelation::getObjectId, userAndRoleIdList)
-                .in(SysRelation::getCategory, SysRelationCategoryEnum.SYS_USER_HAS_RESOURCE.getValue(),
-                        SysRelationCategoryEnum.SYS_ROLE_HAS_RESOURCE.getValue())).forEach(sysRelation -> {
-            if (ObjectUtil.isNotEmpty(sysRelation.getExtJson())) {
-                buttonIdList.addAll(JSONUtil.parseObj(sysRelation.getExtJson()).getBeanList("buttonInfo", String.class));
-            }
-        });
-        if (ObjectUtil.isNotEmpty(buttonIdList)) {
-            return sysButtonService.listByIds(buttonIdList).stream().map(SysButton::getCode).collect(Collectors.toList());
-        }
-        return CollectionUtil.newArrayList();
+        Set<String> buttonCodeSet = CollectionUtil.newLinkedHashSet();
+        sysPermissionSnapshotCache.getSnapshotList(userAndRoleIdList).forEach(saPermissionSnapshot ->
+                buttonCodeSet.addAll(saPermissionSnapshot.getButtonCodeList()));
+        return CollectionUtil.newArrayList(buttonCodeSet);
     }
 
     @Override
     public List<String> getMobileButtonCodeList(List<String> userAndRoleIdList) {
-        List<String> buttonIdList = CollectionUtil.newArrayList();
-        sysRelationService.getRelationListByObjectIdListAndCategory(userAndRoleIdList,
-                SysRelationCategoryEnum.SYS_ROLE_HAS_MOBILE_MENU.getValue()).forEach(sysRelation -> {
-            if (ObjectUtil.isNotEmpty(sysRelation.getExtJson())) {
-                buttonIdList.addAll(JSONUtil.parseObj(sysRelation.getExtJson()).getBeanList("buttonInfo", String.class));
-            }
-        });
-        if (ObjectUtil.isNotEmpty(buttonIdList)) {
-            return mobileButtonApi.listButtonCodeListByIdList(buttonIdList);
+        Set<String> buttonIdSet = CollectionUtil.newLinkedHashSet();
+        sysPermissionSnapshotCache.getSnapshotList(userAndRoleIdList).forEach(saPermissionSnapshot ->
+                buttonIdSet.addAll(saPermissionSnapshot.getMobileButtonIdList()));
+        if (ObjectUtil.isNotEmpty(buttonIdSet)) {
+            return mobileButtonApi.listButtonCodeListByIdList(CollectionUtil.newArrayList(buttonIdSet));
         }
         return CollectionUtil.newArrayList();
     }
 
     @Override
     public List<JSONObject> getPermissionList(List<String> userAndRoleIdList, String orgId) {
-        Map<String, List<SysRelation>> map = sysRelationService.list(new LambdaQueryWrapper<SysRelation>()
-                .in(SysRelation::getObjectId, userAndRoleIdList).in(SysRelation::getCategory,
-                        SysRelationCategoryEnum.SYS_USER_HAS_PERMISSION.getValue(),
-                        SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue())).stream()
-                .collect(Collectors.groupingBy(SysRelation::getTargetId));
-        return getScopeListByMap(map, orgId);
+        List<SaPermissionSnapshot> snapshotList = sysPermissionSnapshotCache.getSnapshotList(userAndRoleIdList);
+        // 用户的接口权限为各角色及用户直接授权的权限位图之并集
+        Map<String, List<SaPermissionSnapshot.DataScopeRule>> ruleMap = MapUtil.newHashMap(true);
+        SaPermissionCodeList.union(snapshotList).forEach(apiUrl -> {
+            List<SaPermissionSnapshot.DataScopeRule> ruleList = CollectionUtil.newArrayList();
+            snapshotList.forEach(saPermissionSnapshot -> ruleList.addAll(saPermissionSnapshot.getDataScopeRuleMap()
+                    .getOrDefault(apiUrl, Collections.emptyList())));
+            ruleMap.put(apiUrl, ruleList);
+        });
+        return getScopeListByRuleMap(ruleMap, orgId);
     }
 
-    public List<JSONObject> getScopeListByMap(Map<String, List<SysRelation>> groupMap, String orgId) {
+    public List<JSONObject> getScopeListByRuleMap(Map<String, List<SaPermissionSnapshot.DataScopeRule>> ruleMap, String orgId) {
+        // 全部数据仅记录标记，本机构及以下仅记录本机构id，查询时再按组织层级索引判断或展开
         List<JSONObject> resultList = CollectionUtil.newArrayList();
-        List<SysOrg> sysOrgList = sysOrgService.getAllOrgList();
-        List<String> scopeAllList = sysOrgList.stream().map(SysOrg::getId).toList();
-        List<String> scopeOrgList = CollectionUtil.newArrayList(orgId);
-        List<String> scopeOrgChildList = sysOrgService.getChildListById(sysOrgList, orgId, true)
-                .stream().map(SysOrg::getId).toList();
-        groupMap.forEach((key, value) -> {
+        ruleMap.forEach((key, value) -> {
             JSONObject jsonObject = JSONUtil.createObj().set("apiUrl", key);
-            Set<String> scopeSet = CollectionUtil.newHashSet();
-            value.forEach(sysRelation -> {
-                JSONObject extJsonObject = JSONUtil.parseObj(sysRelation.getExtJson());
-                String scopeCategory = extJsonObject.getStr("scopeCategory");
-                if (!scopeCategory.equals(SysRoleDataScopeCategoryEnum.SCOPE_SELF.getValue())) {
-                    if (scopeCategory.equals(SysRoleDataScopeCategoryEnum.SCOPE_ALL.getValue())) {
-                        scopeSet.addAll(scopeAllList);
-                    } else if (scopeCategory.equals(SysRoleDataScopeCategoryEnum.SCOPE_ORG.getValue())) {
-                        scopeSet.addAll(scopeOrgList);
-                    } else if (scopeCategory.equals(SysRoleDataScopeCategoryEnum.SCOPE_ORG_CHILD.getValue())) {
-                        scopeSet.addAll(scopeOrgChildList);
-                    } else {
-                        scopeSet.addAll(extJsonObject.getBeanList("scopeDefineOrgIdList", String.class));
-                    }
+            boolean scopeAll = false;
+            Set<String> scopeSet = CollectionUtil.newLinkedHashSet();
+            Set<String> scopeWithChildSet = CollectionUtil.newLinkedHashSet();
+            for (SaPermissionSnapshot.DataScopeRule dataScopeRule : value) {
+                String scopeCategory = dataScopeRule.getScopeCategory();
+                if (SysRoleDataScopeCategoryEnum.SCOPE_ALL.getValue().equals(scopeCategory)) {
+                    scopeAll = true;
+                    break;
+                } else if (SysRoleDataScopeCategoryEnum.SCOPE_ORG.getValue().equals(scopeCategory)) {
+                    scopeSet.add(orgId);
+                } else if (SysRoleDataScopeCategoryEnum.SCOPE_ORG_CHILD.getValue().equals(scopeCategory)) {
+                    scopeWithChildSet.add(orgId);
+                } else if (!SysRoleDataScopeCategoryEnum.SCOPE_SELF.getValue().equals(scopeCategory)) {
+                    scopeSet.addAll(dataScopeRule.getScopeDefineOrgIdList());
                 }
-            });
-            resultList.add(jsonObject.set("dataScope", CollectionUtil.newArrayList(scopeSet)));
+            }
+            scopeSet.remove(null);
+            scopeWithChildSet.remove(null);
+            if (scopeAll) {
+                jsonObject.set("scopeAll", true);
+                scopeSet.clear();
+                scopeWithChildSet.clear();
+            } else {
+                scopeSet.removeAll(scopeWithChildSet);
+            }
+            resultList.add(jsonObject.set("dataScope", CollectionUtil.newArrayList(scopeSet))
+                    .set("dataScopeWithChild", CollectionUtil.newArrayList(scopeWithChildSet)));
         });
         return resultList;
     }
@@ -1568,7 +1573,8 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
             // 读取excel
             List<SysUserImportParam> sysUserImportParamList =  EasyExcel.read(tempFile).head(SysUserImportParam.class).sheet()
                     .headRowNumber(3).doReadSync();
-            List<SysUser> allUserList = this.list();
+            // 全量用户只用于按账号匹配与手机号查重，加密字段延迟到读取时解密
+            List<SysUser> allUserList = CommonSm4BatchDecryptor.lazy(() -> this.list());
             for (int i = 0; i < sysUserImportParamList.size(); i++) {
                 JSONObject jsonObject = this.doImport(allUserList, sysUserImportParamList.get(i), i);
                 if(jsonObject.getBool("success")) {
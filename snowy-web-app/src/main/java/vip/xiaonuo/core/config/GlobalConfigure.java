@@ -61,6 +61,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.jdbc.support.JdbcUtils;
@@ -75,6 +76,7 @@ import vip.xiaonuo.common.annotation.CommonWrapper;
 import vip.xiaonuo.common.cache.CommonCacheOperator;
 import vip.xiaonuo.common.enums.CommonDeleteFlagEnum;
 import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.common.interceptor.CommonSm4DecryptInterceptor;
 import vip.xiaonuo.common.interceptor.CommonTraceInterceptor;
 import vip.xiaonuo.common.listener.CommonDataChangeEventCenter;
 import vip.xiaonuo.common.listener.CommonDataChangeListener;
@@ -169,7 +171,10 @@ public class GlobalConfigure implements WebMvcConfigurer {
             "/client/userCenter/findPasswordByEmail",
 
             /* 文件下载 */
-            "/dev/file/download"
+            "/dev/file/download",
+
+            /* 文件缩略图，授权下载的文件在接口内校验登录 */
+            "/dev/file/thumbnail"
     };
 
     /**
@@ -331,6 +336,19 @@ public class GlobalConfigure implements WebMvcConfigurer {
         return redisTemplate;
     }
 
+    /**
+     * Redis发布订阅监听容器
+     *
+     * @author jetox
+     * @date 2026/10/18 22:00
+     **/
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer redisMessageListenerContainer = new RedisMessageListenerContainer();
+        redisMessageListenerContainer.setConnectionFactory(redisConnectionFactory);
+        return redisMessageListenerContainer;
+    }
+
     /**
      * 静态资源映射
      *
@@ -546,6 +564,17 @@ public class GlobalConfigure implements WebMvcConfigurer {
         return mybatisPlusInterceptor;
     }
 
+    /**
+     * Sm4Cbc结果集批量解密插件
+     *
+     * @author jetox
+     * @date 2026/10/18 18:10
+     **/
+    @Bean
+    public CommonSm4DecryptInterceptor commonSm4DecryptInterceptor() {
+        return new CommonSm4DecryptInterceptor();
+    }
+
     /**
      * 数据库id选择器，用于Mapper.xml中
      * MyBatis可以根据不同的数据库厂商执行不同的语句
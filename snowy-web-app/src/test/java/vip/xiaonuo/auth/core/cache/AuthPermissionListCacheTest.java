@@ -0,0 +1,136 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.auth.core.cache;
+
+import cn.hutool.core.thread.ThreadUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.RedisTestServer;
+import vip.xiaonuo.auth.core.enums.SaClientTypeEnum;
+import vip.xiaonuo.common.cache.CommonCacheOperator;
+import vip.xiaonuo.common.consts.CacheConstant;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 登录用户权限码本地缓存测试，两组实例模拟共享同一Redis的两个节点
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class AuthPermissionListCacheTest {
+
+    private static final String B = SaClientTypeEnum.B.getValue();
+
+    private static final String C = SaClientTypeEnum.C.getValue();
+
+    private final RedisTestServer redis = RedisTestServer.get();
+
+    private RedisMessageListenerContainer containerA;
+
+    private RedisMessageListenerContainer containerB;
+
+    private CommonCacheOperator operatorA;
+
+    private CommonCacheOperator operatorB;
+
+    private AuthPermissionListCache nodeA;
+
+    private AuthPermissionListCache nodeB;
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+        containerA = redis.newListenerContainer();
+        containerB = redis.newListenerContainer();
+        operatorA = newOperator(containerA);
+        operatorB = newOperator(containerB);
+        nodeA = newNode(operatorA, containerA);
+        nodeB = newNode(operatorB, containerB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        containerA.stop();
+        containerB.stop();
+    }
+
+    @Test
+    void loginOnOneNodeReplacesPermissionListOnOtherNode() {
+        this.login(operatorA, nodeA, "user1", List.of("/sys/user/page"));
+        assertThat(nodeB.get("user1", B)).containsExactly("/sys/user/page");
+
+        // 角色变化后在节点A重新登录，权限版本号没有变化
+        this.login(operatorA, nodeA, "user1", List.of("/sys/role/page"));
+        assertThat(nodeA.get("user1", B)).containsExactly("/sys/role/page");
+        assertThat(this.awaitPermission(nodeB, "user1", "/sys/role/page")).isTrue();
+        assertThat(nodeB.get("user1", B).hasPermission("/sys/user/page")).isFalse();
+    }
+
+    @Test
+    void loginOnlyInvalidatesSameUserAndClientType() {
+        this.login(operatorA, nodeA, "user1", List.of("/sys/user/page"));
+        this.login(operatorA, nodeA, "user2", List.of("/sys/user/page"));
+        operatorA.put(CacheConstant.AUTH_C_PERMISSION_LIST_CACHE_KEY + "user1", List.of("/client/page"));
+        assertThat(nodeB.get("user2", B)).containsExactly("/sys/user/page");
+        assertThat(nodeB.get("user1", C)).containsExactly("/client/page");
+
+        this.login(operatorA, nodeA, "user1", List.of("/sys/role/page"));
+        assertThat(this.awaitPermission(nodeB, "user1", "/sys/role/page")).isTrue();
+        // 绕过登录直接修改Redis，未收到失效消息的集合仍使用本地值
+        redis.getRedisTemplate().opsForValue().set("Cache:" + CacheConstant.AUTH_B_PERMISSION_LIST_CACHE_KEY + "user2", List.of());
+        redis.getRedisTemplate().opsForValue().set("Cache:" + CacheConstant.AUTH_C_PERMISSION_LIST_CACHE_KEY + "user1", List.of());
+        assertThat(nodeB.get("user2", B)).containsExactly("/sys/user/page");
+        assertThat(nodeB.get("user1", C)).containsExactly("/client/page");
+    }
+
+    private void login(CommonCacheOperator operator, AuthPermissionListCache node, String userId, List<String> permissionCodeList) {
+        // 与登录时的顺序一致，先写Redis再更新本地并通知其他节点
+        operator.put(CacheConstant.AUTH_B_PERMISSION_LIST_CACHE_KEY + userId, permissionCodeList);
+        node.put(userId, B, permissionCodeList);
+    }
+
+    private boolean awaitPermission(AuthPermissionListCache node, String userId, String permission) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (node.get(userId, B).hasPermission(permission)) {
+                return true;
+            }
+            ThreadUtil.sleep(20);
+        }
+        return false;
+    }
+
+    private CommonCacheOperator newOperator(RedisMessageListenerContainer container) {
+        CommonCacheOperator commonCacheOperator = new CommonCacheOperator();
+        ReflectionTestUtils.setField(commonCacheOperator, "redisTemplate", redis.getRedisTemplate());
+        ReflectionTestUtils.setField(commonCacheOperator, "stringRedisTemplate", redis.getStringRedisTemplate());
+        ReflectionTestUtils.setField(commonCacheOperator, "redisMessageListenerContainer", container);
+        commonCacheOperator.init();
+        return commonCacheOperator;
+    }
+
+    private AuthPermissionListCache newNode(CommonCacheOperator commonCacheOperator, RedisMessageListenerContainer container) {
+        AuthPermissionListCache authPermissionListCache = new AuthPermissionListCache();
+        ReflectionTestUtils.setField(authPermissionListCache, "commonCacheOperator", commonCacheOperator);
+        ReflectionTestUtils.setField(authPermissionListCache, "stringRedisTemplate", redis.getStringRedisTemplate());
+        ReflectionTestUtils.setField(authPermissionListCache, "redisMessageListenerContainer", container);
+        authPermissionListCache.init();
+        return authPermissionListCache;
+    }
+}
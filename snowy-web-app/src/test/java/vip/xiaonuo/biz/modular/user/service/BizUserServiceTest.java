@@ -0,0 +1,86 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.biz.modular.user.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.auth.core.permission.SaDataScope;
+import vip.xiaonuo.auth.core.pojo.SaBaseLoginUser;
+import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
+import vip.xiaonuo.biz.modular.user.param.BizUserSelectorRoleParam;
+import vip.xiaonuo.biz.modular.user.service.impl.BizUserServiceImpl;
+import vip.xiaonuo.sys.api.SysRoleApi;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 人员角色选择器按数据范围限定机构的测试
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class BizUserServiceTest {
+
+    private static final String API_URL = "/biz/user/roleSelector";
+
+    private final SysRoleApi sysRoleApi = mock(SysRoleApi.class);
+
+    private final BizUserServiceImpl bizUserService = new BizUserServiceImpl();
+
+    private MockedStatic<StpLoginUserUtil> stpLoginUserUtil;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bizUserService, "sysRoleApi", sysRoleApi);
+        when(sysRoleApi.roleSelector(any(), any(), any(), any(), anyBoolean())).thenReturn(new Page<>());
+        stpLoginUserUtil = mockStatic(StpLoginUserUtil.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stpLoginUserUtil.close();
+    }
+
+    @Test
+    void scopeAllDoesNotFilterByOrg() {
+        stpLoginUserUtil.when(StpLoginUserUtil::getLoginUserDataScope).thenReturn(SaDataScope.ALL);
+        BizUserSelectorRoleParam bizUserSelectorRoleParam = new BizUserSelectorRoleParam();
+        bizUserService.roleSelector(bizUserSelectorRoleParam);
+        bizUserSelectorRoleParam.setOrgId("org1");
+        bizUserService.roleSelector(bizUserSelectorRoleParam);
+        verify(sysRoleApi).roleSelector(isNull(), any(), any(), isNull(), eq(true));
+        verify(sysRoleApi).roleSelector(eq("org1"), any(), any(), isNull(), eq(true));
+    }
+
+    @Test
+    void definedScopeFiltersByOrg() {
+        SaBaseLoginUser.DataScope dataScope = new SaBaseLoginUser.DataScope();
+        dataScope.setApiUrl(API_URL);
+        dataScope.setDataScope(List.of("org1", "org2"));
+        stpLoginUserUtil.when(StpLoginUserUtil::getLoginUserDataScope).thenReturn(SaDataScope.of(List.of(dataScope), API_URL));
+        BizUserSelectorRoleParam bizUserSelectorRoleParam = new BizUserSelectorRoleParam();
+        bizUserService.roleSelector(bizUserSelectorRoleParam);
+        verify(sysRoleApi).roleSelector(isNull(), any(), any(), eq(List.of("org1", "org2")), eq(true));
+
+        bizUserSelectorRoleParam.setOrgId("org3");
+        bizUserService.roleSelector(bizUserSelectorRoleParam);
+        verifyNoMoreInteractions(sysRoleApi);
+    }
+}
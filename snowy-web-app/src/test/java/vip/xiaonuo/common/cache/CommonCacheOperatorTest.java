@@ -0,0 +1,167 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.cache;
+
+import cn.hutool.core.thread.ThreadUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.RedisTestServer;
+import vip.xiaonuo.common.consts.CacheConstant;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 通用缓存操作器测试，两个实例模拟共享同一Redis的两个节点
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class CommonCacheOperatorTest {
+
+    private final RedisTestServer redis = RedisTestServer.get();
+
+    private final StringRedisTemplate stringRedisTemplate = spy(redis.getStringRedisTemplate());
+
+    private RedisMessageListenerContainer containerA;
+
+    private RedisMessageListenerContainer containerB;
+
+    private CommonCacheOperator nodeA;
+
+    private CommonCacheOperator nodeB;
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+        containerA = redis.newListenerContainer();
+        containerB = redis.newListenerContainer();
+        nodeA = this.newNode(containerA);
+        nodeB = this.newNode(containerB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        containerA.stop();
+        containerB.stop();
+    }
+
+    @Test
+    void nonExpiringKeyIsCachedLocallyAndInvalidatedAcrossNodes() {
+        nodeA.put("config", "v1");
+        // 等待本次写入的失效消息送达后再读取
+        ThreadUtil.sleep(300);
+        assertThat(nodeB.get("config")).isEqualTo("v1");
+        // 绕过操作器直接修改Redis，本地缓存仍返回旧值
+        redis.getRedisTemplate().opsForValue().set("Cache:config", "changed");
+        assertThat(nodeB.get("config")).isEqualTo("v1");
+
+        nodeA.put("config", "v2");
+        assertThat(this.awaitValue(nodeB, "config", "v2")).isTrue();
+    }
+
+    @Test
+    void versionKeyAlwaysReadsRedis() {
+        String key = CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY;
+        assertThat(nodeA.increment(key)).isEqualTo(1L);
+        assertThat(nodeB.get(key)).isEqualTo(1);
+        // 失效消息丢失时版本号仍是最新值
+        redis.getRedisTemplate().opsForValue().set("Cache:" + key, 5);
+        assertThat(nodeB.get(key)).isEqualTo(5);
+        assertThat(nodeB.getLocalCacheSize()).isZero();
+    }
+
+    @Test
+    void expiringPutIsNotCached() {
+        nodeA.put("captcha", "1234", 60);
+        assertThat(nodeB.get("captcha")).isEqualTo("1234");
+        nodeA.put("captcha", "5678", 60);
+        assertThat(nodeB.get("captcha")).isEqualTo("5678");
+        assertThat(nodeB.getLocalCacheSize()).isZero();
+    }
+
+    @Test
+    void expiringPutInvalidatesValueCachedWithoutExpireOnOtherNodes() {
+        nodeA.put("config", "v1");
+        ThreadUtil.sleep(300);
+        assertThat(nodeB.get("config")).isEqualTo("v1");
+
+        clearInvocations(stringRedisTemplate);
+        nodeA.put("config", "v2", 60);
+        verify(stringRedisTemplate, times(1)).convertAndSend(eq(CacheConstant.CACHE_INVALIDATE_CHANNEL), anyString());
+        assertThat(this.awaitValue(nodeB, "config", "v2")).isTrue();
+    }
+
+    @Test
+    void scanReturnsKeysWithoutPrefixInBatches() {
+        for (int i = 0; i < 12; i++) {
+            nodeA.put("dict:" + i, "d" + i);
+        }
+        nodeA.put("config", "v1");
+        redis.getRedisTemplate().opsForValue().set("other", "x");
+
+        assertThat(nodeB.getAllKeys()).hasSize(13).contains("dict:0", "dict:11", "config").doesNotContain("other");
+        Map<String, Object> scanned = new HashMap<>();
+        nodeB.scanKeyValues("dict:*", 5, batch -> {
+            assertThat(batch).hasSizeLessThanOrEqualTo(5);
+            scanned.putAll(batch);
+        });
+        assertThat(scanned).hasSize(12).containsEntry("dict:3", "d3");
+        assertThat(nodeB.getAllKeyValues()).hasSize(13).containsEntry("config", "v1");
+    }
+
+    @Test
+    void removeBatchDeletesMatchingKeysAndInvalidatesAllNodes() {
+        nodeA.put("dict:1", "d1");
+        nodeA.put("dict:2", "d2");
+        nodeA.put("config", "v1");
+        ThreadUtil.sleep(300);
+        assertThat(nodeB.get("dict:1")).isEqualTo("d1");
+
+        nodeA.removeBatch("dict:*");
+        assertThat(redis.getRedisTemplate().hasKey("Cache:dict:1")).isFalse();
+        assertThat(nodeA.getAllKeys()).containsExactly("config");
+        assertThat(nodeA.get("dict:2")).isNull();
+        assertThat(this.awaitValue(nodeB, "dict:1", null)).isTrue();
+        assertThat(nodeB.get("config")).isEqualTo("v1");
+    }
+
+    private CommonCacheOperator newNode(RedisMessageListenerContainer container) {
+        CommonCacheOperator commonCacheOperator = new CommonCacheOperator();
+        ReflectionTestUtils.setField(commonCacheOperator, "redisTemplate", redis.getRedisTemplate());
+        ReflectionTestUtils.setField(commonCacheOperator, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(commonCacheOperator, "redisMessageListenerContainer", container);
+        commonCacheOperator.init();
+        return commonCacheOperator;
+    }
+
+    private boolean awaitValue(CommonCacheOperator node, String key, Object expected) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (Objects.equals(node.get(key), expected)) {
+                return true;
+            }
+            ThreadUtil.sleep(20);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 关系图缓存按分类失效与关系记录只读扩展信息的测试
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class CommonRelationGraphCacheTest {
+
+    private static final String ROLE = "USER_HAS_ROLE";
+
+    private static final String RESOURCE = "ROLE_HAS_RESOURCE";
+
+    private static final String MESSAGE = "MSG_TO_USER";
+
+    private final CommonRelationGraphCenter commonRelationGraphCenter = mock(CommonRelationGraphCenter.class);
+
+    private final List<String> loadedCategoryList = new ArrayList<>();
+
+    private final CommonRelationGraphCache relationGraphCache = new CommonRelationGraphCache("TEST_RELATION",
+            Set.of(ROLE, RESOURCE), category -> {
+        loadedCategoryList.add(category);
+        return List.of(new CommonRelationRecord(category + "1", "user1", "target1", category, null));
+    }, commonRelationGraphCenter);
+
+    @Test
+    void invalidateEvictsOnlyAffectedCategories() {
+        relationGraphCache.getByObjectId("user1", ROLE);
+        relationGraphCache.getByObjectId("user1", RESOURCE);
+        assertThat(loadedCategoryList).containsExactly(ROLE, RESOURCE);
+
+        relationGraphCache.invalidate(List.of(ROLE, MESSAGE));
+        verify(commonRelationGraphCenter).publish("TEST_RELATION", ROLE);
+        verifyNoMoreInteractions(commonRelationGraphCenter);
+
+        relationGraphCache.getByObjectId("user1", ROLE);
+        relationGraphCache.getByObjectId("user1", RESOURCE);
+        assertThat(loadedCategoryList).containsExactly(ROLE, RESOURCE, ROLE);
+    }
+
+    @Test
+    void invalidateOfUncachedCategoriesPublishesNothing() {
+        relationGraphCache.getByObjectId("user1", ROLE);
+        relationGraphCache.invalidate(List.of(MESSAGE));
+        relationGraphCache.invalidate(List.of());
+        verify(commonRelationGraphCenter, never()).publish(anyString(), anyString());
+        relationGraphCache.getByObjectId("user1", ROLE);
+        assertThat(loadedCategoryList).containsExactly(ROLE);
+    }
+
+    @Test
+    void remoteMessageEvictsNamedCategory() {
+        relationGraphCache.getByObjectId("user1", ROLE);
+        relationGraphCache.evictLocal(ROLE);
+        relationGraphCache.getByObjectId("user1", ROLE);
+        assertThat(loadedCategoryList).containsExactly(ROLE, ROLE);
+        verify(commonRelationGraphCenter, never()).publish(anyString(), eq(ROLE));
+    }
+
+    @Test
+    void graphLoadedInsideTransactionIsNotCached() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            relationGraphCache.getByObjectId("user1", ROLE);
+            relationGraphCache.getByObjectId("user1", ROLE);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertThat(loadedCategoryList).containsExactly(ROLE, ROLE);
+
+        // 事务外加载后缓存，事务内直接复用已提交数据的关系图
+        relationGraphCache.getByObjectId("user1", ROLE);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            relationGraphCache.getByObjectId("user1", ROLE);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        relationGraphCache.getByObjectId("user1", ROLE);
+        assertThat(loadedCategoryList).containsExactly(ROLE, ROLE, ROLE);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void extIsReadOnly() {
+        CommonRelationRecord commonRelationRecord = new CommonRelationRecord("1", "role1", "menu1", RESOURCE,
+                "{\"menuId\":\"menu1\",\"buttonInfo\":[\"b1\",\"b2\"],\"meta\":{\"k\":\"v\"}}");
+        Map<String, Object> ext = commonRelationRecord.getExt();
+        assertThat(ext).containsEntry("menuId", "menu1");
+        assertThat(ext.get("buttonInfo")).isEqualTo(List.of("b1", "b2"));
+        assertThat(commonRelationRecord.getExt()).isSameAs(ext);
+        assertThatThrownBy(() -> ext.put("menuId", "menu2")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> ((List<Object>) ext.get("buttonInfo")).add("b3"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> ((Map<String, Object>) ext.get("meta")).clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(new CommonRelationRecord("2", "role1", "menu1", RESOURCE, "[1]").getExt()).isNull();
+    }
+}
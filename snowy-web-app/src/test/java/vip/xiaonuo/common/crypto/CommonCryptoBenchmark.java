@@ -0,0 +1,127 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.crypto;
+
+import com.antherd.smcrypto.sm2.Sm2;
+import com.antherd.smcrypto.sm3.Sm3;
+import com.antherd.smcrypto.sm4.Sm4;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 国密算法基准，对比纯Java实现与原sm-crypto（Nashorn执行JavaScript，仅作为测试依赖用于对比）
+ * 输入取登录密码、手机号字段与日志签名的典型长度
+ * 运行：先执行mvn test-compile，再以测试类路径运行本类main方法
+ *
+ * @author jetox
+ * @date 2026/10/18 23:58
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CommonCryptoBenchmark {
+
+    private static final String PUBLIC_KEY = "04298364ec840088475eae92a591e01284d1abefcda348b47eb324bb521bb03b0b2a5bc393f6b71dabb8f15c99a0050818b56b23f31743b93df9cf8948f15ddb54";
+
+    private static final String PRIVATE_KEY = "3037723d47292171677ec8bd7dc9af696c7472bc5f251b2cec07e65fdef22e25";
+
+    private static final String SM4_KEY = "0123456789abcdeffedcba9876543210";
+
+    private static final String PASSWORD = "Snowy@123456";
+
+    private static final String PHONE = "13800000000";
+
+    private final CommonSmCryptoProvider provider = new CommonSmCryptoProvider();
+
+    /** 日志签名的典型内容，约1.5KB */
+    private String logContent;
+
+    private String logSign;
+
+    private String passwordCipher;
+
+    private String phoneCipher;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder("{\"name\":\"用户登录\",\"category\":\"LOGIN\",\"opUser\":\"superAdmin\",\"paramJson\":\"");
+        while (builder.length() < 1500) {
+            builder.append("account=superAdmin&validCode=a1b2&device=PC&");
+        }
+        logContent = builder.append("\"}").toString();
+        logSign = provider.sm2Sign(logContent, PRIVATE_KEY);
+        passwordCipher = provider.sm2Encrypt(PASSWORD, PUBLIC_KEY);
+        phoneCipher = provider.sm4Encrypt(PHONE, SM4_KEY);
+    }
+
+    @Benchmark
+    public String sm2Sign() {
+        return provider.sm2Sign(logContent, PRIVATE_KEY);
+    }
+
+    @Benchmark
+    public String legacySm2Sign() {
+        return Sm2.doSignature(logContent, PRIVATE_KEY);
+    }
+
+    @Benchmark
+    public boolean sm2Verify() {
+        return provider.sm2Verify(logContent, logSign, PUBLIC_KEY);
+    }
+
+    @Benchmark
+    public boolean legacySm2Verify() {
+        return Sm2.doVerifySignature(logContent, logSign, PUBLIC_KEY);
+    }
+
+    @Benchmark
+    public String sm2Decrypt() {
+        return provider.sm2Decrypt(passwordCipher, PRIVATE_KEY);
+    }
+
+    @Benchmark
+    public String legacySm2Decrypt() {
+        return Sm2.doDecrypt(passwordCipher, PRIVATE_KEY);
+    }
+
+    @Benchmark
+    public String sm3Hash() {
+        return provider.sm3Hash(logContent);
+    }
+
+    @Benchmark
+    public String legacySm3Hash() {
+        return Sm3.sm3(logContent);
+    }
+
+    @Benchmark
+    public String sm4Decrypt() {
+        return provider.sm4Decrypt(phoneCipher, SM4_KEY);
+    }
+
+    @Benchmark
+    public String legacySm4Decrypt() {
+        return Sm4.decrypt(phoneCipher, SM4_KEY);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CommonCryptoBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.crypto;
+
+import cn.hutool.core.util.HexUtil;
+import org.junit.jupiter.api.Test;
+import vip.xiaonuo.common.util.CommonCryptogramUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 国密算法已知答案测试
+ * 标准向量取自GB/T 32905（SM3）与GB/T 32907（SM4）；兼容向量由原sm-crypto 0.3.2生成，
+ * 用于保证存量密文、签名与日志签名值可以继续解密与验证
+ *
+ * @author jetox
+ * @date 2026/10/18 23:57
+ */
+public class CommonSmCryptoKnownAnswerTest {
+
+    private static final String PUBLIC_KEY = "04298364ec840088475eae92a591e01284d1abefcda348b47eb324bb521bb03b0b2a5bc393f6b71dabb8f15c99a0050818b56b23f31743b93df9cf8948f15ddb54";
+
+    private static final String PRIVATE_KEY = "3037723d47292171677ec8bd7dc9af696c7472bc5f251b2cec07e65fdef22e25";
+
+    private static final String SM4_KEY = "0123456789abcdeffedcba9876543210";
+
+    private final CommonSmCryptoProvider provider = new CommonSmCryptoProvider();
+
+    @Test
+    public void sm4EcbStandardVector() {
+        CommonSm4 sm4 = new CommonSm4(HexUtil.decodeHex(SM4_KEY));
+        byte[] plain = HexUtil.decodeHex("0123456789abcdeffedcba9876543210");
+        byte[] cipher = sm4.encrypt(plain);
+        // 第二个分组为PKCS#7整块填充
+        assertEquals("681edf34d206965e86b3e94f536e4246002a8a4efa863ccad024ac0300bb40d2", HexUtil.encodeHexStr(cipher));
+        assertArrayEquals(plain, sm4.decrypt(cipher));
+    }
+
+    @Test
+    public void sm4EcbMillionIterations() {
+        CommonSm4 sm4 = new CommonSm4(HexUtil.decodeHex(SM4_KEY));
+        byte[] block = HexUtil.decodeHex("0123456789abcdeffedcba9876543210");
+        for (int i = 0; i < 1000000; i++) {
+            block = Arrays.copyOf(sm4.encrypt(block), CommonSm4.BLOCK_SIZE);
+        }
+        assertEquals("595298c7c6fd271f0402f804c33d3f66", HexUtil.encodeHexStr(block));
+    }
+
+    /**
+     * 原工具类的CBC方法从未把模式与向量传给sm-crypto，实际为ECB，存量密文按此兼容
+     */
+    @Test
+    public void sm4CbcNamedApiMatchesLegacyCiphertext() {
+        assertEquals("1e88b2fa73bf42f046071de05270360d", CommonCryptogramUtil.doSm4CbcEncrypt("13800000000"));
+        assertEquals("49846bfa5d5985f6becebfd0ea7d217ec9889096fd4b79daea2090ebd1d7e377", CommonCryptogramUtil.doSm4CbcEncrypt("北京市海淀区"));
+        assertEquals("e6887b77dbabb572ffa07fed7548b192002a8a4efa863ccad024ac0300bb40d2", provider.sm4Encrypt("0123456789abcdef", SM4_KEY));
+        assertEquals("13800000000", CommonCryptogramUtil.doSm4CbcDecrypt("1e88b2fa73bf42f046071de05270360d"));
+        assertEquals("北京市海淀区", CommonCryptogramUtil.doSm4CbcDecrypt("49846bfa5d5985f6becebfd0ea7d217ec9889096fd4b79daea2090ebd1d7e377"));
+        // 无法解密的值（如未加密的历史明文）原样返回
+        assertEquals("1e88b2fa73bf42f046071de05270360", CommonCryptogramUtil.doSm4CbcDecrypt("1e88b2fa73bf42f046071de05270360"));
+    }
+
+    @Test
+    public void sm3StandardVectors() {
+        assertEquals("66c7f0f462eeedd9d1f2d46bdc10e4e24167c4875cf2f7a2297da02b8f4ba8e0",
+                HexUtil.encodeHexStr(CommonSm3.hash("abc".getBytes(StandardCharsets.US_ASCII))));
+        assertEquals("debe9ff92275b8a138604889c18e5a4d6fdb70e5387e5765293dcba39c0c5732",
+                HexUtil.encodeHexStr(CommonSm3.hash("abcd".repeat(16).getBytes(StandardCharsets.US_ASCII))));
+        assertEquals("15497461f802230c3f155b8e696fae94b255d09c640f3f92f9c3742bd8c9929c", CommonCryptogramUtil.doHashValue("小诺"));
+    }
+
+    @Test
+    public void sm2KeyPairMatches() {
+        assertEquals(PUBLIC_KEY, CommonSm2.getPublicKey(PRIVATE_KEY));
+    }
+
+    @Test
+    public void sm2VerifiesLegacySignature() {
+        String legacySign = "53084b44148278e9845bc7e06863a06aee08bf360d2d44d83e1729a6577e9a44"
+                + "ff4b6f7ebd900d5ea1102b56449d8ba9fd9209bb032274539c943ba43fae65ce";
+        assertTrue(CommonCryptogramUtil.doVerifySignature("snowy-日志签名", legacySign));
+        assertFalse(CommonCryptogramUtil.doVerifySignature("snowy-日志签名!", legacySign));
+    }
+
+    @Test
+    public void sm2DecryptsLegacyCiphertext() {
+        String legacyCipher = "060b43ea6f8e1b9c10fe295ddfa0f2b19a3beb6d80462a54a3ab215748a19d7e"
+                + "1a25087d401031f7e3e811ad1ca6bd9f8c4ab43f9883d51e681dd50611dc9d63"
+                + "9f88c0d1f6b35283aaafa5cf705754608a72b7a26ed542281031d83d33581c53"
+                + "60a98abee653cd0011bcff8c";
+        assertEquals("Snowy@123456", CommonCryptogramUtil.doSm2Decrypt(legacyCipher));
+    }
+
+    @Test
+    public void sm2SignVerifyRoundTrip() {
+        String message = "{\"opUser\":\"superAdmin\",\"name\":\"登录\"}";
+        String sign = CommonCryptogramUtil.doSignature(message);
+        assertEquals(128, sign.length());
+        assertTrue(CommonCryptogramUtil.doVerifySignature(message, sign));
+        assertTrue(provider.sm2Verify(message, sign, PUBLIC_KEY));
+        // 篡改签名值
+        String tampered = (sign.charAt(0) == '0' ? '1' : '0') + sign.substring(1);
+        assertFalse(CommonCryptogramUtil.doVerifySignature(message, tampered));
+    }
+
+    @Test
+    public void sm2EncryptDecryptRoundTrip() {
+        String cipher = CommonCryptogramUtil.doSm2Encrypt("Snowy@123456");
+        assertEquals("Snowy@123456", CommonCryptogramUtil.doSm2Decrypt(cipher));
+        assertEquals("", CommonCryptogramUtil.doSm2Encrypt(" "));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.handler;
+
+import com.antherd.smcrypto.sm4.Sm4;
+import com.antherd.smcrypto.sm4.Sm4Options;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import vip.xiaonuo.common.util.CommonCryptogramUtil;
+import vip.xiaonuo.sys.modular.user.entity.SysUser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 10万行用户两个加密字段（手机号、身份证号）的解密耗时基准，只测解密本身，不含数据库读取、行映射与Excel写出，
+ * 不代表exportUser的端到端耗时，测试依赖中没有可用于端到端基准的数据库。
+ * perField为读取结果集时逐字段解密，batch为结果集读取完毕后批量解密，两者使用同一解密实现，
+ * batch只在多核上通过分片并行获益，单核上因分片调度反而略慢；
+ * lazyUntouched为延迟解密模式下只标记不读取加密字段（如导入查重、删除时的全量查询）；
+ * legacyPerField为原sm-crypto逐字段解密
+ * 运行：先执行mvn test-compile，再以测试类路径运行本类main方法
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CommonSm4BatchDecryptBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private static final String LEGACY_KEY = "0123456789abcdeffedcba9876543210";
+
+    private static final String LEGACY_IV = "fedcba98765432100123456789abcdef";
+
+    private final List<String> phoneCipherList = new ArrayList<>(ROWS);
+
+    private final List<String> idCardCipherList = new ArrayList<>(ROWS);
+
+    private List<SysUser> userList;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        if (TableInfoHelper.getTableInfo(SysUser.class) == null) {
+            TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), SysUser.class);
+        }
+        for (int i = 0; i < ROWS; i++) {
+            phoneCipherList.add(CommonCryptogramUtil.doSm4CbcEncrypt(CommonSm4BatchDecryptorTest.phone(i)));
+            idCardCipherList.add(CommonCryptogramUtil.doSm4CbcEncrypt(CommonSm4BatchDecryptorTest.idCardNumber(i)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        userList = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            SysUser sysUser = new SysUser();
+            sysUser.setPhone(phoneCipherList.get(i));
+            sysUser.setIdCardNumber(idCardCipherList.get(i));
+            userList.add(sysUser);
+        }
+    }
+
+    @Benchmark
+    public List<SysUser> perField() {
+        // 与类型处理器读取每个字段时的解密一致
+        for (SysUser sysUser : userList) {
+            sysUser.setPhone(CommonCryptogramUtil.doSm4CbcDecrypt(sysUser.getPhone()));
+            sysUser.setIdCardNumber(CommonCryptogramUtil.doSm4CbcDecrypt(sysUser.getIdCardNumber()));
+        }
+        return userList;
+    }
+
+    @Benchmark
+    public List<SysUser> batch() {
+        CommonSm4BatchDecryptor.decrypt(userList, SysUser.class);
+        return userList;
+    }
+
+    @Benchmark
+    public List<SysUser> lazyUntouched() {
+        CommonSm4BatchDecryptor.markLazy(userList, SysUser.class);
+        return userList;
+    }
+
+    @Benchmark
+    public List<SysUser> legacyPerField() {
+        Sm4Options sm4Options = new Sm4Options();
+        sm4Options.setMode("cbc");
+        sm4Options.setIv(LEGACY_IV);
+        for (SysUser sysUser : userList) {
+            sysUser.setPhone(Sm4.decrypt(sysUser.getPhone(), LEGACY_KEY, sm4Options));
+            sysUser.setIdCardNumber(Sm4.decrypt(sysUser.getIdCardNumber(), LEGACY_KEY, sm4Options));
+        }
+        return userList;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CommonSm4BatchDecryptBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.handler;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.common.util.CommonCryptogramUtil;
+import vip.xiaonuo.sys.modular.user.entity.SysUser;
+
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sm4Cbc字段批量解密测试
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class CommonSm4BatchDecryptorTest {
+
+    @BeforeAll
+    static void initTableInfo() {
+        if (TableInfoHelper.getTableInfo(SysUser.class) == null) {
+            TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), SysUser.class);
+        }
+    }
+
+    @Test
+    void encryptedFieldsAreResolvedFromTableInfo() {
+        assertThat(CommonSm4BatchDecryptor.getEncryptedFields(SysUser.class)).extracting(Field::getName)
+                .containsExactlyInAnyOrder("idCardNumber", "phone", "emergencyPhone");
+        assertThat(CommonSm4BatchDecryptor.getEncryptedFields(String.class)).isEmpty();
+    }
+
+    @Test
+    void decryptsSmallAndParallelResultSets() {
+        for (int size : new int[]{10, 5000}) {
+            List<SysUser> userList = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                userList.add(encryptedUser(i));
+            }
+            userList.add(null);
+            CommonSm4BatchDecryptor.decrypt(userList);
+            for (int i = 0; i < size; i++) {
+                SysUser sysUser = userList.get(i);
+                assertThat(sysUser.getPhone()).isEqualTo(phone(i));
+                assertThat(sysUser.getIdCardNumber()).isEqualTo(idCardNumber(i));
+                assertThat(sysUser.getEmergencyPhone()).isNull();
+                assertThat(sysUser.getName()).isEqualTo("用户" + i);
+            }
+        }
+    }
+
+    @Test
+    void typeHandlerKeepsCiphertextOnlyInsideDeferredScope() throws Exception {
+        String cipher = CommonCryptogramUtil.doSm4CbcEncrypt(phone(1));
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString("phone")).thenReturn(cipher);
+        CommonSm4CbcTypeHandler<String> typeHandler = new CommonSm4CbcTypeHandler<>();
+
+        boolean previous = CommonSm4BatchDecryptor.enterDeferred();
+        try {
+            assertThat(previous).isFalse();
+            boolean nested = CommonSm4BatchDecryptor.enterDeferred();
+            CommonSm4BatchDecryptor.exitDeferred(nested);
+            // 嵌套退出后仍处于外层保持密文状态
+            assertThat(typeHandler.getNullableResult(resultSet, "phone")).isEqualTo(cipher);
+        } finally {
+            CommonSm4BatchDecryptor.exitDeferred(previous);
+        }
+        assertThat(typeHandler.getNullableResult(resultSet, "phone")).isEqualTo(phone(1));
+    }
+
+    @Test
+    void lazyModeDecryptsOnFirstGetterCall() {
+        List<SysUser> userList = new ArrayList<>(List.of(encryptedUser(1), encryptedUser(2)));
+        assertThat(CommonSm4BatchDecryptor.isLazy(SysUser.class)).isFalse();
+        CommonSm4BatchDecryptor.lazy(() -> {
+            assertThat(CommonSm4BatchDecryptor.isLazy(SysUser.class)).isTrue();
+            // 未实现延迟解密标记的类型仍批量解密
+            assertThat(CommonSm4BatchDecryptor.isLazy(String.class)).isFalse();
+            CommonSm4BatchDecryptor.markLazy(userList, SysUser.class);
+            return userList;
+        });
+        assertThat(CommonSm4BatchDecryptor.isLazy(SysUser.class)).isFalse();
+
+        SysUser first = userList.get(0);
+        assertThat(ReflectionTestUtils.getField(first, "phone")).isNotEqualTo(phone(1));
+        assertThat(first.getPhone()).isEqualTo(phone(1));
+        // 首次读取后字段已是明文，身份证号仍未解密
+        assertThat(ReflectionTestUtils.getField(first, "phone")).isEqualTo(phone(1));
+        assertThat(ReflectionTestUtils.getField(first, "idCardNumber")).isNotEqualTo(idCardNumber(1));
+        assertThat(first.getEmergencyPhone()).isNull();
+
+        // 标记过的行再批量解密时同样得到明文
+        CommonSm4BatchDecryptor.decrypt(userList);
+        assertThat(ReflectionTestUtils.getField(userList.get(1), "idCardNumber")).isEqualTo(idCardNumber(2));
+        assertThat(userList.get(1).getPhone()).isEqualTo(phone(2));
+    }
+
+    static SysUser encryptedUser(int i) {
+        SysUser sysUser = new SysUser();
+        sysUser.setName("用户" + i);
+        sysUser.setPhone(CommonCryptogramUtil.doSm4CbcEncrypt(phone(i)));
+        sysUser.setIdCardNumber(CommonCryptogramUtil.doSm4CbcEncrypt(idCardNumber(i)));
+        return sysUser;
+    }
+
+    static String phone(int i) {
+        return String.valueOf(13800000000L + i);
+    }
+
+    static String idCardNumber(int i) {
+        return String.format("1101081990%08d", i);
+    }
+}
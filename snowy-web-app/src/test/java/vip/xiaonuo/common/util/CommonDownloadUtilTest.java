@@ -0,0 +1,89 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.util;
+
+import cn.hutool.core.date.DatePattern;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.io.FileUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 本地文件流式下载测试
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class CommonDownloadUtilTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void eTagIsWeakAndMatchesIfNoneMatch() throws Exception {
+        File file = this.newFile();
+        MockHttpServletResponse response = this.download(file, new MockHttpServletRequest());
+        String eTag = response.getHeader("ETag");
+        assertThat(eTag).startsWith("W/\"");
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", eTag);
+        assertThat(this.download(file, request).getStatus()).isEqualTo(304);
+        request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", eTag.substring(2));
+        assertThat(this.download(file, request).getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void ifRangeHonoursLastModifiedButNotWeakETag() throws Exception {
+        File file = this.newFile();
+        String eTag = this.download(file, new MockHttpServletRequest()).getHeader("ETag");
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Range", "bytes=2-4");
+        request.addHeader("If-Range", DateUtil.format(new Date(file.lastModified()), DatePattern.HTTP_DATETIME_FORMAT));
+        MockHttpServletResponse response = this.download(file, request);
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 2-4/10");
+        assertThat(response.getContentAsString()).isEqualTo("234");
+
+        // 弱ETag不能用于If-Range，返回完整文件
+        request = new MockHttpServletRequest();
+        request.addHeader("Range", "bytes=2-4");
+        request.addHeader("If-Range", eTag);
+        response = this.download(file, request);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    private File newFile() {
+        File file = FileUtil.writeUtf8String("0123456789", tempDir.resolve("a.txt").toFile());
+        file.setLastModified(1700000000000L);
+        return file;
+    }
+
+    private MockHttpServletResponse download(File file, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CommonDownloadUtil.download("a.txt", file, request, response);
+        return response;
+    }
+}
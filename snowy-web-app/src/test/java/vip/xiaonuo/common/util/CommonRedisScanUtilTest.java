@@ -0,0 +1,95 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import vip.xiaonuo.RedisTestServer;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Redis键遍历工具类测试，按批遍历、取值、管道与删除只作用于匹配的键
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class CommonRedisScanUtilTest {
+
+    private final StringRedisTemplate stringRedisTemplate = RedisTestServer.get().getStringRedisTemplate();
+
+    @BeforeEach
+    void setUp() {
+        RedisTestServer.get().flushAll();
+        for (int i = 0; i < 25; i++) {
+            stringRedisTemplate.opsForValue().set("scan:a:" + i, "v" + i);
+        }
+        stringRedisTemplate.opsForValue().set("scan:b:0", "other");
+    }
+
+    @Test
+    void scanVisitsEveryMatchingKeyInBoundedBatches() {
+        List<List<String>> batchList = new ArrayList<>();
+        CommonRedisScanUtil.scan(stringRedisTemplate, "scan:a:*", 10, batchList::add);
+        Set<String> keySet = new HashSet<>();
+        batchList.forEach(batch -> {
+            assertThat(batch).isNotEmpty().hasSizeLessThanOrEqualTo(10);
+            keySet.addAll(batch);
+        });
+        assertThat(keySet).hasSize(25).allMatch(key -> key.startsWith("scan:a:"));
+    }
+
+    @Test
+    void scanWithoutMatchDoesNotCallConsumer() {
+        List<List<String>> batchList = new ArrayList<>();
+        CommonRedisScanUtil.scan(stringRedisTemplate, "missing:*", 10, batchList::add);
+        assertThat(batchList).isEmpty();
+    }
+
+    @Test
+    void scanValuesPairsKeysWithValues() {
+        Map<String, String> valueMap = new HashMap<>();
+        CommonRedisScanUtil.scanValues(stringRedisTemplate, "scan:a:*", 10, (keyList, valueList) -> {
+            assertThat(valueList).hasSameSizeAs(keyList);
+            for (int i = 0; i < keyList.size(); i++) {
+                valueMap.put(keyList.get(i), valueList.get(i));
+            }
+        });
+        assertThat(valueMap).hasSize(25).containsEntry("scan:a:7", "v7").doesNotContainKey("scan:b:0");
+    }
+
+    @Test
+    void scanPipelinedReturnsOneResultPerCommand() {
+        Map<String, Object> lengthMap = new HashMap<>();
+        CommonRedisScanUtil.scanPipelined(stringRedisTemplate, "scan:a:*", 10,
+                (operations, keyList) -> keyList.forEach(key -> operations.opsForValue().size(key)),
+                (keyList, resultList) -> {
+                    assertThat(resultList).hasSameSizeAs(keyList);
+                    for (int i = 0; i < keyList.size(); i++) {
+                        lengthMap.put(keyList.get(i), resultList.get(i));
+                    }
+                });
+        assertThat(lengthMap).hasSize(25).containsEntry("scan:a:3", 2L).containsEntry("scan:a:13", 3L);
+    }
+
+    @Test
+    void deleteRemovesOnlyMatchingKeysAndReturnsCount() {
+        assertThat(CommonRedisScanUtil.delete(stringRedisTemplate, "scan:a:*")).isEqualTo(25L);
+        assertThat(stringRedisTemplate.hasKey("scan:a:0")).isFalse();
+        assertThat(stringRedisTemplate.opsForValue().get("scan:b:0")).isEqualTo("other");
+        assertThat(CommonRedisScanUtil.delete(stringRedisTemplate, "scan:a:*")).isZero();
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.file.service;
+
+import cn.dev33.satoken.stp.StpUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.extra.spring.SpringUtil;
+import cn.hutool.json.JSONUtil;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedStatic;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import vip.xiaonuo.RedisTestServer;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.common.prop.CommonProperties;
+import vip.xiaonuo.dev.api.DevConfigApi;
+import vip.xiaonuo.dev.modular.file.chunk.DevFileChunkStore;
+import vip.xiaonuo.dev.modular.file.entity.DevFile;
+import vip.xiaonuo.dev.modular.file.mapper.DevFileMapper;
+import vip.xiaonuo.dev.modular.file.param.DevFileChunkIdParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileChunkInitParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileChunkUploadParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileIdParam;
+import vip.xiaonuo.dev.modular.file.result.DevFileChunkResult;
+import vip.xiaonuo.dev.modular.file.service.impl.DevFileServiceImpl;
+import vip.xiaonuo.dev.modular.file.thumbnail.DevFileThumbnailPipeline;
+import vip.xiaonuo.dev.modular.file.util.DevFileMinIoUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 文件服务测试
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class DevFileServiceTest {
+
+    private static final byte[] CONTENT = StrUtil.repeat("snowy-file-content-", 200).getBytes(StandardCharsets.UTF_8);
+
+    private static final int PART_SIZE = 1024 * 1024;
+
+    private final RedisTestServer redis = RedisTestServer.get();
+
+    private final DevFileMapper devFileMapper = mock(DevFileMapper.class);
+
+    private final DevFileServiceImpl devFileService = new DevFileServiceImpl();
+
+    private final DevFileThumbnailPipeline devFileThumbnailPipeline = mock(DevFileThumbnailPipeline.class);
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    /** 模拟的文件表，包含逻辑删除的记录 */
+    private final Map<String, DevFile> table = new ConcurrentHashMap<>();
+
+    /** 已逻辑删除的文件id */
+    private final Set<String> logicallyDeletedIdSet = ConcurrentHashMap.newKeySet();
+
+    private MockedStatic<StpUtil> stpUtil;
+
+    @TempDir
+    Path uploadFolder;
+
+    @TempDir
+    Path otherNodeUploadFolder;
+
+    /** 当前节点的本地存储目录，集群中各节点不共享 */
+    private final AtomicReference<Path> nodeUploadFolder = new AtomicReference<>();
+
+    /** 模拟的远程存储服务 */
+    private HttpServer storageServer;
+
+    /** 存储服务收到的Accept-Encoding */
+    private final AtomicReference<String> acceptEncoding = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+        when(devFileMapper.insert(any(DevFile.class))).thenAnswer(invocation -> {
+            DevFile devFile = invocation.getArgument(0);
+            table.put(devFile.getId(), devFile);
+            return 1;
+        });
+        when(devFileMapper.selectById(any())).thenAnswer(invocation ->
+                logicallyDeletedIdSet.contains(invocation.<String>getArgument(0)) ? null : table.get(invocation.<String>getArgument(0)));
+        when(devFileMapper.countByFileKey(anyString(), anyString(), anyString(), anyString())).thenAnswer(invocation ->
+                table.values().stream().filter(devFile -> devFile.getEngine().equals(invocation.getArgument(0))
+                        && devFile.getBucket().equals(invocation.getArgument(1)) && devFile.getFileKey().equals(invocation.getArgument(2))
+                        && !devFile.getId().equals(invocation.getArgument(3))).count());
+        when(devFileMapper.deleteAbsoluteById(any())).thenAnswer(invocation -> table.remove(invocation.<String>getArgument(0)) != null ? 1 : 0);
+
+        CommonProperties commonProperties = new CommonProperties();
+        commonProperties.setBackendUrl("http://localhost:82");
+        DevFileChunkStore devFileChunkStore = new DevFileChunkStore();
+        ReflectionTestUtils.setField(devFileChunkStore, "stringRedisTemplate", redis.getStringRedisTemplate());
+        ReflectionTestUtils.setField(devFileService, "baseMapper", devFileMapper);
+        ReflectionTestUtils.setField(devFileService, "commonProperties", commonProperties);
+        ReflectionTestUtils.setField(devFileService, "stringRedisTemplate", redis.getStringRedisTemplate());
+        ReflectionTestUtils.setField(devFileService, "devFileChunkStore", devFileChunkStore);
+        ReflectionTestUtils.setField(devFileService, "devFileThumbnailPipeline", devFileThumbnailPipeline);
+
+        // 本地存储目录来自系统配置
+        DevConfigApi devConfigApi = mock(DevConfigApi.class);
+        nodeUploadFolder.set(uploadFolder);
+        when(devConfigApi.getValueByKey(anyString())).thenAnswer(invocation -> nodeUploadFolder.get().toString());
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.registerBean(DevConfigApi.class, () -> devConfigApi);
+        applicationContext.refresh();
+        new SpringUtil().setApplicationContext(applicationContext);
+
+        stpUtil = mockStatic(StpUtil.class);
+        stpUtil.when(StpUtil::getLoginIdAsString).thenReturn("user-1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stpUtil.close();
+        RequestContextHolder.resetRequestAttributes();
+        if (storageServer != null) {
+            storageServer.stop(0);
+        }
+    }
+
+    @Test
+    void proxyDownloadRequestsIdentityEncoding() throws Exception {
+        this.startStorageServer(false);
+        MockHttpServletResponse response = this.download();
+
+        assertThat(acceptEncoding.get()).isEqualTo("identity");
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("Content-Length")).isEqualTo(String.valueOf(CONTENT.length));
+        assertThat(response.getHeader("ETag")).isEqualTo("\"v1\"");
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void proxyDownloadDropsCompressedLengthWhenStorageIgnoresIdentity() throws Exception {
+        this.startStorageServer(true);
+        MockHttpServletResponse response = this.download();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("Content-Length")).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void chunkUploadResumesAndCompletesWithDigest() throws Exception {
+        byte[] content = content(PART_SIZE * 2 + 100, 1);
+        DevFileChunkResult init = this.chunkInit(content.length);
+        assertThat(init.getPartCount()).isEqualTo(3);
+        assertThat(init.getPartSize()).isEqualTo((long) PART_SIZE);
+
+        this.chunkUpload(init.getUploadId(), 1, content);
+        this.chunkUpload(init.getUploadId(), 3, content);
+        // 分片大小不符时拒绝
+        assertThatThrownBy(() -> devFileService.chunkUpload(this.chunkUploadParam(init.getUploadId(), 2),
+                new MockMultipartFile("file", new byte[10]))).isInstanceOf(CommonException.class);
+        // 未上传完整时不能合并，按已上传分片续传
+        assertThatThrownBy(() -> devFileService.chunkComplete(this.chunkIdParam(init.getUploadId()))).isInstanceOf(CommonException.class);
+        assertThat(devFileService.chunkStatus(this.chunkIdParam(init.getUploadId())).getUploadedPartList()).containsExactly(1, 3);
+        this.chunkUpload(init.getUploadId(), 2, content);
+        // 重复上传同一分片时覆盖
+        this.chunkUpload(init.getUploadId(), 2, content);
+
+        String fileId = devFileService.chunkComplete(this.chunkIdParam(init.getUploadId()));
+        DevFile devFile = table.get(fileId);
+        assertThat(FileUtil.readBytes(devFile.getStoragePath())).isEqualTo(content);
+        assertThat(JSONUtil.parseObj(devFile.getExtJson()).getStr("sha256")).isEqualTo(DigestUtil.sha256Hex(content));
+        // 合并后会话与暂存分片被删除
+        assertThatThrownBy(() -> devFileService.chunkStatus(this.chunkIdParam(init.getUploadId()))).isInstanceOf(CommonException.class);
+        assertThat(FileUtil.file(uploadFolder.toFile(), ".chunk", init.getUploadId())).doesNotExist();
+    }
+
+    @Test
+    void remoteEngineChunksAreSharedAcrossNodes() throws Exception {
+        Map<String, byte[]> bucket = new ConcurrentHashMap<>();
+        try (MockedStatic<DevFileMinIoUtil> minIoUtil = mockStatic(DevFileMinIoUtil.class)) {
+            minIoUtil.when(DevFileMinIoUtil::getDefaultBucketName).thenReturn("bucket");
+            minIoUtil.when(() -> DevFileMinIoUtil.storageFile(anyString(), anyString(), any(InputStream.class), anyLong()))
+                    .thenAnswer(invocation -> bucket.put(invocation.getArgument(1), invocation.<InputStream>getArgument(2).readAllBytes()));
+            minIoUtil.when(() -> DevFileMinIoUtil.storageFileWithReturnUrl(anyString(), anyString(), any(InputStream.class), anyLong()))
+                    .thenAnswer(invocation -> {
+                        bucket.put(invocation.getArgument(1), invocation.<InputStream>getArgument(2).readAllBytes());
+                        return "http://minio/bucket/" + invocation.getArgument(1);
+                    });
+            minIoUtil.when(() -> DevFileMinIoUtil.getFileInputStream(anyString(), anyString())).thenAnswer(invocation -> {
+                byte[] object = bucket.get(invocation.<String>getArgument(1));
+                if (object == null) {
+                    throw new CommonException("对象不存在");
+                }
+                return new ByteArrayInputStream(object);
+            });
+            minIoUtil.when(() -> DevFileMinIoUtil.deleteFile(anyString(), anyString()))
+                    .thenAnswer(invocation -> bucket.remove(invocation.<String>getArgument(1)));
+
+            byte[] content = content(PART_SIZE * 2 + 100, 5);
+            DevFileChunkInitParam devFileChunkInitParam = new DevFileChunkInitParam();
+            devFileChunkInitParam.setFileName("a.bin");
+            devFileChunkInitParam.setFileSize((long) content.length);
+            devFileChunkInitParam.setPartSize((long) PART_SIZE);
+            String uploadId = devFileService.chunkInit("MINIO", devFileChunkInitParam).getUploadId();
+            // 负载均衡将分片分发到不同节点，各节点的本地目录互不可见
+            this.chunkUpload(uploadId, 1, content);
+            nodeUploadFolder.set(otherNodeUploadFolder);
+            this.chunkUpload(uploadId, 2, content);
+            nodeUploadFolder.set(uploadFolder);
+            this.chunkUpload(uploadId, 3, content);
+            assertThat(bucket).containsOnlyKeys(".chunk/" + uploadId + "/1", ".chunk/" + uploadId + "/2", ".chunk/" + uploadId + "/3");
+
+            // 在另一节点合并
+            nodeUploadFolder.set(otherNodeUploadFolder);
+            String fileId = devFileService.chunkComplete(this.chunkIdParam(uploadId));
+            DevFile devFile = table.get(fileId);
+            assertThat(devFile.getEngine()).isEqualTo("MINIO");
+            assertThat(bucket.get(devFile.getFileKey())).isEqualTo(content);
+            assertThat(JSONUtil.parseObj(devFile.getExtJson()).getStr("sha256")).isEqualTo(DigestUtil.sha256Hex(content));
+            // 合并后暂存对象被删除，且未写入任何节点的本地目录
+            assertThat(bucket).containsOnlyKeys(devFile.getFileKey());
+            assertThat(FileUtil.file(uploadFolder.toFile(), ".chunk", uploadId)).doesNotExist();
+            assertThat(FileUtil.file(otherNodeUploadFolder.toFile(), ".chunk", uploadId)).doesNotExist();
+        }
+    }
+
+    @Test
+    void sameContentReusesStoredObjectAcrossChunkAndSimpleUpload() throws Exception {
+        byte[] content = content(PART_SIZE + 10, 2);
+        String firstId = this.chunkUploadAll(content);
+        String secondId = devFileService.uploadReturnId("LOCAL", new MockMultipartFile("file", "b.bin", null, content));
+
+        assertThat(table.get(secondId).getFileKey()).isEqualTo(table.get(firstId).getFileKey());
+        assertThat(table.get(secondId).getStoragePath()).isEqualTo(table.get(firstId).getStoragePath());
+    }
+
+    @Test
+    void storedObjectIsKeptWhileLogicallyDeletedFilesReferenceIt() throws Exception {
+        byte[] content = content(100, 3);
+        String firstId = devFileService.uploadReturnId("LOCAL", new MockMultipartFile("file", "a.bin", null, content));
+        String secondId = devFileService.uploadReturnId("LOCAL", new MockMultipartFile("file", "b.bin", null, content));
+        File storedFile = FileUtil.file(table.get(firstId).getStoragePath());
+        logicallyDeletedIdSet.add(secondId);
+
+        devFileService.deleteAbsolute(this.idParam(firstId));
+        assertThat(table).doesNotContainKey(firstId);
+        assertThat(storedFile).exists();
+        verify(devFileThumbnailPipeline, never()).delete(any());
+
+        // 最后一个引用被物理删除时删除存储对象及其衍生图
+        logicallyDeletedIdSet.remove(secondId);
+        DevFile secondDevFile = table.get(secondId);
+        devFileService.deleteAbsolute(this.idParam(secondId));
+        assertThat(table).isEmpty();
+        assertThat(storedFile).doesNotExist();
+        verify(devFileThumbnailPipeline).delete(secondDevFile);
+    }
+
+    @Test
+    void digestHitWaitsForConcurrentDelete() throws Exception {
+        byte[] content = content(100, 4);
+        String firstId = devFileService.uploadReturnId("LOCAL", new MockMultipartFile("file", "a.bin", null, content));
+        String lockKey = "dev:file:digest:LOCAL:defaultBucketName:" + DigestUtil.sha256Hex(content) + ":lock";
+        // 模拟另一节点正在物理删除该文件
+        redis.getStringRedisTemplate().opsForValue().set(lockKey, "other-node", 30, TimeUnit.SECONDS);
+        CompletableFuture<String> upload = CompletableFuture.supplyAsync(() -> {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+            return devFileService.uploadReturnId("LOCAL", new MockMultipartFile("file", "b.bin", null, content));
+        });
+        ThreadUtil.sleep(300);
+        assertThat(upload).isNotDone();
+
+        String firstFileKey = table.remove(firstId).getFileKey();
+        redis.getStringRedisTemplate().delete(lockKey);
+        String secondId = upload.get(10, TimeUnit.SECONDS);
+        // 原文件已删除，秒传索引失效，重新存储
+        assertThat(table.get(secondId).getFileKey()).isNotEqualTo(firstFileKey);
+        assertThat(FileUtil.readBytes(table.get(secondId).getStoragePath())).isEqualTo(content);
+    }
+
+    private String chunkUploadAll(byte[] content) throws Exception {
+        DevFileChunkResult init = this.chunkInit(content.length);
+        for (int partNumber = 1; partNumber <= init.getPartCount(); partNumber++) {
+            this.chunkUpload(init.getUploadId(), partNumber, content);
+        }
+        return devFileService.chunkComplete(this.chunkIdParam(init.getUploadId()));
+    }
+
+    private DevFileChunkResult chunkInit(long fileSize) {
+        DevFileChunkInitParam devFileChunkInitParam = new DevFileChunkInitParam();
+        devFileChunkInitParam.setFileName("a.bin");
+        devFileChunkInitParam.setFileSize(fileSize);
+        devFileChunkInitParam.setPartSize((long) PART_SIZE);
+        return devFileService.chunkInit("LOCAL", devFileChunkInitParam);
+    }
+
+    private void chunkUpload(String uploadId, int partNumber, byte[] content) {
+        int start = (partNumber - 1) * PART_SIZE;
+        byte[] part = ArrayUtil.sub(content, start, Math.min(start + PART_SIZE, content.length));
+        devFileService.chunkUpload(this.chunkUploadParam(uploadId, partNumber), new MockMultipartFile("file", part));
+    }
+
+    private DevFileChunkUploadParam chunkUploadParam(String uploadId, int partNumber) {
+        DevFileChunkUploadParam devFileChunkUploadParam = new DevFileChunkUploadParam();
+        devFileChunkUploadParam.setUploadId(uploadId);
+        devFileChunkUploadParam.setPartNumber(partNumber);
+        return devFileChunkUploadParam;
+    }
+
+    private DevFileChunkIdParam chunkIdParam(String uploadId) {
+        DevFileChunkIdParam devFileChunkIdParam = new DevFileChunkIdParam();
+        devFileChunkIdParam.setUploadId(uploadId);
+        return devFileChunkIdParam;
+    }
+
+    private DevFileIdParam idParam(String id) {
+        DevFileIdParam devFileIdParam = new DevFileIdParam();
+        devFileIdParam.setId(id);
+        return devFileIdParam;
+    }
+
+    private static byte[] content(int length, int seed) {
+        byte[] content = new byte[length];
+        new Random(seed).nextBytes(content);
+        return content;
+    }
+
+    private MockHttpServletResponse download() throws Exception {
+        DevFile devFile = new DevFile();
+        devFile.setId("1");
+        devFile.setName("a.txt");
+        devFile.setEngine("MINIO");
+        devFile.setStoragePath("http://127.0.0.1:" + storageServer.getAddress().getPort() + "/bucket/a.txt");
+        table.put(devFile.getId(), devFile);
+        DevFileIdParam devFileIdParam = new DevFileIdParam();
+        devFileIdParam.setId("1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        devFileService.download(devFileIdParam, response);
+        return response;
+    }
+
+    /**
+     * 启动存储服务，alwaysGzip为true时忽略Accept-Encoding始终返回压缩内容
+     */
+    private void startStorageServer(boolean alwaysGzip) throws Exception {
+        storageServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        storageServer.createContext("/bucket/a.txt", exchange -> {
+            acceptEncoding.set(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            byte[] body = CONTENT;
+            if (alwaysGzip) {
+                ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+                    gzipOutputStream.write(CONTENT);
+                }
+                body = byteArrayOutputStream.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        storageServer.start();
+    }
+}
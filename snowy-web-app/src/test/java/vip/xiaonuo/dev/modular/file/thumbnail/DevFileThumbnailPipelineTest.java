@@ -0,0 +1,141 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.file.thumbnail;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.extra.spring.SpringUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.dev.api.DevConfigApi;
+import vip.xiaonuo.dev.modular.file.entity.DevFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 图片衍生图流水线测试
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class DevFileThumbnailPipelineTest {
+
+    private static final String BUCKET = "defaultBucketName";
+
+    private final DevFileThumbnailPipeline devFileThumbnailPipeline = new DevFileThumbnailPipeline();
+
+    @TempDir
+    Path uploadFolder;
+
+    @BeforeEach
+    void setUp() {
+        // 本地存储目录来自系统配置
+        DevConfigApi devConfigApi = mock(DevConfigApi.class);
+        when(devConfigApi.getValueByKey(anyString())).thenReturn(uploadFolder.toString());
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.registerBean(DevConfigApi.class, () -> devConfigApi);
+        applicationContext.refresh();
+        new SpringUtil().setApplicationContext(applicationContext);
+    }
+
+    @AfterEach
+    void tearDown() {
+        devFileThumbnailPipeline.destroy();
+    }
+
+    @Test
+    void writeGeneratesAllSizesOnDemandAndDeleteRemovesThem() throws Exception {
+        DevFile devFile = this.storeImage("2026/10/18/1.png", 1600, 1200);
+
+        MockHttpServletResponse response = this.write(devFile, 300);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(response.getContentAsByteArray()));
+        assertThat(Math.max(thumbnail.getWidth(), thumbnail.getHeight())).isEqualTo(300);
+        for (Integer size : DevFileThumbnailPipeline.SIZE_LIST) {
+            assertThat(this.thumbnailFile(devFile, size)).exists();
+        }
+
+        devFileThumbnailPipeline.delete(devFile);
+        for (Integer size : DevFileThumbnailPipeline.SIZE_LIST) {
+            assertThat(this.thumbnailFile(devFile, size)).doesNotExist();
+        }
+        // 删除后不再视为已生成，再次请求时重新生成
+        assertThat(this.write(devFile, 100).getStatus()).isEqualTo(200);
+        assertThat(this.thumbnailFile(devFile, 100)).exists();
+    }
+
+    @Test
+    void writeFailsFastWhenGenerationPoolIsSaturated() throws Exception {
+        DevFile devFile = this.storeImage("2026/10/18/2.jpg", 400, 300);
+        ThreadPoolExecutor thumbnailPool = (ThreadPoolExecutor) ReflectionTestUtils.getField(devFileThumbnailPipeline, "thumbnailPool");
+        CountDownLatch release = new CountDownLatch(1);
+        // 两个工作线程各执行一个阻塞任务，其余任务占满队列
+        while (thumbnailPool.getQueue().remainingCapacity() > 0) {
+            thumbnailPool.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        try {
+            assertThatThrownBy(() -> this.write(devFile, 100)).isInstanceOf(CommonException.class).hasMessageContaining("繁忙");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private DevFile storeImage(String fileKey, int width, int height) throws Exception {
+        DevFile devFile = new DevFile();
+        devFile.setId(fileKey);
+        devFile.setEngine("LOCAL");
+        devFile.setBucket(BUCKET);
+        devFile.setFileKey(fileKey);
+        devFile.setSuffix(FileUtil.getSuffix(fileKey));
+        File file = FileUtil.file(uploadFolder.toFile(), BUCKET, fileKey);
+        FileUtil.mkParentDirs(file);
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), devFile.getSuffix(), file);
+        return devFile;
+    }
+
+    private File thumbnailFile(DevFile devFile, int size) {
+        String formatName = "png".equals(devFile.getSuffix()) ? "png" : "jpg";
+        return FileUtil.file(uploadFolder.toFile(), BUCKET, "thumbnail", devFile.getFileKey() + "_" + size + "." + formatName);
+    }
+
+    private MockHttpServletResponse write(DevFile devFile, int size) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        devFileThumbnailPipeline.write(devFile, size, new MockHttpServletRequest(), response);
+        return response;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.stat;
+
+import cn.hutool.core.date.DateTime;
+import cn.hutool.core.date.DateUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.RedisTestServer;
+import vip.xiaonuo.dev.modular.log.entity.DevLog;
+import vip.xiaonuo.dev.modular.log.mapper.DevLogMapper;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 日志统计汇总测试，重建期间的并发累加既不重复也不遗漏
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class DevLogStatRollupTest {
+
+    private static final String LOGIN = "LOGIN";
+
+    private static final String LOGOUT = "LOGOUT";
+
+    private final RedisTestServer redis = RedisTestServer.get();
+
+    /** 模拟的日志表 */
+    private final List<DevLog> table = new ArrayList<>();
+
+    private final DevLogMapper devLogMapper = mock(DevLogMapper.class);
+
+    private final DevLogStatRollup devLogStatRollup = new DevLogStatRollup();
+
+    /** 分组统计执行时模拟其他节点提交并累加的日志 */
+    private List<DevLog> committedDuringRebuild = List.of();
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+        ReflectionTestUtils.setField(devLogStatRollup, "stringRedisTemplate", redis.getStringRedisTemplate());
+        ReflectionTestUtils.setField(devLogStatRollup, "devLogMapper", devLogMapper);
+        // 重建只统计水位（至少一分钟前）之前创建的日志，测试中的日志创建于十分钟前或当前
+        when(devLogMapper.selectMaps(any())).thenAnswer(invocation -> {
+            Date before = DateUtil.offsetMinute(new Date(), -5);
+            Map<String, Long> countMap = new HashMap<>();
+            table.stream().filter(devLog -> devLog.getCreateTime().before(before))
+                    .forEach(devLog -> countMap.merge(devLog.getCategory(), 1L, Long::sum));
+            this.commit(committedDuringRebuild);
+            List<Map<String, Object>> rowList = new ArrayList<>();
+            countMap.forEach((category, count) -> rowList.add(Map.of("category", category, "exe_status", "SUCCESS", "total", count)));
+            return rowList;
+        });
+    }
+
+    @Test
+    void rebuildMergesBatchesAccumulatedConcurrently() {
+        // 水位之前提交的日志只由分组统计计入，其分桶不在合并范围内
+        this.commit(logs(LOGIN, 3, true));
+        // 汇总尚未建立时提交的日志
+        this.commit(logs(LOGIN, 2, false));
+        committedDuringRebuild = logs(LOGIN, 1, false);
+
+        assertThat(devLogStatRollup.totalCategoryCount()).containsEntry(LOGIN, 6L);
+        verify(devLogMapper, times(1)).selectMaps(any());
+
+        committedDuringRebuild = List.of();
+        this.commit(logs(LOGIN, 1, false));
+        // 水位之前创建的日志已由分组统计计入，迟到的累加被跳过
+        devLogStatRollup.accumulate(logs(LOGIN, 1, true));
+        assertThat(devLogStatRollup.totalCategoryCount()).containsEntry(LOGIN, 7L);
+        verify(devLogMapper, times(1)).selectMaps(any());
+    }
+
+    @Test
+    void dayRollupsExpireAndTotalIsKept() {
+        this.commit(logs(LOGIN, 1, false));
+        devLogStatRollup.totalCategoryCount();
+        devLogStatRollup.dayCategoryCount(DateTime.now());
+
+        assertThat(redis.getStringRedisTemplate().getExpire("dev:log:stat:total")).isEqualTo(-1L);
+        assertThat(redis.getStringRedisTemplate().hasKey("dev:log:stat:total:lock")).isFalse();
+        assertThat(redis.getStringRedisTemplate().getExpire("dev:log:stat:day:" + DateUtil.today(), TimeUnit.DAYS)).isBetween(1L, 8L);
+        assertThat(redis.getStringRedisTemplate().keys("dev:log:stat:*:rebuild:*")).isEmpty();
+    }
+
+    @Test
+    void invalidateDropsPendingCountsOfDeletedCategory() {
+        this.commit(logs(LOGIN, 2, false));
+        this.commit(logs(LOGOUT, 3, false));
+        assertThat(devLogStatRollup.totalCategoryCount()).containsEntry(LOGIN, 2L).containsEntry(LOGOUT, 3L);
+
+        table.removeIf(devLog -> LOGIN.equals(devLog.getCategory()));
+        devLogStatRollup.invalidate(LOGIN);
+
+        assertThat(devLogStatRollup.totalCategoryCount()).doesNotContainKey(LOGIN).containsEntry(LOGOUT, 3L);
+        assertThat(devLogStatRollup.dayCategoryCount(DateTime.now())).doesNotContainKey(LOGIN).containsEntry(LOGOUT, 3L);
+    }
+
+    @Test
+    void onlyLockHolderRebuildsTotalWhileOthersServeLastValue() {
+        this.commit(logs(LOGIN, 2, false));
+        assertThat(devLogStatRollup.totalCategoryCount()).containsEntry(LOGIN, 2L);
+        table.clear();
+        devLogStatRollup.invalidate(LOGIN);
+
+        // 其他调用方持有重建锁时不做全表统计，返回失效前的计数
+        redis.getStringRedisTemplate().opsForValue().set("dev:log:stat:total:lock", "other");
+        assertThat(devLogStatRollup.totalCategoryCount()).containsEntry(LOGIN, 2L);
+        verify(devLogMapper, times(1)).selectMaps(any());
+
+        redis.getStringRedisTemplate().delete("dev:log:stat:total:lock");
+        assertThat(devLogStatRollup.totalCategoryCount()).doesNotContainKey(LOGIN);
+        verify(devLogMapper, times(2)).selectMaps(any());
+        assertThat(redis.getStringRedisTemplate().getExpire("dev:log:stat:total")).isEqualTo(-1L);
+    }
+
+    /**
+     * 模拟日志写入器提交一批日志后累加
+     */
+    private void commit(List<DevLog> devLogList) {
+        table.addAll(devLogList);
+        devLogStatRollup.accumulate(devLogList);
+    }
+
+    private static List<DevLog> logs(String category, int count, boolean old) {
+        Date createTime = old ? DateUtil.offsetMinute(new Date(), -10) : new Date();
+        List<DevLog> devLogList = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            DevLog devLog = new DevLog();
+            devLog.setCategory(category);
+            devLog.setExeStatus("SUCCESS");
+            devLog.setOpTime(createTime);
+            devLog.setCreateTime(createTime);
+            devLogList.add(devLog);
+        }
+        return devLogList;
+    }
+}
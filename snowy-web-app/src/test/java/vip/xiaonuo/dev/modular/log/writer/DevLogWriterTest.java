@@ -0,0 +1,192 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.writer;
+
+import cn.hutool.core.util.IdUtil;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.dev.modular.log.entity.DevLog;
+import vip.xiaonuo.dev.modular.log.param.DevLogChainVerifyParam;
+import vip.xiaonuo.dev.modular.log.result.DevLogChainVerifyResult;
+import vip.xiaonuo.dev.modular.log.service.DevLogService;
+import vip.xiaonuo.dev.modular.log.stat.DevLogStatRollup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 日志哈希链写入与校验测试
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class DevLogWriterTest {
+
+    private static final String NODE_ID = "node-1";
+
+    private static final long OP_TIME_MILLIS = 1760800000000L;
+
+    /** 模拟的日志表 */
+    private final List<DevLog> table = new ArrayList<>();
+
+    private final AtomicBoolean failNextSave = new AtomicBoolean();
+
+    private final DevLogService devLogService = mock(DevLogService.class);
+
+    private final DevLogChainVerifier devLogChainVerifier = new DevLogChainVerifier();
+
+    @BeforeAll
+    static void initTableInfo() {
+        if (TableInfoHelper.getTableInfo(DevLog.class) == null) {
+            TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), DevLog.class);
+        }
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(devLogService.saveBatch(anyCollection(), anyInt())).thenAnswer(invocation -> {
+            if (failNextSave.getAndSet(false)) {
+                throw new IllegalStateException("数据库不可用");
+            }
+            List<DevLog> devLogList = invocation.getArgument(0);
+            devLogList.forEach(devLog -> {
+                devLog.setId(IdUtil.getSnowflakeNextIdStr());
+                // OP_TIME为datetime类型，小数秒按四舍五入保存
+                devLog.setOpTime(new Date(Math.round(devLog.getOpTime().getTime() / 1000.0) * 1000));
+            });
+            table.addAll(devLogList);
+            return true;
+        });
+        // 链尾查询按签名数据倒序取第一条，校验查询按签名数据正序取全部
+        when(devLogService.page(any(Page.class), any())).thenAnswer(invocation -> {
+            Page<DevLog> page = invocation.getArgument(0);
+            List<DevLog> sortedList = new ArrayList<>(table);
+            sortedList.sort(Comparator.comparing(DevLog::getSignData));
+            if (page.getSize() == 1) {
+                return page.setRecords(sortedList.isEmpty() ? List.of() : List.of(sortedList.get(sortedList.size() - 1)));
+            }
+            return page.setRecords(sortedList);
+        });
+        DevLogWriter devLogWriter = this.newWriter();
+        ReflectionTestUtils.setField(devLogChainVerifier, "devLogService", devLogService);
+        ReflectionTestUtils.setField(devLogChainVerifier, "devLogWriter", devLogWriter);
+    }
+
+    @Test
+    void chainStartsAtGenesisAndVerifies() {
+        this.newWriter().flush(logs(3));
+        assertThat(table).extracting(devLog -> DevLogChain.parse(devLog.getSignData()).getSeq()).containsExactly(1L, 2L, 3L);
+        assertThat(DevLogChain.parse(table.get(2).getSignData()).getSignature()).isNotNull();
+        assertThat(DevLogChain.parse(table.get(1).getSignData()).getSignature()).isNull();
+
+        assertThat(table).extracting(DevLog::getOpTime).containsOnly(new Date(OP_TIME_MILLIS));
+
+        DevLogChainVerifyResult result = this.verify();
+        assertThat(result.getCheckedCount()).isEqualTo(3);
+        assertThat(result.getLastSeq()).isEqualTo(3);
+        assertThat(result.getBrokenCount()).isZero();
+        assertThat(result.getBadSignatureCount()).isZero();
+        assertThat(result.getGapCount()).isZero();
+    }
+
+    @Test
+    void failedBatchDoesNotAdvanceChainAndRestartResumesFromDatabase() {
+        DevLogWriter devLogWriter = this.newWriter();
+        devLogWriter.flush(logs(2));
+        failNextSave.set(true);
+        devLogWriter.flush(logs(2));
+        devLogWriter.flush(logs(2));
+        // 重启后的写入器从数据库中的链尾继续
+        this.newWriter().flush(logs(2));
+
+        assertThat(table).extracting(devLog -> DevLogChain.parse(devLog.getSignData()).getSeq())
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        DevLogChainVerifyResult result = this.verify();
+        assertThat(result.getCheckedCount()).isEqualTo(6);
+        assertThat(result.getBrokenCount()).isZero();
+        assertThat(result.getGapCount()).isZero();
+    }
+
+    @Test
+    void tamperingAndDeletionAreReported() {
+        this.newWriter().flush(logs(5));
+        table.get(1).setParamJson("{\"tampered\":true}");
+        table.remove(3);
+        String lastSignData = table.get(3).getSignData();
+        table.get(3).setSignData(lastSignData.substring(0, lastSignData.indexOf('.') + 1) + "00" + lastSignData.substring(lastSignData.indexOf('.') + 3));
+
+        DevLogChainVerifyResult result = this.verify();
+        assertThat(result.getCheckedCount()).isEqualTo(4);
+        assertThat(result.getBrokenCount()).isEqualTo(1);
+        assertThat(result.getFirstBrokenId()).isEqualTo(table.get(1).getId());
+        assertThat(result.getGapCount()).isEqualTo(1);
+        assertThat(result.getBadSignatureCount()).isEqualTo(1);
+    }
+
+    @Test
+    void nodeIdIsNormalized() {
+        assertThat(DevLogChain.normalizeNodeId("host.example_1:8080%")).isEqualTo("host-example-1-8080-");
+        assertThat(DevLogChain.parse("legacy-signature")).isNull();
+    }
+
+    private DevLogChainVerifyResult verify() {
+        DevLogChainVerifyParam devLogChainVerifyParam = new DevLogChainVerifyParam();
+        devLogChainVerifyParam.setNodeId(NODE_ID);
+        return devLogChainVerifier.verify(devLogChainVerifyParam);
+    }
+
+    private DevLogWriter newWriter() {
+        // 测试环境不加载IP地址库
+        DevLogWriter devLogWriter = new DevLogWriter() {
+            @Override
+            String resolveOpAddress(String opIp) {
+                return "内网IP";
+            }
+        };
+        ReflectionTestUtils.setField(devLogWriter, "devLogService", devLogService);
+        ReflectionTestUtils.setField(devLogWriter, "devLogStatRollup", mock(DevLogStatRollup.class));
+        ReflectionTestUtils.setField(devLogWriter, "nodeId", NODE_ID);
+        return devLogWriter;
+    }
+
+    private static List<DevLog> logs(int count) {
+        List<DevLog> devLogList = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            DevLog devLog = new DevLog();
+            devLog.setCategory("OPERATE");
+            devLog.setName("操作" + i);
+            devLog.setExeStatus("SUCCESS");
+            devLog.setOpIp("127.0.0.1");
+            devLog.setParamJson("{\"i\":" + i + "}");
+            // 带毫秒的操作时间，入库时会被数据库舍入
+            devLog.setOpTime(new Date(OP_TIME_MILLIS + 600 + i));
+            devLog.setOpUser("超管");
+            devLogList.add(devLog);
+        }
+        return devLogList;
+    }
+}
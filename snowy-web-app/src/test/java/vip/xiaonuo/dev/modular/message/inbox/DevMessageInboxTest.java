@@ -0,0 +1,184 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.message.inbox;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vip.xiaonuo.RedisTestServer;
+import vip.xiaonuo.dev.modular.message.entity.DevMessage;
+import vip.xiaonuo.dev.modular.message.mapper.DevMessageMapper;
+import vip.xiaonuo.dev.modular.relation.entity.DevRelation;
+import vip.xiaonuo.dev.modular.relation.enums.DevRelationCategoryEnum;
+import vip.xiaonuo.dev.modular.relation.service.DevRelationService;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 站内信收件箱索引测试，索引按关系表重建后分页、未读数、投递、已读与删除均只操作Redis
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class DevMessageInboxTest {
+
+    private final DevMessageMapper devMessageMapper = mock(DevMessageMapper.class);
+
+    private final DevRelationService devRelationService = mock(DevRelationService.class);
+
+    private final Map<String, DevMessage> messageMap = new LinkedHashMap<>();
+
+    private final Map<String, List<DevRelation>> relationMap = new HashMap<>();
+
+    private DevMessageInbox devMessageInbox;
+
+    @BeforeAll
+    static void initTableInfo() {
+        if (TableInfoHelper.getTableInfo(DevMessage.class) == null) {
+            TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), DevMessage.class);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        RedisTestServer.get().flushAll();
+        when(devMessageMapper.selectList(any())).thenAnswer(invocation -> new ArrayList<>(messageMap.values()));
+        when(devRelationService.getRelationListByTargetIdAndCategory(anyString(), eq(DevRelationCategoryEnum.MSG_TO_USER.getValue())))
+                .thenAnswer(invocation -> relationMap.getOrDefault(invocation.<String>getArgument(0), List.of()));
+        devMessageInbox = new DevMessageInbox();
+        ReflectionTestUtils.setField(devMessageInbox, "stringRedisTemplate", RedisTestServer.get().getStringRedisTemplate());
+        ReflectionTestUtils.setField(devMessageInbox, "devMessageMapper", devMessageMapper);
+        ReflectionTestUtils.setField(devMessageInbox, "devRelationService", devRelationService);
+        // u1收到m1至m5，m2已读，奇数为SYS分类、偶数为BIZ分类
+        for (int i = 1; i <= 5; i++) {
+            message("m" + i, i % 2 == 1 ? "SYS" : "BIZ", i);
+            relation("m" + i, "u1", i == 2);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void inboxIsRebuiltOnceFromRelationsAndPagedNewestFirst() {
+        assertEquals(4, devMessageInbox.unreadCount("u1"));
+        assertEquals(List.of("m5", "m4"), devMessageInbox.unreadMessageIdList("u1", 2));
+
+        Page<String> firstPage = devMessageInbox.page(List.of("u1"), null, 1, 2);
+        assertEquals(5, firstPage.getTotal());
+        assertEquals(List.of("m5", "m4"), firstPage.getRecords());
+        assertEquals(List.of("m1"), devMessageInbox.page(List.of("u1"), null, 3, 2).getRecords());
+
+        Page<String> categoryPage = devMessageInbox.page(List.of("u1"), "SYS", 1, 10);
+        assertEquals(3, categoryPage.getTotal());
+        assertEquals(List.of("m5", "m3", "m1"), categoryPage.getRecords());
+        assertEquals(Set.of("m1", "m3"), devMessageInbox.unreadMessageIdSet(List.of("u1"), List.of("m1", "m2", "m3")));
+        // 重建时已写入全部集合及占位成员，之后的查询不再读取关系表
+        verify(devRelationService, times(1)).getRelationListByTargetIdAndCategory(anyString(), anyString());
+    }
+
+    @Test
+    void userWithoutMessagesIsMarkedLoaded() {
+        assertEquals(0, devMessageInbox.unreadCount("u9"));
+        Page<String> page = devMessageInbox.page(List.of("u9"), null, 1, 10);
+        assertEquals(0, page.getTotal());
+        assertTrue(page.getRecords().isEmpty());
+        verify(devRelationService, times(1)).getRelationListByTargetIdAndCategory(anyString(), anyString());
+    }
+
+    @Test
+    void deliverMarkReadAndRemoveUpdateTheIndex() {
+        assertEquals(4, devMessageInbox.unreadCount("u1"));
+        devMessageInbox.deliver("m6", "BIZ", new Date(6000), List.of("u1", "u1"));
+        assertEquals(5, devMessageInbox.unreadCount("u1"));
+        assertEquals(List.of("m6"), devMessageInbox.page(List.of("u1"), "BIZ", 1, 1).getRecords());
+
+        devMessageInbox.markRead("u1", "m6");
+        assertEquals(4, devMessageInbox.unreadCount("u1"));
+        devMessageInbox.markAllRead("u1");
+        assertEquals(0, devMessageInbox.unreadCount("u1"));
+        assertTrue(devMessageInbox.unreadMessageIdList("u1", 10).isEmpty());
+
+        DevMessage m6 = message("m6", "BIZ", 6);
+        devMessageInbox.remove(List.of(m6), List.of(relation("m6", "u1", true)));
+        assertEquals(5, devMessageInbox.page(List.of("u1"), null, 1, 10).getTotal());
+        assertEquals(List.of("m4", "m2"), devMessageInbox.page(List.of("u1"), "BIZ", 1, 10).getRecords());
+        // 全部已读后未读集合仍保留占位成员，不会再次按关系表重建
+        verify(devRelationService, times(1)).getRelationListByTargetIdAndCategory(anyString(), anyString());
+    }
+
+    @Test
+    void multipleReceiversAreMergedWithoutDuplicates() {
+        message("m7", "SYS", 7);
+        relation("m1", "u2", false);
+        relation("m7", "u2", false);
+
+        Page<String> page = devMessageInbox.page(List.of("u1", "u2"), null, 1, 3);
+        assertEquals(List.of("m7", "m5", "m4"), page.getRecords());
+        // m1同时发给两个接收人，总数按去重后的消息计算
+        assertEquals(6, page.getTotal());
+        assertEquals(List.of("m1"), devMessageInbox.page(List.of("u1", "u2"), null, 2, 5).getRecords());
+        assertEquals(List.of("m7", "m5", "m3", "m1"), devMessageInbox.page(List.of("u1", "u2"), "SYS", 1, 10).getRecords());
+        assertTrue(RedisTestServer.get().getStringRedisTemplate().keys("dev:message:union:*").isEmpty());
+        assertEquals(List.of("m2", "m1"), devMessageInbox.page(List.of("u1", "u2"), null, 3, 2).getRecords());
+        assertEquals(Set.of("m1", "m7"), devMessageInbox.unreadMessageIdSet(List.of("u1", "u2"), List.of("m1", "m2", "m7")));
+    }
+
+    @Test
+    void deliveryInTransactionIsWrittenAfterCommit() {
+        assertEquals(4, devMessageInbox.unreadCount("u1"));
+        TransactionSynchronizationManager.initSynchronization();
+        devMessageInbox.deliver("m6", "SYS", new Date(6000), List.of("u1"));
+        assertEquals(4, devMessageInbox.unreadCount("u1"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(5, devMessageInbox.unreadCount("u1"));
+    }
+
+    private DevMessage message(String id, String category, long createTime) {
+        DevMessage devMessage = new DevMessage();
+        devMessage.setId(id);
+        devMessage.setCategory(category);
+        devMessage.setCreateTime(new Date(createTime * 1000));
+        messageMap.put(id, devMessage);
+        return devMessage;
+    }
+
+    private DevRelation relation(String messageId, String receiverId, boolean read) {
+        DevRelation devRelation = new DevRelation();
+        devRelation.setObjectId(messageId);
+        devRelation.setTargetId(receiverId);
+        devRelation.setCategory(DevRelationCategoryEnum.MSG_TO_USER.getValue());
+        devRelation.setExtJson("{\"read\":" + read + "}");
+        relationMap.computeIfAbsent(receiverId, key -> new ArrayList<>()).add(devRelation);
+        return devRelation;
+    }
+}
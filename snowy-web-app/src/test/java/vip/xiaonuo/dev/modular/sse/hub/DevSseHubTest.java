@@ -0,0 +1,159 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.sse.hub;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import vip.xiaonuo.common.pojo.CommonResult;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SSE连接中心剔除卡住与消费过慢连接的测试
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class DevSseHubTest {
+
+    private final DevSseHub devSseHub = new DevSseHub();
+
+    @AfterEach
+    void tearDown() {
+        devSseHub.destroy();
+    }
+
+    @Test
+    void stalledSendIsEvictedWithoutBlockingOtherConnections() throws Exception {
+        ThreadPoolExecutor writerPool = (ThreadPoolExecutor) ReflectionTestUtils.getField(devSseHub, "writerPool");
+        int corePoolSize = writerPool.getCorePoolSize();
+        RecordingEmitter stuckEmitter = new RecordingEmitter(new CountDownLatch(1));
+        DevSseConnection stuck = this.connect("stuck", stuckEmitter);
+        devSseHub.send(stuck, message("1"));
+        assertThat(stuckEmitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 未超过期限时不剔除
+        devSseHub.evictStalled(System.currentTimeMillis());
+        assertThat(devSseHub.getConnection("stuck")).isNotNull();
+
+        devSseHub.evictStalled(System.currentTimeMillis() + 11_000);
+        assertThat(devSseHub.getConnection("stuck")).isNull();
+        assertThat(writerPool.getCorePoolSize()).isEqualTo(corePoolSize + 1);
+        // 剔除不获取发送锁，发送返回前连接尚未结束
+        assertThat(stuckEmitter.completed.get()).isZero();
+
+        // 其他连接的发送不受影响
+        for (int i = 0; i < corePoolSize; i++) {
+            RecordingEmitter emitter = new RecordingEmitter(null);
+            devSseHub.send(this.connect("client" + i, emitter), message("2"));
+            assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        stuckEmitter.release.countDown();
+        waitUntil(() -> stuckEmitter.completed.get() == 1);
+        waitUntil(() -> writerPool.getCorePoolSize() == corePoolSize);
+    }
+
+    @Test
+    void saturatedQueueIsClosed() {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        DevSseConnection devSseConnection = this.connect("slow", emitter);
+        for (int i = 0; i < 65; i++) {
+            devSseConnection.offer(SseEmitter.event().data(i));
+        }
+        assertThat(devSseConnection.getSaturatedSinceMillis()).isPositive();
+
+        devSseHub.evictStalled(System.currentTimeMillis());
+        assertThat(devSseHub.getConnection("slow")).isNotNull();
+
+        devSseHub.evictStalled(System.currentTimeMillis() + 31_000);
+        assertThat(devSseHub.getConnection("slow")).isNull();
+        assertThat(emitter.completed.get()).isEqualTo(1);
+    }
+
+    @Test
+    void drainedQueueClearsSaturation() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        DevSseConnection devSseConnection = this.connect("recovered", emitter);
+        for (int i = 0; i < 65; i++) {
+            devSseConnection.offer(SseEmitter.event().data(i));
+        }
+        devSseHub.send(devSseConnection, message("last"));
+        waitUntil(() -> emitter.sent.get() == 64 && devSseConnection.getSaturatedSinceMillis() == 0);
+        devSseHub.evictStalled(System.currentTimeMillis() + 31_000);
+        assertThat(devSseHub.getConnection("recovered")).isNotNull();
+    }
+
+    private DevSseConnection connect(String clientId, SseEmitter sseEmitter) {
+        DevSseConnection devSseConnection = new DevSseConnection(clientId, "user", sseEmitter, null);
+        devSseHub.addConnection(devSseConnection);
+        return devSseConnection;
+    }
+
+    private static CommonResult<String> message(String msg) {
+        return new CommonResult<>(CommonResult.CODE_SUCCESS, "", msg);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * 记录发送与结束的SseEmitter，release不为空时发送阻塞到放行
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch release;
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        private final AtomicInteger sent = new AtomicInteger();
+
+        private final AtomicInteger completed = new AtomicInteger();
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            sent.incrementAndGet();
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.incrementAndGet();
+        }
+    }
+}
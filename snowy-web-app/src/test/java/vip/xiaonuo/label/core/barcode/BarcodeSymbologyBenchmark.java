@@ -0,0 +1,168 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.barcode;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import vip.xiaonuo.label.core.barcode.symbology.*;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 码制引擎基准，对比各码制与改造前的伪条码绘制（LegacyPainter为原实现的副本，仅用于对比）
+ * 运行：先执行mvn test-compile，再以测试类路径运行本类main方法
+ *
+ * @author jetox
+ * @date 2026/10/18 23:50
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BarcodeSymbologyBenchmark {
+
+    private static final String TEXT = "WQS-20261018-000123";
+
+    @State(Scope.Thread)
+    public static class EngineState {
+
+        @Param({"CODE128", "CODE39", "QR", "DATAMATRIX", "EAN13", "PDF417"})
+        public String type;
+
+        BarcodeSymbology symbology;
+
+        BarcodeRenderer renderer;
+
+        String text;
+
+        ByteArrayOutputStream out;
+
+        @Setup
+        public void setup() {
+            BarcodeSymbologyRegistry registry = new BarcodeSymbologyRegistry(List.of(new Code128Symbology(), new Code39Symbology(),
+                    new QrCodeSymbology(), new DataMatrixSymbology(), new Ean13Symbology(), new Pdf417Symbology()));
+            symbology = registry.get(type);
+            renderer = new BarcodeRenderer();
+            text = switch (type) {
+                case "EAN13" -> "6901234567892";
+                case "CODE39" -> "WQS20261018000123";
+                default -> TEXT;
+            };
+            out = new ByteArrayOutputStream(16 * 1024);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LegacyState {
+
+        @Param({"CODE128", "CODE39", "QR"})
+        public String type;
+
+        ByteArrayOutputStream out;
+
+        @Setup
+        public void setup() {
+            out = new ByteArrayOutputStream(16 * 1024);
+        }
+    }
+
+    @Benchmark
+    public BufferedImage engineRender(EngineState state) {
+        return state.renderer.render(state.symbology, state.text, 300, 150);
+    }
+
+    @Benchmark
+    public void engineRenderPng(EngineState state, Blackhole blackhole) throws IOException {
+        state.out.reset();
+        BarcodeImageFormat.PNG.write(state.renderer.render(state.symbology, state.text, 300, 150), state.out);
+        blackhole.consume(state.out.size());
+    }
+
+    @Benchmark
+    public BufferedImage legacyRender(LegacyState state) {
+        return LegacyPainter.paint(state.type, TEXT, 300, 150);
+    }
+
+    @Benchmark
+    public void legacyRenderPng(LegacyState state, Blackhole blackhole) throws IOException {
+        state.out.reset();
+        ImageIO.write(LegacyPainter.paint(state.type, TEXT, 300, 150), "PNG", state.out);
+        blackhole.consume(state.out.size());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BarcodeSymbologyBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * 改造前BarcodeGeneratorServiceImpl的绘制逻辑，每次调用新建RGB图像、Graphics2D和Font
+     */
+    static final class LegacyPainter {
+
+        static BufferedImage paint(String type, String text, int width, int height) {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = image.createGraphics();
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(0, 0, width, height);
+            g2d.setColor(Color.BLACK);
+            if ("QR".equals(type)) {
+                int qrSize = Math.min(width, height) * 3 / 4;
+                int startX = (width - qrSize) / 2;
+                int startY = (height - qrSize) / 2;
+                int moduleSize = qrSize / 25;
+                Random random = new Random(text.hashCode());
+                for (int i = 0; i < 25; i++) {
+                    for (int j = 0; j < 25; j++) {
+                        boolean finder = (i < 7 && j < 7) || (i < 7 && j >= 18) || (i >= 18 && j < 7);
+                        boolean dark = finder ? (i == 0 || i == 6 || j == 0 || j == 6 || (i >= 2 && i <= 4 && j >= 2 && j <= 4))
+                                : random.nextDouble() > 0.5;
+                        if (dark) {
+                            g2d.fillRect(startX + j * moduleSize, startY + i * moduleSize, moduleSize, moduleSize);
+                        }
+                    }
+                }
+                g2d.dispose();
+                return image;
+            }
+            int bars = "CODE39".equals(type) ? 10 : 8;
+            int barWidth = Math.max(1, width / (text.length() * bars));
+            int barHeight = height * 2 / 3;
+            int startY = (height - barHeight) / 2;
+            for (int i = 0; i < text.length(); i++) {
+                int pattern = text.charAt(i) % 256;
+                for (int j = 0; j < bars - 1; j++) {
+                    if ((pattern & (1 << j)) != 0) {
+                        int currentBarWidth = bars == 10 && j % 3 == 0 ? barWidth * 3 : barWidth;
+                        g2d.fillRect(i * bars * barWidth + j * barWidth, startY, currentBarWidth, barHeight);
+                    }
+                }
+            }
+            g2d.setFont(new Font("Arial", Font.PLAIN, 12));
+            FontMetrics fm = g2d.getFontMetrics();
+            g2d.drawString(text, (width - fm.stringWidth(text)) / 2, startY + barHeight + 15);
+            g2d.dispose();
+            return image;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.barcode;
+
+import com.google.zxing.*;
+import com.google.zxing.common.HybridBinarizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.label.core.barcode.symbology.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 码制引擎测试，渲染结果须能被ZXing解码回原文
+ *
+ * @author jetox
+ * @date 2026/10/18 23:50
+ */
+public class BarcodeSymbologyTest {
+
+    private final BarcodeSymbologyRegistry registry = new BarcodeSymbologyRegistry(List.of(new Code128Symbology(),
+            new Code39Symbology(), new QrCodeSymbology(), new DataMatrixSymbology(), new Ean13Symbology(), new Pdf417Symbology()));
+
+    private final BarcodeRenderer renderer = new BarcodeRenderer();
+
+    @ParameterizedTest
+    @CsvSource({
+            "CODE128, WQS-20261018-000123",
+            "CODE39, WQS20261018",
+            "QR, https://www.xiaonuo.vip/label?code=000123",
+            "DATAMATRIX, WQS-20261018-000123",
+            "EAN13, 6901234567892",
+            "PDF417, WQS-20261018-000123"
+    })
+    public void renderedImageDecodesToText(String type, String text) throws Exception {
+        BufferedImage image = renderer.render(registry.get(type), text, 300, 150);
+        assertEquals(text, decode(image));
+    }
+
+    @Test
+    public void qrSupportsChinese() throws Exception {
+        String text = "雪花-标签-000123";
+        assertEquals(text, decode(renderer.render(registry.get("qr"), text, 200, 200)));
+    }
+
+    @Test
+    public void registryIsCaseInsensitiveAndRejectsUnknown() {
+        assertEquals("CODE128", registry.get("code128").getType());
+        assertThrows(CommonException.class, () -> registry.get("UPC"));
+        assertThrows(CommonException.class, () -> new BarcodeSymbologyRegistry(List.of(new QrCodeSymbology(), new QrCodeSymbology())));
+    }
+
+    @Test
+    public void invalidContentFailsWithCommonException() {
+        assertThrows(CommonException.class, () -> renderer.render(registry.get("EAN13"), "ABC", 300, 150));
+    }
+
+    @Test
+    public void sameSizeReusesThreadImage() {
+        BufferedImage first = renderer.render(registry.get("QR"), "A0001", 200, 200);
+        BufferedImage second = renderer.render(registry.get("QR"), "A0002", 200, 200);
+        assertSame(first, second);
+        assertEquals(BufferedImage.TYPE_BYTE_BINARY, first.getType());
+    }
+
+    /**
+     * 加白边后解码，部分码制的位矩阵不带静区
+     */
+    public static String decode(BufferedImage image) throws NotFoundException {
+        BufferedImage padded = new BufferedImage(image.getWidth() + 40, image.getHeight() + 40, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = padded.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, padded.getWidth(), padded.getHeight());
+        g2d.drawImage(image, 20, 20, null);
+        g2d.dispose();
+        int[] pixels = padded.getRGB(0, 0, padded.getWidth(), padded.getHeight(), null, 0, padded.getWidth());
+        LuminanceSource source = new RGBLuminanceSource(padded.getWidth(), padded.getHeight(), pixels);
+        Map<DecodeHintType, Object> hints = Map.of(DecodeHintType.TRY_HARDER, Boolean.TRUE, DecodeHintType.CHARACTER_SET, "UTF-8");
+        return new MultiFormatReader().decode(new BinaryBitmap(new HybridBinarizer(source)), hints).getText();
+    }
+}
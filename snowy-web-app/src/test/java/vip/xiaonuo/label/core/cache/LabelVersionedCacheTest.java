@@ -0,0 +1,99 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vip.xiaonuo.RedisTestServer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 集群版本号本地缓存测试，两个缓存实例模拟两个节点
+ *
+ * @author jetox
+ * @date 2026/10/18 23:51
+ */
+public class LabelVersionedCacheTest {
+
+    private final RedisTestServer redis = RedisTestServer.get();
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private LabelVersionedCache<String> nodeA;
+
+    private LabelVersionedCache<String> nodeB;
+
+    @BeforeEach
+    public void setUp() {
+        redis.flushAll();
+        nodeA = newNode();
+        nodeB = newNode();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private LabelVersionedCache<String> newNode() {
+        LabelVersionedCache<String> cache = new LabelVersionedCache<>("test", 16, 60000) {
+        };
+        ReflectionTestUtils.setField(cache, LabelVersionedCache.class, "stringRedisTemplate", redis.getStringRedisTemplate(), null);
+        return cache;
+    }
+
+    private String load(long version) {
+        loadCount.incrementAndGet();
+        return "plan-v" + version;
+    }
+
+    @Test
+    public void hitDoesNotReload() {
+        assertEquals("plan-v0", nodeA.get("r1", this::load));
+        assertEquals("plan-v0", nodeA.get("r1", this::load));
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void invalidateOnOneNodeReloadsOnTheOther() throws InterruptedException {
+        assertEquals("plan-v0", nodeA.get("r1", this::load));
+        nodeB.invalidate(List.of("r1"));
+        // 本节点立即看到新版本
+        assertEquals("plan-v1", nodeB.get("r1", this::load));
+        // 其他节点在版本号复查间隔后看到新版本
+        Thread.sleep(1100);
+        assertEquals("plan-v1", nodeA.get("r1", this::load));
+        assertEquals(3, loadCount.get());
+    }
+
+    @Test
+    public void versionBumpsOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        nodeA.invalidate(List.of("r1"));
+        assertEquals(0L, nodeB.getVersion("r1"));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals(1L, nodeA.getVersion("r1"));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.pdf;
+
+import com.google.zxing.common.BitMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PDF标签页写入器测试，校验中文文本使用Type0字体输出且字宽与字体字典一致
+ *
+ * @author jetox
+ * @date 2026/10/18 23:55
+ */
+public class PdfLabelSheetWriterTest {
+
+    @Test
+    public void chineseTextUsesType0Font() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PdfLabelSheetWriter writer = new PdfLabelSheetWriter(output, 200, 100)) {
+            writer.beginPage();
+            writer.drawText("品名：螺丝M3", 10, 20, 180, 9, false, PdfLabelSheetWriter.ALIGN_LEFT);
+            writer.drawText("批次", 10, 40, 180, 9, true, PdfLabelSheetWriter.ALIGN_CENTER);
+            writer.drawText("No.1", 10, 60, 180, 9, false, PdfLabelSheetWriter.ALIGN_LEFT);
+        }
+        String pdf = output.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.contains("/Subtype /Type0 /BaseFont /STSong-Light /Encoding /UniGB-UCS2-H"));
+        assertTrue(pdf.contains("/F3 5 0 R"));
+
+        String content = inflateContent(pdf);
+        assertTrue(content.contains("/F3 9 Tf 10 80 Td <54C1540DFF1A87BA4E1D004D0033> Tj"), content);
+        // 粗体中文以填充加描边模拟，居中偏移按全角字宽计算：(180 - 18) / 2 + 10 = 91
+        assertTrue(content.contains("/F3 9 Tf 2 Tr 0.27 w 91 60 Td <62796B21> Tj ET Q"), content);
+        // Latin-1文本仍使用Helvetica
+        assertTrue(content.contains("BT /F1 9 Tf 10 40 Td (No.1) Tj ET"), content);
+        assertFalse(content.contains("(?"), content);
+    }
+
+    @Test
+    public void emptyMatrixWritesNoFillOperator() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PdfLabelSheetWriter writer = new PdfLabelSheetWriter(output, 200, 100)) {
+            writer.beginPage();
+            writer.drawMatrix(new BitMatrix(10, 10), false, 10, 10, 50, 50);
+            writer.drawMatrix(new BitMatrix(20, 1), true, 10, 10, 50, 50);
+            writer.drawText("No.1", 10, 60, 180, 9, false, PdfLabelSheetWriter.ALIGN_LEFT);
+        }
+        String content = inflateContent(output.toString(StandardCharsets.ISO_8859_1));
+        assertEquals("BT /F1 9 Tf 10 40 Td (No.1) Tj ET\n", content);
+    }
+
+    @Test
+    public void textWidthMatchesFontWidths() {
+        assertEquals(20f, PdfLabelSheetWriter.textWidth("中文", 10), 0.001f);
+        // 含中文时ASCII字符按半角计算
+        assertEquals(20f, PdfLabelSheetWriter.textWidth("AB中", 10), 0.001f);
+        assertEquals(13.34f, PdfLabelSheetWriter.textWidth("AB", 10), 0.001f);
+        // 增补平面字符输出为两个半角问号
+        assertEquals(10f, PdfLabelSheetWriter.textWidth("中😀", 5), 0.001f);
+    }
+
+    /**
+     * 解压第一个页面内容流
+     */
+    private static String inflateContent(String pdf) throws Exception {
+        String marker = "/Filter /FlateDecode >>\nstream\n";
+        int start = pdf.indexOf(marker) + marker.length();
+        int end = pdf.indexOf("\nendstream", start);
+        Inflater inflater = new Inflater();
+        inflater.setInput(pdf.substring(start, end).getBytes(StandardCharsets.ISO_8859_1));
+        byte[] buffer = new byte[64 * 1024];
+        int length = inflater.inflate(buffer);
+        inflater.end();
+        return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.print;
+
+import cn.hutool.core.codec.Base64;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.RedisTestServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 打印作业队列接管测试，模拟已宕机节点留下的未确认作业，
+ * 只有空闲时间超过租约时间的作业才被认领，且每个作业只发送一次
+ *
+ * @author jetox
+ * @date 2026/10/18 23:57
+ */
+public class LabelPrintJobQueueTest {
+
+    private static final String PRINTER = "127.0.0.1:9100";
+
+    private static final String STREAM_KEY = "label:print:stream:" + PRINTER;
+
+    private static final String CONSUMER_GROUP = "label-print";
+
+    private static final String DEAD_NODE = "dead-node";
+
+    private final RedisTestServer redis = RedisTestServer.get();
+
+    private final StringRedisTemplate stringRedisTemplate = redis.getStringRedisTemplate();
+
+    private final List<String> sentList = new CopyOnWriteArrayList<>();
+
+    private LabelPrintJobQueue labelPrintJobQueue;
+
+    @BeforeEach
+    public void setUp() {
+        redis.flushAll();
+        RawSocketPrintSpooler rawSocketPrintSpooler = mock(RawSocketPrintSpooler.class);
+        when(rawSocketPrintSpooler.submit(anyString(), anyInt(), any())).thenAnswer(invocation -> {
+            sentList.add(new String((byte[]) invocation.getArgument(2), StandardCharsets.US_ASCII));
+            return CompletableFuture.completedFuture(null);
+        });
+        labelPrintJobQueue = new LabelPrintJobQueue();
+        ReflectionTestUtils.setField(labelPrintJobQueue, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(labelPrintJobQueue, "rawSocketPrintSpooler", rawSocketPrintSpooler);
+        ReflectionTestUtils.setField(labelPrintJobQueue, "labelPrintJobListenerList", List.of());
+
+        // 已宕机节点读取了三个作业但未确认，其租约已过期
+        stringRedisTemplate.opsForStream().createGroup(STREAM_KEY, ReadOffset.from("0"), CONSUMER_GROUP);
+        for (int i = 1; i <= 3; i++) {
+            stringRedisTemplate.opsForStream().add(STREAM_KEY, Map.of("job", "0|job-" + i + "|"
+                    + Base64.encode(("^XA" + i + "^XZ").getBytes(StandardCharsets.US_ASCII))));
+        }
+        stringRedisTemplate.opsForStream().read(Consumer.from(CONSUMER_GROUP, DEAD_NODE),
+                StreamReadOptions.empty().count(10), StreamOffset.create(STREAM_KEY, ReadOffset.lastConsumed()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        labelPrintJobQueue.destroy();
+    }
+
+    /**
+     * 将宕机节点的未确认作业的空闲时间设为1分钟，超过租约时间
+     */
+    private void agePending(int count) {
+        PendingMessages pendingMessages = stringRedisTemplate.opsForStream().pending(STREAM_KEY,
+                Consumer.from(CONSUMER_GROUP, DEAD_NODE), Range.unbounded(), count);
+        List<RecordId> recordIds = pendingMessages.stream().map(PendingMessage::getId).toList();
+        stringRedisTemplate.opsForStream().claim(STREAM_KEY, CONSUMER_GROUP, DEAD_NODE,
+                XClaimOptions.minIdle(Duration.ZERO).ids(recordIds).idle(Duration.ofMinutes(1)));
+    }
+
+    private long deadNodePending() {
+        return stringRedisTemplate.opsForStream().pending(STREAM_KEY, Consumer.from(CONSUMER_GROUP, DEAD_NODE),
+                Range.unbounded(), 100L).size();
+    }
+
+    private boolean deadNodeRegistered() {
+        return stringRedisTemplate.opsForStream().consumers(STREAM_KEY, CONSUMER_GROUP).stream()
+                .anyMatch(consumer -> DEAD_NODE.equals(consumer.consumerName()));
+    }
+
+    private void startWorker() {
+        ReflectionTestUtils.invokeMethod(labelPrintJobQueue, "startWorker", PRINTER);
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sentList.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        // 再等待一个读取周期，确认没有重复发送
+        Thread.sleep(1500);
+    }
+
+    @Test
+    public void recentPendingIsNotClaimed() throws InterruptedException {
+        startWorker();
+        awaitSent(0);
+        assertTrue(sentList.isEmpty());
+        assertEquals(3, deadNodePending());
+        assertTrue(deadNodeRegistered());
+    }
+
+    @Test
+    public void idlePendingIsClaimedAndSentOnce() throws InterruptedException {
+        agePending(3);
+        startWorker();
+        awaitSent(3);
+        assertEquals(List.of("^XA1^XZ", "^XA2^XZ", "^XA3^XZ"), sentList);
+        assertEquals(0L, stringRedisTemplate.opsForStream().size(STREAM_KEY));
+        assertFalse(deadNodeRegistered());
+    }
+
+    @Test
+    public void consumerWithRemainingPendingIsKept() throws InterruptedException {
+        agePending(1);
+        startWorker();
+        awaitSent(1);
+        assertEquals(List.of("^XA1^XZ"), sentList);
+        assertEquals(2, deadNodePending());
+        assertTrue(deadNodeRegistered());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.core.print;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 原始端口打印队列测试，使用本地套接字模拟打印机
+ *
+ * @author jetox
+ * @date 2026/10/18 23:56
+ */
+public class RawSocketPrintSpoolerTest {
+
+    private RawSocketPrintSpooler spooler;
+
+    private ServerSocket serverSocket;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        LabelPrintProperties labelPrintProperties = new LabelPrintProperties();
+        labelPrintProperties.setConnectTimeout(500);
+        labelPrintProperties.setWriteTimeout(500);
+        spooler = new RawSocketPrintSpooler();
+        ReflectionTestUtils.setField(spooler, "labelPrintProperties", labelPrintProperties);
+        serverSocket = new ServerSocket();
+        // 接收缓冲尽量小，使不读取数据的打印机很快写满
+        serverSocket.setReceiveBufferSize(4096);
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        spooler.destroy();
+        serverSocket.close();
+    }
+
+    @Test
+    public void deliversJobsInOrder() throws Exception {
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        Thread printer = new Thread(() -> {
+            try (Socket socket = serverSocket.accept(); InputStream in = socket.getInputStream()) {
+                byte[] buffer = new byte[1024];
+                int length;
+                while ((length = in.read(buffer)) != -1) {
+                    synchronized (received) {
+                        received.write(buffer, 0, length);
+                    }
+                }
+            } catch (Exception ignored) {
+                // 测试结束时关闭
+            }
+        });
+        printer.setDaemon(true);
+        printer.start();
+
+        CompletableFuture<Void> first = spooler.submit("127.0.0.1", serverSocket.getLocalPort(), "^XA1^XZ".getBytes(StandardCharsets.US_ASCII));
+        CompletableFuture<Void> second = spooler.submit("127.0.0.1", serverSocket.getLocalPort(), "^XA2^XZ".getBytes(StandardCharsets.US_ASCII));
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            synchronized (received) {
+                if (received.size() == 14) {
+                    break;
+                }
+            }
+            Thread.sleep(10);
+        }
+        synchronized (received) {
+            assertEquals("^XA1^XZ^XA2^XZ", received.toString(StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void stalledPrinterFailsWithinWriteTimeout() throws Exception {
+        // 接受连接但从不读取，写满缓冲后写入会一直阻塞
+        Thread printer = new Thread(() -> {
+            try {
+                while (!serverSocket.isClosed()) {
+                    serverSocket.accept();
+                }
+            } catch (Exception ignored) {
+                // 测试结束时关闭
+            }
+        });
+        printer.setDaemon(true);
+        printer.start();
+
+        long start = System.currentTimeMillis();
+        CompletableFuture<Void> future = spooler.submit("127.0.0.1", serverSocket.getLocalPort(), new byte[64 * 1024 * 1024]);
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> future.get(spooler.getMaxSendMillis() + 5000, TimeUnit.MILLISECONDS));
+        assertNotNull(exception.getCause());
+        assertTrue(System.currentTimeMillis() - start < spooler.getMaxSendMillis() + 5000);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.modular.coderule.service;
+
+import cn.hutool.core.util.StrUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.label.core.barcode.BarcodeImageFormat;
+import vip.xiaonuo.label.core.barcode.BarcodeRenderer;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbologyRegistry;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbologyTest;
+import vip.xiaonuo.label.core.barcode.symbology.Code128Symbology;
+import vip.xiaonuo.label.modular.coderule.service.impl.BarcodeExportServiceImpl;
+import vip.xiaonuo.label.modular.coderule.service.impl.BarcodeGeneratorServiceImpl;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 图片压缩包与Excel导出测试，编码生成器按调用顺序发放流水号，压缩包中每张图片的流水号须与其序号一致，
+ * Excel跨分页写出的每行编码须与序号一致
+ *
+ * @author jetox
+ * @date 2026/10/18 23:54
+ */
+public class BarcodeExportServiceTest {
+
+    private final AtomicLong serial = new AtomicLong();
+
+    private BarcodeExportServiceImpl barcodeExportService;
+
+    @BeforeEach
+    public void setUp() {
+        CodeSegmentGeneratorService codeSegmentGeneratorService = mock(CodeSegmentGeneratorService.class);
+        when(codeSegmentGeneratorService.generateCode(anyString(), any())).thenAnswer(invocation -> {
+            Map<String, Object> params = invocation.getArgument(1);
+            if (params.containsKey("fail")) {
+                throw new CommonException("编码规则不存在或配置为空");
+            }
+            return String.format("SN%06d", serial.incrementAndGet());
+        });
+        BarcodeGeneratorServiceImpl barcodeGeneratorService = new BarcodeGeneratorServiceImpl();
+        ReflectionTestUtils.setField(barcodeGeneratorService, "codeSegmentGeneratorService", codeSegmentGeneratorService);
+        BarcodeSymbologyRegistry barcodeSymbologyRegistry = new BarcodeSymbologyRegistry(List.of(new Code128Symbology()));
+        ReflectionTestUtils.setField(barcodeGeneratorService, "barcodeSymbologyRegistry", barcodeSymbologyRegistry);
+        ReflectionTestUtils.setField(barcodeGeneratorService, "barcodeRenderer", new BarcodeRenderer());
+        barcodeExportService = new BarcodeExportServiceImpl();
+        ReflectionTestUtils.setField(barcodeExportService, "barcodeGeneratorService", barcodeGeneratorService);
+        ReflectionTestUtils.setField(barcodeExportService, "codeSegmentGeneratorService", codeSegmentGeneratorService);
+        ReflectionTestUtils.setField(barcodeExportService, "barcodeSymbologyRegistry", barcodeSymbologyRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        barcodeExportService.destroy();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"PNG", "JPG", "BMP", "TIFF"})
+    public void testExportImagesInOrder(String imageFormat) throws Exception {
+        int total = 300;
+        int failIndex = 150;
+        List<Map<String, Object>> paramsList = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            paramsList.add(i == failIndex ? Map.of("fail", true) : Map.of());
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        barcodeExportService.exportToImages("rule", paramsList, "CODE128", imageFormat, Map.of("width", 300, "height", 120), response);
+
+        BarcodeImageFormat format = BarcodeImageFormat.of(imageFormat);
+        List<String> decodedList = new ArrayList<>();
+        try (ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zipIn.getNextEntry()) != null) {
+                assertTrue(entry.getName().endsWith("." + format.getExtension()), entry.getName());
+                decodedList.add(BarcodeSymbologyTest.decode(ImageIO.read(new ByteArrayInputStream(zipIn.readAllBytes()))));
+            }
+        }
+        // 失败的条目被跳过，不消耗流水号，其余条目按提交顺序连续编号
+        assertEquals(total - 1, decodedList.size());
+        for (int i = 0; i < decodedList.size(); i++) {
+            assertEquals(String.format("SN%06d", i + 1), decodedList.get(i));
+        }
+    }
+
+    @Test
+    public void testExportExcelAcrossPages() throws Exception {
+        int total = 2500;
+        int failIndex = 1200;
+        List<Map<String, Object>> paramsList = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            if (i == failIndex) {
+                paramsList.add(Map.of("fail", true));
+            } else {
+                Map<String, Object> params = new LinkedHashMap<>();
+                params.put("batch", "B" + i);
+                if (i % 2 == 0) {
+                    params.put("line", i);
+                }
+                paramsList.add(params);
+            }
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        barcodeExportService.exportToExcel("rule", paramsList, "CODE128", Map.of(), response);
+
+        assertEquals("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", response.getContentType());
+        DataFormatter formatter = new DataFormatter();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            Sheet sheet = workbook.getSheet("条码列表");
+            Row header = sheet.getRow(0);
+            // 参数列为所有参数键的并集，按首次出现顺序排列
+            assertEquals(List.of("序号", "条码编码", "batch", "line", "fail"), List.of(
+                    formatter.formatCellValue(header.getCell(0)), formatter.formatCellValue(header.getCell(1)),
+                    formatter.formatCellValue(header.getCell(2)), formatter.formatCellValue(header.getCell(3)),
+                    formatter.formatCellValue(header.getCell(4))));
+            assertEquals(total, sheet.getLastRowNum());
+            long expectedSerial = 0;
+            for (int i = 0; i < total; i++) {
+                Row row = sheet.getRow(i + 1);
+                assertEquals(String.valueOf(i + 1), formatter.formatCellValue(row.getCell(0)));
+                String code = formatter.formatCellValue(row.getCell(1));
+                if (i == failIndex) {
+                    // 失败行保留位置并显示原因，不消耗流水号
+                    assertTrue(code.startsWith("生成失败："), code);
+                    assertEquals("true", formatter.formatCellValue(row.getCell(4)));
+                } else {
+                    assertEquals(String.format("SN%06d", ++expectedSerial), code);
+                    assertEquals("B" + i, formatter.formatCellValue(row.getCell(2)));
+                    assertEquals(i % 2 == 0 ? String.valueOf(i) : "", formatter.formatCellValue(row.getCell(3)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testExportExcelImagesCappedByMaxImages() throws Exception {
+        List<Map<String, Object>> paramsList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            paramsList.add(Map.of("batch", "B" + i));
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        barcodeExportService.exportToExcel("rule", paramsList, "CODE128", Map.of("includeImage", true, "maxImages", 4,
+                "paramColumns", List.of("batch"), "imageWidth", 200, "imageHeight", 80), response);
+
+        DataFormatter formatter = new DataFormatter();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            Sheet sheet = workbook.getSheet("条码列表");
+            assertEquals("条码图片", formatter.formatCellValue(sheet.getRow(0).getCell(2)));
+            assertEquals("B9", formatter.formatCellValue(sheet.getRow(10).getCell(3)));
+            // 只有前maxImages行嵌入缩略图，缩略图可解码出该行的编码
+            assertEquals(4, workbook.getAllPictures().size());
+            assertEquals("SN000001", BarcodeSymbologyTest.decode(ImageIO.read(
+                    new ByteArrayInputStream(workbook.getAllPictures().get(0).getData()))));
+        }
+    }
+
+    @Test
+    public void testExportLabelsFitsColumnsToA4() throws Exception {
+        List<Map<String, Object>> paramsList = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            paramsList.add(Map.of());
+        }
+        // 默认3列、标签宽400像素时A4只容纳1列，页面不超出A4
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        barcodeExportService.exportToLabels("rule", paramsList, "CODE128", Map.of(), response);
+        String pdf = response.getContentAsString(StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.contains("/MediaBox [0 0 595.5 842.25]"), pdf);
+        // 每页1列5行，7个标签共2页
+        assertEquals(2, StrUtil.count(pdf, "/Type /Page /Parent"));
+
+        // 标签宽200像素时A4容纳3列，7个标签1页
+        response = new MockHttpServletResponse();
+        barcodeExportService.exportToLabels("rule", paramsList, "CODE128", Map.of("labelWidth", 200, "labelHeight", 100,
+                "barcodeWidth", 180, "barcodeHeight", 80), response);
+        pdf = response.getContentAsString(StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.contains("/MediaBox [0 0 595.5 842.25]"), pdf);
+        assertEquals(1, StrUtil.count(pdf, "/Type /Page /Parent"));
+    }
+
+    @Test
+    public void testExportExcelRejectsEmptyParams() {
+        assertThrows(CommonException.class, () -> barcodeExportService.exportToExcel("rule", List.of(), "CODE128",
+                Map.of(), new MockHttpServletResponse()));
+    }
+}
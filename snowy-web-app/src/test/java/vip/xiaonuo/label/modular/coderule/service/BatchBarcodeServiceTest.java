@@ -0,0 +1,139 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.modular.coderule.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.RedisTestServer;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.label.core.barcode.BarcodeRenderer;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbologyRegistry;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbologyTest;
+import vip.xiaonuo.label.core.barcode.symbology.Code128Symbology;
+import vip.xiaonuo.label.modular.coderule.service.impl.BarcodeGeneratorServiceImpl;
+import vip.xiaonuo.label.modular.coderule.service.impl.BatchBarcodeServiceImpl;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayInputStream;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 异步批量生成测试，编码生成器按调用顺序发放流水号，结果中每个条目的流水号须与其序号一致
+ *
+ * @author jetox
+ * @date 2026/10/18 23:52
+ */
+public class BatchBarcodeServiceTest {
+
+    private final RedisTestServer redis = RedisTestServer.get();
+
+    private final AtomicLong serial = new AtomicLong();
+
+    private BatchBarcodeServiceImpl batchBarcodeService;
+
+    @BeforeEach
+    public void setUp() {
+        redis.flushAll();
+        CodeSegmentGeneratorService codeSegmentGeneratorService = mock(CodeSegmentGeneratorService.class);
+        when(codeSegmentGeneratorService.generateCode(anyString(), any())).thenAnswer(invocation -> {
+            Map<String, Object> params = invocation.getArgument(1);
+            if (params.containsKey("fail")) {
+                throw new CommonException("编码规则不存在或配置为空");
+            }
+            return String.format("SN%06d", serial.incrementAndGet());
+        });
+        BarcodeGeneratorServiceImpl barcodeGeneratorService = new BarcodeGeneratorServiceImpl();
+        ReflectionTestUtils.setField(barcodeGeneratorService, "codeSegmentGeneratorService", codeSegmentGeneratorService);
+        ReflectionTestUtils.setField(barcodeGeneratorService, "barcodeSymbologyRegistry", new BarcodeSymbologyRegistry(List.of(new Code128Symbology())));
+        ReflectionTestUtils.setField(barcodeGeneratorService, "barcodeRenderer", new BarcodeRenderer());
+        batchBarcodeService = new BatchBarcodeServiceImpl();
+        ReflectionTestUtils.setField(batchBarcodeService, "barcodeGeneratorService", barcodeGeneratorService);
+        ReflectionTestUtils.setField(batchBarcodeService, "codeSegmentGeneratorService", codeSegmentGeneratorService);
+        ReflectionTestUtils.setField(batchBarcodeService, "stringRedisTemplate", redis.getStringRedisTemplate());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        batchBarcodeService.destroy();
+    }
+
+    @Test
+    public void serialsFollowEntryIndexAcrossParallelChunks() throws Exception {
+        int count = 1000;
+        List<Map<String, Object>> paramsList = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            paramsList.add(i == 500 ? Map.of("fail", true) : new HashMap<>());
+        }
+        String taskId = batchBarcodeService.asyncBatchGenerateBarcodes("r1", paramsList, "CODE128", 300, 80);
+        Map<String, Object> status = awaitFinished(taskId);
+        assertEquals("COMPLETED", status.get("status"));
+        assertEquals(count, status.get("processedCount"));
+        assertEquals(count - 1, status.get("successCount"));
+        assertEquals(1, ((List<?>) status.get("errors")).size());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        batchBarcodeService.downloadBatchTaskResult(taskId, response);
+        int entryCount = 0;
+        try (ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zipIn.getNextEntry()) != null) {
+                int index = Integer.parseInt(entry.getName().replaceAll("\\D", ""));
+                // 第501项生成编码失败，其后的条目流水号比序号小1
+                String expected = String.format("SN%06d", index <= 500 ? index : index - 1);
+                assertEquals(expected, BarcodeSymbologyTest.decode(ImageIO.read(zipIn)), entry.getName());
+                entryCount++;
+            }
+        }
+        assertEquals(count - 1, entryCount);
+    }
+
+    @Test
+    public void cancelStopsTask() throws Exception {
+        List<Map<String, Object>> paramsList = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            paramsList.add(new HashMap<>());
+        }
+        String taskId = batchBarcodeService.asyncBatchGenerateBarcodes("r2", paramsList, "CODE128", 300, 80);
+        assertTrue(batchBarcodeService.cancelBatchTask(taskId));
+        Map<String, Object> status = awaitFinished(taskId);
+        assertEquals("CANCELLED", status.get("status"));
+        assertFalse(batchBarcodeService.cancelBatchTask(taskId));
+    }
+
+    private Map<String, Object> awaitFinished(String taskId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (System.nanoTime() < deadline) {
+            Map<String, Object> status = batchBarcodeService.getBatchTaskStatus(taskId);
+            if (!"PROCESSING".equals(status.get("status")) && status.containsKey("endTime")
+                    && ((Integer) status.get("processedCount") >= (Integer) status.get("totalCount") || !"COMPLETED".equals(status.get("status")))) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        fail("任务未在限定时间内结束：" + taskId);
+        return null;
+    }
+}
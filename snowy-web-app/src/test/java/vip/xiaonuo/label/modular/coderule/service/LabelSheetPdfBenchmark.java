@@ -0,0 +1,157 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.modular.coderule.service;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbologyRegistry;
+import vip.xiaonuo.label.core.barcode.symbology.Code128Symbology;
+import vip.xiaonuo.label.core.barcode.symbology.QrCodeSymbology;
+import vip.xiaonuo.label.modular.coderule.service.impl.BarcodeExportServiceImpl;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 标签页PDF基准，每次调用用exportToLabels写出5万个标签（3列、每页15个，共3334页），输出丢弃，
+ * 吞吐量单位为页/秒；子进程限制128MB堆，每轮结束打印堆峰值，用于验证内存与标签总数无关；
+ * 编码生成器使用不记录调用的桩，避免调用历史本身占满堆
+ * 运行：先执行mvn test-compile，再以测试类路径运行本类main方法
+ *
+ * @author jetox
+ * @date 2026/10/18 23:52
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx128m"})
+@State(Scope.Benchmark)
+public class LabelSheetPdfBenchmark {
+
+    private static final int LABEL_COUNT = 50000;
+
+    /** 标签高200像素即150点，A4页高842.25点减去上下边距后可排5行，3列共15个 */
+    private static final int PAGE_COUNT = (LABEL_COUNT + 14) / 15;
+
+    @Param({"CODE128", "QR"})
+    public String barcodeType;
+
+    private BarcodeExportServiceImpl barcodeExportService;
+
+    private List<Map<String, Object>> paramsList;
+
+    private Map<String, Object> labelConfig;
+
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    private int runs;
+
+    @Setup
+    public void setup() {
+        AtomicLong serial = new AtomicLong();
+        CodeSegmentGeneratorService codeSegmentGeneratorService = mock(CodeSegmentGeneratorService.class, withSettings().stubOnly());
+        when(codeSegmentGeneratorService.generateCode(anyString(), any())).thenAnswer(invocation ->
+                String.format("WQS-20261018-%06d", serial.incrementAndGet()));
+        barcodeExportService = new BarcodeExportServiceImpl();
+        ReflectionTestUtils.setField(barcodeExportService, "codeSegmentGeneratorService", codeSegmentGeneratorService);
+        ReflectionTestUtils.setField(barcodeExportService, "barcodeSymbologyRegistry",
+                new BarcodeSymbologyRegistry(List.of(new Code128Symbology(), new QrCodeSymbology())));
+        paramsList = Collections.nCopies(LABEL_COUNT, Collections.emptyMap());
+        labelConfig = Map.of("labelWidth", 400, "labelHeight", 200, "barcodeWidth", 300, "barcodeHeight", 100,
+                "columns", 3, "margin", 20);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeak() {
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+        bytesWritten.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportPeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("%n  heap peak %.1f MB, pdf bytes per run %.1f MB%n", peak / 1048576.0,
+                bytesWritten.get() / 1048576.0 / Math.max(1, runs));
+        runs = 0;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_COUNT)
+    public void exportLabels() {
+        runs++;
+        barcodeExportService.exportToLabels("r1", paramsList, barcodeType, labelConfig, new DiscardResponse(bytesWritten));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LabelSheetPdfBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * 丢弃输出只统计字节数的响应
+     */
+    private static final class DiscardResponse extends MockHttpServletResponse {
+
+        private final ServletOutputStream outputStream;
+
+        private DiscardResponse(AtomicLong counter) {
+            this.outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                    counter.incrementAndGet();
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    counter.addAndGet(len);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+            };
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+    }
+}
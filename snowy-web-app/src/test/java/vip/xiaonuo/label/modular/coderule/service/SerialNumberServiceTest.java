@@ -0,0 +1,183 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.modular.coderule.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.RedisTestServer;
+import vip.xiaonuo.label.modular.coderule.service.impl.SerialNumberServiceImpl;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流水号服务测试，两个服务实例模拟共享同一Redis的两个节点
+ *
+ * @author jetox
+ * @date 2026/10/18 23:51
+ */
+public class SerialNumberServiceTest {
+
+    private final RedisTestServer redis = RedisTestServer.get();
+
+    private SerialNumberServiceImpl nodeA;
+
+    private SerialNumberServiceImpl nodeB;
+
+    @BeforeEach
+    public void setUp() {
+        redis.flushAll();
+        nodeA = newNode();
+        nodeB = newNode();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        nodeA.destroy();
+        nodeB.destroy();
+    }
+
+    private SerialNumberServiceImpl newNode() {
+        SerialNumberServiceImpl service = new SerialNumberServiceImpl();
+        ReflectionTestUtils.setField(service, "stringRedisTemplate", redis.getStringRedisTemplate());
+        return service;
+    }
+
+    @Test
+    public void nextSerialStartsAtStartValue() {
+        assertEquals(100L, nodeA.getNextSerial("r1", 0, "none", 100));
+        assertEquals(101L, nodeB.getNextSerial("r1", 0, "none", 100));
+    }
+
+    @Test
+    public void nextSerialCountsUpFromStartValueZeroAndOne() {
+        assertEquals(0L, nodeA.getNextSerial("r0", 0, "none", 0));
+        assertEquals(1L, nodeB.getNextSerial("r0", 0, "none", 0));
+        assertEquals(2L, nodeA.getNextSerial("r0", 0, "none", 0));
+        assertEquals(1L, nodeA.getNextSerial("r0", 1, "daily", 1));
+        assertEquals(2L, nodeB.getNextSerial("r0", 1, "daily", 1));
+        assertEquals(0L, nodeA.getNextLeasedSerial("r0", 2, "none", 0, 10));
+        assertEquals(1L, nodeA.getNextLeasedSerial("r0", 2, "none", 0, 10));
+    }
+
+    @Test
+    public void serialsThatNeverResetDoNotExpire() {
+        StringRedisTemplate stringRedisTemplate = redis.getStringRedisTemplate();
+        nodeA.getNextSerial("r00", 0, "none", 1);
+        nodeA.getNextLeasedSerial("r00", 1, "none", 1, 10);
+        nodeA.getNextSerial("r00", 2, "daily", 1);
+        // 节点关闭时归还的号段同样不过期
+        nodeA.destroy();
+        assertEquals(-1L, stringRedisTemplate.getExpire("barcode:serial:r00:0"));
+        assertEquals(-1L, stringRedisTemplate.getExpire("barcode:serial:r00:1"));
+        assertEquals(-1L, stringRedisTemplate.getExpire("barcode:serial:lease:r00:1"));
+        assertTrue(stringRedisTemplate.getExpire("barcode:serial:r00:2:" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE)) > 0);
+
+        // 手工设置值后同样不过期
+        stringRedisTemplate.expire("barcode:serial:r00:0", 60, TimeUnit.SECONDS);
+        nodeB.setSerialValue("r00", 0, "none", 50L);
+        assertEquals(-1L, stringRedisTemplate.getExpire("barcode:serial:r00:0"));
+        assertEquals(51L, nodeB.getNextSerial("r00", 0, "none", 1));
+    }
+
+    @Test
+    public void concurrentLeasedSerialsAreUniqueAcrossNodes() throws Exception {
+        int threads = 8;
+        int perThread = 2000;
+        Set<Long> issued = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                SerialNumberServiceImpl node = t % 2 == 0 ? nodeA : nodeB;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        assertTrue(issued.add(node.getNextLeasedSerial("r2", 1, "daily", 1, 50)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * perThread, issued.size());
+        assertTrue(issued.contains(1L));
+    }
+
+    @Test
+    public void releasedRangeIsReusedByAnotherNode() {
+        assertEquals(1L, nodeA.getNextLeasedSerial("r3", 0, "none", 1, 100));
+        assertEquals(2L, nodeA.getNextLeasedSerial("r3", 0, "none", 1, 100));
+        // 节点A关闭时归还[3, 100]，节点B续租时优先复用
+        nodeA.destroy();
+        assertEquals(3L, nodeB.getNextLeasedSerial("r3", 0, "none", 1, 100));
+        assertEquals(4L, nodeB.getNextLeasedSerial("r3", 0, "none", 1, 100));
+    }
+
+    @Test
+    public void resetDiscardsLocalLease() {
+        assertEquals(1L, nodeA.getNextLeasedSerial("r4", 0, "none", 1, 100));
+        nodeA.resetSerial("r4", 0, "none");
+        assertEquals(1L, nodeA.getNextLeasedSerial("r4", 0, "none", 1, 100));
+    }
+
+    @Test
+    public void serialStatusCoversEverySegmentAcrossScanBatches() {
+        // 段数超过一批SCAN数量，验证跨批去重与管道结果对齐
+        int segments = 520;
+        for (int i = 0; i < segments; i++) {
+            nodeA.getNextSerial("r5", i, "none", 100);
+        }
+        nodeA.getNextSerial("r5", 7, "none", 100);
+        nodeA.getNextSerial("r5", 0, "daily", 1);
+        nodeA.getNextSerial("r55", 0, "none", 1);
+
+        List<Map<String, Object>> statusList = nodeB.getSerialStatus("r5");
+        assertEquals(segments + 1, statusList.size());
+        Map<String, Map<String, Object>> statusMap = new HashMap<>();
+        for (Map<String, Object> status : statusList) {
+            assertEquals("r5", status.get("ruleId"));
+            assertNull(statusMap.put(status.get("segmentIndex") + ":" + status.get("resetType"), status));
+        }
+        assertEquals(101L, statusMap.get("7:none").get("currentValue"));
+        assertEquals(100L, statusMap.get("519:none").get("currentValue"));
+        assertEquals(1L, statusMap.get("0:daily").get("currentValue"));
+        assertEquals(-1L, statusMap.get("7:none").get("expireTime"));
+        assertTrue((Long) statusMap.get("0:daily").get("expireTime") > 0);
+    }
+
+    @Test
+    public void resetAllSerialsRemovesSerialsInfoAndLeasesOfTheRuleOnly() {
+        assertEquals(1L, nodeA.getNextLeasedSerial("r6", 0, "none", 1, 100));
+        assertEquals(1L, nodeB.getNextLeasedSerial("r6", 1, "none", 1, 100));
+        // 节点B关闭时归还号段，写入已归还号段列表
+        nodeB.destroy();
+        assertEquals(5L, nodeA.getNextSerial("r66", 0, "none", 5));
+
+        nodeA.resetAllSerials("r6");
+        assertTrue(redis.getStringRedisTemplate().keys("barcode:serial:*r6:*").isEmpty());
+        assertTrue(nodeA.getSerialStatus("r6").isEmpty());
+        assertEquals(1L, nodeA.getNextLeasedSerial("r6", 0, "none", 1, 100));
+        assertEquals(6L, nodeA.getNextSerial("r66", 0, "none", 5));
+        assertEquals(1, nodeA.getSerialStatus("r66").size());
+    }
+}
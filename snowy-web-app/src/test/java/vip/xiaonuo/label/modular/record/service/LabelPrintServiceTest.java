@@ -0,0 +1,85 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.modular.record.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.label.core.print.LabelPrintJobQueue;
+import vip.xiaonuo.label.core.print.LabelPrintProperties;
+import vip.xiaonuo.label.modular.record.param.LabelPrintParam;
+import vip.xiaonuo.label.modular.record.service.impl.LabelPrintServiceImpl;
+import vip.xiaonuo.label.modular.template.service.LabelRenderService;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 标签直连打印测试，打印机只能按ID从服务端配置中解析
+ *
+ * @author jetox
+ * @date 2026/10/18 23:56
+ */
+public class LabelPrintServiceTest {
+
+    private LabelRenderService labelRenderService;
+
+    private LabelPrintJobQueue labelPrintJobQueue;
+
+    private LabelPrintServiceImpl labelPrintService;
+
+    @BeforeEach
+    public void setUp() {
+        LabelPrintProperties.Printer printer = new LabelPrintProperties.Printer();
+        printer.setHost("10.0.0.5");
+        printer.setPort(9101);
+        printer.setLanguage("TSPL");
+        printer.setDpi(300);
+        LabelPrintProperties labelPrintProperties = new LabelPrintProperties();
+        labelPrintProperties.getPrinters().put("line-1", printer);
+
+        labelRenderService = mock(LabelRenderService.class);
+        labelPrintJobQueue = mock(LabelPrintJobQueue.class);
+        labelPrintService = new LabelPrintServiceImpl();
+        ReflectionTestUtils.setField(labelPrintService, "labelPrintRecordService", mock(LabelPrintRecordService.class));
+        ReflectionTestUtils.setField(labelPrintService, "labelRenderService", labelRenderService);
+        ReflectionTestUtils.setField(labelPrintService, "labelPrintJobQueue", labelPrintJobQueue);
+        ReflectionTestUtils.setField(labelPrintService, "labelPrintProperties", labelPrintProperties);
+    }
+
+    private LabelPrintParam newParam(String printerId) {
+        LabelPrintParam labelPrintParam = new LabelPrintParam();
+        labelPrintParam.setTemplateId("t1");
+        labelPrintParam.setPrinterId(printerId);
+        labelPrintParam.setDataList(List.of(Map.of("code", "A001")));
+        return labelPrintParam;
+    }
+
+    @Test
+    public void printerResolvedFromConfiguration() {
+        labelPrintService.print(newParam("line-1"));
+        verify(labelRenderService).render(eq("t1"), anyList(), eq("TSPL"), eq(Map.of("dpi", 300)), any());
+        verify(labelPrintJobQueue).enqueue(eq("10.0.0.5"), eq(9101), any(), any());
+    }
+
+    @Test
+    public void unknownPrinterRejected() {
+        assertThrows(CommonException.class, () -> labelPrintService.print(newParam("10.0.0.1")));
+        verifyNoInteractions(labelRenderService, labelPrintJobQueue);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.label.modular.template.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.RedisTestServer;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.label.core.barcode.BarcodeSymbologyRegistry;
+import vip.xiaonuo.label.core.barcode.symbology.Code128Symbology;
+import vip.xiaonuo.label.core.cache.LabelVersionedCache;
+import vip.xiaonuo.label.core.render.LabelLayout;
+import vip.xiaonuo.label.core.render.LabelLayoutCache;
+import vip.xiaonuo.label.core.render.LabelLayoutCompiler;
+import vip.xiaonuo.label.core.render.LabelRenderer;
+import vip.xiaonuo.label.modular.field.service.LabelDynamicFieldService;
+import vip.xiaonuo.label.modular.template.entity.LabelTemplate;
+import vip.xiaonuo.label.modular.template.param.LabelTemplateRenderParam;
+import vip.xiaonuo.label.modular.template.service.impl.LabelRenderServiceImpl;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 标签布局获取测试，缓存命中时只校验版本号，不查询模板
+ *
+ * @author jetox
+ * @date 2026/10/18 23:55
+ */
+public class LabelRenderServiceTest {
+
+    private static final String TEMPLATE_CONTENT = "{\"panels\":[{\"width\":60,\"height\":40,\"printElements\":[]}]}";
+
+    private final RedisTestServer redis = RedisTestServer.get();
+
+    private LabelTemplateService labelTemplateService;
+
+    private LabelLayoutCache labelLayoutCache;
+
+    private LabelRenderer labelRenderer;
+
+    private LabelRenderServiceImpl labelRenderService;
+
+    @BeforeEach
+    public void setUp() {
+        redis.flushAll();
+        labelTemplateService = mock(LabelTemplateService.class);
+        when(labelTemplateService.getById(anyString())).thenAnswer(invocation -> {
+            if (!"t1".equals(invocation.getArgument(0))) {
+                return null;
+            }
+            LabelTemplate labelTemplate = new LabelTemplate();
+            labelTemplate.setId("t1");
+            labelTemplate.setTemplateContent(TEMPLATE_CONTENT);
+            return labelTemplate;
+        });
+        // 未打桩的字段查询返回空列表，模板没有必填字段
+        LabelDynamicFieldService labelDynamicFieldService = mock(LabelDynamicFieldService.class);
+        labelLayoutCache = new LabelLayoutCache();
+        ReflectionTestUtils.setField(labelLayoutCache, LabelVersionedCache.class, "stringRedisTemplate", redis.getStringRedisTemplate(), null);
+
+        labelRenderService = new LabelRenderServiceImpl();
+        ReflectionTestUtils.setField(labelRenderService, "labelTemplateService", labelTemplateService);
+        ReflectionTestUtils.setField(labelRenderService, "labelDynamicFieldService", labelDynamicFieldService);
+        ReflectionTestUtils.setField(labelRenderService, "labelLayoutCompiler",
+                new LabelLayoutCompiler(new BarcodeSymbologyRegistry(List.of(new Code128Symbology()))));
+        ReflectionTestUtils.setField(labelRenderService, "labelLayoutCache", labelLayoutCache);
+
+        labelRenderer = mock(LabelRenderer.class);
+        when(labelRenderer.getFormat()).thenReturn("PDF");
+        when(labelRenderer.getContentType()).thenReturn("application/pdf");
+        when(labelRenderer.getExtension()).thenReturn("pdf");
+        ReflectionTestUtils.setField(labelRenderService, "labelRendererList", List.of(labelRenderer));
+    }
+
+    @Test
+    public void hitDoesNotQueryTemplate() {
+        LabelLayout layout = labelRenderService.getLayout("t1");
+        assertSame(layout, labelRenderService.getLayout("t1"));
+        verify(labelTemplateService, times(1)).getById("t1");
+    }
+
+    @Test
+    public void invalidateRecompiles() {
+        LabelLayout layout = labelRenderService.getLayout("t1");
+        assertEquals(0L, layout.getVersion());
+        labelLayoutCache.invalidate(List.of("t1"));
+        LabelLayout recompiled = labelRenderService.getLayout("t1");
+        assertNotSame(layout, recompiled);
+        assertEquals(1L, recompiled.getVersion());
+        verify(labelTemplateService, times(2)).getById("t1");
+    }
+
+    @Test
+    public void missingTemplateIsNotCached() {
+        assertThrows(CommonException.class, () -> labelRenderService.getLayout("t2"));
+        assertThrows(CommonException.class, () -> labelRenderService.getLayout("t2"));
+        verify(labelTemplateService, times(2)).getById("t2");
+    }
+
+    @Test
+    public void invalidRenderRequestDoesNotSetDownloadHeaders() throws Exception {
+        MockHttpServletResponse missingTemplateResponse = new MockHttpServletResponse();
+        assertThrows(CommonException.class, () -> labelRenderService.render(renderParam("t2", List.of(Map.of("a", "1"))), missingTemplateResponse));
+        assertNull(missingTemplateResponse.getHeader("Content-Disposition"));
+
+        MockHttpServletResponse emptyDataResponse = new MockHttpServletResponse();
+        assertThrows(CommonException.class, () -> labelRenderService.render(renderParam("t1", List.of()), emptyDataResponse));
+        assertNull(emptyDataResponse.getHeader("Content-Disposition"));
+
+        verify(labelRenderer, never()).render(any(), any(), any(), any(OutputStream.class));
+    }
+
+    @Test
+    public void validRenderRequestSetsDownloadHeaders() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        labelRenderService.render(renderParam("t1", List.of(Map.of("a", "1"))), response);
+        assertNotNull(response.getHeader("Content-Disposition"));
+        assertEquals("application/pdf", response.getContentType());
+        verify(labelRenderer).render(any(), any(), any(), any(OutputStream.class));
+    }
+
+    private LabelTemplateRenderParam renderParam(String templateId, List<Map<String, Object>> dataList) {
+        LabelTemplateRenderParam labelTemplateRenderParam = new LabelTemplateRenderParam();
+        labelTemplateRenderParam.setTemplateId(templateId);
+        labelTemplateRenderParam.setDataList(dataList);
+        labelTemplateRenderParam.setFormat("PDF");
+        return labelTemplateRenderParam;
+    }
+}
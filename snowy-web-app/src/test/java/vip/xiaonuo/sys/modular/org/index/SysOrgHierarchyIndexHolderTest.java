@@ -0,0 +1,151 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.org.index;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vip.xiaonuo.RedisTestServer;
+import vip.xiaonuo.sys.modular.org.entity.SysOrg;
+import vip.xiaonuo.sys.modular.org.mapper.SysOrgMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static vip.xiaonuo.sys.modular.org.index.SysOrgHierarchyIndexTest.ids;
+import static vip.xiaonuo.sys.modular.org.index.SysOrgHierarchyIndexTest.org;
+
+/**
+ * 组织层级索引持有者测试，本节点修改后增量更新，其他节点修改后按Redis版本号重新加载
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class SysOrgHierarchyIndexHolderTest {
+
+    private static final String VERSION_KEY = "sys-org-hierarchy-version";
+
+    private final SysOrgMapper sysOrgMapper = mock(SysOrgMapper.class);
+
+    private final List<SysOrg> dbOrgList = new ArrayList<>();
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private SysOrgHierarchyIndexHolder holder;
+
+    @BeforeAll
+    static void initTableInfo() {
+        if (TableInfoHelper.getTableInfo(SysOrg.class) == null) {
+            TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), SysOrg.class);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        RedisTestServer.get().flushAll();
+        stringRedisTemplate = RedisTestServer.get().getStringRedisTemplate();
+        dbOrgList.addAll(List.of(org("1", "0", 1), org("2", "1", 2)));
+        when(sysOrgMapper.selectList(any())).thenAnswer(invocation -> new ArrayList<>(dbOrgList));
+        holder = new SysOrgHierarchyIndexHolder();
+        ReflectionTestUtils.setField(holder, "sysOrgMapper", sysOrgMapper);
+        ReflectionTestUtils.setField(holder, "stringRedisTemplate", stringRedisTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void indexIsLoadedOnceWithinCheckInterval() {
+        SysOrgHierarchyIndex index = holder.getIndex();
+        assertSame(index, holder.getIndex());
+        assertEquals(List.of("2", "1"), ids(index.getChildList("1", true)));
+        verify(sysOrgMapper, times(1)).selectList(any());
+    }
+
+    @Test
+    void localChangeIsAppliedIncrementallyWithoutReload() {
+        holder.getIndex();
+        holder.onOrgChanged(List.of(org("3", "2", 3)), List.of());
+        assertEquals("1", stringRedisTemplate.opsForValue().get(VERSION_KEY));
+        SysOrgHierarchyIndex index = holder.peekIndex();
+        assertEquals(1, index.getVersion());
+        assertEquals(List.of("2", "3"), ids(index.getChildList("1", false)));
+
+        // 版本号与本地索引一致，到达检查间隔后也不会重新加载
+        expireCheckInterval();
+        assertSame(index, holder.getIndex());
+        verify(sysOrgMapper, times(1)).selectList(any());
+    }
+
+    @Test
+    void remoteChangeReloadsAfterCheckInterval() {
+        holder.getIndex();
+        dbOrgList.add(org("3", "1", 3));
+        stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+        // 检查间隔内仍使用旧索引
+        assertNull(holder.getIndex().getById("3"));
+
+        expireCheckInterval();
+        SysOrgHierarchyIndex index = holder.getIndex();
+        assertEquals(1, index.getVersion());
+        assertEquals("3", index.getById("3").getId());
+        verify(sysOrgMapper, times(2)).selectList(any());
+    }
+
+    @Test
+    void versionGapMarksIndexDirty() {
+        holder.getIndex();
+        // 其他节点先修改，本节点递增后的版本号不连续，不能在本地索引上增量更新
+        stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+        dbOrgList.add(org("4", "1", 4));
+        holder.onOrgChanged(List.of(org("3", "1", 3)), List.of());
+        assertEquals(0, holder.peekIndex().getVersion());
+
+        SysOrgHierarchyIndex index = holder.getIndex();
+        assertEquals(2, index.getVersion());
+        assertEquals("4", index.getById("4").getId());
+        verify(sysOrgMapper, times(2)).selectList(any());
+    }
+
+    @Test
+    void changeInTransactionIsAppliedAfterCommit() {
+        holder.getIndex();
+        TransactionSynchronizationManager.initSynchronization();
+        holder.onOrgChanged(List.of(), List.of("2"));
+        assertNull(stringRedisTemplate.opsForValue().get(VERSION_KEY));
+        assertEquals("2", holder.peekIndex().getById("2").getId());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals("1", stringRedisTemplate.opsForValue().get(VERSION_KEY));
+        assertNull(holder.peekIndex().getById("2"));
+    }
+
+    private void expireCheckInterval() {
+        ReflectionTestUtils.setField(holder, "lastCheckMillis", 0L);
+    }
+}
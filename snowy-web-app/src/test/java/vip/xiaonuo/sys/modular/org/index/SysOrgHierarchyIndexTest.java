@@ -0,0 +1,120 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.org.index;
+
+import org.junit.jupiter.api.Test;
+import vip.xiaonuo.sys.modular.org.entity.SysOrg;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 组织层级索引测试，覆盖下级区间查询、上级回溯、上级不存在的组织、环形数据与增量更新
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class SysOrgHierarchyIndexTest {
+
+    /**
+     * 1(根) -> 2 -> 4，1 -> 3；5的上级X不存在，5 -> 6；7与8互为上级
+     */
+    private static List<SysOrg> orgList() {
+        return List.of(org("1", "0", 1), org("2", "1", 2), org("3", "1", 3), org("4", "2", 4),
+                org("5", "X", 5), org("6", "5", 6), org("7", "8", 7), org("8", "7", 8));
+    }
+
+    @Test
+    void childListIsPreOrderSliceWithSelfLast() {
+        SysOrgHierarchyIndex index = SysOrgHierarchyIndex.build(orgList(), 0);
+        assertEquals(List.of("2", "4", "3", "1"), ids(index.getChildList("1", true)));
+        assertEquals(List.of("4"), ids(index.getChildList("2", false)));
+        assertEquals(List.of(), ids(index.getChildList("4", false)));
+        assertEquals("2", index.getFirstChild("1").getId());
+        assertNull(index.getFirstChild("4"));
+        assertTrue(index.isChild("1", "4"));
+        assertFalse(index.isChild("2", "3"));
+        assertFalse(index.isChild("4", "4"));
+    }
+
+    @Test
+    void missingParentIdReturnsSubtreesOfItsOrphans() {
+        SysOrgHierarchyIndex index = SysOrgHierarchyIndex.build(orgList(), 0);
+        assertEquals(List.of("1", "2", "4", "3"), ids(index.getChildList("0", false)));
+        assertEquals(List.of("5", "6"), ids(index.getChildList("X", true)));
+        assertEquals("1", index.getFirstChild("0").getId());
+        assertEquals(List.of(), ids(index.getChildList("missing", true)));
+    }
+
+    @Test
+    void parentListWalksUpToTheRoot() {
+        SysOrgHierarchyIndex index = SysOrgHierarchyIndex.build(orgList(), 0);
+        assertEquals(List.of("2", "1", "4"), ids(index.getParentList("4", true)));
+        assertEquals(List.of("5"), ids(index.getParentList("6", false)));
+        assertEquals(List.of("2", "1", "0"), index.getParentIdList("4"));
+        assertEquals(List.of(), ids(index.getParentList("missing", true)));
+    }
+
+    @Test
+    void cyclicDataIsIndexedAndQueriesTerminate() {
+        SysOrgHierarchyIndex index = SysOrgHierarchyIndex.build(orgList(), 0);
+        assertEquals(List.of("8", "7"), ids(index.getChildList("7", true)));
+        assertEquals("8", index.getById("8").getId());
+        assertTrue(index.getParentList("7", false).size() <= orgList().size());
+        assertTrue(index.getParentIdList("7").size() <= orgList().size() + 1);
+    }
+
+    @Test
+    void duplicateIdKeepsFirstOrg() {
+        SysOrg first = org("1", "0", 1);
+        SysOrgHierarchyIndex index = SysOrgHierarchyIndex.build(List.of(first, org("1", "9", 2)), 0);
+        assertSame(first, index.getById("1"));
+        assertEquals(1, index.getOrgList().size());
+    }
+
+    @Test
+    void applyMatchesFullRebuild() {
+        SysOrgHierarchyIndex index = SysOrgHierarchyIndex.build(orgList(), 3);
+        // 3移动到4下，删除6，新增9挂在5下
+        SysOrgHierarchyIndex applied = index.apply(List.of(org("3", "4", 3), org("9", "5", 9)), List.of("6"), 4);
+        assertEquals(4, applied.getVersion());
+        assertEquals(3, index.getVersion());
+        assertEquals(List.of("4", "3"), ids(applied.getChildList("2", false)));
+        assertEquals(List.of("5", "9"), ids(applied.getChildList("X", true)));
+        assertNull(applied.getById("6"));
+        assertEquals("6", index.getById("6").getId());
+
+        SysOrgHierarchyIndex rebuilt = SysOrgHierarchyIndex.build(List.of(org("1", "0", 1), org("2", "1", 2),
+                org("3", "4", 3), org("4", "2", 4), org("5", "X", 5), org("7", "8", 7), org("8", "7", 8),
+                org("9", "5", 9)), 4);
+        for (SysOrg sysOrg : rebuilt.getOrgList()) {
+            assertEquals(ids(rebuilt.getChildList(sysOrg.getId(), true)), ids(applied.getChildList(sysOrg.getId(), true)));
+            assertEquals(ids(rebuilt.getParentList(sysOrg.getId(), true)), ids(applied.getParentList(sysOrg.getId(), true)));
+        }
+        assertEquals(ids(rebuilt.getOrgList()), ids(applied.getOrgList()));
+    }
+
+    static SysOrg org(String id, String parentId, int sortCode) {
+        SysOrg sysOrg = new SysOrg();
+        sysOrg.setId(id);
+        sysOrg.setParentId(parentId);
+        sysOrg.setSortCode(sortCode);
+        sysOrg.setName("组织" + id);
+        return sysOrg;
+    }
+
+    static List<String> ids(List<SysOrg> orgList) {
+        return orgList.stream().map(SysOrg::getId).toList();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.relation.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.common.cache.CommonRelationGraphCache;
+import vip.xiaonuo.sys.modular.relation.entity.SysRelation;
+import vip.xiaonuo.sys.modular.relation.enums.SysRelationCategoryEnum;
+import vip.xiaonuo.sys.modular.relation.mapper.SysRelationMapper;
+import vip.xiaonuo.sys.modular.relation.service.impl.SysRelationServiceImpl;
+import vip.xiaonuo.sys.modular.role.snapshot.SysPermissionSnapshotCache;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * 关系删除与更新时按受影响分类失效权限快照的测试
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class SysRelationServiceTest {
+
+    private final SysRelationMapper sysRelationMapper = mock(SysRelationMapper.class);
+
+    private final SysPermissionSnapshotCache sysPermissionSnapshotCache = mock(SysPermissionSnapshotCache.class);
+
+    private final CommonRelationGraphCache relationGraphCache = mock(CommonRelationGraphCache.class);
+
+    private SysRelationServiceImpl sysRelationService;
+
+    @BeforeAll
+    static void initTableInfo() {
+        if (TableInfoHelper.getTableInfo(SysRelation.class) == null) {
+            TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), SysRelation.class);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        sysRelationService = new SysRelationServiceImpl();
+        ReflectionTestUtils.setField(sysRelationService, "baseMapper", sysRelationMapper);
+        ReflectionTestUtils.setField(sysRelationService, "sysPermissionSnapshotCache", sysPermissionSnapshotCache);
+        ReflectionTestUtils.setField(sysRelationService, "relationGraphCache", relationGraphCache);
+        when(sysPermissionSnapshotCache.isPermissionCategory(any())).thenCallRealMethod();
+        when(sysRelationMapper.delete(any())).thenReturn(1);
+        when(sysRelationMapper.deleteBatchIds(anyCollection())).thenReturn(1);
+        when(sysRelationMapper.update(any(), any())).thenReturn(1);
+    }
+
+    @Test
+    void removingScheduleRelationsKeepsPermissionSnapshot() {
+        when(sysRelationMapper.selectList(any())).thenReturn(List.of(
+                relation(SysRelationCategoryEnum.SYS_USER_SCHEDULE_DATA.getValue())));
+        sysRelationService.remove(new LambdaQueryWrapper<SysRelation>().eq(SysRelation::getId, "1"));
+        verify(sysPermissionSnapshotCache, never()).invalidate();
+        verify(relationGraphCache).invalidate(Set.of(SysRelationCategoryEnum.SYS_USER_SCHEDULE_DATA.getValue()));
+    }
+
+    @Test
+    void removingRoleRelationsInvalidatesPermissionSnapshot() {
+        when(sysRelationMapper.selectList(any())).thenReturn(List.of(
+                relation(SysRelationCategoryEnum.SYS_USER_SCHEDULE_DATA.getValue()),
+                relation(SysRelationCategoryEnum.SYS_USER_HAS_ROLE.getValue())));
+        sysRelationService.remove(new LambdaQueryWrapper<SysRelation>().eq(SysRelation::getObjectId, "user"));
+        verify(sysPermissionSnapshotCache).invalidate();
+    }
+
+    @Test
+    void removeByIdsLooksUpCategoriesOfDeletedRows() {
+        when(sysRelationMapper.selectBatchIds(anyCollection())).thenReturn(List.of(
+                relation(SysRelationCategoryEnum.SYS_USER_WORKBENCH_DATA.getValue())));
+        sysRelationService.removeByIds(List.of("1"));
+        verify(sysPermissionSnapshotCache, never()).invalidate();
+
+        when(sysRelationMapper.selectBatchIds(anyCollection())).thenReturn(List.of(
+                relation(SysRelationCategoryEnum.SYS_ROLE_HAS_RESOURCE.getValue())));
+        sysRelationService.removeByIds(List.of("2"));
+        verify(sysPermissionSnapshotCache).invalidate();
+    }
+
+    @Test
+    void updateIntoPermissionCategoryInvalidatesPermissionSnapshot() {
+        when(sysRelationMapper.selectList(any())).thenReturn(List.of(
+                relation(SysRelationCategoryEnum.SYS_USER_SCHEDULE_DATA.getValue())));
+        sysRelationService.update(new LambdaUpdateWrapper<SysRelation>().eq(SysRelation::getId, "1")
+                .set(SysRelation::getExtJson, "{}"));
+        verify(sysPermissionSnapshotCache, never()).invalidate();
+
+        SysRelation sysRelation = relation(SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue());
+        sysRelationService.update(sysRelation, new LambdaUpdateWrapper<SysRelation>().eq(SysRelation::getId, "1"));
+        verify(sysPermissionSnapshotCache).invalidate();
+    }
+
+    private static SysRelation relation(String category) {
+        SysRelation sysRelation = new SysRelation();
+        sysRelation.setCategory(category);
+        return sysRelation;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.user.service;
+
+import cn.hutool.json.JSONObject;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.common.util.CommonAvatarUtil;
+import vip.xiaonuo.common.util.CommonCryptogramUtil;
+import vip.xiaonuo.sys.core.util.SysPasswordUtl;
+import vip.xiaonuo.sys.modular.org.entity.SysOrg;
+import vip.xiaonuo.sys.modular.org.index.SysOrgHierarchyIndex;
+import vip.xiaonuo.sys.modular.org.index.SysOrgHierarchyIndexHolder;
+import vip.xiaonuo.sys.modular.org.mapper.SysOrgMapper;
+import vip.xiaonuo.sys.modular.org.service.SysOrgExtService;
+import vip.xiaonuo.sys.modular.org.service.impl.SysOrgServiceImpl;
+import vip.xiaonuo.sys.modular.position.service.SysPositionService;
+import vip.xiaonuo.sys.modular.user.entity.SysUser;
+import vip.xiaonuo.sys.modular.user.param.SysUserImportParam;
+import vip.xiaonuo.sys.modular.user.service.impl.SysUserServiceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 用户导入时按组织全名称查找或创建组织的测试，同一事务内的多行不能重复创建同一组织
+ *
+ * @author jetox
+ * @date 2026/10/18 23:59
+ */
+class SysUserImportTest {
+
+    private final SysOrgMapper sysOrgMapper = mock(SysOrgMapper.class);
+
+    private final SysOrgHierarchyIndexHolder sysOrgHierarchyIndexHolder = mock(SysOrgHierarchyIndexHolder.class);
+
+    private final SysPositionService sysPositionService = mock(SysPositionService.class);
+
+    /** 模拟数据库中的组织表，包含本事务内新插入的行 */
+    private final List<SysOrg> dbOrgList = new ArrayList<>();
+
+    private SysUserServiceImpl sysUserService;
+
+    private MockedStatic<SysPasswordUtl> sysPasswordUtl;
+
+    private MockedStatic<CommonAvatarUtil> commonAvatarUtil;
+
+    private MockedStatic<CommonCryptogramUtil> commonCryptogramUtil;
+
+    @BeforeAll
+    static void initTableInfo() {
+        if (TableInfoHelper.getTableInfo(SysOrg.class) == null) {
+            TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), SysOrg.class);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        SysOrg company = new SysOrg();
+        company.setId("1");
+        company.setParentId("0");
+        company.setName("总公司");
+        company.setSortCode(1);
+        dbOrgList.add(company);
+        when(sysOrgMapper.selectList(any())).thenAnswer(invocation -> new ArrayList<>(dbOrgList));
+        when(sysOrgMapper.insert(any(SysOrg.class))).thenAnswer(invocation -> {
+            SysOrg sysOrg = invocation.getArgument(0);
+            sysOrg.setId("new" + dbOrgList.size());
+            dbOrgList.add(sysOrg);
+            return 1;
+        });
+        // 层级索引只在事务提交后刷新，导入过程中始终是导入前的快照
+        when(sysOrgHierarchyIndexHolder.getIndex()).thenReturn(SysOrgHierarchyIndex.build(new ArrayList<>(dbOrgList), 0));
+        when(sysPositionService.getPositionIdByPositionNameWithCreate(anyString(), anyString())).thenReturn("position");
+
+        SysOrgServiceImpl sysOrgService = new SysOrgServiceImpl();
+        ReflectionTestUtils.setField(sysOrgService, "baseMapper", sysOrgMapper);
+        ReflectionTestUtils.setField(sysOrgService, "sysOrgExtService", mock(SysOrgExtService.class));
+        ReflectionTestUtils.setField(sysOrgService, "sysOrgHierarchyIndexHolder", sysOrgHierarchyIndexHolder);
+
+        sysUserService = spy(new SysUserServiceImpl());
+        ReflectionTestUtils.setField(sysUserService, "sysOrgService", sysOrgService);
+        ReflectionTestUtils.setField(sysUserService, "sysPositionService", sysPositionService);
+        ReflectionTestUtils.setField(sysUserService, "sysUserExtService", mock(SysUserExtService.class));
+        doReturn(true).when(sysUserService).saveOrUpdate(any(SysUser.class));
+
+        sysPasswordUtl = mockStatic(SysPasswordUtl.class);
+        commonAvatarUtil = mockStatic(CommonAvatarUtil.class);
+        commonCryptogramUtil = mockStatic(CommonCryptogramUtil.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sysPasswordUtl.close();
+        commonAvatarUtil.close();
+        commonCryptogramUtil.close();
+    }
+
+    @Test
+    void rowsSharingNewOrgPathCreateItOnce() {
+        List<SysUser> allUserList = new ArrayList<>();
+        JSONObject first = sysUserService.doImport(allUserList, row("zhangsan", "总公司-研发部-一组"), 0);
+        JSONObject second = sysUserService.doImport(allUserList, row("lisi", "总公司-研发部-一组"), 1);
+        assertTrue(first.getBool("success"));
+        assertTrue(second.getBool("success"));
+
+        // 研发部和一组各创建一次，第二行复用第一行创建的组织
+        assertEquals(3, dbOrgList.size());
+        verify(sysOrgMapper, times(2)).insert(any(SysOrg.class));
+        assertEquals(allUserList.get(0).getOrgId(), allUserList.get(1).getOrgId());
+        SysOrg group = dbOrgList.get(2);
+        assertEquals("一组", group.getName());
+        assertEquals(group.getId(), allUserList.get(1).getOrgId());
+        assertEquals(dbOrgList.get(1).getId(), group.getParentId());
+    }
+
+    private static SysUserImportParam row(String account, String orgName) {
+        SysUserImportParam sysUserImportParam = new SysUserImportParam();
+        sysUserImportParam.setAccount(account);
+        sysUserImportParam.setName(account);
+        sysUserImportParam.setOrgName(orgName);
+        sysUserImportParam.setPositionName("工程师");
+        return sysUserImportParam;
+    }
+}